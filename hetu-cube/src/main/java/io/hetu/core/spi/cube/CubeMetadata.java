@@ -19,6 +19,7 @@ import io.hetu.core.spi.cube.aggregator.AggregationSignature;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -46,6 +47,12 @@ public interface CubeMetadata
      */
     long getSourceTableLastUpdatedTime();
 
+    /**
+     * Returns the last updated time of each partition of the source table, as of the last update of the cube.
+     * Empty if the source table is not partitioned or its connector does not track partition updates.
+     */
+    Map<String, Long> getSourcePartitionsLastUpdatedTime();
+
     /**
      * Return the names of the dimension columns
      */
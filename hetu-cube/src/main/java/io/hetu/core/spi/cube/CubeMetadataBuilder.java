@@ -15,6 +15,7 @@
 
 package io.hetu.core.spi.cube;
 
+import java.util.Map;
 import java.util.Set;
 
 public interface CubeMetadataBuilder
@@ -31,6 +32,8 @@ public interface CubeMetadataBuilder
 
     void setTableLastUpdatedTime(long tableLastUpdatedTime);
 
+    void setSourcePartitionsLastUpdatedTime(Map<String, Long> sourcePartitionsLastUpdatedTime);
+
     void setCubeLastUpdatedTime(long cubeLastUpdatedTime);
 
     CubeMetadata build();
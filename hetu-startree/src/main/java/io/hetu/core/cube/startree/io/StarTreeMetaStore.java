@@ -42,6 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static io.hetu.core.cube.startree.tree.StarTreeMetadata.COLUMN_DELIMITER;
 import static io.hetu.core.cube.startree.util.Constants.CUBE_CATALOG;
@@ -59,6 +60,10 @@ public class StarTreeMetaStore
     public static final String CUBE_STATUS = "cubeStatus";
     public static final String SOURCE_TABLE_LAST_UPDATED_TIME = "sourceLastUpdatedTime";
     public static final String CUBE_LAST_UPDATED_TIME = "cubeLastUpdatedTime";
+    public static final String SOURCE_PARTITIONS_LAST_UPDATED_TIME = "sourcePartitionsLastUpdatedTime";
+    // partition names escape line breaks, so the partitions are stored one per line as "<time> <name>"
+    private static final String PARTITION_DELIMITER = "\n";
+    private static final String PARTITION_TIME_DELIMITER = " ";
 
     private final HetuMetastore metastore;
     private final LoadingCache<String, List<CubeMetadata>> cubeCache;
@@ -93,6 +98,7 @@ public class StarTreeMetaStore
             builder.withPredicate(table.getParameters().get(PREDICATE_STRING));
             builder.setCubeStatus(CubeStatus.forValue(Integer.parseInt(table.getParameters().get(CUBE_STATUS))));
             builder.setTableLastUpdatedTime(Long.parseLong(table.getParameters().get(SOURCE_TABLE_LAST_UPDATED_TIME)));
+            builder.setSourcePartitionsLastUpdatedTime(parsePartitionsLastUpdatedTime(table.getParameters().get(SOURCE_PARTITIONS_LAST_UPDATED_TIME)));
             builder.setCubeLastUpdatedTime(Long.parseLong(table.getParameters().get(CUBE_LAST_UPDATED_TIME)));
             cubeMetadataList.add(builder.build());
         });
@@ -214,6 +220,7 @@ public class StarTreeMetaStore
         parameters.put(CUBE_STATUS, String.valueOf(starTreeMetadata.getCubeStatus().getValue()));
         parameters.put(CUBE_LAST_UPDATED_TIME, String.valueOf(starTreeMetadata.getLastUpdatedTime()));
         parameters.put(SOURCE_TABLE_LAST_UPDATED_TIME, String.valueOf(starTreeMetadata.getSourceTableLastUpdatedTime()));
+        parameters.put(SOURCE_PARTITIONS_LAST_UPDATED_TIME, formatPartitionsLastUpdatedTime(starTreeMetadata.getSourcePartitionsLastUpdatedTime()));
 
         return TableEntity.builder()
                 .setCatalogName(CUBE_CATALOG)
@@ -225,6 +232,27 @@ public class StarTreeMetaStore
                 .build();
     }
 
+    private static String formatPartitionsLastUpdatedTime(Map<String, Long> partitionsLastUpdatedTime)
+    {
+        return partitionsLastUpdatedTime.entrySet().stream()
+                .map(entry -> entry.getValue() + PARTITION_TIME_DELIMITER + entry.getKey())
+                .collect(Collectors.joining(PARTITION_DELIMITER));
+    }
+
+    private static Map<String, Long> parsePartitionsLastUpdatedTime(String partitionsLastUpdatedTime)
+    {
+        // cubes created by older versions do not track partitions
+        if (partitionsLastUpdatedTime == null || partitionsLastUpdatedTime.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> result = new HashMap<>();
+        for (String partition : partitionsLastUpdatedTime.split(PARTITION_DELIMITER)) {
+            int index = partition.indexOf(PARTITION_TIME_DELIMITER);
+            result.put(partition.substring(index + 1), Long.parseLong(partition.substring(0, index)));
+        }
+        return result;
+    }
+
     @Override
     public List<CubeMetadata> getAllCubes()
     {
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import io.hetu.core.spi.cube.CubeMetadata;
 import io.hetu.core.spi.cube.CubeStatement;
@@ -30,6 +31,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -56,6 +58,8 @@ public class StarTreeMetadata
 
     private final long sourceTableLastUpdatedTime;
 
+    private final Map<String, Long> sourcePartitionsLastUpdatedTime;
+
     private final long lastUpdatedTime;
 
     private final CubeStatus cubeStatus;
@@ -67,6 +71,7 @@ public class StarTreeMetadata
             @JsonProperty("starTreeName") String starTreeName,
             @JsonProperty("sourceTableName") String sourceTableName,
             @JsonProperty("sourceTableLastUpdatedTime") long sourceTableLastUpdatedTime,
+            @JsonProperty("sourcePartitionsLastUpdatedTime") Map<String, Long> sourcePartitionsLastUpdatedTime,
             @JsonProperty("columns") List<StarTreeColumn> columns,
             @JsonProperty("groups") List<Set<String>> groups,
             @JsonProperty("predicateString") String predicateString,
@@ -82,6 +87,7 @@ public class StarTreeMetadata
         });
         this.predicateString = predicateString;
         this.sourceTableLastUpdatedTime = sourceTableLastUpdatedTime;
+        this.sourcePartitionsLastUpdatedTime = ImmutableMap.copyOf(requireNonNull(sourcePartitionsLastUpdatedTime, "sourcePartitionsLastUpdatedTime is null"));
         this.lastUpdatedTime = lastUpdatedTime;
         this.cubeStatus = cubeStatus;
     }
@@ -204,6 +210,13 @@ public class StarTreeMetadata
         return sourceTableLastUpdatedTime;
     }
 
+    @JsonProperty
+    @Override
+    public Map<String, Long> getSourcePartitionsLastUpdatedTime()
+    {
+        return sourcePartitionsLastUpdatedTime;
+    }
+
     @JsonIgnore
     @Override
     public Optional<String> getColumn(AggregationSignature aggSignature)
@@ -268,6 +281,7 @@ public class StarTreeMetadata
         }
         StarTreeMetadata that = (StarTreeMetadata) o;
         return sourceTableLastUpdatedTime == that.sourceTableLastUpdatedTime
+                && sourcePartitionsLastUpdatedTime.equals(that.sourcePartitionsLastUpdatedTime)
                 && lastUpdatedTime == that.lastUpdatedTime
                 && starTreeName.equals(that.starTreeName)
                 && sourceTableName.equals(that.sourceTableName)
@@ -280,7 +294,7 @@ public class StarTreeMetadata
     @Override
     public int hashCode()
     {
-        return Objects.hash(starTreeName, sourceTableName, columns, groups, predicateString, sourceTableLastUpdatedTime, lastUpdatedTime, cubeStatus);
+        return Objects.hash(starTreeName, sourceTableName, columns, groups, predicateString, sourceTableLastUpdatedTime, sourcePartitionsLastUpdatedTime, lastUpdatedTime, cubeStatus);
     }
 
     @Override
@@ -293,6 +307,7 @@ public class StarTreeMetadata
                 ", groups=" + groups +
                 ", predicateString='" + predicateString + '\'' +
                 ", sourceTableLastUpdatedTime=" + sourceTableLastUpdatedTime +
+                ", sourcePartitionsLastUpdatedTime=" + sourcePartitionsLastUpdatedTime +
                 ", lastUpdatedTime=" + lastUpdatedTime +
                 ", cubeStatus=" + cubeStatus +
                 '}';
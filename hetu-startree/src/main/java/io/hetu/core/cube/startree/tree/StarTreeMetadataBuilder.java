@@ -15,6 +15,7 @@
 
 package io.hetu.core.cube.startree.tree;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.hetu.core.spi.cube.CubeMetadata;
 import io.hetu.core.spi.cube.CubeMetadataBuilder;
@@ -22,6 +23,7 @@ import io.hetu.core.spi.cube.CubeStatus;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class StarTreeMetadataBuilder
@@ -34,6 +36,7 @@ public class StarTreeMetadataBuilder
     private String predicateString;
     private CubeStatus cubeStatus;
     private long tableLastUpdatedTime;
+    private Map<String, Long> sourcePartitionsLastUpdatedTime = ImmutableMap.of();
     private long cubeLastUpdatedTime;
 
     public StarTreeMetadataBuilder(String starTableName, String sourceTableName)
@@ -50,6 +53,7 @@ public class StarTreeMetadataBuilder
         this.groups.add(starTreeMetadata.getGroup());
         this.predicateString = starTreeMetadata.getPredicateString();
         this.tableLastUpdatedTime = starTreeMetadata.getSourceTableLastUpdatedTime();
+        this.sourcePartitionsLastUpdatedTime = starTreeMetadata.getSourcePartitionsLastUpdatedTime();
         this.cubeLastUpdatedTime = starTreeMetadata.getLastUpdatedTime();
         this.cubeStatus = starTreeMetadata.getCubeStatus();
     }
@@ -66,6 +70,12 @@ public class StarTreeMetadataBuilder
         this.tableLastUpdatedTime = tableLastUpdatedTime;
     }
 
+    @Override
+    public void setSourcePartitionsLastUpdatedTime(Map<String, Long> sourcePartitionsLastUpdatedTime)
+    {
+        this.sourcePartitionsLastUpdatedTime = ImmutableMap.copyOf(sourcePartitionsLastUpdatedTime);
+    }
+
     @Override
     public void setCubeLastUpdatedTime(long cubeLastUpdatedTime)
     {
@@ -103,6 +113,7 @@ public class StarTreeMetadataBuilder
                 starTableName,
                 sourceTableName,
                 tableLastUpdatedTime,
+                sourcePartitionsLastUpdatedTime,
                 columns,
                 groups,
                 predicateString,
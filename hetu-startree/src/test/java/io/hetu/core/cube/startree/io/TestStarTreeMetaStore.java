@@ -16,6 +16,7 @@
 package io.hetu.core.cube.startree.io;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.Duration;
 import io.hetu.core.cube.startree.StarTreeProvider;
@@ -69,6 +70,7 @@ public class TestStarTreeMetaStore
         cubeMetadata1 = new StarTreeMetadata("star1",
                 "a",
                 1000,
+                ImmutableMap.of("ds=2020-01-01", 900L, "ds=2020-01-02 00%3A00", 1000L),
                 ImmutableList.of(
                         new AggregateColumn("sum_cost", "SUM", "cost", false),
                         new DimensionColumn("value", "value")),
@@ -79,6 +81,7 @@ public class TestStarTreeMetaStore
         cubeMetadata2 = new StarTreeMetadata("star2",
                 "a",
                 1000,
+                ImmutableMap.of(),
                 ImmutableList.of(
                         new AggregateColumn("sum_cost", "SUM", "cost", false),
                         new DimensionColumn("value", "value")),
@@ -16,6 +16,7 @@
 package io.hetu.core.cube.startree.tree;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.hetu.core.spi.cube.CubeMetadata;
 import io.hetu.core.spi.cube.CubeStatement;
@@ -33,6 +34,7 @@ public class TestStarTreeMetadata
             "memory.default.cube1",
             "tpch.tiny.lineitem",
             100,
+            ImmutableMap.of(),
             ImmutableList.of(
                     new DimensionColumn("suppkey", "suppkey"),
                     new DimensionColumn("returnflag", "returnflag"),
@@ -54,6 +56,7 @@ public class TestStarTreeMetadata
             "memory.default.empty_group_cube",
             "tpch.tiny.lineitem",
             100,
+            ImmutableMap.of(),
             ImmutableList.of(
                     new DimensionColumn("suppkey", "suppkey"),
                     new DimensionColumn("returnflag", "returnflag"),
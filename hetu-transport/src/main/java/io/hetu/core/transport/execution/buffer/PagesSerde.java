@@ -13,6 +13,7 @@
  */
 package io.hetu.core.transport.execution.buffer;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
 import io.airlift.slice.DynamicSliceOutput;
@@ -28,10 +29,12 @@ import io.prestosql.spi.spiller.SpillCipher;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import java.nio.ByteBuffer;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.ENCRYPTED;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readRawPage;
@@ -45,19 +48,40 @@ public class PagesSerde
         implements BlockEncodingSerdeProvider
 {
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    // Recycled buffers are not memory accounted, so a buffer grown past this size by an unusually large page
+    // is dropped instead of being kept for the life of the instance. Twice the default max page size.
+    private static final int MAX_RECYCLED_BUFFER_SIZE = 2 * 1024 * 1024;
 
     private final BlockEncodingSerde blockEncodingSerde;
     private final Optional<Compressor> compressor;
     private final Optional<Decompressor> decompressor;
     private final Optional<SpillCipher> spillCipher;
+    private final boolean recycleBuffers;
+
+    // scratch buffers reused across pages when buffer recycling is enabled
+    private DynamicSliceOutput serializationBuffer;
+    private byte[] compressionBuffer;
+    private byte[] encryptionBuffer;
+    private byte[] decryptionBuffer;
 
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher)
+    {
+        this(blockEncodingSerde, compressor, decompressor, spillCipher, false);
+    }
+
+    /**
+     * When {@code recycleBuffers} is set, the serialization, compression and encryption scratch buffers
+     * are kept by this instance and reused for every page, so that a serialized page costs a single
+     * exact-size allocation instead of one allocation per codec stage.
+     */
+    public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher, boolean recycleBuffers)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
         this.compressor = requireNonNull(compressor, "compressor is null");
         this.decompressor = requireNonNull(decompressor, "decompressor is null");
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
+        this.recycleBuffers = recycleBuffers;
     }
 
     public SerializedPage serialize(Page page)
@@ -78,14 +102,14 @@ public class PagesSerde
 
     private SerializedPage serializeImpl(Page page)
     {
-        SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
-        writeRawPage(page, serializationBuffer, blockEncodingSerde);
-        Slice slice = serializationBuffer.slice();
-        int uncompressedSize = serializationBuffer.size();
+        SliceOutput output = getSerializationBuffer(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
+        writeRawPage(page, output, blockEncodingSerde);
+        Slice slice = output.slice();
+        int uncompressedSize = output.size();
         MarkerSet markers = MarkerSet.empty();
 
         if (compressor.isPresent()) {
-            byte[] compressed = new byte[compressor.get().maxCompressedLength(uncompressedSize)];
+            byte[] compressed = getCompressionBuffer(compressor.get().maxCompressedLength(uncompressedSize));
             int compressedSize = compressor.get().compress(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
@@ -101,7 +125,7 @@ public class PagesSerde
         }
 
         if (spillCipher.isPresent()) {
-            byte[] encrypted = new byte[spillCipher.get().encryptedMaxLength(slice.length())];
+            byte[] encrypted = getEncryptionBuffer(spillCipher.get().encryptedMaxLength(slice.length()));
             int encryptedSize = spillCipher.get().encrypt(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
@@ -113,9 +137,14 @@ public class PagesSerde
             markers.add(ENCRYPTED);
         }
 
-        if (!slice.isCompact()) {
+        // recycled buffers are overwritten by the next page, so the result always gets its own copy
+        if (recycleBuffers || !slice.isCompact()) {
             slice = Slices.copyOf(slice);
         }
+        // the size estimate of a page can be too low, so the recycled buffer may have grown past the limit while writing
+        if (serializationBuffer != null && serializationBuffer.getRetainedSize() > MAX_RECYCLED_BUFFER_SIZE) {
+            this.serializationBuffer = null;
+        }
 
         return new SerializedPage(slice, markers, page.getPositionCount(), uncompressedSize, page.getPageMetadata());
     }
@@ -129,7 +158,14 @@ public class PagesSerde
         if (serializedPage.isEncrypted()) {
             checkState(spillCipher.isPresent(), "Page is encrypted, but spill cipher is missing");
 
-            byte[] decrypted = new byte[spillCipher.get().decryptedMaxLength(slice.length())];
+            if (!slice.hasByteArray()) {
+                // the cipher works on heap arrays only, so off-heap (e.g. memory-mapped) pages are copied once
+                slice = Slices.copyOf(slice);
+            }
+
+            // the decrypted bytes only outlive this method when they are not decompressed afterwards
+            int decryptedMaxLength = spillCipher.get().decryptedMaxLength(slice.length());
+            byte[] decrypted = serializedPage.isCompressed() ? getDecryptionBuffer(decryptedMaxLength) : new byte[decryptedMaxLength];
             int decryptedSize = spillCipher.get().decrypt(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
@@ -145,13 +181,21 @@ public class PagesSerde
 
             int uncompressedSize = serializedPage.getUncompressedSizeInBytes();
             byte[] decompressed = new byte[uncompressedSize];
-            checkState(decompressor.get().decompress(
-                    (byte[]) slice.getBase(),
-                    (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
-                    slice.length(),
-                    decompressed,
-                    0,
-                    uncompressedSize) == uncompressedSize);
+            if (slice.hasByteArray()) {
+                checkState(decompressor.get().decompress(
+                        (byte[]) slice.getBase(),
+                        (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
+                        slice.length(),
+                        decompressed,
+                        0,
+                        uncompressedSize) == uncompressedSize);
+            }
+            else {
+                // off-heap (e.g. memory-mapped) pages are decompressed straight from their buffer
+                ByteBuffer output = ByteBuffer.wrap(decompressed);
+                decompressor.get().decompress(slice.toByteBuffer(), output);
+                checkState(output.position() == uncompressedSize);
+            }
 
             slice = Slices.wrappedBuffer(decompressed);
         }
@@ -159,6 +203,63 @@ public class PagesSerde
         return readRawPage(serializedPage.getPositionCount(), serializedPage.getPageMetadata(), slice.getInput(), blockEncodingSerde);
     }
 
+    private SliceOutput getSerializationBuffer(int estimatedSize)
+    {
+        if (!recycleBuffers || estimatedSize > MAX_RECYCLED_BUFFER_SIZE) {
+            return new DynamicSliceOutput(estimatedSize);
+        }
+        if (serializationBuffer == null) {
+            serializationBuffer = new DynamicSliceOutput(estimatedSize);
+        }
+        serializationBuffer.reset();
+        return serializationBuffer;
+    }
+
+    private byte[] getCompressionBuffer(int size)
+    {
+        if (!recycleBuffers || size > MAX_RECYCLED_BUFFER_SIZE) {
+            return new byte[size];
+        }
+        compressionBuffer = ensureCapacity(compressionBuffer, size);
+        return compressionBuffer;
+    }
+
+    private byte[] getEncryptionBuffer(int size)
+    {
+        if (!recycleBuffers || size > MAX_RECYCLED_BUFFER_SIZE) {
+            return new byte[size];
+        }
+        encryptionBuffer = ensureCapacity(encryptionBuffer, size);
+        return encryptionBuffer;
+    }
+
+    private byte[] getDecryptionBuffer(int size)
+    {
+        if (!recycleBuffers || size > MAX_RECYCLED_BUFFER_SIZE) {
+            return new byte[size];
+        }
+        decryptionBuffer = ensureCapacity(decryptionBuffer, size);
+        return decryptionBuffer;
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int capacity)
+    {
+        if (buffer == null || buffer.length < capacity) {
+            return new byte[capacity];
+        }
+        return buffer;
+    }
+
+    @VisibleForTesting
+    long getRecycledBuffersRetainedSize()
+    {
+        long size = sizeOf(compressionBuffer) + sizeOf(encryptionBuffer) + sizeOf(decryptionBuffer);
+        if (serializationBuffer != null) {
+            size += serializationBuffer.getRetainedSize();
+        }
+        return size;
+    }
+
     @Override
     public BlockEncodingSerde getBlockEncodingSerde()
     {
@@ -26,11 +26,18 @@ public class PagesSerdeFactory
 {
     private final BlockEncodingSerde blockEncodingSerde;
     private final boolean compressionEnabled;
+    private final boolean bufferRecyclingEnabled;
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled)
+    {
+        this(blockEncodingSerde, compressionEnabled, false);
+    }
+
+    public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled, boolean bufferRecyclingEnabled)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.compressionEnabled = compressionEnabled;
+        this.bufferRecyclingEnabled = bufferRecyclingEnabled;
     }
 
     public PagesSerde createPagesSerde()
@@ -46,9 +53,9 @@ public class PagesSerdeFactory
     private PagesSerde createPagesSerdeInternal(Optional<SpillCipher> spillCipher)
     {
         if (compressionEnabled) {
-            return new PagesSerde(blockEncodingSerde, Optional.of(new ZstdCompressor()), Optional.of(new ZstdDecompressor()), spillCipher);
+            return new PagesSerde(blockEncodingSerde, Optional.of(new ZstdCompressor()), Optional.of(new ZstdDecompressor()), spillCipher, bufferRecyclingEnabled);
         }
 
-        return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher);
+        return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher, bufferRecyclingEnabled);
     }
 }
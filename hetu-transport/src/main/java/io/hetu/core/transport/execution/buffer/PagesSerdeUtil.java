@@ -27,6 +27,8 @@ import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.Properties;
 
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static io.hetu.core.transport.block.BlockSerdeUtil.readBlock;
 import static io.hetu.core.transport.block.BlockSerdeUtil.writeBlock;
 import static java.lang.Math.toIntExact;
@@ -79,11 +81,7 @@ public class PagesSerdeUtil
         output.writeBytes(page.getSlice());
 
         if (page.getPageMetadata().size() != 0) {
-            String pageProperties = page.getPageMetadata().toString();
-            byte[] propertiesByte = pageProperties
-                    .replaceAll(",", System.lineSeparator())
-                    .substring(1, pageProperties.length() - 1)
-                    .getBytes(UTF_8);
+            byte[] propertiesByte = getPageMetadataBytes(page);
             output.writeInt(propertiesByte.length);
             output.writeBytes(propertiesByte);
         }
@@ -92,7 +90,28 @@ public class PagesSerdeUtil
         }
     }
 
-    private static SerializedPage readSerializedPage(SliceInput sliceInput)
+    /**
+     * Returns the number of bytes written by {@link #writeSerializedPage(SliceOutput, SerializedPage)} for the page
+     */
+    public static int getSerializedPageSize(SerializedPage page)
+    {
+        int size = SIZE_OF_INT + SIZE_OF_BYTE + SIZE_OF_INT + SIZE_OF_INT + page.getSizeInBytes() + SIZE_OF_INT;
+        if (page.getPageMetadata().size() != 0) {
+            size += getPageMetadataBytes(page).length;
+        }
+        return size;
+    }
+
+    private static byte[] getPageMetadataBytes(SerializedPage page)
+    {
+        String pageProperties = page.getPageMetadata().toString();
+        return pageProperties
+                .replaceAll(",", System.lineSeparator())
+                .substring(1, pageProperties.length() - 1)
+                .getBytes(UTF_8);
+    }
+
+    public static SerializedPage readSerializedPage(SliceInput sliceInput)
     {
         int positionCount = sliceInput.readInt();
         PageCodecMarker.MarkerSet markers = PageCodecMarker.MarkerSet.fromByteValue(sliceInput.readByte());
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import io.airlift.slice.Slice;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
+import io.prestosql.spi.block.VariableWidthBlockBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkPagesSerde
+{
+    private static final int POSITION_COUNT = 4096;
+
+    @Param({"true", "false"})
+    private boolean compressionEnabled;
+
+    @Param({"true", "false"})
+    private boolean bufferRecyclingEnabled;
+
+    private PagesSerde serde;
+    private Page page;
+    private SerializedPage serializedPage;
+
+    @Setup
+    public void setup()
+    {
+        serde = new PagesSerdeFactory(new TestingBlockEncodingSerde(), compressionEnabled, bufferRecyclingEnabled).createPagesSerde();
+        page = createPage();
+        serializedPage = serde.serialize(page);
+    }
+
+    @Benchmark
+    public SerializedPage serialize()
+    {
+        return serde.serialize(page);
+    }
+
+    @Benchmark
+    public Page deserialize()
+    {
+        return serde.deserialize(serializedPage);
+    }
+
+    private static Page createPage()
+    {
+        Random random = new Random(0);
+        BlockBuilder longBlockBuilder = BIGINT.createBlockBuilder(null, POSITION_COUNT);
+        BlockBuilder varcharBlockBuilder = new VariableWidthBlockBuilder(null, POSITION_COUNT, POSITION_COUNT * 16);
+        for (int position = 0; position < POSITION_COUNT; position++) {
+            // low cardinality values so that the page is actually compressible
+            BIGINT.writeLong(longBlockBuilder, random.nextInt(1000));
+            Slice value = utf8Slice("value-" + random.nextInt(100));
+            varcharBlockBuilder.writeBytes(value, 0, value.length()).closeEntry();
+        }
+        Block longBlock = longBlockBuilder.build();
+        Block varcharBlock = varcharBlockBuilder.build();
+        return new Page(longBlock, varcharBlock);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .addProfiler(GCProfiler.class)
+                .include(".*" + BenchmarkPagesSerde.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
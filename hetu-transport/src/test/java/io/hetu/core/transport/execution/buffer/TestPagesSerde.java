@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
+import org.testng.annotations.Test;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPagesSerde
+{
+    @Test
+    public void testRoundTripWithBufferRecycling()
+    {
+        PagesSerde serde = new PagesSerdeFactory(new TestingBlockEncodingSerde(), true, true).createPagesSerde();
+
+        Page first = createPage(0, 1000);
+        Page second = createPage(42, 10);
+        SerializedPage serializedFirst = serde.serialize(first);
+        SerializedPage serializedSecond = serde.serialize(second);
+
+        // the second page reuses the buffers of the first one, which must not affect the first serialized page
+        assertTrue(serializedFirst.isCompressed());
+        assertPageEquals(serde.deserialize(serializedFirst), first);
+        assertPageEquals(serde.deserialize(serializedSecond), second);
+        assertEquals(serializedFirst.getSlice().length(), serializedFirst.getSizeInBytes());
+    }
+
+    @Test
+    public void testRecyclingMatchesDefaultSerialization()
+    {
+        PagesSerde recycling = new PagesSerdeFactory(new TestingBlockEncodingSerde(), true, true).createPagesSerde();
+        PagesSerde allocating = new PagesSerdeFactory(new TestingBlockEncodingSerde(), true, false).createPagesSerde();
+
+        for (int i = 0; i < 3; i++) {
+            Page page = createPage(i, 500 * (i + 1));
+            assertEquals(recycling.serialize(page).getSlice(), allocating.serialize(page).getSlice());
+        }
+    }
+
+    @Test
+    public void testDeserializeDirectSlice()
+    {
+        PagesSerde serde = new PagesSerdeFactory(new TestingBlockEncodingSerde(), true).createPagesSerde();
+
+        Page page = createPage(7, 1000);
+        SerializedPage serialized = serde.serialize(page);
+        assertTrue(serialized.isCompressed());
+
+        // pages read back from memory mapped spill files are not backed by a heap array
+        Slice direct = Slices.allocateDirect(serialized.getSizeInBytes());
+        direct.setBytes(0, serialized.getSlice());
+        SerializedPage directPage = new SerializedPage(
+                direct,
+                PageCodecMarker.MarkerSet.fromByteValue(serialized.getPageCodecMarkers()),
+                serialized.getPositionCount(),
+                serialized.getUncompressedSizeInBytes());
+        assertPageEquals(serde.deserialize(directPage), page);
+    }
+
+    @Test
+    public void testLargePageBuffersNotRetained()
+    {
+        PagesSerde serde = new PagesSerdeFactory(new TestingBlockEncodingSerde(), true, true).createPagesSerde();
+
+        serde.serialize(createPage(1, 10));
+        long retainedSize = serde.getRecycledBuffersRetainedSize();
+        assertTrue(retainedSize > 0);
+
+        // the buffers of a page above the recycling limit are not kept
+        Page large = createPage(7, 1_000_000);
+        SerializedPage serializedLarge = serde.serialize(large);
+        assertEquals(serde.getRecycledBuffersRetainedSize(), retainedSize);
+        assertPageEquals(serde.deserialize(serializedLarge), large);
+    }
+
+    @Test
+    public void testGrownSerializationBufferNotRetained()
+    {
+        PagesSerde serde = new PagesSerdeFactory(new TestingBlockEncodingSerde(), true, true).createPagesSerde();
+
+        serde.serialize(createPage(1, 10));
+        long retainedSize = serde.getRecycledBuffersRetainedSize();
+
+        // the size estimate passes the recycling limit check, but the serialized page does not fit in it
+        Page understated = new Page(createPage(7, 1_000_000).getBlock(0))
+        {
+            @Override
+            public long getSizeInBytes()
+            {
+                return 10;
+            }
+        };
+        SerializedPage serialized = serde.serialize(understated);
+        assertTrue(serialized.getUncompressedSizeInBytes() > 2 * 1024 * 1024);
+        assertTrue(serde.getRecycledBuffersRetainedSize() <= retainedSize);
+        assertPageEquals(serde.deserialize(serialized), understated);
+    }
+
+    private static Page createPage(long value, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, value);
+        }
+        Block block = blockBuilder.build();
+        return new Page(block);
+    }
+
+    private static void assertPageEquals(Page actual, Page expected)
+    {
+        assertEquals(actual.getPositionCount(), expected.getPositionCount());
+        assertEquals(actual.getChannelCount(), expected.getChannelCount());
+        for (int position = 0; position < expected.getPositionCount(); position++) {
+            assertEquals(BIGINT.getLong(actual.getBlock(0), position), BIGINT.getLong(expected.getBlock(0), position));
+        }
+    }
+}
@@ -149,6 +149,12 @@ public class ClientOptions
     @Option(name = "--ignore-errors", title = "ignore errors", description = "Continue processing in batch mode when an error occurs (default is to exit immediately)")
     public boolean ignoreErrors;
 
+    @Option(name = "--binary-results", title = "binary results", description = "Receive result data as serialized pages instead of JSON rows, for the column types that support it")
+    public boolean binaryResults;
+
+    @Option(name = "--direct-results", title = "direct results", description = "Download result data from the workers in parallel instead of through the coordinator, for the column types that support it")
+    public boolean directResults;
+
     public enum OutputFormat
     {
         ALIGNED,
@@ -193,7 +199,9 @@ public class ClientOptions
                 emptyMap(),
                 toExtraCredentials(extraCredentials),
                 null,
-                clientRequestTimeout);
+                clientRequestTimeout,
+                binaryResults,
+                directResults);
     }
 
     public static URI parseServer(String server)
@@ -15,5 +15,9 @@ package io.prestosql.client;
 
 public enum ClientCapabilities
 {
-    PATH;
+    PATH,
+    // result data can be sent as serialized pages, see QueryResults#getBinaryData
+    SERIALIZED_PAGES,
+    // result data can be downloaded from the output buffers of the workers, see QueryResults#getResultSegments
+    DIRECT_RESULTS;
 }
@@ -51,6 +51,8 @@ public class ClientSession
     private final Map<String, String> extraCredentials;
     private final String transactionId;
     private final Duration clientRequestTimeout;
+    private final boolean binaryResults;
+    private final boolean directResults;
 
     public static Builder builder(ClientSession clientSession)
     {
@@ -83,6 +85,32 @@ public class ClientSession
             Map<String, String> extraCredentials,
             String transactionId,
             Duration clientRequestTimeout)
+    {
+        this(server, user, source, traceToken, clientTags, clientInfo, catalog, schema, path, timeZone, locale, resourceEstimates, properties,
+                preparedStatements, roles, extraCredentials, transactionId, clientRequestTimeout, false, false);
+    }
+
+    public ClientSession(
+            URI server,
+            String user,
+            String source,
+            Optional<String> traceToken,
+            Set<String> clientTags,
+            String clientInfo,
+            String catalog,
+            String schema,
+            String path,
+            ZoneId timeZone,
+            Locale locale,
+            Map<String, String> resourceEstimates,
+            Map<String, String> properties,
+            Map<String, String> preparedStatements,
+            Map<String, ClientSelectedRole> roles,
+            Map<String, String> extraCredentials,
+            String transactionId,
+            Duration clientRequestTimeout,
+            boolean binaryResults,
+            boolean directResults)
     {
         this.server = requireNonNull(server, "server is null");
         this.user = user;
@@ -102,6 +130,8 @@ public class ClientSession
         this.roles = ImmutableMap.copyOf(requireNonNull(roles, "roles is null"));
         this.extraCredentials = ImmutableMap.copyOf(requireNonNull(extraCredentials, "extraCredentials is null"));
         this.clientRequestTimeout = clientRequestTimeout;
+        this.binaryResults = binaryResults;
+        this.directResults = directResults;
 
         for (String clientTag : clientTags) {
             checkArgument(!clientTag.contains(","), "client tag cannot contain ','");
@@ -230,6 +260,22 @@ public class ClientSession
         return clientRequestTimeout;
     }
 
+    /**
+     * Whether the server may return result data as serialized pages instead of JSON rows
+     */
+    public boolean isBinaryResults()
+    {
+        return binaryResults;
+    }
+
+    /**
+     * Whether the result data may be downloaded directly from the workers instead of through the coordinator
+     */
+    public boolean isDirectResults()
+    {
+        return directResults;
+    }
+
     @Override
     public String toString()
     {
@@ -246,6 +292,8 @@ public class ClientSession
                 .add("locale", locale)
                 .add("properties", properties)
                 .add("transactionId", transactionId)
+                .add("binaryResults", binaryResults)
+                .add("directResults", directResults)
                 .omitNullValues()
                 .toString();
     }
@@ -270,6 +318,8 @@ public class ClientSession
         private Map<String, String> credentials;
         private String transactionId;
         private Duration clientRequestTimeout;
+        private boolean binaryResults;
+        private boolean directResults;
 
         private Builder(ClientSession clientSession)
         {
@@ -292,6 +342,8 @@ public class ClientSession
             credentials = clientSession.getExtraCredentials();
             transactionId = clientSession.getTransactionId();
             clientRequestTimeout = clientSession.getClientRequestTimeout();
+            binaryResults = clientSession.isBinaryResults();
+            directResults = clientSession.isDirectResults();
         }
 
         public Builder withCatalog(String catalog)
@@ -348,6 +400,18 @@ public class ClientSession
             return this;
         }
 
+        public Builder withBinaryResults(boolean binaryResults)
+        {
+            this.binaryResults = binaryResults;
+            return this;
+        }
+
+        public Builder withDirectResults(boolean directResults)
+        {
+            this.directResults = directResults;
+            return this;
+        }
+
         public ClientSession build()
         {
             return new ClientSession(
@@ -368,7 +432,9 @@ public class ClientSession
                     roles,
                     credentials,
                     transactionId,
-                    clientRequestTimeout);
+                    clientRequestTimeout,
+                    binaryResults,
+                    directResults);
         }
     }
 }
@@ -16,6 +16,7 @@ package io.prestosql.client;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
@@ -45,6 +46,24 @@ public class QueryResults
     private final List<Warning> warnings;
     private final String updateType;
     private final Long updateCount;
+    private final List<SerializedPage> binaryData;
+    private final List<URI> resultSegments;
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            List<List<Object>> data,
+            StatementStats stats,
+            QueryError error,
+            List<Warning> warnings,
+            String updateType,
+            Long updateCount)
+    {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, stats, error, warnings, updateType, updateCount, null, null);
+    }
 
     @JsonCreator
     public QueryResults(
@@ -58,7 +77,9 @@ public class QueryResults
             @JsonProperty("error") QueryError error,
             @JsonProperty("warnings") List<Warning> warnings,
             @JsonProperty("updateType") String updateType,
-            @JsonProperty("updateCount") Long updateCount)
+            @JsonProperty("updateCount") Long updateCount,
+            @JsonProperty("binaryData") List<SerializedPage> binaryData,
+            @JsonProperty("resultSegments") List<URI> resultSegments)
     {
         this(
                 id,
@@ -71,7 +92,9 @@ public class QueryResults
                 error,
                 firstNonNull(warnings, ImmutableList.of()),
                 updateType,
-                updateCount);
+                updateCount,
+                binaryData,
+                resultSegments);
     }
 
     public QueryResults(
@@ -86,6 +109,24 @@ public class QueryResults
             List<Warning> warnings,
             String updateType,
             Long updateCount)
+    {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, stats, error, warnings, updateType, updateCount, null, null);
+    }
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            Iterable<List<Object>> data,
+            StatementStats stats,
+            QueryError error,
+            List<Warning> warnings,
+            String updateType,
+            Long updateCount,
+            List<SerializedPage> binaryData,
+            List<URI> resultSegments)
     {
         this.id = requireNonNull(id, "id is null");
         this.infoUri = requireNonNull(infoUri, "infoUri is null");
@@ -99,6 +140,10 @@ public class QueryResults
         this.warnings = ImmutableList.copyOf(requireNonNull(warnings, "warnings is null"));
         this.updateType = updateType;
         this.updateCount = updateCount;
+        this.binaryData = (binaryData != null) ? ImmutableList.copyOf(binaryData) : null;
+        checkArgument(binaryData == null || (columns != null && data == null), "binary data present without columns or with data");
+        this.resultSegments = (resultSegments != null) ? ImmutableList.copyOf(resultSegments) : null;
+        checkArgument(resultSegments == null || columns != null, "result segments present without columns");
     }
 
     @JsonProperty
@@ -185,6 +230,28 @@ public class QueryResults
         return updateCount;
     }
 
+    /**
+     * Result data as serialized pages, sent instead of {@link #getData()} to clients with the
+     * {@link ClientCapabilities#SERIALIZED_PAGES} capability
+     */
+    @Nullable
+    @JsonProperty
+    public List<SerializedPage> getBinaryData()
+    {
+        return binaryData;
+    }
+
+    /**
+     * Locations of output buffers the result data is downloaded from by clients with the
+     * {@link ClientCapabilities#DIRECT_RESULTS} capability. Each location is only sent once.
+     */
+    @Nullable
+    @JsonProperty
+    public List<URI> getResultSegments()
+    {
+        return resultSegments;
+    }
+
     @Override
     public String toString()
     {
@@ -195,6 +262,8 @@ public class QueryResults
                 .add("nextUri", nextUri)
                 .add("columns", columns)
                 .add("hasData", data != null)
+                .add("hasBinaryData", binaryData != null)
+                .add("resultSegments", resultSegments)
                 .add("stats", stats)
                 .add("error", error)
                 .add("updateType", updateType)
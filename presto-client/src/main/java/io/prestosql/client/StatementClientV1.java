@@ -20,6 +20,9 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.airlift.json.JsonCodec;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.prestosql.client.protocol.BinaryQueryData;
+import io.prestosql.client.protocol.DirectResultsReader;
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
@@ -44,6 +47,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -66,12 +70,15 @@ import static java.net.HttpURLConnection.HTTP_OK;
 import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @ThreadSafe
 class StatementClientV1
         implements StatementClient
 {
     private static final MediaType MEDIA_TYPE_TEXT = MediaType.parse("text/plain; charset=utf-8");
+    // how often the query status is fetched from the coordinator while the result is downloaded from the workers
+    private static final long DIRECT_RESULTS_STATUS_INTERVAL_NANOS = MILLISECONDS.toNanos(500);
     private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
 
     private static final Splitter SESSION_HEADER_SPLITTER = Splitter.on('=').limit(2).trimResults();
@@ -96,6 +103,10 @@ class StatementClientV1
     private final Duration requestTimeoutNanos;
     private final String user;
     private final String clientCapabilities;
+    private final PagesSerde binaryResultsSerde;
+    private final AtomicReference<DirectResultsReader> directResultsReader = new AtomicReference<>();
+    private final AtomicReference<List<List<Object>>> directResultsData = new AtomicReference<>();
+    private volatile long lastStatusNanos;
 
     private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
 
@@ -110,7 +121,11 @@ class StatementClientV1
         this.query = query;
         this.requestTimeoutNanos = session.getClientRequestTimeout();
         this.user = session.getUser();
-        this.clientCapabilities = Joiner.on(",").join(ClientCapabilities.values());
+        this.clientCapabilities = Joiner.on(",").join(Stream.of(ClientCapabilities.values())
+                .filter(capability -> capability != ClientCapabilities.SERIALIZED_PAGES || session.isBinaryResults())
+                .filter(capability -> capability != ClientCapabilities.DIRECT_RESULTS || session.isDirectResults())
+                .iterator());
+        this.binaryResultsSerde = session.isBinaryResults() ? BinaryQueryData.createPagesSerde() : null;
 
         Request request = buildQueryRequest(session, query);
 
@@ -284,7 +299,15 @@ class StatementClientV1
     public QueryData currentData()
     {
         checkState(isRunning(), "current position is not valid (cursor past end)");
-        return currentResults.get();
+        List<List<Object>> rows = directResultsData.get();
+        if (rows != null) {
+            return () -> rows;
+        }
+        QueryResults results = currentResults.get();
+        if (results.getBinaryData() != null && binaryResultsSerde != null) {
+            return new BinaryQueryData(binaryResultsSerde, results.getColumns(), results.getBinaryData());
+        }
+        return results;
     }
 
     @Override
@@ -370,9 +393,14 @@ class StatementClientV1
             return false;
         }
 
+        if (advanceDirectResults()) {
+            return true;
+        }
+
         URI nextUri = currentStatusInfo().getNextUri();
         if (nextUri == null) {
             state.compareAndSet(State.RUNNING, State.FINISHED);
+            closeDirectResultsReader();
             return false;
         }
 
@@ -432,6 +460,61 @@ class StatementClientV1
         }
     }
 
+    /**
+     * Moves to the next batch of rows downloaded from the workers, if there is one before the query status
+     * needs to be fetched again. Once the coordinator reports the query as done, all result segments have been
+     * read, and only the remaining batches are returned.
+     */
+    private boolean advanceDirectResults()
+    {
+        directResultsData.set(null);
+        DirectResultsReader reader = directResultsReader.get();
+        if (reader == null || currentResults.get().getError() != null) {
+            return false;
+        }
+
+        boolean queryDone = currentResults.get().getNextUri() == null;
+        try {
+            while (true) {
+                long statusDelayNanos = DIRECT_RESULTS_STATUS_INTERVAL_NANOS - (System.nanoTime() - lastStatusNanos);
+                if (!queryDone && statusDelayNanos <= 0) {
+                    return false;
+                }
+                if (queryDone && reader.isFinished()) {
+                    return false;
+                }
+                List<List<Object>> rows = reader.pollRows(queryDone ? DIRECT_RESULTS_STATUS_INTERVAL_NANOS : statusDelayNanos, NANOSECONDS);
+                if (rows != null) {
+                    directResultsData.set(rows);
+                    return true;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            try {
+                close();
+            }
+            finally {
+                Thread.currentThread().interrupt();
+            }
+            state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
+            throw new RuntimeException("StatementClient thread was interrupted");
+        }
+        catch (RuntimeException e) {
+            state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
+            closeDirectResultsReader();
+            throw e;
+        }
+    }
+
+    private void closeDirectResultsReader()
+    {
+        DirectResultsReader reader = directResultsReader.getAndSet(null);
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
     private void processResponse(Headers headers, QueryResults results)
     {
         setCatalog.set(headers.get(PrestoHeaders.PRESTO_SET_CATALOG));
@@ -475,6 +558,18 @@ class StatementClientV1
         }
 
         currentResults.set(results);
+        lastStatusNanos = System.nanoTime();
+
+        List<URI> resultSegments = results.getResultSegments();
+        if (resultSegments != null && !resultSegments.isEmpty()) {
+            if (directResultsReader.get() == null) {
+                directResultsReader.set(new DirectResultsReader(httpClient, this::prepareRequest, results.getColumns()));
+            }
+            directResultsReader.get().addSegments(resultSegments);
+        }
+        if (results.getError() != null) {
+            closeDirectResultsReader();
+        }
     }
 
     @Override
@@ -498,6 +593,7 @@ class StatementClientV1
                 httpDelete(uri);
             }
         }
+        closeDirectResultsReader();
     }
 
     private void httpDelete(URI uri)
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.client.protocol;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.client.ClientStandardTypes;
+import io.prestosql.client.Column;
+import io.prestosql.client.QueryData;
+import io.prestosql.client.block.ExternalBlockEncodingSerde;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.SqlDate;
+import io.prestosql.spi.type.SqlDecimal;
+import io.prestosql.spi.type.SqlVarbinary;
+import io.prestosql.spi.type.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static io.prestosql.client.util.TypeUtil.parseType;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Result data sent by the server as serialized pages instead of JSON rows. The rows are decoded into the same
+ * Java values as the JSON rows, see {@link io.prestosql.client.FixJsonDataUtils}.
+ */
+public class BinaryQueryData
+        implements QueryData
+{
+    // types whose values do not depend on the session, and are decoded the same way as from JSON
+    private static final Set<String> SUPPORTED_TYPES = ImmutableSet.of(
+            ClientStandardTypes.BOOLEAN,
+            ClientStandardTypes.TINYINT,
+            ClientStandardTypes.SMALLINT,
+            ClientStandardTypes.INTEGER,
+            ClientStandardTypes.BIGINT,
+            ClientStandardTypes.REAL,
+            ClientStandardTypes.DOUBLE,
+            ClientStandardTypes.DECIMAL,
+            ClientStandardTypes.VARCHAR,
+            ClientStandardTypes.CHAR,
+            ClientStandardTypes.VARBINARY,
+            ClientStandardTypes.DATE);
+
+    private final PagesSerde serde;
+    private final List<Column> columns;
+    private final List<SerializedPage> pages;
+
+    public BinaryQueryData(PagesSerde serde, List<Column> columns, List<SerializedPage> pages)
+    {
+        this.serde = requireNonNull(serde, "serde is null");
+        this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+        this.pages = ImmutableList.copyOf(requireNonNull(pages, "pages is null"));
+    }
+
+    public static PagesSerde createPagesSerde()
+    {
+        return new PagesSerdeFactory(new ExternalBlockEncodingSerde(), true).createPagesSerde();
+    }
+
+    /**
+     * Whether the values of a column of the given raw type can be sent as serialized pages
+     */
+    public static boolean isSupportedType(String rawType)
+    {
+        return SUPPORTED_TYPES.contains(rawType.toLowerCase(Locale.ENGLISH));
+    }
+
+    @Override
+    public Iterable<List<Object>> getData()
+    {
+        List<Type> types = getTypes(columns);
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (SerializedPage serializedPage : pages) {
+            appendRows(serde.deserialize(serializedPage), types, rows);
+        }
+        return rows.build();
+    }
+
+    static List<Type> getTypes(List<Column> columns)
+    {
+        List<Type> types = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            types.add(parseType(null, column.getType().toLowerCase(Locale.ENGLISH)));
+        }
+        return types;
+    }
+
+    static void appendRows(Page page, List<Type> types, ImmutableList.Builder<List<Object>> rows)
+    {
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            List<Object> row = new ArrayList<>(page.getChannelCount());
+            for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                row.add(getValue(types.get(channel), page.getBlock(channel), position));
+            }
+            rows.add(Collections.unmodifiableList(row));
+        }
+    }
+
+    private static Object getValue(Type type, Block block, int position)
+    {
+        Object value = type.getObjectValue(null, block, position);
+        if (value instanceof SqlVarbinary) {
+            return ((SqlVarbinary) value).getBytes();
+        }
+        if (value instanceof SqlDate || value instanceof SqlDecimal) {
+            return value.toString();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.client.protocol;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.SliceInput;
+import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.client.Column;
+import io.prestosql.spi.type.Type;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readSerializedPages;
+import static io.prestosql.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
+import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_SIZE;
+import static io.prestosql.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
+import static io.prestosql.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
+import static io.prestosql.client.PrestoHeaders.PRESTO_TASK_INSTANCE_ID;
+import static java.lang.String.format;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Downloads the result of a query from the output buffers of the root stage tasks, see
+ * {@link io.prestosql.client.QueryResults#getResultSegments()}. Every segment is read by its own thread,
+ * with the same requests the coordinator uses to read the output buffers, and the rows are handed to the
+ * caller in batches. A bounded queue of batches holds the downloads back when the caller reads slower.
+ */
+@ThreadSafe
+public class DirectResultsReader
+        implements AutoCloseable
+{
+    private static final String MAX_RESPONSE_SIZE = "8MB";
+    private static final int MAX_QUEUED_BATCHES = 16;
+    private static final Duration MAX_ERROR_DURATION = new Duration(1, MINUTES);
+
+    private final OkHttpClient httpClient;
+    private final Function<HttpUrl, Request.Builder> requestFactory;
+    private final List<Type> types;
+    private final ExecutorService executor;
+    private final BlockingQueue<List<List<Object>>> batches = new LinkedBlockingQueue<>(MAX_QUEUED_BATCHES);
+    private final Set<URI> segments = new HashSet<>();
+    private final AtomicInteger runningSegments = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public DirectResultsReader(OkHttpClient httpClient, Function<HttpUrl, Request.Builder> requestFactory, List<Column> columns)
+    {
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+        this.requestFactory = requireNonNull(requestFactory, "requestFactory is null");
+        this.types = BinaryQueryData.getTypes(requireNonNull(columns, "columns is null"));
+        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("direct-results-%s")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Starts downloading the given segments, segments that are already downloaded are ignored
+     */
+    public synchronized void addSegments(List<URI> newSegments)
+    {
+        checkState(!executor.isShutdown(), "reader is closed");
+        for (URI segment : newSegments) {
+            if (segments.add(segment)) {
+                runningSegments.incrementAndGet();
+                executor.execute(() -> readSegment(segment));
+            }
+        }
+    }
+
+    /**
+     * Returns the next batch of rows, waiting up to the given time for one, or null if there is none yet.
+     */
+    public List<List<Object>> pollRows(long timeout, TimeUnit unit)
+            throws InterruptedException
+    {
+        List<List<Object>> rows = batches.poll();
+        if (rows == null && !isFinished()) {
+            rows = batches.poll(timeout, unit);
+        }
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new RuntimeException("Error fetching result segments", cause);
+        }
+        return rows;
+    }
+
+    /**
+     * Whether all rows of the segments added so far have been downloaded and returned
+     */
+    public boolean isFinished()
+    {
+        return runningSegments.get() == 0 && batches.isEmpty();
+    }
+
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+        batches.clear();
+    }
+
+    private void readSegment(URI segment)
+    {
+        PagesSerde serde = BinaryQueryData.createPagesSerde();
+        String taskInstanceId = null;
+        long token = 0;
+        long errorStart = -1;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Request.Builder request = requestFactory.apply(HttpUrl.get(segment).newBuilder().addPathSegment(String.valueOf(token)).build())
+                        .addHeader(PRESTO_MAX_SIZE, MAX_RESPONSE_SIZE);
+                if (taskInstanceId != null) {
+                    request.addHeader(PRESTO_TASK_INSTANCE_ID, taskInstanceId);
+                }
+
+                SegmentResponse response;
+                try {
+                    response = getPages(request.build());
+                    errorStart = -1;
+                }
+                catch (IOException | RuntimeException e) {
+                    if (errorStart < 0) {
+                        errorStart = System.nanoTime();
+                    }
+                    if (Duration.nanosSince(errorStart).compareTo(MAX_ERROR_DURATION) > 0) {
+                        throw new RuntimeException(format("Error fetching %s", segment), e);
+                    }
+                    MILLISECONDS.sleep(100);
+                    continue;
+                }
+
+                if (taskInstanceId == null) {
+                    taskInstanceId = response.taskInstanceId;
+                }
+                if (response.token == token) {
+                    ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+                    for (SerializedPage page : response.pages) {
+                        BinaryQueryData.appendRows(serde.deserialize(page), types, rows);
+                    }
+                    List<List<Object>> batch = rows.build();
+                    if (!batch.isEmpty()) {
+                        batches.put(batch);
+                    }
+                    token = response.nextToken;
+                }
+                if (response.complete) {
+                    // let the task finish, as the coordinator does after reading the buffer
+                    Request.Builder delete = requestFactory.apply(HttpUrl.get(segment)).delete();
+                    if (taskInstanceId != null) {
+                        delete.addHeader(PRESTO_TASK_INSTANCE_ID, taskInstanceId);
+                    }
+                    httpClient.newCall(delete.build()).execute().close();
+                    return;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+        finally {
+            runningSegments.decrementAndGet();
+        }
+    }
+
+    private SegmentResponse getPages(Request request)
+            throws IOException
+    {
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (response.code() != HTTP_OK && response.code() != HTTP_NO_CONTENT) {
+                throw new IOException(format("Expected response code to be 200 or 204, but was %s: %s", response.code(), request.url()));
+            }
+            String taskInstanceId = response.header(PRESTO_TASK_INSTANCE_ID);
+            long token = Long.parseLong(requireHeader(response, PRESTO_PAGE_TOKEN));
+            long nextToken = Long.parseLong(requireHeader(response, PRESTO_PAGE_NEXT_TOKEN));
+            boolean complete = Boolean.parseBoolean(requireHeader(response, PRESTO_BUFFER_COMPLETE));
+
+            List<SerializedPage> pages = ImmutableList.of();
+            ResponseBody body = response.body();
+            if (response.code() == HTTP_OK && body != null) {
+                try (SliceInput input = new InputStreamSliceInput(body.byteStream())) {
+                    pages = ImmutableList.copyOf(readSerializedPages(input));
+                }
+            }
+            return new SegmentResponse(taskInstanceId, token, nextToken, complete, pages);
+        }
+    }
+
+    private static String requireHeader(Response response, String name)
+            throws IOException
+    {
+        String value = response.header(name);
+        if (value == null) {
+            throw new IOException(format("Expected %s header", name));
+        }
+        return value;
+    }
+
+    private static class SegmentResponse
+    {
+        private final String taskInstanceId;
+        private final long token;
+        private final long nextToken;
+        private final boolean complete;
+        private final List<SerializedPage> pages;
+
+        private SegmentResponse(String taskInstanceId, long token, long nextToken, boolean complete, List<SerializedPage> pages)
+        {
+            this.taskInstanceId = taskInstanceId;
+            this.token = token;
+            this.nextToken = nextToken;
+            this.complete = complete;
+            this.pages = pages;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.client.protocol;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.json.JsonCodec;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.prestosql.client.ClientTypeSignature;
+import io.prestosql.client.Column;
+import io.prestosql.client.QueryResults;
+import io.prestosql.client.StatementStats;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.type.DecimalType;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.Decimals.encodeShortScaledValue;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestBinaryQueryData
+{
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+    private static final DecimalType DECIMAL = DecimalType.createDecimalType(10, 2);
+
+    @Test
+    public void testSupportedTypes()
+    {
+        assertTrue(BinaryQueryData.isSupportedType("bigint"));
+        assertTrue(BinaryQueryData.isSupportedType("varchar"));
+        assertTrue(BinaryQueryData.isSupportedType("decimal"));
+        assertFalse(BinaryQueryData.isSupportedType("timestamp"));
+        assertFalse(BinaryQueryData.isSupportedType("array"));
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR, DECIMAL, DATE, VARBINARY);
+        PageBuilder pageBuilder = new PageBuilder(types);
+        pageBuilder.declarePosition();
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(0), 42);
+        VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), utf8Slice("hello"));
+        DECIMAL.writeLong(pageBuilder.getBlockBuilder(2), encodeShortScaledValue(new BigDecimal("12.34"), 2));
+        DATE.writeLong(pageBuilder.getBlockBuilder(3), 1);
+        VARBINARY.writeSlice(pageBuilder.getBlockBuilder(4), wrappedBuffer(new byte[] {1, 2, 3}));
+        pageBuilder.declarePosition();
+        for (int channel = 0; channel < types.size(); channel++) {
+            pageBuilder.getBlockBuilder(channel).appendNull();
+        }
+        Page page = pageBuilder.build();
+
+        List<Column> columns = ImmutableList.of(
+                new Column("a", "bigint", new ClientTypeSignature("bigint")),
+                new Column("b", "varchar", new ClientTypeSignature("varchar")),
+                new Column("c", "decimal(10,2)", new ClientTypeSignature("decimal")),
+                new Column("d", "date", new ClientTypeSignature("date")),
+                new Column("e", "varbinary", new ClientTypeSignature("varbinary")));
+
+        PagesSerde serde = BinaryQueryData.createPagesSerde();
+        QueryResults results = new QueryResults(
+                "20160128_214710_00012_rk68b",
+                URI.create("http://localhost:54855/query.html?20160128_214710_00012_rk68b"),
+                null,
+                null,
+                columns,
+                null,
+                StatementStats.builder().setState("FINISHED").build(),
+                null,
+                ImmutableList.of(),
+                null,
+                null,
+                ImmutableList.of(serde.serialize(page)),
+                null);
+        results = QUERY_RESULTS_CODEC.fromJson(QUERY_RESULTS_CODEC.toJson(results));
+        assertNull(results.getData());
+
+        Iterator<List<Object>> rows = new BinaryQueryData(serde, results.getColumns(), results.getBinaryData()).getData().iterator();
+        List<Object> row = rows.next();
+        assertEquals(row.subList(0, 4), ImmutableList.of(42L, "hello", "12.34", "1970-01-02"));
+        assertEquals((byte[]) row.get(4), new byte[] {1, 2, 3});
+        assertEquals(rows.next(), Arrays.asList(null, null, null, null, null));
+        assertFalse(rows.hasNext());
+    }
+}
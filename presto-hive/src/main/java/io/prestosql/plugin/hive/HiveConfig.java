@@ -117,7 +117,12 @@ public class HiveConfig
 
     private boolean useParquetColumnNames;
     private boolean failOnCorruptedParquetStatistics = true;
+    private boolean useParquetColumnIndex = true;
     private DataSize parquetMaxReadBlockSize = new DataSize(16, MEGABYTE);
+    private boolean parquetBloomFiltersEnabled;
+    private boolean parquetBloomFiltersCacheEnabled;
+    private Duration parquetBloomFiltersCacheTtl = new Duration(4, HOURS);
+    private DataSize parquetBloomFiltersCacheMaximumWeight = new DataSize(256, MEGABYTE);
 
     private boolean assumeCanonicalPartitionKeys;
 
@@ -201,6 +206,7 @@ public class HiveConfig
     private double vacuumDeltaPercentThreshold = 0.1;
     private boolean autoVacuumEnabled;
     private boolean orcPredicatePushdownEnabled;
+    private boolean parquetPredicatePushdownEnabled;
 
     public int getMaxInitialSplits()
     {
@@ -1013,6 +1019,19 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isUseParquetColumnIndex()
+    {
+        return useParquetColumnIndex;
+    }
+
+    @Config("hive.parquet.use-column-index")
+    @ConfigDescription("Skip Parquet data pages using the column and offset indexes of the file")
+    public HiveConfig setUseParquetColumnIndex(boolean useParquetColumnIndex)
+    {
+        this.useParquetColumnIndex = useParquetColumnIndex;
+        return this;
+    }
+
     @NotNull
     public DataSize getParquetMaxReadBlockSize()
     {
@@ -1026,6 +1045,58 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isParquetBloomFiltersEnabled()
+    {
+        return parquetBloomFiltersEnabled;
+    }
+
+    @Config("hive.parquet.bloom-filters.enabled")
+    @ConfigDescription("Skip Parquet row groups using the bloom filters of the file for equality predicates")
+    public HiveConfig setParquetBloomFiltersEnabled(boolean parquetBloomFiltersEnabled)
+    {
+        this.parquetBloomFiltersEnabled = parquetBloomFiltersEnabled;
+        return this;
+    }
+
+    public boolean isParquetBloomFiltersCacheEnabled()
+    {
+        return parquetBloomFiltersCacheEnabled;
+    }
+
+    @Config("hive.parquet.bloom-filters.cache.enabled")
+    @ConfigDescription("Enable caching of Parquet bloom filters.")
+    public HiveConfig setParquetBloomFiltersCacheEnabled(boolean parquetBloomFiltersCacheEnabled)
+    {
+        this.parquetBloomFiltersCacheEnabled = parquetBloomFiltersCacheEnabled;
+        return this;
+    }
+
+    @MinDuration("0ms")
+    public Duration getParquetBloomFiltersCacheTtl()
+    {
+        return parquetBloomFiltersCacheTtl;
+    }
+
+    @Config("hive.parquet.bloom-filters.cache.ttl")
+    public HiveConfig setParquetBloomFiltersCacheTtl(Duration parquetBloomFiltersCacheTtl)
+    {
+        this.parquetBloomFiltersCacheTtl = parquetBloomFiltersCacheTtl;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getParquetBloomFiltersCacheMaximumWeight()
+    {
+        return parquetBloomFiltersCacheMaximumWeight;
+    }
+
+    @Config("hive.parquet.bloom-filters.cache.maximum-weight")
+    public HiveConfig setParquetBloomFiltersCacheMaximumWeight(DataSize parquetBloomFiltersCacheMaximumWeight)
+    {
+        this.parquetBloomFiltersCacheMaximumWeight = parquetBloomFiltersCacheMaximumWeight;
+        return this;
+    }
+
     public boolean isOptimizeMismatchedBucketCount()
     {
         return optimizeMismatchedBucketCount;
@@ -1767,6 +1838,19 @@ public class HiveConfig
         return orcPredicatePushdownEnabled;
     }
 
+    @Config("hive.parquet-predicate-pushdown-enabled")
+    @ConfigDescription("Enables processing of predicates within Parquet reading")
+    public HiveConfig setParquetPredicatePushdownEnabled(boolean parquetPredicatePushdownEnabled)
+    {
+        this.parquetPredicatePushdownEnabled = parquetPredicatePushdownEnabled;
+        return this;
+    }
+
+    public boolean isParquetPredicatePushdownEnabled()
+    {
+        return parquetPredicatePushdownEnabled;
+    }
+
     @Config("hive.vacuum-collector-interval")
     @ConfigDescription("Interval after which vacuum collector task will be resubmitted")
     public HiveConfig setVacuumCollectorInterval(Duration interval)
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.airlift.json.JsonCodec;
@@ -105,6 +106,7 @@ import org.apache.hadoop.mapred.JobConf;
 import org.joda.time.DateTimeZone;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -140,6 +142,7 @@ import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Streams.stream;
 import static io.prestosql.plugin.hive.HiveBucketing.containsTimestampBucketedV2;
 import static io.prestosql.plugin.hive.HiveStorageFormat.ORC;
+import static io.prestosql.plugin.hive.HiveStorageFormat.PARQUET;
 import static io.prestosql.plugin.hive.HiveTableProperties.IS_EXTERNAL_TABLE;
 import static io.prestosql.plugin.hive.HiveTableProperties.LOCATION_PROPERTY;
 import static io.prestosql.plugin.hive.HiveTableProperties.NON_INHERITABLE_PROPERTIES;
@@ -208,6 +211,8 @@ public class HiveMetadata
     private static final String CSV_QUOTE_KEY = OpenCSVSerde.QUOTECHAR;
     private static final String CSV_ESCAPE_KEY = OpenCSVSerde.ESCAPECHAR;
 
+    private static final int PARTITION_MODIFICATION_TIME_BATCH_SIZE = 100;
+
     private final boolean allowCorruptWritesForTesting;
     protected final SemiTransactionalHiveMetastore metastore;
     protected final HdfsEnvironment hdfsEnvironment;
@@ -656,6 +661,44 @@ public class HiveMetadata
         }
     }
 
+    @Override
+    public Map<String, Long> getPartitionModificationTimes(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        SchemaTableName tableName = ((HiveTableHandle) tableHandle).getSchemaTableName();
+        HiveIdentity identity = new HiveIdentity(session);
+        Table table = metastore.getTable(identity, tableName.getSchemaName(), tableName.getTableName())
+                .orElseThrow(() -> new TableNotFoundException(tableName));
+        if (table.getPartitionColumns().isEmpty()) {
+            return ImmutableMap.of();
+        }
+        List<String> partitionNames = metastore.getPartitionNames(identity, tableName.getSchemaName(), tableName.getTableName())
+                .orElseThrow(() -> new TableNotFoundException(tableName));
+        HdfsContext context = new HdfsContext(session, tableName.getSchemaName());
+        ImmutableMap.Builder<String, Long> modificationTimes = ImmutableMap.builder();
+        for (List<String> batch : Lists.partition(partitionNames, PARTITION_MODIFICATION_TIME_BATCH_SIZE)) {
+            Map<String, Optional<Partition>> partitions = metastore.getPartitionsByNames(identity, tableName.getSchemaName(), tableName.getTableName(), batch);
+            for (Map.Entry<String, Optional<Partition>> entry : partitions.entrySet()) {
+                if (!entry.getValue().isPresent()) {
+                    // partition dropped while listing
+                    continue;
+                }
+                Path partitionPath = new Path(entry.getValue().get().getStorage().getLocation());
+                try {
+                    FileSystem fileSystem = hdfsEnvironment.getFileSystem(context, partitionPath);
+                    // As for tables, the directory modification time represents the partition modification time
+                    modificationTimes.put(entry.getKey(), fileSystem.getFileStatus(partitionPath).getModificationTime());
+                }
+                catch (FileNotFoundException e) {
+                    modificationTimes.put(entry.getKey(), 0L);
+                }
+                catch (IOException e) {
+                    throw new PrestoException(HiveErrorCode.HIVE_FILESYSTEM_ERROR, "Cannot get the modification time of partition " + entry.getKey(), e);
+                }
+            }
+        }
+        return modificationTimes.build();
+    }
+
     @SuppressWarnings("TryWithIdenticalCatches")
     @Override
     public Map<SchemaTableName, List<ColumnMetadata>> listTableColumns(ConnectorSession session, SchemaTablePrefix prefix)
@@ -2162,7 +2205,7 @@ public class HiveMetadata
 
         List<TupleDomain<HiveColumnHandle>> newEffectivePredicates = null;
         boolean isSuitableToPush = false;
-        if (HiveSessionProperties.isOrcPredicatePushdownEnabled(session)) {
+        if (HiveSessionProperties.isOrcPredicatePushdownEnabled(session) || HiveSessionProperties.isParquetPredicatePushdownEnabled(session)) {
             isSuitableToPush = checkIfSuitableToPush(allColumnHandles, tableHandle, session);
         }
 
@@ -2223,9 +2266,10 @@ public class HiveMetadata
     }
 
     /**
-     * This function will be called only user enabled pushdown (i.e. orc_predicate_pushdown_enabled=true).
+     * This function will be called only user enabled pushdown (i.e. orc_predicate_pushdown_enabled=true or
+     * parquet_predicate_pushdown_enabled=true).
      * Then further check if pushdown can be supported by connector. It support iff below all condition satisfies.
-     * 1. Storage Format should be only ORC.
+     * 1. Storage Format should be ORC or PARQUET, with pushdown enabled for that format.
      * 2. Table to be scanned is not transactional table (so effectively DELETE/UPDATE also not supported).
      * 3. Also columns part of the scan are of any primitive data-type except byte.
      * NOTE: This should be adjusted as we continue to support additional functionality.
@@ -2236,9 +2280,12 @@ public class HiveMetadata
      */
     protected boolean checkIfSuitableToPush(Set<ColumnHandle> allColumnHandles, ConnectorTableHandle tableHandle, ConnectorSession session)
     {
-        // We allow predicate pushdown only for non-transaction table of HIVE ORC storage format.
-        if (getHiveStorageFormat(getTableMetadata(session, tableHandle).getProperties()) != ORC
-                || getTransactionalValue(getTableMetadata(session, tableHandle).getProperties())) {
+        // We allow predicate pushdown only for non-transaction table of HIVE ORC or PARQUET storage format.
+        Map<String, Object> tableProperties = getTableMetadata(session, tableHandle).getProperties();
+        HiveStorageFormat storageFormat = getHiveStorageFormat(tableProperties);
+        boolean formatSupported = (storageFormat == ORC && HiveSessionProperties.isOrcPredicatePushdownEnabled(session))
+                || (storageFormat == PARQUET && HiveSessionProperties.isParquetPredicatePushdownEnabled(session));
+        if (!formatSupported || getTransactionalValue(tableProperties)) {
             return false;
         }
 
@@ -28,10 +28,12 @@ import io.prestosql.orc.OrcCacheStore;
 import io.prestosql.orc.RowDataCacheStatsLister;
 import io.prestosql.orc.RowIndexCacheStatsLister;
 import io.prestosql.orc.StripeFooterCacheStatsLister;
+import io.prestosql.parquet.ParquetCacheStore;
 import io.prestosql.plugin.hive.metastore.SemiTransactionalHiveMetastore;
 import io.prestosql.plugin.hive.orc.OrcPageSourceFactory;
 import io.prestosql.plugin.hive.orc.OrcSelectivePageSourceFactory;
 import io.prestosql.plugin.hive.parquet.ParquetPageSourceFactory;
+import io.prestosql.plugin.hive.parquet.ParquetSelectivePageSourceFactory;
 import io.prestosql.plugin.hive.rcfile.RcFilePageSourceFactory;
 import io.prestosql.plugin.hive.s3.PrestoS3ClientFactory;
 import io.prestosql.plugin.hive.util.IndexCache;
@@ -117,6 +119,7 @@ public class HiveModule
 
         Multibinder<HiveSelectivePageSourceFactory> selectivePageSourceFactoryBinder = newSetBinder(binder, HiveSelectivePageSourceFactory.class);
         selectivePageSourceFactoryBinder.addBinding().to(OrcSelectivePageSourceFactory.class).in(Scopes.SINGLETON);
+        selectivePageSourceFactoryBinder.addBinding().to(ParquetSelectivePageSourceFactory.class).in(Scopes.SINGLETON);
 
         Multibinder<HiveFileWriterFactory> fileWriterFactoryBinder = newSetBinder(binder, HiveFileWriterFactory.class);
         binder.bind(OrcFileWriterFactory.class).in(Scopes.SINGLETON);
@@ -211,4 +214,13 @@ public class HiveModule
                 config.getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(config.getOrcRowDataCacheTtl().toMillis()),
                 config.isOrcCacheStatsMetricCollectionEnabled());
     }
+
+    @Provides
+    @Singleton
+    public static ParquetCacheStore getParquetCacheStore(HiveConfig config)
+    {
+        return ParquetCacheStore.builder().newCacheStore(
+                config.getParquetBloomFiltersCacheMaximumWeight(),
+                Duration.ofMillis(config.getParquetBloomFiltersCacheTtl().toMillis()));
+    }
 }
@@ -23,6 +23,7 @@ import io.prestosql.plugin.hive.HivePageSourceProvider.BucketAdaptation;
 import io.prestosql.plugin.hive.HivePageSourceProvider.ColumnMapping;
 import io.prestosql.plugin.hive.coercions.HiveCoercer;
 import io.prestosql.plugin.hive.orc.OrcSelectivePageSource;
+import io.prestosql.plugin.hive.parquet.ParquetSelectivePageSource;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
@@ -37,7 +38,6 @@ import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
-import io.prestosql.spi.type.TypeUtils;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 import org.joda.time.DateTimeZone;
@@ -133,7 +133,7 @@ public class HivePageSource
             }
         }
         this.coercers = coercers.build();
-        this.isSelectiveRead = delegate instanceof OrcSelectivePageSource;
+        this.isSelectiveRead = delegate instanceof OrcSelectivePageSource || delegate instanceof ParquetSelectivePageSource;
     }
 
     private static Page extractColumns(Page page, int[] columns)
@@ -193,8 +193,8 @@ public class HivePageSource
 
             // This part is for filtering using the bloom filter
             // we filter out rows that are not in the bloom filter
-            // using the filter rows function
-            if (!dynamicFilters.isEmpty()) {
+            // using the filter rows function. The selective ORC and Parquet readers already applied them to their pages.
+            if (!dynamicFilters.isEmpty() && !isSelectiveRead) {
                 final Map<Integer, ColumnHandle> eligibleColumns = getEligibleColumnsForRowFiltering(dataPage.getChannelCount(), dynamicFilters);
                 if (!eligibleColumns.isEmpty()) {
                     dataPage = filter(dynamicFilters, dataPage, eligibleColumns, types);
@@ -325,8 +325,11 @@ public class HivePageSource
                 block.filter(((BloomFilterDynamicFilter) dynamicFilters.get(columnHandle)).getBloomFilterDeserialized(), result);
             }
             else {
-                for (int i = 0; i < block.getPositionCount(); i++) {
-                    result[i] = result[i] && dynamicFilter.contains(TypeUtils.readNativeValue(types[columnIndex], block, i));
+                int[] positions = toPositions(result);
+                int matchCount = dynamicFilter.filter(block, types[columnIndex], positions, positions.length);
+                Arrays.fill(result, false);
+                for (int i = 0; i < matchCount; i++) {
+                    result[positions[i]] = true;
                 }
             }
         }
@@ -178,7 +178,8 @@ public class HivePageSourceProvider
 
         /**
          * This is main logical division point to process filter pushdown enabled case (aka as selective read flow).
-         * If user configuration orc_predicate_pushdown_enabled is true and if all clause of query can be handled by hive
+         * If user configuration orc_predicate_pushdown_enabled (or parquet_predicate_pushdown_enabled for Parquet tables)
+         * is true and if all clause of query can be handled by hive
          * selective read flow, then hiveTable.isSuitableToPush() will be enabled.
          * (Refer HiveMetadata.checkIfSuitableToPush).
          */
@@ -344,6 +345,7 @@ public class HivePageSourceProvider
                     splitCacheable,
                     columnMappings,
                     coercers,
+                    dynamicFilterSupplier,
                     dataSourceLastModifiedTime);
             if (pageSource.isPresent()) {
                 return new HivePageSource(
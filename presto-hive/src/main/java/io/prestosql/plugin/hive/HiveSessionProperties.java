@@ -69,6 +69,9 @@ public final class HiveSessionProperties
     private static final String CREATE_EMPTY_BUCKET_FILES = "create_empty_bucket_files";
     private static final String PARQUET_USE_COLUMN_NAME = "parquet_use_column_names";
     private static final String PARQUET_FAIL_WITH_CORRUPTED_STATISTICS = "parquet_fail_with_corrupted_statistics";
+    private static final String PARQUET_USE_COLUMN_INDEX = "parquet_use_column_index";
+    private static final String PARQUET_BLOOM_FILTERS_ENABLED = "parquet_bloom_filters_enabled";
+    private static final String PARQUET_BLOOM_FILTERS_CACHE_ENABLED = "parquet_bloom_filters_cache_enabled";
     private static final String PARQUET_MAX_READ_BLOCK_SIZE = "parquet_max_read_block_size";
     private static final String PARQUET_WRITER_BLOCK_SIZE = "parquet_writer_block_size";
     private static final String PARQUET_WRITER_PAGE_SIZE = "parquet_writer_page_size";
@@ -87,6 +90,7 @@ public final class HiveSessionProperties
     private static final String DYNAMIC_FILTERING_SPLIT_FILTERING = "dynamic_filtering_partition_filtering";
     private static final String DYNAMIC_FILTERING_ROW_FILTERING_THRESHOLD = "dynamic_filtering_filter_rows_threshold";
     private static final String ORC_PREDICATE_PUSHDOWN = "orc_predicate_pushdown_enabled";
+    private static final String PARQUET_PREDICATE_PUSHDOWN = "parquet_predicate_pushdown_enabled";
     private static final String ORC_DISJUCT_PREDICATE_PUSHDOWN = "orc_disjunct_predicate_pushdown_enabled";
     private static final String ORC_PUSHDOWN_DATACACHE = "orc_pushdown_data_cache_enabled";
     private static final String WRITE_PARTITION_DISTRIBUTION = "write_partition_distribution";
@@ -286,6 +290,21 @@ public final class HiveSessionProperties
                         "Parquet: Fail when scanning Parquet files with corrupted statistics",
                         hiveConfig.isFailOnCorruptedParquetStatistics(),
                         false),
+                booleanProperty(
+                        PARQUET_USE_COLUMN_INDEX,
+                        "Parquet: Skip data pages using the column and offset indexes of the file",
+                        hiveConfig.isUseParquetColumnIndex(),
+                        false),
+                booleanProperty(
+                        PARQUET_BLOOM_FILTERS_ENABLED,
+                        "Parquet: Enable bloom filters for predicate pushdown",
+                        hiveConfig.isParquetBloomFiltersEnabled(),
+                        false),
+                booleanProperty(
+                        PARQUET_BLOOM_FILTERS_CACHE_ENABLED,
+                        "Cache Parquet bloom filters",
+                        hiveConfig.isParquetBloomFiltersCacheEnabled(),
+                        false),
                 dataSizeProperty(
                         PARQUET_MAX_READ_BLOCK_SIZE,
                         "Parquet: Maximum size of a block to read",
@@ -376,6 +395,11 @@ public final class HiveSessionProperties
                         "Experimental: Consume deterministic predicates(conjucts: AND) for ORC scan.",
                         hiveConfig.isOrcPredicatePushdownEnabled(),
                         false),
+                booleanProperty(
+                        PARQUET_PREDICATE_PUSHDOWN,
+                        "Experimental: Consume deterministic predicates(conjucts: AND) for Parquet scan.",
+                        hiveConfig.isParquetPredicatePushdownEnabled(),
+                        false),
                 booleanProperty(
                         ORC_DISJUCT_PREDICATE_PUSHDOWN,
                         "Experimental: Consume deterministic predicates(disjucts: OR) for ORC scan.",
@@ -551,6 +575,21 @@ public final class HiveSessionProperties
         return session.getProperty(PARQUET_FAIL_WITH_CORRUPTED_STATISTICS, Boolean.class);
     }
 
+    public static boolean isUseParquetColumnIndex(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_USE_COLUMN_INDEX, Boolean.class);
+    }
+
+    public static boolean isParquetBloomFiltersEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_BLOOM_FILTERS_ENABLED, Boolean.class);
+    }
+
+    public static boolean isParquetBloomFiltersCacheEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_BLOOM_FILTERS_CACHE_ENABLED, Boolean.class);
+    }
+
     public static DataSize getParquetMaxReadBlockSize(ConnectorSession session)
     {
         return session.getProperty(PARQUET_MAX_READ_BLOCK_SIZE, DataSize.class);
@@ -640,6 +679,11 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_PREDICATE_PUSHDOWN, Boolean.class);
     }
 
+    public static boolean isParquetPredicatePushdownEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_PREDICATE_PUSHDOWN, Boolean.class);
+    }
+
     public static boolean isOrcDisjunctPredicatePushdownEnabled(ConnectorSession session)
     {
         return session.getProperty(ORC_DISJUCT_PREDICATE_PUSHDOWN, Boolean.class);
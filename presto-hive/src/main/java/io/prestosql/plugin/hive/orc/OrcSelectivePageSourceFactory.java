@@ -47,9 +47,12 @@ import io.prestosql.plugin.hive.HiveUtil;
 import io.prestosql.plugin.hive.coercions.HiveCoercer;
 import io.prestosql.plugin.hive.orc.OrcPageSource.ColumnAdaptation;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.FixedPageSource;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
@@ -82,11 +85,13 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.nullToEmpty;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.Maps.uniqueIndex;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -98,6 +103,7 @@ import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILE_MISSING_COLUMN_NAMES;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_MISSING_DATA;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getDynamicFilteringRowFilteringThreshold;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcLazyReadSmallRanges;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcMaxBufferSize;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcMaxMergeDistance;
@@ -170,6 +176,7 @@ public class OrcSelectivePageSourceFactory
             boolean splitCacheable,
             List<HivePageSourceProvider.ColumnMapping> columnMappings,
             Map<Integer, HiveCoercer> coercers,
+            Optional<DynamicFilterSupplier> dynamicFilters,
             long dataSourceLastModifiedTime)
     {
         if (!HiveUtil.isDeserializerClass(schema, OrcSerde.class)) {
@@ -226,6 +233,7 @@ public class OrcSelectivePageSourceFactory
                     positions,
                     columnMappings,
                     coercers,
+                    dynamicFilters,
                     dataSourceLastModifiedTime));
 
             /* Todo(Nitin): For Append Pattern
@@ -300,6 +308,7 @@ public class OrcSelectivePageSourceFactory
                 null,
                 columnMappings,
                 coercers,
+                dynamicFilters,
                 dataSourceLastModifiedTime));
     }
 
@@ -336,6 +345,7 @@ public class OrcSelectivePageSourceFactory
             List<Integer> positions,
             List<HivePageSourceProvider.ColumnMapping> columnMappings,
             Map<Integer, HiveCoercer> coercers,
+            Optional<DynamicFilterSupplier> dynamicFilters,
             long dataSourceLastModifiedTime)
     {
         checkArgument(!domainPredicate.isNone(), "Unexpected NONE domain");
@@ -522,8 +532,10 @@ public class OrcSelectivePageSourceFactory
                     positions,
                     HiveSessionProperties.isOrcPushdownDataCacheEnabled(session),
                     Maps.transformValues(coercers, Function.class::cast),
+                    toCoercedColumnTypes(columnMappings, typeManager),
                     orDomains,
-                    missingColumns);
+                    missingColumns,
+                    toDynamicFilterSupplier(dynamicFilters, columnMappings, getDynamicFilteringRowFilteringThreshold(session)));
 
             OrcDeletedRows deletedRows = new OrcDeletedRows(
                     path.getName(),
@@ -567,7 +579,49 @@ public class OrcSelectivePageSourceFactory
         }
     }
 
-    private static Map<Integer, TupleDomainFilter> toTupleDomainFilters(TupleDomain<HiveColumnHandle> domainPredicate, Map<String, Integer> columnIndices)
+    /**
+     * Dynamic filters are keyed by column handle, the selective reader needs them by column index.
+     * Filters larger than the row filtering threshold are left out, same as for the non selective read.
+     * The filters are looked up with the table side column handles, as the handles of coerced columns passed to
+     * the readers carry the file type.
+     */
+    public static Supplier<Map<Integer, DynamicFilter>> toDynamicFilterSupplier(Optional<DynamicFilterSupplier> dynamicFilters, List<HivePageSourceProvider.ColumnMapping> columnMappings, int rowFilteringThreshold)
+    {
+        List<HiveColumnHandle> columns = columnMappings.stream()
+                .map(HivePageSourceProvider.ColumnMapping::getHiveColumnHandle)
+                .collect(toImmutableList());
+        if (!dynamicFilters.isPresent()) {
+            return ImmutableMap::of;
+        }
+        return () -> {
+            Map<ColumnHandle, DynamicFilter> filters = dynamicFilters.get().getDynamicFilters();
+            if (filters.isEmpty()) {
+                return ImmutableMap.of();
+            }
+            Map<Integer, DynamicFilter> filtersByIndex = new HashMap<>();
+            for (HiveColumnHandle column : columns) {
+                DynamicFilter dynamicFilter = filters.get(column);
+                if (dynamicFilter != null && !column.isPartitionKey() && dynamicFilter.getSize() <= rowFilteringThreshold) {
+                    filtersByIndex.put(column.getHiveColumnIndex(), dynamicFilter);
+                }
+            }
+            return filtersByIndex;
+        };
+    }
+
+    /**
+     * Table side types of the coerced columns by column index, the readers coerce the values of these columns to it.
+     */
+    public static Map<Integer, Type> toCoercedColumnTypes(List<HivePageSourceProvider.ColumnMapping> columnMappings, TypeManager typeManager)
+    {
+        return columnMappings.stream()
+                .filter(mapping -> mapping.getCoercionFrom().isPresent())
+                .collect(toImmutableMap(
+                        mapping -> mapping.getHiveColumnHandle().getHiveColumnIndex(),
+                        mapping -> typeManager.getType(mapping.getHiveColumnHandle().getTypeSignature())));
+    }
+
+    public static Map<Integer, TupleDomainFilter> toTupleDomainFilters(TupleDomain<HiveColumnHandle> domainPredicate, Map<String, Integer> columnIndices)
     {
         // convert the predicate from column name based map to column id based map.
         // toFilter is the function which actually will convert o corresponding Comparator.
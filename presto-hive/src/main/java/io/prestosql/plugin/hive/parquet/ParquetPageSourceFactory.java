@@ -13,16 +13,22 @@
  */
 package io.prestosql.plugin.hive.parquet;
 
+import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.parquet.BloomFilter;
+import io.prestosql.parquet.ParquetBloomFilterCacheKey;
+import io.prestosql.parquet.ParquetCacheStore;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.RowRanges;
 import io.prestosql.parquet.predicate.Predicate;
 import io.prestosql.parquet.reader.MetadataReader;
+import io.prestosql.parquet.reader.ParquetFooter;
 import io.prestosql.parquet.reader.ParquetReader;
 import io.prestosql.plugin.hive.DeleteDeltaLocations;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
@@ -69,7 +75,9 @@ import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggre
 import static io.prestosql.parquet.ParquetTypeUtils.getColumnIO;
 import static io.prestosql.parquet.ParquetTypeUtils.getDescriptors;
 import static io.prestosql.parquet.ParquetTypeUtils.getParquetTypeByName;
+import static io.prestosql.parquet.predicate.PredicateUtils.bloomFiltersMatch;
 import static io.prestosql.parquet.predicate.PredicateUtils.buildPredicate;
+import static io.prestosql.parquet.predicate.PredicateUtils.getRowRanges;
 import static io.prestosql.parquet.predicate.PredicateUtils.predicateMatches;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
@@ -77,6 +85,9 @@ import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_MISSING_DATA;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getParquetMaxReadBlockSize;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isFailOnCorruptedParquetStatistics;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isParquetBloomFiltersCacheEnabled;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isParquetBloomFiltersEnabled;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isUseParquetColumnIndex;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isUseParquetColumnNames;
 import static io.prestosql.plugin.hive.HiveUtil.getDeserializerClassName;
 import static io.prestosql.plugin.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
@@ -88,7 +99,7 @@ import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Cate
 public class ParquetPageSourceFactory
         implements HivePageSourceFactory
 {
-    private static final Set<String> PARQUET_SERDE_CLASS_NAMES = ImmutableSet.<String>builder()
+    static final Set<String> PARQUET_SERDE_CLASS_NAMES = ImmutableSet.<String>builder()
             .add("org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe")
             .add("parquet.hive.serde.ParquetHiveSerDe")
             .build();
@@ -96,13 +107,20 @@ public class ParquetPageSourceFactory
     private final TypeManager typeManager;
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
+    private final ParquetCacheStore parquetCacheStore;
 
-    @Inject
     public ParquetPageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats)
+    {
+        this(typeManager, hdfsEnvironment, stats, ParquetCacheStore.CACHE_NOTHING);
+    }
+
+    @Inject
+    public ParquetPageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, ParquetCacheStore parquetCacheStore)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
+        this.parquetCacheStore = requireNonNull(parquetCacheStore, "parquetCacheStore is null");
     }
 
     @Override
@@ -143,12 +161,24 @@ public class ParquetPageSourceFactory
                 columns,
                 isUseParquetColumnNames(session),
                 isFailOnCorruptedParquetStatistics(session),
+                isUseParquetColumnIndex(session),
                 getParquetMaxReadBlockSize(session),
                 typeManager,
                 effectivePredicate,
+                isParquetBloomFiltersEnabled(session),
+                getBloomFiltersCache(session, parquetCacheStore),
+                dataSourceLastModifiedTime,
                 stats));
     }
 
+    static Optional<Cache<ParquetBloomFilterCacheKey, Optional<BloomFilter>>> getBloomFiltersCache(ConnectorSession session, ParquetCacheStore parquetCacheStore)
+    {
+        if (!isParquetBloomFiltersCacheEnabled(session)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(parquetCacheStore.getBloomFiltersCache());
+    }
+
     public static ParquetPageSource createParquetPageSource(
             HdfsEnvironment hdfsEnvironment,
             String user,
@@ -161,10 +191,66 @@ public class ParquetPageSourceFactory
             List<HiveColumnHandle> columns,
             boolean useParquetColumnNames,
             boolean failOnCorruptedParquetStatistics,
+            boolean useColumnIndex,
             DataSize maxReadBlockSize,
             TypeManager typeManager,
             TupleDomain<HiveColumnHandle> effectivePredicate,
+            boolean bloomFiltersEnabled,
+            Optional<Cache<ParquetBloomFilterCacheKey, Optional<BloomFilter>>> bloomFiltersCache,
+            long dataSourceLastModifiedTime,
             FileFormatDataSourceStats stats)
+    {
+        return createParquetPageSource(
+                hdfsEnvironment,
+                user,
+                configuration,
+                path,
+                start,
+                length,
+                fileSize,
+                columns,
+                useParquetColumnNames,
+                failOnCorruptedParquetStatistics,
+                useColumnIndex,
+                maxReadBlockSize,
+                effectivePredicate,
+                bloomFiltersEnabled,
+                bloomFiltersCache,
+                dataSourceLastModifiedTime,
+                stats,
+                (parquetReader, fileSchema, messageColumnIO) -> new ParquetPageSource(
+                        parquetReader,
+                        fileSchema,
+                        messageColumnIO,
+                        typeManager,
+                        schema,
+                        columns,
+                        effectivePredicate,
+                        useParquetColumnNames));
+    }
+
+    /**
+     * Opens the file and creates a reader of the row groups of the split which can match the effective predicate
+     */
+    static <T extends ConnectorPageSource> T createParquetPageSource(
+            HdfsEnvironment hdfsEnvironment,
+            String user,
+            Configuration configuration,
+            Path path,
+            long start,
+            long length,
+            long fileSize,
+            List<HiveColumnHandle> columns,
+            boolean useParquetColumnNames,
+            boolean failOnCorruptedParquetStatistics,
+            boolean useColumnIndex,
+            DataSize maxReadBlockSize,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            boolean bloomFiltersEnabled,
+            Optional<Cache<ParquetBloomFilterCacheKey, Optional<BloomFilter>>> bloomFiltersCache,
+            long dataSourceLastModifiedTime,
+            FileFormatDataSourceStats stats,
+            ParquetPageSourceProvider<T> pageSourceProvider)
     {
         AggregatedMemoryContext systemMemoryContext = newSimpleAggregatedMemoryContext();
 
@@ -172,7 +258,8 @@ public class ParquetPageSourceFactory
         try {
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(user, path, configuration);
             FSDataInputStream inputStream = hdfsEnvironment.doAs(user, () -> fileSystem.open(path));
-            ParquetMetadata parquetMetadata = MetadataReader.readFooter(inputStream, path, fileSize);
+            ParquetFooter footer = MetadataReader.readParquetFooter(inputStream, path, fileSize);
+            ParquetMetadata parquetMetadata = footer.getParquetMetadata();
             FileMetaData fileMetaData = parquetMetadata.getFileMetaData();
             MessageType fileSchema = fileMetaData.getSchema();
             dataSource = buildHdfsParquetDataSource(inputStream, path, fileSize, stats);
@@ -198,28 +285,31 @@ public class ParquetPageSourceFactory
             Predicate parquetPredicate = buildPredicate(requestedSchema, parquetTupleDomain, descriptorsByPath);
             final ParquetDataSource finalDataSource = dataSource;
             ImmutableList.Builder<BlockMetaData> blocks = ImmutableList.builder();
+            ImmutableList.Builder<RowRanges> blockRowRanges = ImmutableList.builder();
             for (BlockMetaData block : footerBlocks.build()) {
-                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, failOnCorruptedParquetStatistics)) {
-                    blocks.add(block);
+                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, failOnCorruptedParquetStatistics)
+                        && (!bloomFiltersEnabled || bloomFiltersMatch(parquetPredicate, block, finalDataSource, footer, descriptorsByPath, parquetTupleDomain, bloomFiltersCache, dataSourceLastModifiedTime))) {
+                    RowRanges rowRanges = RowRanges.all(block.getRowCount());
+                    if (useColumnIndex) {
+                        rowRanges = getRowRanges(parquetPredicate, block, finalDataSource, footer, descriptorsByPath, parquetTupleDomain, failOnCorruptedParquetStatistics);
+                    }
+                    if (!rowRanges.isEmpty()) {
+                        blocks.add(block);
+                        blockRowRanges.add(rowRanges);
+                    }
                 }
             }
             MessageColumnIO messageColumnIO = getColumnIO(fileSchema, requestedSchema);
             ParquetReader parquetReader = new ParquetReader(
                     messageColumnIO,
                     blocks.build(),
+                    blockRowRanges.build(),
+                    useColumnIndex ? Optional.of(footer) : Optional.empty(),
                     dataSource,
                     systemMemoryContext,
                     maxReadBlockSize);
 
-            return new ParquetPageSource(
-                    parquetReader,
-                    fileSchema,
-                    messageColumnIO,
-                    typeManager,
-                    schema,
-                    columns,
-                    effectivePredicate,
-                    useParquetColumnNames);
+            return pageSourceProvider.createPageSource(parquetReader, fileSchema, messageColumnIO);
         }
         catch (Exception e) {
             try {
@@ -247,6 +337,11 @@ public class ParquetPageSourceFactory
         }
     }
 
+    interface ParquetPageSourceProvider<T extends ConnectorPageSource>
+    {
+        T createPageSource(ParquetReader parquetReader, MessageType fileSchema, MessageColumnIO messageColumnIO);
+    }
+
     public static TupleDomain<ColumnDescriptor> getParquetTupleDomain(Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<HiveColumnHandle> effectivePredicate)
     {
         if (effectivePredicate.isNone()) {
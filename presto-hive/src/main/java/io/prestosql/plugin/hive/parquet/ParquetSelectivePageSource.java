@@ -0,0 +1,506 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.parquet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+import io.prestosql.orc.TupleDomainFilter;
+import io.prestosql.parquet.Field;
+import io.prestosql.parquet.ParquetCorruptionException;
+import io.prestosql.parquet.reader.ParquetReader;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.type.DecimalType;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeManager;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.prestosql.parquet.ParquetTypeUtils.lookupColumnByName;
+import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
+import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
+import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.RealType.REAL;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Page source for the selective read flow of Parquet files, the counterpart of OrcSelectiveRecordReader.
+ * Every batch is processed in 3 stages:
+ *  I)   Columns with filters (AND'd) are read one after another. Each column is only read at the positions which
+ *       matched the filters of the previous columns, and the positions matching its own filter are input to the next.
+ *  II)  Columns with disjunct filters (OR'd) are read at the remaining positions, a position is kept when it
+ *       matches any of them.
+ *  III) Output columns without filters are only read at the final positions, the values of the other rows are
+ *       skipped without being materialized.
+ * Columns of a batch which are not needed because no row matched are not read at all.
+ */
+public class ParquetSelectivePageSource
+        implements ConnectorPageSource
+{
+    private final ParquetReader parquetReader;
+    private final List<Integer> outputColumns;
+    private final Map<Integer, Type> types;
+    private final Map<Integer, Field> fields;
+    // prefilled values of partition keys and null of the columns missing in the file
+    private final Map<Integer, Object> constantValues;
+    private final Map<Integer, TupleDomainFilter> filters;
+    private final Map<Integer, List<TupleDomainFilter>> disjunctFilters;
+    private final Map<Integer, Function<Block, Block>> coercers;
+    private final Map<Integer, Type> coercedColumnTypes;
+    private final Supplier<Map<Integer, DynamicFilter>> dynamicFilters;
+    private final List<Integer> filterColumns;
+    private final List<Integer> disjunctFilterColumns;
+    private final Set<Integer> outputColumnSet;
+
+    // blocks of the output columns read while filtering the current batch
+    private final Map<Integer, ReadBlock> readBlocks = new HashMap<>();
+    private int[] positions = new int[0];
+    private boolean closed;
+
+    /**
+     * @param outputColumns column indexes of the columns to project, in page order
+     * @param constantValues typed prefilled values by column index
+     * @param filters filters corresponding to AND clause by column index
+     * @param disjunctFilters filters corresponding to OR clause by column index
+     * @param coercers coercion of the column values to the table type by column index
+     * @param coercedColumnTypes table type of the coerced columns by column index
+     * @param dynamicFilters supplier of the dynamic filters currently available by column index, these are applied
+     *                       to the blocks of the output columns before the page is returned
+     */
+    public ParquetSelectivePageSource(
+            ParquetReader parquetReader,
+            MessageType fileSchema,
+            MessageColumnIO messageColumnIO,
+            TypeManager typeManager,
+            List<HiveColumnHandle> columns,
+            List<Integer> outputColumns,
+            Map<Integer, Object> constantValues,
+            Map<Integer, TupleDomainFilter> filters,
+            Map<Integer, List<TupleDomainFilter>> disjunctFilters,
+            Map<Integer, Function<Block, Block>> coercers,
+            Map<Integer, Type> coercedColumnTypes,
+            Supplier<Map<Integer, DynamicFilter>> dynamicFilters,
+            boolean useParquetColumnNames)
+    {
+        this.parquetReader = requireNonNull(parquetReader, "parquetReader is null");
+        this.outputColumns = ImmutableList.copyOf(requireNonNull(outputColumns, "outputColumns is null"));
+        this.filters = requireNonNull(filters, "filters is null");
+        this.disjunctFilters = requireNonNull(disjunctFilters, "disjunctFilters is null");
+        this.coercers = requireNonNull(coercers, "coercers is null");
+        this.coercedColumnTypes = requireNonNull(coercedColumnTypes, "coercedColumnTypes is null");
+        this.dynamicFilters = requireNonNull(dynamicFilters, "dynamicFilters is null");
+        this.outputColumnSet = ImmutableSet.copyOf(outputColumns);
+
+        for (Integer column : coercers.keySet()) {
+            checkArgument(!filters.containsKey(column) && !disjunctFilters.containsKey(column), "Coercions for columns with range filters are not yet supported");
+        }
+
+        this.types = new HashMap<>();
+        this.fields = new HashMap<>();
+        this.constantValues = new HashMap<>(requireNonNull(constantValues, "constantValues is null"));
+        for (HiveColumnHandle column : columns) {
+            int columnIndex = column.getHiveColumnIndex();
+            Type type = typeManager.getType(column.getTypeSignature());
+            types.put(columnIndex, type);
+            if (constantValues.containsKey(columnIndex)) {
+                continue;
+            }
+
+            Optional<Field> field = Optional.empty();
+            if (ParquetPageSourceFactory.getParquetType(column, fileSchema, useParquetColumnNames) != null) {
+                String columnName = useParquetColumnNames ? column.getName() : fileSchema.getFields().get(columnIndex).getName();
+                field = ParquetColumnIOConverter.constructField(type, lookupColumnByName(messageColumnIO, columnName));
+            }
+            if (field.isPresent()) {
+                fields.put(columnIndex, field.get());
+            }
+            else {
+                // column added to the table after the file was written
+                this.constantValues.put(columnIndex, null);
+            }
+        }
+
+        // constant columns are evaluated first, as they either match the whole batch or nothing
+        ImmutableList.Builder<Integer> filterColumns = ImmutableList.builder();
+        ImmutableList.Builder<Integer> disjunctFilterColumns = ImmutableList.builder();
+        for (HiveColumnHandle column : columns) {
+            int columnIndex = column.getHiveColumnIndex();
+            if (this.constantValues.containsKey(columnIndex)) {
+                addFilterColumn(columnIndex, filterColumns, disjunctFilterColumns);
+            }
+        }
+        for (HiveColumnHandle column : columns) {
+            int columnIndex = column.getHiveColumnIndex();
+            if (!this.constantValues.containsKey(columnIndex)) {
+                addFilterColumn(columnIndex, filterColumns, disjunctFilterColumns);
+            }
+        }
+        this.filterColumns = filterColumns.build();
+        this.disjunctFilterColumns = disjunctFilterColumns.build();
+    }
+
+    private void addFilterColumn(int columnIndex, ImmutableList.Builder<Integer> filterColumns, ImmutableList.Builder<Integer> disjunctFilterColumns)
+    {
+        if (filters.containsKey(columnIndex)) {
+            filterColumns.add(columnIndex);
+        }
+        else if (disjunctFilters.containsKey(columnIndex) && !disjunctFilters.get(columnIndex).isEmpty()) {
+            disjunctFilterColumns.add(columnIndex);
+        }
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return parquetReader.getDataSource().getReadBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return parquetReader.getDataSource().getReadTimeNanos();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return closed;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return parquetReader.getSystemMemoryContext().getBytes();
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        try {
+            int batchSize = parquetReader.nextBatch();
+            if (closed || batchSize <= 0) {
+                close();
+                return null;
+            }
+
+            readBlocks.clear();
+            int positionCount = initializePositions(batchSize);
+            for (int column : filterColumns) {
+                positionCount = filter(column, positionCount);
+                if (positionCount == 0) {
+                    return new Page(0);
+                }
+            }
+
+            if (!disjunctFilterColumns.isEmpty()) {
+                positionCount = filterDisjuncts(positionCount);
+                if (positionCount == 0) {
+                    return new Page(0);
+                }
+            }
+
+            Block[] blocks = new Block[outputColumns.size()];
+            for (int i = 0; i < outputColumns.size(); i++) {
+                int column = outputColumns.get(i);
+                Block block = getBlock(column, positionCount);
+                Function<Block, Block> coercer = coercers.get(column);
+                if (coercer != null) {
+                    block = coercer.apply(block);
+                }
+                blocks[i] = block;
+            }
+            return filterWithDynamicFilters(new Page(positionCount, blocks));
+        }
+        catch (PrestoException e) {
+            closeWithSuppression(e);
+            throw e;
+        }
+        catch (ParquetCorruptionException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_BAD_DATA, e);
+        }
+        catch (IOException | RuntimeException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_CURSOR_ERROR, e);
+        }
+    }
+
+    private int initializePositions(int batchSize)
+    {
+        if (positions.length < batchSize) {
+            positions = new int[batchSize];
+        }
+        for (int i = 0; i < batchSize; i++) {
+            positions[i] = i;
+        }
+        return batchSize;
+    }
+
+    /**
+     * Keeps the positions whose value of the column matches the filter of the column
+     */
+    private int filter(int column, int positionCount)
+            throws IOException
+    {
+        TupleDomainFilter filter = filters.get(column);
+        Type type = types.get(column);
+        if (constantValues.containsKey(column)) {
+            return test(filter, type, constantBlock(column, 1), 0) ? positionCount : 0;
+        }
+
+        Block block = readColumn(column, positionCount);
+        int matchCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            if (test(filter, type, block, i)) {
+                positions[matchCount] = positions[i];
+                matchCount++;
+            }
+        }
+        return matchCount;
+    }
+
+    /**
+     * Keeps the positions whose value of any of the columns matches any of the disjunct filters of the column
+     */
+    private int filterDisjuncts(int positionCount)
+            throws IOException
+    {
+        boolean[] matches = new boolean[positionCount];
+        for (int column : disjunctFilterColumns) {
+            List<TupleDomainFilter> columnFilters = disjunctFilters.get(column);
+            Type type = types.get(column);
+            if (constantValues.containsKey(column)) {
+                Block block = constantBlock(column, 1);
+                if (columnFilters.stream().anyMatch(filter -> test(filter, type, block, 0))) {
+                    // every position matches
+                    return positionCount;
+                }
+                continue;
+            }
+
+            Block block = readColumn(column, positionCount);
+            for (int i = 0; i < positionCount; i++) {
+                for (int filter = 0; !matches[i] && filter < columnFilters.size(); filter++) {
+                    matches[i] = test(columnFilters.get(filter), type, block, i);
+                }
+            }
+        }
+
+        int matchCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            if (matches[i]) {
+                positions[matchCount] = positions[i];
+                matchCount++;
+            }
+        }
+        return matchCount;
+    }
+
+    private Block readColumn(int column, int positionCount)
+            throws IOException
+    {
+        Block block = parquetReader.readBlock(fields.get(column), positions, positionCount);
+        if (outputColumnSet.contains(column)) {
+            // the column can only be read once per batch, keep the block for the page
+            readBlocks.put(column, new ReadBlock(block, Arrays.copyOf(positions, positionCount)));
+        }
+        return block;
+    }
+
+    private Block getBlock(int column, int positionCount)
+            throws IOException
+    {
+        if (constantValues.containsKey(column)) {
+            return constantBlock(column, positionCount);
+        }
+        ReadBlock readBlock = readBlocks.get(column);
+        if (readBlock != null) {
+            return readBlock.getPositions(positions, positionCount);
+        }
+        return parquetReader.readBlock(fields.get(column), positions, positionCount);
+    }
+
+    private Block constantBlock(int column, int positionCount)
+    {
+        return RunLengthEncodedBlock.create(types.get(column), constantValues.get(column), positionCount);
+    }
+
+    private static boolean test(TupleDomainFilter filter, Type type, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return filter.testNull();
+        }
+        if (type == BOOLEAN) {
+            return filter.testBoolean(type.getBoolean(block, position));
+        }
+        if (type == DOUBLE) {
+            return filter.testDouble(type.getDouble(block, position));
+        }
+        if (type == REAL) {
+            return filter.testFloat(intBitsToFloat(toIntExact(type.getLong(block, position))));
+        }
+        if (type.getJavaType() == long.class) {
+            return filter.testLong(type.getLong(block, position));
+        }
+        if (type.getJavaType() == Slice.class) {
+            Slice value = type.getSlice(block, position);
+            if (type instanceof DecimalType) {
+                return filter.testDecimal(value.getLong(0), value.getLong(SIZE_OF_LONG));
+            }
+            if (value.hasByteArray()) {
+                return filter.testBytes(value.byteArray(), value.byteArrayOffset(), value.length());
+            }
+            byte[] bytes = value.getBytes();
+            return filter.testBytes(bytes, 0, bytes.length);
+        }
+        throw new PrestoException(NOT_SUPPORTED, "Unsupported type for filter pushdown: " + type.getDisplayName());
+    }
+
+    /* Dynamic filters arrive while the scan is running, so they are applied on the final blocks of the output
+     * columns, same as in the selective ORC read.
+     */
+    private Page filterWithDynamicFilters(Page page)
+    {
+        Map<Integer, DynamicFilter> currentDynamicFilters = dynamicFilters.get();
+        if (currentDynamicFilters.isEmpty()) {
+            return page;
+        }
+
+        int[] selectedPositions = null;
+        int selectedCount = page.getPositionCount();
+        for (int i = 0; i < outputColumns.size() && selectedCount > 0; i++) {
+            int column = outputColumns.get(i);
+            DynamicFilter dynamicFilter = currentDynamicFilters.get(column);
+            if (dynamicFilter == null || constantValues.containsKey(column)) {
+                continue;
+            }
+            if (selectedPositions == null) {
+                selectedPositions = new int[selectedCount];
+                for (int position = 0; position < selectedCount; position++) {
+                    selectedPositions[position] = position;
+                }
+            }
+            // coerced blocks hold values of the table type, which is also the type of the dynamic filter values
+            Type type = coercedColumnTypes.getOrDefault(column, types.get(column));
+            selectedCount = dynamicFilter.filter(page.getBlock(i), type, selectedPositions, selectedCount);
+        }
+
+        if (selectedCount == page.getPositionCount()) {
+            return page;
+        }
+        if (selectedCount == 0) {
+            return new Page(0);
+        }
+        return page.getPositions(selectedPositions, 0, selectedCount);
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            parquetReader.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeWithSuppression(Throwable throwable)
+    {
+        requireNonNull(throwable, "throwable is null");
+        try {
+            close();
+        }
+        catch (RuntimeException e) {
+            // Self-suppression not permitted
+            if (e != throwable) {
+                throwable.addSuppressed(e);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("outputColumns", outputColumns)
+                .add("filterColumns", filterColumns)
+                .add("disjunctFilterColumns", disjunctFilterColumns)
+                .toString();
+    }
+
+    /**
+     * Block of a column read at the positions which matched when the column was read
+     */
+    private static class ReadBlock
+    {
+        private final Block block;
+        private final int[] readPositions;
+
+        private ReadBlock(Block block, int[] readPositions)
+        {
+            this.block = block;
+            this.readPositions = readPositions;
+        }
+
+        /**
+         * @param positions subset of the read positions in ascending order
+         */
+        private Block getPositions(int[] positions, int positionCount)
+        {
+            if (positionCount == readPositions.length) {
+                return block;
+            }
+            int[] blockPositions = new int[positionCount];
+            int readIndex = 0;
+            for (int i = 0; i < positionCount; i++) {
+                while (readPositions[readIndex] != positions[i]) {
+                    readIndex++;
+                }
+                blockPositions[i] = readIndex;
+            }
+            return block.getPositions(blockPositions, 0, positionCount);
+        }
+    }
+}
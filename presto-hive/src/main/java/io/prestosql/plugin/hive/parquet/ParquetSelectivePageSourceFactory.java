@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.parquet;
+
+import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import io.prestosql.orc.TupleDomainFilter;
+import io.prestosql.parquet.ParquetCacheStore;
+import io.prestosql.plugin.hive.DeleteDeltaLocations;
+import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.HdfsEnvironment;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.plugin.hive.HivePageSourceProvider;
+import io.prestosql.plugin.hive.HiveSelectivePageSourceFactory;
+import io.prestosql.plugin.hive.coercions.HiveCoercer;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
+import io.prestosql.spi.heuristicindex.IndexMetadata;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeManager;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.joda.time.DateTimeZone;
+
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getDynamicFilteringRowFilteringThreshold;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getParquetMaxReadBlockSize;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isFailOnCorruptedParquetStatistics;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isParquetBloomFiltersEnabled;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isUseParquetColumnIndex;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isUseParquetColumnNames;
+import static io.prestosql.plugin.hive.HiveUtil.getDeserializerClassName;
+import static io.prestosql.plugin.hive.HiveUtil.typedPartitionKey;
+import static io.prestosql.plugin.hive.orc.OrcSelectivePageSourceFactory.toCoercedColumnTypes;
+import static io.prestosql.plugin.hive.orc.OrcSelectivePageSourceFactory.toDynamicFilterSupplier;
+import static io.prestosql.plugin.hive.orc.OrcSelectivePageSourceFactory.toTupleDomainFilters;
+import static io.prestosql.plugin.hive.parquet.ParquetPageSourceFactory.PARQUET_SERDE_CLASS_NAMES;
+import static io.prestosql.plugin.hive.parquet.ParquetPageSourceFactory.createParquetPageSource;
+import static io.prestosql.plugin.hive.parquet.ParquetPageSourceFactory.getBloomFiltersCache;
+import static java.util.Objects.requireNonNull;
+
+public class ParquetSelectivePageSourceFactory
+        implements HiveSelectivePageSourceFactory
+{
+    private final TypeManager typeManager;
+    private final HdfsEnvironment hdfsEnvironment;
+    private final FileFormatDataSourceStats stats;
+    private final ParquetCacheStore parquetCacheStore;
+
+    @Inject
+    public ParquetSelectivePageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, ParquetCacheStore parquetCacheStore)
+    {
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.parquetCacheStore = requireNonNull(parquetCacheStore, "parquetCacheStore is null");
+    }
+
+    @Override
+    public Optional<? extends ConnectorPageSource> createPageSource(
+            Configuration configuration,
+            ConnectorSession session,
+            Path path,
+            long start,
+            long length,
+            long fileSize,
+            Properties schema,
+            List<HiveColumnHandle> columns,
+            Map<Integer, String> prefilledValues,
+            List<Integer> outputColumns,
+            TupleDomain<HiveColumnHandle> domainPredicate,
+            Optional<List<TupleDomain<HiveColumnHandle>>> additionPredicates,
+            DateTimeZone hiveStorageTimeZone,
+            Optional<DeleteDeltaLocations> deleteDeltaLocations,
+            Optional<Long> startRowOffsetOfFile,
+            Optional<List<IndexMetadata>> indexes,
+            boolean splitCacheable,
+            List<HivePageSourceProvider.ColumnMapping> columnMappings,
+            Map<Integer, HiveCoercer> coercers,
+            Optional<DynamicFilterSupplier> dynamicFilters,
+            long dataSourceLastModifiedTime)
+    {
+        if (!PARQUET_SERDE_CLASS_NAMES.contains(getDeserializerClassName(schema))) {
+            return Optional.empty();
+        }
+
+        checkArgument(!deleteDeltaLocations.isPresent(), "Delete delta is not supported");
+        checkArgument(!domainPredicate.isNone(), "Unexpected NONE domain");
+
+        Map<Integer, Type> columnTypes = columns.stream()
+                .collect(toImmutableMap(HiveColumnHandle::getHiveColumnIndex, column -> typeManager.getType(column.getTypeSignature())));
+        Map<Integer, String> columnNames = columns.stream()
+                .collect(toImmutableMap(HiveColumnHandle::getHiveColumnIndex, HiveColumnHandle::getName));
+
+        // values of partition keys may be null
+        Map<Integer, Object> typedPrefilledValues = new HashMap<>();
+        for (Map.Entry<Integer, String> prefilledValue : prefilledValues.entrySet()) {
+            int columnIndex = prefilledValue.getKey();
+            typedPrefilledValues.put(columnIndex, typedPartitionKey(prefilledValue.getValue(), columnTypes.get(columnIndex), columnNames.get(columnIndex), hiveStorageTimeZone));
+        }
+
+        // Convert the predicates to each column index wise, to evaluate them while reading each column
+        Map<String, Integer> columnIndexes = ImmutableBiMap.copyOf(columnNames).inverse();
+        Map<Integer, TupleDomainFilter> filters = toTupleDomainFilters(domainPredicate, columnIndexes);
+        Map<Integer, List<TupleDomainFilter>> disjunctFilters = new HashMap<>();
+        List<TupleDomain<HiveColumnHandle>> disjunctDomains = additionPredicates.orElseGet(ImmutableList::of);
+        // a disjunct matching every row makes the whole OR clause match
+        if (disjunctDomains.stream().noneMatch(TupleDomain::isAll)) {
+            disjunctDomains.forEach(disjunctDomain -> toTupleDomainFilters(disjunctDomain, columnIndexes)
+                    .forEach((column, filter) -> disjunctFilters.computeIfAbsent(column, ignored -> new ArrayList<>()).add(filter)));
+        }
+
+        boolean useParquetColumnNames = isUseParquetColumnNames(session);
+        return Optional.of(createParquetPageSource(
+                hdfsEnvironment,
+                session.getUser(),
+                configuration,
+                path,
+                start,
+                length,
+                fileSize,
+                columns,
+                useParquetColumnNames,
+                isFailOnCorruptedParquetStatistics(session),
+                isUseParquetColumnIndex(session),
+                getParquetMaxReadBlockSize(session),
+                domainPredicate,
+                isParquetBloomFiltersEnabled(session),
+                getBloomFiltersCache(session, parquetCacheStore),
+                dataSourceLastModifiedTime,
+                stats,
+                (parquetReader, fileSchema, messageColumnIO) -> new ParquetSelectivePageSource(
+                        parquetReader,
+                        fileSchema,
+                        messageColumnIO,
+                        typeManager,
+                        columns,
+                        outputColumns,
+                        typedPrefilledValues,
+                        filters,
+                        disjunctFilters,
+                        Maps.transformValues(coercers, Function.class::cast),
+                        toCoercedColumnTypes(columnMappings, typeManager),
+                        toDynamicFilterSupplier(dynamicFilters, columnMappings, getDynamicFilteringRowFilteringThreshold(session)),
+                        useParquetColumnNames)));
+    }
+}
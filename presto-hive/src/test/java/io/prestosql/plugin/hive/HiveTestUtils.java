@@ -26,6 +26,7 @@ import io.prestosql.plugin.hive.gcs.HiveGcsConfig;
 import io.prestosql.plugin.hive.orc.OrcPageSourceFactory;
 import io.prestosql.plugin.hive.orc.OrcSelectivePageSourceFactory;
 import io.prestosql.plugin.hive.parquet.ParquetPageSourceFactory;
+import io.prestosql.plugin.hive.parquet.ParquetSelectivePageSourceFactory;
 import io.prestosql.plugin.hive.rcfile.RcFilePageSourceFactory;
 import io.prestosql.plugin.hive.s3.HiveS3Config;
 import io.prestosql.plugin.hive.s3.PrestoS3ConfigurationInitializer;
@@ -104,7 +105,7 @@ public final class HiveTestUtils
                         Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                         new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                         new HiveConfig().isOrcCacheStatsMetricCollectionEnabled())))
-                .add(new ParquetPageSourceFactory(TYPE_MANAGER, testHdfsEnvironment, stats))
+                .add(new ParquetPageSourceFactory(TYPE_MANAGER, testHdfsEnvironment, stats, HiveModule.getParquetCacheStore(hiveConfig)))
                 .build();
     }
 
@@ -122,6 +123,7 @@ public final class HiveTestUtils
                         Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                         new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                         new HiveConfig().isOrcCacheStatsMetricCollectionEnabled())))
+                .add(new ParquetSelectivePageSourceFactory(TYPE_MANAGER, testHdfsEnvironment, stats, HiveModule.getParquetCacheStore(hiveConfig)))
                 .build();
     }
 
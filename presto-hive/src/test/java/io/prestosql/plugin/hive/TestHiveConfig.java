@@ -84,7 +84,12 @@ public class TestHiveConfig
                 .setTextMaxLineLength(new DataSize(100, Unit.MEGABYTE))
                 .setUseParquetColumnNames(false)
                 .setFailOnCorruptedParquetStatistics(true)
+                .setUseParquetColumnIndex(true)
                 .setParquetMaxReadBlockSize(new DataSize(16, Unit.MEGABYTE))
+                .setParquetBloomFiltersEnabled(false)
+                .setParquetBloomFiltersCacheEnabled(false)
+                .setParquetBloomFiltersCacheTtl(new Duration(4, TimeUnit.HOURS))
+                .setParquetBloomFiltersCacheMaximumWeight(new DataSize(256, Unit.MEGABYTE))
                 .setUseOrcColumnNames(false)
                 .setAssumeCanonicalPartitionKeys(false)
                 .setOrcBloomFiltersEnabled(false)
@@ -143,6 +148,7 @@ public class TestHiveConfig
                 .setAutoVacuumEnabled(false)
                 .setVacuumDeltaPercentThreshold(0.1)
                 .setOrcPredicatePushdownEnabled(false)
+                .setParquetPredicatePushdownEnabled(false)
                 .setVacuumCollectorInterval(new Duration(5, TimeUnit.MINUTES))
                 .setMaxSplitsToGroup(1)
                 .setWorkerMetaStoreCacheEnabled(false));
@@ -200,7 +206,12 @@ public class TestHiveConfig
                 .put("hive.text.max-line-length", "13MB")
                 .put("hive.parquet.use-column-names", "true")
                 .put("hive.parquet.fail-on-corrupted-statistics", "false")
+                .put("hive.parquet.use-column-index", "false")
                 .put("hive.parquet.max-read-block-size", "66kB")
+                .put("hive.parquet.bloom-filters.enabled", "true")
+                .put("hive.parquet.bloom-filters.cache.enabled", "true")
+                .put("hive.parquet.bloom-filters.cache.ttl", "1h")
+                .put("hive.parquet.bloom-filters.cache.maximum-weight", "64MB")
                 .put("hive.orc.use-column-names", "true")
                 .put("hive.orc.bloom-filters.enabled", "true")
                 .put("hive.orc.default-bloom-filter-fpp", "0.96")
@@ -267,6 +278,7 @@ public class TestHiveConfig
                 .put("hive.vacuum-delta-percent-threshold", "0.6")
                 .put("hive.auto-vacuum-enabled", "true")
                 .put("hive.orc-predicate-pushdown-enabled", "true")
+                .put("hive.parquet-predicate-pushdown-enabled", "true")
                 .put("hive.vacuum-collector-interval", "5s")
                 .put("hive.max-splits-to-group", "20")
                 .put("hive.worker-metastore-cache-enabled", "true")
@@ -318,7 +330,12 @@ public class TestHiveConfig
                 .setTextMaxLineLength(new DataSize(13, Unit.MEGABYTE))
                 .setUseParquetColumnNames(true)
                 .setFailOnCorruptedParquetStatistics(false)
+                .setUseParquetColumnIndex(false)
                 .setParquetMaxReadBlockSize(new DataSize(66, Unit.KILOBYTE))
+                .setParquetBloomFiltersEnabled(true)
+                .setParquetBloomFiltersCacheEnabled(true)
+                .setParquetBloomFiltersCacheTtl(new Duration(1, TimeUnit.HOURS))
+                .setParquetBloomFiltersCacheMaximumWeight(new DataSize(64, Unit.MEGABYTE))
                 .setUseOrcColumnNames(true)
                 .setAssumeCanonicalPartitionKeys(true)
                 .setOrcBloomFiltersEnabled(true)
@@ -378,6 +395,7 @@ public class TestHiveConfig
                 .setAutoVacuumEnabled(true)
                 .setVacuumDeltaPercentThreshold(0.6)
                 .setOrcPredicatePushdownEnabled(true)
+                .setParquetPredicatePushdownEnabled(true)
                 .setVacuumCollectorInterval(new Duration(5, TimeUnit.SECONDS))
                 .setMaxSplitsToGroup(20)
                 .setWorkerMetaStoreCacheEnabled(true);
@@ -5099,6 +5099,35 @@ public class TestHiveIntegrationSmokeTest
         assertEquals(actualDirectoryList.length, 1);
     }
 
+    @Test
+    public void testParquetPredicatePushdown()
+    {
+        Session session = Session.builder(getSession())
+                .setCatalogSessionProperty(getSession().getCatalog().get(), "parquet_predicate_pushdown_enabled", "true")
+                .build();
+        try {
+            assertUpdate(session, "CREATE TABLE test_parquet_pushdown WITH (format='parquet', partitioned_by=ARRAY['orderstatus']) AS " +
+                    "SELECT orderkey, custkey, totalprice, orderdate, orderpriority, comment, orderstatus FROM orders", "SELECT count(*) FROM orders");
+
+            assertQuery(session, "SELECT orderkey, totalprice FROM test_parquet_pushdown WHERE custkey = 370", "SELECT orderkey, totalprice FROM orders WHERE custkey = 370");
+            assertQuery(session, "SELECT orderkey, comment FROM test_parquet_pushdown WHERE custkey BETWEEN 100 AND 200 AND orderpriority IN ('1-URGENT', '5-LOW')",
+                    "SELECT orderkey, comment FROM orders WHERE custkey BETWEEN 100 AND 200 AND orderpriority IN ('1-URGENT', '5-LOW')");
+            assertQuery(session, "SELECT orderkey FROM test_parquet_pushdown WHERE custkey = 370 OR orderkey < 100", "SELECT orderkey FROM orders WHERE custkey = 370 OR orderkey < 100");
+            assertQuery(session, "SELECT orderkey, orderstatus FROM test_parquet_pushdown WHERE orderstatus = 'F' AND totalprice > 400000", "SELECT orderkey, orderstatus FROM orders WHERE orderstatus = 'F' AND totalprice > 400000");
+            assertQuery(session, "SELECT count(*) FROM test_parquet_pushdown WHERE orderdate < DATE '1992-02-01'", "SELECT count(*) FROM orders WHERE orderdate < DATE '1992-02-01'");
+            assertQuery(session, "SELECT count(*) FROM test_parquet_pushdown WHERE custkey < 0", "SELECT 0");
+
+            // columns added after the files were written are read as null
+            assertUpdate(session, "ALTER TABLE test_parquet_pushdown ADD COLUMN newcolumn bigint");
+            assertQuery(session, "SELECT orderkey, newcolumn FROM test_parquet_pushdown WHERE custkey = 370", "SELECT orderkey, null FROM orders WHERE custkey = 370");
+            assertQuery(session, "SELECT count(*) FROM test_parquet_pushdown WHERE newcolumn IS NULL AND custkey = 370", "SELECT count(*) FROM orders WHERE custkey = 370");
+            assertQuery(session, "SELECT count(*) FROM test_parquet_pushdown WHERE newcolumn = 1", "SELECT 0");
+        }
+        finally {
+            assertUpdate(session, "DROP TABLE IF EXISTS test_parquet_pushdown");
+        }
+    }
+
     @Test
     public void testUnsupportedFunctions()
     {
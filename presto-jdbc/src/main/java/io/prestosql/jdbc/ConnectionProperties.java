@@ -55,6 +55,8 @@ final class ConnectionProperties
     public static final ConnectionProperty<File> KERBEROS_CREDENTIAL_CACHE_PATH = new KerberosCredentialCachePath();
     public static final ConnectionProperty<String> ACCESS_TOKEN = new AccessToken();
     public static final ConnectionProperty<Map<String, String>> EXTRA_CREDENTIALS = new ExtraCredentials();
+    public static final ConnectionProperty<Boolean> BINARY_RESULTS = new BinaryResults();
+    public static final ConnectionProperty<Boolean> DIRECT_RESULTS = new DirectResults();
 
     private static final Set<ConnectionProperty<?>> ALL_PROPERTIES = ImmutableSet.<ConnectionProperty<?>>builder()
             .add(USER)
@@ -76,6 +78,8 @@ final class ConnectionProperties
             .add(KERBEROS_CREDENTIAL_CACHE_PATH)
             .add(ACCESS_TOKEN)
             .add(EXTRA_CREDENTIALS)
+            .add(BINARY_RESULTS)
+            .add(DIRECT_RESULTS)
             .build();
 
     private static final Map<String, ConnectionProperty<?>> KEY_LOOKUP = unmodifiableMap(ALL_PROPERTIES.stream()
@@ -293,6 +297,24 @@ final class ConnectionProperties
         }
     }
 
+    private static class BinaryResults
+            extends AbstractConnectionProperty<Boolean>
+    {
+        public BinaryResults()
+        {
+            super("binaryResults", NOT_REQUIRED, ALLOWED, BOOLEAN_CONVERTER);
+        }
+    }
+
+    private static class DirectResults
+            extends AbstractConnectionProperty<Boolean>
+    {
+        public DirectResults()
+        {
+            super("directResults", NOT_REQUIRED, ALLOWED, BOOLEAN_CONVERTER);
+        }
+    }
+
     private static class ExtraCredentials
             extends AbstractConnectionProperty<Map<String, String>>
     {
@@ -87,6 +87,8 @@ public class PrestoConnection
     private final String user;
     private final Map<String, String> extraCredentials;
     private final Optional<String> applicationNamePrefix;
+    private final boolean binaryResults;
+    private final boolean directResults;
     private final Map<String, String> clientInfo = new ConcurrentHashMap<>();
     private final Map<String, String> sessionProperties = new ConcurrentHashMap<>();
     private final Map<String, String> preparedStatements = new ConcurrentHashMap<>();
@@ -106,6 +108,8 @@ public class PrestoConnection
         this.user = uri.getUser();
         this.applicationNamePrefix = uri.getApplicationNamePrefix();
         this.extraCredentials = uri.getExtraCredentials();
+        this.binaryResults = uri.isBinaryResults();
+        this.directResults = uri.isDirectResults();
         this.queryExecutor = requireNonNull(queryExecutor, "queryExecutor is null");
 
         timeZoneId.set(ZoneId.systemDefault());
@@ -703,7 +707,9 @@ public class PrestoConnection
                 ImmutableMap.copyOf(roles),
                 extraCredentials,
                 transactionId.get(),
-                timeout);
+                timeout,
+                binaryResults,
+                directResults);
 
         return queryExecutor.startQuery(session, sql);
     }
@@ -42,6 +42,8 @@ import static io.prestosql.client.OkHttpUtil.setupSsl;
 import static io.prestosql.client.OkHttpUtil.tokenAuth;
 import static io.prestosql.jdbc.ConnectionProperties.ACCESS_TOKEN;
 import static io.prestosql.jdbc.ConnectionProperties.APPLICATION_NAME_PREFIX;
+import static io.prestosql.jdbc.ConnectionProperties.BINARY_RESULTS;
+import static io.prestosql.jdbc.ConnectionProperties.DIRECT_RESULTS;
 import static io.prestosql.jdbc.ConnectionProperties.EXTRA_CREDENTIALS;
 import static io.prestosql.jdbc.ConnectionProperties.HTTP_PROXY;
 import static io.prestosql.jdbc.ConnectionProperties.KERBEROS_CONFIG_PATH;
@@ -146,6 +148,18 @@ final class PrestoDriverUri
         return EXTRA_CREDENTIALS.getValue(properties).orElse(ImmutableMap.of());
     }
 
+    public boolean isBinaryResults()
+            throws SQLException
+    {
+        return BINARY_RESULTS.getValue(properties).orElse(false);
+    }
+
+    public boolean isDirectResults()
+            throws SQLException
+    {
+        return DIRECT_RESULTS.getValue(properties).orElse(false);
+    }
+
     public void setupClient(OkHttpClient.Builder builder)
             throws SQLException
     {
@@ -82,6 +82,9 @@ public final class SystemSessionProperties
     public static final String PUSH_TABLE_WRITE_THROUGH_UNION = "push_table_write_through_union";
     public static final String EXECUTION_POLICY = "execution_policy";
     public static final String DICTIONARY_AGGREGATION = "dictionary_aggregation";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_ENABLED = "adaptive_partial_aggregation_enabled";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS = "adaptive_partial_aggregation_min_rows";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD = "adaptive_partial_aggregation_unique_rows_ratio_threshold";
     public static final String PLAN_WITH_TABLE_NODE_PARTITIONING = "plan_with_table_node_partitioning";
     public static final String SPATIAL_JOIN = "spatial_join";
     public static final String SPATIAL_PARTITIONING_TABLE_NAME = "spatial_partitioning_table_name";
@@ -105,6 +108,7 @@ public final class SystemSessionProperties
     public static final String ITERATIVE_OPTIMIZER_TIMEOUT = "iterative_optimizer_timeout";
     public static final String ENABLE_FORCED_EXCHANGE_BELOW_GROUP_ID = "enable_forced_exchange_below_group_id";
     public static final String EXCHANGE_COMPRESSION = "exchange_compression";
+    public static final String EXCHANGE_BUFFER_RECYCLING = "exchange_buffer_recycling";
     public static final String LEGACY_TIMESTAMP = "legacy_timestamp";
     public static final String ENABLE_INTERMEDIATE_AGGREGATIONS = "enable_intermediate_aggregations";
     public static final String PUSH_AGGREGATION_THROUGH_JOIN = "push_aggregation_through_join";
@@ -142,7 +146,9 @@ public final class SystemSessionProperties
     public static final String DYNAMIC_FILTERING_DATA_TYPE = "dynamic_filtering_data_type";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
     public static final String DYNAMIC_FILTERING_BLOOM_FILTER_FPP = "dynamic_filtering_bloom_filter_fpp";
+    public static final String DYNAMIC_FILTERING_BLOCKED_BLOOM_FILTER = "dynamic_filtering_blocked_bloom_filter";
     public static final String ENABLE_EXECUTION_PLAN_CACHE = "enable_execution_plan_cache";
+    public static final String QUERY_RESULT_CACHE_ENABLED = "query_result_cache_enabled";
     public static final String ENABLE_CROSS_REGION_DYNAMIC_FILTER = "cross_region_dynamic_filter_enabled";
     public static final String ENABLE_HEURISTICINDEX_FILTER = "heuristicindex_filter_enabled";
     public static final String ENABLE_STAR_TREE_INDEX = "enable_star_tree_index";
@@ -369,6 +375,21 @@ public final class SystemSessionProperties
                         "Enable optimization for aggregations on dictionaries",
                         featuresConfig.isDictionaryAggregation(),
                         false),
+                booleanProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_ENABLED,
+                        "Switch partial aggregations to pass-through when they do not reduce the number of rows",
+                        featuresConfig.isAdaptivePartialAggregationEnabled(),
+                        false),
+                longProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS,
+                        "Minimum number of input rows a partial aggregation processes before it can switch to pass-through",
+                        featuresConfig.getAdaptivePartialAggregationMinRows(),
+                        false),
+                doubleProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD,
+                        "Ratio of groups to input rows above which a partial aggregation switches to pass-through",
+                        featuresConfig.getAdaptivePartialAggregationUniqueRowsRatioThreshold(),
+                        false),
                 integerProperty(
                         INITIAL_SPLITS_PER_NODE,
                         "The number of splits each node will run per task, initially",
@@ -517,6 +538,11 @@ public final class SystemSessionProperties
                         "Enable compression in exchanges",
                         featuresConfig.isExchangeCompressionEnabled(),
                         false),
+                booleanProperty(
+                        EXCHANGE_BUFFER_RECYCLING,
+                        "Reuse serialization buffers across pages in exchanges",
+                        featuresConfig.isExchangeBufferRecyclingEnabled(),
+                        false),
                 booleanProperty(
                         LEGACY_TIMESTAMP,
                         "Use legacy TIME & TIMESTAMP semantics (warning: this will be removed)",
@@ -672,6 +698,11 @@ public final class SystemSessionProperties
                         "Expected FPP for BloomFilter which is used in dynamic filtering",
                         featuresConfig.getDynamicFilteringBloomFilterFpp(),
                         false),
+                booleanProperty(
+                        DYNAMIC_FILTERING_BLOCKED_BLOOM_FILTER,
+                        "Use cache line blocked BloomFilter in dynamic filtering",
+                        featuresConfig.isDynamicFilteringBlockedBloomFilter(),
+                        false),
                 booleanProperty(
                         OPTIMIZE_DYNAMIC_FILTER_GENERATION,
                         "Generate dynamic filters based on the selectivity",
@@ -682,6 +713,11 @@ public final class SystemSessionProperties
                         "Enable execution plan caching",
                         featuresConfig.isEnableExecutionPlanCache(),
                         false),
+                booleanProperty(
+                        QUERY_RESULT_CACHE_ENABLED,
+                        "Serve the results of identical queries from the query result cache of the coordinator",
+                        hetuConfig.isQueryResultCacheEnabled(),
+                        false),
                 booleanProperty(
                         ENABLE_HEURISTICINDEX_FILTER,
                         "Enable heuristic index filter",
@@ -906,6 +942,21 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DICTIONARY_AGGREGATION, Boolean.class);
     }
 
+    public static boolean isAdaptivePartialAggregationEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_ENABLED, Boolean.class);
+    }
+
+    public static long getAdaptivePartialAggregationMinRows(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS, Long.class);
+    }
+
+    public static double getAdaptivePartialAggregationUniqueRowsRatioThreshold(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD, Double.class);
+    }
+
     public static boolean isOptimizeMetadataQueries(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_METADATA_QUERIES, Boolean.class);
@@ -1074,6 +1125,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(EXCHANGE_COMPRESSION, Boolean.class);
     }
 
+    public static boolean isExchangeBufferRecyclingEnabled(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_BUFFER_RECYCLING, Boolean.class);
+    }
+
     public static boolean isEnableIntermediateAggregations(Session session)
     {
         return session.getSystemProperty(ENABLE_INTERMEDIATE_AGGREGATIONS, Boolean.class);
@@ -1251,6 +1307,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_FPP, Double.class);
     }
 
+    public static boolean isDynamicFilteringBlockedBloomFilter(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_BLOCKED_BLOOM_FILTER, Boolean.class);
+    }
+
     public static boolean isOptimizeDynamicFilterGeneration(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_DYNAMIC_FILTER_GENERATION, Boolean.class);
@@ -1261,6 +1322,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ENABLE_EXECUTION_PLAN_CACHE, Boolean.class);
     }
 
+    public static boolean isQueryResultCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(QUERY_RESULT_CACHE_ENABLED, Boolean.class);
+    }
+
     public static boolean isHeuristicIndexFilterEnabled(Session session)
     {
         return session.getSystemProperty(ENABLE_HEURISTICINDEX_FILTER, Boolean.class);
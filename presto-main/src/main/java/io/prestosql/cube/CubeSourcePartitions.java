@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.common.collect.ImmutableList;
+import io.hetu.core.spi.cube.CubeMetadata;
+import io.hetu.core.spi.cube.CubeStatus;
+import io.prestosql.Session;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ColumnMetadata;
+import io.prestosql.spi.metadata.TableHandle;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.parser.ParsingOptions;
+import io.prestosql.sql.parser.SqlParser;
+import io.prestosql.sql.tree.Cast;
+import io.prestosql.sql.tree.ComparisonExpression;
+import io.prestosql.sql.tree.Expression;
+import io.prestosql.sql.tree.Identifier;
+import io.prestosql.sql.tree.InsertCube;
+import io.prestosql.sql.tree.IsNullPredicate;
+import io.prestosql.sql.tree.StringLiteral;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static io.prestosql.spi.StandardErrorCode.QUERY_REJECTED;
+import static io.prestosql.sql.ExpressionUtils.and;
+import static io.prestosql.sql.ExpressionUtils.or;
+import static io.prestosql.sql.tree.BooleanLiteral.FALSE_LITERAL;
+import static java.lang.String.format;
+
+/**
+ * Tracks the partitions of the source table of a cube. A cube stays usable while the partitions of its source
+ * table are the ones it was last updated with, and can be refreshed by aggregating only the partitions added
+ * since then, instead of being rebuilt.
+ */
+public final class CubeSourcePartitions
+{
+    private static final String HIVE_DEFAULT_PARTITION_VALUE = "__HIVE_DEFAULT_PARTITION__";
+
+    private CubeSourcePartitions()
+    {
+    }
+
+    /**
+     * An INSERT INTO CUBE without predicate into a cube which already has data refreshes the cube
+     */
+    public static boolean isRefresh(InsertCube insertCube, CubeMetadata cubeMetadata)
+    {
+        return !insertCube.isOverwrite() && !insertCube.getWhere().isPresent() && cubeMetadata.getCubeStatus() == CubeStatus.READY;
+    }
+
+    /**
+     * Checks whether the partitions of the source table are the ones the cube was last updated with
+     */
+    public static boolean isUpToDate(CubeMetadata cubeMetadata, Optional<Map<String, Long>> sourcePartitions)
+    {
+        Map<String, Long> cubePartitions = cubeMetadata.getSourcePartitionsLastUpdatedTime();
+        return sourcePartitions.isPresent() && !cubePartitions.isEmpty() && cubePartitions.equals(sourcePartitions.get());
+    }
+
+    /**
+     * Returns the current partitions of the source table of a cube being refreshed, and checks that partitions
+     * were only added to the source table since the cube was last updated.
+     */
+    public static Map<String, Long> getRefreshedSourcePartitions(Metadata metadata, Session session, TableHandle sourceTable, CubeMetadata cubeMetadata)
+    {
+        Map<String, Long> sourcePartitions = metadata.getPartitionModificationTimes(session, sourceTable)
+                .orElseThrow(() -> new PrestoException(QUERY_REJECTED, format("Cannot refresh cube '%s'. Connector of source table '%s' does not support partition modification times. Try INSERT OVERWRITE CUBE",
+                        cubeMetadata.getCubeName(), cubeMetadata.getSourceTableName())));
+        if (sourcePartitions.isEmpty() || cubeMetadata.getSourcePartitionsLastUpdatedTime().isEmpty()) {
+            throw new PrestoException(QUERY_REJECTED, format("Cannot refresh cube '%s'. Partitions of source table '%s' are not tracked. Try INSERT OVERWRITE CUBE",
+                    cubeMetadata.getCubeName(), cubeMetadata.getSourceTableName()));
+        }
+
+        Set<String> modifiedPartitions = new TreeSet<>();
+        cubeMetadata.getSourcePartitionsLastUpdatedTime().forEach((partition, lastUpdatedTime) -> {
+            Long modificationTime = sourcePartitions.get(partition);
+            if (modificationTime == null || modificationTime > lastUpdatedTime) {
+                modifiedPartitions.add(partition);
+            }
+        });
+        if (!modifiedPartitions.isEmpty()) {
+            throw new PrestoException(QUERY_REJECTED, format("Cannot refresh cube '%s'. Partitions %s of source table were modified or dropped since the cube was last updated. Try INSERT OVERWRITE CUBE",
+                    cubeMetadata.getCubeName(), modifiedPartitions));
+        }
+        return sourcePartitions;
+    }
+
+    /**
+     * Creates the predicate selecting the rows of the cube in the source table partitions added since the cube was last updated
+     */
+    public static Expression createRefreshPredicate(Metadata metadata, Session session, TableHandle sourceTable, CubeMetadata cubeMetadata, Map<String, Long> sourcePartitions)
+    {
+        Set<String> addedPartitions = new TreeSet<>(sourcePartitions.keySet());
+        addedPartitions.removeAll(cubeMetadata.getSourcePartitionsLastUpdatedTime().keySet());
+        if (addedPartitions.isEmpty()) {
+            return FALSE_LITERAL;
+        }
+
+        Map<String, Type> columnTypes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (ColumnMetadata column : metadata.getTableMetadata(session, sourceTable).getColumns()) {
+            columnTypes.put(column.getName(), column.getType());
+        }
+        ImmutableList.Builder<Expression> partitionPredicates = ImmutableList.builder();
+        for (String partition : addedPartitions) {
+            partitionPredicates.add(toPartitionPredicate(partition, columnTypes));
+        }
+        Expression predicate = or(partitionPredicates.build());
+        if (cubeMetadata.getPredicateString() == null) {
+            return predicate;
+        }
+        return and(new SqlParser().createExpression(cubeMetadata.getPredicateString(), new ParsingOptions()), predicate);
+    }
+
+    private static Expression toPartitionPredicate(String partition, Map<String, Type> columnTypes)
+    {
+        ImmutableList.Builder<Expression> predicates = ImmutableList.builder();
+        for (String part : partition.split("/")) {
+            int index = part.indexOf('=');
+            if (index < 0) {
+                throw new PrestoException(QUERY_REJECTED, format("Invalid partition name '%s'", partition));
+            }
+            String column = unescapePartitionName(part.substring(0, index)).toLowerCase(Locale.ENGLISH);
+            String value = unescapePartitionName(part.substring(index + 1));
+            Type type = columnTypes.get(column);
+            if (type == null) {
+                throw new PrestoException(QUERY_REJECTED, format("Partition column '%s' of partition '%s' not found", column, partition));
+            }
+            if (value.equals(HIVE_DEFAULT_PARTITION_VALUE)) {
+                predicates.add(new IsNullPredicate(new Identifier(column)));
+            }
+            else {
+                predicates.add(new ComparisonExpression(
+                        ComparisonExpression.Operator.EQUAL,
+                        new Identifier(column),
+                        new Cast(new StringLiteral(value), type.getTypeSignature().toString())));
+            }
+        }
+        List<Expression> partitionPredicates = predicates.build();
+        return and(partitionPredicates);
+    }
+
+    private static String unescapePartitionName(String name)
+    {
+        StringBuilder result = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '%' && i + 2 < name.length()) {
+                int code = Character.digit(name.charAt(i + 1), 16) * 16 + Character.digit(name.charAt(i + 2), 16);
+                if (code >= 0) {
+                    result.append((char) code);
+                    i += 2;
+                    continue;
+                }
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+}
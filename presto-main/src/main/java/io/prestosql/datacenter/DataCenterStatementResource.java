@@ -23,6 +23,7 @@ import io.prestosql.dispatcher.DispatchExecutor;
 import io.prestosql.dispatcher.DispatchManager;
 import io.prestosql.execution.QueryManager;
 import io.prestosql.operator.ExchangeClientSupplier;
+import io.prestosql.query.QueryResultCache;
 import io.prestosql.server.HttpRequestSessionContext;
 import io.prestosql.server.SessionContext;
 import io.prestosql.server.protocol.PagePublisherQueryManager;
@@ -72,7 +73,8 @@ public class DataCenterStatementResource
             BlockEncodingSerde blockEncodingSerde,
             ExchangeClientSupplier exchangeClientSupplier,
             DispatchExecutor dispatchExecutor,
-            StateStoreProvider stateStoreProvider)
+            StateStoreProvider stateStoreProvider,
+            QueryResultCache queryResultCache)
     {
         this.queryManager = new PagePublisherQueryManager(dispatchManager,
                 queryManager,
@@ -80,7 +82,8 @@ public class DataCenterStatementResource
                 blockEncodingSerde,
                 dispatchExecutor,
                 stateStoreProvider,
-                hetuConfig.getDataCenterConsumerTimeout());
+                hetuConfig.getDataCenterConsumerTimeout(),
+                queryResultCache);
         int noOfSplits = hetuConfig.getDataCenterSplits();
         // If the config value is out of range, use 5 as the default count
         this.splitCount = noOfSplits > 0 && noOfSplits <= 100 ? noOfSplits : 5;
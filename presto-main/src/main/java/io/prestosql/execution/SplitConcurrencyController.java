@@ -17,38 +17,124 @@ import io.airlift.units.Duration;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import java.util.Optional;
+import java.util.function.DoubleSupplier;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Double.isFinite;
+import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Controls the number of leaf splits a task runs concurrently.
+ * <p>
+ * By default the target concurrency only follows the utilization of the output buffer. In adaptive mode
+ * the controller also looks at the node load (runnable splits per runner thread) and at how the splits of
+ * the task spent their last quanta: CPU bound splits stop growing, and shrink, on a node that has more
+ * runnable splits than threads, while mostly blocked splits grow faster on a node with idle threads.
+ */
 @NotThreadSafe
 public class SplitConcurrencyController
 {
     private static final double TARGET_UTILIZATION = 0.5;
 
+    // node load above which the runner threads are oversubscribed
+    private static final double MAX_NODE_LOAD = 1.0;
+    // node load below which some of the runner threads are idle
+    private static final double IDLE_NODE_LOAD = 0.75;
+    // splits using more cpu than this fraction of their scheduled time are cpu bound
+    private static final double CPU_BOUND_RATIO = 0.75;
+    // splits ending more than this fraction of their quanta blocked are waiting for input
+    private static final double BLOCKED_RATIO = 0.5;
+
     private final long adjustmentIntervalNanos;
+    private final Optional<Adaptive> adaptive;
     private int targetConcurrency;
     private long threadNanosSinceLastAdjustment;
+    private long cpuNanosSinceLastAdjustment;
+    private int quantaSinceLastAdjustment;
+    private int blockedQuantaSinceLastAdjustment;
 
     public SplitConcurrencyController(int initialConcurrency, Duration adjustmentInterval)
+    {
+        this(initialConcurrency, adjustmentInterval, Optional.empty());
+    }
+
+    private SplitConcurrencyController(int initialConcurrency, Duration adjustmentInterval, Optional<Adaptive> adaptive)
     {
         checkArgument(initialConcurrency > 0, "initial concurrency must be positive");
         this.targetConcurrency = initialConcurrency;
         this.adjustmentIntervalNanos = adjustmentInterval.roundTo(NANOSECONDS);
+        this.adaptive = requireNonNull(adaptive, "adaptive is null");
+    }
+
+    /**
+     * Creates a controller which also adjusts the concurrency to the node load and to the cpu and blocked time of the splits.
+     *
+     * @param nodeLoad runnable splits per runner thread of the node, must not block
+     */
+    public static SplitConcurrencyController adaptive(int initialConcurrency, Duration adjustmentInterval, DoubleSupplier nodeLoad, SplitConcurrencyStats stats)
+    {
+        return new SplitConcurrencyController(initialConcurrency, adjustmentInterval, Optional.of(new Adaptive(nodeLoad, stats)));
     }
 
     public void update(long nanos, double utilization, int currentConcurrency)
+    {
+        update(nanos, nanos, false, utilization, currentConcurrency);
+    }
+
+    public void update(long nanos, long cpuNanos, boolean blocked, double utilization, int currentConcurrency)
     {
         checkArgument(nanos >= 0, "nanos is negative");
+        checkArgument(cpuNanos >= 0, "cpuNanos is negative");
         checkArgument(isFinite(utilization), "utilization must be finite");
         checkArgument(utilization >= 0, "utilization is negative");
         checkArgument(currentConcurrency >= 0, "currentConcurrency is negative");
 
         threadNanosSinceLastAdjustment += nanos;
-        if (threadNanosSinceLastAdjustment >= adjustmentIntervalNanos && utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency) {
-            threadNanosSinceLastAdjustment = 0;
+        if (!adaptive.isPresent()) {
+            if (threadNanosSinceLastAdjustment >= adjustmentIntervalNanos && utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency) {
+                threadNanosSinceLastAdjustment = 0;
+                targetConcurrency++;
+            }
+            return;
+        }
+
+        cpuNanosSinceLastAdjustment += cpuNanos;
+        quantaSinceLastAdjustment++;
+        if (blocked) {
+            blockedQuantaSinceLastAdjustment++;
+        }
+        if (threadNanosSinceLastAdjustment < adjustmentIntervalNanos) {
+            return;
+        }
+
+        double cpuRatio = threadNanosSinceLastAdjustment == 0 ? 0 : (double) cpuNanosSinceLastAdjustment / threadNanosSinceLastAdjustment;
+        double blockedRatio = (double) blockedQuantaSinceLastAdjustment / quantaSinceLastAdjustment;
+        double nodeLoad = adaptive.get().nodeLoad.getAsDouble();
+        SplitConcurrencyStats stats = adaptive.get().stats;
+
+        if (nodeLoad > MAX_NODE_LOAD) {
+            if (cpuRatio >= CPU_BOUND_RATIO && targetConcurrency > 1) {
+                // more cpu bound splits only compete for the same cores
+                resetAdjustment();
+                targetConcurrency--;
+                stats.recordDecrease();
+            }
+            else if (utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency) {
+                resetAdjustment();
+                stats.recordThrottled();
+            }
+        }
+        else if (utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency) {
+            resetAdjustment();
             targetConcurrency++;
+            if (blockedRatio >= BLOCKED_RATIO && nodeLoad < IDLE_NODE_LOAD) {
+                // splits mostly wait for input while threads are idle, grow faster
+                targetConcurrency++;
+            }
+            stats.recordIncrease();
         }
     }
 
@@ -67,13 +153,40 @@ public class SplitConcurrencyController
 
         if (threadNanosSinceLastAdjustment >= adjustmentIntervalNanos || threadNanosSinceLastAdjustment >= splitThreadNanos) {
             if (utilization > TARGET_UTILIZATION && targetConcurrency > 1) {
-                threadNanosSinceLastAdjustment = 0;
+                resetAdjustment();
                 targetConcurrency--;
+                adaptive.ifPresent(value -> value.stats.recordDecrease());
             }
             else if (utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency) {
-                threadNanosSinceLastAdjustment = 0;
+                if (adaptive.isPresent() && adaptive.get().nodeLoad.getAsDouble() > MAX_NODE_LOAD) {
+                    resetAdjustment();
+                    adaptive.get().stats.recordThrottled();
+                    return;
+                }
+                resetAdjustment();
                 targetConcurrency++;
+                adaptive.ifPresent(value -> value.stats.recordIncrease());
             }
         }
     }
+
+    private void resetAdjustment()
+    {
+        threadNanosSinceLastAdjustment = 0;
+        cpuNanosSinceLastAdjustment = 0;
+        quantaSinceLastAdjustment = 0;
+        blockedQuantaSinceLastAdjustment = 0;
+    }
+
+    private static class Adaptive
+    {
+        private final DoubleSupplier nodeLoad;
+        private final SplitConcurrencyStats stats;
+
+        private Adaptive(DoubleSupplier nodeLoad, SplitConcurrencyStats stats)
+        {
+            this.nodeLoad = requireNonNull(nodeLoad, "nodeLoad is null");
+            this.stats = requireNonNull(stats, "stats is null");
+        }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution;
+
+import io.airlift.stats.CounterStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+/**
+ * Decisions taken by the adaptive {@link SplitConcurrencyController}s of all tasks on this node.
+ */
+public class SplitConcurrencyStats
+{
+    private final CounterStat increases = new CounterStat();
+    private final CounterStat decreases = new CounterStat();
+    private final CounterStat throttled = new CounterStat();
+
+    @Managed
+    @Nested
+    public CounterStat getIncreases()
+    {
+        return increases;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDecreases()
+    {
+        return decreases;
+    }
+
+    /**
+     * Target concurrency increases that were skipped because the node was overloaded
+     */
+    @Managed
+    @Nested
+    public CounterStat getThrottled()
+    {
+        return throttled;
+    }
+
+    void recordIncrease()
+    {
+        increases.update(1);
+    }
+
+    void recordDecrease()
+    {
+        decreases.update(1);
+    }
+
+    void recordThrottled()
+    {
+        throttled.update(1);
+    }
+}
@@ -41,8 +41,11 @@ import io.prestosql.heuristicindex.HeuristicIndexerManager;
 import io.prestosql.memory.VersionedMemoryPoolId;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.ForScheduler;
+import io.prestosql.query.CachedQueryResult;
 import io.prestosql.query.CachedSqlQueryExecution;
 import io.prestosql.query.CachedSqlQueryExecutionPlan;
+import io.prestosql.query.QueryResultCache;
+import io.prestosql.query.QueryResultCacheKey;
 import io.prestosql.security.AccessControl;
 import io.prestosql.server.BasicQueryInfo;
 import io.prestosql.snapshot.MarkerAnnouncer;
@@ -116,6 +119,7 @@ import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.succinctBytes;
 import static io.prestosql.SystemSessionProperties.isCrossRegionDynamicFilterEnabled;
 import static io.prestosql.SystemSessionProperties.isEnableDynamicFiltering;
+import static io.prestosql.SystemSessionProperties.isQueryResultCacheEnabled;
 import static io.prestosql.execution.buffer.OutputBuffers.BROADCAST_PARTITION_ID;
 import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
 import static io.prestosql.execution.scheduler.SqlQueryScheduler.createSqlQueryScheduler;
@@ -167,6 +171,7 @@ public class SqlQueryExecution
     private final StateStoreProvider stateStoreProvider;
     private final QuerySnapshotManager snapshotManager;
     private final WarningCollector warningCollector;
+    private final QueryResultCache queryResultCache;
 
     public SqlQueryExecution(
             PreparedQuery preparedQuery,
@@ -197,7 +202,8 @@ public class SqlQueryExecution
             DynamicFilterService dynamicFilterService,
             HeuristicIndexerManager heuristicIndexerManager,
             StateStoreProvider stateStoreProvider,
-            SnapshotUtils snapshotUtils)
+            SnapshotUtils snapshotUtils,
+            QueryResultCache queryResultCache)
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", stateMachine.getQueryId())) {
             this.slug = requireNonNull(slug, "slug is null");
@@ -221,6 +227,7 @@ public class SqlQueryExecution
             this.dynamicFilterService = requireNonNull(dynamicFilterService, "dynamicFilterService is null");
             this.heuristicIndexerManager = requireNonNull(heuristicIndexerManager, "heuristicIndexerManager is null");
             this.warningCollector = requireNonNull(warningCollector);
+            this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
 
             this.snapshotManager = new QuerySnapshotManager(
                     stateMachine.getQueryId(),
@@ -268,6 +275,11 @@ public class SqlQueryExecution
                     return;
                 }
 
+                // the result of a failed or canceled query must not be cached
+                if (state != QueryState.FINISHED) {
+                    queryResultCache.removeResultCollector(stateMachine.getQueryId());
+                }
+
                 // Snapshot: query is now done, so clear its entries in the snapshot manager
                 if (SystemSessionProperties.isSnapshotEnabled(stateMachine.getSession())) {
                     snapshotManager.doneQuery(state);
@@ -475,6 +487,16 @@ public class SqlQueryExecution
                     return;
                 }
 
+                // serve the query from the result cache if it ran before against the same tables
+                Optional<QueryResultCacheKey> resultCacheKey = createResultCacheKey();
+                if (resultCacheKey.isPresent()) {
+                    Optional<CachedQueryResult> cachedResult = queryResultCache.get(resultCacheKey.get());
+                    if (cachedResult.isPresent()) {
+                        finishWithCachedResult(cachedResult.get());
+                        return;
+                    }
+                }
+
                 // analyze query
                 PlanRoot plan = analyzeQuery();
 
@@ -487,7 +509,7 @@ public class SqlQueryExecution
                 }
 
                 // plan distribution of query
-                planDistribution(plan);
+                planDistribution(plan, resultCacheKey);
 
                 // transition to starting
                 if (!stateMachine.transitionToStarting()) {
@@ -522,6 +544,24 @@ public class SqlQueryExecution
         }
     }
 
+    private Optional<QueryResultCacheKey> createResultCacheKey()
+    {
+        Session session = stateMachine.getSession();
+        if (!queryResultCache.isEnabled() || !isQueryResultCacheEnabled(session) || SystemSessionProperties.isSnapshotEnabled(session)) {
+            return Optional.empty();
+        }
+        return QueryResultCacheKey.create(analysis, session, metadata);
+    }
+
+    private void finishWithCachedResult(CachedQueryResult result)
+    {
+        // attach the result before the query can be seen as finished
+        queryResultCache.attachResult(stateMachine.getQueryId(), result);
+        stateMachine.setColumns(result.getColumnNames(), result.getColumnTypes());
+        stateMachine.updateOutputLocations(ImmutableSet.of(), true);
+        stateMachine.transitionToFinishing();
+    }
+
     private void resumeQuery(PlanRoot plan)
     {
         SqlQueryScheduler oldScheduler = queryScheduler.get();
@@ -777,7 +817,7 @@ public class SqlQueryExecution
         return connectors.build();
     }
 
-    private void planDistribution(PlanRoot plan)
+    private void planDistribution(PlanRoot plan, Optional<QueryResultCacheKey> resultCacheKey)
     {
         // time distribution planning
         stateMachine.beginDistributedPlanning();
@@ -811,6 +851,11 @@ public class SqlQueryExecution
 
         // record output field
         stateMachine.setColumns(outputStageExecutionPlan.getFieldNames(), outputStageExecutionPlan.getFragment().getTypes());
+        resultCacheKey.ifPresent(key -> queryResultCache.collectResult(
+                stateMachine.getQueryId(),
+                key,
+                outputStageExecutionPlan.getFieldNames(),
+                outputStageExecutionPlan.getFragment().getTypes()));
 
         PartitioningHandle partitioningHandle = plan.getRoot().getFragment().getPartitioningScheme().getPartitioning().getHandle();
         OutputBuffers rootOutputBuffers = createInitialEmptyOutputBuffers(partitioningHandle)
@@ -1034,6 +1079,7 @@ public class SqlQueryExecution
         private final HeuristicIndexerManager heuristicIndexerManager;
         private final StateStoreProvider stateStoreProvider;
         private final SnapshotUtils snapshotUtils;
+        private final QueryResultCache queryResultCache;
 
         @Inject
         SqlQueryExecutionFactory(QueryManagerConfig config,
@@ -1061,7 +1107,8 @@ public class SqlQueryExecution
                 DynamicFilterService dynamicFilterService,
                 HeuristicIndexerManager heuristicIndexerManager,
                 StateStoreProvider stateStoreProvider,
-                SnapshotUtils snapshotUtils)
+                SnapshotUtils snapshotUtils,
+                QueryResultCache queryResultCache)
         {
             requireNonNull(config, "config is null");
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
@@ -1089,6 +1136,7 @@ public class SqlQueryExecution
             this.heuristicIndexerManager = requireNonNull(heuristicIndexerManager, "heuristicIndexerManager is null");
             this.stateStoreProvider = requireNonNull(stateStoreProvider, "stateStoreProvider is null");
             this.snapshotUtils = requireNonNull(snapshotUtils, "snapshotUtils is null");
+            this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
             this.loadConfigToService(hetuConfig);
             if (hetuConfig.isExecutionPlanCacheEnabled()) {
                 this.cache = Optional.of(CacheBuilder.newBuilder()
@@ -1149,7 +1197,8 @@ public class SqlQueryExecution
                     this.cache,
                     heuristicIndexerManager,
                     stateStoreProvider,
-                    snapshotUtils);
+                    snapshotUtils,
+                    queryResultCache);
         }
     }
 }
@@ -21,6 +21,7 @@ import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
 import io.airlift.units.Duration;
 import io.airlift.units.MaxDuration;
+import io.airlift.units.MinDataSize;
 import io.airlift.units.MinDuration;
 import io.prestosql.util.PowerOfTwo;
 
@@ -54,9 +55,12 @@ public class TaskManagerConfig
     private int minDriversPerTask = 3;
     private int maxDriversPerTask = Integer.MAX_VALUE;
     private Duration splitConcurrencyAdjustmentInterval = new Duration(100, TimeUnit.MILLISECONDS);
+    private boolean adaptiveSplitConcurrencyEnabled;
 
     private DataSize sinkMaxBufferSize = new DataSize(32, Unit.MEGABYTE);
     private DataSize maxPagePartitioningBufferSize = new DataSize(32, Unit.MEGABYTE);
+    private boolean pagePartitioningCoalescingEnabled;
+    private DataSize pagePartitioningTargetPageSize = new DataSize(1, Unit.MEGABYTE);
 
     private Duration clientTimeout = new Duration(2, TimeUnit.MINUTES);
     private Duration infoMaxAge = new Duration(15, TimeUnit.MINUTES);
@@ -73,6 +77,7 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private boolean workStealingEnabled;
 
     @MinDuration("1ms")
     @MaxDuration("10s")
@@ -208,6 +213,19 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isWorkStealingEnabled()
+    {
+        return workStealingEnabled;
+    }
+
+    @Config("task.work-stealing-enabled")
+    @ConfigDescription("Schedule splits from a local queue per worker thread, idle threads steal splits from the queues of other threads")
+    public TaskManagerConfig setWorkStealingEnabled(boolean workStealingEnabled)
+    {
+        this.workStealingEnabled = workStealingEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
@@ -251,6 +269,19 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isAdaptiveSplitConcurrencyEnabled()
+    {
+        return adaptiveSplitConcurrencyEnabled;
+    }
+
+    @Config("task.adaptive-split-concurrency-enabled")
+    @ConfigDescription("Adjust the split concurrency of tasks to the node load and to the cpu and blocked time of their splits")
+    public TaskManagerConfig setAdaptiveSplitConcurrencyEnabled(boolean adaptiveSplitConcurrencyEnabled)
+    {
+        this.adaptiveSplitConcurrencyEnabled = adaptiveSplitConcurrencyEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getMinDrivers()
     {
@@ -321,6 +352,34 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isPagePartitioningCoalescingEnabled()
+    {
+        return pagePartitioningCoalescingEnabled;
+    }
+
+    @Config("driver.page-partitioning-coalescing-enabled")
+    @ConfigDescription("Merge small pages of the partitions of a hash partitioned output up to the target page size before they are serialized")
+    public TaskManagerConfig setPagePartitioningCoalescingEnabled(boolean pagePartitioningCoalescingEnabled)
+    {
+        this.pagePartitioningCoalescingEnabled = pagePartitioningCoalescingEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("1kB")
+    public DataSize getPagePartitioningTargetPageSize()
+    {
+        return pagePartitioningTargetPageSize;
+    }
+
+    @Config("driver.page-partitioning-target-page-size")
+    @ConfigDescription("Target size of the pages of a hash partitioned output when coalescing is enabled")
+    public TaskManagerConfig setPagePartitioningTargetPageSize(DataSize pagePartitioningTargetPageSize)
+    {
+        this.pagePartitioningTargetPageSize = pagePartitioningTargetPageSize;
+        return this;
+    }
+
     @MinDuration("5s")
     @NotNull
     public Duration getClientTimeout()
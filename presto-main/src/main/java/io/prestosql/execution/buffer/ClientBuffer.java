@@ -13,7 +13,6 @@
  */
 package io.prestosql.execution.buffer;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.DataSize;
@@ -26,11 +25,13 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -41,6 +42,15 @@ import static io.prestosql.execution.buffer.BufferResult.emptyResults;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Pages buffered for a single client.
+ * <p>
+ * Pages are added by the drivers producing output and removed by the single client reading this buffer,
+ * so producers and the reader are decoupled: pages are appended to a lock-free queue, and producers never
+ * block on the reader. The reader side (reads, acknowledgements and destruction) is serialized with a lock
+ * only the reader side takes, which is uncontended as each client only has one outstanding read.
+ * A producer only takes it to complete a read waiting for pages.
+ */
 @ThreadSafe
 class ClientBuffer
 {
@@ -48,26 +58,30 @@ class ClientBuffer
     private final OutputBufferId bufferId;
 
     private final AtomicLong rowsAdded = new AtomicLong();
+    // Incremented after pages are added to the queue, so at least this many pages have been added
     private final AtomicLong pagesAdded = new AtomicLong();
 
+    // Incremented before pages are added to the queue, so it never goes negative when pages are removed
     private final AtomicLong bufferedBytes = new AtomicLong();
 
-    @GuardedBy("this")
+    private final Object readerLock = new Object();
+
+    // Sequence id of the first page in the queue
+    @GuardedBy("readerLock")
     private final AtomicLong currentSequenceId = new AtomicLong();
 
-    @GuardedBy("this")
-    private final LinkedList<SerializedPageReference> pages = new LinkedList<>();
+    // Pages are only removed by the reader side, except that a producer removes pages it added after the buffer was destroyed
+    private final Queue<SerializedPageReference> pages = new ConcurrentLinkedQueue<>();
 
-    @GuardedBy("this")
-    private boolean noMorePages;
+    private volatile boolean noMorePages;
 
     // destroyed is set when the client sends a DELETE to the buffer
     // this is an acknowledgement that the client has observed the end of the buffer
-    @GuardedBy("this")
     private final AtomicBoolean destroyed = new AtomicBoolean();
 
-    @GuardedBy("this")
-    private PendingRead pendingRead;
+    // A read waiting for pages. It's published before checking for pages, and pages are added before taking it,
+    // so either the reader sees the added pages, or the producer sees the read.
+    private final AtomicReference<PendingRead> pendingRead = new AtomicReference<>();
 
     public ClientBuffer(String taskInstanceId, OutputBufferId bufferId)
     {
@@ -81,7 +95,6 @@ class ClientBuffer
         // NOTE: this code must be lock free so state machine updates do not hang
         //
 
-        @SuppressWarnings("FieldAccessNotGuarded")
         boolean destroyed = this.destroyed.get();
 
         @SuppressWarnings("FieldAccessNotGuarded")
@@ -99,30 +112,20 @@ class ClientBuffer
         //
         // NOTE: this code must be lock free so state machine updates do not hang
         //
-        @SuppressWarnings("FieldAccessNotGuarded")
-        boolean destroyed = this.destroyed.get();
-        return destroyed;
+        return destroyed.get();
     }
 
     public void destroy()
     {
-        List<SerializedPageReference> removedPages;
-        PendingRead pendingRead;
-        synchronized (this) {
-            removedPages = ImmutableList.copyOf(pages);
-            pages.clear();
-
-            bufferedBytes.getAndSet(0);
-
+        synchronized (readerLock) {
             noMorePages = true;
             destroyed.set(true);
-
-            pendingRead = this.pendingRead;
-            this.pendingRead = null;
         }
 
-        removedPages.forEach(SerializedPageReference::dereferencePage);
+        // Producers may still be adding pages. Each page is removed, and dereferenced, by one thread only.
+        removeAllPages();
 
+        PendingRead pendingRead = this.pendingRead.getAndSet(null);
         if (pendingRead != null) {
             pendingRead.completeResultFutureWithEmpty();
         }
@@ -130,37 +133,52 @@ class ClientBuffer
 
     public void enqueuePages(Collection<SerializedPageReference> pages)
     {
-        PendingRead pendingRead;
-        synchronized (this) {
-            // ignore pages after no more pages is set
-            // this can happen with limit queries
-            if (noMorePages) {
-                return;
-            }
+        // ignore pages after no more pages is set
+        // this can happen with limit queries
+        if (noMorePages) {
+            return;
+        }
 
-            addPages(pages);
+        addPages(pages);
 
-            pendingRead = this.pendingRead;
-            this.pendingRead = null;
+        if (destroyed.get()) {
+            // the buffer was destroyed while pages were added, so they will never be read
+            removeAllPages();
+            return;
         }
 
         // we just added a page, so process the pending read
+        PendingRead pendingRead = this.pendingRead.getAndSet(null);
         if (pendingRead != null) {
             processRead(pendingRead);
         }
     }
 
-    private synchronized void addPages(Collection<SerializedPageReference> pages)
+    private void addPages(Collection<SerializedPageReference> pages)
     {
         pages.forEach(SerializedPageReference::addReference);
-        this.pages.addAll(pages);
 
+        long bytesAdded = pages.stream().mapToLong(SerializedPageReference::getRetainedSizeInBytes).sum();
+        bufferedBytes.addAndGet(bytesAdded);
+
+        // count the pages before publishing them, a reader may return and acknowledge
+        // them as soon as they are in the queue, and the acknowledgement is checked
+        // against the number of pages added
         long rowCount = pages.stream().mapToLong(SerializedPageReference::getPositionCount).sum();
         rowsAdded.addAndGet(rowCount);
         pagesAdded.addAndGet(pages.size());
 
-        long bytesAdded = pages.stream().mapToLong(SerializedPageReference::getRetainedSizeInBytes).sum();
-        bufferedBytes.addAndGet(bytesAdded);
+        this.pages.addAll(pages);
+    }
+
+    private void removeAllPages()
+    {
+        SerializedPageReference page = pages.poll();
+        while (page != null) {
+            bufferedBytes.addAndGet(-page.getRetainedSizeInBytes());
+            page.dereferencePage();
+            page = pages.poll();
+        }
     }
 
     public ListenableFuture<BufferResult> getPages(long sequenceId, DataSize maxSize)
@@ -176,49 +194,55 @@ class ClientBuffer
         // attempt to load some data before processing the read
         pagesSupplier.ifPresent(supplier -> loadPagesIfNecessary(supplier, maxSize));
 
-        PendingRead oldPendingRead = null;
-        try {
-            synchronized (this) {
-                // save off the old pending read so we can abort it out side of the lock
-                oldPendingRead = this.pendingRead;
-                this.pendingRead = null;
-
-                // Return results immediately if we have data, there will be no more data, or this is
-                // an out of order request
-                if (!pages.isEmpty() || noMorePages || sequenceId != currentSequenceId.get()) {
-                    return immediateFuture(processRead(sequenceId, maxSize));
-                }
+        // Each buffer is private to a single client, and each client should only have one outstanding
+        // read.  Therefore, we abort the existing read since it was most likely abandoned by the client.
+        PendingRead oldPendingRead = this.pendingRead.getAndSet(null);
+        if (oldPendingRead != null) {
+            oldPendingRead.completeResultFutureWithEmpty();
+        }
 
-                // otherwise, wait for more data to arrive
-                pendingRead = new PendingRead(taskInstanceId, sequenceId, maxSize);
-                return pendingRead.getResultFuture();
-            }
+        // Return results immediately if we have data, there will be no more data, or this is
+        // an out of order request
+        if (hasPagesOrNoMorePages() || sequenceId != getCurrentSequenceId()) {
+            return immediateFuture(processRead(sequenceId, maxSize));
         }
-        finally {
-            if (oldPendingRead != null) {
-                // Each buffer is private to a single client, and each client should only have one outstanding
-                // read.  Therefore, we abort the existing read since it was most likely abandoned by the client.
-                oldPendingRead.completeResultFutureWithEmpty();
-            }
+
+        // otherwise, wait for more data to arrive
+        PendingRead pendingRead = new PendingRead(taskInstanceId, sequenceId, maxSize);
+        oldPendingRead = this.pendingRead.getAndSet(pendingRead);
+        if (oldPendingRead != null) {
+            oldPendingRead.completeResultFutureWithEmpty();
         }
+
+        // pages may have been added before the pending read was published
+        if (hasPagesOrNoMorePages() && this.pendingRead.compareAndSet(pendingRead, null)) {
+            processRead(pendingRead);
+        }
+        return pendingRead.getResultFuture();
     }
 
-    public void setNoMorePages()
+    private boolean hasPagesOrNoMorePages()
     {
-        PendingRead pendingRead;
-        synchronized (this) {
-            // ignore duplicate calls
-            if (noMorePages) {
-                return;
-            }
+        return !pages.isEmpty() || noMorePages;
+    }
 
-            noMorePages = true;
+    @SuppressWarnings("FieldAccessNotGuarded")
+    private long getCurrentSequenceId()
+    {
+        return currentSequenceId.get();
+    }
 
-            pendingRead = this.pendingRead;
-            this.pendingRead = null;
+    public void setNoMorePages()
+    {
+        // ignore duplicate calls
+        if (noMorePages) {
+            return;
         }
 
+        noMorePages = true;
+
         // there will be no more pages, so process the pending read
+        PendingRead pendingRead = this.pendingRead.getAndSet(null);
         if (pendingRead != null) {
             processRead(pendingRead);
         }
@@ -231,21 +255,16 @@ class ClientBuffer
         // Get the max size from the current pending read, which may not be the
         // same pending read instance by the time pages are loaded but this is
         // safe since the size is rechecked before returning pages.
-        DataSize maxSize;
-        synchronized (this) {
-            if (pendingRead == null) {
-                return;
-            }
-            maxSize = pendingRead.getMaxSize();
+        PendingRead currentPendingRead = this.pendingRead.get();
+        if (currentPendingRead == null) {
+            return;
         }
+        DataSize maxSize = currentPendingRead.getMaxSize();
 
         boolean dataAddedOrNoMorePages = loadPagesIfNecessary(pagesSupplier, maxSize);
 
         if (dataAddedOrNoMorePages) {
-            PendingRead pendingRead;
-            synchronized (this) {
-                pendingRead = this.pendingRead;
-            }
+            PendingRead pendingRead = this.pendingRead.getAndSet(null);
             if (pendingRead != null) {
                 processRead(pendingRead);
             }
@@ -257,11 +276,11 @@ class ClientBuffer
      */
     private boolean loadPagesIfNecessary(PagesSupplier pagesSupplier, DataSize maxSize)
     {
-        checkState(!Thread.holdsLock(this), "Can not load pages while holding a lock on this");
+        checkState(!Thread.holdsLock(readerLock), "Can not load pages while holding the reader lock");
 
         boolean dataAddedOrNoMorePages;
         List<SerializedPageReference> pageReferences;
-        synchronized (this) {
+        synchronized (readerLock) {
             if (noMorePages) {
                 return false;
             }
@@ -293,7 +312,7 @@ class ClientBuffer
 
     private void processRead(PendingRead pendingRead)
     {
-        checkState(!Thread.holdsLock(this), "Can not process pending read while holding a lock on this");
+        checkState(!Thread.holdsLock(readerLock), "Can not process pending read while holding the reader lock");
 
         if (pendingRead.getResultFuture().isDone()) {
             return;
@@ -306,7 +325,7 @@ class ClientBuffer
     /**
      * @return a result with at least one page if we have pages in buffer, empty result otherwise
      */
-    private synchronized BufferResult processRead(long sequenceId, DataSize maxSize)
+    private BufferResult processRead(long sequenceId, DataSize maxSize)
     {
         // When pages are added to the partition buffer they are effectively
         // assigned an id starting from zero. When a read is processed, the
@@ -330,39 +349,42 @@ class ClientBuffer
         //   the finished flag set and next token is the max acknowledged page
         //   when the buffer is destroyed.
         //
+        synchronized (readerLock) {
+            // if request is for pages before the current position, just return an empty result
+            if (sequenceId < currentSequenceId.get()) {
+                return emptyResults(taskInstanceId, sequenceId, false);
+            }
 
-        // if request is for pages before the current position, just return an empty result
-        if (sequenceId < currentSequenceId.get()) {
-            return emptyResults(taskInstanceId, sequenceId, false);
-        }
-
-        // if this buffer is finished, notify the client of this, so the client
-        // will destroy this buffer
-        if (pages.isEmpty() && noMorePages) {
-            return emptyResults(taskInstanceId, currentSequenceId.get(), true);
-        }
+            // if this buffer is finished, notify the client of this, so the client
+            // will destroy this buffer. Pages added before no more pages is set
+            // are visible once it's observed, so it must be read first.
+            boolean noMorePages = this.noMorePages;
+            if (destroyed.get() || (noMorePages && pages.isEmpty())) {
+                return emptyResults(taskInstanceId, currentSequenceId.get(), true);
+            }
 
-        // if request is for pages after the current position, there is a bug somewhere
-        // a read call is always proceeded by acknowledge pages, which
-        // will advance the sequence id to at least the request position, unless
-        // the buffer is destroyed, and in that case the buffer will be empty with
-        // no more pages set, which is checked above
-        verify(sequenceId == currentSequenceId.get(), "Invalid sequence id");
-
-        // read the new pages
-        long maxBytes = maxSize.toBytes();
-        List<SerializedPage> result = new ArrayList<>();
-        long bytes = 0;
-
-        for (SerializedPageReference page : pages) {
-            bytes += page.getRetainedSizeInBytes();
-            // break (and don't add) if this page would exceed the limit
-            if (!result.isEmpty() && bytes > maxBytes) {
-                break;
+            // if request is for pages after the current position, there is a bug somewhere
+            // a read call is always proceeded by acknowledge pages, which
+            // will advance the sequence id to at least the request position, unless
+            // the buffer is destroyed, and in that case the buffer will be empty with
+            // no more pages set, which is checked above
+            verify(sequenceId == currentSequenceId.get(), "Invalid sequence id");
+
+            // read the new pages
+            long maxBytes = maxSize.toBytes();
+            List<SerializedPage> result = new ArrayList<>();
+            long bytes = 0;
+
+            for (SerializedPageReference page : pages) {
+                bytes += page.getRetainedSizeInBytes();
+                // break (and don't add) if this page would exceed the limit
+                if (!result.isEmpty() && bytes > maxBytes) {
+                    break;
+                }
+                result.add(page.getSerializedPage());
             }
-            result.add(page.getSerializedPage());
+            return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, result);
         }
-        return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, result);
     }
 
     /**
@@ -373,7 +395,7 @@ class ClientBuffer
         checkArgument(sequenceId >= 0, "Invalid sequence id");
 
         List<SerializedPageReference> removedPages = new ArrayList<>();
-        synchronized (this) {
+        synchronized (readerLock) {
             if (destroyed.get()) {
                 return;
             }
@@ -385,11 +407,12 @@ class ClientBuffer
             }
 
             int pagesToRemove = toIntExact(sequenceId - oldCurrentSequenceId);
-            checkArgument(pagesToRemove <= pages.size(), "Invalid sequence id");
+            checkArgument(pagesToRemove <= pagesAdded.get() - oldCurrentSequenceId, "Invalid sequence id");
 
             long bytesRemoved = 0;
             for (int i = 0; i < pagesToRemove; i++) {
-                SerializedPageReference removedPage = pages.removeFirst();
+                SerializedPageReference removedPage = pages.poll();
+                verify(removedPage != null, "Page is missing");
                 removedPages.add(removedPage);
                 bytesRemoved += removedPage.getRetainedSizeInBytes();
             }
@@ -411,7 +434,6 @@ class ClientBuffer
         @SuppressWarnings("FieldAccessNotGuarded")
         long sequenceId = currentSequenceId.get();
 
-        @SuppressWarnings("FieldAccessNotGuarded")
         boolean destroyed = this.destroyed.get();
 
         return toStringHelper(this)
@@ -166,7 +166,8 @@ public class PrioritizedSplitRunner
             long quantaScheduledNanos = ticker.read() - startNanos;
             scheduledNanos.addAndGet(quantaScheduledNanos);
 
-            priority.set(taskHandle.addScheduledNanos(quantaScheduledNanos));
+            long quantaCpuNanos = elapsed.getCpu().roundTo(NANOSECONDS);
+            priority.set(taskHandle.addScheduledNanos(quantaScheduledNanos, quantaCpuNanos, blocked != NOT_BLOCKED));
             lastRun.set(ticker.read());
 
             if (blocked == NOT_BLOCKED) {
@@ -176,7 +177,6 @@ public class PrioritizedSplitRunner
                 blockedQuantaWallTime.add(elapsed.getWall());
             }
 
-            long quantaCpuNanos = elapsed.getCpu().roundTo(NANOSECONDS);
             cpuTimeNanos.addAndGet(quantaCpuNanos);
 
             globalCpuTimeMicros.update(quantaCpuNanos / 1000);
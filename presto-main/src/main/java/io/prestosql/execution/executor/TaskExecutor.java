@@ -24,6 +24,8 @@ import io.airlift.stats.CounterStat;
 import io.airlift.stats.TimeDistribution;
 import io.airlift.stats.TimeStat;
 import io.airlift.units.Duration;
+import io.prestosql.execution.SplitConcurrencyController;
+import io.prestosql.execution.SplitConcurrencyStats;
 import io.prestosql.execution.SplitRunner;
 import io.prestosql.execution.TaskId;
 import io.prestosql.execution.TaskManagerConfig;
@@ -83,6 +85,8 @@ public class TaskExecutor
     // print out split call stack if it has been running for a certain amount of time
     private static final Duration LONG_SPLIT_WARNING_THRESHOLD = new Duration(600, TimeUnit.SECONDS);
 
+    private static final Duration NODE_LOAD_UPDATE_INTERVAL = new Duration(100, TimeUnit.MILLISECONDS);
+
     private static final AtomicLong NEXT_RUNNER_ID = new AtomicLong();
 
     private final ExecutorService executor;
@@ -92,6 +96,7 @@ public class TaskExecutor
     private final int minimumNumberOfDrivers;
     private final int guaranteedNumberOfDriversPerTask;
     private final int maximumNumberOfDriversPerTask;
+    private final boolean adaptiveSplitConcurrency;
     private final EmbedVersion embedVersion;
 
     private final Ticker ticker;
@@ -154,6 +159,10 @@ public class TaskExecutor
     private final TimeStat blockedQuantaWallTime = new TimeStat(MICROSECONDS);
     private final TimeStat unblockedQuantaWallTime = new TimeStat(MICROSECONDS);
 
+    private final SplitConcurrencyStats splitConcurrencyStats = new SplitConcurrencyStats();
+    // runnable splits per runner thread, sampled for the adaptive split concurrency
+    private volatile double nodeLoad;
+
     private volatile boolean closed;
 
     @Inject
@@ -163,6 +172,7 @@ public class TaskExecutor
                 config.getMinDrivers(),
                 config.getMinDriversPerTask(),
                 config.getMaxDriversPerTask(),
+                config.isAdaptiveSplitConcurrencyEnabled(),
                 embedVersion,
                 splitQueue,
                 Ticker.systemTicker());
@@ -189,6 +199,20 @@ public class TaskExecutor
             EmbedVersion embedVersion,
             MultilevelSplitQueue splitQueue,
             Ticker ticker)
+    {
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, false, embedVersion, splitQueue, ticker);
+    }
+
+    @VisibleForTesting
+    public TaskExecutor(
+            int runnerThreads,
+            int minDrivers,
+            int guaranteedNumberOfDriversPerTask,
+            int maximumNumberOfDriversPerTask,
+            boolean adaptiveSplitConcurrency,
+            EmbedVersion embedVersion,
+            MultilevelSplitQueue splitQueue,
+            Ticker ticker)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
         checkArgument(guaranteedNumberOfDriversPerTask > 0, "guaranteedNumberOfDriversPerTask must be at least 1");
@@ -206,6 +230,7 @@ public class TaskExecutor
         this.minimumNumberOfDrivers = minDrivers;
         this.guaranteedNumberOfDriversPerTask = guaranteedNumberOfDriversPerTask;
         this.maximumNumberOfDriversPerTask = maximumNumberOfDriversPerTask;
+        this.adaptiveSplitConcurrency = adaptiveSplitConcurrency;
         this.waitingSplits = requireNonNull(splitQueue, "splitQueue is null");
         this.tasks = new LinkedList<>();
     }
@@ -217,6 +242,15 @@ public class TaskExecutor
         for (int i = 0; i < runnerThreads; i++) {
             addRunnerThread();
         }
+        if (adaptiveSplitConcurrency) {
+            // sampled outside of the task handle locks, the split queue lock is taken before those
+            splitMonitorExecutor.scheduleWithFixedDelay(this::updateNodeLoad, 0, NODE_LOAD_UPDATE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void updateNodeLoad()
+    {
+        nodeLoad = (double) (waitingSplits.size() + runningSplits.size()) / runnerThreads;
     }
 
     @PreDestroy
@@ -263,7 +297,14 @@ public class TaskExecutor
 
         log.debug("Task scheduled " + taskId);
 
-        TaskHandle taskHandle = new TaskHandle(taskId, waitingSplits, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask);
+        SplitConcurrencyController concurrencyController;
+        if (adaptiveSplitConcurrency) {
+            concurrencyController = SplitConcurrencyController.adaptive(initialSplitConcurrency, splitConcurrencyAdjustFrequency, () -> nodeLoad, splitConcurrencyStats);
+        }
+        else {
+            concurrencyController = new SplitConcurrencyController(initialSplitConcurrency, splitConcurrencyAdjustFrequency);
+        }
+        TaskHandle taskHandle = new TaskHandle(taskId, waitingSplits, utilizationSupplier, concurrencyController, maxDriversPerTask);
 
         tasks.add(taskHandle);
         return taskHandle;
@@ -535,6 +576,19 @@ public class TaskExecutor
     // STATS
     //
 
+    @Managed(description = "Runnable splits per runner thread, only sampled with adaptive split concurrency")
+    public double getNodeLoad()
+    {
+        return nodeLoad;
+    }
+
+    @Managed
+    @Nested
+    public SplitConcurrencyStats getSplitConcurrencyStats()
+    {
+        return splitConcurrencyStats;
+    }
+
     @Managed
     public synchronized int getTasks()
     {
@@ -66,19 +66,38 @@ public class TaskHandle
             int initialSplitConcurrency,
             Duration splitConcurrencyAdjustFrequency,
             OptionalInt maxDriversPerTask)
+    {
+        this(taskId,
+                splitQueue,
+                utilizationSupplier,
+                new SplitConcurrencyController(
+                        initialSplitConcurrency,
+                        requireNonNull(splitConcurrencyAdjustFrequency, "splitConcurrencyAdjustFrequency is null")),
+                maxDriversPerTask);
+    }
+
+    public TaskHandle(
+            TaskId taskId,
+            MultilevelSplitQueue splitQueue,
+            DoubleSupplier utilizationSupplier,
+            SplitConcurrencyController concurrencyController,
+            OptionalInt maxDriversPerTask)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.splitQueue = requireNonNull(splitQueue, "splitQueue is null");
         this.utilizationSupplier = requireNonNull(utilizationSupplier, "utilizationSupplier is null");
         this.maxDriversPerTask = requireNonNull(maxDriversPerTask, "maxDriversPerTask is null");
-        this.concurrencyController = new SplitConcurrencyController(
-                initialSplitConcurrency,
-                requireNonNull(splitConcurrencyAdjustFrequency, "splitConcurrencyAdjustFrequency is null"));
+        this.concurrencyController = requireNonNull(concurrencyController, "concurrencyController is null");
     }
 
     public synchronized Priority addScheduledNanos(long durationNanos)
     {
-        concurrencyController.update(durationNanos, utilizationSupplier.getAsDouble(), runningLeafSplits.size());
+        return addScheduledNanos(durationNanos, durationNanos, false);
+    }
+
+    public synchronized Priority addScheduledNanos(long durationNanos, long cpuNanos, boolean blocked)
+    {
+        concurrencyController.update(durationNanos, cpuNanos, blocked, utilizationSupplier.getAsDouble(), runningLeafSplits.size());
         scheduledNanos += durationNanos;
 
         Priority newPriority = splitQueue.updatePriority(priority.get(), durationNanos, scheduledNanos);
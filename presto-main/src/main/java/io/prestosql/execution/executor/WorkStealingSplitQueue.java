@@ -0,0 +1,347 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import io.airlift.stats.CounterStat;
+import io.prestosql.execution.TaskManagerConfig;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Split queue with a local run queue for each runner thread.
+ * <p>
+ * A runner thread offers its splits to, and takes them from, its own queue, so scheduling many short
+ * quanta does not contend on a single lock. A runner thread with an empty queue steals a split from the
+ * queue of another thread. Splits offered by other threads (e.g. when a blocked split becomes ready) are
+ * spread over the local queues.
+ * <p>
+ * Each local queue keeps the multi-level structure of {@link MultilevelSplitQueue}, and the level to poll
+ * is selected against the node-wide level scheduled times, so the time share of the levels is kept. The
+ * ordering by priority within a level is only kept per local queue.
+ */
+@ThreadSafe
+public class WorkStealingSplitQueue
+        extends MultilevelSplitQueue
+{
+    // bounds the time an idle runner thread can miss a split offered to a queue it did not look at
+    private static final long IDLE_WAIT_MILLIS = 10;
+
+    private final ThreadLocal<LocalQueue> localQueue = new ThreadLocal<>();
+    // queues of runner threads that exited are kept, and drained by stealing
+    private final List<LocalQueue> queues = new CopyOnWriteArrayList<>();
+    // used for splits offered before any runner thread took a split
+    private final LocalQueue sharedQueue = new LocalQueue(null);
+    private final AtomicInteger nextQueue = new AtomicInteger();
+
+    private final AtomicIntegerArray levelWaitingSplits = new AtomicIntegerArray(LEVEL_THRESHOLD_SECONDS.length);
+    private final AtomicInteger waitingSplits = new AtomicInteger();
+
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition workAvailable = idleLock.newCondition();
+    private final AtomicInteger idleThreads = new AtomicInteger();
+
+    private final CounterStat steals = new CounterStat();
+
+    @Inject
+    public WorkStealingSplitQueue(TaskManagerConfig taskManagerConfig)
+    {
+        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue());
+    }
+
+    public WorkStealingSplitQueue(double levelTimeMultiplier)
+    {
+        super(levelTimeMultiplier);
+        queues.add(sharedQueue);
+    }
+
+    @Override
+    public void offer(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+
+        split.setReady();
+        int level = split.getPriority().getLevel();
+        if (levelWaitingSplits.getAndIncrement(level) == 0) {
+            catchUpLevelScheduledTime(level);
+        }
+
+        // the waiting split count must be published before idle threads are checked, see awaitSplit
+        waitingSplits.incrementAndGet();
+        LocalQueue queue = localQueue.get();
+        if (queue == null) {
+            queue = selectQueue();
+        }
+        queue.offer(level, split);
+
+        if (idleThreads.get() > 0) {
+            idleLock.lock();
+            try {
+                workAvailable.signal();
+            }
+            finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public PrioritizedSplitRunner take()
+            throws InterruptedException
+    {
+        LocalQueue queue = getLocalQueue();
+        while (true) {
+            PrioritizedSplitRunner result = queue.poll();
+            if (result == null) {
+                result = steal(queue);
+            }
+            if (result == null) {
+                awaitSplit();
+                continue;
+            }
+
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
+
+            splitSelected(result);
+            return result;
+        }
+    }
+
+    @Override
+    public void remove(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+        for (LocalQueue queue : queues) {
+            if (queue.remove(split)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<PrioritizedSplitRunner> splits)
+    {
+        for (LocalQueue queue : queues) {
+            queue.removeAll(splits);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return waitingSplits.get();
+    }
+
+    @Managed
+    public int getLocalQueueCount()
+    {
+        return queues.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSteals()
+    {
+        return steals;
+    }
+
+    private LocalQueue getLocalQueue()
+    {
+        LocalQueue queue = localQueue.get();
+        if (queue == null) {
+            queue = new LocalQueue(Thread.currentThread());
+            localQueue.set(queue);
+            queues.add(queue);
+        }
+        return queue;
+    }
+
+    private LocalQueue selectQueue()
+    {
+        // the shared queue is at index 0, skip it once runner threads have their own queue
+        int size = queues.size();
+        for (int i = 1; i < size; i++) {
+            LocalQueue queue = queues.get(1 + Math.floorMod(nextQueue.getAndIncrement(), size - 1));
+            if (!queue.isAbandoned()) {
+                return queue;
+            }
+        }
+        return sharedQueue;
+    }
+
+    private PrioritizedSplitRunner steal(LocalQueue thief)
+    {
+        int size = queues.size();
+        int start = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            LocalQueue victim = queues.get((start + i) % size);
+            if (victim == thief) {
+                continue;
+            }
+            PrioritizedSplitRunner split = victim.poll();
+            if (split != null) {
+                steals.update(1);
+                return split;
+            }
+        }
+        return null;
+    }
+
+    private void awaitSplit()
+            throws InterruptedException
+    {
+        idleLock.lockInterruptibly();
+        try {
+            idleThreads.incrementAndGet();
+            try {
+                // an offer either sees this thread as idle and signals it, or published its split before this check
+                if (waitingSplits.get() == 0) {
+                    workAvailable.await(IDLE_WAIT_MILLIS, MILLISECONDS);
+                }
+            }
+            finally {
+                idleThreads.decrementAndGet();
+            }
+        }
+        finally {
+            idleLock.unlock();
+        }
+    }
+
+    private class LocalQueue
+    {
+        private final Thread owner;
+        private final ReentrantLock lock = new ReentrantLock();
+        @GuardedBy("lock")
+        private final List<PriorityQueue<PrioritizedSplitRunner>> levels = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+        private volatile int size;
+
+        private LocalQueue(Thread owner)
+        {
+            this.owner = owner;
+            for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
+                levels.add(new PriorityQueue<>());
+            }
+        }
+
+        private boolean isAbandoned()
+        {
+            return owner != null && !owner.isAlive();
+        }
+
+        private void offer(int level, PrioritizedSplitRunner split)
+        {
+            lock.lock();
+            try {
+                levels.get(level).offer(split);
+                size++;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        private PrioritizedSplitRunner poll()
+        {
+            if (size == 0) {
+                return null;
+            }
+            lock.lock();
+            try {
+                int level = selectLevel(index -> !levels.get(index).isEmpty());
+                if (level == -1) {
+                    return null;
+                }
+                PrioritizedSplitRunner split = levels.get(level).poll();
+                checkState(split != null, "poll cannot return null");
+                removed(level, 1);
+                return split;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean remove(PrioritizedSplitRunner split)
+        {
+            if (size == 0) {
+                return false;
+            }
+            lock.lock();
+            try {
+                for (int level = 0; level < levels.size(); level++) {
+                    if (levels.get(level).remove(split)) {
+                        removed(level, 1);
+                        return true;
+                    }
+                }
+                return false;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        private void removeAll(Collection<PrioritizedSplitRunner> splits)
+        {
+            if (size == 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                for (int level = 0; level < levels.size(); level++) {
+                    PriorityQueue<PrioritizedSplitRunner> queue = levels.get(level);
+                    int before = queue.size();
+                    queue.removeAll(splits);
+                    removed(level, before - queue.size());
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @GuardedBy("lock")
+        private void removed(int level, int count)
+        {
+            if (count == 0) {
+                return;
+            }
+            size -= count;
+            levelWaitingSplits.addAndGet(level, -count);
+            waitingSplits.addAndGet(-count);
+        }
+    }
+}
@@ -32,6 +32,8 @@ import io.prestosql.spi.metastore.HetuMetastore;
 import io.prestosql.spi.service.PropertyService;
 import io.prestosql.testing.NoOpIndexClient;
 import io.prestosql.testing.NoOpIndexWriter;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -54,6 +56,7 @@ public class HeuristicIndexerManager
     private HetuMetastore metastore;
     private IndexClient indexClient = new NoOpIndexClient();
     private IndexWriter indexWriter = new NoOpIndexWriter();
+    private final LocalIndexFileCacheStats localIndexFileCacheStats = new LocalIndexFileCacheStats();
 
     @Inject
     public HeuristicIndexerManager(FileSystemClientManager fileSystemClientManager, HetuMetaStoreManager hetuMetaStoreManager)
@@ -112,11 +115,58 @@ public class HeuristicIndexerManager
                         "Please check documentation for how to set it up.");
             }
             if (factory != null) {
-                indexClient = factory.getIndexClient(fs, metastore, root);
+                indexClient = factory.getIndexClient(createIndexReadFileSystemClient(), metastore, root);
             }
         }
     }
 
+    private HetuFileSystemClient createIndexReadFileSystemClient()
+            throws IOException
+    {
+        if (!PropertyService.containsProperty(HetuConstant.FILTER_CACHE_LOCAL_DIRECTORY)) {
+            return fs;
+        }
+        String localDirectory = PropertyService.getStringProperty(HetuConstant.FILTER_CACHE_LOCAL_DIRECTORY);
+        if (localDirectory.isEmpty()) {
+            return fs;
+        }
+
+        long maxDiskUsage = PropertyService.getLongProperty(HetuConstant.FILTER_CACHE_LOCAL_MAX_DISK_USAGE);
+        LocalIndexFileCache localCache = new LocalIndexFileCache(Paths.get(localDirectory), maxDiskUsage, localIndexFileCacheStats);
+        return new LocalIndexCachingFileSystemClient(fs, localCache);
+    }
+
+    @Managed
+    @Nested
+    public LocalIndexFileCacheStats getLocalIndexFileCacheStats()
+    {
+        return localIndexFileCacheStats;
+    }
+
+    @Managed
+    public long getIndexCacheHitCount()
+    {
+        return SplitFiltering.getIndexCacheStats().hitCount();
+    }
+
+    @Managed
+    public long getIndexCacheMissCount()
+    {
+        return SplitFiltering.getIndexCacheStats().missCount();
+    }
+
+    @Managed
+    public long getIndexCacheEvictionCount()
+    {
+        return SplitFiltering.getIndexCacheStats().evictionCount();
+    }
+
+    @Managed
+    public double getIndexCacheAverageLoadMillis()
+    {
+        return SplitFiltering.getIndexCacheStats().averageLoadPenalty() / 1_000_000.0;
+    }
+
     public void preloadIndex()
             throws IOException
     {
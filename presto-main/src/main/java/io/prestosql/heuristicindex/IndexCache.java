@@ -17,6 +17,7 @@ package io.prestosql.heuristicindex;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -71,6 +72,7 @@ public class IndexCache
             int numThreads = Math.min(Runtime.getRuntime().availableProcessors(), PropertyService.getLongProperty(HetuConstant.FILTER_CACHE_LOADING_THREADS).intValue());
             executor = Executors.newScheduledThreadPool(numThreads, threadFactory);
             CacheBuilder<IndexCacheKey, List<IndexMetadata>> cacheBuilder = CacheBuilder.newBuilder()
+                    .recordStats()
                     .removalListener(e -> {
                         try {
                             if (!((IndexCacheKey) e.getKey()).skipCloseIndex()) {
@@ -305,6 +307,14 @@ public class IndexCache
         return partitionIndexList;
     }
 
+    public CacheStats getStats()
+    {
+        if (cache == null) {
+            return new CacheStats(0, 0, 0, 0, 0, 0);
+        }
+        return cache.stats();
+    }
+
     @VisibleForTesting
     protected long getCacheSize()
     {
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Indexstore filesystem client that serves file reads from a {@link LocalIndexFileCache}.
+ * All other operations are delegated to the indexstore filesystem.
+ */
+public class LocalIndexCachingFileSystemClient
+        implements HetuFileSystemClient
+{
+    private final HetuFileSystemClient delegate;
+    private final LocalIndexFileCache cache;
+
+    public LocalIndexCachingFileSystemClient(HetuFileSystemClient delegate, LocalIndexFileCache cache)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.cache = requireNonNull(cache, "cache is null");
+    }
+
+    @Override
+    public InputStream newInputStream(Path path)
+            throws IOException
+    {
+        return cache.newInputStream(delegate, path);
+    }
+
+    @Override
+    public Path createDirectories(Path dir)
+            throws IOException
+    {
+        return delegate.createDirectories(dir);
+    }
+
+    @Override
+    public Path createDirectory(Path dir)
+            throws IOException
+    {
+        return delegate.createDirectory(dir);
+    }
+
+    @Override
+    public void delete(Path path)
+            throws IOException
+    {
+        delegate.delete(path);
+    }
+
+    @Override
+    public boolean deleteIfExists(Path path)
+            throws IOException
+    {
+        return delegate.deleteIfExists(path);
+    }
+
+    @Override
+    public boolean deleteRecursively(Path path)
+            throws IOException
+    {
+        return delegate.deleteRecursively(path);
+    }
+
+    @Override
+    public boolean exists(Path path)
+    {
+        return delegate.exists(path);
+    }
+
+    @Override
+    public void move(Path source, Path target)
+            throws IOException
+    {
+        delegate.move(source, target);
+    }
+
+    @Override
+    public OutputStream newOutputStream(Path path, OpenOption... options)
+            throws IOException
+    {
+        return delegate.newOutputStream(path, options);
+    }
+
+    @Override
+    public Object getAttribute(Path path, String attribute)
+            throws IOException
+    {
+        return delegate.getAttribute(path, attribute);
+    }
+
+    @Override
+    public boolean isDirectory(Path path)
+    {
+        return delegate.isDirectory(path);
+    }
+
+    @Override
+    public Stream<Path> list(Path dir)
+            throws IOException
+    {
+        return delegate.list(dir);
+    }
+
+    @Override
+    public Stream<Path> walk(Path dir)
+            throws IOException
+    {
+        return delegate.walk(dir);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+}
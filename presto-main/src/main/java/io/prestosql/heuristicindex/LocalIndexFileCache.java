@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.log.Logger;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.hash.Hashing.sha256;
+import static io.prestosql.spi.filesystem.SupportedFileAttributes.LAST_MODIFIED_TIME;
+import static io.prestosql.spi.filesystem.SupportedFileAttributes.SIZE;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Second level cache of index files on the local disk.
+ * <p>
+ * Index files read from the indexstore are copied into the local cache directory once and read back
+ * through memory mapped buffers afterwards, so that the index content is served from the page cache
+ * instead of the indexstore filesystem. The name of a cached file is derived from the remote path, its
+ * last modified time and its size, which makes the cache content valid across restarts and lets updated
+ * index files miss the cache. The least recently used files are removed once the configured disk usage
+ * is exceeded.
+ */
+@ThreadSafe
+public class LocalIndexFileCache
+{
+    private static final Logger LOG = Logger.get(LocalIndexFileCache.class);
+
+    @VisibleForTesting
+    static final String CACHE_FILE_SUFFIX = ".index";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Path cacheDirectory;
+    private final long maxBytes;
+    private final LocalIndexFileCacheStats stats;
+
+    // cached file name to file size, in access order
+    @GuardedBy("this")
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long currentBytes;
+
+    public LocalIndexFileCache(Path cacheDirectory, long maxBytes, LocalIndexFileCacheStats stats)
+            throws IOException
+    {
+        checkArgument(maxBytes >= 0, "maxBytes is negative");
+        this.cacheDirectory = requireNonNull(cacheDirectory, "cacheDirectory is null");
+        this.maxBytes = maxBytes;
+        this.stats = requireNonNull(stats, "stats is null");
+
+        Files.createDirectories(cacheDirectory);
+        loadExistingFiles();
+    }
+
+    /**
+     * Opens the given indexstore file, copying it into the local cache if it is not cached yet.
+     */
+    public InputStream newInputStream(HetuFileSystemClient fs, Path path)
+            throws IOException
+    {
+        long size = (Long) fs.getAttribute(path, SIZE);
+        long lastModifiedTime = (Long) fs.getAttribute(path, LAST_MODIFIED_TIME);
+        if (size > maxBytes || size > Integer.MAX_VALUE) {
+            // never fits into the cache or into a single mapped buffer
+            stats.recordMiss();
+            return fs.newInputStream(path);
+        }
+
+        String fileName = getCacheFileName(path, lastModifiedTime, size);
+        Path cacheFile = cacheDirectory.resolve(fileName);
+        if (isCached(fileName)) {
+            try {
+                InputStream inputStream = map(cacheFile);
+                stats.recordHit();
+                touch(cacheFile);
+                return inputStream;
+            }
+            catch (NoSuchFileException e) {
+                // removed from disk behind our back, load it again
+                remove(fileName, false);
+            }
+        }
+
+        stats.recordMiss();
+        long start = System.nanoTime();
+        Path tempFile = Files.createTempFile(cacheDirectory, fileName, TEMP_FILE_SUFFIX);
+        try {
+            try (InputStream inputStream = fs.newInputStream(path)) {
+                Files.copy(inputStream, tempFile, REPLACE_EXISTING);
+            }
+            Files.move(tempFile, cacheFile, ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(tempFile);
+        }
+        stats.recordLoad(System.nanoTime() - start);
+
+        // map before adding the file, mappings stay valid even if the file gets evicted right away
+        InputStream inputStream = map(cacheFile);
+        add(fileName, size);
+        return inputStream;
+    }
+
+    @VisibleForTesting
+    synchronized long getCurrentBytes()
+    {
+        return currentBytes;
+    }
+
+    private static InputStream map(Path file)
+            throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            MappedByteBuffer buffer = channel.map(READ_ONLY, 0, channel.size());
+            return Slices.wrappedBuffer(buffer).getInput();
+        }
+    }
+
+    private static void touch(Path file)
+    {
+        // the modification time keeps the access order across restarts
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+        catch (IOException e) {
+            LOG.debug(e, "Failed to update modification time of cached index file %s", file);
+        }
+    }
+
+    private static String getCacheFileName(Path path, long lastModifiedTime, long size)
+    {
+        String key = path.toString() + "@" + lastModifiedTime + "@" + size;
+        return sha256().hashString(key, UTF_8).toString() + CACHE_FILE_SUFFIX;
+    }
+
+    private synchronized boolean isCached(String fileName)
+    {
+        return files.get(fileName) != null;
+    }
+
+    private synchronized void add(String fileName, long size)
+    {
+        if (files.containsKey(fileName)) {
+            // loaded concurrently by another thread
+            return;
+        }
+        files.put(fileName, size);
+        currentBytes += size;
+        stats.recordAdded(size);
+        evict();
+    }
+
+    private synchronized void remove(String fileName, boolean evicted)
+    {
+        Long size = files.remove(fileName);
+        if (size == null) {
+            return;
+        }
+        currentBytes -= size;
+        stats.recordRemoved(size, evicted);
+        deleteQuietly(cacheDirectory.resolve(fileName));
+    }
+
+    @GuardedBy("this")
+    private void evict()
+    {
+        Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            currentBytes -= eldest.getValue();
+            stats.recordRemoved(eldest.getValue(), true);
+            deleteQuietly(cacheDirectory.resolve(eldest.getKey()));
+        }
+    }
+
+    private synchronized void loadExistingFiles()
+            throws IOException
+    {
+        List<Path> existingFiles;
+        try (Stream<Path> stream = Files.list(cacheDirectory)) {
+            existingFiles = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        existingFiles.stream()
+                .filter(file -> !file.getFileName().toString().endsWith(CACHE_FILE_SUFFIX))
+                .forEach(LocalIndexFileCache::deleteQuietly);
+        existingFiles.stream()
+                .filter(file -> file.getFileName().toString().endsWith(CACHE_FILE_SUFFIX))
+                .sorted(Comparator.comparing(LocalIndexFileCache::getLastModifiedTime))
+                .forEach(file -> {
+                    long size = file.toFile().length();
+                    files.put(file.getFileName().toString(), size);
+                    currentBytes += size;
+                    stats.recordAdded(size);
+                });
+        evict();
+        LOG.info("Loaded %s cached index files (%s bytes) from %s", files.size(), currentBytes, cacheDirectory);
+    }
+
+    private static FileTime getLastModifiedTime(Path file)
+    {
+        try {
+            return Files.getLastModifiedTime(file);
+        }
+        catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            LOG.debug(e, "Failed to delete cached index file %s", file);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+public class LocalIndexFileCacheStats
+{
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat evictions = new CounterStat();
+    private final TimeStat loadTime = new TimeStat(MILLISECONDS);
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final AtomicLong cachedFiles = new AtomicLong();
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictions()
+    {
+        return evictions;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getLoadTime()
+    {
+        return loadTime;
+    }
+
+    @Managed
+    public long getCachedBytes()
+    {
+        return cachedBytes.get();
+    }
+
+    @Managed
+    public long getCachedFiles()
+    {
+        return cachedFiles.get();
+    }
+
+    void recordHit()
+    {
+        hits.update(1);
+    }
+
+    void recordMiss()
+    {
+        misses.update(1);
+    }
+
+    void recordLoad(long nanos)
+    {
+        loadTime.add(nanos, NANOSECONDS);
+    }
+
+    void recordAdded(long bytes)
+    {
+        cachedBytes.addAndGet(bytes);
+        cachedFiles.incrementAndGet();
+    }
+
+    void recordRemoved(long bytes, boolean evicted)
+    {
+        cachedBytes.addAndGet(-bytes);
+        cachedFiles.decrementAndGet();
+        if (evicted) {
+            evictions.update(1);
+        }
+    }
+}
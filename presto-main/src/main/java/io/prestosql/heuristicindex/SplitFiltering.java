@@ -15,6 +15,7 @@
 package io.prestosql.heuristicindex;
 
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import io.airlift.log.Logger;
@@ -96,6 +97,15 @@ public class SplitFiltering
         }
     }
 
+    public static CacheStats getIndexCacheStats()
+    {
+        IndexCache cache = indexCache;
+        if (cache == null) {
+            return new CacheStats(0, 0, 0, 0, 0, 0);
+        }
+        return cache.getStats();
+    }
+
     public static void preloadCache(IndexClient indexClient, List<String> preloadIndexNames)
             throws IOException
     {
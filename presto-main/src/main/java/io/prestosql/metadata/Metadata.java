@@ -466,6 +466,14 @@ public interface Metadata
         return null;
     }
 
+    /**
+     * Returns the modification time of every partition of a table, or empty if the connector does not support it.
+     */
+    default Optional<Map<String, Long>> getPartitionModificationTimes(Session session, TableHandle tableHandle)
+    {
+        return Optional.empty();
+    }
+
     FunctionAndTypeManager getFunctionAndTypeManager();
 
     ProcedureRegistry getProcedureRegistry();
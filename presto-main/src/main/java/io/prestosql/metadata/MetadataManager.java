@@ -96,6 +96,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -1414,6 +1415,33 @@ public final class MetadataManager
         return () -> modificationTime;
     }
 
+    @Override
+    public Optional<Map<String, Long>> getPartitionModificationTimes(Session session, TableHandle tableHandle)
+    {
+        CatalogName catalogName = tableHandle.getCatalogName();
+        ConnectorMetadata connectorMetadata = getMetadata(session, catalogName);
+        // Listing the partitions may take a file system call per partition, and both the planner and the result
+        // cache ask for them, so they are listed once per query. The query is registered by getMetadata().
+        QueryCatalogs queryCatalogs = catalogsByQueryId.get(session.getQueryId());
+        if (queryCatalogs == null) {
+            return loadPartitionModificationTimes(session, catalogName, connectorMetadata, tableHandle);
+        }
+        return queryCatalogs.getPartitionModificationTimes(tableHandle, () -> loadPartitionModificationTimes(session, catalogName, connectorMetadata, tableHandle));
+    }
+
+    private static Optional<Map<String, Long>> loadPartitionModificationTimes(Session session, CatalogName catalogName, ConnectorMetadata connectorMetadata, TableHandle tableHandle)
+    {
+        try {
+            return Optional.of(connectorMetadata.getPartitionModificationTimes(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle()));
+        }
+        catch (PrestoException e) {
+            if (e.getErrorCode().equals(NOT_SUPPORTED.toErrorCode())) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
     public List<SqlFunction> listFunctions(Optional<Session> session)
     {
         // TODO: transactional when FunctionManager is made transactional
@@ -1535,6 +1563,7 @@ public final class MetadataManager
         private final Map<CatalogName, CatalogMetadata> catalogs = new HashMap<>();
         @GuardedBy("this")
         private boolean finished;
+        private final Map<TableHandle, Optional<Map<String, Long>>> partitionModificationTimes = new ConcurrentHashMap<>();
 
         public QueryCatalogs(Session session)
         {
@@ -1550,6 +1579,17 @@ public final class MetadataManager
             }
         }
 
+        private Optional<Map<String, Long>> getPartitionModificationTimes(TableHandle tableHandle, Supplier<Optional<Map<String, Long>>> loader)
+        {
+            Optional<Map<String, Long>> modificationTimes = partitionModificationTimes.get(tableHandle);
+            if (modificationTimes == null) {
+                // loaded outside of the map, concurrent loads of a table return the same result
+                modificationTimes = loader.get();
+                partitionModificationTimes.putIfAbsent(tableHandle, modificationTimes);
+            }
+            return modificationTimes;
+        }
+
         private synchronized void finish()
         {
             List<CatalogMetadata> catalogs;
@@ -366,6 +366,9 @@ public final class SessionPropertyManager
             PropertyService.setProperty(HetuConstant.INDEXSTORE_URI, hetuConfig.getIndexStoreUri());
             PropertyService.setProperty(HetuConstant.INDEXSTORE_FILESYSTEM_PROFILE, hetuConfig.getIndexStoreFileSystemProfile());
             PropertyService.setProperty(HetuConstant.FILTER_CACHE_PRELOAD_INDICES, hetuConfig.getIndexToPreload());
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOCAL_DIRECTORY, hetuConfig.getIndexCacheLocalDirectory());
+            // set the max local disk usage in bytes
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOCAL_MAX_DISK_USAGE, hetuConfig.getIndexCacheLocalMaxDiskUsage().toBytes());
         }
     }
 
@@ -152,6 +152,7 @@ public class CubeFinishOperator
             builder.withPredicate(ExpressionFormatter.formatExpression(updatable, Optional.empty()));
         }
         builder.setTableLastUpdatedTime(updateMetadata.getTableLastUpdatedTime());
+        builder.setSourcePartitionsLastUpdatedTime(updateMetadata.getPartitionsLastUpdatedTime());
         builder.setCubeLastUpdatedTime(System.currentTimeMillis());
         builder.setCubeStatus(READY);
         cubeMetastore.persist(builder.build());
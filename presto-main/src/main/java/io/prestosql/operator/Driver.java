@@ -666,6 +666,10 @@ public class Driver
         if (!blocked.isDone()) {
             return Optional.of(blocked);
         }
+        blocked = operator.getOperatorContext().isWaitingForSnapshotUpload();
+        if (!blocked.isDone()) {
+            return Optional.of(blocked);
+        }
         return Optional.empty();
     }
 
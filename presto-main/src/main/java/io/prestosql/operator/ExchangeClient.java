@@ -43,6 +43,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -109,6 +110,7 @@ public class ExchangeClient
 
     private final LocalMemoryContext systemMemoryContext;
     private final Executor pageBufferClientCallbackExecutor;
+    private final Optional<MultiplexedPageTransport> multiplexedTransport;
 
     // Only set for MergeOperator, to capture marker pages
     private MultiInputSnapshotState snapshotState;
@@ -125,6 +127,21 @@ public class ExchangeClient
             ScheduledExecutorService scheduler,
             LocalMemoryContext systemMemoryContext,
             Executor pageBufferClientCallbackExecutor)
+    {
+        this(bufferCapacity, maxResponseSize, concurrentRequestMultiplier, maxErrorDuration, acknowledgePages, httpClient, scheduler, systemMemoryContext, pageBufferClientCallbackExecutor, Optional.empty());
+    }
+
+    public ExchangeClient(
+            DataSize bufferCapacity,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            HttpClient httpClient,
+            ScheduledExecutorService scheduler,
+            LocalMemoryContext systemMemoryContext,
+            Executor pageBufferClientCallbackExecutor,
+            Optional<MultiplexedPageTransport> multiplexedTransport)
     {
         this.bufferCapacity = bufferCapacity.toBytes();
         this.maxResponseSize = maxResponseSize;
@@ -136,6 +153,7 @@ public class ExchangeClient
         this.systemMemoryContext = systemMemoryContext;
         this.maxBufferRetainedSizeInBytes = Long.MIN_VALUE;
         this.pageBufferClientCallbackExecutor = requireNonNull(pageBufferClientCallbackExecutor, "pageBufferClientCallbackExecutor is null");
+        this.multiplexedTransport = requireNonNull(multiplexedTransport, "multiplexedTransport is null");
     }
 
     Set<String> getAllClients()
@@ -232,7 +250,8 @@ public class ExchangeClient
                 locationUri,
                 new ExchangeClientCallback(location),
                 scheduler,
-                pageBufferClientCallbackExecutor);
+                pageBufferClientCallbackExecutor,
+                multiplexedTransport);
         allClients.put(location, client);
         queuedClients.add(client);
 
@@ -36,6 +36,22 @@ public class ExchangeClientConfig
     private int clientThreads = 25;
     private int pageBufferClientMaxCallbackThreads = 25;
     private boolean acknowledgePages = true;
+    private TransportType transportType = TransportType.HTTP;
+    private int multiplexedMaxBuffersPerRequest = 64;
+    private int multiplexedMaxRequestsPerNode = 4;
+    private Duration multiplexedMaxWait = new Duration(200, TimeUnit.MILLISECONDS);
+
+    public enum TransportType
+    {
+        /**
+         * One HTTP request per read of each remote output buffer
+         */
+        HTTP,
+        /**
+         * Reads of all output buffers on the same remote node share one long polling request
+         */
+        MULTIPLEXED,
+    }
 
     @NotNull
     public DataSize getMaxBufferSize()
@@ -141,4 +157,57 @@ public class ExchangeClientConfig
         this.acknowledgePages = acknowledgePages;
         return this;
     }
+
+    @NotNull
+    public TransportType getTransportType()
+    {
+        return transportType;
+    }
+
+    @Config("exchange.transport-type")
+    public ExchangeClientConfig setTransportType(TransportType transportType)
+    {
+        this.transportType = transportType;
+        return this;
+    }
+
+    @Min(1)
+    public int getMultiplexedMaxBuffersPerRequest()
+    {
+        return multiplexedMaxBuffersPerRequest;
+    }
+
+    @Config("exchange.multiplexed.max-buffers-per-request")
+    public ExchangeClientConfig setMultiplexedMaxBuffersPerRequest(int multiplexedMaxBuffersPerRequest)
+    {
+        this.multiplexedMaxBuffersPerRequest = multiplexedMaxBuffersPerRequest;
+        return this;
+    }
+
+    @Min(1)
+    public int getMultiplexedMaxRequestsPerNode()
+    {
+        return multiplexedMaxRequestsPerNode;
+    }
+
+    @Config("exchange.multiplexed.max-requests-per-node")
+    public ExchangeClientConfig setMultiplexedMaxRequestsPerNode(int multiplexedMaxRequestsPerNode)
+    {
+        this.multiplexedMaxRequestsPerNode = multiplexedMaxRequestsPerNode;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1ms")
+    public Duration getMultiplexedMaxWait()
+    {
+        return multiplexedMaxWait;
+    }
+
+    @Config("exchange.multiplexed.max-wait")
+    public ExchangeClientConfig setMultiplexedMaxWait(Duration multiplexedMaxWait)
+    {
+        this.multiplexedMaxWait = multiplexedMaxWait;
+        return this;
+    }
 }
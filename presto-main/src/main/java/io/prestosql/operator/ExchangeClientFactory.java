@@ -18,12 +18,14 @@ import io.airlift.http.client.HttpClient;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.ExchangeClientConfig.TransportType;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -33,6 +35,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class ExchangeClientFactory
         implements ExchangeClientSupplier
@@ -46,6 +49,7 @@ public class ExchangeClientFactory
     private final ScheduledExecutorService scheduler;
     private final ThreadPoolExecutorMBean executorMBean;
     private final ExecutorService pageBufferClientCallbackExecutor;
+    private final Optional<MultiplexedPageTransport> multiplexedTransport;
 
     @Inject
     public ExchangeClientFactory(
@@ -60,6 +64,10 @@ public class ExchangeClientFactory
                 config.getMaxErrorDuration(),
                 config.isAcknowledgePages(),
                 config.getPageBufferClientMaxCallbackThreads(),
+                config.getTransportType(),
+                config.getMultiplexedMaxBuffersPerRequest(),
+                config.getMultiplexedMaxRequestsPerNode(),
+                config.getMultiplexedMaxWait(),
                 httpClient,
                 scheduler);
     }
@@ -73,6 +81,35 @@ public class ExchangeClientFactory
             int pageBufferClientMaxCallbackThreads,
             HttpClient httpClient,
             ScheduledExecutorService scheduler)
+    {
+        this(
+                maxBufferedBytes,
+                maxResponseSize,
+                concurrentRequestMultiplier,
+                maxErrorDuration,
+                acknowledgePages,
+                pageBufferClientMaxCallbackThreads,
+                TransportType.HTTP,
+                1,
+                1,
+                new Duration(0, MILLISECONDS),
+                httpClient,
+                scheduler);
+    }
+
+    public ExchangeClientFactory(
+            DataSize maxBufferedBytes,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            int pageBufferClientMaxCallbackThreads,
+            TransportType transportType,
+            int multiplexedMaxBuffersPerRequest,
+            int multiplexedMaxRequestsPerNode,
+            Duration multiplexedMaxWait,
+            HttpClient httpClient,
+            ScheduledExecutorService scheduler)
     {
         this.maxBufferedBytes = requireNonNull(maxBufferedBytes, "maxBufferedBytes is null");
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
@@ -91,6 +128,15 @@ public class ExchangeClientFactory
         this.pageBufferClientCallbackExecutor = newFixedThreadPool(pageBufferClientMaxCallbackThreads, daemonThreadsNamed("page-buffer-client-callback-%s"));
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) pageBufferClientCallbackExecutor);
 
+        requireNonNull(transportType, "transportType is null");
+        if (transportType == TransportType.MULTIPLEXED) {
+            // all exchange clients on this node share the multiplexed requests to each remote node
+            this.multiplexedTransport = Optional.of(new MultiplexedPageTransport(httpClient, this.maxResponseSize, multiplexedMaxBuffersPerRequest, multiplexedMaxRequestsPerNode, multiplexedMaxWait));
+        }
+        else {
+            this.multiplexedTransport = Optional.empty();
+        }
+
         checkArgument(maxBufferedBytes.toBytes() > 0, "maxBufferSize must be at least 1 byte: %s", maxBufferedBytes);
         checkArgument(maxResponseSize.toBytes() > 0, "maxResponseSize must be at least 1 byte: %s", maxResponseSize);
         checkArgument(concurrentRequestMultiplier > 0, "concurrentRequestMultiplier must be at least 1: %s", concurrentRequestMultiplier);
@@ -121,6 +167,7 @@ public class ExchangeClientFactory
                 httpClient,
                 scheduler,
                 systemMemoryContext,
-                pageBufferClientCallbackExecutor);
+                pageBufferClientCallbackExecutor,
+                multiplexedTransport);
     }
 }
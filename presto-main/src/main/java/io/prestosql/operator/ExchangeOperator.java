@@ -28,15 +28,19 @@ import io.prestosql.split.RemoteSplit;
 
 import java.io.Closeable;
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.execution.buffer.PageSplitterUtil.splitPage;
+import static io.prestosql.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static java.util.Objects.requireNonNull;
 
-@RestorableConfig(uncapturedFields = {"sourceId", "exchangeClient", "snapshotState", "noMoreSplits", "inputChannels"})
+@RestorableConfig(uncapturedFields = {"sourceId", "exchangeClient", "snapshotState", "noMoreSplits", "inputChannels", "pendingPages"})
 public class ExchangeOperator
         implements SourceOperator, MultiInputRestorable, Closeable
 {
@@ -107,6 +111,8 @@ public class ExchangeOperator
     private final MultiInputSnapshotState snapshotState;
     private boolean noMoreSplits;
     private Optional<Set<String>> inputChannels = Optional.empty();
+    // remaining parts of a received page that was split, see getOutput()
+    private final Deque<Page> pendingPages = new ArrayDeque<>();
 
     public ExchangeOperator(
             String id,
@@ -175,12 +181,15 @@ public class ExchangeOperator
             return false;
         }
 
-        return exchangeClient.isFinished();
+        return pendingPages.isEmpty() && exchangeClient.isFinished();
     }
 
     @Override
     public ListenableFuture<?> isBlocked()
     {
+        if (!pendingPages.isEmpty()) {
+            return NOT_BLOCKED;
+        }
         ListenableFuture<?> blocked = exchangeClient.isBlocked();
         if (blocked.isDone()) {
             return NOT_BLOCKED;
@@ -191,6 +200,10 @@ public class ExchangeOperator
     @Override
     public Page getOutput()
     {
+        if (!pendingPages.isEmpty()) {
+            return pendingPages.poll();
+        }
+
         SerializedPage page;
         if (snapshotState != null) {
             page = snapshotState.processSerializedPage(() -> exchangeClient.pollPage(id)).orElse(null);
@@ -207,6 +220,12 @@ public class ExchangeOperator
         Page deserializedPage = operatorContext.getDriverContext().getSerde().deserialize(page);
         operatorContext.recordProcessedInput(deserializedPage.getSizeInBytes(), page.getPositionCount());
 
+        if (snapshotState == null && deserializedPage.getSizeInBytes() > DEFAULT_MAX_PAGE_SIZE_IN_BYTES) {
+            // Producers coalescing their pages may send pages larger than operators expect. Split them back.
+            // With snapshot enabled, pages are kept whole, so the operator holds no pages when its state is captured.
+            pendingPages.addAll(splitPage(deserializedPage, DEFAULT_MAX_PAGE_SIZE_IN_BYTES));
+            return pendingPages.poll();
+        }
         return deserializedPage;
     }
 
@@ -0,0 +1,630 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import io.prestosql.operator.scalar.CombineHashFunction;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.optimizations.HashGenerationOptimizer;
+import io.prestosql.type.TypeUtils;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash for one or two keys of fixed width integer types, such as GROUP BY (date, customer_id).
+ * <p>
+ * Keys are read as longs and stored in flat primitive arrays, instead of being copied into block builders
+ * and compared through a generated {@link PagesHashStrategy} like {@link MultiChannelGroupByHash} does.
+ * When all keys fit into 32 bits, they are packed into a single long, otherwise each key takes a long,
+ * so a group key takes 64 or 128 bits, plus a byte of null flags.
+ */
+@RestorableConfig(uncapturedFields = {"hashTypes", "types", "channels", "updateMemory"})
+public class FixedWidthGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FixedWidthGroupByHash.class).instanceSize();
+
+    private static final float FILL_RATIO = 0.75f;
+    private static final int MAX_CHANNELS = 2;
+    private static final List<Type> WIDE_TYPES = ImmutableList.of(BIGINT);
+    private static final List<Type> NARROW_TYPES = ImmutableList.of(INTEGER, DATE, SMALLINT, TINYINT);
+
+    private final List<Type> hashTypes;
+    private final List<Type> types;
+    private final int[] channels;
+    private final boolean outputRawHash;
+    // number of longs per key, 1 when the keys are packed
+    private final int keyWidth;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    // the hash table from keys to groupIds
+    private long[] keysByHash;
+    private byte[] nullFlagsByHash;
+    private int[] groupIdsByHash;
+
+    // reverse index from the groupId back to the key
+    private long[] keysByGroupId;
+    private byte[] nullFlagsByGroupId;
+    private long[] rawHashByGroupId;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public static boolean isSupported(List<? extends Type> hashTypes)
+    {
+        if (hashTypes.isEmpty() || hashTypes.size() > MAX_CHANNELS) {
+            return false;
+        }
+        for (Type type : hashTypes) {
+            if (!WIDE_TYPES.contains(type) && !NARROW_TYPES.contains(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the keys of the supported types can be packed into a single long
+     */
+    public static boolean fitsInLong(List<? extends Type> hashTypes)
+    {
+        return hashTypes.size() == 1 || hashTypes.stream().allMatch(NARROW_TYPES::contains);
+    }
+
+    public FixedWidthGroupByHash(List<? extends Type> hashTypes, int[] hashChannels, boolean outputRawHash, int expectedSize, UpdateMemory updateMemory)
+    {
+        requireNonNull(hashTypes, "hashTypes is null");
+        requireNonNull(hashChannels, "hashChannels is null");
+        checkArgument(isSupported(hashTypes), "Unsupported key types: %s", hashTypes);
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.hashTypes = ImmutableList.copyOf(hashTypes);
+        this.types = outputRawHash ? ImmutableList.<Type>builder().addAll(hashTypes).add(BIGINT).build() : this.hashTypes;
+        this.channels = hashChannels.clone();
+        this.outputRawHash = outputRawHash;
+        this.keyWidth = fitsInLong(hashTypes) ? 1 : hashTypes.size();
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        keysByHash = new long[hashCapacity * keyWidth];
+        nullFlagsByHash = new byte[hashCapacity];
+        groupIdsByHash = new int[hashCapacity];
+        Arrays.fill(groupIdsByHash, -1);
+
+        keysByGroupId = new long[maxFill * keyWidth];
+        nullFlagsByGroupId = new byte[maxFill];
+        rawHashByGroupId = new long[maxFill];
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                sizeOf(keysByHash) +
+                sizeOf(nullFlagsByHash) +
+                sizeOf(groupIdsByHash) +
+                sizeOf(keysByGroupId) +
+                sizeOf(nullFlagsByGroupId) +
+                sizeOf(rawHashByGroupId) +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        byte nullFlags = nullFlagsByGroupId[groupId];
+        for (int channel = 0; channel < hashTypes.size(); channel++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + channel);
+            if ((nullFlags & (1 << channel)) != 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                hashTypes.get(channel).writeLong(blockBuilder, getKey(groupId, channel));
+            }
+        }
+
+        if (outputRawHash) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + hashTypes.size()), rawHashByGroupId[groupId]);
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new AddPageWork(getKeyBlocks(page, channels));
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new GetGroupIdsWork(getKeyBlocks(page, channels));
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        Block[] blocks = getKeyBlocks(page, hashChannels);
+        byte nullFlags = getNullFlags(blocks, position);
+        long first = getFirstKey(blocks, position, nullFlags);
+        long second = getSecondKey(blocks, position, nullFlags);
+        return groupIdsByHash[findSlot(first, second, nullFlags)] != -1;
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return rawHashByGroupId[groupId];
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private Block[] getKeyBlocks(Page page, int[] keyChannels)
+    {
+        Block[] blocks = new Block[keyChannels.length];
+        for (int i = 0; i < keyChannels.length; i++) {
+            blocks[i] = page.getBlock(keyChannels[i]);
+        }
+        return blocks;
+    }
+
+    private int putIfAbsent(Block[] blocks, int position)
+    {
+        byte nullFlags = getNullFlags(blocks, position);
+        long first = getFirstKey(blocks, position, nullFlags);
+        long second = getSecondKey(blocks, position, nullFlags);
+
+        int hashPosition = findSlot(first, second, nullFlags);
+        int groupId = groupIdsByHash[hashPosition];
+        if (groupId != -1) {
+            return groupId;
+        }
+        return addNewGroup(hashPosition, first, second, nullFlags, blocks, position);
+    }
+
+    /**
+     * Returns the slot holding the key, or the empty slot where it would be inserted
+     */
+    private int findSlot(long first, long second, byte nullFlags)
+    {
+        int hashPosition = getHashPosition(first, second, nullFlags, mask);
+        while (groupIdsByHash[hashPosition] != -1) {
+            if (keyEquals(hashPosition, first, second, nullFlags)) {
+                break;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+        return hashPosition;
+    }
+
+    private boolean keyEquals(int hashPosition, long first, long second, byte nullFlags)
+    {
+        if (nullFlagsByHash[hashPosition] != nullFlags) {
+            return false;
+        }
+        if (keyWidth == 1) {
+            return keysByHash[hashPosition] == first;
+        }
+        int index = hashPosition * 2;
+        return keysByHash[index] == first && keysByHash[index + 1] == second;
+    }
+
+    private int addNewGroup(int hashPosition, long first, long second, byte nullFlags, Block[] blocks, int position)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+
+        setKey(keysByHash, hashPosition, first, second);
+        nullFlagsByHash[hashPosition] = nullFlags;
+        groupIdsByHash[hashPosition] = groupId;
+
+        setKey(keysByGroupId, groupId, first, second);
+        nullFlagsByGroupId[groupId] = nullFlags;
+        rawHashByGroupId[groupId] = hashRow(blocks, position);
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private byte getNullFlags(Block[] blocks, int position)
+    {
+        byte nullFlags = 0;
+        for (int channel = 0; channel < blocks.length; channel++) {
+            if (blocks[channel].isNull(position)) {
+                nullFlags |= 1 << channel;
+            }
+        }
+        return nullFlags;
+    }
+
+    private long getFirstKey(Block[] blocks, int position, byte nullFlags)
+    {
+        long first = getValue(blocks, position, nullFlags, 0);
+        if (keyWidth == 1 && blocks.length == 2) {
+            // both keys fit into 32 bits
+            return (first << 32) | (getValue(blocks, position, nullFlags, 1) & 0xFFFF_FFFFL);
+        }
+        return first;
+    }
+
+    private long getSecondKey(Block[] blocks, int position, byte nullFlags)
+    {
+        if (keyWidth == 1) {
+            return 0;
+        }
+        return getValue(blocks, position, nullFlags, 1);
+    }
+
+    private long getValue(Block[] blocks, int position, byte nullFlags, int channel)
+    {
+        if ((nullFlags & (1 << channel)) != 0) {
+            return 0;
+        }
+        return hashTypes.get(channel).getLong(blocks[channel], position);
+    }
+
+    private long getKey(int groupId, int channel)
+    {
+        if (keyWidth == 2) {
+            return keysByGroupId[groupId * 2 + channel];
+        }
+        long key = keysByGroupId[groupId];
+        if (hashTypes.size() == 1) {
+            return key;
+        }
+        // unpack the sign extended 32 bit keys
+        return channel == 0 ? key >> 32 : (int) key;
+    }
+
+    private void setKey(long[] keys, int index, long first, long second)
+    {
+        if (keyWidth == 1) {
+            keys[index] = first;
+        }
+        else {
+            keys[index * 2] = first;
+            keys[index * 2 + 1] = second;
+        }
+    }
+
+    /**
+     * Same hash as {@link InterpretedHashGenerator} and the hash channel added by {@link HashGenerationOptimizer}
+     */
+    private long hashRow(Block[] blocks, int position)
+    {
+        long result = HashGenerationOptimizer.INITIAL_HASH_VALUE;
+        for (int channel = 0; channel < blocks.length; channel++) {
+            result = CombineHashFunction.getHash(result, TypeUtils.hashPosition(hashTypes.get(channel), blocks[channel], position));
+        }
+        return result;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+        int newMaxFill = calculateMaxFill(newCapacity);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for the hash table and the arrays by group id, as well as the size of the current page
+        preallocatedMemoryInBytes = (newCapacity - hashCapacity) * (long) (keyWidth * Long.BYTES + Byte.BYTES + Integer.BYTES) +
+                (newMaxFill - maxFill) * (long) ((keyWidth + 1) * Long.BYTES + Byte.BYTES) +
+                currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        long[] newKeys = new long[newCapacity * keyWidth];
+        byte[] newNullFlags = new byte[newCapacity];
+        int[] newGroupIds = new int[newCapacity];
+        Arrays.fill(newGroupIds, -1);
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            long first = keysByGroupId[groupId * keyWidth];
+            long second = keyWidth == 1 ? 0 : keysByGroupId[groupId * 2 + 1];
+            byte nullFlags = nullFlagsByGroupId[groupId];
+
+            // find an empty slot for the key
+            int hashPosition = getHashPosition(first, second, nullFlags, newMask);
+            while (newGroupIds[hashPosition] != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+
+            // record the mapping
+            if (keyWidth == 1) {
+                newKeys[hashPosition] = first;
+            }
+            else {
+                newKeys[hashPosition * 2] = first;
+                newKeys[hashPosition * 2 + 1] = second;
+            }
+            newNullFlags[hashPosition] = nullFlags;
+            newGroupIds[hashPosition] = groupId;
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = newMaxFill;
+        keysByHash = newKeys;
+        nullFlagsByHash = newNullFlags;
+        groupIdsByHash = newGroupIds;
+
+        keysByGroupId = Arrays.copyOf(keysByGroupId, maxFill * keyWidth);
+        nullFlagsByGroupId = Arrays.copyOf(nullFlagsByGroupId, maxFill);
+        rawHashByGroupId = Arrays.copyOf(rawHashByGroupId, maxFill);
+        return true;
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private static int getHashPosition(long first, long second, byte nullFlags, int mask)
+    {
+        return (int) (murmurHash3(murmurHash3(first ^ nullFlags) + second) & mask);
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Block[] blocks;
+
+        private int lastPosition;
+
+        public AddPageWork(Block[] blocks)
+        {
+            this.blocks = requireNonNull(blocks, "blocks is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = blocks[0].getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // get the group for the current row
+                putIfAbsent(blocks, lastPosition);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Block[] blocks;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Block[] blocks)
+        {
+            this.blocks = requireNonNull(blocks, "blocks is null");
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(blocks[0].getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = blocks[0].getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // output the group id for this row
+                BIGINT.writeLong(blockBuilder, putIfAbsent(blocks, lastPosition));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == blocks[0].getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+
+    @Override
+    public Object capture(BlockEncodingSerdeProvider serdeProvider)
+    {
+        FixedWidthGroupByHashState myState = new FixedWidthGroupByHashState();
+        myState.hashCapacity = hashCapacity;
+        myState.maxFill = maxFill;
+        myState.mask = mask;
+        myState.keysByHash = keysByHash.clone();
+        myState.nullFlagsByHash = nullFlagsByHash.clone();
+        myState.groupIdsByHash = groupIdsByHash.clone();
+        myState.keysByGroupId = keysByGroupId.clone();
+        myState.nullFlagsByGroupId = nullFlagsByGroupId.clone();
+        myState.rawHashByGroupId = rawHashByGroupId.clone();
+        myState.nextGroupId = nextGroupId;
+        myState.hashCollisions = hashCollisions;
+        myState.expectedHashCollisions = expectedHashCollisions;
+        myState.preallocatedMemoryInBytes = preallocatedMemoryInBytes;
+        myState.currentPageSizeInBytes = currentPageSizeInBytes;
+        return myState;
+    }
+
+    @Override
+    public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
+    {
+        FixedWidthGroupByHashState myState = (FixedWidthGroupByHashState) state;
+        this.hashCapacity = myState.hashCapacity;
+        this.maxFill = myState.maxFill;
+        this.mask = myState.mask;
+        this.keysByHash = myState.keysByHash.clone();
+        this.nullFlagsByHash = myState.nullFlagsByHash.clone();
+        this.groupIdsByHash = myState.groupIdsByHash.clone();
+        this.keysByGroupId = myState.keysByGroupId.clone();
+        this.nullFlagsByGroupId = myState.nullFlagsByGroupId.clone();
+        this.rawHashByGroupId = myState.rawHashByGroupId.clone();
+        this.nextGroupId = myState.nextGroupId;
+        this.hashCollisions = myState.hashCollisions;
+        this.expectedHashCollisions = myState.expectedHashCollisions;
+        this.preallocatedMemoryInBytes = myState.preallocatedMemoryInBytes;
+        this.currentPageSizeInBytes = myState.currentPageSizeInBytes;
+    }
+
+    private static class FixedWidthGroupByHashState
+            implements Serializable
+    {
+        private int hashCapacity;
+        private int maxFill;
+        private int mask;
+
+        private long[] keysByHash;
+        private byte[] nullFlagsByHash;
+        private int[] groupIdsByHash;
+
+        private long[] keysByGroupId;
+        private byte[] nullFlagsByGroupId;
+        private long[] rawHashByGroupId;
+
+        private int nextGroupId;
+        private long hashCollisions;
+        private double expectedHashCollisions;
+
+        private long preallocatedMemoryInBytes;
+        private long currentPageSizeInBytes;
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.Type;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.operator.SyntheticAddress.decodePosition;
+import static io.prestosql.operator.SyntheticAddress.decodeSliceIndex;
+import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Join hash for one or two join keys of the fixed width types supported by {@link FixedWidthGroupByHash}.
+ * <p>
+ * The key values are stored inline in the hash table, next to the address index of the first build row with
+ * that key, so resolving a probe row compares longs in flat arrays instead of build side blocks through
+ * {@link PagesHashStrategy}. The hash is computed from the key values, so the raw hash of the probe rows
+ * is not needed. Keys are packed the same way as in {@link FixedWidthGroupByHash}.
+ */
+// This implementation assumes arrays used in the hash are always a power of 2
+public final class FixedWidthPagesHash
+        implements JoinPagesHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FixedWidthPagesHash.class).instanceSize();
+    private final LongArrayList addresses;
+    private final PagesHashStrategy pagesHashStrategy;
+    private final List<Type> keyTypes;
+
+    private final int channelCount;
+    // number of longs per key, 1 when the keys are packed
+    private final int keyWidth;
+    private final int mask;
+    // address index of the first build row of each slot, -1 for empty slots
+    private final int[] key;
+    // key values of each slot, keyWidth longs per slot
+    private final long[] keyValues;
+    private final long size;
+
+    private final long hashCollisions;
+    private final double expectedHashCollisions;
+
+    public static boolean isSupported(List<? extends Type> keyTypes)
+    {
+        return FixedWidthGroupByHash.isSupported(keyTypes);
+    }
+
+    public FixedWidthPagesHash(
+            LongArrayList addresses,
+            PagesHashStrategy pagesHashStrategy,
+            PositionLinks.FactoryBuilder positionLinks,
+            List<Type> keyTypes,
+            List<List<Block>> keyChannels)
+    {
+        this.addresses = requireNonNull(addresses, "addresses is null");
+        this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
+        this.keyTypes = ImmutableList.copyOf(requireNonNull(keyTypes, "keyTypes is null"));
+        requireNonNull(keyChannels, "keyChannels is null");
+        checkArgument(isSupported(keyTypes), "Unsupported key types: %s", keyTypes);
+        checkArgument(keyTypes.size() == keyChannels.size(), "keyTypes and keyChannels have different sizes");
+        this.channelCount = pagesHashStrategy.getChannelCount();
+        this.keyWidth = FixedWidthGroupByHash.fitsInLong(keyTypes) ? 1 : keyTypes.size();
+
+        // reserve memory for the arrays
+        int hashSize = HashCommon.arraySize(addresses.size(), 0.75f);
+
+        mask = hashSize - 1;
+        key = new int[hashSize];
+        Arrays.fill(key, -1);
+        keyValues = new long[hashSize * keyWidth];
+
+        Block[] blocks = new Block[keyTypes.size()];
+        long hashCollisionsLocal = 0;
+        for (int position = 0; position < addresses.size(); position++) {
+            long pageAddress = addresses.getLong(position);
+            int blockIndex = decodeSliceIndex(pageAddress);
+            int blockPosition = decodePosition(pageAddress);
+            for (int channel = 0; channel < blocks.length; channel++) {
+                blocks[channel] = keyChannels.get(channel).get(blockIndex);
+            }
+            if (containsNull(blocks, blockPosition)) {
+                continue;
+            }
+
+            long first = getFirstKey(blocks, blockPosition);
+            long second = getSecondKey(blocks, blockPosition);
+            int pos = getHashPosition(first, second);
+
+            // look for an empty slot or a slot containing this key
+            int realPosition = position;
+            while (key[pos] != -1) {
+                if (keyEquals(pos, first, second)) {
+                    // found a slot for this key
+                    // link the new key position to the current key position
+                    realPosition = positionLinks.link(realPosition, key[pos]);
+
+                    // key[pos] updated outside of this loop
+                    break;
+                }
+                // increment position and mask to handler wrap around
+                pos = (pos + 1) & mask;
+                hashCollisionsLocal++;
+            }
+
+            key[pos] = realPosition;
+            setKey(pos, first, second);
+        }
+
+        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
+                sizeOf(key) + sizeOf(keyValues);
+        hashCollisions = hashCollisionsLocal;
+        expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
+    }
+
+    @Override
+    public int getChannelCount()
+    {
+        return channelCount;
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return addresses.size();
+    }
+
+    @Override
+    public long getInMemorySizeInBytes()
+    {
+        return INSTANCE_SIZE + size;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions;
+    }
+
+    @Override
+    public int getAddressIndex(int position, Page hashChannelsPage)
+    {
+        Block[] blocks = getKeyBlocks(hashChannelsPage);
+        if (containsNull(blocks, position)) {
+            return -1;
+        }
+        long first = getFirstKey(blocks, position);
+        long second = getSecondKey(blocks, position);
+        return findAddressIndex(getHashPosition(first, second), first, second);
+    }
+
+    @Override
+    public int getAddressIndex(int rightPosition, Page hashChannelsPage, long rawHash)
+    {
+        return getAddressIndex(rightPosition, hashChannelsPage);
+    }
+
+    @Override
+    public void getAddressIndexes(int[] positions, int positionCount, Page hashChannelsPage, @Nullable long[] rawHashes, long[] addressIndexes)
+    {
+        Block[] blocks = getKeyBlocks(hashChannelsPage);
+        long[] firstKeys = new long[positionCount];
+        long[] secondKeys = keyWidth == 1 ? null : new long[positionCount];
+        int[] hashPositions = new int[positionCount];
+
+        // First read the keys and compute the slots of all positions, so the reads of the hash table
+        // in the loop below do not depend on each other, and the cache misses can overlap.
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            long first = getFirstKey(blocks, position);
+            long second = getSecondKey(blocks, position);
+            firstKeys[i] = first;
+            if (secondKeys != null) {
+                secondKeys[i] = second;
+            }
+            hashPositions[i] = getHashPosition(first, second);
+        }
+
+        for (int i = 0; i < positionCount; i++) {
+            long second = secondKeys == null ? 0 : secondKeys[i];
+            addressIndexes[positions[i]] = findAddressIndex(hashPositions[i], firstKeys[i], second);
+        }
+    }
+
+    @Override
+    public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        long pageAddress = addresses.getLong(toIntExact(position));
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        pagesHashStrategy.appendTo(blockIndex, blockPosition, pageBuilder, outputChannelOffset);
+    }
+
+    private int findAddressIndex(int hashPosition, long first, long second)
+    {
+        int pos = hashPosition;
+        while (key[pos] != -1) {
+            if (keyEquals(pos, first, second)) {
+                return key[pos];
+            }
+            // increment position and mask to handler wrap around
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    private Block[] getKeyBlocks(Page hashChannelsPage)
+    {
+        Block[] blocks = new Block[keyTypes.size()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            blocks[channel] = hashChannelsPage.getBlock(channel);
+        }
+        return blocks;
+    }
+
+    private static boolean containsNull(Block[] blocks, int position)
+    {
+        for (Block block : blocks) {
+            if (block.isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long getFirstKey(Block[] blocks, int position)
+    {
+        long first = keyTypes.get(0).getLong(blocks[0], position);
+        if (keyWidth == 1 && blocks.length == 2) {
+            // both keys fit into 32 bits
+            return (first << 32) | (keyTypes.get(1).getLong(blocks[1], position) & 0xFFFF_FFFFL);
+        }
+        return first;
+    }
+
+    private long getSecondKey(Block[] blocks, int position)
+    {
+        if (keyWidth == 1) {
+            return 0;
+        }
+        return keyTypes.get(1).getLong(blocks[1], position);
+    }
+
+    private boolean keyEquals(int hashPosition, long first, long second)
+    {
+        if (keyWidth == 1) {
+            return keyValues[hashPosition] == first;
+        }
+        int index = hashPosition * 2;
+        return keyValues[index] == first && keyValues[index + 1] == second;
+    }
+
+    private void setKey(int hashPosition, long first, long second)
+    {
+        if (keyWidth == 1) {
+            keyValues[hashPosition] = first;
+        }
+        else {
+            keyValues[hashPosition * 2] = first;
+            keyValues[hashPosition * 2 + 1] = second;
+        }
+    }
+
+    private int getHashPosition(long first, long second)
+    {
+        long hash = keyWidth == 1 ? murmurHash3(first) : murmurHash3(murmurHash3(first) + second);
+        return (int) (hash & mask);
+    }
+}
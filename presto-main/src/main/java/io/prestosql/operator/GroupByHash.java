@@ -54,6 +54,9 @@ public interface GroupByHash
         if (hashTypes.size() == 1 && hashTypes.get(0).equals(BIGINT) && hashChannels.length == 1) {
             return new BigintGroupByHash(hashChannels[0], inputHashChannel.isPresent(), expectedSize, updateMemory);
         }
+        if (hashTypes.size() == hashChannels.length && FixedWidthGroupByHash.isSupported(hashTypes)) {
+            return new FixedWidthGroupByHash(hashTypes, hashChannels, inputHashChannel.isPresent(), expectedSize, updateMemory);
+        }
         return new MultiChannelGroupByHash(hashTypes, hashChannels, inputHashChannel, expectedSize, processDictionary, joinCompiler, updateMemory);
     }
 
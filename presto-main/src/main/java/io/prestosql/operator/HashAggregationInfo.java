@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Hash collisions of an adaptive partial aggregation, together with the input it passed through without
+ * aggregating, see {@link PartialAggregationController}.
+ */
+public class HashAggregationInfo
+        extends HashCollisionsInfo
+{
+    private final long passthroughInputPositions;
+    private final long passthroughInputPages;
+    private final long aggregationDisabledOperators;
+
+    @JsonCreator
+    public HashAggregationInfo(
+            @JsonProperty(WEIGHTED_HASH_COLLISIONS_PROPERTY) double weightedHashCollisions,
+            @JsonProperty(WEIGHTED_SUM_SQUARED_HASH_COLLISIONS) double weightedSumSquaredHashCollisions,
+            @JsonProperty(WEIGHTED_EXPECTED_HASH_COLLISIONS) double weightedExpectedHashCollisions,
+            @JsonProperty("passthroughInputPositions") long passthroughInputPositions,
+            @JsonProperty("passthroughInputPages") long passthroughInputPages,
+            @JsonProperty("aggregationDisabledOperators") long aggregationDisabledOperators)
+    {
+        super(weightedHashCollisions, weightedSumSquaredHashCollisions, weightedExpectedHashCollisions);
+        this.passthroughInputPositions = passthroughInputPositions;
+        this.passthroughInputPages = passthroughInputPages;
+        this.aggregationDisabledOperators = aggregationDisabledOperators;
+    }
+
+    public HashAggregationInfo(HashCollisionsInfo hashCollisionsInfo, long passthroughInputPositions, long passthroughInputPages, boolean aggregationDisabled)
+    {
+        this(hashCollisionsInfo.getWeightedHashCollisions(),
+                hashCollisionsInfo.getWeightedSumSquaredHashCollisions(),
+                hashCollisionsInfo.getWeightedExpectedHashCollisions(),
+                passthroughInputPositions,
+                passthroughInputPages,
+                aggregationDisabled ? 1 : 0);
+    }
+
+    @JsonProperty
+    public long getPassthroughInputPositions()
+    {
+        return passthroughInputPositions;
+    }
+
+    @JsonProperty
+    public long getPassthroughInputPages()
+    {
+        return passthroughInputPages;
+    }
+
+    /**
+     * Number of operators that stopped aggregating
+     */
+    @JsonProperty
+    public long getAggregationDisabledOperators()
+    {
+        return aggregationDisabledOperators;
+    }
+
+    @Override
+    public HashAggregationInfo mergeWith(HashCollisionsInfo other)
+    {
+        HashCollisionsInfo hashCollisionsInfo = super.mergeWith(other);
+        long otherPositions = 0;
+        long otherPages = 0;
+        long otherDisabledOperators = 0;
+        if (other instanceof HashAggregationInfo) {
+            HashAggregationInfo otherInfo = (HashAggregationInfo) other;
+            otherPositions = otherInfo.getPassthroughInputPositions();
+            otherPages = otherInfo.getPassthroughInputPages();
+            otherDisabledOperators = otherInfo.getAggregationDisabledOperators();
+        }
+        return new HashAggregationInfo(
+                hashCollisionsInfo.getWeightedHashCollisions(),
+                hashCollisionsInfo.getWeightedSumSquaredHashCollisions(),
+                hashCollisionsInfo.getWeightedExpectedHashCollisions(),
+                passthroughInputPositions + otherPositions,
+                passthroughInputPages + otherPages,
+                aggregationDisabledOperators + otherDisabledOperators);
+    }
+}
@@ -17,9 +17,12 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.aggregation.Accumulator;
 import io.prestosql.operator.aggregation.AccumulatorFactory;
+import io.prestosql.operator.aggregation.GroupedAccumulator;
 import io.prestosql.operator.aggregation.builder.HashAggregationBuilder;
 import io.prestosql.operator.aggregation.builder.InMemoryHashAggregationBuilder;
 import io.prestosql.operator.aggregation.builder.SpillableHashAggregationBuilder;
@@ -27,6 +30,9 @@ import io.prestosql.operator.scalar.CombineHashFunction;
 import io.prestosql.snapshot.SingleInputSnapshotState;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.LongArrayBlock;
 import io.prestosql.spi.plan.AggregationNode.Step;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
@@ -41,6 +47,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -51,7 +58,8 @@ import static java.util.Objects.requireNonNull;
 
 @RestorableConfig(uncapturedFields = {"snapshotState", "groupByTypes", "groupByChannels", "globalAggregationGroupIds",
         "accumulatorFactories", "hashChannel", "groupIdChannel", "maxPartialMemory", "memoryLimitForMerge",
-        "memoryLimitForMergeWithMemory", "spillerFactory", "joinCompiler", "types", "outputPages", "unfinishedWork"})
+        "memoryLimitForMergeWithMemory", "spillerFactory", "joinCompiler", "types", "outputPages", "unfinishedWork",
+        "partialAggregationController"})
 public class HashAggregationOperator
         implements Operator
 {
@@ -79,6 +87,7 @@ public class HashAggregationOperator
         private final SpillerFactory spillerFactory;
         private final JoinCompiler joinCompiler;
         private final boolean useSystemMemory;
+        private final Optional<PartialAggregationController> partialAggregationController;
 
         private boolean closed;
 
@@ -138,6 +147,46 @@ public class HashAggregationOperator
                 SpillerFactory spillerFactory,
                 JoinCompiler joinCompiler,
                 boolean useSystemMemory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    groupByTypes,
+                    groupByChannels,
+                    globalAggregationGroupIds,
+                    step,
+                    produceDefaultOutput,
+                    accumulatorFactories,
+                    hashChannel,
+                    groupIdChannel,
+                    expectedGroups,
+                    maxPartialMemory,
+                    spillEnabled,
+                    unspillMemoryLimit,
+                    spillerFactory,
+                    joinCompiler,
+                    useSystemMemory,
+                    Optional.empty());
+        }
+
+        public HashAggregationOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                List<Integer> globalAggregationGroupIds,
+                Step step,
+                boolean produceDefaultOutput,
+                List<AccumulatorFactory> accumulatorFactories,
+                Optional<Integer> hashChannel,
+                Optional<Integer> groupIdChannel,
+                int expectedGroups,
+                Optional<DataSize> maxPartialMemory,
+                boolean spillEnabled,
+                DataSize unspillMemoryLimit,
+                SpillerFactory spillerFactory,
+                JoinCompiler joinCompiler,
+                boolean useSystemMemory,
+                Optional<PartialAggregationController> partialAggregationController)
         {
             this(operatorId,
                     planNodeId,
@@ -156,7 +205,8 @@ public class HashAggregationOperator
                     DataSize.succinctBytes((long) (unspillMemoryLimit.toBytes() * MERGE_WITH_MEMORY_RATIO)),
                     spillerFactory,
                     joinCompiler,
-                    useSystemMemory);
+                    useSystemMemory,
+                    partialAggregationController);
         }
 
         @VisibleForTesting
@@ -179,6 +229,48 @@ public class HashAggregationOperator
                 SpillerFactory spillerFactory,
                 JoinCompiler joinCompiler,
                 boolean useSystemMemory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    groupByTypes,
+                    groupByChannels,
+                    globalAggregationGroupIds,
+                    step,
+                    produceDefaultOutput,
+                    accumulatorFactories,
+                    hashChannel,
+                    groupIdChannel,
+                    expectedGroups,
+                    maxPartialMemory,
+                    spillEnabled,
+                    memoryLimitForMerge,
+                    memoryLimitForMergeWithMemory,
+                    spillerFactory,
+                    joinCompiler,
+                    useSystemMemory,
+                    Optional.empty());
+        }
+
+        private HashAggregationOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                List<Integer> globalAggregationGroupIds,
+                Step step,
+                boolean produceDefaultOutput,
+                List<AccumulatorFactory> accumulatorFactories,
+                Optional<Integer> hashChannel,
+                Optional<Integer> groupIdChannel,
+                int expectedGroups,
+                Optional<DataSize> maxPartialMemory,
+                boolean spillEnabled,
+                DataSize memoryLimitForMerge,
+                DataSize memoryLimitForMergeWithMemory,
+                SpillerFactory spillerFactory,
+                JoinCompiler joinCompiler,
+                boolean useSystemMemory,
+                Optional<PartialAggregationController> partialAggregationController)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -198,6 +290,8 @@ public class HashAggregationOperator
             this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.useSystemMemory = useSystemMemory;
+            this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
+            checkArgument(!partialAggregationController.isPresent() || step == Step.PARTIAL, "Only partial aggregations can be adaptive");
         }
 
         @Override
@@ -223,7 +317,8 @@ public class HashAggregationOperator
                     memoryLimitForMergeWithMemory,
                     spillerFactory,
                     joinCompiler,
-                    useSystemMemory);
+                    useSystemMemory,
+                    partialAggregationController);
             return hashAggregationOperator;
         }
 
@@ -254,7 +349,8 @@ public class HashAggregationOperator
                     memoryLimitForMergeWithMemory,
                     spillerFactory,
                     joinCompiler,
-                    useSystemMemory);
+                    useSystemMemory,
+                    partialAggregationController);
         }
     }
 
@@ -276,6 +372,7 @@ public class HashAggregationOperator
     private final SpillerFactory spillerFactory;
     private final JoinCompiler joinCompiler;
     private final boolean useSystemMemory;
+    private final Optional<PartialAggregationController> partialAggregationController;
 
     private final List<Type> types;
     private final HashCollisionsCounter hashCollisionsCounter;
@@ -290,6 +387,14 @@ public class HashAggregationOperator
     // for yield when memory is not available
     private Work<?> unfinishedWork;
 
+    // input positions added to the current aggregation builder, and whether they were reported to partialAggregationController
+    private long aggregationBuilderInputPositions;
+    private boolean aggregationBuilderReported;
+    // input converted to intermediate form, after the partial aggregation was disabled
+    private Page passthroughPage;
+    private long passthroughInputPositions;
+    private long passthroughInputPages;
+
     public HashAggregationOperator(
             OperatorContext operatorContext,
             List<Type> groupByTypes,
@@ -307,7 +412,8 @@ public class HashAggregationOperator
             DataSize memoryLimitForMergeWithMemory,
             SpillerFactory spillerFactory,
             JoinCompiler joinCompiler,
-            boolean useSystemMemory)
+            boolean useSystemMemory,
+            Optional<PartialAggregationController> partialAggregationController)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         requireNonNull(step, "step is null");
@@ -332,7 +438,13 @@ public class HashAggregationOperator
         this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.hashCollisionsCounter = new HashCollisionsCounter(operatorContext);
-        operatorContext.setInfoSupplier(hashCollisionsCounter);
+        this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
+        if (partialAggregationController.isPresent()) {
+            operatorContext.setInfoSupplier(() -> new HashAggregationInfo(hashCollisionsCounter.get(), passthroughInputPositions, passthroughInputPages, passthroughInputPages > 0));
+        }
+        else {
+            operatorContext.setInfoSupplier(hashCollisionsCounter);
+        }
         this.useSystemMemory = useSystemMemory;
 
         this.memoryContext = operatorContext.localUserMemoryContext();
@@ -367,10 +479,10 @@ public class HashAggregationOperator
     @Override
     public boolean needsInput()
     {
-        if (finishing || outputPages != null) {
+        if (finishing || outputPages != null || passthroughPage != null) {
             return false;
         }
-        else if (aggregationBuilder != null && aggregationBuilder.isFull()) {
+        else if (aggregationBuilder != null && (aggregationBuilder.isFull() || isAggregationDisabled())) {
             return false;
         }
         else {
@@ -392,6 +504,13 @@ public class HashAggregationOperator
         requireNonNull(page, "page is null");
         inputProcessed = true;
 
+        if (aggregationBuilder == null && isAggregationDisabled()) {
+            passthroughPage = toIntermediatePage(page);
+            passthroughInputPositions += page.getPositionCount();
+            passthroughInputPages++;
+            return;
+        }
+
         if (aggregationBuilder == null) {
             createAggregationBuilder();
         }
@@ -405,6 +524,58 @@ public class HashAggregationOperator
             unfinishedWork = null;
         }
         aggregationBuilder.updateMemory();
+
+        aggregationBuilderInputPositions += page.getPositionCount();
+        if (partialAggregationController.isPresent() && aggregationBuilderInputPositions >= partialAggregationController.get().getMinRows()) {
+            reportAggregationBuilder();
+        }
+    }
+
+    private boolean isAggregationDisabled()
+    {
+        return partialAggregationController.isPresent() && partialAggregationController.get().isAggregationDisabled();
+    }
+
+    private void reportAggregationBuilder()
+    {
+        if (partialAggregationController.isPresent() && !aggregationBuilderReported) {
+            long groupCount = ((InMemoryHashAggregationBuilder) aggregationBuilder).getGroupCount();
+            partialAggregationController.get().onFlush(aggregationBuilderInputPositions, groupCount);
+            aggregationBuilderReported = true;
+        }
+    }
+
+    /**
+     * Converts a raw input page to the output of a partial aggregation with one group per position,
+     * without looking the groups up in a hash table.
+     */
+    private Page toIntermediatePage(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        Block[] blocks = new Block[types.size()];
+        int channel = 0;
+        for (int groupByChannel : groupByChannels) {
+            blocks[channel++] = page.getBlock(groupByChannel);
+        }
+        if (hashChannel.isPresent()) {
+            blocks[channel++] = page.getBlock(hashChannel.get());
+        }
+
+        long[] groupIds = new long[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            groupIds[position] = position;
+        }
+        GroupByIdBlock groupIdsBlock = new GroupByIdBlock(positionCount, new LongArrayBlock(positionCount, Optional.empty(), groupIds));
+        for (AccumulatorFactory accumulatorFactory : accumulatorFactories) {
+            GroupedAccumulator accumulator = accumulatorFactory.createGroupedAccumulator();
+            accumulator.addInput(groupIdsBlock, page);
+            BlockBuilder blockBuilder = accumulator.getIntermediateType().createBlockBuilder(null, positionCount);
+            for (int groupId = 0; groupId < positionCount; groupId++) {
+                accumulator.evaluateIntermediate(groupId, blockBuilder);
+            }
+            blocks[channel++] = blockBuilder.build();
+        }
+        return new Page(positionCount, blocks);
     }
 
     public void createAggregationBuilder()
@@ -491,6 +662,12 @@ public class HashAggregationOperator
             return null;
         }
 
+        if (passthroughPage != null) {
+            Page page = passthroughPage;
+            passthroughPage = null;
+            return page;
+        }
+
         // process unfinished work if one exists
         if (unfinishedWork != null) {
             boolean workDone = unfinishedWork.process();
@@ -515,11 +692,12 @@ public class HashAggregationOperator
                 }
             }
 
-            // only flush if we are finishing or the aggregation builder is full
-            if (!finishing && (aggregationBuilder == null || !aggregationBuilder.isFull())) {
+            // only flush if we are finishing, the aggregation builder is full, or the partial aggregation was disabled
+            if (!finishing && (aggregationBuilder == null || !(aggregationBuilder.isFull() || isAggregationDisabled()))) {
                 return null;
             }
 
+            reportAggregationBuilder();
             outputPages = aggregationBuilder.buildResult();
         }
 
@@ -563,6 +741,8 @@ public class HashAggregationOperator
             // The reference must be set to null afterwards to avoid unaccounted memory.
             aggregationBuilder = null;
         }
+        aggregationBuilderInputPositions = 0;
+        aggregationBuilderReported = false;
         memoryContext.setBytes(0);
     }
 
@@ -638,6 +818,14 @@ public class HashAggregationOperator
         myState.inputProcessed = inputProcessed;
         myState.finishing = finishing;
         myState.finished = finished;
+        myState.aggregationBuilderInputPositions = aggregationBuilderInputPositions;
+        myState.aggregationBuilderReported = aggregationBuilderReported;
+        if (passthroughPage != null) {
+            PagesSerde pagesSerde = (PagesSerde) serdeProvider;
+            myState.passthroughPage = pagesSerde.serialize(passthroughPage).capture(serdeProvider);
+        }
+        myState.passthroughInputPositions = passthroughInputPositions;
+        myState.passthroughInputPages = passthroughInputPages;
         return myState;
     }
 
@@ -660,6 +848,17 @@ public class HashAggregationOperator
         inputProcessed = myState.inputProcessed;
         finishing = myState.finishing;
         finished = myState.finished;
+        aggregationBuilderInputPositions = myState.aggregationBuilderInputPositions;
+        aggregationBuilderReported = myState.aggregationBuilderReported;
+        if (myState.passthroughPage != null) {
+            PagesSerde pagesSerde = (PagesSerde) serdeProvider;
+            passthroughPage = pagesSerde.deserialize(SerializedPage.restoreSerializedPage(myState.passthroughPage));
+        }
+        else {
+            passthroughPage = null;
+        }
+        passthroughInputPositions = myState.passthroughInputPositions;
+        passthroughInputPages = myState.passthroughInputPages;
     }
 
     private static class HashAggregationOperatorState
@@ -672,5 +871,10 @@ public class HashAggregationOperator
         private boolean inputProcessed;
         private boolean finishing;
         private boolean finished;
+        private long aggregationBuilderInputPositions;
+        private boolean aggregationBuilderReported;
+        private Object passthroughPage;
+        private long passthroughInputPositions;
+        private long passthroughInputPages;
     }
 }
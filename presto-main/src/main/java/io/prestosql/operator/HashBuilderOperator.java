@@ -19,6 +19,7 @@ import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.snapshot.IncrementalRestorable;
 import io.prestosql.snapshot.SingleInputSnapshotState;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.plan.PlanNodeId;
@@ -57,7 +58,7 @@ import static java.util.Objects.requireNonNull;
         "lookupSourceNotNeeded", "spilledLookupSourceHandle", "spiller", "spillInProgress", "unspillInProgress", "lookupSourceSupplier", "lookupSourceChecksum",
         "finishMemoryRevoke", "snapshotState"})
 public class HashBuilderOperator
-        implements SinkOperator
+        implements SinkOperator, IncrementalRestorable
 {
     public static class HashBuilderOperatorFactory
             implements OperatorFactory
@@ -677,6 +678,38 @@ public class HashBuilderOperator
         this.state = State.valueOf(myState.state);
     }
 
+    @Override
+    public boolean isIncrementalCaptureSupported()
+    {
+        // Pages are only added to the index while input is consumed without spilling
+        return state == State.CONSUMING_INPUT && index.isIncrementalCaptureSupported();
+    }
+
+    @Override
+    public Object captureIncremental(BlockEncodingSerdeProvider serdeProvider)
+    {
+        HashBuilderOperatorState myState = new HashBuilderOperatorState();
+        myState.operatorContext = operatorContext.capture(serdeProvider);
+        myState.localUserMemoryContext = localUserMemoryContext.getBytes();
+        myState.localRevocableMemoryContext = localRevocableMemoryContext.getBytes();
+        myState.index = index.captureIncremental(serdeProvider);
+        myState.hashCollisionsCounter = hashCollisionsCounter.capture(serdeProvider);
+        myState.state = state.toString();
+        return myState;
+    }
+
+    @Override
+    public void restoreIncremental(Object state, BlockEncodingSerdeProvider serdeProvider)
+    {
+        HashBuilderOperatorState myState = (HashBuilderOperatorState) state;
+        this.operatorContext.restore(myState.operatorContext, serdeProvider);
+        this.localUserMemoryContext.setBytes(myState.localUserMemoryContext);
+        this.localRevocableMemoryContext.setBytes(myState.localRevocableMemoryContext);
+        this.index.restoreIncremental(myState.index, serdeProvider);
+        this.hashCollisionsCounter.restore(myState.hashCollisionsCounter, serdeProvider);
+        this.state = State.valueOf(myState.state);
+    }
+
     private static class HashBuilderOperatorState
             implements Serializable
     {
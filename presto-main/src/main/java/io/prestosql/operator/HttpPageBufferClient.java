@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.net.MediaType;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.HttpClient.HttpResponseFuture;
 import io.airlift.http.client.HttpStatus;
@@ -46,6 +47,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.concurrent.Executor;
@@ -116,11 +118,12 @@ public final class HttpPageBufferClient
     private final ClientCallback clientCallback;
     private final ScheduledExecutorService scheduler;
     private final Backoff backoff;
+    private final Optional<MultiplexedPageTransport> multiplexedTransport;
 
     @GuardedBy("this")
     private boolean closed;
     @GuardedBy("this")
-    private HttpResponseFuture<?> future;
+    private ListenableFuture<?> future;
     @GuardedBy("this")
     private DateTime lastUpdate = DateTime.now();
     @GuardedBy("this")
@@ -154,7 +157,21 @@ public final class HttpPageBufferClient
             ScheduledExecutorService scheduler,
             Executor pageBufferClientCallbackExecutor)
     {
-        this(httpClient, maxResponseSize, maxErrorDuration, acknowledgePages, location, clientCallback, scheduler, Ticker.systemTicker(), pageBufferClientCallbackExecutor);
+        this(httpClient, maxResponseSize, maxErrorDuration, acknowledgePages, location, clientCallback, scheduler, Ticker.systemTicker(), pageBufferClientCallbackExecutor, Optional.empty());
+    }
+
+    public HttpPageBufferClient(
+            HttpClient httpClient,
+            DataSize maxResponseSize,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            URI location,
+            ClientCallback clientCallback,
+            ScheduledExecutorService scheduler,
+            Executor pageBufferClientCallbackExecutor,
+            Optional<MultiplexedPageTransport> multiplexedTransport)
+    {
+        this(httpClient, maxResponseSize, maxErrorDuration, acknowledgePages, location, clientCallback, scheduler, Ticker.systemTicker(), pageBufferClientCallbackExecutor, multiplexedTransport);
     }
 
     public HttpPageBufferClient(
@@ -167,6 +184,21 @@ public final class HttpPageBufferClient
             ScheduledExecutorService scheduler,
             Ticker ticker,
             Executor pageBufferClientCallbackExecutor)
+    {
+        this(httpClient, maxResponseSize, maxErrorDuration, acknowledgePages, location, clientCallback, scheduler, ticker, pageBufferClientCallbackExecutor, Optional.empty());
+    }
+
+    public HttpPageBufferClient(
+            HttpClient httpClient,
+            DataSize maxResponseSize,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            URI location,
+            ClientCallback clientCallback,
+            ScheduledExecutorService scheduler,
+            Ticker ticker,
+            Executor pageBufferClientCallbackExecutor,
+            Optional<MultiplexedPageTransport> multiplexedTransport)
     {
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
         this.maxResponseSize = requireNonNull(maxResponseSize, "maxResponseSize is null");
@@ -178,6 +210,7 @@ public final class HttpPageBufferClient
         requireNonNull(maxErrorDuration, "maxErrorDuration is null");
         requireNonNull(ticker, "ticker is null");
         this.backoff = new Backoff(maxErrorDuration, ticker);
+        this.multiplexedTransport = requireNonNull(multiplexedTransport, "multiplexedTransport is null");
     }
 
     public synchronized PageBufferClientStatus getStatus()
@@ -199,8 +232,11 @@ public final class HttpPageBufferClient
             state = "queued";
         }
         String httpRequestState = "not scheduled";
-        if (future != null) {
-            httpRequestState = future.getState();
+        if (future instanceof HttpResponseFuture) {
+            httpRequestState = ((HttpResponseFuture<?>) future).getState();
+        }
+        else if (future != null) {
+            httpRequestState = "multiplexed";
         }
 
         long rejectedRows = rowsRejected.get();
@@ -307,11 +343,17 @@ public final class HttpPageBufferClient
     private synchronized void sendGetResults()
     {
         URI uri = HttpUriBuilder.uriBuilderFrom(location).appendPath(String.valueOf(token)).build();
-        HttpResponseFuture<PagesResponse> resultFuture = httpClient.executeAsync(
-                addInstanceIdHeader(prepareGet())
-                        .setHeader(PRESTO_MAX_SIZE, maxResponseSize.toString())
-                        .setUri(uri).build(),
-                new PageResponseHandler());
+        ListenableFuture<PagesResponse> resultFuture;
+        if (multiplexedTransport.isPresent()) {
+            resultFuture = multiplexedTransport.get().getPages(location, token, maxResponseSize, taskInstanceId);
+        }
+        else {
+            resultFuture = httpClient.executeAsync(
+                    addInstanceIdHeader(prepareGet())
+                            .setHeader(PRESTO_MAX_SIZE, maxResponseSize.toString())
+                            .setUri(uri).build(),
+                    new PageResponseHandler());
+        }
 
         future = resultFuture;
         Futures.addCallback(resultFuture, new FutureCallback<PagesResponse>()
@@ -346,7 +388,11 @@ public final class HttpPageBufferClient
                         }
                     }
 
-                    if (shouldAcknowledge && acknowledgePages) {
+                    if (shouldAcknowledge && acknowledgePages && multiplexedTransport.isPresent()) {
+                        // The acknowledgement shares the next multiplexed request to the node
+                        multiplexedTransport.get().acknowledge(location, result.getNextToken(), taskInstanceId);
+                    }
+                    else if (shouldAcknowledge && acknowledgePages) {
                         // Acknowledge token without handling the response.
                         // The next request will also make sure the token is acknowledged.
                         // This is to fast release the pages on the buffer side.
@@ -471,7 +517,7 @@ public final class HttpPageBufferClient
         checkState(!Thread.holdsLock(lock), "Cannot execute this method while holding a lock");
     }
 
-    private void handleFailure(Throwable t, HttpResponseFuture<?> expectedFuture)
+    private void handleFailure(Throwable t, ListenableFuture<?> expectedFuture)
     {
         // Can not delegate to other callback while holding a lock on this
         checkNotHoldsLock(this);
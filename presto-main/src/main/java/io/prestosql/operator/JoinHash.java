@@ -29,7 +29,7 @@ public final class JoinHash
         implements LookupSource
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(JoinHash.class).instanceSize();
-    private final PagesHash pagesHash;
+    private final JoinPagesHash pagesHash;
 
     // we unwrap Optional<JoinFilterFunction> to actual verifier or null in constructor for performance reasons
     // we do quick check for `filterFunction == null` in `isJoinPositionEligible` to avoid calls to applyFilterFunction
@@ -41,7 +41,7 @@ public final class JoinHash
     @Nullable
     private final PositionLinks positionLinks;
 
-    public JoinHash(PagesHash pagesHash, Optional<JoinFilterFunction> filterFunction, Optional<PositionLinks> positionLinks)
+    public JoinHash(JoinPagesHash pagesHash, Optional<JoinFilterFunction> filterFunction, Optional<PositionLinks> positionLinks)
     {
         this.pagesHash = requireNonNull(pagesHash, "pagesHash is null");
         this.filterFunction = requireNonNull(filterFunction, "filterFunction can not be null").orElse(null);
@@ -92,6 +92,22 @@ public final class JoinHash
         return startJoinPosition(addressIndex, position, allChannelsPage);
     }
 
+    @Override
+    public boolean supportsBatchLookup()
+    {
+        return true;
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        pagesHash.getAddressIndexes(positions, positionCount, hashChannelsPage, rawHashes, joinPositions);
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            joinPositions[position] = startJoinPosition(toIntExact(joinPositions[position]), position, allChannelsPage);
+        }
+    }
+
     private long startJoinPosition(int currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
         if (currentJoinPosition == -1) {
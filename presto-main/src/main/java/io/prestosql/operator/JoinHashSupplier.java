@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.prestosql.Session;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.Type;
 import io.prestosql.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 
@@ -33,7 +34,7 @@ public class JoinHashSupplier
         implements LookupSourceSupplier
 {
     private final Session session;
-    private final PagesHash pagesHash;
+    private final JoinPagesHash pagesHash;
     private final LongArrayList addresses;
     private final List<Page> pages;
     private final Optional<PositionLinks.Factory> positionLinks;
@@ -47,7 +48,9 @@ public class JoinHashSupplier
             List<List<Block>> channels,
             Optional<JoinFilterFunctionFactory> filterFunctionFactory,
             Optional<Integer> sortChannel,
-            List<JoinFilterFunctionFactory> searchFunctionFactories)
+            List<JoinFilterFunctionFactory> searchFunctionFactories,
+            List<Integer> joinChannels,
+            List<Type> joinChannelTypes)
     {
         this.session = requireNonNull(session, "session is null");
         this.addresses = requireNonNull(addresses, "addresses is null");
@@ -55,6 +58,8 @@ public class JoinHashSupplier
         this.searchFunctionFactories = ImmutableList.copyOf(searchFunctionFactories);
         requireNonNull(channels, "pages is null");
         requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
+        requireNonNull(joinChannels, "joinChannels is null");
+        requireNonNull(joinChannelTypes, "joinChannelTypes is null");
 
         PositionLinks.FactoryBuilder positionLinksFactoryBuilder;
         if (sortChannel.isPresent() &&
@@ -70,7 +75,15 @@ public class JoinHashSupplier
         }
 
         this.pages = channelsToPages(channels);
-        this.pagesHash = new PagesHash(addresses, pagesHashStrategy, positionLinksFactoryBuilder);
+        if (FixedWidthPagesHash.isSupported(joinChannelTypes)) {
+            List<List<Block>> joinChannelBlocks = joinChannels.stream()
+                    .map(channels::get)
+                    .collect(toImmutableList());
+            this.pagesHash = new FixedWidthPagesHash(addresses, pagesHashStrategy, positionLinksFactoryBuilder, joinChannelTypes, joinChannelBlocks);
+        }
+        else {
+            this.pagesHash = new PagesHash(addresses, pagesHashStrategy, positionLinksFactoryBuilder);
+        }
         this.positionLinks = positionLinksFactoryBuilder.isEmpty() ? Optional.empty() : Optional.of(positionLinksFactoryBuilder.build());
     }
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Hash table over the build side of a join, from the join key to the first address index with that key.
+ * Other address indexes with the same key are chained by {@link PositionLinks}.
+ */
+public interface JoinPagesHash
+{
+    int getChannelCount();
+
+    int getPositionCount();
+
+    long getInMemorySizeInBytes();
+
+    long getHashCollisions();
+
+    double getExpectedHashCollisions();
+
+    int getAddressIndex(int position, Page hashChannelsPage);
+
+    int getAddressIndex(int rightPosition, Page hashChannelsPage, long rawHash);
+
+    /**
+     * Looks up the address index of each of the first positionCount positions, and stores it into addressIndexes
+     * at the index of the position, or -1 if there is no match. The positions must not have nulls in the join
+     * channels. rawHashes is either null, or holds the raw hash of every position of the page.
+     */
+    default void getAddressIndexes(int[] positions, int positionCount, Page hashChannelsPage, @Nullable long[] rawHashes, long[] addressIndexes)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (rawHashes == null) {
+                addressIndexes[position] = getAddressIndex(position, hashChannelsPage);
+            }
+            else {
+                addressIndexes[position] = getAddressIndex(position, hashChannelsPage, rawHashes[position]);
+            }
+        }
+    }
+
+    void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset);
+}
@@ -52,6 +52,10 @@ public class JoinProbe
 
     private int position = -1;
 
+    // join positions of the whole page, looked up at once in the lookup source they were computed for
+    private LookupSource joinPositionsLookupSource;
+    private long[] joinPositions;
+
     private JoinProbe(int[] probeOutputChannels, Page page, List<Integer> probeJoinChannels, OptionalInt probeHashChannel)
     {
         this.probeOutputChannels = probeOutputChannels;
@@ -79,7 +83,13 @@ public class JoinProbe
 
     public long getCurrentJoinPosition(LookupSource lookupSource)
     {
-        if (currentRowContainsNull()) {
+        if (lookupSource.supportsBatchLookup()) {
+            if (lookupSource != joinPositionsLookupSource) {
+                lookupJoinPositions(lookupSource);
+            }
+            return joinPositions[position];
+        }
+        if (rowContainsNull(position)) {
             return -1;
         }
         if (probeHashBlock.isPresent()) {
@@ -89,6 +99,35 @@ public class JoinProbe
         return lookupSource.getJoinPosition(position, probePage, page);
     }
 
+    /**
+     * Looks up the join positions of all rows of the page in one call, so the lookup source can
+     * resolve the rows in a tight loop instead of one call per row.
+     */
+    private void lookupJoinPositions(LookupSource lookupSource)
+    {
+        int[] positions = new int[positionCount];
+        int nonNullPositionCount = 0;
+        joinPositions = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            if (rowContainsNull(i)) {
+                joinPositions[i] = -1;
+            }
+            else {
+                positions[nonNullPositionCount++] = i;
+            }
+        }
+
+        long[] rawHashes = null;
+        if (probeHashBlock.isPresent()) {
+            rawHashes = new long[positionCount];
+            for (int i = 0; i < nonNullPositionCount; i++) {
+                rawHashes[positions[i]] = BIGINT.getLong(probeHashBlock.get(), positions[i]);
+            }
+        }
+        lookupSource.getJoinPositions(positions, nonNullPositionCount, probePage, page, rawHashes, joinPositions);
+        joinPositionsLookupSource = lookupSource;
+    }
+
     public int getPosition()
     {
         return position;
@@ -99,7 +138,7 @@ public class JoinProbe
         return page;
     }
 
-    private boolean currentRowContainsNull()
+    private boolean rowContainsNull(int position)
     {
         for (Block probeBlock : probeBlocks) {
             if (probeBlock.isNull(position)) {
@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
@@ -36,6 +37,33 @@ public interface LookupSource
 
     long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage);
 
+    /**
+     * Whether the join positions of all rows of a probe page can be looked up before any of the rows is joined,
+     * with {@link #getJoinPositions}. This is not the case for lookup sources which replace their data on lookups.
+     */
+    default boolean supportsBatchLookup()
+    {
+        return false;
+    }
+
+    /**
+     * Looks up the join position of each of the first positionCount positions, and stores it into joinPositions
+     * at the index of the position. The positions must not have nulls in the join channels. rawHashes is either
+     * null, or holds the raw hash of every position of the page.
+     */
+    default void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (rawHashes == null) {
+                joinPositions[position] = getJoinPosition(position, hashChannelsPage, allChannelsPage);
+            }
+            else {
+                joinPositions[position] = getJoinPosition(position, hashChannelsPage, allChannelsPage, rawHashes[position]);
+            }
+        }
+    }
+
     long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage);
 
     void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset);
@@ -0,0 +1,384 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.HttpClient.HttpResponseFuture;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.json.JsonCodec;
+import io.airlift.log.Logger;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.SliceInput;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.prestosql.execution.TaskId;
+import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
+import io.prestosql.operator.HttpPageBufferClient.PagesResponse;
+import io.prestosql.operator.MultiplexedPagesCodec.FrameConsumer;
+import io.prestosql.operator.MultiplexedResultsRequest.BufferRequest;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.MediaType.JSON_UTF_8;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.JsonBodyGenerator.jsonBodyGenerator;
+import static io.airlift.http.client.Request.Builder.preparePost;
+import static io.airlift.http.client.ResponseHandlerUtils.propagate;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.prestosql.PrestoMediaTypes.PRESTO_MULTIPLEXED_PAGES_TYPE;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Fetches pages of remote output buffers over a few long polling requests per remote node.
+ * <p>
+ * Instead of one request per read of each buffer, reads of all buffers located on the same node are queued, and
+ * sent together in a single request. A new request is started for queued reads as long as fewer than the maximum
+ * number of requests are in flight to the node, so reads do not wait for a request held by idle buffers to return.
+ * The node answers as soon as any of the buffers has pages, with one frame per read. Each read carries a credit, the
+ * number of bytes the reader is willing to accept, which is the requested size bounded by an equal share of the
+ * maximum response size. Acknowledgements are sent with the next request to the node rather than as separate requests.
+ * <p>
+ * A read whose buffer fails only fails that read. When a whole request fails, the reads in it that are not complete
+ * are retried in requests of their own, so the failure is only reported for the buffers it affects.
+ */
+@ThreadSafe
+public class MultiplexedPageTransport
+{
+    private static final Logger log = Logger.get(MultiplexedPageTransport.class);
+
+    public static final String MULTIPLEXED_RESULTS_PATH = "/v1/exchange/results";
+
+    private static final JsonCodec<MultiplexedResultsRequest> REQUEST_CODEC = jsonCodec(MultiplexedResultsRequest.class);
+
+    private final HttpClient httpClient;
+    private final DataSize maxResponseSize;
+    private final int maxBuffersPerRequest;
+    private final int maxRequestsPerNode;
+    private final Duration maxWait;
+
+    private final ConcurrentMap<URI, NodeChannel> channels = new ConcurrentHashMap<>();
+
+    public MultiplexedPageTransport(HttpClient httpClient, DataSize maxResponseSize, int maxBuffersPerRequest, int maxRequestsPerNode, Duration maxWait)
+    {
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+        this.maxResponseSize = requireNonNull(maxResponseSize, "maxResponseSize is null");
+        checkArgument(maxBuffersPerRequest > 0, "maxBuffersPerRequest must be at least 1: %s", maxBuffersPerRequest);
+        this.maxBuffersPerRequest = maxBuffersPerRequest;
+        checkArgument(maxRequestsPerNode > 0, "maxRequestsPerNode must be at least 1: %s", maxRequestsPerNode);
+        this.maxRequestsPerNode = maxRequestsPerNode;
+        this.maxWait = requireNonNull(maxWait, "maxWait is null");
+    }
+
+    /**
+     * Reads pages of the buffer at location, starting from token, which also acknowledges all pages before it
+     */
+    public ListenableFuture<PagesResponse> getPages(URI location, long token, DataSize maxSize, @Nullable String taskInstanceId)
+    {
+        PendingRequest request = new PendingRequest(location, token, maxSize, taskInstanceId, false);
+        getChannel(location).add(request);
+        return request.getFuture();
+    }
+
+    /**
+     * Acknowledges pages of the buffer at location up to token. The acknowledgement is sent with the next request to the node.
+     */
+    public void acknowledge(URI location, long token, @Nullable String taskInstanceId)
+    {
+        getChannel(location).add(new PendingRequest(location, token, new DataSize(0, BYTE), taskInstanceId, true));
+    }
+
+    private NodeChannel getChannel(URI location)
+    {
+        URI nodeUri = uriBuilderFrom(location).replacePath(MULTIPLEXED_RESULTS_PATH).build();
+        return channels.computeIfAbsent(nodeUri, NodeChannel::new);
+    }
+
+    private class NodeChannel
+    {
+        private final URI uri;
+
+        @GuardedBy("this")
+        private final Deque<PendingRequest> queuedRequests = new ArrayDeque<>();
+        @GuardedBy("this")
+        private int requestsInFlight;
+
+        private NodeChannel(URI uri)
+        {
+            this.uri = requireNonNull(uri, "uri is null");
+        }
+
+        public void add(PendingRequest request)
+        {
+            synchronized (this) {
+                queuedRequests.add(request);
+            }
+            sendIfNecessary();
+        }
+
+        private void sendIfNecessary()
+        {
+            while (true) {
+                List<PendingRequest> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    return;
+                }
+                try {
+                    send(batch);
+                }
+                catch (RuntimeException e) {
+                    batch.forEach(request -> request.getFuture().setException(e));
+                    synchronized (this) {
+                        requestsInFlight--;
+                    }
+                }
+            }
+        }
+
+        private synchronized List<PendingRequest> nextBatch()
+        {
+            List<PendingRequest> batch = new ArrayList<>();
+            if (requestsInFlight >= maxRequestsPerNode) {
+                return batch;
+            }
+            while (batch.size() < maxBuffersPerRequest && !queuedRequests.isEmpty()) {
+                PendingRequest request = queuedRequests.peek();
+                // a request retried after the request it was sent with failed is sent alone
+                if (request.isIsolated() && !batch.isEmpty()) {
+                    break;
+                }
+                queuedRequests.poll();
+                // the reader closed the buffer client while the read was queued
+                if (request.getFuture().isCancelled()) {
+                    continue;
+                }
+                batch.add(request);
+                if (request.isIsolated()) {
+                    break;
+                }
+            }
+            if (!batch.isEmpty()) {
+                requestsInFlight++;
+            }
+            return batch;
+        }
+
+        private void send(List<PendingRequest> batch)
+        {
+            long reads = batch.stream().filter(request -> !request.isAcknowledgeOnly()).count();
+            long creditShare = Math.max(maxResponseSize.toBytes() / Math.max(reads, 1), 1);
+            List<BufferRequest> buffers = batch.stream()
+                    .map(request -> request.toBufferRequest(creditShare))
+                    .collect(toImmutableList());
+
+            Request request = preparePost()
+                    .setUri(uri)
+                    .setHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                    .setBodyGenerator(jsonBodyGenerator(REQUEST_CODEC, new MultiplexedResultsRequest(buffers, maxWait)))
+                    .build();
+            HttpResponseFuture<Void> responseFuture = httpClient.executeAsync(request, new MultiplexedResponseHandler(batch));
+            Futures.addCallback(responseFuture, new FutureCallback<Void>()
+            {
+                @Override
+                public void onSuccess(@Nullable Void result)
+                {
+                    requestFinished();
+                }
+
+                @Override
+                public void onFailure(Throwable t)
+                {
+                    log.debug("Multiplexed request to %s failed %s", uri, t);
+                    requestFailed(batch, t);
+                    requestFinished();
+                }
+            }, directExecutor());
+        }
+
+        private void requestFailed(List<PendingRequest> batch, Throwable cause)
+        {
+            List<PendingRequest> retries = new ArrayList<>();
+            for (PendingRequest request : batch) {
+                // reads answered before the response failed are not affected
+                if (request.getFuture().isDone()) {
+                    continue;
+                }
+                if (batch.size() == 1 || request.isIsolated()) {
+                    request.getFuture().setException(cause);
+                }
+                else {
+                    // the failure may be caused by any of the buffers in the request, retry each of them on its own
+                    retries.add(request);
+                }
+            }
+            synchronized (this) {
+                for (int i = retries.size() - 1; i >= 0; i--) {
+                    PendingRequest request = retries.get(i);
+                    request.isolate();
+                    queuedRequests.addFirst(request);
+                }
+            }
+        }
+
+        private void requestFinished()
+        {
+            synchronized (this) {
+                requestsInFlight--;
+            }
+            sendIfNecessary();
+        }
+    }
+
+    private static class PendingRequest
+    {
+        private final TaskId taskId;
+        private final OutputBufferId bufferId;
+        private final long token;
+        private final DataSize maxSize;
+        private final String taskInstanceId;
+        private final boolean acknowledgeOnly;
+        private final SettableFuture<PagesResponse> future = SettableFuture.create();
+        // only read and written while holding the lock of the node channel
+        private boolean isolated;
+
+        private PendingRequest(URI location, long token, DataSize maxSize, @Nullable String taskInstanceId, boolean acknowledgeOnly)
+        {
+            // buffer locations are of the form .../v1/task/{taskId}/results/{bufferId}
+            List<String> segments = ImmutableList.copyOf(location.getPath().split("/"));
+            int size = segments.size();
+            checkArgument(size >= 3 && segments.get(size - 2).equals("results"), "Invalid buffer location: %s", location);
+            this.taskId = TaskId.valueOf(segments.get(size - 3));
+            this.bufferId = OutputBufferId.fromString(segments.get(size - 1));
+            this.token = token;
+            this.maxSize = requireNonNull(maxSize, "maxSize is null");
+            this.taskInstanceId = isNullOrEmpty(taskInstanceId) ? null : taskInstanceId;
+            this.acknowledgeOnly = acknowledgeOnly;
+        }
+
+        public boolean isAcknowledgeOnly()
+        {
+            return acknowledgeOnly;
+        }
+
+        public boolean isIsolated()
+        {
+            return isolated;
+        }
+
+        public void isolate()
+        {
+            isolated = true;
+        }
+
+        public SettableFuture<PagesResponse> getFuture()
+        {
+            return future;
+        }
+
+        public BufferRequest toBufferRequest(long creditShare)
+        {
+            DataSize credit = new DataSize(Math.min(maxSize.toBytes(), creditShare), BYTE);
+            return new BufferRequest(taskId, bufferId, token, credit, taskInstanceId, acknowledgeOnly);
+        }
+    }
+
+    private static class MultiplexedResponseHandler
+            implements ResponseHandler<Void, RuntimeException>
+    {
+        private final List<PendingRequest> batch;
+
+        public MultiplexedResponseHandler(List<PendingRequest> batch)
+        {
+            this.batch = ImmutableList.copyOf(requireNonNull(batch, "batch is null"));
+        }
+
+        @Override
+        public Void handleException(Request request, Exception exception)
+        {
+            throw propagate(request, exception);
+        }
+
+        @Override
+        public Void handle(Request request, Response response)
+        {
+            if (response.getStatusCode() != HttpStatus.OK.code()) {
+                throw new PageTransportErrorException(format("Expected response code from %s to be 200, but was %s", request.getUri(), response.getStatusCode()));
+            }
+            String contentType = response.getHeader(CONTENT_TYPE);
+            if (contentType == null || !MediaType.parse(contentType).is(PRESTO_MULTIPLEXED_PAGES_TYPE)) {
+                throw new PageTransportErrorException(format("Expected %s response from %s but got %s", PRESTO_MULTIPLEXED_PAGES_TYPE, request.getUri(), contentType));
+            }
+
+            try (SliceInput input = new InputStreamSliceInput(response.getInputStream())) {
+                FrameConsumer consumer = new FrameConsumer()
+                {
+                    @Override
+                    public void received(int index, PagesResponse pagesResponse)
+                    {
+                        batch.get(index).getFuture().set(pagesResponse);
+                    }
+
+                    @Override
+                    public void failed(int index, String message)
+                    {
+                        batch.get(index).getFuture().setException(new PageTransportErrorException(format("Error fetching %s: %s", request.getUri(), message)));
+                    }
+                };
+                while (input.isReadable()) {
+                    MultiplexedPagesCodec.readFrame(input, consumer);
+                }
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            for (PendingRequest pendingRequest : batch) {
+                if (pendingRequest.isAcknowledgeOnly()) {
+                    pendingRequest.getFuture().set(null);
+                }
+                else if (!pendingRequest.getFuture().isDone()) {
+                    pendingRequest.getFuture().setException(new PageTransportErrorException(format("Response from %s is missing a buffer read", request.getUri())));
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.execution.buffer.BufferResult;
+import io.prestosql.operator.HttpPageBufferClient.PagesResponse;
+
+import java.util.List;
+
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readSerializedPage;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPage;
+import static io.prestosql.operator.HttpPageBufferClient.PagesResponse.createPagesResponse;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Frames of a multiplexed results response. Each read of a {@link MultiplexedResultsRequest} is answered by one frame:
+ * <pre>
+ * int    index of the read in the request
+ * byte   RESULT or ERROR
+ * RESULT: long token, long nextToken, boolean bufferComplete, string taskInstanceId, int pageCount, pages
+ * ERROR:  string message
+ * </pre>
+ */
+public final class MultiplexedPagesCodec
+{
+    private static final byte RESULT = 0;
+    private static final byte ERROR = 1;
+
+    private MultiplexedPagesCodec() {}
+
+    public static void writeResult(SliceOutput output, int index, BufferResult result)
+    {
+        output.writeInt(index);
+        output.writeByte(RESULT);
+        output.writeLong(result.getToken());
+        output.writeLong(result.getNextToken());
+        output.writeBoolean(result.isBufferComplete());
+        writeString(output, result.getTaskInstanceId());
+        List<SerializedPage> pages = result.getSerializedPages();
+        output.writeInt(pages.size());
+        for (SerializedPage page : pages) {
+            writeSerializedPage(output, page);
+        }
+    }
+
+    public static void writeError(SliceOutput output, int index, String message)
+    {
+        output.writeInt(index);
+        output.writeByte(ERROR);
+        writeString(output, message);
+    }
+
+    /**
+     * Reads the next frame and passes it to the consumer
+     */
+    public static void readFrame(SliceInput input, FrameConsumer consumer)
+    {
+        int index = input.readInt();
+        byte kind = input.readByte();
+        if (kind == ERROR) {
+            consumer.failed(index, readString(input));
+            return;
+        }
+        if (kind != RESULT) {
+            throw new PageTransportErrorException(format("Unknown multiplexed frame kind: %s", kind));
+        }
+
+        long token = input.readLong();
+        long nextToken = input.readLong();
+        boolean complete = input.readBoolean();
+        String taskInstanceId = readString(input);
+        int pageCount = input.readInt();
+        ImmutableList.Builder<SerializedPage> pages = ImmutableList.builderWithExpectedSize(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            pages.add(readSerializedPage(input));
+        }
+        consumer.received(index, createPagesResponse(taskInstanceId, token, nextToken, pages.build(), complete));
+    }
+
+    private static void writeString(SliceOutput output, String value)
+    {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.writeBytes(bytes);
+    }
+
+    private static String readString(SliceInput input)
+    {
+        byte[] bytes = new byte[input.readInt()];
+        input.readBytes(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    public interface FrameConsumer
+    {
+        void received(int index, PagesResponse response);
+
+        void failed(int index, String message);
+    }
+}
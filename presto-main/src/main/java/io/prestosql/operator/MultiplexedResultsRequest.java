@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.prestosql.execution.TaskId;
+import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads and acknowledgements of several output buffers on the same node, sent in one multiplexed request.
+ * The node responds with one frame per read, see {@link MultiplexedPagesCodec}.
+ */
+public class MultiplexedResultsRequest
+{
+    private final List<BufferRequest> buffers;
+    private final Duration maxWait;
+
+    @JsonCreator
+    public MultiplexedResultsRequest(
+            @JsonProperty("buffers") List<BufferRequest> buffers,
+            @JsonProperty("maxWait") Duration maxWait)
+    {
+        this.buffers = ImmutableList.copyOf(requireNonNull(buffers, "buffers is null"));
+        this.maxWait = requireNonNull(maxWait, "maxWait is null");
+    }
+
+    @JsonProperty
+    public List<BufferRequest> getBuffers()
+    {
+        return buffers;
+    }
+
+    @JsonProperty
+    public Duration getMaxWait()
+    {
+        return maxWait;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("buffers", buffers.size())
+                .add("maxWait", maxWait)
+                .toString();
+    }
+
+    public static class BufferRequest
+    {
+        private final TaskId taskId;
+        private final OutputBufferId bufferId;
+        private final long token;
+        private final DataSize maxSize;
+        private final String taskInstanceId;
+        private final boolean acknowledgeOnly;
+
+        @JsonCreator
+        public BufferRequest(
+                @JsonProperty("taskId") TaskId taskId,
+                @JsonProperty("bufferId") OutputBufferId bufferId,
+                @JsonProperty("token") long token,
+                @JsonProperty("maxSize") DataSize maxSize,
+                @JsonProperty("taskInstanceId") @Nullable String taskInstanceId,
+                @JsonProperty("acknowledgeOnly") boolean acknowledgeOnly)
+        {
+            this.taskId = requireNonNull(taskId, "taskId is null");
+            this.bufferId = requireNonNull(bufferId, "bufferId is null");
+            this.token = token;
+            this.maxSize = requireNonNull(maxSize, "maxSize is null");
+            this.taskInstanceId = taskInstanceId;
+            this.acknowledgeOnly = acknowledgeOnly;
+        }
+
+        @JsonProperty
+        public TaskId getTaskId()
+        {
+            return taskId;
+        }
+
+        @JsonProperty
+        public OutputBufferId getBufferId()
+        {
+            return bufferId;
+        }
+
+        @JsonProperty
+        public long getToken()
+        {
+            return token;
+        }
+
+        /**
+         * Credit granted by the reader: the buffer sends pages up to this size, or a single larger page
+         */
+        @JsonProperty
+        public DataSize getMaxSize()
+        {
+            return maxSize;
+        }
+
+        @Nullable
+        @JsonProperty
+        public String getTaskInstanceId()
+        {
+            return taskInstanceId;
+        }
+
+        /**
+         * Pages up to the token are acknowledged, but no pages are read
+         */
+        @JsonProperty
+        public boolean isAcknowledgeOnly()
+        {
+            return acknowledgeOnly;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("taskId", taskId)
+                    .add("bufferId", bufferId)
+                    .add("token", token)
+                    .add("maxSize", maxSize)
+                    .add("acknowledgeOnly", acknowledgeOnly)
+                    .toString();
+        }
+    }
+}
@@ -67,7 +67,7 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
 //TODO-cp-I2DSGQ: update when operatorContext is actually supported.
 @RestorableConfig(uncapturedFields = {"planNodeId", "driverContext", "executor", "physicalInputDataSize", "physicalInputPositions",
         "internalNetworkInputDataSize", "internalNetworkPositions", "addInputTiming", "inputDataSize", "inputPositions", "getOutputTiming", "outputDataSize", "outputPositions",
-        "physicalWrittenDataSize", "memoryFuture", "revocableMemoryFuture", "blockedMonitor", "blockedWallNanos", "finishTiming", "spillContext", "infoSupplier",
+        "physicalWrittenDataSize", "memoryFuture", "revocableMemoryFuture", "snapshotUploadFuture", "blockedMonitor", "blockedWallNanos", "finishTiming", "spillContext", "infoSupplier",
         "nestedOperatorStatsSupplier", "peakUserMemoryReservation", "peakSystemMemoryReservation", "peakRevocableMemoryReservation", "peakTotalMemoryReservation",
         "memoryRevokingRequested", "memoryRevocationRequestListener", "operatorMemoryContext"})
 public class OperatorContext
@@ -97,6 +97,7 @@ public class OperatorContext
 
     private final AtomicReference<SettableFuture<?>> memoryFuture;
     private final AtomicReference<SettableFuture<?>> revocableMemoryFuture;
+    private final AtomicReference<ListenableFuture<?>> snapshotUploadFuture = new AtomicReference<>(NOT_BLOCKED);
     private final AtomicReference<BlockedMonitor> blockedMonitor = new AtomicReference<>();
     private final AtomicLong blockedWallNanos = new AtomicLong();
 
@@ -261,6 +262,20 @@ public class OperatorContext
         return revocableMemoryFuture.get();
     }
 
+    /**
+     * After this operator captured a snapshot state, completes when the states waiting to be written
+     * to the snapshot store are back within the limit.
+     */
+    public ListenableFuture<?> isWaitingForSnapshotUpload()
+    {
+        return snapshotUploadFuture.get();
+    }
+
+    public void setSnapshotUploadFuture(ListenableFuture<?> future)
+    {
+        snapshotUploadFuture.set(requireNonNull(future, "future is null"));
+    }
+
     // caller should close this context as it's a new context
     public LocalMemoryContext newLocalSystemMemoryContext(String allocationTag)
     {
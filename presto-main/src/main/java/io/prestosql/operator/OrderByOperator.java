@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.snapshot.IncrementalRestorable;
 import io.prestosql.snapshot.SingleInputSnapshotState;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
@@ -48,7 +49,7 @@ import static java.util.Objects.requireNonNull;
 @RestorableConfig(uncapturedFields = {"sortChannels", "sortOrder", "outputChannels", "sourceTypes", "spillerFactory",
         "orderingCompiler", "spiller", "spillInProgress", "finishMemoryRevoke", "sortedPages", "state", "snapshotState"})
 public class OrderByOperator
-        implements Operator
+        implements Operator, IncrementalRestorable
 {
     public static class OrderByOperatorFactory
             implements OperatorFactory
@@ -438,6 +439,34 @@ public class OrderByOperator
         this.pageIndex.restore(myState.pageIndex, serdeProvider);
     }
 
+    @Override
+    public boolean isIncrementalCaptureSupported()
+    {
+        // Pages are only added to the index while input is received and nothing has been spilled
+        return state == State.NEEDS_INPUT && !spiller.isPresent() && pageIndex.isIncrementalCaptureSupported();
+    }
+
+    @Override
+    public Object captureIncremental(BlockEncodingSerdeProvider serdeProvider)
+    {
+        OrderByOperatorState myState = new OrderByOperatorState();
+        myState.operatorContext = operatorContext.capture(serdeProvider);
+        myState.revocableMemoryContext = revocableMemoryContext.getBytes();
+        myState.localUserMemoryContext = localUserMemoryContext.getBytes();
+        myState.pageIndex = pageIndex.captureIncremental(serdeProvider);
+        return myState;
+    }
+
+    @Override
+    public void restoreIncremental(Object state, BlockEncodingSerdeProvider serdeProvider)
+    {
+        OrderByOperatorState myState = (OrderByOperatorState) state;
+        this.operatorContext.restore(myState.operatorContext, serdeProvider);
+        this.revocableMemoryContext.setBytes(myState.revocableMemoryContext);
+        this.localUserMemoryContext.setBytes(myState.localUserMemoryContext);
+        this.pageIndex.restoreIncremental(myState.pageIndex, serdeProvider);
+    }
+
     private static class OrderByOperatorState
             implements Serializable
     {
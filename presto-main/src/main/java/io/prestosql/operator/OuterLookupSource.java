@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
@@ -88,6 +89,18 @@ public final class OuterLookupSource
         return lookupSource.getJoinPosition(position, hashChannelsPage, allChannelsPage);
     }
 
+    @Override
+    public boolean supportsBatchLookup()
+    {
+        return lookupSource.supportsBatchLookup();
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        lookupSource.getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage, rawHashes, joinPositions);
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
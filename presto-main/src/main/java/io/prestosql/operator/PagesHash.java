@@ -32,6 +32,7 @@ import static java.util.Objects.requireNonNull;
 
 // This implementation assumes arrays used in the hash are always a power of 2
 public final class PagesHash
+        implements JoinPagesHash
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesHash.class).instanceSize();
     private static final DataSize CACHE_SIZE = new DataSize(128, KILOBYTE);
@@ -124,36 +125,43 @@ public final class PagesHash
         expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
     }
 
+    @Override
     public final int getChannelCount()
     {
         return channelCount;
     }
 
+    @Override
     public int getPositionCount()
     {
         return addresses.size();
     }
 
+    @Override
     public long getInMemorySizeInBytes()
     {
         return INSTANCE_SIZE + size;
     }
 
+    @Override
     public long getHashCollisions()
     {
         return hashCollisions;
     }
 
+    @Override
     public double getExpectedHashCollisions()
     {
         return expectedHashCollisions;
     }
 
+    @Override
     public int getAddressIndex(int position, Page hashChannelsPage)
     {
         return getAddressIndex(position, hashChannelsPage, pagesHashStrategy.hashRow(position, hashChannelsPage));
     }
 
+    @Override
     public int getAddressIndex(int rightPosition, Page hashChannelsPage, long rawHash)
     {
         int pos = getHashPosition(rawHash, mask);
@@ -168,6 +176,7 @@ public final class PagesHash
         return -1;
     }
 
+    @Override
     public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.getLong(toIntExact(position));
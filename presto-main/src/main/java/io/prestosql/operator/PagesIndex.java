@@ -25,6 +25,7 @@ import io.prestosql.Session;
 import io.prestosql.geospatial.Rectangle;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.SpatialIndexBuilderOperator.SpatialPredicate;
+import io.prestosql.snapshot.IncrementalRestorable;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.Block;
@@ -32,7 +33,6 @@ import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
-import io.prestosql.spi.snapshot.Restorable;
 import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.analyzer.FeaturesConfig;
@@ -60,6 +60,7 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.units.DataSize.Unit.BYTE;
@@ -78,9 +79,9 @@ import static java.util.Objects.requireNonNull;
  * <li>Positional output via the {@link #appendTo} method</li>
  * </ul>
  */
-@RestorableConfig(uncapturedFields = {"orderingCompiler", "joinCompiler", "metadata", "types"})
+@RestorableConfig(uncapturedFields = {"orderingCompiler", "joinCompiler", "metadata", "types", "capturedPositionCount"})
 public class PagesIndex
-        implements Swapper, Restorable
+        implements Swapper, IncrementalRestorable
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesIndex.class).instanceSize();
     private static final Logger log = Logger.get(PagesIndex.class);
@@ -99,6 +100,10 @@ public class PagesIndex
     private long pagesMemorySize;
     private long estimatedSize;
 
+    // Number of positions when the state was last captured or restored. Positions added after them, and their blocks,
+    // can be captured incrementally. -1 if positions before them were modified in place since then.
+    private int capturedPositionCount = -1;
+
     private PagesIndex(
             OrderingCompiler orderingCompiler,
             JoinCompiler joinCompiler,
@@ -203,6 +208,7 @@ public class PagesIndex
         positionCount = 0;
         nextBlockToCompact = 0;
         pagesMemorySize = 0;
+        capturedPositionCount = -1;
 
         estimatedSize = calculateEstimatedSize();
     }
@@ -383,6 +389,9 @@ public class PagesIndex
 
     public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders, int startPosition, int endPosition)
     {
+        if (startPosition < capturedPositionCount) {
+            capturedPositionCount = -1;
+        }
         createPagesIndexComparator(sortChannels, sortOrders).sort(this, startPosition, endPosition);
     }
 
@@ -521,7 +530,11 @@ public class PagesIndex
                 channels,
                 filterFunctionFactory,
                 sortChannel,
-                searchFunctionFactories);
+                searchFunctionFactories,
+                joinChannels,
+                joinChannels.stream()
+                        .map(types::get)
+                        .collect(toImmutableList()));
     }
 
     private List<Integer> rangeList(int endExclusive)
@@ -612,6 +625,7 @@ public class PagesIndex
         myState.positionCount = positionCount;
         myState.pagesMemorySize = pagesMemorySize;
         myState.estimatedSize = estimatedSize;
+        markCaptured();
         return myState;
     }
 
@@ -635,6 +649,78 @@ public class PagesIndex
         this.positionCount = myState.positionCount;
         this.pagesMemorySize = myState.pagesMemorySize;
         this.estimatedSize = myState.estimatedSize;
+        markCaptured();
+    }
+
+    @Override
+    public boolean isIncrementalCaptureSupported()
+    {
+        return capturedPositionCount >= 0;
+    }
+
+    @Override
+    public Object captureIncremental(BlockEncodingSerdeProvider serdeProvider)
+    {
+        checkState(isIncrementalCaptureSupported(), "pages index was modified in place since last capture");
+        BlockEncodingSerde blockSerde = serdeProvider.getBlockEncodingSerde();
+        PagesIndexIncrementalState myState = new PagesIndexIncrementalState();
+        myState.valueAddresses = new long[valueAddresses.size() - capturedPositionCount];
+        valueAddresses.getElements(capturedPositionCount, myState.valueAddresses, 0, myState.valueAddresses.length);
+        // Positions added since the last capture are the ones of the blocks added since then
+        int capturedBlockCount = channels.length > 0 ? channels[0].size() : 0;
+        for (long address : myState.valueAddresses) {
+            capturedBlockCount = Math.min(capturedBlockCount, decodeSliceIndex(address));
+        }
+        myState.channels = new byte[channels.length][][];
+        for (int i = 0; i < channels.length; i++) {
+            myState.channels[i] = new byte[channels[i].size() - capturedBlockCount][];
+            for (int j = 0; j < myState.channels[i].length; j++) {
+                SliceOutput sliceOutput = new DynamicSliceOutput(0);
+                blockSerde.writeBlock(sliceOutput, channels[i].get(capturedBlockCount + j));
+                myState.channels[i][j] = sliceOutput.getUnderlyingSlice().getBytes();
+            }
+        }
+        myState.nextBlockToCompact = nextBlockToCompact;
+        myState.positionCount = positionCount;
+        myState.pagesMemorySize = pagesMemorySize;
+        myState.estimatedSize = estimatedSize;
+        markCaptured();
+        return myState;
+    }
+
+    @Override
+    public void restoreIncremental(Object state, BlockEncodingSerdeProvider serdeProvider)
+    {
+        BlockEncodingSerde blockSerde = serdeProvider.getBlockEncodingSerde();
+        PagesIndexIncrementalState myState = (PagesIndexIncrementalState) state;
+        this.valueAddresses.addElements(this.valueAddresses.size(), myState.valueAddresses);
+        for (int i = 0; i < myState.channels.length; i++) {
+            for (byte[] blockState : myState.channels[i]) {
+                Slice input = Slices.wrappedBuffer(blockState);
+                this.channels[i].add(blockSerde.readBlock(input.getInput()));
+            }
+        }
+        this.nextBlockToCompact = myState.nextBlockToCompact;
+        this.positionCount = myState.positionCount;
+        this.pagesMemorySize = myState.pagesMemorySize;
+        this.estimatedSize = myState.estimatedSize;
+        markCaptured();
+    }
+
+    private void markCaptured()
+    {
+        capturedPositionCount = valueAddresses.size();
+    }
+
+    private static class PagesIndexIncrementalState
+            implements Serializable
+    {
+        private long[] valueAddresses;
+        private byte[][][] channels;
+        private int nextBlockToCompact;
+        private int positionCount;
+        private long pagesMemorySize;
+        private long estimatedSize;
     }
 
     private static class PagesIndexState
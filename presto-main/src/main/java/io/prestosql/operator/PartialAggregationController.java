@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decides, for all partial aggregation operators of one plan node in a task, whether the partial aggregation is
+ * worth doing. Each operator reports the number of input rows and the number of groups of its hash table. Once the
+ * operators have seen at least minRows rows, and the groups are more than uniqueRowsRatioThreshold of the rows, the
+ * partial aggregation hardly reduces the data sent to the final aggregation, and the operators stop aggregating and
+ * pass their input through in intermediate form instead.
+ */
+@ThreadSafe
+public class PartialAggregationController
+{
+    private final long minRows;
+    private final double uniqueRowsRatioThreshold;
+
+    @GuardedBy("this")
+    private long totalRows;
+    @GuardedBy("this")
+    private long totalUniqueRows;
+    private volatile boolean aggregationDisabled;
+
+    public PartialAggregationController(long minRows, double uniqueRowsRatioThreshold)
+    {
+        checkArgument(minRows >= 0, "minRows is negative");
+        checkArgument(uniqueRowsRatioThreshold >= 0 && uniqueRowsRatioThreshold <= 1, "uniqueRowsRatioThreshold must be between 0 and 1");
+        this.minRows = minRows;
+        this.uniqueRowsRatioThreshold = uniqueRowsRatioThreshold;
+    }
+
+    public long getMinRows()
+    {
+        return minRows;
+    }
+
+    public boolean isAggregationDisabled()
+    {
+        return aggregationDisabled;
+    }
+
+    public synchronized void onFlush(long rows, long uniqueRows)
+    {
+        if (aggregationDisabled) {
+            return;
+        }
+        totalRows += rows;
+        totalUniqueRows += uniqueRows;
+        if (totalRows >= minRows && totalUniqueRows > totalRows * uniqueRowsRatioThreshold) {
+            aggregationDisabled = true;
+        }
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return toStringHelper(this)
+                .add("minRows", minRows)
+                .add("uniqueRowsRatioThreshold", uniqueRowsRatioThreshold)
+                .add("totalRows", totalRows)
+                .add("totalUniqueRows", totalUniqueRows)
+                .add("aggregationDisabled", aggregationDisabled)
+                .toString();
+    }
+}
@@ -161,6 +161,57 @@ public class PartitionedLookupSource
         return encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
     }
 
+    @Override
+    public boolean supportsBatchLookup()
+    {
+        return Arrays.stream(lookupSources).allMatch(LookupSource::supportsBatchLookup);
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        if (lookupSources.length == 1) {
+            lookupSources[0].getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage, rawHashes, joinPositions);
+            encodePartitionedJoinPositions(0, positions, positionCount, joinPositions);
+            return;
+        }
+
+        long[] hashes = rawHashes;
+        if (hashes == null) {
+            hashes = new long[hashChannelsPage.getPositionCount()];
+            for (int i = 0; i < positionCount; i++) {
+                hashes[positions[i]] = partitionGenerator.getRawHash(hashChannelsPage, positions[i]);
+            }
+        }
+
+        // group the positions by partition, so each partition is probed with a batch of positions
+        int[] partitions = new int[positionCount];
+        int[] partitionOffsets = new int[lookupSources.length + 1];
+        for (int i = 0; i < positionCount; i++) {
+            partitions[i] = partitionGenerator.getPartition(hashes[positions[i]]);
+            partitionOffsets[partitions[i] + 1]++;
+        }
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+        int[] partitionedPositions = new int[positionCount];
+        int[] nextOffsets = Arrays.copyOf(partitionOffsets, lookupSources.length);
+        for (int i = 0; i < positionCount; i++) {
+            partitionedPositions[nextOffsets[partitions[i]]++] = positions[i];
+        }
+
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            int offset = partitionOffsets[partition];
+            int length = partitionOffsets[partition + 1] - offset;
+            if (length == 0) {
+                continue;
+            }
+            int[] partitionPositions = Arrays.copyOfRange(partitionedPositions, offset, offset + length);
+            lookupSources[partition].getJoinPositions(partitionPositions, length, hashChannelsPage, allChannelsPage, hashes, joinPositions);
+            encodePartitionedJoinPositions(partition, partitionPositions, length, joinPositions);
+        }
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -235,6 +286,16 @@ public class PartitionedLookupSource
         return (((long) joinPosition) << shiftSize) | (partition);
     }
 
+    private void encodePartitionedJoinPositions(int partition, int[] positions, int positionCount, long[] joinPositions)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (joinPositions[position] >= 0) {
+                joinPositions[position] = encodePartitionedJoinPosition(partition, toIntExact(joinPositions[position]));
+            }
+        }
+    }
+
     private static class PartitionedLookupOuterPositionIterator
             implements OuterPositionIterator
     {
@@ -36,7 +36,9 @@ import io.prestosql.spi.type.Type;
 import io.prestosql.util.Mergeable;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -51,6 +53,7 @@ import static io.prestosql.execution.buffer.PageSplitterUtil.splitPage;
 import static io.prestosql.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 @RestorableConfig(uncapturedFields = {"pagePreprocessor", "snapshotState"})
@@ -67,6 +70,7 @@ public class PartitionedOutputOperator
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
         private final DataSize maxMemory;
+        private final Optional<DataSize> coalescingTargetPageSize;
 
         public PartitionedOutputFactory(
                 PartitionFunction partitionFunction,
@@ -76,6 +80,19 @@ public class PartitionedOutputOperator
                 OptionalInt nullChannel,
                 OutputBuffer outputBuffer,
                 DataSize maxMemory)
+        {
+            this(partitionFunction, partitionChannels, partitionConstants, replicatesAnyRow, nullChannel, outputBuffer, maxMemory, Optional.empty());
+        }
+
+        public PartitionedOutputFactory(
+                PartitionFunction partitionFunction,
+                List<Integer> partitionChannels,
+                List<Optional<NullableValue>> partitionConstants,
+                boolean replicatesAnyRow,
+                OptionalInt nullChannel,
+                OutputBuffer outputBuffer,
+                DataSize maxMemory,
+                Optional<DataSize> coalescingTargetPageSize)
         {
             this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
             this.partitionChannels = requireNonNull(partitionChannels, "partitionChannels is null");
@@ -84,6 +101,7 @@ public class PartitionedOutputOperator
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
+            this.coalescingTargetPageSize = requireNonNull(coalescingTargetPageSize, "coalescingTargetPageSize is null");
         }
 
         @Override
@@ -106,7 +124,8 @@ public class PartitionedOutputOperator
                     replicatesAnyRow,
                     nullChannel,
                     outputBuffer,
-                    maxMemory);
+                    maxMemory,
+                    coalescingTargetPageSize);
         }
     }
 
@@ -124,6 +143,7 @@ public class PartitionedOutputOperator
         private final OptionalInt nullChannel;
         private final OutputBuffer outputBuffer;
         private final DataSize maxMemory;
+        private final Optional<DataSize> coalescingTargetPageSize;
         // Snapshot: When a factory is duplicated, factory instances share the same OutputBuffer.
         // All these factory instances now share this duplicateCount, so only the last factory that receives "noMoreOperators"
         // (the one that decrements the count to 0) should inform OutputBuffer about "setNoMoreInputChannels".
@@ -154,6 +174,36 @@ public class PartitionedOutputOperator
                     nullChannel,
                     outputBuffer,
                     maxMemory,
+                    Optional.empty());
+        }
+
+        public PartitionedOutputOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<Type> sourceTypes,
+                Function<Page, Page> pagePreprocessor,
+                PartitionFunction partitionFunction,
+                List<Integer> partitionChannels,
+                List<Optional<NullableValue>> partitionConstants,
+                boolean replicatesAnyRow,
+                OptionalInt nullChannel,
+                OutputBuffer outputBuffer,
+                DataSize maxMemory,
+                Optional<DataSize> coalescingTargetPageSize)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    pagePreprocessor,
+                    partitionFunction,
+                    partitionChannels,
+                    partitionConstants,
+                    replicatesAnyRow,
+                    nullChannel,
+                    outputBuffer,
+                    maxMemory,
+                    coalescingTargetPageSize,
                     new AtomicInteger(1));
         }
 
@@ -169,6 +219,7 @@ public class PartitionedOutputOperator
                 OptionalInt nullChannel,
                 OutputBuffer outputBuffer,
                 DataSize maxMemory,
+                Optional<DataSize> coalescingTargetPageSize,
                 AtomicInteger duplicateCount)
         {
             this.operatorId = operatorId;
@@ -182,6 +233,7 @@ public class PartitionedOutputOperator
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
+            this.coalescingTargetPageSize = requireNonNull(coalescingTargetPageSize, "coalescingTargetPageSize is null");
             this.duplicateCount = requireNonNull(duplicateCount, "duplicateCount is null");
         }
 
@@ -202,7 +254,8 @@ public class PartitionedOutputOperator
                     replicatesAnyRow,
                     nullChannel,
                     outputBuffer,
-                    maxMemory);
+                    maxMemory,
+                    coalescingTargetPageSize);
         }
 
         @Override
@@ -230,6 +283,7 @@ public class PartitionedOutputOperator
                     nullChannel,
                     outputBuffer,
                     maxMemory,
+                    coalescingTargetPageSize,
                     duplicateCount);
         }
     }
@@ -255,6 +309,35 @@ public class PartitionedOutputOperator
             OptionalInt nullChannel,
             OutputBuffer outputBuffer,
             DataSize maxMemory)
+    {
+        this(
+                id,
+                operatorContext,
+                sourceTypes,
+                pagePreprocessor,
+                partitionFunction,
+                partitionChannels,
+                partitionConstants,
+                replicatesAnyRow,
+                nullChannel,
+                outputBuffer,
+                maxMemory,
+                Optional.empty());
+    }
+
+    public PartitionedOutputOperator(
+            String id,
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            Function<Page, Page> pagePreprocessor,
+            PartitionFunction partitionFunction,
+            List<Integer> partitionChannels,
+            List<Optional<NullableValue>> partitionConstants,
+            boolean replicatesAnyRow,
+            OptionalInt nullChannel,
+            OutputBuffer outputBuffer,
+            DataSize maxMemory,
+            Optional<DataSize> coalescingTargetPageSize)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
@@ -268,7 +351,8 @@ public class PartitionedOutputOperator
                 outputBuffer,
                 operatorContext.getDriverContext().getSerde(),
                 sourceTypes,
-                maxMemory);
+                maxMemory,
+                coalescingTargetPageSize);
 
         operatorContext.setInfoSupplier(this::getInfo);
         this.systemMemoryContext = operatorContext.newLocalSystemMemoryContext(PartitionedOutputOperator.class.getSimpleName());
@@ -377,8 +461,13 @@ public class PartitionedOutputOperator
         private final PageBuilder[] pageBuilders;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
+        private final boolean coalescing;
+        private final long maxBufferedBytes;
+        private final int maxSerializedPageSize;
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        private final AtomicLong serializedPagesAdded = new AtomicLong();
+        private final AtomicLong serializedBytesAdded = new AtomicLong();
         private boolean hasAnyRowBeenReplicated;
 
         public PagePartitioner(
@@ -391,7 +480,8 @@ public class PartitionedOutputOperator
                 OutputBuffer outputBuffer,
                 PagesSerde serde,
                 List<Type> sourceTypes,
-                DataSize maxMemory)
+                DataSize maxMemory,
+                Optional<DataSize> coalescingTargetPageSize)
         {
             this.id = id;
             this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
@@ -406,7 +496,19 @@ public class PartitionedOutputOperator
             this.serde = requireNonNull(serde, "serde is null");
 
             int partitionCount = partitionFunction.getPartitionCount();
-            int pageSize = min(DEFAULT_MAX_PAGE_SIZE_IN_BYTES, ((int) maxMemory.toBytes()) / partitionCount);
+            this.coalescing = coalescingTargetPageSize.isPresent();
+            this.maxBufferedBytes = maxMemory.toBytes();
+            int pageSize;
+            if (coalescing) {
+                // Every partition may grow up to the target size, the memory of all partitions is bounded in flush().
+                // Serialization only compresses pages, so the serialized pages are not larger than the target either.
+                pageSize = toIntExact(min(min(coalescingTargetPageSize.get().toBytes(), maxBufferedBytes), Integer.MAX_VALUE));
+                this.maxSerializedPageSize = max(DEFAULT_MAX_PAGE_SIZE_IN_BYTES, pageSize);
+            }
+            else {
+                pageSize = min(DEFAULT_MAX_PAGE_SIZE_IN_BYTES, ((int) maxMemory.toBytes()) / partitionCount);
+                this.maxSerializedPageSize = DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+            }
             pageSize = max(1, pageSize);
 
             this.pageBuilders = new PageBuilder[partitionCount];
@@ -445,7 +547,7 @@ public class PartitionedOutputOperator
 
         public PartitionedOutputInfo getInfo()
         {
-            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage());
+            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), serializedPagesAdded.get(), serializedBytesAdded.get(), outputBuffer.getPeakMemoryUsage());
         }
 
         public void partitionPage(Page page)
@@ -501,18 +603,63 @@ public class PartitionedOutputOperator
             for (int partition = 0; partition < pageBuilders.length; partition++) {
                 PageBuilder partitionPageBuilder = pageBuilders[partition];
                 if (!partitionPageBuilder.isEmpty() && (force || partitionPageBuilder.isFull())) {
-                    Page pagePartition = partitionPageBuilder.build();
-                    partitionPageBuilder.reset();
+                    flushPartition(partition);
+                }
+            }
 
-                    List<SerializedPage> serializedPages = splitPage(pagePartition, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
-                            .map(page -> serde.serialize(page).setOrigin(id))
-                            .collect(toImmutableList());
+            if (coalescing && !force) {
+                flushLargestPartitions();
+            }
+        }
 
-                    outputBuffer.enqueue(partition, serializedPages);
-                    pagesAdded.incrementAndGet();
-                    rowsAdded.addAndGet(pagePartition.getPositionCount());
+        /**
+         * When coalescing, the pages of all partitions together may grow beyond the memory limit of the partitioner.
+         * In that case the largest pages are sent until half of the limit is used, so the small pages of the other
+         * partitions can keep growing, instead of being sent as many small pages.
+         */
+        private void flushLargestPartitions()
+        {
+            long sizeInBytes = getSizeInBytes();
+            if (sizeInBytes <= maxBufferedBytes) {
+                return;
+            }
+
+            long[] partitionSizes = new long[pageBuilders.length];
+            Integer[] partitions = new Integer[pageBuilders.length];
+            for (int partition = 0; partition < pageBuilders.length; partition++) {
+                partitionSizes[partition] = pageBuilders[partition].getSizeInBytes();
+                partitions[partition] = partition;
+            }
+            Arrays.sort(partitions, Comparator.comparingLong((Integer partition) -> partitionSizes[partition]).reversed());
+
+            for (int partition : partitions) {
+                if (sizeInBytes <= maxBufferedBytes / 2 || pageBuilders[partition].isEmpty()) {
+                    break;
                 }
+                flushPartition(partition);
+                sizeInBytes -= partitionSizes[partition];
+            }
+        }
+
+        private void flushPartition(int partition)
+        {
+            PageBuilder partitionPageBuilder = pageBuilders[partition];
+            Page pagePartition = partitionPageBuilder.build();
+            partitionPageBuilder.reset();
+
+            List<SerializedPage> serializedPages = splitPage(pagePartition, maxSerializedPageSize).stream()
+                    .map(page -> serde.serialize(page).setOrigin(id))
+                    .collect(toImmutableList());
+            long serializedBytes = 0;
+            for (SerializedPage serializedPage : serializedPages) {
+                serializedBytes += serializedPage.getSizeInBytes();
             }
+
+            outputBuffer.enqueue(partition, serializedPages);
+            pagesAdded.incrementAndGet();
+            rowsAdded.addAndGet(pagePartition.getPositionCount());
+            serializedPagesAdded.addAndGet(serializedPages.size());
+            serializedBytesAdded.addAndGet(serializedBytes);
         }
 
         @Override
@@ -525,6 +672,8 @@ public class PartitionedOutputOperator
             }
             myState.rowsAdded = rowsAdded.get();
             myState.pagesAdded = pagesAdded.get();
+            myState.serializedPagesAdded = serializedPagesAdded.get();
+            myState.serializedBytesAdded = serializedBytesAdded.get();
             myState.hasAnyRowBeenReplicated = hasAnyRowBeenReplicated;
             return myState;
         }
@@ -538,6 +687,8 @@ public class PartitionedOutputOperator
             }
             this.rowsAdded.set(myState.rowsAdded);
             this.pagesAdded.set(myState.pagesAdded);
+            this.serializedPagesAdded.set(myState.serializedPagesAdded);
+            this.serializedBytesAdded.set(myState.serializedBytesAdded);
             this.hasAnyRowBeenReplicated = myState.hasAnyRowBeenReplicated;
         }
 
@@ -547,6 +698,8 @@ public class PartitionedOutputOperator
             private Object[] pageBuilders;
             private long rowsAdded;
             private long pagesAdded;
+            private long serializedPagesAdded;
+            private long serializedBytesAdded;
             private boolean hasAnyRowBeenReplicated;
         }
     }
@@ -556,16 +709,22 @@ public class PartitionedOutputOperator
     {
         private final long rowsAdded;
         private final long pagesAdded;
+        private final long serializedPagesAdded;
+        private final long serializedBytesAdded;
         private final long outputBufferPeakMemoryUsage;
 
         @JsonCreator
         public PartitionedOutputInfo(
                 @JsonProperty("rowsAdded") long rowsAdded,
                 @JsonProperty("pagesAdded") long pagesAdded,
+                @JsonProperty("serializedPagesAdded") long serializedPagesAdded,
+                @JsonProperty("serializedBytesAdded") long serializedBytesAdded,
                 @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage)
         {
             this.rowsAdded = rowsAdded;
             this.pagesAdded = pagesAdded;
+            this.serializedPagesAdded = serializedPagesAdded;
+            this.serializedBytesAdded = serializedBytesAdded;
             this.outputBufferPeakMemoryUsage = outputBufferPeakMemoryUsage;
         }
 
@@ -581,6 +740,26 @@ public class PartitionedOutputOperator
             return pagesAdded;
         }
 
+        @JsonProperty
+        public long getSerializedPagesAdded()
+        {
+            return serializedPagesAdded;
+        }
+
+        @JsonProperty
+        public long getSerializedBytesAdded()
+        {
+            return serializedBytesAdded;
+        }
+
+        /**
+         * Average size of the pages sent to the exchange after serialization and compression
+         */
+        public long getAverageSerializedPageSize()
+        {
+            return serializedPagesAdded == 0 ? 0 : serializedBytesAdded / serializedPagesAdded;
+        }
+
         @JsonProperty
         public long getOutputBufferPeakMemoryUsage()
         {
@@ -593,6 +772,8 @@ public class PartitionedOutputOperator
             return new PartitionedOutputInfo(
                     rowsAdded + other.rowsAdded,
                     pagesAdded + other.pagesAdded,
+                    serializedPagesAdded + other.serializedPagesAdded,
+                    serializedBytesAdded + other.serializedBytesAdded,
                     Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage));
         }
 
@@ -608,6 +789,8 @@ public class PartitionedOutputOperator
             return toStringHelper(this)
                     .add("rowsAdded", rowsAdded)
                     .add("pagesAdded", pagesAdded)
+                    .add("serializedPagesAdded", serializedPagesAdded)
+                    .add("averageSerializedPageSize", getAverageSerializedPageSize())
                     .add("outputBufferPeakMemoryUsage", outputBufferPeakMemoryUsage)
                     .toString();
         }
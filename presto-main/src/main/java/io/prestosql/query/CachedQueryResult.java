@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.query;
+
+import com.google.common.collect.ImmutableList;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.spi.type.Type;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Output of a finished query, kept as the serialized pages received from its output stage.
+ */
+@Immutable
+public class CachedQueryResult
+{
+    private final List<String> columnNames;
+    private final List<Type> columnTypes;
+    private final List<SerializedPage> pages;
+    private final long retainedSizeInBytes;
+
+    public CachedQueryResult(List<String> columnNames, List<Type> columnTypes, List<SerializedPage> pages)
+    {
+        this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
+        this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+        checkArgument(columnNames.size() == columnTypes.size(), "columnNames and columnTypes must be the same size");
+        this.pages = ImmutableList.copyOf(requireNonNull(pages, "pages is null"));
+        this.retainedSizeInBytes = this.pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
+    }
+
+    public List<String> getColumnNames()
+    {
+        return columnNames;
+    }
+
+    public List<Type> getColumnTypes()
+    {
+        return columnTypes;
+    }
+
+    public List<SerializedPage> getPages()
+    {
+        return pages;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+}
@@ -114,12 +114,13 @@ public class CachedSqlQueryExecution
             QueryExplainer queryExplainer, ExecutionPolicy executionPolicy, SplitSchedulerStats schedulerStats,
             StatsCalculator statsCalculator, CostCalculator costCalculator, WarningCollector warningCollector,
             DynamicFilterService dynamicFilterService, Optional<Cache<Integer, CachedSqlQueryExecutionPlan>> cache,
-            HeuristicIndexerManager heuristicIndexerManager, StateStoreProvider stateStoreProvider, SnapshotUtils snapshotUtils)
+            HeuristicIndexerManager heuristicIndexerManager, StateStoreProvider stateStoreProvider, SnapshotUtils snapshotUtils,
+            QueryResultCache queryResultCache)
     {
         super(preparedQuery, stateMachine, slug, metadata, cubeManager, accessControl, sqlParser, splitManager,
                 nodePartitioningManager, nodeScheduler, planOptimizers, planFragmenter, remoteTaskFactory, locationFactory,
                 scheduleSplitBatchSize, queryExecutor, schedulerExecutor, failureDetector, nodeTaskMap, queryExplainer,
-                executionPolicy, schedulerStats, statsCalculator, costCalculator, warningCollector, dynamicFilterService, heuristicIndexerManager, stateStoreProvider, snapshotUtils);
+                executionPolicy, schedulerStats, statsCalculator, costCalculator, warningCollector, dynamicFilterService, heuristicIndexerManager, stateStoreProvider, snapshotUtils, queryResultCache);
         this.cache = cache;
         this.beginTableWrite = new BeginTableWrite(metadata);
     }
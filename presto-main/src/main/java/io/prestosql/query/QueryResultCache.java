@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.query;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.slice.Slices;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PageCodecMarker;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.type.Type;
+import io.prestosql.utils.HetuConfig;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Coordinator cache of the results of finished queries.
+ * <p>
+ * A query whose {@link QueryResultCacheKey} has a cached result is not planned or scheduled. Its execution
+ * attaches the cached result to the query, and the statement protocol serves the result from it. Otherwise
+ * the execution registers a {@link ResultCollector}, which receives the pages the statement protocol sends
+ * to the client, and adds the result to the cache when the query finishes.
+ */
+@ThreadSafe
+public class QueryResultCache
+{
+    // releases attached results and collectors of queries abandoned by their client
+    private static final Duration PENDING_QUERY_TIMEOUT = new Duration(10, MINUTES);
+
+    private final boolean enabled;
+    private final long maxEntrySizeInBytes;
+    private final Cache<QueryResultCacheKey, CachedQueryResult> results;
+    private final Cache<QueryId, CachedQueryResult> attachedResults;
+    private final Cache<QueryId, ResultCollector> collectors;
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat rejected = new CounterStat();
+
+    @Inject
+    public QueryResultCache(HetuConfig config)
+    {
+        this(
+                config.isQueryResultCacheEnabled(),
+                config.getQueryResultCacheMaxSize(),
+                config.getQueryResultCacheMaxEntrySize(),
+                config.getQueryResultCacheTtl(),
+                Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    QueryResultCache(boolean enabled, DataSize maxSize, DataSize maxEntrySize, Duration ttl, Ticker ticker)
+    {
+        checkArgument(maxEntrySize.compareTo(maxSize) <= 0, "maxEntrySize must not be larger than maxSize");
+        this.enabled = enabled;
+        this.maxEntrySizeInBytes = maxEntrySize.toBytes();
+        this.results = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<QueryResultCacheKey, CachedQueryResult>weigher((key, result) -> (int) Math.min(result.getRetainedSizeInBytes(), Integer.MAX_VALUE))
+                .expireAfterWrite(ttl.toMillis(), MILLISECONDS)
+                .ticker(ticker)
+                .build();
+        this.attachedResults = CacheBuilder.newBuilder()
+                .expireAfterWrite(PENDING_QUERY_TIMEOUT.toMillis(), MILLISECONDS)
+                .ticker(ticker)
+                .build();
+        this.collectors = CacheBuilder.newBuilder()
+                .expireAfterAccess(PENDING_QUERY_TIMEOUT.toMillis(), MILLISECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public Optional<CachedQueryResult> get(QueryResultCacheKey key)
+    {
+        CachedQueryResult result = results.getIfPresent(key);
+        if (result == null) {
+            misses.update(1);
+            return Optional.empty();
+        }
+        hits.update(1);
+        return Optional.of(result);
+    }
+
+    /**
+     * Makes a cached result available to the statement protocol of the query
+     */
+    public void attachResult(QueryId queryId, CachedQueryResult result)
+    {
+        attachedResults.put(requireNonNull(queryId, "queryId is null"), requireNonNull(result, "result is null"));
+    }
+
+    public Optional<CachedQueryResult> takeAttachedResult(QueryId queryId)
+    {
+        CachedQueryResult result = attachedResults.asMap().remove(queryId);
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Collects the result of the query for the cache, while it is sent to the client
+     */
+    public void collectResult(QueryId queryId, QueryResultCacheKey key, List<String> columnNames, List<Type> columnTypes)
+    {
+        collectors.put(requireNonNull(queryId, "queryId is null"), new ResultCollector(queryId, key, columnNames, columnTypes));
+    }
+
+    public Optional<ResultCollector> getResultCollector(QueryId queryId)
+    {
+        return Optional.ofNullable(collectors.getIfPresent(queryId));
+    }
+
+    public void removeResultCollector(QueryId queryId)
+    {
+        collectors.invalidate(queryId);
+    }
+
+    @VisibleForTesting
+    void cleanUp()
+    {
+        results.cleanUp();
+        attachedResults.cleanUp();
+        collectors.cleanUp();
+    }
+
+    @Managed
+    public long getCachedResults()
+    {
+        return results.size();
+    }
+
+    @Managed
+    public long getCachedBytes()
+    {
+        return results.asMap().values().stream()
+                .mapToLong(CachedQueryResult::getRetainedSizeInBytes)
+                .sum();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Results not cached because they are larger than the maximum entry size
+     */
+    @Managed
+    @Nested
+    public CounterStat getRejected()
+    {
+        return rejected;
+    }
+
+    @NotThreadSafe
+    public class ResultCollector
+    {
+        private final QueryId queryId;
+        private final QueryResultCacheKey key;
+        private final List<String> columnNames;
+        private final List<Type> columnTypes;
+        private List<SerializedPage> pages = new ArrayList<>();
+        private long retainedSizeInBytes;
+
+        private ResultCollector(QueryId queryId, QueryResultCacheKey key, List<String> columnNames, List<Type> columnTypes)
+        {
+            this.queryId = requireNonNull(queryId, "queryId is null");
+            this.key = requireNonNull(key, "key is null");
+            this.columnNames = requireNonNull(columnNames, "columnNames is null");
+            this.columnTypes = requireNonNull(columnTypes, "columnTypes is null");
+        }
+
+        public void addPage(SerializedPage page)
+        {
+            if (pages == null) {
+                return;
+            }
+            // pages received from the exchange may share the buffer of the whole response
+            SerializedPage copy = new SerializedPage(
+                    Slices.copyOf(page.getSlice()),
+                    PageCodecMarker.MarkerSet.fromByteValue(page.getPageCodecMarkers()),
+                    page.getPositionCount(),
+                    page.getUncompressedSizeInBytes(),
+                    page.getPageMetadata());
+            retainedSizeInBytes += copy.getRetainedSizeInBytes();
+            if (retainedSizeInBytes > maxEntrySizeInBytes) {
+                pages = null;
+                rejected.update(1);
+                return;
+            }
+            pages.add(copy);
+        }
+
+        /**
+         * Caches the collected result, must only be called once the client received all rows of a successful query
+         */
+        public void finish()
+        {
+            collectors.invalidate(queryId);
+            if (pages != null) {
+                results.put(key, new CachedQueryResult(columnNames, columnTypes, pages));
+                pages = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.query;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import io.prestosql.Session;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.TableMetadata;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ConnectorViewDefinition;
+import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.function.FunctionHandle;
+import io.prestosql.spi.function.FunctionMetadata;
+import io.prestosql.spi.metadata.TableHandle;
+import io.prestosql.sql.SqlFormatter;
+import io.prestosql.sql.analyzer.Analysis;
+import io.prestosql.sql.tree.CurrentPath;
+import io.prestosql.sql.tree.CurrentTime;
+import io.prestosql.sql.tree.CurrentUser;
+import io.prestosql.sql.tree.DefaultTraversalVisitor;
+import io.prestosql.sql.tree.Query;
+import io.prestosql.sql.tree.Statement;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the result of a query: the canonical form of the statement, everything in the session which
+ * changes the plan of the statement or the rows it can see, the definition of every view it expands and the
+ * modification time of every table and partition it reads. Two queries with equal keys are planned identically
+ * against unmodified tables, so they return the same rows.
+ */
+@Immutable
+public final class QueryResultCacheKey
+{
+    private static final Set<String> TIME_DEPENDENT_FUNCTIONS = ImmutableSet.of(
+            "current_date",
+            "current_time",
+            "current_timestamp",
+            "now",
+            "localtime",
+            "localtimestamp");
+
+    private final String statement;
+    private final String user;
+    private final Optional<String> catalog;
+    private final Optional<String> schema;
+    private final String path;
+    private final String timeZone;
+    private final Map<String, String> properties;
+    private final Map<String, String> viewDefinitions;
+    private final Map<String, Long> tableModificationTimes;
+
+    public QueryResultCacheKey(
+            String statement,
+            String user,
+            Optional<String> catalog,
+            Optional<String> schema,
+            String path,
+            String timeZone,
+            Map<String, String> properties,
+            Map<String, String> viewDefinitions,
+            Map<String, Long> tableModificationTimes)
+    {
+        this.statement = requireNonNull(statement, "statement is null");
+        this.user = requireNonNull(user, "user is null");
+        this.catalog = requireNonNull(catalog, "catalog is null");
+        this.schema = requireNonNull(schema, "schema is null");
+        this.path = requireNonNull(path, "path is null");
+        this.timeZone = requireNonNull(timeZone, "timeZone is null");
+        this.properties = ImmutableSortedMap.copyOf(requireNonNull(properties, "properties is null"));
+        this.viewDefinitions = ImmutableSortedMap.copyOf(requireNonNull(viewDefinitions, "viewDefinitions is null"));
+        this.tableModificationTimes = ImmutableSortedMap.copyOf(requireNonNull(tableModificationTimes, "tableModificationTimes is null"));
+    }
+
+    /**
+     * Creates the key of an analyzed statement, or returns empty if the result of the statement cannot be cached:
+     * it is not a query, it has parameters, calls a non-deterministic or time dependent function, or reads a table of a connector
+     * which does not report table modification times. The modification times of partitioned tables include
+     * those of their partitions, since writing to an existing partition does not modify the table directory.
+     */
+    public static Optional<QueryResultCacheKey> create(Analysis analysis, Session session, Metadata metadata)
+    {
+        Statement statement = analysis.getStatement();
+        if (!(statement instanceof Query) || !analysis.getParameters().isEmpty() || analysis.getTables().isEmpty()) {
+            return Optional.empty();
+        }
+        StatementChecker statementChecker = new StatementChecker();
+        statementChecker.process(statement, null);
+        if (!statementChecker.isCacheable()) {
+            return Optional.empty();
+        }
+        for (FunctionHandle functionHandle : analysis.getFunctionHandles().values()) {
+            if (!isCacheable(metadata.getFunctionAndTypeManager().getFunctionMetadata(functionHandle))) {
+                return Optional.empty();
+            }
+        }
+
+        // a table read several times by the statement is in the analysis once per reference
+        Map<String, Long> tableModificationTimes = new HashMap<>();
+        try {
+            for (TableHandle tableHandle : analysis.getTables()) {
+                LongSupplier modificationTime = metadata.getTableLastModifiedTimeSupplier(session, tableHandle);
+                if (modificationTime == null) {
+                    return Optional.empty();
+                }
+                TableMetadata tableMetadata = metadata.getTableMetadata(session, tableHandle);
+                String tableName = tableMetadata.getCatalogName().getCatalogName() + "." + tableMetadata.getTable();
+                tableModificationTimes.put(tableName, modificationTime.getAsLong());
+                metadata.getPartitionModificationTimes(session, tableHandle).ifPresent(partitions ->
+                        partitions.forEach((partition, partitionModificationTime) -> tableModificationTimes.put(tableName + "/" + partition, partitionModificationTime)));
+            }
+        }
+        catch (PrestoException e) {
+            // the connector does not support getting the table modification time
+            return Optional.empty();
+        }
+
+        ImmutableMap.Builder<String, String> properties = ImmutableMap.<String, String>builder()
+                .putAll(session.getSystemProperties());
+        session.getConnectorProperties().forEach((catalogName, catalogProperties) ->
+                catalogProperties.forEach((name, value) -> properties.put(catalogName.getCatalogName() + "." + name, value)));
+        session.getIdentity().getRoles().forEach((catalogName, role) -> properties.put("role." + catalogName, role.toString()));
+
+        return Optional.of(new QueryResultCacheKey(
+                SqlFormatter.formatSql(statement, Optional.empty()),
+                session.getIdentity().getUser(),
+                session.getCatalog(),
+                session.getSchema(),
+                session.getPath().toString(),
+                session.getTimeZoneKey().getId(),
+                properties.build(),
+                getViewDefinitions(analysis.getViews()),
+                tableModificationTimes));
+    }
+
+    /**
+     * Functions such as now() are deterministic within a query, but return the start time of the query,
+     * so their result differs between two runs of the same statement.
+     */
+    @VisibleForTesting
+    static boolean isCacheable(FunctionMetadata functionMetadata)
+    {
+        return functionMetadata.isDeterministic() && !TIME_DEPENDENT_FUNCTIONS.contains(functionMetadata.getName().getObjectName());
+    }
+
+    private static Map<String, String> getViewDefinitions(Map<QualifiedObjectName, ConnectorViewDefinition> views)
+    {
+        ImmutableMap.Builder<String, String> viewDefinitions = ImmutableMap.builder();
+        views.forEach((name, view) -> viewDefinitions.put(name.toString(), toStringHelper("view")
+                .add("originalSql", view.getOriginalSql())
+                .add("catalog", view.getCatalog().orElse(null))
+                .add("schema", view.getSchema().orElse(null))
+                .add("owner", view.getOwner().orElse(null))
+                .add("runAsInvoker", view.isRunAsInvoker())
+                .add("columns", view.getColumns())
+                .toString()));
+        return viewDefinitions.build();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QueryResultCacheKey that = (QueryResultCacheKey) o;
+        return statement.equals(that.statement) &&
+                user.equals(that.user) &&
+                catalog.equals(that.catalog) &&
+                schema.equals(that.schema) &&
+                path.equals(that.path) &&
+                timeZone.equals(that.timeZone) &&
+                properties.equals(that.properties) &&
+                viewDefinitions.equals(that.viewDefinitions) &&
+                tableModificationTimes.equals(that.tableModificationTimes);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(statement, user, catalog, schema, path, timeZone, properties, viewDefinitions, tableModificationTimes);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("statement", statement)
+                .add("user", user)
+                .add("tableModificationTimes", tableModificationTimes)
+                .toString();
+    }
+
+    /**
+     * Finds the expressions whose value depends on when or by whom the statement is run.
+     */
+    private static class StatementChecker
+            extends DefaultTraversalVisitor<Void, Void>
+    {
+        private boolean cacheable = true;
+
+        public boolean isCacheable()
+        {
+            return cacheable;
+        }
+
+        @Override
+        protected Void visitCurrentPath(CurrentPath node, Void context)
+        {
+            cacheable = false;
+            return null;
+        }
+
+        @Override
+        protected Void visitCurrentTime(CurrentTime node, Void context)
+        {
+            cacheable = false;
+            return null;
+        }
+
+        @Override
+        protected Void visitCurrentUser(CurrentUser node, Void context)
+        {
+            cacheable = false;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.concurrent.BoundedExecutor;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.DistributionStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
+import io.prestosql.execution.TaskManager;
+import io.prestosql.execution.buffer.BufferResult;
+import io.prestosql.operator.MultiplexedPagesCodec;
+import io.prestosql.operator.MultiplexedResultsRequest;
+import io.prestosql.operator.MultiplexedResultsRequest.BufferRequest;
+import io.prestosql.server.security.SecurityRequireNonNull;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import java.io.EOFException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.base.Throwables.getRootCause;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.addTimeout;
+import static io.airlift.jaxrs.AsyncResponseHandler.bindAsyncResponse;
+import static io.prestosql.PrestoMediaTypes.PRESTO_MULTIPLEXED_PAGES;
+import static io.prestosql.execution.buffer.BufferResult.emptyResults;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Serves multiplexed reads of the output buffers of tasks on this worker, see {@link io.prestosql.operator.MultiplexedPageTransport}
+ */
+@Path("/v1/exchange")
+public class ExchangeResource
+{
+    private static final Duration ADDITIONAL_WAIT_TIME = new Duration(5, SECONDS);
+    private static final Duration MAX_WAIT_TIME = new Duration(2, SECONDS);
+
+    private final TaskManager taskManager;
+    private final Executor responseExecutor;
+    private final ScheduledExecutorService timeoutExecutor;
+    private final TimeStat resultsRequestTime = new TimeStat();
+    private final DistributionStat buffersPerRequest = new DistributionStat();
+    private final CounterStat buffersWithPages = new CounterStat();
+
+    @Inject
+    public ExchangeResource(
+            TaskManager taskManager,
+            @ForAsyncHttp BoundedExecutor responseExecutor,
+            @ForAsyncHttp ScheduledExecutorService timeoutExecutor)
+    {
+        this.taskManager = requireNonNull(taskManager, "taskManager is null");
+        this.responseExecutor = requireNonNull(responseExecutor, "responseExecutor is null");
+        this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
+    }
+
+    @POST
+    @Path("results")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(PRESTO_MULTIPLEXED_PAGES)
+    public void getResults(MultiplexedResultsRequest request, @Suspended AsyncResponse asyncResponse)
+    {
+        SecurityRequireNonNull.requireNonNull(request, "request is null");
+
+        long start = System.nanoTime();
+        List<BufferRequest> buffers = request.getBuffers();
+        List<ListenableFuture<BufferResult>> results = new ArrayList<>(buffers.size());
+        SettableFuture<Void> anyResult = SettableFuture.create();
+        boolean hasReads = false;
+        for (BufferRequest buffer : buffers) {
+            if (buffer.isAcknowledgeOnly()) {
+                taskManager.acknowledgeTaskResults(buffer.getTaskId(), buffer.getBufferId(), buffer.getToken(), buffer.getTaskInstanceId());
+                results.add(null);
+                continue;
+            }
+            hasReads = true;
+            ListenableFuture<BufferResult> result = getResult(buffer);
+            result.addListener(() -> anyResult.set(null), directExecutor());
+            results.add(result);
+        }
+        if (!hasReads) {
+            anyResult.set(null);
+        }
+        buffersPerRequest.add(buffers.size());
+
+        // the response is sent as soon as any of the buffers has a result, with empty results for the others
+        Duration waitTime = new Duration(Math.min(request.getMaxWait().toMillis(), MAX_WAIT_TIME.toMillis()), MILLISECONDS);
+        ListenableFuture<Void> waitFuture = addTimeout(anyResult, () -> null, waitTime, timeoutExecutor);
+        ListenableFuture<Response> responseFuture = Futures.transform(waitFuture, ignored -> createResponse(buffers, results), directExecutor());
+
+        // For hard timeout, add an additional time to max wait for thread scheduling contention and GC
+        Duration timeout = new Duration(waitTime.toMillis() + ADDITIONAL_WAIT_TIME.toMillis(), MILLISECONDS);
+        bindAsyncResponse(asyncResponse, responseFuture, responseExecutor)
+                .withTimeout(timeout, createResponse(buffers, results));
+
+        asyncResponse.register((CompletionCallback) throwable -> resultsRequestTime.add(Duration.nanosSince(start)));
+    }
+
+    private ListenableFuture<BufferResult> getResult(BufferRequest buffer)
+    {
+        try {
+            ListenableFuture<BufferResult> result = taskManager.getTaskResults(buffer.getTaskId(), buffer.getBufferId(), buffer.getToken(), buffer.getMaxSize(), buffer.getTaskInstanceId());
+            if (result == null) {
+                // Request came from task has been cancelled.
+                return immediateFuture(emptyResults(getTaskInstanceIdIfEmpty(buffer), buffer.getToken(), true));
+            }
+            return result;
+        }
+        catch (RuntimeException e) {
+            return immediateFailedFuture(e);
+        }
+    }
+
+    private Response createResponse(List<BufferRequest> buffers, List<ListenableFuture<BufferResult>> results)
+    {
+        // Results are taken when the response is written. A result that completes after the empty result is sent is
+        // dropped, which is safe as pages are only released from the buffer when the reader acknowledges them.
+        StreamingOutput output = outputStream -> {
+            try {
+                SliceOutput sliceOutput = new OutputStreamSliceOutput(outputStream);
+                for (int index = 0; index < buffers.size(); index++) {
+                    ListenableFuture<BufferResult> result = results.get(index);
+                    if (result != null) {
+                        writeResult(sliceOutput, index, buffers.get(index), result);
+                    }
+                }
+                // We use flush instead of close, because the underlying stream would be closed and that is not allowed.
+                sliceOutput.flush();
+            }
+            catch (UncheckedIOException e) {
+                // EOF exception occurs when the client disconnects while writing data
+                // This is not a "server" problem so we don't want to log this
+                if (!(e.getCause() instanceof EOFException)) {
+                    throw e;
+                }
+            }
+        };
+        return Response.ok(output, PRESTO_MULTIPLEXED_PAGES).build();
+    }
+
+    private void writeResult(SliceOutput output, int index, BufferRequest buffer, ListenableFuture<BufferResult> result)
+    {
+        if (!result.isDone() || result.isCancelled()) {
+            MultiplexedPagesCodec.writeResult(output, index, emptyResults(getTaskInstanceIdIfEmpty(buffer), buffer.getToken(), false));
+            return;
+        }
+        try {
+            BufferResult bufferResult = Futures.getDone(result);
+            if (!bufferResult.isEmpty()) {
+                buffersWithPages.update(1);
+            }
+            MultiplexedPagesCodec.writeResult(output, index, bufferResult);
+        }
+        catch (ExecutionException e) {
+            MultiplexedPagesCodec.writeError(output, index, String.valueOf(getRootCause(e).getMessage()));
+        }
+    }
+
+    private String getTaskInstanceIdIfEmpty(BufferRequest buffer)
+    {
+        return buffer.getTaskInstanceId() == null ? taskManager.getTaskInstanceId(buffer.getTaskId()) : buffer.getTaskInstanceId();
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getResultsRequestTime()
+    {
+        return resultsRequestTime;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getBuffersPerRequest()
+    {
+        return buffersPerRequest;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getBuffersWithPages()
+    {
+        return buffersWithPages;
+    }
+}
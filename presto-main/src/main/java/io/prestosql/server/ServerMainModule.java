@@ -60,6 +60,7 @@ import io.prestosql.execution.TaskManagerConfig;
 import io.prestosql.execution.TaskStatus;
 import io.prestosql.execution.executor.MultilevelSplitQueue;
 import io.prestosql.execution.executor.TaskExecutor;
+import io.prestosql.execution.executor.WorkStealingSplitQueue;
 import io.prestosql.execution.scheduler.FlatNetworkTopology;
 import io.prestosql.execution.scheduler.LegacyNetworkTopology;
 import io.prestosql.execution.scheduler.NetworkTopology;
@@ -327,6 +328,8 @@ public class ServerMainModule
         // task execution
         jaxrsBinder(binder).bind(TaskResource.class);
         newExporter(binder).export(TaskResource.class).withGeneratedName();
+        jaxrsBinder(binder).bind(ExchangeResource.class);
+        newExporter(binder).export(ExchangeResource.class).withGeneratedName();
         jaxrsBinder(binder).bind(TaskExecutorResource.class);
         newExporter(binder).export(TaskExecutorResource.class).withGeneratedName();
         binder.bind(TaskManagementExecutor.class).in(Scopes.SINGLETON);
@@ -348,7 +351,12 @@ public class ServerMainModule
         newExporter(binder).export(TaskManager.class).withGeneratedName();
         binder.bind(TaskExecutor.class).in(Scopes.SINGLETON);
         newExporter(binder).export(TaskExecutor.class).withGeneratedName();
-        binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
+        if (buildConfigObject(TaskManagerConfig.class).isWorkStealingEnabled()) {
+            binder.bind(MultilevelSplitQueue.class).to(WorkStealingSplitQueue.class).in(Scopes.SINGLETON);
+        }
+        else {
+            binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
+        }
         newExporter(binder).export(MultilevelSplitQueue.class).withGeneratedName();
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(CompilerConfig.class);
@@ -535,9 +543,11 @@ public class ServerMainModule
 
         // HeuristicIndexerManager
         binder.bind(HeuristicIndexerManager.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(HeuristicIndexerManager.class).withGeneratedName();
 
         // SnapshotUtils
         binder.bind(SnapshotUtils.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(SnapshotUtils.class).withGeneratedName();
         configBinder(binder).bindConfig(SnapshotConfig.class);
 
         // Spiller
@@ -546,6 +556,7 @@ public class ServerMainModule
         binder.bind(PartitioningSpillerFactory.class).to(GenericPartitioningSpillerFactory.class).in(Scopes.SINGLETON);
         binder.bind(SpillerStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(SpillerFactory.class).withGeneratedName();
+        newExporter(binder).export(SingleStreamSpillerFactory.class).withGeneratedName();
         binder.bind(LocalSpillManager.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(NodeSpillConfig.class);
 
@@ -24,6 +24,7 @@ import io.prestosql.dispatcher.DispatchExecutor;
 import io.prestosql.dispatcher.DispatchManager;
 import io.prestosql.execution.QueryManager;
 import io.prestosql.operator.ExchangeClientSupplier;
+import io.prestosql.query.QueryResultCache;
 import io.prestosql.server.SessionContext;
 import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.statestore.StateCollection;
@@ -73,6 +74,7 @@ public class PagePublisherQueryManager
     private final ScheduledExecutorService timeoutExecutor;
     private final StateStoreProvider stateStoreProvider;
     private final Duration pageConsumerTimeout;
+    private final QueryResultCache queryResultCache;
     private final ScheduledExecutorService queryPurger = newSingleThreadScheduledExecutor(threadsNamed("execution-query-purger"));
 
     public PagePublisherQueryManager(DispatchManager dispatchManager,
@@ -81,7 +83,8 @@ public class PagePublisherQueryManager
             BlockEncodingSerde blockEncodingSerde,
             DispatchExecutor dispatchExecutor,
             StateStoreProvider stateStoreProvider,
-            Duration pageConsumerTimeout)
+            Duration pageConsumerTimeout,
+            QueryResultCache queryResultCache)
     {
         this.dispatchManager = requireNonNull(dispatchManager, "dispatchManager is null");
         this.queryManager = requireNonNull(queryManager, "queryManager is null");
@@ -91,6 +94,7 @@ public class PagePublisherQueryManager
         this.timeoutExecutor = requireNonNull(dispatchExecutor, "dispatchExecutor is null").getScheduledExecutor();
         this.stateStoreProvider = requireNonNull(stateStoreProvider, "stateStoreProvider is null");
         this.pageConsumerTimeout = requireNonNull(pageConsumerTimeout, "pageConsumerTimeout is null");
+        this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
         this.queryPurger.scheduleWithFixedDelay(
                 () -> {
                     try {
@@ -147,7 +151,8 @@ public class PagePublisherQueryManager
                         this.resultSizeQuota,
                         maxAnticipatedDelay,
                         stateStoreProvider,
-                        this.pageConsumerTimeout);
+                        this.pageConsumerTimeout,
+                        this.queryResultCache);
                 // this.queryPurger.scheduleWithFixedDelay check if the runner is expired {@link isExpired}
                 // (if the query is null, need a active customer) and remove from queryRunners.
                 // so we need register customer first to add a active customer, then put to queryRunners.
@@ -29,6 +29,7 @@ import io.prestosql.execution.QueryManager;
 import io.prestosql.memory.context.SimpleLocalMemoryContext;
 import io.prestosql.operator.ExchangeClient;
 import io.prestosql.operator.ExchangeClientSupplier;
+import io.prestosql.query.QueryResultCache;
 import io.prestosql.server.SessionContext;
 import io.prestosql.spi.QueryId;
 import io.prestosql.spi.block.BlockEncodingSerde;
@@ -108,12 +109,14 @@ public class PagePublisherQueryRunner
     private final String globalQueryId;
     private final StateStoreProvider stateStoreProvider;
     private final Duration pageConsumerTimeout;
+    private final QueryResultCache queryResultCache;
 
     public PagePublisherQueryRunner(String globalQueryId, String statement, SessionContext sessionContext,
             Duration maxWait, DispatchManager dispatchManager, QueryManager queryManager,
             Executor executor, ScheduledExecutorService timeoutExecutor, BlockEncodingSerde blockEncodingSerde,
             ExchangeClientSupplier exchangeClientSupplier, int maxSubscribersLimit, DataSize targetResultSize,
-            Duration maxAnticipatedDelay, StateStoreProvider stateStoreProvider, Duration pageConsumerTimeout)
+            Duration maxAnticipatedDelay, StateStoreProvider stateStoreProvider, Duration pageConsumerTimeout,
+            QueryResultCache queryResultCache)
     {
         this.globalQueryId = requireNonNull(globalQueryId, "globalQueryId is null");
         this.statement = requireNonNull(statement, "statement is null");
@@ -126,6 +129,7 @@ public class PagePublisherQueryRunner
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.targetResultSize = requireNonNull(targetResultSize, "targetResultSize is null");
         this.pageConsumerTimeout = requireNonNull(pageConsumerTimeout, "pageConsumerTimeout is null");
+        this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
         this.queryId = this.dispatchManager.createQueryId();
         this.slug = "x" + randomUUID().toString().toLowerCase(ENGLISH).replace("-", "");
         this.wait = WAIT_ORDERING.min(MAX_WAIT_TIME, maxWait);
@@ -226,7 +230,7 @@ public class PagePublisherQueryRunner
             exchangeClient.setSnapshotEnabled();
         }
         return Query.create(session, slug, queryManager, exchangeClient, executor, timeoutExecutor,
-                blockEncodingSerde);
+                blockEncodingSerde, queryResultCache);
     }
 
     private static WebApplicationException badRequest(Response.Status status, String message)
@@ -27,6 +27,7 @@ import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.Session;
+import io.prestosql.client.ClientCapabilities;
 import io.prestosql.client.ClientTypeSignature;
 import io.prestosql.client.ClientTypeSignatureParameter;
 import io.prestosql.client.Column;
@@ -39,6 +40,7 @@ import io.prestosql.client.RowFieldName;
 import io.prestosql.client.StageStats;
 import io.prestosql.client.StatementStats;
 import io.prestosql.client.Warning;
+import io.prestosql.client.protocol.BinaryQueryData;
 import io.prestosql.execution.ExecutionFailureInfo;
 import io.prestosql.execution.QueryExecution;
 import io.prestosql.execution.QueryInfo;
@@ -48,6 +50,8 @@ import io.prestosql.execution.QueryStats;
 import io.prestosql.execution.StageInfo;
 import io.prestosql.execution.TaskInfo;
 import io.prestosql.operator.ExchangeClient;
+import io.prestosql.query.CachedQueryResult;
+import io.prestosql.query.QueryResultCache;
 import io.prestosql.spi.ErrorCode;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
@@ -73,6 +77,7 @@ import javax.ws.rs.core.UriInfo;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -93,6 +98,7 @@ import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.addTimeout;
 import static io.prestosql.SystemSessionProperties.isExchangeCompressionEnabled;
+import static io.prestosql.SystemSessionProperties.isSnapshotEnabled;
 import static io.prestosql.execution.QueryState.FAILED;
 import static io.prestosql.execution.QueryState.RESCHEDULING;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -119,6 +125,15 @@ public class Query
 
     private final PagesSerde serde;
 
+    private final Optional<QueryResultCache> resultCache;
+
+    @GuardedBy("this")
+    private Optional<QueryResultCache.ResultCollector> resultCollector = Optional.empty();
+
+    // pages of a result served from the query result cache, null while the result comes from the exchange
+    @GuardedBy("this")
+    private Iterator<SerializedPage> cachedResultPages;
+
     @GuardedBy("this")
     private OptionalLong nextToken = OptionalLong.of(0);
 
@@ -170,6 +185,18 @@ public class Query
     @GuardedBy("this")
     private Long updateCount;
 
+    // whether the client downloads the result directly from the output buffers of the root stage tasks,
+    // decided once the output columns are known
+    @GuardedBy("this")
+    private boolean directResults;
+
+    @GuardedBy("this")
+    private final Set<URI> sentResultSegments = new HashSet<>();
+
+    // locations of the root stage output buffers that have not been sent to the client yet
+    @GuardedBy("this")
+    private final List<URI> unsentResultSegments = new ArrayList<>();
+
     public static Query create(
             Session session,
             String slug,
@@ -179,7 +206,33 @@ public class Query
             ScheduledExecutorService timeoutExecutor,
             BlockEncodingSerde blockEncodingSerde)
     {
-        Query result = new Query(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde);
+        return create(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde, Optional.empty());
+    }
+
+    public static Query create(
+            Session session,
+            String slug,
+            QueryManager queryManager,
+            ExchangeClient exchangeClient,
+            Executor dataProcessorExecutor,
+            ScheduledExecutorService timeoutExecutor,
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache resultCache)
+    {
+        return create(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde, Optional.of(resultCache));
+    }
+
+    private static Query create(
+            Session session,
+            String slug,
+            QueryManager queryManager,
+            ExchangeClient exchangeClient,
+            Executor dataProcessorExecutor,
+            ScheduledExecutorService timeoutExecutor,
+            BlockEncodingSerde blockEncodingSerde,
+            Optional<QueryResultCache> resultCache)
+    {
+        Query result = new Query(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde, resultCache);
 
         result.queryManager.addOutputInfoListener(result.getQueryId(), result::setQueryOutputInfo);
         result.queryManager.addStateChangeListener(result.getQueryId(), result::updateQueryState);
@@ -201,7 +254,8 @@ public class Query
             ExchangeClient exchangeClient,
             Executor resultsProcessorExecutor,
             ScheduledExecutorService timeoutExecutor,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            Optional<QueryResultCache> resultCache)
     {
         requireNonNull(session, "session is null");
         requireNonNull(slug, "slug is null");
@@ -210,6 +264,7 @@ public class Query
         requireNonNull(resultsProcessorExecutor, "resultsProcessorExecutor is null");
         requireNonNull(timeoutExecutor, "timeoutExecutor is null");
         requireNonNull(blockEncodingSerde, "serde is null");
+        requireNonNull(resultCache, "resultCache is null");
 
         this.queryManager = queryManager;
 
@@ -219,6 +274,7 @@ public class Query
         this.exchangeClient = exchangeClient;
         this.resultsProcessorExecutor = resultsProcessorExecutor;
         this.timeoutExecutor = timeoutExecutor;
+        this.resultCache = resultCache;
 
         serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)).createPagesSerde();
     }
@@ -334,6 +390,12 @@ public class Query
 
     private synchronized ListenableFuture<?> getFutureStateChange()
     {
+        // the client downloads the result itself and only polls for the query status and new result segments
+        if (directResults) {
+            queryManager.recordHeartbeat(queryId);
+            return immediateFuture(null);
+        }
+
         // if the exchange client is open, wait for data
         if (!exchangeClient.isClosed()) {
             return exchangeClient.isBlocked();
@@ -437,8 +499,13 @@ public class Query
         // last page is removed.  If another thread observes this state before the response is cached
         // the pages will be lost.
         Iterable<List<Object>> data = null;
+        List<SerializedPage> binaryData = null;
+        // the pages of the exchange are sent as they are to clients that can read them, so they are neither
+        // deserialized nor converted to JSON values by the coordinator
+        boolean binaryResults = isBinaryResultsEnabled();
         try {
             ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
+            ImmutableList.Builder<SerializedPage> serializedPages = ImmutableList.builder();
             long bytes = 0;
             long rows = 0;
             long targetResultBytes = targetResultSize.toBytes();
@@ -447,7 +514,14 @@ public class Query
                 if (serializedPage == null) {
                     break;
                 }
+                collectResultPage(serializedPage);
 
+                if (binaryResults) {
+                    bytes += serializedPage.getUncompressedSizeInBytes();
+                    rows += serializedPage.getPositionCount();
+                    serializedPages.add(serializedPage);
+                    continue;
+                }
                 Page page = serde.deserialize(serializedPage);
                 bytes += page.getLogicalSizeInBytes();
                 rows += page.getPositionCount();
@@ -455,7 +529,12 @@ public class Query
             }
             if (rows > 0) {
                 // client implementations do not properly handle empty list of data
-                data = Iterables.concat(pages.build());
+                if (binaryResults) {
+                    binaryData = serializedPages.build();
+                }
+                else {
+                    data = Iterables.concat(pages.build());
+                }
             }
         }
         catch (Throwable cause) {
@@ -467,11 +546,35 @@ public class Query
         QueryInfo queryInfo = queryManager.getFullQueryInfo(queryId);
         queryManager.recordHeartbeat(queryId);
 
+        List<SerializedPage> cachedPages = pollCachedResultPages(targetResultSize);
+        if (!cachedPages.isEmpty()) {
+            if (binaryResults) {
+                binaryData = cachedPages;
+            }
+            else {
+                ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
+                for (SerializedPage serializedPage : cachedPages) {
+                    pages.add(new RowIterable(session.toConnectorSession(), types, serde.deserialize(serializedPage)));
+                }
+                data = Iterables.concat(pages.build());
+            }
+        }
+
+        List<URI> resultSegments = null;
+        if (directResults) {
+            resultSegments = ImmutableList.copyOf(unsentResultSegments);
+            unsentResultSegments.clear();
+        }
+
         // TODO: figure out a better way to do this
         // grab the update count for non-queries
-        if ((data != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
+        if ((data != null || binaryData != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
                 (columns.size() == 1) && (columns.get(0).getType().equals(StandardTypes.BIGINT))) {
-            Iterator<List<Object>> iterator = data.iterator();
+            Iterable<List<Object>> updateCountData = data;
+            if (updateCountData == null) {
+                updateCountData = new RowIterable(session.toConnectorSession(), types, serde.deserialize(binaryData.get(0)));
+            }
+            Iterator<List<Object>> iterator = updateCountData.iterator();
             if (iterator.hasNext()) {
                 Number number = (Number) iterator.next().get(0);
                 if (number != null) {
@@ -483,14 +586,16 @@ public class Query
         closeExchangeClientIfNecessary(queryInfo);
 
         // for queries with no output, return a fake result for clients that require it
-        if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent()) {
+        if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent() && cachedResultPages == null) {
             columns = ImmutableList.of(createColumn("result", BooleanType.BOOLEAN));
             data = ImmutableSet.of(ImmutableList.of(true));
+            binaryData = null;
         }
         else if (queryInfo.isRunningAsync()) {
             columns = ImmutableList.of(createColumn("result", BooleanType.BOOLEAN),
                     createColumn("runningAsync", BooleanType.BOOLEAN));
             data = ImmutableSet.of(ImmutableList.of(true, true));
+            binaryData = null;
         }
 
         // advance next token
@@ -500,12 +605,16 @@ public class Query
         // (2)there is more data to send (due to buffering)
         //  OR
         // (3) Query supports and started running Async
+        //  OR
+        // (4) there is more data to send from the query result cache
         if ((!queryInfo.isFinalQueryInfo() && queryInfo.getState() != FAILED && !queryInfo.isRunningAsync()) ||
-                !exchangeClient.isClosed()) {
+                !exchangeClient.isClosed() ||
+                (cachedResultPages != null && cachedResultPages.hasNext())) {
             nextToken = OptionalLong.of(token + 1);
         }
         else {
             nextToken = OptionalLong.empty();
+            finishResultCollector(queryInfo);
             queryManager.checkForQueryPruning(queryId, queryInfo);
         }
 
@@ -546,7 +655,9 @@ public class Query
                 toQueryError(queryInfo),
                 mappedCopy(queryInfo.getWarnings(), Query::toClientWarning),
                 queryInfo.getUpdateType(),
-                (queryInfo.isRunningAsync() ? null : updateCount));
+                (queryInfo.isRunningAsync() ? null : updateCount),
+                binaryData,
+                resultSegments);
 
         // cache the new result
         lastToken = token;
@@ -555,6 +666,15 @@ public class Query
         return queryResults;
     }
 
+    private boolean isBinaryResultsEnabled()
+    {
+        if (types == null || !session.getClientCapabilities().contains(ClientCapabilities.SERIALIZED_PAGES.toString())) {
+            return false;
+        }
+        return types.stream()
+                .allMatch(type -> BinaryQueryData.isSupportedType(type.getTypeSignature().getBase()));
+    }
+
     private synchronized DataCenterQueryResults getNextResult(long token, DataSize targetResultSize)
     {
         // check if the result for the token have already been created
@@ -589,6 +709,7 @@ public class Query
                 if (serializedPage == null) {
                     break;
                 }
+                collectResultPage(serializedPage);
                 builder.add(new SerializedPage(
                         serializedPage.getSlice().getBytes(),
                         serializedPage.getPageCodecMarkers(),
@@ -611,10 +732,21 @@ public class Query
         QueryInfo queryInfo = queryManager.getFullQueryInfo(queryId);
         queryManager.recordHeartbeat(queryId);
 
+        List<SerializedPage> cachedPages = pollCachedResultPages(targetResultSize);
+        if (!cachedPages.isEmpty()) {
+            data = cachedPages.stream()
+                    .map(serializedPage -> new SerializedPage(
+                            serializedPage.getSlice().getBytes(),
+                            serializedPage.getPageCodecMarkers(),
+                            serializedPage.getPositionCount(),
+                            serializedPage.getUncompressedSizeInBytes()))
+                    .collect(toImmutableList());
+        }
+
         closeExchangeClientIfNecessary(queryInfo);
 
         // for queries with no output, return a fake result for clients that require it
-        if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent()) {
+        if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent() && cachedResultPages == null) {
             columns = ImmutableList.of(createColumn("result", BooleanType.BOOLEAN));
             PageBuilder pageBuilder = new PageBuilder(Collections.singletonList(BooleanType.BOOLEAN));
             pageBuilder.declarePosition();
@@ -652,12 +784,16 @@ public class Query
         // (2)there is more data to send (due to buffering)
         //  OR
         // (3) Query supports and started running Async
+        //  OR
+        // (4) there is more data to send from the query result cache
         if ((!queryInfo.isFinalQueryInfo() && queryInfo.getState() != FAILED && !queryInfo.isRunningAsync()) ||
-                !exchangeClient.isClosed()) {
+                !exchangeClient.isClosed() ||
+                (cachedResultPages != null && cachedResultPages.hasNext())) {
             nextToken = OptionalLong.of(token + 1);
         }
         else {
             nextToken = OptionalLong.empty();
+            finishResultCollector(queryInfo);
         }
 
         URI nextResultsUri = null;
@@ -711,6 +847,59 @@ public class Query
         return queryResults;
     }
 
+    private synchronized void collectResultPage(SerializedPage serializedPage)
+    {
+        if (!resultCollector.isPresent()) {
+            resultCollector = resultCache.flatMap(cache -> cache.getResultCollector(queryId));
+        }
+        resultCollector.ifPresent(collector -> collector.addPage(serializedPage));
+    }
+
+    private synchronized void finishResultCollector(QueryInfo queryInfo)
+    {
+        if (!resultCache.isPresent()) {
+            return;
+        }
+        if (!resultCollector.isPresent()) {
+            // the query may have returned no rows
+            resultCollector = resultCache.get().getResultCollector(queryId);
+        }
+        // all pages of a finished query have been sent to the client, unless the client read them from the workers
+        if (queryInfo.getState() == QueryState.FINISHED && !directResults) {
+            resultCollector.ifPresent(QueryResultCache.ResultCollector::finish);
+        }
+        else {
+            resultCache.get().removeResultCollector(queryId);
+        }
+        resultCollector = Optional.empty();
+    }
+
+    private synchronized List<SerializedPage> pollCachedResultPages(DataSize targetResultSize)
+    {
+        if (cachedResultPages == null) {
+            Optional<CachedQueryResult> result = resultCache.flatMap(cache -> cache.takeAttachedResult(queryId));
+            if (!result.isPresent()) {
+                return ImmutableList.of();
+            }
+            cachedResultPages = result.get().getPages().iterator();
+        }
+        if (types == null) {
+            // output columns of the query are not known yet
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<SerializedPage> pages = ImmutableList.builder();
+        long bytes = 0;
+        while (bytes < targetResultSize.toBytes() && cachedResultPages.hasNext()) {
+            SerializedPage serializedPage = cachedResultPages.next();
+            if (serializedPage.getPositionCount() > 0) {
+                pages.add(serializedPage);
+                bytes += serializedPage.getUncompressedSizeInBytes();
+            }
+        }
+        return pages.build();
+    }
+
     private synchronized void closeExchangeClientIfNecessary(QueryInfo queryInfo)
     {
         // Close the exchange client if the query has failed, or if the query
@@ -746,6 +935,20 @@ public class Query
             }
             columns = list.build();
             types = outputInfo.getColumnTypes();
+            directResults = isDirectResultsEnabled(queryManager.getFullQueryInfo(queryId).getUpdateType());
+        }
+
+        if (directResults) {
+            for (URI outputLocation : outputInfo.getBufferLocations()) {
+                if (sentResultSegments.add(outputLocation)) {
+                    unsentResultSegments.add(outputLocation);
+                }
+            }
+            if (outputInfo.isNoMoreBufferLocations()) {
+                // no page goes through the coordinator
+                exchangeClient.close();
+            }
+            return;
         }
 
         for (URI outputLocation : outputInfo.getBufferLocations()) {
@@ -756,6 +959,17 @@ public class Query
         }
     }
 
+    private boolean isDirectResultsEnabled(String updateType)
+    {
+        // snapshot recovery resumes the output from the coordinator side exchange, the update count of a write
+        // is read from the rows passing through the coordinator, and the client can only decode the result values
+        // of types that are not converted for the session
+        return session.getClientCapabilities().contains(ClientCapabilities.DIRECT_RESULTS.toString()) &&
+                !isSnapshotEnabled(session) &&
+                updateType == null &&
+                types.stream().allMatch(type -> BinaryQueryData.isSupportedType(type.getTypeSignature().getBase()));
+    }
+
     private ListenableFuture<?> queryDoneFuture(QueryState currentState)
     {
         if (currentState.isDone()) {
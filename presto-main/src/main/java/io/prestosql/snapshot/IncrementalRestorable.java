@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import io.prestosql.spi.snapshot.Restorable;
+
+/**
+ * A restorable object that can capture only the changes to its state since it was last captured or restored.
+ * A state is restored by restoring the last full state, then applying the captured changes in order.
+ */
+public interface IncrementalRestorable
+        extends Restorable
+{
+    /**
+     * Determine if the changes since the last capture or restore can be captured incrementally.
+     * If not, for example because the state was modified in place, the full state needs to be captured.
+     */
+    boolean isIncrementalCaptureSupported();
+
+    /**
+     * Capture the changes to this object's internal state since it was last captured or restored
+     *
+     * @return An object representing the state changes
+     */
+    Object captureIncremental(BlockEncodingSerdeProvider serdeProvider);
+
+    /**
+     * Apply state changes captured by {@link #captureIncremental}, on top of the state they were captured from
+     *
+     * @param state an object that represents the state changes
+     */
+    void restoreIncremental(Object state, BlockEncodingSerdeProvider serdeProvider);
+}
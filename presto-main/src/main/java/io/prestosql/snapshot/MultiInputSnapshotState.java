@@ -15,6 +15,7 @@
 package io.prestosql.snapshot;
 
 import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
@@ -29,6 +30,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -66,6 +68,8 @@ public class MultiInputSnapshotState
     // For an operator, this is typically /query-id/snapshot-id/stage-id/task-id/pipeline-id/driver-id/operator-id
     // For a task component, this is typically /query-id/snapshot-id/stage-id/task-id/component-id
     private final Function<Long, SnapshotStateId> snapshotStateIdGenerator;
+    // Receives the future to be blocked on after a state is stored, while too many states are waiting to be written
+    private final Consumer<ListenableFuture<?>> uploadBlockedListener;
     // All input channels, if known
     private Optional<Set<String>> inputChannels;
 
@@ -87,7 +91,8 @@ public class MultiInputSnapshotState
         return new MultiInputSnapshotState(restorable,
                 operatorContext.getDriverContext().getPipelineContext().getTaskContext().getSnapshotManager(),
                 operatorContext.getDriverContext().getSerde(),
-                snapshotId -> SnapshotStateId.forOperator(snapshotId, operatorContext));
+                snapshotId -> SnapshotStateId.forOperator(snapshotId, operatorContext),
+                operatorContext::setSnapshotUploadFuture);
     }
 
     /**
@@ -118,12 +123,23 @@ public class MultiInputSnapshotState
             TaskSnapshotManager snapshotManager,
             PagesSerde serde,
             Function<Long, SnapshotStateId> snapshotStateIdGenerator)
+    {
+        this(restorable, snapshotManager, serde, snapshotStateIdGenerator, future -> {});
+    }
+
+    private MultiInputSnapshotState(
+            MultiInputRestorable restorable,
+            TaskSnapshotManager snapshotManager,
+            PagesSerde serde,
+            Function<Long, SnapshotStateId> snapshotStateIdGenerator,
+            Consumer<ListenableFuture<?>> uploadBlockedListener)
     {
         this.restorable = restorable;
         this.restorableId = String.format("%s (%s)", restorable.getClass().getSimpleName(), snapshotStateIdGenerator.apply(0L).getId());
         this.snapshotManager = snapshotManager;
         this.pagesSerde = serde;
         this.snapshotStateIdGenerator = snapshotStateIdGenerator;
+        this.uploadBlockedListener = uploadBlockedListener;
     }
 
     /**
@@ -419,6 +435,7 @@ public class MultiInputSnapshotState
                 SnapshotStateId componentId = snapshotStateIdGenerator.apply(snapshotId);
                 try {
                     snapshotManager.storeState(componentId, snapshot.states);
+                    uploadBlockedListener.accept(snapshotManager.getUploadBlockedFuture(componentId));
                     snapshotManager.succeededToCapture(componentId);
                     LOG.debug("Successfully saved state to snapshot %d for %s", snapshotId, restorableId);
                 }
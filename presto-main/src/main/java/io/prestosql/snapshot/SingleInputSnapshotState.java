@@ -14,6 +14,8 @@
  */
 package io.prestosql.snapshot;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.prestosql.operator.Operator;
@@ -22,11 +24,18 @@ import io.prestosql.spi.Page;
 import io.prestosql.spi.snapshot.MarkerPage;
 import io.prestosql.spi.snapshot.Restorable;
 
+import java.io.Serializable;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
@@ -50,8 +59,16 @@ public class SingleInputSnapshotState
     // For a given snapshot, generate a unique id, used to locate the folder to store spilled files of this restorable object for that snapshot
     // For an operator, this is typically /query-id/snapshot-id/stage-id/task-id/pipeline-id/driver-id/operator-id-spill/
     private final Function<Long, SnapshotStateId> spillStateIdGenerator;
+    // Receives the future to be blocked on after a state is stored, while too many states are waiting to be written
+    private final Consumer<ListenableFuture<?>> uploadBlockedListener;
     // Markers to be returned to the restorable object. The "nextMarker" method polls this list.
     private final Queue<MarkerPage> markers = new LinkedList<>();
+    // Snapshot whose state was last captured or restored, and number of incremental states since the last full state.
+    // Used to capture state changes incrementally, if the restorable object supports it.
+    private OptionalLong lastSnapshotId = OptionalLong.empty();
+    private int incrementalSnapshots;
+    // Completes when the state of the last snapshot is written to the snapshot store
+    private ListenableFuture<?> lastStoreFuture;
 
     public static SingleInputSnapshotState forOperator(Operator operator, OperatorContext operatorContext)
     {
@@ -60,7 +77,8 @@ public class SingleInputSnapshotState
                 operatorContext.getDriverContext().getPipelineContext().getTaskContext().getSnapshotManager(),
                 operatorContext.getDriverContext().getSerde(),
                 snapshotId -> SnapshotStateId.forOperator(snapshotId, operatorContext),
-                snapshotId -> SnapshotStateId.forDriverComponent(snapshotId, operatorContext, operatorContext.getOperatorId() + "-spill"));
+                snapshotId -> SnapshotStateId.forDriverComponent(snapshotId, operatorContext, operatorContext.getOperatorId() + "-spill"),
+                operatorContext::setSnapshotUploadFuture);
     }
 
     SingleInputSnapshotState(Restorable restorable,
@@ -68,12 +86,23 @@ public class SingleInputSnapshotState
             PagesSerde pagesSerde,
             Function<Long, SnapshotStateId> snapshotStateIdGenerator,
             Function<Long, SnapshotStateId> spillStateIdGenerator)
+    {
+        this(restorable, snapshotManager, pagesSerde, snapshotStateIdGenerator, spillStateIdGenerator, future -> {});
+    }
+
+    SingleInputSnapshotState(Restorable restorable,
+            TaskSnapshotManager snapshotManager,
+            PagesSerde pagesSerde,
+            Function<Long, SnapshotStateId> snapshotStateIdGenerator,
+            Function<Long, SnapshotStateId> spillStateIdGenerator,
+            Consumer<ListenableFuture<?>> uploadBlockedListener)
     {
         this.restorable = requireNonNull(restorable, "restorable is null");
         this.restorableId = String.format("%s (%s)", restorable.getClass().getSimpleName(), snapshotStateIdGenerator.apply(0L).getId());
         this.snapshotManager = requireNonNull(snapshotManager, "snapshotManager is null");
         this.snapshotStateIdGenerator = requireNonNull(snapshotStateIdGenerator, "snapshotStateIdGenerator is null");
         this.spillStateIdGenerator = requireNonNull(spillStateIdGenerator, "spillStateIdGenerator is null");
+        this.uploadBlockedListener = requireNonNull(uploadBlockedListener, "uploadBlockedListener is null");
         this.pagesSerde = pagesSerde;
     }
 
@@ -94,6 +123,8 @@ public class SingleInputSnapshotState
         SnapshotStateId componentId = snapshotStateIdGenerator.apply(snapshotId);
         if (marker.isResuming()) {
             try {
+                lastSnapshotId = OptionalLong.empty();
+                lastStoreFuture = null;
                 Optional<Object> state = snapshotManager.loadState(componentId);
                 if (!state.isPresent()) {
                     snapshotManager.failedToRestore(componentId, true);
@@ -103,8 +134,11 @@ public class SingleInputSnapshotState
                     snapshotManager.failedToRestore(componentId, true);
                     LOG.error("BUG! State of component %s has never been stored successfully before snapshot %d", restorableId, snapshotId);
                 }
+                else if (!restoreState(componentId, state.get())) {
+                    snapshotManager.failedToRestore(componentId, true);
+                    LOG.warn("Can't locate saved state for snapshot %d, component %s", snapshotId, restorableId);
+                }
                 else {
-                    restorable.restore(state.get(), pagesSerde);
                     boolean successful = true;
                     if (restorable instanceof Spillable && ((Spillable) restorable).isSpilled()) {
                         Boolean result = loadSpilledFiles(snapshotId, (Spillable) restorable);
@@ -120,6 +154,7 @@ public class SingleInputSnapshotState
                         }
                     }
                     if (successful) {
+                        lastSnapshotId = OptionalLong.of(snapshotId);
                         LOG.debug("Successfully restored state to snapshot %d for %s", snapshotId, restorableId);
                         snapshotManager.succeededToRestore(componentId);
                     }
@@ -134,10 +169,26 @@ public class SingleInputSnapshotState
         }
         else {
             try {
-                snapshotManager.storeState(componentId, restorable.capture(pagesSerde));
+                Object state;
+                if (isIncrementalCapture()) {
+                    IncrementalState incrementalState = new IncrementalState();
+                    incrementalState.previousSnapshotId = lastSnapshotId.getAsLong();
+                    incrementalState.state = ((IncrementalRestorable) restorable).captureIncremental(pagesSerde);
+                    state = incrementalState;
+                    incrementalSnapshots++;
+                }
+                else {
+                    state = restorable.capture(pagesSerde);
+                    incrementalSnapshots = 0;
+                }
+                // Changes since this snapshot can only be captured incrementally if this snapshot is stored successfully
+                lastSnapshotId = OptionalLong.empty();
+                lastStoreFuture = snapshotManager.storeState(componentId, state);
+                uploadBlockedListener.accept(snapshotManager.getUploadBlockedFuture(componentId));
                 if (restorable instanceof Spillable && ((Spillable) restorable).isSpilled()) {
                     storeSpilledFiles(snapshotId, (Spillable) restorable);
                 }
+                lastSnapshotId = OptionalLong.of(snapshotId);
                 snapshotManager.succeededToCapture(componentId);
                 LOG.debug("Successfully saved state to snapshot %d for %s", snapshotId, restorableId);
             }
@@ -150,6 +201,57 @@ public class SingleInputSnapshotState
         return true;
     }
 
+    private boolean isIncrementalCapture()
+    {
+        return lastSnapshotId.isPresent()
+                && isLastStateStored()
+                && incrementalSnapshots < snapshotManager.getMaxIncrementalSnapshots()
+                && restorable instanceof IncrementalRestorable
+                && ((IncrementalRestorable) restorable).isIncrementalCaptureSupported();
+    }
+
+    // Changes can't be captured on top of a state that may fail to be written
+    private boolean isLastStateStored()
+    {
+        if (lastStoreFuture == null) {
+            return true;
+        }
+        if (!lastStoreFuture.isDone()) {
+            return false;
+        }
+        try {
+            Futures.getDone(lastStoreFuture);
+            return true;
+        }
+        catch (ExecutionException | CancellationException e) {
+            return false;
+        }
+    }
+
+    // Restore the full state the given state is based on, then apply incremental states on top of it.
+    // Returns false if a state the given state is based on can't be located.
+    private boolean restoreState(SnapshotStateId componentId, Object state)
+            throws Exception
+    {
+        Deque<IncrementalState> incrementalStates = new ArrayDeque<>();
+        while (state instanceof IncrementalState) {
+            IncrementalState incrementalState = (IncrementalState) state;
+            incrementalStates.push(incrementalState);
+            Optional<Object> previousState = snapshotManager.loadState(componentId.withSnapshotId(incrementalState.previousSnapshotId));
+            if (!previousState.isPresent() || previousState.get() == TaskSnapshotManager.NO_STATE) {
+                return false;
+            }
+            state = previousState.get();
+        }
+
+        restorable.restore(state, pagesSerde);
+        incrementalSnapshots = incrementalStates.size();
+        while (!incrementalStates.isEmpty()) {
+            ((IncrementalRestorable) restorable).restoreIncremental(incrementalStates.pop().state, pagesSerde);
+        }
+        return true;
+    }
+
     public boolean hasMarker()
     {
         return !markers.isEmpty();
@@ -195,4 +297,12 @@ public class SingleInputSnapshotState
         }
         return true;
     }
+
+    // State changes of a restorable object since the snapshot of the given id
+    private static class IncrementalState
+            implements Serializable
+    {
+        private long previousSnapshotId;
+        private Object state;
+    }
 }
@@ -16,6 +16,7 @@ package io.prestosql.snapshot;
 
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
 import javax.validation.constraints.Min;
@@ -38,6 +39,13 @@ public class SnapshotConfig
     public static final String SNAPSHOT_SPLIT_COUNT_INTERVAL = "hetu.internal.snapshot.splitCountInterval";
     public static final String SNAPSHOT_MAX_RETRIES = "hetu.snapshot.maxRetries";
     public static final String SNAPSHOT_RETRY_TIMEOUT = "hetu.snapshot.retryTimeout";
+    public static final String SNAPSHOT_STATE_FORMAT = "hetu.snapshot.stateFormat";
+    public static final String SNAPSHOT_COMPRESSION_ENABLED = "hetu.snapshot.compressionEnabled";
+    public static final String SNAPSHOT_INCREMENTAL_ENABLED = "hetu.snapshot.incrementalEnabled";
+    public static final String SNAPSHOT_MAX_INCREMENTAL_SNAPSHOTS = "hetu.snapshot.maxIncrementalSnapshots";
+    public static final String SNAPSHOT_ASYNC_UPLOAD_ENABLED = "hetu.snapshot.asyncUploadEnabled";
+    public static final String SNAPSHOT_UPLOAD_THREADS = "hetu.snapshot.uploadThreads";
+    public static final String SNAPSHOT_MAX_PENDING_UPLOAD_SIZE = "hetu.snapshot.maxPendingUploadSize";
 
     private String snapshotProfile;
 
@@ -46,6 +54,13 @@ public class SnapshotConfig
     private long snapshotSplitCountInterval = 1_000;
     private long snapshotMaxRetries = 10;
     private Duration snapshotRetryTimeout = new Duration(10, TimeUnit.MINUTES);
+    private StateFormat snapshotStateFormat = StateFormat.BINARY;
+    private boolean snapshotCompressionEnabled;
+    private boolean incrementalSnapshotEnabled;
+    private int maxIncrementalSnapshots = 10;
+    private boolean asyncUploadEnabled = true;
+    private int uploadThreads = 4;
+    private DataSize maxPendingUploadSize = new DataSize(256, DataSize.Unit.MEGABYTE);
 
     public enum IntervalType
     {
@@ -53,6 +68,12 @@ public class SnapshotConfig
         SPLIT_COUNT
     }
 
+    public enum StateFormat
+    {
+        JAVA,
+        BINARY
+    }
+
     public String getSnapshotProfile()
     {
         return snapshotProfile;
@@ -135,4 +156,99 @@ public class SnapshotConfig
         this.snapshotRetryTimeout = snapshotRetryTimeout;
         return this;
     }
+
+    @NotNull
+    public StateFormat getSnapshotStateFormat()
+    {
+        return snapshotStateFormat;
+    }
+
+    @Config(SNAPSHOT_STATE_FORMAT)
+    @ConfigDescription("snapshot state serialization format")
+    public SnapshotConfig setSnapshotStateFormat(StateFormat snapshotStateFormat)
+    {
+        this.snapshotStateFormat = snapshotStateFormat;
+        return this;
+    }
+
+    public boolean isSnapshotCompressionEnabled()
+    {
+        return snapshotCompressionEnabled;
+    }
+
+    @Config(SNAPSHOT_COMPRESSION_ENABLED)
+    @ConfigDescription("compress snapshot states")
+    public SnapshotConfig setSnapshotCompressionEnabled(boolean snapshotCompressionEnabled)
+    {
+        this.snapshotCompressionEnabled = snapshotCompressionEnabled;
+        return this;
+    }
+
+    public boolean isIncrementalSnapshotEnabled()
+    {
+        return incrementalSnapshotEnabled;
+    }
+
+    @Config(SNAPSHOT_INCREMENTAL_ENABLED)
+    @ConfigDescription("capture only state changes since the previous snapshot for operators that support it")
+    public SnapshotConfig setIncrementalSnapshotEnabled(boolean incrementalSnapshotEnabled)
+    {
+        this.incrementalSnapshotEnabled = incrementalSnapshotEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxIncrementalSnapshots()
+    {
+        return maxIncrementalSnapshots;
+    }
+
+    @Config(SNAPSHOT_MAX_INCREMENTAL_SNAPSHOTS)
+    @ConfigDescription("max number of consecutive incremental snapshots before the full state is captured again")
+    public SnapshotConfig setMaxIncrementalSnapshots(int maxIncrementalSnapshots)
+    {
+        this.maxIncrementalSnapshots = maxIncrementalSnapshots;
+        return this;
+    }
+
+    public boolean isAsyncUploadEnabled()
+    {
+        return asyncUploadEnabled;
+    }
+
+    @Config(SNAPSHOT_ASYNC_UPLOAD_ENABLED)
+    @ConfigDescription("write snapshot states to the snapshot store in the background")
+    public SnapshotConfig setAsyncUploadEnabled(boolean asyncUploadEnabled)
+    {
+        this.asyncUploadEnabled = asyncUploadEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getUploadThreads()
+    {
+        return uploadThreads;
+    }
+
+    @Config(SNAPSHOT_UPLOAD_THREADS)
+    @ConfigDescription("number of threads writing snapshot states to the snapshot store in parallel")
+    public SnapshotConfig setUploadThreads(int uploadThreads)
+    {
+        this.uploadThreads = uploadThreads;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxPendingUploadSize()
+    {
+        return maxPendingUploadSize;
+    }
+
+    @Config(SNAPSHOT_MAX_PENDING_UPLOAD_SIZE)
+    @ConfigDescription("max size of snapshot states waiting to be written, before capturing more states is blocked")
+    public SnapshotConfig setMaxPendingUploadSize(DataSize maxPendingUploadSize)
+    {
+        this.maxPendingUploadSize = maxPendingUploadSize;
+        return this;
+    }
 }
@@ -18,6 +18,7 @@ import com.google.common.io.ByteStreams;
 import io.airlift.log.Logger;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
@@ -42,11 +43,13 @@ public class SnapshotFileBasedClient
 
     private final HetuFileSystemClient fsClient;
     private final Path rootPath;
+    private final SnapshotStateSerde stateSerde;
 
-    public SnapshotFileBasedClient(HetuFileSystemClient fsClient, Path rootPath)
+    public SnapshotFileBasedClient(HetuFileSystemClient fsClient, Path rootPath, SnapshotStateSerde stateSerde)
     {
         this.fsClient = fsClient;
         this.rootPath = rootPath;
+        this.stateSerde = stateSerde;
     }
 
     @Override
@@ -58,7 +61,29 @@ public class SnapshotFileBasedClient
         fsClient.createDirectories(file.getParent());
 
         try (OutputStream outputStream = fsClient.newOutputStream(file)) {
-            SnapshotUtils.serializeState(state, outputStream);
+            stateSerde.serialize(state, outputStream);
+        }
+    }
+
+    @Override
+    public byte[] serializeState(Object state)
+            throws IOException
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        stateSerde.serialize(state, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public void storeSerializedState(SnapshotStateId snapshotStateId, byte[] serializedState)
+            throws IOException
+    {
+        Path file = SnapshotUtils.createStatePath(rootPath, snapshotStateId.getHierarchy());
+
+        fsClient.createDirectories(file.getParent());
+
+        try (OutputStream outputStream = fsClient.newOutputStream(file)) {
+            outputStream.write(serializedState);
         }
     }
 
@@ -72,7 +97,7 @@ public class SnapshotFileBasedClient
         }
 
         try (InputStream inputStream = fsClient.newInputStream(file)) {
-            return Optional.of(SnapshotUtils.deserializeState(inputStream));
+            return Optional.of(stateSerde.deserialize(inputStream));
         }
     }
 
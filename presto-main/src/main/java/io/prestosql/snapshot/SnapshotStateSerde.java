@@ -0,0 +1,745 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.compress.snappy.SnappyFramedInputStream;
+import io.airlift.compress.snappy.SnappyFramedOutputStream;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serializes snapshot states of restorable components.
+ * <p>
+ * With the {@link SnapshotConfig.StateFormat#BINARY} format, a state is written as a header (magic number, format version
+ * and flags) followed by a typed encoding of the state object graph: primitives and primitive arrays are written raw,
+ * slices and blocks are written directly (blocks with the {@link BlockEncodingSerde}), and serializable classes without
+ * custom serialization are written field by field. Other objects fall back to Java serialization.
+ * The body is optionally compressed with framed Snappy.
+ * <p>
+ * States written with the {@link SnapshotConfig.StateFormat#JAVA} format are plain Java serialization streams.
+ * Both formats can always be read, the format of a state is identified from its first bytes.
+ * <p>
+ * An object referenced several times, other than a string, boxed primitive or enum, is written once and then referred to
+ * by the order in which it was first written, so shared and cyclic references are restored as they were.
+ */
+@ThreadSafe
+public class SnapshotStateSerde
+{
+    private static final int MAGIC = 0x48534E50;
+    private static final int MAGIC_LENGTH = 4;
+    // version 1 states have no references, and are read as version 2 states
+    private static final byte MIN_VERSION = 1;
+    private static final byte VERSION = 2;
+    private static final byte FLAG_COMPRESSED = 1;
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte BYTE = 2;
+    private static final byte SHORT = 3;
+    private static final byte CHAR = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte STRING = 9;
+    private static final byte BOOLEAN_ARRAY = 10;
+    private static final byte BYTE_ARRAY = 11;
+    private static final byte SHORT_ARRAY = 12;
+    private static final byte CHAR_ARRAY = 13;
+    private static final byte INT_ARRAY = 14;
+    private static final byte LONG_ARRAY = 15;
+    private static final byte FLOAT_ARRAY = 16;
+    private static final byte DOUBLE_ARRAY = 17;
+    private static final byte OBJECT_ARRAY = 18;
+    private static final byte COLLECTION = 19;
+    private static final byte MAP = 20;
+    private static final byte ENUM = 21;
+    private static final byte SLICE = 22;
+    private static final byte BLOCK = 23;
+    private static final byte OBJECT = 24;
+    private static final byte JAVA_OBJECT = 25;
+    private static final byte REFERENCE = 26;
+
+    // Collections restored with their no-argument constructor. Other collections are written as objects.
+    private static final Set<Class<?>> COLLECTION_CLASSES = ImmutableSet.of(ArrayList.class, LinkedList.class, ArrayDeque.class, HashSet.class, LinkedHashSet.class);
+    private static final Set<Class<?>> MAP_CLASSES = ImmutableSet.of(HashMap.class, LinkedHashMap.class);
+
+    private final SnapshotConfig.StateFormat format;
+    private final boolean compressionEnabled;
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final Map<Class<?>, Optional<StateClass>> stateClasses = new ConcurrentHashMap<>();
+
+    public SnapshotStateSerde(SnapshotConfig.StateFormat format, boolean compressionEnabled, BlockEncodingSerde blockEncodingSerde)
+    {
+        this.format = requireNonNull(format, "format is null");
+        this.compressionEnabled = compressionEnabled;
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+    }
+
+    /**
+     * Serialize state to outputStream
+     */
+    public void serialize(Object state, OutputStream outputStream)
+            throws IOException
+    {
+        if (format == SnapshotConfig.StateFormat.JAVA) {
+            ObjectOutputStream oos = new ObjectOutputStream(outputStream);
+            oos.writeObject(state);
+            oos.flush();
+            return;
+        }
+
+        outputStream.write(new byte[] {(byte) (MAGIC >>> 24), (byte) (MAGIC >>> 16), (byte) (MAGIC >>> 8), (byte) MAGIC, VERSION, compressionEnabled ? FLAG_COMPRESSED : 0});
+        OutputStream body = compressionEnabled ? new SnappyFramedOutputStream(outputStream) : outputStream;
+        SliceOutput output = new OutputStreamSliceOutput(body);
+        new StateWriter(output).writeValue(state);
+        // flushes the compressed stream as well
+        output.flush();
+    }
+
+    /**
+     * Deserialize state from inputStream
+     */
+    public Object deserialize(InputStream inputStream)
+            throws IOException, ClassNotFoundException
+    {
+        PushbackInputStream input = new PushbackInputStream(inputStream, MAGIC_LENGTH);
+        byte[] magic = new byte[MAGIC_LENGTH];
+        int length = 0;
+        while (length < MAGIC_LENGTH) {
+            int read = input.read(magic, length, MAGIC_LENGTH - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        if (length < MAGIC_LENGTH || ((magic[0] & 0xFF) << 24 | (magic[1] & 0xFF) << 16 | (magic[2] & 0xFF) << 8 | (magic[3] & 0xFF)) != MAGIC) {
+            // java serialization
+            input.unread(magic, 0, length);
+            return new ObjectInputStream(input).readObject();
+        }
+
+        int version = input.read();
+        if (version < MIN_VERSION || version > VERSION) {
+            throw new IOException("Unsupported snapshot state format version: " + version);
+        }
+        int flags = input.read();
+        if (flags < 0) {
+            throw new IOException("Unexpected end of snapshot state");
+        }
+        InputStream body = (flags & FLAG_COMPRESSED) != 0 ? new SnappyFramedInputStream(input, true) : input;
+        return new StateReader(new InputStreamSliceInput(body)).readValue();
+    }
+
+    private Optional<StateClass> getStateClass(Class<?> clazz)
+    {
+        return stateClasses.computeIfAbsent(clazz, StateClass::create);
+    }
+
+    private class StateWriter
+    {
+        private final SliceOutput output;
+        private final Map<Class<?>, Integer> classIds = new IdentityHashMap<>();
+        private final Map<Object, Integer> objectIds = new IdentityHashMap<>();
+
+        private StateWriter(SliceOutput output)
+        {
+            this.output = output;
+        }
+
+        private void writeValue(Object value)
+                throws IOException
+        {
+            if (value != null && !isImmutableValue(value)) {
+                Integer id = objectIds.get(value);
+                if (id != null) {
+                    output.writeByte(REFERENCE);
+                    output.writeInt(id);
+                    return;
+                }
+                // the id is assigned before the object is written, so that the object can refer to itself
+                objectIds.put(value, objectIds.size());
+            }
+
+            if (value == null) {
+                output.writeByte(NULL);
+            }
+            else if (value instanceof Boolean) {
+                output.writeByte(BOOLEAN);
+                output.writeBoolean((Boolean) value);
+            }
+            else if (value instanceof Byte) {
+                output.writeByte(BYTE);
+                output.writeByte((Byte) value);
+            }
+            else if (value instanceof Short) {
+                output.writeByte(SHORT);
+                output.writeShort((Short) value);
+            }
+            else if (value instanceof Character) {
+                output.writeByte(CHAR);
+                output.writeShort((Character) value);
+            }
+            else if (value instanceof Integer) {
+                output.writeByte(INT);
+                output.writeInt((Integer) value);
+            }
+            else if (value instanceof Long) {
+                output.writeByte(LONG);
+                output.writeLong((Long) value);
+            }
+            else if (value instanceof Float) {
+                output.writeByte(FLOAT);
+                output.writeFloat((Float) value);
+            }
+            else if (value instanceof Double) {
+                output.writeByte(DOUBLE);
+                output.writeDouble((Double) value);
+            }
+            else if (value instanceof String) {
+                output.writeByte(STRING);
+                writeString((String) value);
+            }
+            else if (value.getClass().isArray()) {
+                writeArray(value);
+            }
+            else if (value instanceof Enum) {
+                output.writeByte(ENUM);
+                writeClass(((Enum<?>) value).getDeclaringClass());
+                output.writeInt(((Enum<?>) value).ordinal());
+            }
+            else if (value instanceof Slice) {
+                Slice slice = (Slice) value;
+                output.writeByte(SLICE);
+                output.writeInt(slice.length());
+                output.writeBytes(slice);
+            }
+            else if (value instanceof Block) {
+                output.writeByte(BLOCK);
+                blockEncodingSerde.writeBlock(output, (Block<?>) value);
+            }
+            else if (COLLECTION_CLASSES.contains(value.getClass())) {
+                Collection<?> collection = (Collection<?>) value;
+                output.writeByte(COLLECTION);
+                writeClass(value.getClass());
+                output.writeInt(collection.size());
+                for (Object element : collection) {
+                    writeValue(element);
+                }
+            }
+            else if (MAP_CLASSES.contains(value.getClass())) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                output.writeByte(MAP);
+                writeClass(value.getClass());
+                output.writeInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+            }
+            else {
+                Optional<StateClass> stateClass = getStateClass(value.getClass());
+                if (stateClass.isPresent()) {
+                    output.writeByte(OBJECT);
+                    writeClass(value.getClass());
+                    writeFields(stateClass.get(), value);
+                }
+                else {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                        oos.writeObject(value);
+                    }
+                    output.writeByte(JAVA_OBJECT);
+                    output.writeInt(bytes.size());
+                    output.writeBytes(bytes.toByteArray());
+                }
+            }
+        }
+
+        private boolean isImmutableValue(Object value)
+        {
+            return value instanceof Boolean || value instanceof Byte || value instanceof Short || value instanceof Character ||
+                    value instanceof Integer || value instanceof Long || value instanceof Float || value instanceof Double ||
+                    value instanceof String || value instanceof Enum;
+        }
+
+        private void writeArray(Object array)
+                throws IOException
+        {
+            Class<?> componentType = array.getClass().getComponentType();
+            if (componentType == boolean.class) {
+                boolean[] values = (boolean[]) array;
+                output.writeByte(BOOLEAN_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(Slices.wrappedBooleanArray(values));
+            }
+            else if (componentType == byte.class) {
+                byte[] values = (byte[]) array;
+                output.writeByte(BYTE_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(values);
+            }
+            else if (componentType == short.class) {
+                short[] values = (short[]) array;
+                output.writeByte(SHORT_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(Slices.wrappedShortArray(values));
+            }
+            else if (componentType == char.class) {
+                char[] values = (char[]) array;
+                output.writeByte(CHAR_ARRAY);
+                output.writeInt(values.length);
+                for (char value : values) {
+                    output.writeShort(value);
+                }
+            }
+            else if (componentType == int.class) {
+                int[] values = (int[]) array;
+                output.writeByte(INT_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(Slices.wrappedIntArray(values));
+            }
+            else if (componentType == long.class) {
+                long[] values = (long[]) array;
+                output.writeByte(LONG_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(Slices.wrappedLongArray(values));
+            }
+            else if (componentType == float.class) {
+                float[] values = (float[]) array;
+                output.writeByte(FLOAT_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(Slices.wrappedFloatArray(values));
+            }
+            else if (componentType == double.class) {
+                double[] values = (double[]) array;
+                output.writeByte(DOUBLE_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(Slices.wrappedDoubleArray(values));
+            }
+            else {
+                Object[] values = (Object[]) array;
+                output.writeByte(OBJECT_ARRAY);
+                writeClass(componentType);
+                output.writeInt(values.length);
+                for (Object value : values) {
+                    writeValue(value);
+                }
+            }
+        }
+
+        private void writeFields(StateClass stateClass, Object value)
+                throws IOException
+        {
+            try {
+                for (Field field : stateClass.getFields()) {
+                    Class<?> type = field.getType();
+                    if (!type.isPrimitive()) {
+                        writeValue(field.get(value));
+                    }
+                    else if (type == boolean.class) {
+                        output.writeBoolean(field.getBoolean(value));
+                    }
+                    else if (type == byte.class) {
+                        output.writeByte(field.getByte(value));
+                    }
+                    else if (type == short.class) {
+                        output.writeShort(field.getShort(value));
+                    }
+                    else if (type == char.class) {
+                        output.writeShort(field.getChar(value));
+                    }
+                    else if (type == int.class) {
+                        output.writeInt(field.getInt(value));
+                    }
+                    else if (type == long.class) {
+                        output.writeLong(field.getLong(value));
+                    }
+                    else if (type == float.class) {
+                        output.writeFloat(field.getFloat(value));
+                    }
+                    else {
+                        output.writeDouble(field.getDouble(value));
+                    }
+                }
+            }
+            catch (IllegalAccessException e) {
+                throw new IOException("Failed to write field of " + value.getClass().getName(), e);
+            }
+        }
+
+        private void writeClass(Class<?> clazz)
+        {
+            Integer id = classIds.get(clazz);
+            if (id != null) {
+                output.writeInt(id);
+                return;
+            }
+            // the first reference to a class is followed by its name
+            output.writeInt(classIds.size());
+            classIds.put(clazz, classIds.size());
+            writeString(clazz.getName());
+        }
+
+        private void writeString(String value)
+        {
+            byte[] bytes = value.getBytes(UTF_8);
+            output.writeInt(bytes.length);
+            output.writeBytes(bytes);
+        }
+    }
+
+    private class StateReader
+    {
+        private final SliceInput input;
+        private final List<Class<?>> classes = new ArrayList<>();
+        // objects in the order they were written, which is the order their ids were assigned in
+        private final List<Object> objects = new ArrayList<>();
+
+        private StateReader(SliceInput input)
+        {
+            this.input = input;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object readValue()
+                throws IOException, ClassNotFoundException
+        {
+            byte tag = input.readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case BOOLEAN:
+                    return input.readBoolean();
+                case BYTE:
+                    return input.readByte();
+                case SHORT:
+                    return input.readShort();
+                case CHAR:
+                    return (char) input.readShort();
+                case INT:
+                    return input.readInt();
+                case LONG:
+                    return input.readLong();
+                case FLOAT:
+                    return input.readFloat();
+                case DOUBLE:
+                    return input.readDouble();
+                case STRING:
+                    return readString();
+                case BOOLEAN_ARRAY: {
+                    boolean[] values = register(new boolean[input.readInt()]);
+                    input.readBytes(Slices.wrappedBooleanArray(values));
+                    return values;
+                }
+                case BYTE_ARRAY: {
+                    byte[] values = register(new byte[input.readInt()]);
+                    input.readBytes(values);
+                    return values;
+                }
+                case SHORT_ARRAY: {
+                    short[] values = register(new short[input.readInt()]);
+                    input.readBytes(Slices.wrappedShortArray(values));
+                    return values;
+                }
+                case CHAR_ARRAY: {
+                    char[] values = register(new char[input.readInt()]);
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = (char) input.readShort();
+                    }
+                    return values;
+                }
+                case INT_ARRAY: {
+                    int[] values = register(new int[input.readInt()]);
+                    input.readBytes(Slices.wrappedIntArray(values));
+                    return values;
+                }
+                case LONG_ARRAY: {
+                    long[] values = register(new long[input.readInt()]);
+                    input.readBytes(Slices.wrappedLongArray(values));
+                    return values;
+                }
+                case FLOAT_ARRAY: {
+                    float[] values = register(new float[input.readInt()]);
+                    input.readBytes(Slices.wrappedFloatArray(values));
+                    return values;
+                }
+                case DOUBLE_ARRAY: {
+                    double[] values = register(new double[input.readInt()]);
+                    input.readBytes(Slices.wrappedDoubleArray(values));
+                    return values;
+                }
+                case OBJECT_ARRAY: {
+                    Class<?> componentType = readClass();
+                    Object[] values = register((Object[]) Array.newInstance(componentType, input.readInt()));
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = readValue();
+                    }
+                    return values;
+                }
+                case COLLECTION: {
+                    Collection<Object> collection = register((Collection<Object>) newInstance(readClass()));
+                    int size = input.readInt();
+                    for (int i = 0; i < size; i++) {
+                        collection.add(readValue());
+                    }
+                    return collection;
+                }
+                case MAP: {
+                    Map<Object, Object> map = register((Map<Object, Object>) newInstance(readClass()));
+                    int size = input.readInt();
+                    for (int i = 0; i < size; i++) {
+                        Object key = readValue();
+                        map.put(key, readValue());
+                    }
+                    return map;
+                }
+                case ENUM:
+                    return readClass().getEnumConstants()[input.readInt()];
+                case SLICE: {
+                    byte[] bytes = new byte[input.readInt()];
+                    input.readBytes(bytes);
+                    return register(Slices.wrappedBuffer(bytes));
+                }
+                case BLOCK:
+                    return register(blockEncodingSerde.readBlock(input));
+                case OBJECT: {
+                    Class<?> clazz = readClass();
+                    StateClass stateClass = getStateClass(clazz)
+                            .orElseThrow(() -> new IOException("Class cannot be restored field by field: " + clazz.getName()));
+                    return readFields(stateClass);
+                }
+                case JAVA_OBJECT: {
+                    byte[] bytes = new byte[input.readInt()];
+                    input.readBytes(bytes);
+                    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                        return register(ois.readObject());
+                    }
+                }
+                case REFERENCE: {
+                    int id = input.readInt();
+                    if (id < 0 || id >= objects.size()) {
+                        throw new IOException("Invalid snapshot state reference: " + id);
+                    }
+                    return objects.get(id);
+                }
+                default:
+                    throw new IOException("Invalid snapshot state value tag: " + tag);
+            }
+        }
+
+        private Object readFields(StateClass stateClass)
+                throws IOException, ClassNotFoundException
+        {
+            Object value = register(stateClass.newInstance());
+            try {
+                for (Field field : stateClass.getFields()) {
+                    Class<?> type = field.getType();
+                    if (!type.isPrimitive()) {
+                        field.set(value, readValue());
+                    }
+                    else if (type == boolean.class) {
+                        field.setBoolean(value, input.readBoolean());
+                    }
+                    else if (type == byte.class) {
+                        field.setByte(value, input.readByte());
+                    }
+                    else if (type == short.class) {
+                        field.setShort(value, input.readShort());
+                    }
+                    else if (type == char.class) {
+                        field.setChar(value, (char) input.readShort());
+                    }
+                    else if (type == int.class) {
+                        field.setInt(value, input.readInt());
+                    }
+                    else if (type == long.class) {
+                        field.setLong(value, input.readLong());
+                    }
+                    else if (type == float.class) {
+                        field.setFloat(value, input.readFloat());
+                    }
+                    else {
+                        field.setDouble(value, input.readDouble());
+                    }
+                }
+            }
+            catch (IllegalAccessException | IllegalArgumentException e) {
+                throw new IOException("Failed to restore field of " + value.getClass().getName(), e);
+            }
+            return value;
+        }
+
+        private <T> T register(T value)
+        {
+            objects.add(value);
+            return value;
+        }
+
+        private Class<?> readClass()
+                throws ClassNotFoundException
+        {
+            int id = input.readInt();
+            if (id < classes.size()) {
+                return classes.get(id);
+            }
+            Class<?> clazz = Class.forName(readString(), false, SnapshotStateSerde.class.getClassLoader());
+            classes.add(clazz);
+            return clazz;
+        }
+
+        private Object newInstance(Class<?> clazz)
+                throws IOException
+        {
+            try {
+                return clazz.getConstructor().newInstance();
+            }
+            catch (ReflectiveOperationException e) {
+                throw new IOException("Failed to create " + clazz.getName(), e);
+            }
+        }
+
+        private String readString()
+        {
+            byte[] bytes = new byte[input.readInt()];
+            input.readBytes(bytes);
+            return new String(bytes, UTF_8);
+        }
+    }
+
+    /**
+     * Serializable class whose fields are written one by one: it has no custom serialization,
+     * a no-argument constructor, and its superclasses are serializable or {@link Object}
+     */
+    private static class StateClass
+    {
+        private static final Set<String> SERIALIZATION_METHODS = ImmutableSet.of("writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve");
+
+        private final Constructor<?> constructor;
+        private final List<Field> fields;
+
+        private StateClass(Constructor<?> constructor, List<Field> fields)
+        {
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+
+        private static Optional<StateClass> create(Class<?> clazz)
+        {
+            if (!Serializable.class.isAssignableFrom(clazz) || Externalizable.class.isAssignableFrom(clazz) || clazz.isSynthetic() || Proxy.isProxyClass(clazz)) {
+                return Optional.empty();
+            }
+            Constructor<?> constructor;
+            try {
+                constructor = clazz.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            }
+            catch (NoSuchMethodException | SecurityException e) {
+                return Optional.empty();
+            }
+
+            ImmutableList.Builder<Field> fields = ImmutableList.builder();
+            for (Class<?> current = clazz; current != Object.class; current = current.getSuperclass()) {
+                if (!Serializable.class.isAssignableFrom(current) || hasCustomSerialization(current)) {
+                    return Optional.empty();
+                }
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                    }
+                    catch (SecurityException e) {
+                        return Optional.empty();
+                    }
+                    fields.add(field);
+                }
+            }
+            return Optional.of(new StateClass(constructor, fields.build()));
+        }
+
+        private static boolean hasCustomSerialization(Class<?> clazz)
+        {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (SERIALIZATION_METHODS.contains(method.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private List<Field> getFields()
+        {
+            return fields;
+        }
+
+        private Object newInstance()
+                throws IOException
+        {
+            try {
+                return constructor.newInstance();
+            }
+            catch (ReflectiveOperationException e) {
+                throw new IOException("Failed to create " + constructor.getDeclaringClass().getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+/**
+ * Writes serialized snapshot states to the snapshot store in the background, using a fixed number of threads.
+ * The total size of states waiting to be written is bounded: once it exceeds the limit, the future returned by
+ * getBlockedFuture() completes only after enough pending states have been written. Callers don't wait on it,
+ * they surface it to the driver, the same way as a memory reservation above the pool limit.
+ */
+@ThreadSafe
+class SnapshotStateUploader
+{
+    private static final ListenableFuture<?> NOT_BLOCKED = immediateFuture(null);
+
+    private final ListeningExecutorService executor;
+    private final long maxPendingBytes;
+    private final Map<SnapshotStateId, ListenableFuture<?>> pendingUploads = new ConcurrentHashMap<>();
+
+    @GuardedBy("this")
+    private long pendingBytes;
+    // Completed once the pending size is back under the limit; null when not blocked
+    @GuardedBy("this")
+    private SettableFuture<?> notFullFuture;
+
+    SnapshotStateUploader(int uploadThreads, long maxPendingBytes)
+    {
+        checkArgument(uploadThreads > 0, "uploadThreads must be positive");
+        checkArgument(maxPendingBytes > 0, "maxPendingBytes must be positive");
+        this.executor = listeningDecorator(newFixedThreadPool(uploadThreads, daemonThreadsNamed("snapshot-upload-%s")));
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * Schedule the upload of a state of the given size. This never blocks, see getBlockedFuture().
+     */
+    ListenableFuture<?> upload(SnapshotStateId snapshotStateId, long size, Callable<?> upload)
+    {
+        requireNonNull(snapshotStateId, "snapshotStateId is null");
+        requireNonNull(upload, "upload is null");
+        reserve(size);
+
+        ListenableFuture<?> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    return upload.call();
+                }
+                finally {
+                    release(size);
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            release(size);
+            throw e;
+        }
+        pendingUploads.put(snapshotStateId, future);
+        future.addListener(() -> pendingUploads.remove(snapshotStateId, future), directExecutor());
+        return future;
+    }
+
+    /**
+     * Wait for the pending upload of the given state, if any, so it can be loaded from the snapshot store.
+     * A failed upload is ignored, as the state is then missing from the snapshot store.
+     */
+    void waitForUpload(SnapshotStateId snapshotStateId)
+            throws InterruptedException
+    {
+        ListenableFuture<?> future = pendingUploads.get(snapshotStateId);
+        if (future != null) {
+            try {
+                future.get();
+            }
+            catch (ExecutionException e) {
+                // Ignore. Upload failure is reported through the future returned by upload().
+            }
+        }
+    }
+
+    /**
+     * Completes when the size of pending states is within the limit. States shouldn't be captured until then.
+     */
+    synchronized ListenableFuture<?> getBlockedFuture()
+    {
+        if (pendingBytes <= maxPendingBytes) {
+            return NOT_BLOCKED;
+        }
+        if (notFullFuture == null) {
+            notFullFuture = SettableFuture.create();
+        }
+        return notFullFuture;
+    }
+
+    synchronized long getPendingBytes()
+    {
+        return pendingBytes;
+    }
+
+    void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    private synchronized void reserve(long size)
+    {
+        pendingBytes += size;
+    }
+
+    private void release(long size)
+    {
+        SettableFuture<?> future;
+        synchronized (this) {
+            pendingBytes -= size;
+            if (notFullFuture == null || pendingBytes > maxPendingBytes) {
+                return;
+            }
+            future = notFullFuture;
+            notFullFuture = null;
+        }
+        // complete outside of the lock, as listeners run on this thread
+        future.set(null);
+    }
+}
@@ -29,6 +29,18 @@ public interface SnapshotStoreClient
     void storeState(SnapshotStateId snapshotStateId, Object state)
             throws Exception;
 
+    /**
+     * Serialize state into the format it is stored in, so it can be stored later with storeSerializedState
+     */
+    byte[] serializeState(Object state)
+            throws Exception;
+
+    /**
+     * Store state serialized by serializeState in snapshot store
+     */
+    void storeSerializedState(SnapshotStateId snapshotStateId, byte[] serializedState)
+            throws Exception;
+
     /**
      * Load state from snapshot store. Optional.empty() is returned if state doesn't exist.
      */
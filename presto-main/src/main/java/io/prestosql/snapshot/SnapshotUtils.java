@@ -15,7 +15,10 @@
 package io.prestosql.snapshot;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
@@ -25,16 +28,15 @@ import io.prestosql.filesystem.FileSystemClientManager;
 import io.prestosql.metadata.InternalNodeManager;
 import io.prestosql.spi.QueryId;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
@@ -44,6 +46,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -54,11 +58,15 @@ public class SnapshotUtils
     private static final Logger LOG = Logger.get(SnapshotUtils.class);
     private static final int CLEANUP_INTERVAL_MINUTES = 3; // 3 minutes
     private static final long DELETION_RETRY_PERIOD = 15L * 60 * 1000; // 15 minutes
+    private static final long QUERY_WRITE_STATS_EXPIRATION_MINUTES = 60; // 1 hour
 
     private final boolean isCoordinator;
     private final FileSystemClientManager fileSystemClientManager;
     private final SnapshotConfig snapshotConfig;
+    private final BlockEncodingSerde blockEncodingSerde;
     private SnapshotStoreClient snapshotStoreClient;
+    // Writes states in the background; null if states are written by the thread capturing them
+    private SnapshotStateUploader stateUploader;
     //TODO-cp-I2D63N hardcoded 'storeType' and 'rootPath' for now, may change to configurable after done switching to state-store
     private final SnapshotStoreType storeType = SnapshotStoreType.FILESYSTEM;
     // TODO-cp-I2D63N: use /tmp for now to avoid permission issues with writing to /opt
@@ -70,12 +78,19 @@ public class SnapshotUtils
     private final Map<String, Long> snapshotsToDelete = new ConcurrentHashMap<>();
     private final ScheduledThreadPoolExecutor deleteSnapshotExecutor = new ScheduledThreadPoolExecutor(1);
 
+    private final SnapshotWriteStats writeStats = new SnapshotWriteStats();
+    // Workers don't know when a query is done, so keep write stats of a query until it's no longer updated
+    private final Cache<QueryId, SnapshotWriteStats> queryWriteStats = CacheBuilder.newBuilder()
+            .expireAfterAccess(QUERY_WRITE_STATS_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+            .build();
+
     @Inject
-    public SnapshotUtils(FileSystemClientManager fileSystemClientManager, SnapshotConfig snapshotConfig, InternalNodeManager nodeManager)
+    public SnapshotUtils(FileSystemClientManager fileSystemClientManager, SnapshotConfig snapshotConfig, InternalNodeManager nodeManager, BlockEncodingSerde blockEncodingSerde)
     {
         this.isCoordinator = nodeManager.getCurrentNode().isCoordinator();
         this.fileSystemClientManager = requireNonNull(fileSystemClientManager);
         this.snapshotConfig = requireNonNull(snapshotConfig);
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde);
 
         // When a query finishes abnormally (including being cancelled by the user), we may not be able to delete
         // the snapshot folder, because tasks may be updating snapshot files at the same time.
@@ -87,6 +102,15 @@ public class SnapshotUtils
                 TimeUnit.MINUTES);
     }
 
+    @PreDestroy
+    public void stop()
+    {
+        deleteSnapshotExecutor.shutdownNow();
+        if (stateUploader != null) {
+            stateUploader.shutdown();
+        }
+    }
+
     public boolean isCoordinator()
     {
         return isCoordinator;
@@ -102,9 +126,20 @@ public class SnapshotUtils
         return snapshotConfig.getSnapshotProfile();
     }
 
+    /**
+     * Max number of consecutive incremental snapshots of a component; 0 if incremental snapshots are disabled
+     */
+    public int getMaxIncrementalSnapshots()
+    {
+        return snapshotConfig.isIncrementalSnapshotEnabled() ? snapshotConfig.getMaxIncrementalSnapshots() : 0;
+    }
+
     public void initialize()
     {
         snapshotStoreClient = buildSnapshotStoreClient();
+        if (snapshotStoreClient != null && snapshotConfig.isAsyncUploadEnabled()) {
+            stateUploader = new SnapshotStateUploader(snapshotConfig.getUploadThreads(), snapshotConfig.getMaxPendingUploadSize().toBytes());
+        }
     }
 
     private SnapshotStoreClient buildSnapshotStoreClient()
@@ -115,7 +150,8 @@ public class SnapshotUtils
             try {
                 HetuFileSystemClient fs = profile == null ?
                         fileSystemClientManager.getFileSystemClient(root) : fileSystemClientManager.getFileSystemClient(profile, root);
-                return new SnapshotFileBasedClient(fs, root);
+                SnapshotStateSerde stateSerde = new SnapshotStateSerde(snapshotConfig.getSnapshotStateFormat(), snapshotConfig.isSnapshotCompressionEnabled(), blockEncodingSerde);
+                return new SnapshotFileBasedClient(fs, root, stateSerde);
             }
             catch (Exception e) {
                 LOG.warn(e, "Failed to create SnapshotFileBasedClient");
@@ -130,15 +166,92 @@ public class SnapshotUtils
     }
 
     /**
-     * Store the state of snapshotStateId in snapshot store
+     * Store the state of snapshotStateId in snapshot store.
+     * The state is serialized by the calling thread, so it can be modified once this method returns.
+     * If asynchronous upload is enabled, it's then written in the background, and the returned future completes
+     * when the state is written. This doesn't block the caller, see getUploadBlockedFuture().
      */
-    public void storeState(SnapshotStateId snapshotStateId, Object state)
+    public ListenableFuture<?> storeState(SnapshotStateId snapshotStateId, Object state)
             throws Exception
     {
         requireNonNull(snapshotStoreClient);
         requireNonNull(state);
 
-        snapshotStoreClient.storeState(snapshotStateId, state);
+        byte[] serializedState = snapshotStoreClient.serializeState(state);
+        if (stateUploader == null) {
+            writeState(snapshotStateId, serializedState);
+            return immediateFuture(null);
+        }
+
+        return stateUploader.upload(snapshotStateId, serializedState.length, () -> writeState(snapshotStateId, serializedState));
+    }
+
+    /**
+     * Completes when the size of states waiting to be written is back within the limit. The component that stored
+     * snapshotStateId should be blocked until then, instead of capturing more states.
+     */
+    public ListenableFuture<?> getUploadBlockedFuture(SnapshotStateId snapshotStateId)
+    {
+        if (stateUploader == null) {
+            return immediateFuture(null);
+        }
+
+        ListenableFuture<?> future = stateUploader.getBlockedFuture();
+        if (!future.isDone()) {
+            SnapshotWriteStats stats = getQueryWriteStats(snapshotStateId);
+            long start = System.nanoTime();
+            future.addListener(() -> {
+                long blockedNanos = System.nanoTime() - start;
+                writeStats.recordBlocked(blockedNanos);
+                stats.recordBlocked(blockedNanos);
+            }, directExecutor());
+        }
+        return future;
+    }
+
+    private Void writeState(SnapshotStateId snapshotStateId, byte[] serializedState)
+            throws Exception
+    {
+        SnapshotWriteStats stats = getQueryWriteStats(snapshotStateId);
+        long start = System.nanoTime();
+        try {
+            snapshotStoreClient.storeSerializedState(snapshotStateId, serializedState);
+        }
+        catch (Exception e) {
+            writeStats.recordFailedWrite();
+            stats.recordFailedWrite();
+            throw e;
+        }
+        long writeNanos = System.nanoTime() - start;
+        writeStats.recordWrite(serializedState.length, writeNanos);
+        stats.recordWrite(serializedState.length, writeNanos);
+        return null;
+    }
+
+    private SnapshotWriteStats getQueryWriteStats(SnapshotStateId snapshotStateId)
+    {
+        return queryWriteStats.asMap().computeIfAbsent(snapshotStateId.getTaskId().getQueryId(), queryId -> new SnapshotWriteStats());
+    }
+
+    /**
+     * Statistics of states written by this node for the query, if any has been written recently
+     */
+    public Optional<SnapshotWriteStats> getQueryWriteStats(QueryId queryId)
+    {
+        return Optional.ofNullable(queryWriteStats.getIfPresent(queryId));
+    }
+
+    @Managed
+    @Nested
+    public SnapshotWriteStats getWriteStats()
+    {
+        return writeStats;
+    }
+
+    @Managed(description = "Size of snapshot states waiting to be written")
+    public long getPendingUploadBytes()
+    {
+        return stateUploader == null ? 0 : stateUploader.getPendingBytes();
     }
 
     /**
@@ -151,6 +264,10 @@ public class SnapshotUtils
             throws Exception
     {
         requireNonNull(snapshotStoreClient);
+        if (stateUploader != null) {
+            // The state may still be being written
+            stateUploader.waitForUpload(snapshotStateId);
+        }
         return snapshotStoreClient.loadState(snapshotStateId);
     }
 
@@ -184,29 +301,6 @@ public class SnapshotUtils
         return snapshotStoreClient.loadSnapshotResult(queryId);
     }
 
-    /**
-     * Serialize state to outputStream
-     */
-    public static void serializeState(Object state, OutputStream outputStream)
-            throws IOException
-    {
-        // java serialization
-        ObjectOutputStream oos = new ObjectOutputStream(outputStream);
-        oos.writeObject(state);
-        oos.flush();
-    }
-
-    /**
-     * Deserialize state from inputStream
-     */
-    public static Object deserializeState(InputStream inputStream)
-            throws IOException, ClassNotFoundException
-    {
-        // java deserialization
-        ObjectInputStream ois = new ObjectInputStream(inputStream);
-        return ois.readObject();
-    }
-
     /**
      * Create state path
      *
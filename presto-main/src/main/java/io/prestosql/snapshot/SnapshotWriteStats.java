@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Statistics of snapshot states written to the snapshot store, either of a node or of a query
+ */
+public class SnapshotWriteStats
+{
+    private final CounterStat writtenBytes = new CounterStat();
+    private final CounterStat writtenStates = new CounterStat();
+    private final CounterStat failedWrites = new CounterStat();
+    private final TimeStat writeTime = new TimeStat(MILLISECONDS);
+    private final TimeStat blockedTime = new TimeStat(MILLISECONDS);
+
+    @Managed
+    @Nested
+    public CounterStat getWrittenBytes()
+    {
+        return writtenBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getWrittenStates()
+    {
+        return writtenStates;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getFailedWrites()
+    {
+        return failedWrites;
+    }
+
+    @Managed(description = "Time to write a state to the snapshot store")
+    @Nested
+    public TimeStat getWriteTime()
+    {
+        return writeTime;
+    }
+
+    @Managed(description = "Time capturing a state was blocked, waiting for pending writes")
+    @Nested
+    public TimeStat getBlockedTime()
+    {
+        return blockedTime;
+    }
+
+    void recordWrite(long bytes, long nanos)
+    {
+        writtenBytes.update(bytes);
+        writtenStates.update(1);
+        writeTime.add(nanos, NANOSECONDS);
+    }
+
+    void recordFailedWrite()
+    {
+        failedWrites.update(1);
+    }
+
+    void recordBlocked(long nanos)
+    {
+        blockedTime.add(nanos, NANOSECONDS);
+    }
+}
@@ -15,6 +15,9 @@
 package io.prestosql.snapshot;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 import io.prestosql.execution.TaskId;
 import io.prestosql.operator.Operator;
@@ -29,8 +32,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -50,6 +57,9 @@ public class TaskSnapshotManager
     private final Map<Long, SnapshotResult> captureResults = new LinkedHashMap<>();
     private final Map<Long, SnapshotComponentCounter<SnapshotStateId>> restoreComponentCounters = Collections.synchronizedMap(new LinkedHashMap<>());
     private final RestoreResult restoreResult = new RestoreResult();
+    // States of components that are still being written. A component's capture result is only reported once they are written.
+    private final Map<SnapshotStateId, List<ListenableFuture<?>>> pendingStores = new ConcurrentHashMap<>();
+    private final Set<SnapshotStateId> pendingCaptures = ConcurrentHashMap.newKeySet();
 
     public TaskSnapshotManager(TaskId taskId, SnapshotUtils snapshotUtils)
     {
@@ -58,12 +68,24 @@ public class TaskSnapshotManager
     }
 
     /**
-     * Store the state of snapshotStateId in snapshot store
+     * Store the state of snapshotStateId in snapshot store.
+     * The state may be written in the background; the returned future completes when it's written.
+     * The result of the capture is only reported once the states of the component are written.
      */
-    public void storeState(SnapshotStateId snapshotStateId, Object state)
+    public ListenableFuture<?> storeState(SnapshotStateId snapshotStateId, Object state)
             throws Exception
     {
-        snapshotUtils.storeState(snapshotStateId, state);
+        ListenableFuture<?> future = snapshotUtils.storeState(snapshotStateId, state);
+        pendingStores.computeIfAbsent(snapshotStateId, id -> new CopyOnWriteArrayList<>()).add(future);
+        return future;
+    }
+
+    /**
+     * Completes when the states waiting to be written are back within the limit, see SnapshotUtils.getUploadBlockedFuture()
+     */
+    public ListenableFuture<?> getUploadBlockedFuture(SnapshotStateId snapshotStateId)
+    {
+        return snapshotUtils.getUploadBlockedFuture(snapshotStateId);
     }
 
     /**
@@ -103,6 +125,11 @@ public class TaskSnapshotManager
         return state;
     }
 
+    public int getMaxIncrementalSnapshots()
+    {
+        return snapshotUtils.getMaxIncrementalSnapshots();
+    }
+
     public void storeFile(SnapshotStateId snapshotStateId, Path sourceFile)
             throws Exception
     {
@@ -166,11 +193,35 @@ public class TaskSnapshotManager
 
     public void succeededToCapture(SnapshotStateId componentId)
     {
-        updateCapture(componentId, SnapshotComponentCounter.ComponentState.SUCCESSFUL);
+        List<ListenableFuture<?>> stores = pendingStores.remove(componentId);
+        if (stores == null) {
+            updateCapture(componentId, SnapshotComponentCounter.ComponentState.SUCCESSFUL);
+            return;
+        }
+
+        pendingCaptures.add(componentId);
+        Futures.addCallback(Futures.allAsList(stores), new FutureCallback<List<Object>>()
+        {
+            @Override
+            public void onSuccess(List<Object> result)
+            {
+                updateCapture(componentId, SnapshotComponentCounter.ComponentState.SUCCESSFUL);
+                pendingCaptures.remove(componentId);
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                LOG.warn(t, "Failed to store snapshot state for %s", componentId);
+                failedToCapture(componentId);
+                pendingCaptures.remove(componentId);
+            }
+        }, directExecutor());
     }
 
     public void failedToCapture(SnapshotStateId componentId)
     {
+        pendingStores.remove(componentId);
         LOG.debug("Failed to capture snapshot %d for component %s", componentId.getSnapshotId(), componentId);
         updateCapture(componentId, SnapshotComponentCounter.ComponentState.FAILED);
     }
@@ -279,6 +330,10 @@ public class TaskSnapshotManager
                         // i.e. based on dthe plan node id
                         operatorId = SnapshotStateId.forTaskComponent(snapshotId, operator.getOperatorContext().getDriverContext().getPipelineContext().getTaskContext(), ((LocalMergeSourceOperator) operator).getPlanNodeId());
                     }
+                    if (pendingCaptures.contains(operatorId)) {
+                        // Result is reported once its state is written
+                        continue;
+                    }
                     updateCapture(operatorId, SnapshotComponentCounter.ComponentState.SUCCESSFUL);
                 }
             }
@@ -16,13 +16,16 @@ package io.prestosql.spiller;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
@@ -34,13 +37,16 @@ import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.spi.spiller.SpillCipher;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -50,32 +56,52 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.getSerializedPageSize;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static java.lang.Math.toIntExact;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
 
-@RestorableConfig(uncapturedFields = {"closer", "serde",
-        "spillerStats", "localSpillContext", "memoryContext", "executor", "spillInProgress"})
+@RestorableConfig(uncapturedFields = {"closer", "serde", "spillerStats", "localSpillContext", "memoryContext", "executor", "spillInProgress",
+        "memoryMappedReadEnabled", "offHeapSpillSpaceTracker", "offHeapPages", "offHeapBytes", "offHeapTierExhausted", "spillPathStats"})
 public class FileSingleStreamSpiller
         implements SingleStreamSpiller
 {
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
+    // size of the memory mappings spilled pages are read from, a larger page gets a mapping of its own size
+    private static final long MAPPING_SIZE = 64 * 1024 * 1024;
 
     private FileHolder targetFile;
     private final Closer closer = Closer.create();
     private final PagesSerde serde;
     private final SpillerStats spillerStats;
+    private final SpillPathStats spillPathStats;
     private final SpillContext localSpillContext;
     private final LocalMemoryContext memoryContext;
 
     private final ListeningExecutorService executor;
 
+    private final boolean memoryMappedReadEnabled;
+    private final OffHeapSpillSpaceTracker offHeapSpillSpaceTracker;
+    // serialized pages kept off heap while they fit into the node wide budget, in the same format as in the spill file
+    @GuardedBy("this")
+    private final List<Slice> offHeapPages = new ArrayList<>();
+    @GuardedBy("this")
+    private long offHeapBytes;
+    // once pages had to go to disk, all following pages go to disk too, so that the file keeps the spill order
+    @GuardedBy("this")
+    private boolean offHeapTierExhausted;
+
     private boolean writable = true;
     private long spilledPagesInMemorySize;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
@@ -90,13 +116,19 @@ public class FileSingleStreamSpiller
             SpillerStats spillerStats,
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
-            Optional<SpillCipher> spillCipher)
+            Optional<SpillCipher> spillCipher,
+            boolean memoryMappedReadEnabled,
+            OffHeapSpillSpaceTracker offHeapSpillSpaceTracker)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.spillPathStats = spillerStats.getSpillPathStats(spillPath);
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        this.memoryMappedReadEnabled = memoryMappedReadEnabled;
+        this.offHeapSpillSpaceTracker = requireNonNull(offHeapSpillSpaceTracker, "offHeapSpillSpaceTracker is null");
+        this.offHeapTierExhausted = offHeapSpillSpaceTracker.getMaxBytes() == 0;
         if (requireNonNull(spillCipher, "spillCipher is null").isPresent()) {
             closer.register(spillCipher.get()::close);
         }
@@ -124,7 +156,23 @@ public class FileSingleStreamSpiller
     {
         requireNonNull(pageIterator, "pageIterator is null");
         checkNoSpillInProgress();
-        spillInProgress = executor.submit(() -> writePages(pageIterator));
+        spillPathStats.writeQueued();
+        try {
+            spillInProgress = executor.submit(() -> {
+                long start = System.nanoTime();
+                long writtenBytes = 0;
+                try {
+                    writtenBytes = writePages(pageIterator);
+                }
+                finally {
+                    spillPathStats.writeFinished(writtenBytes, System.nanoTime() - start);
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            spillPathStats.writeFinished(0, 0);
+            throw e;
+        }
         return spillInProgress;
     }
 
@@ -147,9 +195,13 @@ public class FileSingleStreamSpiller
         return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
     }
 
-    private void writePages(Iterator<Page> pageIterator)
+    /**
+     * Returns the number of bytes written to the spill file, which excludes pages kept off heap
+     */
+    private synchronized long writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
+        long writtenBytes = 0;
         try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
@@ -159,20 +211,78 @@ public class FileSingleStreamSpiller
                 localSpillContext.updateBytes(pageSize);
                 spillerStats.addToTotalSpilledBytes(pageSize);
                 pageSizeList.add(pageSize);
+                if (!offHeapTierExhausted) {
+                    if (writeOffHeap(serializedPage)) {
+                        continue;
+                    }
+                    writtenBytes += flushOffHeapPages(output);
+                }
                 writeSerializedPage(output, serializedPage);
+                writtenBytes += pageSize;
             }
         }
         catch (UncheckedIOException | IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
         }
+        return writtenBytes;
+    }
+
+    /**
+     * Writes the serialized page into off-heap memory if it fits into the node wide budget.
+     */
+    @GuardedBy("this")
+    private boolean writeOffHeap(SerializedPage serializedPage)
+    {
+        int frameSize = getSerializedPageSize(serializedPage);
+        if (!offHeapSpillSpaceTracker.tryReserve(frameSize)) {
+            return false;
+        }
+        Slice offHeapPage = Slices.allocateDirect(frameSize);
+        writeSerializedPage(offHeapPage.getOutput(), serializedPage);
+        offHeapPages.add(offHeapPage);
+        offHeapBytes += frameSize;
+        return true;
+    }
+
+    /**
+     * Moves all off-heap pages to the spill file, after which the spiller only writes to disk. Returns the number of bytes moved.
+     */
+    @GuardedBy("this")
+    private long flushOffHeapPages(SliceOutput output)
+    {
+        offHeapTierExhausted = true;
+        long flushedBytes = offHeapBytes;
+        for (Slice offHeapPage : offHeapPages) {
+            output.writeBytes(offHeapPage);
+        }
+        offHeapPages.clear();
+        releaseOffHeapPages();
+        return flushedBytes;
     }
 
-    private Iterator<Page> readPages()
+    @GuardedBy("this")
+    private void releaseOffHeapPages()
+    {
+        offHeapSpillSpaceTracker.free(offHeapBytes);
+        offHeapBytes = 0;
+    }
+
+    private synchronized Iterator<Page> readPages()
     {
         checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks");
         writable = false;
 
+        if (!offHeapTierExhausted) {
+            // everything fits off heap, so the spill file is empty
+            List<Slice> pages = ImmutableList.copyOf(offHeapPages);
+            return Iterators.concat(Iterators.transform(pages.iterator(), page -> PagesSerdeUtil.readPages(serde, page.getInput())));
+        }
+
         try {
+            if (memoryMappedReadEnabled) {
+                FileChannel channel = closer.register(FileChannel.open(targetFile.getFilePath(), READ));
+                return closeWhenExhausted(new MappedPageIterator(serde, channel), channel);
+            }
             InputStream input = closer.register(targetFile.newInputStream());
             Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
             return closeWhenExhausted(pages, input);
@@ -187,6 +297,12 @@ public class FileSingleStreamSpiller
     {
         closer.register(localSpillContext);
         closer.register(() -> memoryContext.setBytes(0));
+        closer.register(() -> {
+            synchronized (this) {
+                offHeapPages.clear();
+                releaseOffHeapPages();
+            }
+        });
         try {
             closer.close();
         }
@@ -239,6 +355,17 @@ public class FileSingleStreamSpiller
     @Override
     public Object capture(BlockEncodingSerdeProvider serdeProvider)
     {
+        // snapshots store the spill file, so pages held off heap have to be written to it first
+        synchronized (this) {
+            if (!offHeapTierExhausted) {
+                try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
+                    flushOffHeapPages(output);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
         FileSingleStreamSpillerState state = new FileSingleStreamSpillerState();
         state.writable = this.writable;
         state.spilledPagesInMemorySize = spilledPagesInMemorySize;
@@ -255,6 +382,12 @@ public class FileSingleStreamSpiller
             this.writable = myState.writable;
             this.spilledPagesInMemorySize = myState.spilledPagesInMemorySize;
             this.pageSizeList = myState.pageSizeList;
+            synchronized (this) {
+                // restored pages are all in the restored spill file
+                offHeapPages.clear();
+                releaseOffHeapPages();
+                offHeapTierExhausted = true;
+            }
             this.targetFile.close();
             Path path = Paths.get(myState.targetFile);
             Files.deleteIfExists(path);
@@ -270,6 +403,78 @@ public class FileSingleStreamSpiller
         }
     }
 
+    /**
+     * Reads the spill file through memory mappings of large windows of the file, and decodes each page from a slice
+     * of the window that contains it, without copying it through an input stream buffer. Mappings are only released
+     * when they are garbage collected, so a window is mapped per {@link #MAPPING_SIZE} bytes rather than per page.
+     */
+    private static class MappedPageIterator
+            extends AbstractIterator<Page>
+    {
+        private final PagesSerde serde;
+        private final FileChannel channel;
+        private final long fileSize;
+        private long position;
+        private Slice mapping;
+        private long mappingPosition;
+
+        MappedPageIterator(PagesSerde serde, FileChannel channel)
+                throws IOException
+        {
+            this.serde = requireNonNull(serde, "serde is null");
+            this.channel = requireNonNull(channel, "channel is null");
+            this.fileSize = channel.size();
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (position >= fileSize) {
+                return endOfData();
+            }
+            try {
+                // frame: positionCount (int), codec markers (byte), uncompressed size (int), size (int), page bytes, metadata length (int), metadata bytes
+                int sizeOffset = SIZE_OF_INT + SIZE_OF_BYTE + SIZE_OF_INT;
+                int sizeInBytes = readInt(sizeOffset);
+                long metadataLengthOffset = sizeOffset + SIZE_OF_INT + (long) sizeInBytes;
+                long frameSize = metadataLengthOffset + SIZE_OF_INT + readInt(metadataLengthOffset);
+
+                Slice frame = map(frameSize).slice(toIntExact(position - mappingPosition), toIntExact(frameSize));
+                position += frameSize;
+                return PagesSerdeUtil.readPages(serde, frame.getInput()).next();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Reads an int at the offset from the start of the current page
+         */
+        private int readInt(long offset)
+                throws IOException
+        {
+            return map(offset + SIZE_OF_INT).getInt(toIntExact(position + offset - mappingPosition));
+        }
+
+        /**
+         * Returns a mapping which contains the given number of bytes from the start of the current page
+         */
+        private Slice map(long length)
+                throws IOException
+        {
+            if (position + length > fileSize) {
+                throw new EOFException("Unexpected end of spill file");
+            }
+            if (mapping == null || position < mappingPosition || position + length > mappingPosition + mapping.length()) {
+                long mappingLength = Math.min(Math.max(MAPPING_SIZE, length), fileSize - position);
+                mapping = Slices.wrappedBuffer(channel.map(READ_ONLY, position, mappingLength));
+                mappingPosition = position;
+            }
+            return mapping;
+        }
+    }
+
     private static class FileSingleStreamSpillerState
             implements Serializable
     {
@@ -15,9 +15,11 @@ package io.prestosql.spiller;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.prestosql.memory.context.LocalMemoryContext;
@@ -28,6 +30,8 @@ import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.spiller.SpillCipher;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.analyzer.FeaturesConfig;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -37,10 +41,14 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.FileStore;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.prestosql.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
 import static java.lang.String.format;
 import static java.nio.file.Files.createDirectories;
@@ -67,6 +75,11 @@ public class FileSingleStreamSpillerFactory
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
     private final boolean spillEncryptionEnabled;
+    private final boolean memoryMappedReadEnabled;
+    private final OffHeapSpillSpaceTracker offHeapSpillSpaceTracker;
+    private final boolean parallelWriteEnabled;
+    // with parallel writes, each spill path is written by its own threads, so a slow disk does not hold up the others
+    private final Map<Path, ListeningExecutorService> spillPathExecutors;
     private int roundRobinIndex;
 
     @Inject
@@ -81,7 +94,11 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillCompressionEnabled(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled());
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillMemoryMappedReadEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getMaxOffHeapSpillPerNode(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillParallelWriteEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillerThreadsPerPath());
     }
 
     @VisibleForTesting
@@ -93,6 +110,38 @@ public class FileSingleStreamSpillerFactory
             double maxUsedSpaceThreshold,
             boolean spillCompressionEnabled,
             boolean spillEncryptionEnabled)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, spillCompressionEnabled, spillEncryptionEnabled, false, new DataSize(0, BYTE));
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            boolean memoryMappedReadEnabled,
+            DataSize maxOffHeapSpillSize)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, spillCompressionEnabled, spillEncryptionEnabled, memoryMappedReadEnabled, maxOffHeapSpillSize, false, 1);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            boolean memoryMappedReadEnabled,
+            DataSize maxOffHeapSpillSize,
+            boolean parallelWriteEnabled,
+            int threadsPerSpillPath)
     {
         this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled);
         this.executor = requireNonNull(executor, "executor is null");
@@ -114,6 +163,17 @@ public class FileSingleStreamSpillerFactory
         });
         this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
         this.spillEncryptionEnabled = spillEncryptionEnabled;
+        this.memoryMappedReadEnabled = memoryMappedReadEnabled;
+        this.offHeapSpillSpaceTracker = new OffHeapSpillSpaceTracker(maxOffHeapSpillSize);
+        this.parallelWriteEnabled = parallelWriteEnabled;
+        ImmutableMap.Builder<Path, ListeningExecutorService> spillPathExecutors = ImmutableMap.builder();
+        if (parallelWriteEnabled) {
+            checkArgument(threadsPerSpillPath > 0, "threadsPerSpillPath must be at least 1");
+            for (int i = 0; i < this.spillPaths.size(); i++) {
+                spillPathExecutors.put(this.spillPaths.get(i), listeningDecorator(newFixedThreadPool(threadsPerSpillPath, daemonThreadsNamed("binary-spiller-path" + i + "-%s"))));
+            }
+        }
+        this.spillPathExecutors = spillPathExecutors.build();
         this.roundRobinIndex = 0;
     }
 
@@ -127,6 +187,7 @@ public class FileSingleStreamSpillerFactory
     public void destroy()
     {
         executor.shutdownNow();
+        spillPathExecutors.values().forEach(ExecutorService::shutdownNow);
     }
 
     private static void cleanupOldSpillFiles(Path path)
@@ -155,7 +216,24 @@ public class FileSingleStreamSpillerFactory
             spillCipher = Optional.of(new AesSpillCipher());
         }
         PagesSerde serde = serdeFactory.createPagesSerdeForSpill(spillCipher);
-        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher);
+        Path spillPath = parallelWriteEnabled ? getLeastLoadedSpillPath() : getNextSpillPath();
+        return new FileSingleStreamSpiller(
+                serde,
+                parallelWriteEnabled ? spillPathExecutors.get(spillPath) : executor,
+                spillPath,
+                spillerStats,
+                spillContext,
+                memoryContext,
+                spillCipher,
+                memoryMappedReadEnabled,
+                offHeapSpillSpaceTracker);
+    }
+
+    @Managed
+    @Nested
+    public OffHeapSpillSpaceTracker getOffHeapSpillSpaceTracker()
+    {
+        return offHeapSpillSpaceTracker;
     }
 
     private synchronized Path getNextSpillPath()
@@ -175,6 +253,43 @@ public class FileSingleStreamSpillerFactory
         throw new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill");
     }
 
+    /**
+     * Picks the spill path with the fewest pending writes, and among those the one with the most usable space,
+     * so the partitions of a large revocation are written to all disks at the same time.
+     */
+    private Path getLeastLoadedSpillPath()
+    {
+        if (spillPaths.isEmpty()) {
+            throw new PrestoException(OUT_OF_SPILL_SPACE, "No spill paths configured");
+        }
+        Path selectedPath = null;
+        int selectedPendingWrites = 0;
+        long selectedUsableSpace = 0;
+        for (Path path : spillPaths) {
+            long usableSpace;
+            try {
+                FileStore fileStore = getFileStore(path);
+                usableSpace = fileStore.getUsableSpace();
+                if (usableSpace <= fileStore.getTotalSpace() * (1.0 - maxUsedSpaceThreshold)) {
+                    continue;
+                }
+            }
+            catch (IOException e) {
+                throw new PrestoException(OUT_OF_SPILL_SPACE, "Cannot determine free space for spill", e);
+            }
+            int pendingWrites = spillerStats.getSpillPathStats(path).getPendingWrites();
+            if (selectedPath == null || pendingWrites < selectedPendingWrites || (pendingWrites == selectedPendingWrites && usableSpace > selectedUsableSpace)) {
+                selectedPath = path;
+                selectedPendingWrites = pendingWrites;
+                selectedUsableSpace = usableSpace;
+            }
+        }
+        if (selectedPath == null) {
+            throw new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill");
+        }
+        return selectedPath;
+    }
+
     private boolean hasEnoughDiskSpace(Path path)
     {
         try {
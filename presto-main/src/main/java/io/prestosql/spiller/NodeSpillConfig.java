@@ -14,8 +14,10 @@
 package io.prestosql.spiller;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class NodeSpillConfig
@@ -25,6 +27,10 @@ public class NodeSpillConfig
 
     private boolean spillCompressionEnabled;
     private boolean spillEncryptionEnabled;
+    private boolean spillMemoryMappedReadEnabled;
+    private DataSize maxOffHeapSpillPerNode = new DataSize(0, DataSize.Unit.BYTE);
+    private boolean spillParallelWriteEnabled;
+    private int spillerThreadsPerPath = 2;
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -75,4 +81,58 @@ public class NodeSpillConfig
         this.spillEncryptionEnabled = spillEncryptionEnabled;
         return this;
     }
+
+    public boolean isSpillMemoryMappedReadEnabled()
+    {
+        return spillMemoryMappedReadEnabled;
+    }
+
+    @Config("experimental.spill-memory-mapped-read-enabled")
+    @ConfigDescription("Read spilled pages back through memory-mapped files instead of an input stream")
+    public NodeSpillConfig setSpillMemoryMappedReadEnabled(boolean spillMemoryMappedReadEnabled)
+    {
+        this.spillMemoryMappedReadEnabled = spillMemoryMappedReadEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxOffHeapSpillPerNode()
+    {
+        return maxOffHeapSpillPerNode;
+    }
+
+    @Config("experimental.max-off-heap-spill-per-node")
+    @ConfigDescription("Off-heap memory used to hold spilled pages before they are written to disk")
+    public NodeSpillConfig setMaxOffHeapSpillPerNode(DataSize maxOffHeapSpillPerNode)
+    {
+        this.maxOffHeapSpillPerNode = maxOffHeapSpillPerNode;
+        return this;
+    }
+
+    public boolean isSpillParallelWriteEnabled()
+    {
+        return spillParallelWriteEnabled;
+    }
+
+    @Config("experimental.spill-parallel-write-enabled")
+    @ConfigDescription("Write spills through a thread pool per spill path, and place new spill files on the path with the fewest pending writes")
+    public NodeSpillConfig setSpillParallelWriteEnabled(boolean spillParallelWriteEnabled)
+    {
+        this.spillParallelWriteEnabled = spillParallelWriteEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getSpillerThreadsPerPath()
+    {
+        return spillerThreadsPerPath;
+    }
+
+    @Config("experimental.spiller-threads-per-path")
+    @ConfigDescription("Number of threads writing to each spill path when parallel spill writes are enabled")
+    public NodeSpillConfig setSpillerThreadsPerPath(int spillerThreadsPerPath)
+    {
+        this.spillerThreadsPerPath = spillerThreadsPerPath;
+        return this;
+    }
 }
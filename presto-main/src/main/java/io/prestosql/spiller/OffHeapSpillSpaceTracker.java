@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Node wide budget of the off-heap memory that spillers may use to hold spilled pages
+ * before they have to be written to disk.
+ */
+@ThreadSafe
+public class OffHeapSpillSpaceTracker
+{
+    private final long maxBytes;
+
+    @GuardedBy("this")
+    private long currentBytes;
+
+    public OffHeapSpillSpaceTracker(DataSize maxSize)
+    {
+        requireNonNull(maxSize, "maxSize is null");
+        maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * Reserves the given number of bytes if they fit into the budget.
+     *
+     * @return false if the reservation would exceed the budget, in which case nothing is reserved
+     */
+    public synchronized boolean tryReserve(long bytes)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+
+        if (currentBytes + bytes > maxBytes) {
+            return false;
+        }
+        currentBytes += bytes;
+        return true;
+    }
+
+    public synchronized void free(long bytes)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+        checkArgument(currentBytes - bytes >= 0, "tried to free more off-heap spill space than is reserved");
+        currentBytes -= bytes;
+    }
+
+    @Managed
+    public synchronized long getCurrentBytes()
+    {
+        return currentBytes;
+    }
+
+    @Managed
+    public long getMaxBytes()
+    {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return toStringHelper(this)
+                .add("maxBytes", maxBytes)
+                .add("currentBytes", currentBytes)
+                .toString();
+    }
+}
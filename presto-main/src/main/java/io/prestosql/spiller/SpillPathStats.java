@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Writes to a single spill path: the number of writes queued or running, and the bytes written to disk
+ * together with the time spent writing them.
+ */
+@ThreadSafe
+public class SpillPathStats
+{
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong writeTimeNanos = new AtomicLong();
+
+    public void writeQueued()
+    {
+        pendingWrites.incrementAndGet();
+    }
+
+    public void writeFinished(long bytes, long nanos)
+    {
+        pendingWrites.decrementAndGet();
+        writtenBytes.addAndGet(bytes);
+        writeTimeNanos.addAndGet(nanos);
+    }
+
+    public int getPendingWrites()
+    {
+        return pendingWrites.get();
+    }
+
+    public long getWrittenBytes()
+    {
+        return writtenBytes.get();
+    }
+
+    /**
+     * Bytes written per second of writing to this path
+     */
+    public double getWriteThroughput()
+    {
+        long nanos = writeTimeNanos.get();
+        if (nanos == 0) {
+            return 0;
+        }
+        return (double) writtenBytes.get() * SECONDS.toNanos(1) / nanos;
+    }
+}
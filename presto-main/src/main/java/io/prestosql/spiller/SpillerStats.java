@@ -15,11 +15,19 @@ package io.prestosql.spiller;
 
 import org.weakref.jmx.Managed;
 
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static io.airlift.units.DataSize.succinctBytes;
+
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    private final ConcurrentMap<Path, SpillPathStats> spillPathStats = new ConcurrentHashMap<>();
 
     @Managed
     public long getTotalSpilledBytes()
@@ -31,4 +39,17 @@ public class SpillerStats
     {
         totalSpilledBytes.addAndGet(delta);
     }
+
+    public SpillPathStats getSpillPathStats(Path spillPath)
+    {
+        return spillPathStats.computeIfAbsent(spillPath, ignored -> new SpillPathStats());
+    }
+
+    @Managed
+    public String getSpillPathWriteThroughput()
+    {
+        Map<String, String> throughput = new TreeMap<>();
+        spillPathStats.forEach((path, stats) -> throughput.put(path.toString(), succinctBytes((long) stats.getWriteThroughput()) + "/s"));
+        return throughput.toString();
+    }
 }
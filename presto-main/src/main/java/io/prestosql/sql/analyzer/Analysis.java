@@ -26,6 +26,7 @@ import io.prestosql.security.AccessControl;
 import io.prestosql.spi.connector.CatalogName;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorTableMetadata;
+import io.prestosql.spi.connector.ConnectorViewDefinition;
 import io.prestosql.spi.connector.QualifiedObjectName;
 import io.prestosql.spi.function.FunctionHandle;
 import io.prestosql.spi.metadata.TableHandle;
@@ -162,6 +163,7 @@ public class Analysis
 
     // for recursive view detection
     private final Deque<Table> tablesForView = new ArrayDeque<>();
+    private final Map<QualifiedObjectName, ConnectorViewDefinition> views = new LinkedHashMap<>();
 
     // for create index
     private Statement originalStatement;
@@ -750,6 +752,16 @@ public class Analysis
         return tablesForView.contains(tableReference);
     }
 
+    public void registerView(QualifiedObjectName name, ConnectorViewDefinition view)
+    {
+        views.put(requireNonNull(name, "name is null"), requireNonNull(view, "view is null"));
+    }
+
+    public Map<QualifiedObjectName, ConnectorViewDefinition> getViews()
+    {
+        return unmodifiableMap(views);
+    }
+
     public void setSampleRatio(SampledRelation relation, double ratio)
     {
         sampleRatios.put(NodeRef.of(relation), ratio);
@@ -891,13 +903,17 @@ public class Analysis
         private final TableHandle sourceTable;
         private final List<ColumnHandle> columns;
         private final CubeMetadata metadata;
+        private final boolean refresh;
+        private final Map<String, Long> sourcePartitionsLastUpdatedTime;
 
-        public CubeInsert(CubeMetadata metadata, TableHandle target, TableHandle sourceTable, List<ColumnHandle> columns)
+        public CubeInsert(CubeMetadata metadata, TableHandle target, TableHandle sourceTable, List<ColumnHandle> columns, boolean refresh, Map<String, Long> sourcePartitionsLastUpdatedTime)
         {
             this.metadata = requireNonNull(metadata, "cubeMetadata is null");
             this.target = requireNonNull(target, "target is null");
             this.sourceTable = requireNonNull(sourceTable, "sourceTable is null");
             this.columns = requireNonNull(columns, "columns is null");
+            this.refresh = refresh;
+            this.sourcePartitionsLastUpdatedTime = ImmutableMap.copyOf(requireNonNull(sourcePartitionsLastUpdatedTime, "sourcePartitionsLastUpdatedTime is null"));
             checkArgument(columns.size() > 0, "No columns given to insert");
         }
 
@@ -920,6 +936,19 @@ public class Analysis
         {
             return metadata;
         }
+
+        /**
+         * Whether the insert only aggregates the source table partitions added since the cube was last updated
+         */
+        public boolean isRefresh()
+        {
+            return refresh;
+        }
+
+        public Map<String, Long> getSourcePartitionsLastUpdatedTime()
+        {
+            return sourcePartitionsLastUpdatedTime;
+        }
     }
 
     @Immutable
@@ -92,6 +92,7 @@ public class FeaturesConfig
     private boolean pushLimitThroughSemiJoin = true;
     private boolean pushLimitThroughOuterJoin = true;
     private boolean exchangeCompressionEnabled;
+    private boolean exchangeBufferRecyclingEnabled;
     private boolean legacyTimestamp = true;
     private boolean legacyMapSubscript;
     private boolean optimizeMixedDistinctAggregations;
@@ -106,6 +107,9 @@ public class FeaturesConfig
     private boolean legacyDateTimestampToVarcharCoercion;
 
     private boolean dictionaryAggregation;
+    private boolean adaptivePartialAggregationEnabled;
+    private long adaptivePartialAggregationMinRows = 100_000;
+    private double adaptivePartialAggregationUniqueRowsRatioThreshold = 0.8;
 
     private int re2JDfaStatesLimit = Integer.MAX_VALUE;
     private int re2JDfaRetries = 5;
@@ -149,6 +153,7 @@ public class FeaturesConfig
     private DynamicFilterDataType dynamicFilteringDataType = BLOOM_FILTER;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(1, MEGABYTE);
     private double dynamicFilteringBloomFilterFpp = 0.1D;
+    private boolean dynamicFilteringBlockedBloomFilter;
     // enable or disable execution plan cache functionality via Session properties
     private boolean enableExecutionPlanCache = true;
 
@@ -664,6 +669,45 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isAdaptivePartialAggregationEnabled()
+    {
+        return adaptivePartialAggregationEnabled;
+    }
+
+    @Config("adaptive-partial-aggregation.enabled")
+    public FeaturesConfig setAdaptivePartialAggregationEnabled(boolean adaptivePartialAggregationEnabled)
+    {
+        this.adaptivePartialAggregationEnabled = adaptivePartialAggregationEnabled;
+        return this;
+    }
+
+    @Min(0)
+    public long getAdaptivePartialAggregationMinRows()
+    {
+        return adaptivePartialAggregationMinRows;
+    }
+
+    @Config("adaptive-partial-aggregation.min-rows")
+    public FeaturesConfig setAdaptivePartialAggregationMinRows(long adaptivePartialAggregationMinRows)
+    {
+        this.adaptivePartialAggregationMinRows = adaptivePartialAggregationMinRows;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getAdaptivePartialAggregationUniqueRowsRatioThreshold()
+    {
+        return adaptivePartialAggregationUniqueRowsRatioThreshold;
+    }
+
+    @Config("adaptive-partial-aggregation.unique-rows-ratio-threshold")
+    public FeaturesConfig setAdaptivePartialAggregationUniqueRowsRatioThreshold(double adaptivePartialAggregationUniqueRowsRatioThreshold)
+    {
+        this.adaptivePartialAggregationUniqueRowsRatioThreshold = adaptivePartialAggregationUniqueRowsRatioThreshold;
+        return this;
+    }
+
     @Min(2)
     public int getRe2JDfaStatesLimit()
     {
@@ -981,6 +1025,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isDynamicFilteringBlockedBloomFilter()
+    {
+        return dynamicFilteringBlockedBloomFilter;
+    }
+
+    @Config("dynamic-filtering-blocked-bloom-filter")
+    @ConfigDescription("Use cache line blocked bloom filters for dynamic filtering")
+    public FeaturesConfig setDynamicFilteringBlockedBloomFilter(boolean dynamicFilteringBlockedBloomFilter)
+    {
+        this.dynamicFilteringBlockedBloomFilter = dynamicFilteringBlockedBloomFilter;
+        return this;
+    }
+
     /**
      * Presto can only cache execution plans for supported connectors.
      * This method checks if the session property for enabled execution plan caching
@@ -1033,6 +1090,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isExchangeBufferRecyclingEnabled()
+    {
+        return exchangeBufferRecyclingEnabled;
+    }
+
+    @Config("exchange.buffer-recycling-enabled")
+    @ConfigDescription("Reuse serialization, compression and encryption buffers across pages in exchanges")
+    public FeaturesConfig setExchangeBufferRecyclingEnabled(boolean exchangeBufferRecyclingEnabled)
+    {
+        this.exchangeBufferRecyclingEnabled = exchangeBufferRecyclingEnabled;
+        return this;
+    }
+
     public boolean isEnableIntermediateAggregations()
     {
         return enableIntermediateAggregations;
@@ -28,6 +28,7 @@ import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
 import io.prestosql.connector.DataCenterUtility;
 import io.prestosql.cube.CubeManager;
+import io.prestosql.cube.CubeSourcePartitions;
 import io.prestosql.execution.warnings.WarningCollector;
 import io.prestosql.heuristicindex.HeuristicIndexerManager;
 import io.prestosql.metadata.Metadata;
@@ -133,6 +134,7 @@ import io.prestosql.sql.tree.Prepare;
 import io.prestosql.sql.tree.Property;
 import io.prestosql.sql.tree.QualifiedName;
 import io.prestosql.sql.tree.Query;
+import io.prestosql.sql.tree.QueryBody;
 import io.prestosql.sql.tree.QuerySpecification;
 import io.prestosql.sql.tree.Relation;
 import io.prestosql.sql.tree.RenameColumn;
@@ -527,10 +529,26 @@ class StatementAnalyzer
             if (tableLastModifiedTime == null) {
                 throw new SemanticException(TABLE_STATE_INCORRECT, insertCube, "Cannot allow insert into cube. Cube might return incorrect results. Unable to identify last modified of the time source table.");
             }
-            // If Original table was updated since Cube was built then We cannot allow any more updates on the Cube.
-            // User must create new cube from the source table and try insert overwrite cube
-            if (!insertCube.isOverwrite() && cubeMetadata.getCubeStatus() == CubeStatus.READY && tableLastModifiedTime.getAsLong() > cubeMetadata.getSourceTableLastUpdatedTime()) {
-                throw new SemanticException(TABLE_STATE_INCORRECT, insertCube, "Cannot insert into cube. Source table has been updated since Cube was last updated. Try INSERT OVERWRITE CUBE or Create new a cube");
+            boolean refresh = CubeSourcePartitions.isRefresh(insertCube, cubeMetadata);
+            Map<String, Long> sourcePartitions;
+            if (refresh) {
+                // The query of a refresh aggregates the partitions added since the cube was last updated.
+                // Partitions added since the query was created would be marked as aggregated without being so.
+                sourcePartitions = CubeSourcePartitions.getRefreshedSourcePartitions(metadata, session, sourceTableHandle, cubeMetadata);
+                Expression refreshPredicate = CubeSourcePartitions.createRefreshPredicate(metadata, session, sourceTableHandle, cubeMetadata, sourcePartitions);
+                QueryBody queryBody = insertCube.getQuery().getQueryBody();
+                if (!(queryBody instanceof QuerySpecification) || !((QuerySpecification) queryBody).getWhere().equals(Optional.of(refreshPredicate))) {
+                    throw new SemanticException(TABLE_STATE_INCORRECT, insertCube, "Cannot refresh cube. Partitions of source table changed while refreshing the cube. Try again");
+                }
+            }
+            else {
+                sourcePartitions = metadata.getPartitionModificationTimes(session, sourceTableHandle).orElse(ImmutableMap.of());
+                // If Original table was updated since Cube was built then We cannot allow any more updates on the Cube.
+                // User must create new cube from the source table and try insert overwrite cube
+                if (!insertCube.isOverwrite() && cubeMetadata.getCubeStatus() == CubeStatus.READY && tableLastModifiedTime.getAsLong() > cubeMetadata.getSourceTableLastUpdatedTime()
+                        && !CubeSourcePartitions.isUpToDate(cubeMetadata, Optional.of(sourcePartitions))) {
+                    throw new SemanticException(TABLE_STATE_INCORRECT, insertCube, "Cannot insert into cube. Source table has been updated since Cube was last updated. Try INSERT OVERWRITE CUBE or Create new a cube");
+                }
             }
 
             Scope queryScope = process(insertCube.getQuery(), scope);
@@ -548,7 +566,9 @@ class StatementAnalyzer
                     cubeMetadata,
                     targetCubeHandle.get(),
                     sourceTableHandle,
-                    insertCube.getColumns().stream().map(Identifier::getValue).map(columnHandles::get).collect(Collectors.toList())));
+                    insertCube.getColumns().stream().map(Identifier::getValue).map(columnHandles::get).collect(Collectors.toList()),
+                    refresh,
+                    sourcePartitions));
             return createAndAssignScope(insertCube, scope, Field.newUnqualified("rows", BIGINT));
         }
 
@@ -1265,6 +1285,7 @@ class StatementAnalyzer
                     throw new SemanticException(VIEW_IS_RECURSIVE, table, "View is recursive");
                 }
                 ConnectorViewDefinition view = optionalView.get();
+                analysis.registerView(name, view);
 
                 Query query = parseView(view.getOriginalSql(), name, table);
 
@@ -35,6 +35,7 @@ import io.airlift.slice.Slice;
 import io.prestosql.Session;
 import io.prestosql.metadata.FunctionAndTypeManager;
 import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.FixedWidthPagesHash;
 import io.prestosql.operator.JoinHash;
 import io.prestosql.operator.JoinHashSupplier;
 import io.prestosql.operator.LookupSourceSupplier;
@@ -172,9 +173,13 @@ public class JoinCompiler
                 LookupSourceSupplier.class,
                 JoinHashSupplier.class,
                 JoinHash.class,
-                PagesHash.class);
+                PagesHash.class,
+                FixedWidthPagesHash.class);
 
-        return new LookupSourceSupplierFactory(joinHashSupplierClass, new PagesHashStrategyFactory(pagesHashStrategyClass));
+        List<Type> joinChannelTypes = joinChannels.stream()
+                .map(types::get)
+                .collect(toImmutableList());
+        return new LookupSourceSupplierFactory(joinHashSupplierClass, new PagesHashStrategyFactory(pagesHashStrategyClass), joinChannels, joinChannelTypes);
     }
 
     private static FieldDefinition generateInstanceSize(ClassDefinition definition)
@@ -886,12 +891,20 @@ public class JoinCompiler
     {
         private final Constructor<? extends LookupSourceSupplier> constructor;
         private final PagesHashStrategyFactory pagesHashStrategyFactory;
+        private final List<Integer> joinChannels;
+        private final List<Type> joinChannelTypes;
 
-        public LookupSourceSupplierFactory(Class<? extends LookupSourceSupplier> joinHashSupplierClass, PagesHashStrategyFactory pagesHashStrategyFactory)
+        public LookupSourceSupplierFactory(
+                Class<? extends LookupSourceSupplier> joinHashSupplierClass,
+                PagesHashStrategyFactory pagesHashStrategyFactory,
+                List<Integer> joinChannels,
+                List<Type> joinChannelTypes)
         {
             this.pagesHashStrategyFactory = pagesHashStrategyFactory;
+            this.joinChannels = ImmutableList.copyOf(requireNonNull(joinChannels, "joinChannels is null"));
+            this.joinChannelTypes = ImmutableList.copyOf(requireNonNull(joinChannelTypes, "joinChannelTypes is null"));
             try {
-                constructor = joinHashSupplierClass.getConstructor(Session.class, PagesHashStrategy.class, LongArrayList.class, List.class, Optional.class, Optional.class, List.class);
+                constructor = joinHashSupplierClass.getConstructor(Session.class, PagesHashStrategy.class, LongArrayList.class, List.class, Optional.class, Optional.class, List.class, List.class, List.class);
             }
             catch (NoSuchMethodException e) {
                 throw new RuntimeException(e);
@@ -909,7 +922,7 @@ public class JoinCompiler
         {
             PagesHashStrategy pagesHashStrategy = pagesHashStrategyFactory.createPagesHashStrategy(channels, hashChannel);
             try {
-                return constructor.newInstance(session, pagesHashStrategy, addresses, channels, filterFunctionFactory, sortChannel, searchFunctionFactories);
+                return constructor.newInstance(session, pagesHashStrategy, addresses, channels, filterFunctionFactory, sortChannel, searchFunctionFactories, joinChannels, joinChannelTypes);
             }
             catch (ReflectiveOperationException e) {
                 throw new RuntimeException(e);
@@ -52,6 +52,7 @@ import java.util.function.Consumer;
 import static com.google.common.base.Verify.verify;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringBloomFilterFpp;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringDataType;
+import static io.prestosql.SystemSessionProperties.isDynamicFilteringBlockedBloomFilter;
 import static io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter.convertBloomFilterToByteArray;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.BLOOM_FILTER;
 import static io.prestosql.spi.statestore.StateCollection.Type.SET;
@@ -85,6 +86,7 @@ public class LocalDynamicFilter
 
     private FeaturesConfig.DynamicFilterDataType dynamicFilterDataType;
     private final double bloomFilterFpp;
+    private final boolean blockedBloomFilter;
     private final StateStoreProvider stateStoreProvider;
     private final TaskId taskId;
     private Map<String, DynamicFilterSourceOperator.Channel> channels = new HashMap<>();
@@ -93,12 +95,19 @@ public class LocalDynamicFilter
             TaskId taskId, StateStoreProvider stateStoreProvider)
     {
         this(probeSymbols, buildChannels, partitionCount, type, getDynamicFilteringDataType(session),
-                getDynamicFilteringBloomFilterFpp(session), taskId, stateStoreProvider);
+                getDynamicFilteringBloomFilterFpp(session), isDynamicFilteringBlockedBloomFilter(session), taskId, stateStoreProvider);
     }
 
     public LocalDynamicFilter(Multimap<String, Symbol> probeSymbols, Map<String, Integer> buildChannels, int partitionCount,
                               DynamicFilter.Type filterType, FeaturesConfig.DynamicFilterDataType dataType,
                               double bloomFilterFpp, TaskId taskId, StateStoreProvider stateStoreProvider)
+    {
+        this(probeSymbols, buildChannels, partitionCount, filterType, dataType, bloomFilterFpp, false, taskId, stateStoreProvider);
+    }
+
+    public LocalDynamicFilter(Multimap<String, Symbol> probeSymbols, Map<String, Integer> buildChannels, int partitionCount,
+                              DynamicFilter.Type filterType, FeaturesConfig.DynamicFilterDataType dataType,
+                              double bloomFilterFpp, boolean blockedBloomFilter, TaskId taskId, StateStoreProvider stateStoreProvider)
     {
         this.probeSymbols = requireNonNull(probeSymbols, "probeSymbols is null");
         this.buildChannels = requireNonNull(buildChannels, "buildChannels is null");
@@ -112,6 +121,7 @@ public class LocalDynamicFilter
         this.type = filterType;
         this.dynamicFilterDataType = requireNonNull(dataType, "dynamic filter data type is null");
         this.bloomFilterFpp = bloomFilterFpp;
+        this.blockedBloomFilter = blockedBloomFilter;
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.stateStoreProvider = requireNonNull(stateStoreProvider, "stateStore is null");
     }
@@ -276,7 +286,7 @@ public class LocalDynamicFilter
 
     private BloomFilter createBloomFilterFromSet(DynamicFilterSourceOperator.Channel channel, Set values, double bloomFilterFpp)
     {
-        BloomFilter bloomFilter = new BloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
+        BloomFilter bloomFilter = new BloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp, blockedBloomFilter);
         if (channel.getType().getJavaType() == long.class) {
             for (Object value : values) {
                 long lv = (Long) value;
@@ -77,6 +77,7 @@ import io.prestosql.operator.OrderByOperator.OrderByOperatorFactory;
 import io.prestosql.operator.OutputFactory;
 import io.prestosql.operator.PagesIndex;
 import io.prestosql.operator.PagesSpatialIndexFactory;
+import io.prestosql.operator.PartialAggregationController;
 import io.prestosql.operator.PartitionFunction;
 import io.prestosql.operator.PartitionedLookupSourceFactory;
 import io.prestosql.operator.PartitionedOutputOperator.PartitionedOutputFactory;
@@ -251,6 +252,8 @@ import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Range.closedOpen;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.prestosql.SystemSessionProperties.getAdaptivePartialAggregationMinRows;
+import static io.prestosql.SystemSessionProperties.getAdaptivePartialAggregationUniqueRowsRatioThreshold;
 import static io.prestosql.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
 import static io.prestosql.SystemSessionProperties.getCteMaxPrefetchQueueSize;
 import static io.prestosql.SystemSessionProperties.getCteMaxQueueSize;
@@ -262,6 +265,7 @@ import static io.prestosql.SystemSessionProperties.getFilterAndProjectMinOutputP
 import static io.prestosql.SystemSessionProperties.getSpillOperatorThresholdReuseExchange;
 import static io.prestosql.SystemSessionProperties.getTaskConcurrency;
 import static io.prestosql.SystemSessionProperties.getTaskWriterCount;
+import static io.prestosql.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
 import static io.prestosql.SystemSessionProperties.isCrossRegionDynamicFilterEnabled;
 import static io.prestosql.SystemSessionProperties.isEnableDynamicFiltering;
 import static io.prestosql.SystemSessionProperties.isSpillEnabled;
@@ -350,6 +354,7 @@ public class LocalExecutionPlanner
     private final IndexJoinLookupStats indexJoinLookupStats;
     private final DataSize maxPartialAggregationMemorySize;
     private final DataSize maxPagePartitioningBufferSize;
+    private final Optional<DataSize> pagePartitioningCoalescingTargetSize;
     private final DataSize maxLocalExchangeBufferSize;
     private final SpillerFactory spillerFactory;
     private final SingleStreamSpillerFactory singleStreamSpillerFactory;
@@ -414,6 +419,9 @@ public class LocalExecutionPlanner
         this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         this.maxPartialAggregationMemorySize = taskManagerConfig.getMaxPartialAggregationMemoryUsage();
         this.maxPagePartitioningBufferSize = taskManagerConfig.getMaxPagePartitioningBufferSize();
+        this.pagePartitioningCoalescingTargetSize = taskManagerConfig.isPagePartitioningCoalescingEnabled()
+                ? Optional.of(taskManagerConfig.getPagePartitioningTargetPageSize())
+                : Optional.empty();
         this.maxLocalExchangeBufferSize = taskManagerConfig.getMaxLocalExchangeBufferSize();
         this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
@@ -511,7 +519,8 @@ public class LocalExecutionPlanner
                         partitioningScheme.isReplicateNullsAndAny(),
                         nullChannel,
                         outputBuffer,
-                        maxPagePartitioningBufferSize),
+                        maxPagePartitioningBufferSize,
+                        pagePartitioningCoalescingTargetSize),
                 producerCTEId,
                 producerCTEParentId,
                 cteCtx);
@@ -3323,6 +3332,14 @@ public class LocalExecutionPlanner
             }
             else {
                 Optional<Integer> hashChannel = hashSymbol.map(channelGetter(source));
+                Optional<PartialAggregationController> partialAggregationController = Optional.empty();
+                // ORDER BY and DISTINCT aggregations are not partially aggregated
+                if (step == PARTIAL && isAdaptivePartialAggregationEnabled(context.getSession())
+                        && accumulatorFactories.stream().noneMatch(factory -> factory.hasOrderBy() || factory.hasDistinct())) {
+                    partialAggregationController = Optional.of(new PartialAggregationController(
+                            getAdaptivePartialAggregationMinRows(context.getSession()),
+                            getAdaptivePartialAggregationUniqueRowsRatioThreshold(context.getSession())));
+                }
                 return new HashAggregationOperatorFactory(
                         context.getNextOperatorId(),
                         planNodeId,
@@ -3340,7 +3357,8 @@ public class LocalExecutionPlanner
                         unspillMemoryLimit,
                         spillerFactory,
                         joinCompiler,
-                        useSystemMemory);
+                        useSystemMemory,
+                        partialAggregationController);
             }
         }
     }
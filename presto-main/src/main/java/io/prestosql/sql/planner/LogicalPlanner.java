@@ -484,19 +484,28 @@ public class LogicalPlanner
                 visibleTableColumnNames,
                 newTableLayout,
                 statisticsMetadata);
-        Expression cubeWhere = analysis.getWhere((QuerySpecification) (insertCubeStatement.getQuery().getQueryBody()));
-        Expression rewritten = null;
-        if (cubeWhere != null) {
-            rewritten = new QueryPlanner(analysis, planSymbolAllocator, idAllocator, buildLambdaDeclarationToSymbolMap(analysis, planSymbolAllocator), metadata, session, namedSubPlan, uniqueIdAllocator)
-                    .rewriteExpression(tableWriterPlan, cubeWhere, analysis, buildLambdaDeclarationToSymbolMap(analysis, planSymbolAllocator));
-        }
         CubeMetadata cubeMetadata = insert.getMetadata();
-        if (!insertCubeStatement.isOverwrite() && !insertCubeStatement.getWhere().isPresent() && cubeMetadata.getCubeStatus() != CubeStatus.INACTIVE) {
-            //Means data some data was inserted before, but trying to insert entire dataset
-            throw new PrestoException(QUERY_REJECTED, "Cannot allow insert. Inserting entire dataset but cube already has partial data");
+        String dataPredicate;
+        if (insert.isRefresh()) {
+            //The query only aggregates the source table partitions added since the cube was last updated,
+            //which are already covered by the cube predicate
+            dataPredicate = cubeMetadata.getPredicateString();
         }
-        else if (!insertCubeStatement.isOverwrite() && insertCubeStatement.getWhere().isPresent() && arePredicatesOverlapping(rewritten, cubeMetadata)) {
-            throw new PrestoException(QUERY_REJECTED, String.format("Cannot allow insert. Cube already contains data for the given predicate '%s'", ExpressionFormatter.formatExpression(insertCubeStatement.getWhere().get(), Optional.empty())));
+        else {
+            Expression cubeWhere = analysis.getWhere((QuerySpecification) (insertCubeStatement.getQuery().getQueryBody()));
+            Expression rewritten = null;
+            if (cubeWhere != null) {
+                rewritten = new QueryPlanner(analysis, planSymbolAllocator, idAllocator, buildLambdaDeclarationToSymbolMap(analysis, planSymbolAllocator), metadata, session, namedSubPlan, uniqueIdAllocator)
+                        .rewriteExpression(tableWriterPlan, cubeWhere, analysis, buildLambdaDeclarationToSymbolMap(analysis, planSymbolAllocator));
+            }
+            if (!insertCubeStatement.isOverwrite() && !insertCubeStatement.getWhere().isPresent() && cubeMetadata.getCubeStatus() != CubeStatus.INACTIVE) {
+                //Means data some data was inserted before, but trying to insert entire dataset
+                throw new PrestoException(QUERY_REJECTED, "Cannot allow insert. Inserting entire dataset but cube already has partial data");
+            }
+            else if (!insertCubeStatement.isOverwrite() && insertCubeStatement.getWhere().isPresent() && arePredicatesOverlapping(rewritten, cubeMetadata)) {
+                throw new PrestoException(QUERY_REJECTED, String.format("Cannot allow insert. Cube already contains data for the given predicate '%s'", ExpressionFormatter.formatExpression(insertCubeStatement.getWhere().get(), Optional.empty())));
+            }
+            dataPredicate = cubeWhere != null ? ExpressionFormatter.formatExpression(rewritten, Optional.empty()) : null;
         }
         TableHandle sourceTableHandle = insert.getSourceTable();
         //At this point it has been verified that source table has not been updated
@@ -510,8 +519,10 @@ public class LogicalPlanner
                 new CubeUpdateMetadata(
                         tableMetadata.getQualifiedName().toString(),
                         tableLastModifiedTimeSupplier.getAsLong(),
-                        cubeWhere != null ? ExpressionFormatter.formatExpression(rewritten, Optional.empty()) : null,
-                        insertCubeStatement.isOverwrite()));
+                        insert.getSourcePartitionsLastUpdatedTime(),
+                        dataPredicate,
+                        //a refresh keeps the cube predicate instead of merging it with itself
+                        insertCubeStatement.isOverwrite() || insert.isRefresh()));
         return new RelationPlan(cubeFinishNode, analysis.getScope(insertCubeStatement), cubeFinishNode.getOutputSymbols());
     }
 
@@ -15,6 +15,7 @@
 
 package io.prestosql.sql.planner.optimizations;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.log.Logger;
 import io.hetu.core.spi.cube.CubeMetadata;
@@ -69,10 +70,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static io.prestosql.SystemSessionProperties.isEnableStarTreeIndex;
 import static io.prestosql.cube.CubeManager.STAR_TREE;
+import static io.prestosql.cube.CubeSourcePartitions.isUpToDate;
 import static io.prestosql.matching.Capture.newCapture;
 import static io.prestosql.spi.connector.StandardWarningCode.EXPIRED_CUBE;
 import static io.prestosql.sql.planner.plan.Patterns.aggregation;
@@ -282,9 +285,12 @@ public class StarTreeAggregationRule
         }
 
         //Filter out cubes that were created before the source table was updated
+        //unless the partitions of the source table are the ones the cube was last updated with.
+        //The partitions are only listed if needed, and once per query by the metadata
         long lastModifiedTime = lastModifiedTimeSupplier.getAsLong();
+        Supplier<Optional<Map<String, Long>>> sourcePartitions = Suppliers.memoize(() -> metadata.getPartitionModificationTimes(session, tableHandle));
         matchedCubeMetadataList = matchedCubeMetadataList.stream()
-                .filter(cubeMetadata -> cubeMetadata.getSourceTableLastUpdatedTime() >= lastModifiedTime)
+                .filter(cubeMetadata -> cubeMetadata.getSourceTableLastUpdatedTime() >= lastModifiedTime || isUpToDate(cubeMetadata, sourcePartitions.get()))
                 .collect(Collectors.toList());
 
         if (matchedCubeMetadataList.isEmpty()) {
@@ -29,6 +29,7 @@ import io.prestosql.security.AccessControl;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.StandardErrorCode;
 import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.metadata.TableHandle;
 import io.prestosql.sql.ExpressionFormatter;
 import io.prestosql.sql.analyzer.QueryExplainer;
 import io.prestosql.sql.parser.ParsingOptions;
@@ -55,12 +56,16 @@ import io.prestosql.sql.tree.Table;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import static io.prestosql.cube.CubeManager.STAR_TREE;
+import static io.prestosql.cube.CubeSourcePartitions.createRefreshPredicate;
+import static io.prestosql.cube.CubeSourcePartitions.getRefreshedSourcePartitions;
+import static io.prestosql.cube.CubeSourcePartitions.isRefresh;
 import static io.prestosql.metadata.MetadataUtil.createQualifiedObjectName;
 import static java.util.Objects.requireNonNull;
 
@@ -79,19 +84,21 @@ public class InsertCubeRewrite
             WarningCollector warningCollector,
             HeuristicIndexerManager heuristicIndexerManager)
     {
-        return (Statement) new Visitor(session, cubeManager, parser).process(node, null);
+        return (Statement) new Visitor(session, metadata, cubeManager, parser).process(node, null);
     }
 
     private static class Visitor
             extends AstVisitor<Node, Void>
     {
         private final Session session;
+        private final Metadata metadata;
         private final CubeManager cubeManager;
         private final SqlParser sqlParser;
 
-        public Visitor(Session session, CubeManager cubeManager, SqlParser parser)
+        public Visitor(Session session, Metadata metadata, CubeManager cubeManager, SqlParser parser)
         {
             this.session = requireNonNull(session, "session is null");
+            this.metadata = requireNonNull(metadata, "metadata is null");
             this.cubeManager = requireNonNull(cubeManager, "cubeManager is null");
             this.sqlParser = parser;
         }
@@ -133,12 +140,19 @@ public class InsertCubeRewrite
                     }
                 }
             }
-            return buildCubeInsert(cubeMetadata, node, group);
+            if (isRefresh(node, cubeMetadata)) {
+                // aggregate only the partitions added to the source table since the cube was last updated
+                QualifiedObjectName sourceTableName = QualifiedObjectName.valueOf(cubeMetadata.getSourceTableName());
+                TableHandle sourceTableHandle = metadata.getTableHandle(session, sourceTableName)
+                        .orElseThrow(() -> new PrestoException(StandardErrorCode.CUBE_ERROR, String.format("Source table '%s' not found", sourceTableName)));
+                Map<String, Long> sourcePartitions = getRefreshedSourcePartitions(metadata, session, sourceTableHandle, cubeMetadata);
+                return buildCubeInsert(cubeMetadata, node, group, Optional.of(createRefreshPredicate(metadata, session, sourceTableHandle, cubeMetadata, sourcePartitions)));
+            }
+            return buildCubeInsert(cubeMetadata, node, group, node.getWhere());
         }
 
-        private InsertCube buildCubeInsert(CubeMetadata cubeMetadata, InsertCube node, Set<String> cubeGroup)
+        private InsertCube buildCubeInsert(CubeMetadata cubeMetadata, InsertCube node, Set<String> cubeGroup, Optional<Expression> newDataPredicate)
         {
-            Optional<Expression> newDataPredicate = node.getWhere();
             QualifiedObjectName sourceTableName = QualifiedObjectName.valueOf(cubeMetadata.getSourceTableName());
             List<Identifier> insertColumns = new ArrayList<>();
             QualifiedName sourceTable = QualifiedName.of(sourceTableName.getCatalogName(), sourceTableName.getSchemaName(), sourceTableName.getObjectName());
@@ -123,6 +123,7 @@ import static io.prestosql.connector.informationschema.InformationSchemaMetadata
 import static io.prestosql.connector.informationschema.InformationSchemaMetadata.TABLE_TABLES;
 import static io.prestosql.connector.informationschema.InformationSchemaMetadata.TABLE_TABLE_PRIVILEGES;
 import static io.prestosql.cube.CubeManager.STAR_TREE;
+import static io.prestosql.cube.CubeSourcePartitions.isUpToDate;
 import static io.prestosql.metadata.FunctionAndTypeManager.qualifyObjectName;
 import static io.prestosql.metadata.MetadataListing.listCatalogs;
 import static io.prestosql.metadata.MetadataListing.listSchemas;
@@ -287,9 +288,10 @@ final class ShowQueriesRewrite
             Map<String, String> cubeStatusMap = new HashMap<>();
             cubeMetadataList.forEach(cubeMetadata -> {
                 QualifiedObjectName qualifiedTableName = QualifiedObjectName.valueOf(cubeMetadata.getSourceTableName());
+                TableHandle tableHandle = metadata.getTableHandle(session, qualifiedTableName)
+                        .orElseThrow(() -> new SemanticException(MISSING_TABLE, node, "Table %s does not exist", qualifiedTableName.toString()));
                 Map<QualifiedObjectName, Long> tableLastModifiedTimeMap = new HashMap<>();
                 long tableLastModifiedTime = tableLastModifiedTimeMap.computeIfAbsent(qualifiedTableName, ignored -> {
-                    TableHandle tableHandle = metadata.getTableHandle(session, qualifiedTableName).get();
                     LongSupplier lastModifiedTimeSupplier = metadata.getTableLastModifiedTimeSupplier(session, tableHandle);
                     return lastModifiedTimeSupplier == null ? -1L : lastModifiedTimeSupplier.getAsLong();
                 });
@@ -298,7 +300,9 @@ final class ShowQueriesRewrite
                     cubeStatusMap.put(cubeMetadata.getCubeName(), "Inactive");
                 }
                 else {
-                    cubeStatusMap.put(cubeMetadata.getCubeName(), tableLastModifiedTime > cubeMetadata.getSourceTableLastUpdatedTime() ? "Expired" : "Active");
+                    boolean expired = tableLastModifiedTime > cubeMetadata.getSourceTableLastUpdatedTime()
+                            && !isUpToDate(cubeMetadata, metadata.getPartitionModificationTimes(session, tableHandle));
+                    cubeStatusMap.put(cubeMetadata.getCubeName(), expired ? "Expired" : "Active");
                 }
             });
             rows.add(row(
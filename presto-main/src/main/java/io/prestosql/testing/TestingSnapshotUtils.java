@@ -26,6 +26,8 @@ import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.util.stream.Stream;
 
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+
 public class TestingSnapshotUtils
 {
     public static final SnapshotUtils NOOP_SNAPSHOT_UTILS;
@@ -33,7 +35,7 @@ public class TestingSnapshotUtils
     static {
         SnapshotConfig snapshotConfig = new SnapshotConfig();
         FileSystemClientManager fileSystemClientManager = new NoopFileSystemClientManager();
-        NOOP_SNAPSHOT_UTILS = new SnapshotUtils(fileSystemClientManager, snapshotConfig, new InMemoryNodeManager());
+        NOOP_SNAPSHOT_UTILS = new SnapshotUtils(fileSystemClientManager, snapshotConfig, new InMemoryNodeManager(), createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde());
         NOOP_SNAPSHOT_UTILS.initialize();
     }
 
@@ -26,6 +26,7 @@ import javax.validation.constraints.NotNull;
 import java.util.concurrent.TimeUnit;
 
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 /**
  * HetuConfig contains Hetu configurations
@@ -43,6 +44,8 @@ public class HetuConfig
     private String indexStoreUri = "/opt/hetu/indices/";
     private String indexStoreFileSystemProfile = "local-config-default";
     private String indexToPreload = "";
+    private String indexCacheLocalDirectory = "";
+    private DataSize indexCacheLocalMaxDiskUsage = new DataSize(10, GIGABYTE);
     private Boolean enableEmbeddedStateStore = Boolean.FALSE;
     private Boolean enableMultipleCoordinator = Boolean.FALSE;
     private Duration stateUpdateInterval = new Duration(100, TimeUnit.MILLISECONDS);
@@ -54,6 +57,10 @@ public class HetuConfig
     private boolean executionPlanCacheEnabled;
     private long executionPlanCacheMaxItems = 10000L;
     private long executionPlanCacheTimeout = 86400000L;
+    private boolean queryResultCacheEnabled;
+    private DataSize queryResultCacheMaxSize = new DataSize(1, GIGABYTE);
+    private DataSize queryResultCacheMaxEntrySize = new DataSize(16, MEGABYTE);
+    private Duration queryResultCacheTtl = new Duration(1, TimeUnit.HOURS);
     private boolean splitCacheMapEnabled = Boolean.FALSE;
     private Duration splitCacheStateUpdateInterval = new Duration(2, TimeUnit.SECONDS);
     private boolean isTraceStackVisible;
@@ -169,6 +176,32 @@ public class HetuConfig
         return this;
     }
 
+    public String getIndexCacheLocalDirectory()
+    {
+        return this.indexCacheLocalDirectory;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_LOCAL_DIRECTORY)
+    @ConfigDescription("Local directory used to cache index files read from the indexstore, empty to disable the local cache")
+    public HetuConfig setIndexCacheLocalDirectory(String indexCacheLocalDirectory)
+    {
+        this.indexCacheLocalDirectory = indexCacheLocalDirectory;
+        return this;
+    }
+
+    public DataSize getIndexCacheLocalMaxDiskUsage()
+    {
+        return this.indexCacheLocalMaxDiskUsage;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_LOCAL_MAX_DISK_USAGE)
+    @ConfigDescription("The maximum disk space used by the local index file cache")
+    public HetuConfig setIndexCacheLocalMaxDiskUsage(DataSize indexCacheLocalMaxDiskUsage)
+    {
+        this.indexCacheLocalMaxDiskUsage = indexCacheLocalMaxDiskUsage;
+        return this;
+    }
+
     public Boolean isIndexCacheSoftReferenceEnabled()
     {
         return this.indexCacheSoftReference;
@@ -335,6 +368,62 @@ public class HetuConfig
         return this;
     }
 
+    public boolean isQueryResultCacheEnabled()
+    {
+        return queryResultCacheEnabled;
+    }
+
+    @Config("hetu.query-result-cache.enabled")
+    @ConfigDescription("Enable or disable caching the results of queries on the coordinator. Disabled by default.")
+    public HetuConfig setQueryResultCacheEnabled(boolean queryResultCacheEnabled)
+    {
+        this.queryResultCacheEnabled = queryResultCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getQueryResultCacheMaxSize()
+    {
+        return queryResultCacheMaxSize;
+    }
+
+    @Config("hetu.query-result-cache.max-size")
+    @ConfigDescription("Maximum size of all cached query results")
+    public HetuConfig setQueryResultCacheMaxSize(DataSize queryResultCacheMaxSize)
+    {
+        this.queryResultCacheMaxSize = queryResultCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getQueryResultCacheMaxEntrySize()
+    {
+        return queryResultCacheMaxEntrySize;
+    }
+
+    @Config("hetu.query-result-cache.max-entry-size")
+    @ConfigDescription("Results of queries larger than this size are not cached")
+    public HetuConfig setQueryResultCacheMaxEntrySize(DataSize queryResultCacheMaxEntrySize)
+    {
+        this.queryResultCacheMaxEntrySize = queryResultCacheMaxEntrySize;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getQueryResultCacheTtl()
+    {
+        return queryResultCacheTtl;
+    }
+
+    @Config("hetu.query-result-cache.ttl")
+    @ConfigDescription("Time after which a cached query result expires")
+    public HetuConfig setQueryResultCacheTtl(Duration queryResultCacheTtl)
+    {
+        this.queryResultCacheTtl = queryResultCacheTtl;
+        return this;
+    }
+
     public boolean isSplitCacheMapEnabled()
     {
         return splitCacheMapEnabled;
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.hetu.core.spi.cube.CubeMetadata;
+import io.hetu.core.spi.cube.CubeStatus;
+import io.prestosql.Session;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.TableMetadata;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.CatalogName;
+import io.prestosql.spi.connector.ColumnMetadata;
+import io.prestosql.spi.connector.ConnectorTableMetadata;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.metadata.TableHandle;
+import io.prestosql.sql.tree.InsertCube;
+import io.prestosql.sql.tree.QualifiedName;
+import io.prestosql.testing.TestingMetadata.TestingTableHandle;
+import io.prestosql.testing.TestingTransactionHandle;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.sql.ExpressionFormatter.formatExpression;
+import static io.prestosql.sql.planner.iterative.rule.test.PlanBuilder.expression;
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static org.mockito.Matchers.any;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestCubeSourcePartitions
+{
+    private static final Session SESSION = testSessionBuilder().build();
+    private static final TableHandle SOURCE_TABLE = new TableHandle(
+            new CatalogName("hive"),
+            new TestingTableHandle(new SchemaTableName("default", "source")),
+            TestingTransactionHandle.create(),
+            Optional.empty());
+    private static final Map<String, Long> PARTITIONS = ImmutableMap.of("ds=2020-01-01", 100L, "ds=2020-01-02", 200L);
+
+    @Test
+    public void testIsRefresh()
+    {
+        CubeMetadata readyCube = createCube(CubeStatus.READY, PARTITIONS, null);
+        assertTrue(CubeSourcePartitions.isRefresh(new InsertCube(QualifiedName.of("cube"), Optional.empty(), false), readyCube));
+        assertFalse(CubeSourcePartitions.isRefresh(new InsertCube(QualifiedName.of("cube"), Optional.empty(), true), readyCube));
+        assertFalse(CubeSourcePartitions.isRefresh(new InsertCube(QualifiedName.of("cube"), Optional.of(expression("ds > DATE '2020-01-01'")), false), readyCube));
+        assertFalse(CubeSourcePartitions.isRefresh(new InsertCube(QualifiedName.of("cube"), Optional.empty(), false), createCube(CubeStatus.INACTIVE, ImmutableMap.of(), null)));
+    }
+
+    @Test
+    public void testIsUpToDate()
+    {
+        CubeMetadata cube = createCube(CubeStatus.READY, PARTITIONS, null);
+        assertTrue(CubeSourcePartitions.isUpToDate(cube, Optional.of(PARTITIONS)));
+        assertFalse(CubeSourcePartitions.isUpToDate(cube, Optional.empty()));
+        assertFalse(CubeSourcePartitions.isUpToDate(cube, Optional.of(ImmutableMap.of("ds=2020-01-01", 100L))));
+        assertFalse(CubeSourcePartitions.isUpToDate(cube, Optional.of(ImmutableMap.of("ds=2020-01-01", 100L, "ds=2020-01-02", 300L))));
+        assertFalse(CubeSourcePartitions.isUpToDate(createCube(CubeStatus.READY, ImmutableMap.of(), null), Optional.of(ImmutableMap.of())));
+    }
+
+    @Test
+    public void testRefreshedSourcePartitions()
+    {
+        CubeMetadata cube = createCube(CubeStatus.READY, PARTITIONS, null);
+        Map<String, Long> added = ImmutableMap.of("ds=2020-01-01", 100L, "ds=2020-01-02", 200L, "ds=2020-01-03", 300L);
+        assertEquals(CubeSourcePartitions.getRefreshedSourcePartitions(createMetadata(Optional.of(added)), SESSION, SOURCE_TABLE, cube), added);
+
+        assertRefreshRejected(cube, Optional.empty());
+        assertRefreshRejected(cube, Optional.of(ImmutableMap.of()));
+        assertRefreshRejected(createCube(CubeStatus.READY, ImmutableMap.of(), null), Optional.of(added));
+        // modified partition
+        assertRefreshRejected(cube, Optional.of(ImmutableMap.of("ds=2020-01-01", 150L, "ds=2020-01-02", 200L)));
+        // dropped partition
+        assertRefreshRejected(cube, Optional.of(ImmutableMap.of("ds=2020-01-02", 200L, "ds=2020-01-03", 300L)));
+    }
+
+    @Test
+    public void testRefreshPredicate()
+    {
+        Metadata metadata = createMetadata(Optional.empty());
+        CubeMetadata cube = createCube(CubeStatus.READY, PARTITIONS, null);
+        assertEquals(
+                formatExpression(CubeSourcePartitions.createRefreshPredicate(metadata, SESSION, SOURCE_TABLE, cube, PARTITIONS), Optional.empty()),
+                "false");
+        assertEquals(
+                formatExpression(CubeSourcePartitions.createRefreshPredicate(metadata, SESSION, SOURCE_TABLE, cube, ImmutableMap.<String, Long>builder()
+                        .putAll(PARTITIONS)
+                        .put("ds=2020-01-04/region=a%2Fb", 400L)
+                        .put("ds=2020-01-03/region=__HIVE_DEFAULT_PARTITION__", 300L)
+                        .build()), Optional.empty()),
+                "(((ds = CAST('2020-01-03' AS date)) AND (region IS NULL)) OR ((ds = CAST('2020-01-04' AS date)) AND (region = CAST('a/b' AS varchar))))");
+
+        CubeMetadata cubeWithPredicate = createCube(CubeStatus.READY, PARTITIONS, "id > 10");
+        assertEquals(
+                formatExpression(CubeSourcePartitions.createRefreshPredicate(metadata, SESSION, SOURCE_TABLE, cubeWithPredicate, ImmutableMap.<String, Long>builder()
+                        .putAll(PARTITIONS)
+                        .put("ds=2020-01-03/region=a", 300L)
+                        .build()), Optional.empty()),
+                "((id > 10) AND ((ds = CAST('2020-01-03' AS date)) AND (region = CAST('a' AS varchar))))");
+    }
+
+    private static void assertRefreshRejected(CubeMetadata cube, Optional<Map<String, Long>> sourcePartitions)
+    {
+        try {
+            CubeSourcePartitions.getRefreshedSourcePartitions(createMetadata(sourcePartitions), SESSION, SOURCE_TABLE, cube);
+            throw new AssertionError("Expected refresh to be rejected");
+        }
+        catch (PrestoException e) {
+            assertTrue(e.getMessage().contains("Try INSERT OVERWRITE CUBE"), e.getMessage());
+        }
+    }
+
+    private static CubeMetadata createCube(CubeStatus status, Map<String, Long> sourcePartitions, String predicate)
+    {
+        CubeMetadata cube = Mockito.mock(CubeMetadata.class);
+        Mockito.when(cube.getCubeName()).thenReturn("hive.default.cube");
+        Mockito.when(cube.getSourceTableName()).thenReturn("hive.default.source");
+        Mockito.when(cube.getCubeStatus()).thenReturn(status);
+        Mockito.when(cube.getSourcePartitionsLastUpdatedTime()).thenReturn(sourcePartitions);
+        Mockito.when(cube.getPredicateString()).thenReturn(predicate);
+        return cube;
+    }
+
+    private static Metadata createMetadata(Optional<Map<String, Long>> sourcePartitions)
+    {
+        Metadata metadata = Mockito.mock(Metadata.class);
+        Mockito.when(metadata.getPartitionModificationTimes(any(Session.class), any(TableHandle.class))).thenReturn(sourcePartitions);
+        Mockito.when(metadata.getTableMetadata(any(Session.class), any(TableHandle.class))).thenReturn(new TableMetadata(
+                new CatalogName("hive"),
+                new ConnectorTableMetadata(
+                        new SchemaTableName("default", "source"),
+                        ImmutableList.of(new ColumnMetadata("id", BIGINT), new ColumnMetadata("ds", DATE), new ColumnMetadata("region", VARCHAR)))));
+        return metadata;
+    }
+}
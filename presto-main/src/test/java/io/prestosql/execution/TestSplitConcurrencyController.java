@@ -59,4 +59,56 @@ public class TestSplitConcurrencyController
             assertEquals(controller.getTargetConcurrency(), i + 2);
         }
     }
+
+    @Test
+    public void testAdaptiveRampup()
+    {
+        SplitConcurrencyStats stats = new SplitConcurrencyStats();
+        SplitConcurrencyController controller = SplitConcurrencyController.adaptive(1, new Duration(1, SECONDS), () -> 0.9, stats);
+        for (int i = 0; i < 10; i++) {
+            controller.update(SECONDS.toNanos(2), SECONDS.toNanos(2), false, 0, i + 1);
+            assertEquals(controller.getTargetConcurrency(), i + 2);
+        }
+        assertEquals(stats.getIncreases().getTotalCount(), 10);
+    }
+
+    @Test
+    public void testAdaptiveRampdownOnOverloadedNode()
+    {
+        SplitConcurrencyStats stats = new SplitConcurrencyStats();
+        SplitConcurrencyController controller = SplitConcurrencyController.adaptive(10, new Duration(1, SECONDS), () -> 2.0, stats);
+        for (int i = 0; i < 9; i++) {
+            // cpu bound splits with an empty output buffer
+            controller.update(SECONDS.toNanos(2), SECONDS.toNanos(2), false, 0, 10 - i);
+            assertEquals(controller.getTargetConcurrency(), 10 - i - 1);
+        }
+        controller.update(SECONDS.toNanos(2), SECONDS.toNanos(2), false, 0, 1);
+        assertEquals(controller.getTargetConcurrency(), 1);
+        assertEquals(stats.getDecreases().getTotalCount(), 9);
+    }
+
+    @Test
+    public void testAdaptiveThrottledOnOverloadedNode()
+    {
+        SplitConcurrencyStats stats = new SplitConcurrencyStats();
+        SplitConcurrencyController controller = SplitConcurrencyController.adaptive(4, new Duration(1, SECONDS), () -> 2.0, stats);
+        // mostly blocked splits do not use the cores, but the node has no idle thread for more splits either
+        controller.update(SECONDS.toNanos(2), MILLISECONDS.toNanos(100), true, 0, 4);
+        assertEquals(controller.getTargetConcurrency(), 4);
+        controller.splitFinished(0, 0, 4);
+        assertEquals(controller.getTargetConcurrency(), 4);
+        assertEquals(stats.getThrottled().getTotalCount(), 2);
+    }
+
+    @Test
+    public void testAdaptiveBlockedSplitsOnIdleNode()
+    {
+        SplitConcurrencyStats stats = new SplitConcurrencyStats();
+        SplitConcurrencyController controller = SplitConcurrencyController.adaptive(1, new Duration(1, SECONDS), () -> 0.25, stats);
+        for (int i = 0; i < 5; i++) {
+            controller.update(SECONDS.toNanos(2), MILLISECONDS.toNanos(100), true, 0, controller.getTargetConcurrency());
+            assertEquals(controller.getTargetConcurrency(), 1 + 2 * (i + 1));
+        }
+        assertEquals(stats.getIncreases().getTotalCount(), 5);
+    }
 }
@@ -35,6 +35,7 @@ public class TestTaskManagerConfig
         assertRecordedDefaults(recordDefaults(TaskManagerConfig.class)
                 .setInitialSplitsPerNode(Runtime.getRuntime().availableProcessors() * 2)
                 .setSplitConcurrencyAdjustmentInterval(new Duration(100, TimeUnit.MILLISECONDS))
+                .setAdaptiveSplitConcurrencyEnabled(false)
                 .setStatusRefreshMaxWait(new Duration(1, TimeUnit.SECONDS))
                 .setInfoUpdateInterval(new Duration(3, TimeUnit.SECONDS))
                 .setPerOperatorCpuTimerEnabled(true)
@@ -51,6 +52,8 @@ public class TestTaskManagerConfig
                 .setMaxLocalExchangeBufferSize(new DataSize(32, Unit.MEGABYTE))
                 .setSinkMaxBufferSize(new DataSize(32, Unit.MEGABYTE))
                 .setMaxPagePartitioningBufferSize(new DataSize(32, Unit.MEGABYTE))
+                .setPagePartitioningCoalescingEnabled(false)
+                .setPagePartitioningTargetPageSize(new DataSize(1, Unit.MEGABYTE))
                 .setWriterCount(1)
                 .setTaskConcurrency(16)
                 .setHttpResponseThreads(100)
@@ -58,6 +61,7 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(5)
                 .setTaskYieldThreads(3)
                 .setLevelTimeMultiplier(new BigDecimal("2"))
+                .setWorkStealingEnabled(false)
                 .setStatisticsCpuTimerEnabled(true));
     }
 
@@ -67,6 +71,7 @@ public class TestTaskManagerConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("task.initial-splits-per-node", "1")
                 .put("task.split-concurrency-adjustment-interval", "1s")
+                .put("task.adaptive-split-concurrency-enabled", "true")
                 .put("task.status-refresh-max-wait", "2s")
                 .put("task.info-update-interval", "2s")
                 .put("task.per-operator-cpu-timer-enabled", "false")
@@ -83,6 +88,8 @@ public class TestTaskManagerConfig
                 .put("task.client.timeout", "10s")
                 .put("sink.max-buffer-size", "42MB")
                 .put("driver.max-page-partitioning-buffer-size", "40MB")
+                .put("driver.page-partitioning-coalescing-enabled", "true")
+                .put("driver.page-partitioning-target-page-size", "2MB")
                 .put("task.writer-count", "4")
                 .put("task.concurrency", "8")
                 .put("task.http-response-threads", "4")
@@ -90,12 +97,14 @@ public class TestTaskManagerConfig
                 .put("task.task-notification-threads", "13")
                 .put("task.task-yield-threads", "8")
                 .put("task.level-time-multiplier", "2.1")
+                .put("task.work-stealing-enabled", "true")
                 .put("task.statistics-cpu-timer-enabled", "false")
                 .build();
 
         TaskManagerConfig expected = new TaskManagerConfig()
                 .setInitialSplitsPerNode(1)
                 .setSplitConcurrencyAdjustmentInterval(new Duration(1, TimeUnit.SECONDS))
+                .setAdaptiveSplitConcurrencyEnabled(true)
                 .setStatusRefreshMaxWait(new Duration(2, TimeUnit.SECONDS))
                 .setInfoUpdateInterval(new Duration(2, TimeUnit.SECONDS))
                 .setPerOperatorCpuTimerEnabled(false)
@@ -112,6 +121,8 @@ public class TestTaskManagerConfig
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setSinkMaxBufferSize(new DataSize(42, Unit.MEGABYTE))
                 .setMaxPagePartitioningBufferSize(new DataSize(40, Unit.MEGABYTE))
+                .setPagePartitioningCoalescingEnabled(true)
+                .setPagePartitioningTargetPageSize(new DataSize(2, Unit.MEGABYTE))
                 .setWriterCount(4)
                 .setTaskConcurrency(8)
                 .setHttpResponseThreads(4)
@@ -119,6 +130,7 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(13)
                 .setTaskYieldThreads(8)
                 .setLevelTimeMultiplier(new BigDecimal("2.1"))
+                .setWorkStealingEnabled(true)
                 .setStatisticsCpuTimerEnabled(false);
 
         assertFullMapping(properties, expected);
@@ -31,7 +31,11 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.base.Preconditions.checkState;
 import static io.prestosql.execution.buffer.BufferResult.emptyResults;
@@ -44,6 +48,7 @@ import static io.prestosql.execution.buffer.BufferTestUtils.getFuture;
 import static io.prestosql.execution.buffer.BufferTestUtils.sizeOfPages;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -357,6 +362,115 @@ public class TestClientBuffer
         assertBufferDestroyed(buffer, 1);
     }
 
+    @Test
+    public void testConcurrentProducers()
+            throws Exception
+    {
+        int producers = 4;
+        int pagesPerProducer = 1000;
+        ClientBuffer buffer = new ClientBuffer(TASK_INSTANCE_ID, BUFFER_ID);
+        AtomicInteger referencedPages = new AtomicInteger();
+
+        // one thread per producer and one for the reader, so the reader runs while the producers add pages
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < producers; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int page = 0; page < pagesPerProducer; page++) {
+                        referencedPages.incrementAndGet();
+                        SerializedPageReference reference = new SerializedPageReference(PAGES_SERDE.serialize(createPage(page)), 1, referencedPages::decrementAndGet);
+                        buffer.enqueuePages(ImmutableList.of(reference));
+                        reference.dereferencePage();
+                    }
+                }));
+            }
+
+            // read concurrently with the producers, until the buffer is finished
+            Future<Long> reader = executor.submit(() -> {
+                long sequenceId = 0;
+                while (true) {
+                    BufferResult result = getFuture(buffer.getPages(sequenceId, sizeOfPages(10)), new Duration(10, SECONDS));
+                    if (result.isBufferComplete()) {
+                        return sequenceId;
+                    }
+                    sequenceId = result.getNextToken();
+                }
+            });
+
+            for (Future<?> future : futures) {
+                future.get(10, SECONDS);
+            }
+            buffer.setNoMorePages();
+            assertEquals(reader.get(10, SECONDS).longValue(), producers * pagesPerProducer);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        buffer.destroy();
+        assertEquals(referencedPages.get(), 0);
+        assertEquals(buffer.getInfo().getPageBufferInfo().getBufferedBytes(), 0);
+        assertEquals(buffer.getInfo().getPageBufferInfo().getPagesAdded(), producers * pagesPerProducer);
+    }
+
+    @Test
+    public void testAcknowledgeWhileProducersAdd()
+            throws Exception
+    {
+        int producers = 4;
+        int pagesToAcknowledge = 10_000;
+        ClientBuffer buffer = new ClientBuffer(TASK_INSTANCE_ID, BUFFER_ID);
+        AtomicInteger referencedPages = new AtomicInteger();
+        AtomicBoolean acknowledged = new AtomicBoolean();
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 1);
+        try {
+            // the producers keep adding pages until the reader acknowledged enough of them
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < producers; i++) {
+                futures.add(executor.submit(() -> {
+                    long added = 0;
+                    while (!acknowledged.get()) {
+                        referencedPages.incrementAndGet();
+                        SerializedPageReference reference = new SerializedPageReference(PAGES_SERDE.serialize(createPage(0)), 1, referencedPages::decrementAndGet);
+                        buffer.enqueuePages(ImmutableList.of(reference));
+                        reference.dereferencePage();
+                        added++;
+                    }
+                    return added;
+                }));
+            }
+
+            // every page is acknowledged as soon as it is returned, separately from the next read
+            Future<Long> reader = executor.submit(() -> {
+                long sequenceId = 0;
+                while (sequenceId < pagesToAcknowledge) {
+                    BufferResult result = getFuture(buffer.getPages(sequenceId, sizeOfPages(1)), new Duration(10, SECONDS));
+                    sequenceId = result.getNextToken();
+                    buffer.acknowledgePages(sequenceId);
+                }
+                acknowledged.set(true);
+                return sequenceId;
+            });
+
+            long acknowledgedPages = reader.get(10, SECONDS);
+            long addedPages = 0;
+            for (Future<Long> future : futures) {
+                addedPages += future.get(10, SECONDS);
+            }
+            assertEquals(buffer.getInfo().getPageBufferInfo().getPagesAdded(), addedPages);
+            assertEquals(buffer.getInfo().getBufferedPages(), addedPages - acknowledgedPages);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        buffer.destroy();
+        assertEquals(referencedPages.get(), 0);
+        assertEquals(buffer.getInfo().getPageBufferInfo().getBufferedBytes(), 0);
+    }
+
     private static void assertInvalidSequenceId(ClientBuffer buffer, int sequenceId)
     {
         try {
@@ -0,0 +1,177 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.Duration;
+import io.prestosql.execution.SplitRunner;
+import io.prestosql.execution.TaskId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Schedules many splits running a few empty quanta, so the time is spent in the task executor
+ * and its split queue rather than in the splits.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkTaskExecutorScheduling
+{
+    private static final int SPLITS_PER_TASK = 2_500;
+    private static final int QUANTA_PER_SPLIT = 4;
+
+    @Benchmark
+    public Object scheduleTinySplits(BenchmarkData data)
+            throws Exception
+    {
+        TaskExecutor taskExecutor = data.getTaskExecutor();
+        ImmutableList.Builder<TaskHandle> taskHandles = ImmutableList.builder();
+        ImmutableList.Builder<ListenableFuture<?>> futures = ImmutableList.builder();
+        for (int task = 0; task < data.getTasks(); task++) {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("benchmark", data.nextTaskId(), 0), () -> 0, 16, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            taskHandles.add(taskHandle);
+            ImmutableList.Builder<TinySplit> splits = ImmutableList.builder();
+            for (int split = 0; split < SPLITS_PER_TASK; split++) {
+                splits.add(new TinySplit(QUANTA_PER_SPLIT));
+            }
+            futures.addAll(taskExecutor.enqueueSplits(taskHandle, true, splits.build()));
+        }
+
+        List<?> results = Futures.allAsList(futures.build()).get();
+        for (TaskHandle taskHandle : taskHandles.build()) {
+            taskExecutor.removeTask(taskHandle);
+        }
+        return results;
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"multilevel", "work_stealing"})
+        private String splitQueue = "multilevel";
+
+        @Param({"4", "16", "64"})
+        private int runnerThreads = 4;
+
+        @Param({"1", "8"})
+        private int tasks = 1;
+
+        private int nextTaskId;
+        private TaskExecutor taskExecutor;
+
+        @Setup
+        public void setup()
+        {
+            MultilevelSplitQueue queue = splitQueue.equals("work_stealing") ? new WorkStealingSplitQueue(2) : new MultilevelSplitQueue(2);
+            taskExecutor = new TaskExecutor(runnerThreads, 2 * runnerThreads, 16, 16, queue, Ticker.systemTicker());
+            taskExecutor.start();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            taskExecutor.stop();
+        }
+
+        public TaskExecutor getTaskExecutor()
+        {
+            return taskExecutor;
+        }
+
+        public int getTasks()
+        {
+            return tasks;
+        }
+
+        public int nextTaskId()
+        {
+            return nextTaskId++;
+        }
+    }
+
+    private static class TinySplit
+            implements SplitRunner
+    {
+        private final AtomicInteger remainingQuanta;
+
+        private TinySplit(int quanta)
+        {
+            this.remainingQuanta = new AtomicInteger(quanta);
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return remainingQuanta.get() <= 0;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            remainingQuanta.decrementAndGet();
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "tiny-split";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkTaskExecutorScheduling.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
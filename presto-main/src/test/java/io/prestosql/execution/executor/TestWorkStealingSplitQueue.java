@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.testing.TestingTicker;
+import io.airlift.units.Duration;
+import io.prestosql.execution.SplitRunner;
+import io.prestosql.execution.TaskId;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestWorkStealingSplitQueue
+{
+    @Test(timeOut = 30_000)
+    public void testTasksComplete()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, 3, 4, new WorkStealingSplitQueue(2), ticker);
+        taskExecutor.start();
+        try {
+            List<ListenableFuture<?>> futures = new ArrayList<>();
+            for (int task = 0; task < 4; task++) {
+                TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", task, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+                ImmutableList.Builder<QuantaSplit> leafSplits = ImmutableList.builder();
+                ImmutableList.Builder<QuantaSplit> intermediateSplits = ImmutableList.builder();
+                for (int split = 0; split < 250; split++) {
+                    leafSplits.add(new QuantaSplit(3));
+                    intermediateSplits.add(new QuantaSplit(2));
+                }
+                futures.addAll(taskExecutor.enqueueSplits(taskHandle, false, leafSplits.build()));
+                futures.addAll(taskExecutor.enqueueSplits(taskHandle, true, intermediateSplits.build()));
+            }
+
+            Futures.allAsList(futures).get(20, SECONDS);
+            assertEquals(taskExecutor.getWaitingSplits(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void testSteal()
+            throws Exception
+    {
+        WorkStealingSplitQueue splitQueue = new WorkStealingSplitQueue(2);
+        TaskHandle taskHandle = new TaskHandle(new TaskId("test", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        ExecutorService owner = newSingleThreadExecutor(daemonThreadsNamed("owner"));
+        ExecutorService thief = newSingleThreadExecutor(daemonThreadsNamed("thief"));
+        try {
+            // the first take registers the local queue of the thread, and steals the split from the shared queue
+            // used before runner threads have a queue, later splits offered by the thread go to its local queue
+            List<PrioritizedSplitRunner> splits = owner.submit(() -> {
+                splitQueue.offer(createSplit(taskHandle));
+                splitQueue.take();
+                List<PrioritizedSplitRunner> offered = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    PrioritizedSplitRunner split = createSplit(taskHandle);
+                    splitQueue.offer(split);
+                    offered.add(split);
+                }
+                return offered;
+            }).get();
+            assertEquals(splitQueue.size(), 10);
+            assertEquals(splitQueue.getSteals().getTotalCount(), 1);
+
+            PrioritizedSplitRunner stolen = thief.submit(splitQueue::take).get();
+            assertSame(stolen, splits.get(0));
+            assertEquals(splitQueue.getSteals().getTotalCount(), 2);
+            assertEquals(splitQueue.size(), 9);
+
+            splitQueue.remove(splits.get(1));
+            assertEquals(splitQueue.size(), 8);
+            splitQueue.removeAll(splits.subList(0, 5));
+            assertEquals(splitQueue.size(), 5);
+
+            assertSame(owner.submit(splitQueue::take).get(), splits.get(5));
+            assertEquals(splitQueue.getSteals().getTotalCount(), 2);
+            assertEquals(splitQueue.size(), 4);
+        }
+        finally {
+            owner.shutdownNow();
+            thief.shutdownNow();
+        }
+    }
+
+    private static PrioritizedSplitRunner createSplit(TaskHandle taskHandle)
+    {
+        return new PrioritizedSplitRunner(taskHandle, new QuantaSplit(1), new TestingTicker(), new CounterStat(), new CounterStat(), new TimeStat(), new TimeStat());
+    }
+
+    private static class QuantaSplit
+            implements SplitRunner
+    {
+        private final AtomicInteger remainingQuanta;
+
+        private QuantaSplit(int quanta)
+        {
+            this.remainingQuanta = new AtomicInteger(quanta);
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return remainingQuanta.get() <= 0;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            remainingQuanta.decrementAndGet();
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "quanta-split";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
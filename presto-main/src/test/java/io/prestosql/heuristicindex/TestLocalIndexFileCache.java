@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import io.hetu.core.filesystem.HetuLocalFileSystemClient;
+import io.hetu.core.filesystem.LocalConfig;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static com.google.common.io.ByteStreams.toByteArray;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+
+public class TestLocalIndexFileCache
+{
+    private Path remoteDirectory;
+    private Path cacheDirectory;
+    private HetuFileSystemClient fs;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        remoteDirectory = Files.createTempDirectory("remote-index");
+        cacheDirectory = Files.createTempDirectory("local-index-cache");
+        fs = new HetuLocalFileSystemClient(new LocalConfig(new Properties()), remoteDirectory);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        fs.close();
+        deleteRecursively(remoteDirectory, ALLOW_INSECURE);
+        deleteRecursively(cacheDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testHitAndMiss()
+            throws IOException
+    {
+        Path file = writeRemoteFile("a.bloom", "bloom index content");
+        LocalIndexFileCacheStats stats = new LocalIndexFileCacheStats();
+        LocalIndexFileCache cache = new LocalIndexFileCache(cacheDirectory, 1024, stats);
+
+        assertEquals(read(cache, file), "bloom index content");
+        assertEquals(stats.getMisses().getTotalCount(), 1);
+        assertEquals(stats.getHits().getTotalCount(), 0);
+        assertEquals(countCachedFiles(), 1);
+
+        assertEquals(read(cache, file), "bloom index content");
+        assertEquals(stats.getMisses().getTotalCount(), 1);
+        assertEquals(stats.getHits().getTotalCount(), 1);
+        assertEquals(stats.getCachedBytes(), "bloom index content".length());
+    }
+
+    @Test
+    public void testModifiedFileMisses()
+            throws IOException
+    {
+        Path file = writeRemoteFile("a.bloom", "old");
+        LocalIndexFileCacheStats stats = new LocalIndexFileCacheStats();
+        LocalIndexFileCache cache = new LocalIndexFileCache(cacheDirectory, 1024, stats);
+        assertEquals(read(cache, file), "old");
+
+        writeRemoteFile("a.bloom", "new content");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        assertEquals(read(cache, file), "new content");
+        assertEquals(stats.getMisses().getTotalCount(), 2);
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        Path first = writeRemoteFile("first.bloom", "0123456789");
+        Path second = writeRemoteFile("second.bloom", "abcdefghij");
+        LocalIndexFileCacheStats stats = new LocalIndexFileCacheStats();
+        LocalIndexFileCache cache = new LocalIndexFileCache(cacheDirectory, 15, stats);
+
+        assertEquals(read(cache, first), "0123456789");
+        assertEquals(read(cache, second), "abcdefghij");
+        assertEquals(cache.getCurrentBytes(), 10);
+        assertEquals(countCachedFiles(), 1);
+        assertEquals(stats.getEvictions().getTotalCount(), 1);
+
+        // file larger than the cache is read directly from the indexstore
+        Path large = writeRemoteFile("large.bloom", "this file does not fit");
+        assertEquals(read(cache, large), "this file does not fit");
+        assertEquals(cache.getCurrentBytes(), 10);
+    }
+
+    @Test
+    public void testWarmRestart()
+            throws IOException
+    {
+        Path file = writeRemoteFile("a.minmax", "minmax index content");
+        new LocalIndexFileCache(cacheDirectory, 1024, new LocalIndexFileCacheStats()).newInputStream(fs, file).close();
+        // leftover of an interrupted load
+        Files.write(cacheDirectory.resolve("partial.index.tmp"), new byte[] {1, 2, 3});
+
+        LocalIndexFileCacheStats stats = new LocalIndexFileCacheStats();
+        LocalIndexFileCache cache = new LocalIndexFileCache(cacheDirectory, 1024, stats);
+        assertEquals(stats.getCachedFiles(), 1);
+        assertEquals(countCachedFiles(), 1);
+
+        assertEquals(read(cache, file), "minmax index content");
+        assertEquals(stats.getHits().getTotalCount(), 1);
+        assertEquals(stats.getMisses().getTotalCount(), 0);
+    }
+
+    private Path writeRemoteFile(String name, String content)
+            throws IOException
+    {
+        return Files.write(remoteDirectory.resolve(name), content.getBytes(UTF_8));
+    }
+
+    private String read(LocalIndexFileCache cache, Path file)
+            throws IOException
+    {
+        try (InputStream inputStream = cache.newInputStream(fs, file)) {
+            return new String(toByteArray(inputStream), UTF_8);
+        }
+    }
+
+    private long countCachedFiles()
+            throws IOException
+    {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.count();
+        }
+    }
+}
@@ -56,7 +56,10 @@ import java.util.concurrent.TimeUnit;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.UpdateMemory.NOOP;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.type.TypeUtils.getHashBlock;
 import static it.unimi.dsi.fastutil.HashCommon.arraySize;
 
 @SuppressWarnings("MethodMayBeStatic")
@@ -136,6 +139,37 @@ public class BenchmarkGroupByHash
         return pageBuilder.build();
     }
 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Object fixedWidthGroupByHash(TwoChannelBenchmarkData data)
+    {
+        GroupByHash groupByHash = new FixedWidthGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel().isPresent(), EXPECTED_SIZE, NOOP);
+        return buildGroups(groupByHash, data.getPages());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Object twoChannelMultiChannelGroupByHash(TwoChannelBenchmarkData data)
+    {
+        GroupByHash groupByHash = new MultiChannelGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, false, getJoinCompiler(), NOOP);
+        return buildGroups(groupByHash, data.getPages());
+    }
+
+    private static Page buildGroups(GroupByHash groupByHash, List<Page> inputPages)
+    {
+        inputPages.forEach(p -> groupByHash.getGroupIds(p).process());
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            if (pageBuilder.isFull()) {
+                pageBuilder.reset();
+            }
+        }
+        return pageBuilder.build();
+    }
+
     @Benchmark
     @OperationsPerInvocation(POSITIONS)
     public long baseline(BaselinePagesData data)
@@ -249,6 +283,33 @@ public class BenchmarkGroupByHash
         return pages.build();
     }
 
+    private static List<Page> createTwoChannelPages(int positionCount, int groupCount, List<Type> types, boolean hashEnabled)
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(types);
+        for (int position = 0; position < positionCount; position++) {
+            // both keys are derived from the group, so the number of distinct pairs is the group count
+            int rand = ThreadLocalRandom.current().nextInt(groupCount);
+            pageBuilder.declarePosition();
+            types.get(0).writeLong(pageBuilder.getBlockBuilder(0), rand % 365);
+            types.get(1).writeLong(pageBuilder.getBlockBuilder(1), rand);
+            if (pageBuilder.isFull()) {
+                pages.add(withHash(pageBuilder.build(), types, hashEnabled));
+                pageBuilder.reset();
+            }
+        }
+        pages.add(withHash(pageBuilder.build(), types, hashEnabled));
+        return pages.build();
+    }
+
+    private static Page withHash(Page page, List<Type> types, boolean hashEnabled)
+    {
+        if (!hashEnabled) {
+            return page;
+        }
+        return page.appendColumn(getHashBlock(types, page.getBlock(0), page.getBlock(1)));
+    }
+
     @SuppressWarnings("FieldMayBeFinal")
     @State(Scope.Thread)
     public static class BaselinePagesData
@@ -385,6 +446,66 @@ public class BenchmarkGroupByHash
         }
     }
 
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class TwoChannelBenchmarkData
+    {
+        @Param(GROUP_COUNT_STRING)
+        private int groupCount = GROUP_COUNT;
+
+        @Param({"true", "false"})
+        private boolean hashEnabled = true;
+
+        // the first two pack each key into its own long, the last one packs both keys into a single long
+        @Param({"BIGINT_BIGINT", "DATE_BIGINT", "DATE_INTEGER"})
+        private String dataType = "DATE_BIGINT";
+
+        private List<Page> pages;
+        private Optional<Integer> hashChannel;
+        private List<Type> types;
+        private final int[] channels = {0, 1};
+
+        @Setup
+        public void setup()
+        {
+            switch (dataType) {
+                case "BIGINT_BIGINT":
+                    types = ImmutableList.of(BIGINT, BIGINT);
+                    break;
+                case "DATE_BIGINT":
+                    types = ImmutableList.of(DATE, BIGINT);
+                    break;
+                case "DATE_INTEGER":
+                    types = ImmutableList.of(DATE, INTEGER);
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported dataType");
+            }
+            pages = createTwoChannelPages(POSITIONS, groupCount, types, hashEnabled);
+            hashChannel = hashEnabled ? Optional.of(2) : Optional.empty();
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+
+        public Optional<Integer> getHashChannel()
+        {
+            return hashChannel;
+        }
+
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        public int[] getChannels()
+        {
+            return channels;
+        }
+    }
+
     private static JoinCompiler getJoinCompiler()
     {
         return new JoinCompiler(createTestMetadataManager());
@@ -403,6 +524,11 @@ public class BenchmarkGroupByHash
         singleChannelBenchmarkData.setup();
         new BenchmarkGroupByHash().bigintGroupByHash(singleChannelBenchmarkData);
 
+        TwoChannelBenchmarkData twoChannelBenchmarkData = new TwoChannelBenchmarkData();
+        twoChannelBenchmarkData.setup();
+        new BenchmarkGroupByHash().fixedWidthGroupByHash(twoChannelBenchmarkData);
+        new BenchmarkGroupByHash().twoChannelMultiChannelGroupByHash(twoChannelBenchmarkData);
+
         Options options = new OptionsBuilder()
                 .verbosity(VerboseMode.NORMAL)
                 .include(".*" + BenchmarkGroupByHash.class.getSimpleName() + ".*")
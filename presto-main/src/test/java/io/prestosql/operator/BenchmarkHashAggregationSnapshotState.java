@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.HashAggregationOperator.HashAggregationOperatorFactory;
+import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.snapshot.SnapshotConfig;
+import io.prestosql.snapshot.SnapshotStateSerde;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.function.Signature;
+import io.prestosql.spi.plan.AggregationNode;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spiller.SpillerFactory;
+import io.prestosql.sql.gen.JoinCompiler;
+import io.prestosql.testing.TestingTaskContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.function.FunctionKind.AGGREGATE;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Captures the state of a hash aggregation with many groups, and measures storing and restoring it with each snapshot state format
+ */
+@State(Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10, time = 2, timeUnit = SECONDS)
+public class BenchmarkHashAggregationSnapshotState
+{
+    private static final Metadata metadata = createTestMetadataManager();
+
+    private static final InternalAggregationFunction LONG_SUM = metadata.getFunctionAndTypeManager().getAggregateFunctionImplementation(
+            new Signature(QualifiedObjectName.valueOfDefaultFunction("sum"), AGGREGATE, BIGINT.getTypeSignature(), BIGINT.getTypeSignature()));
+    private static final InternalAggregationFunction COUNT = metadata.getFunctionAndTypeManager().getAggregateFunctionImplementation(
+            new Signature(QualifiedObjectName.valueOfDefaultFunction("count"), AGGREGATE, BIGINT.getTypeSignature()));
+
+    @State(Thread)
+    public static class Context
+    {
+        public static final int TOTAL_PAGES = 50;
+        public static final int ROWS_PER_PAGE = 10_000;
+
+        @Param({"1", "100"})
+        public int rowsPerGroup = 1;
+
+        @Param({"JAVA", "BINARY"})
+        public String stateFormat = "BINARY";
+
+        @Param({"false", "true"})
+        public boolean compressionEnabled;
+
+        private ExecutorService executor;
+        private ScheduledExecutorService scheduledExecutor;
+        private OperatorFactory operatorFactory;
+        private SnapshotStateSerde stateSerde;
+        private Object state;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+            scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+
+            RowPagesBuilder pagesBuilder = RowPagesBuilder.rowPagesBuilder(true, ImmutableList.of(0), VARCHAR, BIGINT);
+            int groupsPerPage = ROWS_PER_PAGE / rowsPerGroup;
+            for (int i = 0; i < TOTAL_PAGES; i++) {
+                BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, ROWS_PER_PAGE);
+                for (int j = 0; j < groupsPerPage; j++) {
+                    String groupKey = String.valueOf(i * groupsPerPage + j);
+                    for (int k = 0; k < rowsPerGroup; k++) {
+                        VARCHAR.writeString(blockBuilder, groupKey);
+                    }
+                }
+                pagesBuilder.addBlocksPage(blockBuilder.build(), createLongSequenceBlock(0, ROWS_PER_PAGE));
+            }
+
+            operatorFactory = createHashAggregationOperatorFactory(pagesBuilder.getHashChannel());
+            stateSerde = new SnapshotStateSerde(SnapshotConfig.StateFormat.valueOf(stateFormat), compressionEnabled, metadata.getFunctionAndTypeManager().getBlockEncodingSerde());
+
+            Operator operator = createOperator();
+            for (Page page : pagesBuilder.build()) {
+                operator.addInput(page);
+                operator.getOutput();
+            }
+            state = operator.capture(operator.getOperatorContext().getDriverContext().getSerde());
+        }
+
+        @TearDown
+        public void cleanup()
+        {
+            executor.shutdownNow();
+            scheduledExecutor.shutdownNow();
+        }
+
+        private OperatorFactory createHashAggregationOperatorFactory(Optional<Integer> hashChannel)
+        {
+            SpillerFactory spillerFactory = (types, localSpillContext, aggregatedMemoryContext) -> null;
+
+            return new HashAggregationOperatorFactory(
+                    0,
+                    new PlanNodeId("test"),
+                    ImmutableList.of(VARCHAR),
+                    ImmutableList.of(0),
+                    ImmutableList.of(),
+                    AggregationNode.Step.SINGLE,
+                    false,
+                    ImmutableList.of(COUNT.bind(ImmutableList.of(0), Optional.empty()),
+                            LONG_SUM.bind(ImmutableList.of(1), Optional.empty())),
+                    hashChannel,
+                    Optional.empty(),
+                    100_000,
+                    Optional.of(new DataSize(16, MEGABYTE)),
+                    false,
+                    succinctBytes(8),
+                    succinctBytes(Integer.MAX_VALUE),
+                    spillerFactory,
+                    new JoinCompiler(metadata),
+                    false);
+        }
+
+        public Operator createOperator()
+        {
+            DriverContext driverContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, new DataSize(2, GIGABYTE))
+                    .addPipelineContext(0, true, true, false)
+                    .addDriverContext();
+            return operatorFactory.createOperator(driverContext);
+        }
+
+        public SnapshotStateSerde getStateSerde()
+        {
+            return stateSerde;
+        }
+
+        public Object getState()
+        {
+            return state;
+        }
+    }
+
+    @Benchmark
+    public Operator captureAndRestore(Context context)
+            throws Exception
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        context.getStateSerde().serialize(context.getState(), output);
+        Object state = context.getStateSerde().deserialize(new ByteArrayInputStream(output.toByteArray()));
+
+        Operator operator = context.createOperator();
+        operator.restore(state, operator.getOperatorContext().getDriverContext().getSerde());
+        return operator;
+    }
+
+    @Test
+    public void verify()
+            throws Exception
+    {
+        for (String stateFormat : ImmutableList.of("JAVA", "BINARY")) {
+            for (boolean compressionEnabled : ImmutableList.of(false, true)) {
+                verify(stateFormat, compressionEnabled);
+            }
+        }
+    }
+
+    private void verify(String stateFormat, boolean compressionEnabled)
+            throws Exception
+    {
+        Context context = new Context();
+        context.stateFormat = stateFormat;
+        context.compressionEnabled = compressionEnabled;
+        context.rowsPerGroup = 100;
+        context.setup();
+
+        Operator operator = captureAndRestore(context);
+        assertTrue(operator.needsInput());
+        operator.finish();
+        ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
+        for (int loops = 0; !operator.isFinished() && loops < 1_000_000; loops++) {
+            Page outputPage = operator.getOutput();
+            if (outputPage != null) {
+                outputPages.add(outputPage);
+            }
+        }
+        List<Page> pages = outputPages.build();
+        assertEquals(pages.stream().mapToInt(Page::getPositionCount).sum(), Context.TOTAL_PAGES * Context.ROWS_PER_PAGE / context.rowsPerGroup);
+
+        context.cleanup();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkHashAggregationSnapshotState.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
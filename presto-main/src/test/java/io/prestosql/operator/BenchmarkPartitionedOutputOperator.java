@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.prestosql.execution.StateMachine;
+import io.prestosql.execution.buffer.BufferResult;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.PartitionedOutputBuffer;
 import io.prestosql.memory.context.SimpleLocalMemoryContext;
@@ -38,16 +39,19 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.VerboseMode;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
@@ -56,6 +60,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.execution.buffer.BufferState.OPEN;
 import static io.prestosql.execution.buffer.BufferState.TERMINAL_BUFFER_STATES;
@@ -86,11 +91,72 @@ public class BenchmarkPartitionedOutputOperator
         operator.finish();
     }
 
+    /**
+     * Multiple drivers add pages to a shared output buffer, while clients read all partitions concurrently
+     */
+    @Benchmark
+    public void addPageWithConcurrentReaders(BenchmarkData data)
+            throws Exception
+    {
+        PartitionedOutputBuffer buffer = data.createPartitionedBuffer();
+        List<Future<?>> readers = new ArrayList<>();
+        for (int reader = 0; reader < BenchmarkData.READER_COUNT; reader++) {
+            int firstPartition = reader;
+            readers.add(BenchmarkData.EXECUTOR.submit(() -> readPartitions(buffer, firstPartition)));
+        }
+
+        List<Future<?>> producers = new ArrayList<>();
+        for (int producer = 0; producer < BenchmarkData.PRODUCER_COUNT; producer++) {
+            PartitionedOutputOperator operator = data.createPartitionedOutputOperator(buffer);
+            producers.add(BenchmarkData.EXECUTOR.submit(() -> {
+                for (int i = 0; i < data.getPageCount() / BenchmarkData.PRODUCER_COUNT; i++) {
+                    operator.addInput(data.getDataPage());
+                }
+                operator.finish();
+            }));
+        }
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        buffer.setNoMorePages();
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+    }
+
+    private static Void readPartitions(PartitionedOutputBuffer buffer, int firstPartition)
+            throws Exception
+    {
+        // each reader reads every READER_COUNT-th partition, until all of them are complete
+        Map<OutputBuffers.OutputBufferId, Long> tokens = new LinkedHashMap<>();
+        for (int partition = firstPartition; partition < BenchmarkData.PARTITION_COUNT; partition += BenchmarkData.READER_COUNT) {
+            tokens.put(new OutputBuffers.OutputBufferId(partition), 0L);
+        }
+        while (!tokens.isEmpty()) {
+            Iterator<Map.Entry<OutputBuffers.OutputBufferId, Long>> iterator = tokens.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<OutputBuffers.OutputBufferId, Long> entry = iterator.next();
+                BufferResult result = buffer.get(entry.getKey(), entry.getValue(), BenchmarkData.MAX_READ_SIZE).get();
+                if (result.isBufferComplete()) {
+                    buffer.abort(entry.getKey());
+                    iterator.remove();
+                }
+                else {
+                    entry.setValue(result.getNextToken());
+                }
+            }
+        }
+        return null;
+    }
+
     @State(Scope.Thread)
     public static class BenchmarkData
     {
         private static final int PAGE_COUNT = 5000;
         private static final int PARTITION_COUNT = 512;
+        private static final int PRODUCER_COUNT = 4;
+        private static final int READER_COUNT = 8;
+        private static final DataSize MAX_READ_SIZE = new DataSize(1, MEGABYTE);
         private static final int ENTRIES_PER_PAGE = 256;
         private static final DataSize MAX_MEMORY = new DataSize(1, GIGABYTE);
         private static final RowType rowType = RowType.anonymous(ImmutableList.of(VARCHAR, VARCHAR, VARCHAR, VARCHAR));
@@ -112,14 +178,23 @@ public class BenchmarkPartitionedOutputOperator
 
         private PartitionedOutputOperator createPartitionedOutputOperator()
         {
-            PartitionFunction partitionFunction = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), PARTITION_COUNT);
+            return createPartitionedOutputOperator(createPartitionedBuffer());
+        }
+
+        private PartitionedOutputBuffer createPartitionedBuffer()
+        {
             OutputBuffers buffers = createInitialEmptyOutputBuffers(PARTITIONED);
             for (int partition = 0; partition < PARTITION_COUNT; partition++) {
                 buffers = buffers.withBuffer(new OutputBuffers.OutputBufferId(partition), partition);
             }
-            PartitionedOutputBuffer buffer = createPartitionedBuffer(
+            return createPartitionedBuffer(
                     buffers.withNoMoreBufferIds(),
                     new DataSize(Long.MAX_VALUE, BYTE)); // don't let output buffer block
+        }
+
+        private PartitionedOutputOperator createPartitionedOutputOperator(PartitionedOutputBuffer buffer)
+        {
+            PartitionFunction partitionFunction = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), PARTITION_COUNT);
             PartitionedOutputFactory operatorFactory = new PartitionedOutputFactory(
                     partitionFunction,
                     ImmutableList.of(0),
@@ -214,11 +289,12 @@ public class BenchmarkPartitionedOutputOperator
     }
 
     public static void main(String[] args)
-            throws RunnerException
+            throws Exception
     {
         // assure the benchmarks are valid before running
         BenchmarkData data = new BenchmarkData();
         new BenchmarkPartitionedOutputOperator().addPage(data);
+        new BenchmarkPartitionedOutputOperator().addPageWithConcurrentReaders(data);
         Options options = new OptionsBuilder()
                 .verbosity(VerboseMode.NORMAL)
                 .jvmArgs("-Xmx10g")
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableMap;
 import io.airlift.http.client.HttpClientConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.prestosql.operator.ExchangeClientConfig.TransportType;
 import org.testng.annotations.Test;
 
 import java.util.Map;
@@ -40,7 +41,11 @@ public class TestExchangeClientConfig
                 .setMaxResponseSize(new HttpClientConfig().getMaxContentLength())
                 .setPageBufferClientMaxCallbackThreads(25)
                 .setClientThreads(25)
-                .setAcknowledgePages(true));
+                .setAcknowledgePages(true)
+                .setTransportType(TransportType.HTTP)
+                .setMultiplexedMaxBuffersPerRequest(64)
+                .setMultiplexedMaxRequestsPerNode(4)
+                .setMultiplexedMaxWait(new Duration(200, TimeUnit.MILLISECONDS)));
     }
 
     @Test
@@ -55,6 +60,10 @@ public class TestExchangeClientConfig
                 .put("exchange.client-threads", "2")
                 .put("exchange.page-buffer-client.max-callback-threads", "16")
                 .put("exchange.acknowledge-pages", "false")
+                .put("exchange.transport-type", "MULTIPLEXED")
+                .put("exchange.multiplexed.max-buffers-per-request", "8")
+                .put("exchange.multiplexed.max-requests-per-node", "2")
+                .put("exchange.multiplexed.max-wait", "1s")
                 .build();
 
         ExchangeClientConfig expected = new ExchangeClientConfig()
@@ -65,7 +74,11 @@ public class TestExchangeClientConfig
                 .setMaxResponseSize(new DataSize(1, Unit.MEGABYTE))
                 .setClientThreads(2)
                 .setPageBufferClientMaxCallbackThreads(16)
-                .setAcknowledgePages(false);
+                .setAcknowledgePages(false)
+                .setTransportType(TransportType.MULTIPLEXED)
+                .setMultiplexedMaxBuffersPerRequest(8)
+                .setMultiplexedMaxRequestsPerNode(2)
+                .setMultiplexedMaxWait(new Duration(1, TimeUnit.SECONDS));
 
         assertFullMapping(properties, expected);
     }
@@ -41,6 +41,7 @@ import java.util.stream.IntStream;
 
 import static com.google.common.math.DoubleMath.log2;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.block.BlockAssertions.createIntsBlock;
 import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
 import static io.prestosql.block.BlockAssertions.createLongsBlock;
 import static io.prestosql.block.BlockAssertions.createStringSequenceBlock;
@@ -48,9 +49,12 @@ import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
 import static io.prestosql.spi.block.DictionaryId.randomDictionaryId;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.type.TypeUtils.getHashBlock;
+import static java.lang.Math.toIntExact;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -377,6 +381,55 @@ public class TestGroupByHash
         assertTrue(groupByHash.contains(0, new Page(testValuesBlock, testStringValuesBlock, testHashBlock), hashChannels));
     }
 
+    @Test
+    public void testFixedWidthMultipleColumns()
+    {
+        // wide keys take a long each, narrow keys are packed into a single long
+        assertFixedWidthGroups(ImmutableList.of(BIGINT, INTEGER));
+        assertFixedWidthGroups(ImmutableList.of(DATE, INTEGER));
+    }
+
+    private void assertFixedWidthGroups(List<Type> types)
+    {
+        Block firstBlock = types.get(0) == DATE
+                ? createIntsBlock(-1, -1, 2, null, null, -1, 2)
+                : createLongsBlock(-1L, -1L, 2L, null, null, -1L, 2L);
+        Block secondBlock = createIntsBlock(-3, 4, -3, null, 4, -3, -3);
+        Block hashBlock = getHashBlock(types, firstBlock, secondBlock);
+        Page page = new Page(firstBlock, secondBlock, hashBlock);
+
+        // expected size is small to force rehash
+        GroupByHash groupByHash = createGroupByHash(TEST_SESSION, types, new int[] {0, 1}, Optional.of(2), 1, JOIN_COMPILER);
+        assertTrue(groupByHash instanceof FixedWidthGroupByHash);
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        work.process();
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupByHash.getGroupCount(), 5);
+        long[] expectedGroupIds = {0, 1, 2, 3, 4, 0, 2};
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            assertEquals(groupIds.getGroupId(position), expectedGroupIds[position]);
+            assertTrue(groupByHash.contains(position, page, new int[] {0, 1}));
+            assertEquals(groupByHash.getRawHash(toIntExact(expectedGroupIds[position])), BIGINT.getLong(hashBlock, position));
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+        }
+        Page outputPage = pageBuilder.build();
+        int[] firstPositions = {0, 1, 2, 3, 4};
+        for (int channel = 0; channel < 3; channel++) {
+            Type type = groupByHash.getTypes().get(channel);
+            BlockAssertions.assertBlockEquals(type, outputPage.getBlock(channel), page.getBlock(channel).getPositions(firstPositions, 0, firstPositions.length));
+        }
+
+        Block testFirstBlock = types.get(0) == DATE ? createIntsBlock(2) : createLongsBlock(2);
+        Block testSecondBlock = createIntsBlock(4);
+        assertFalse(groupByHash.contains(0, new Page(testFirstBlock, testSecondBlock), new int[] {0, 1}));
+    }
+
     @Test
     public void testForceRehash()
     {
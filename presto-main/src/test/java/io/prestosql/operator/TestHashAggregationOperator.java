@@ -832,6 +832,110 @@ public class TestHashAggregationOperator
         assertEquals(driverContext.getMemoryUsage(), 0);
     }
 
+    @Test(dataProvider = "hashEnabled")
+    public void testAdaptivePartialAggregation(boolean hashEnabled)
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(500, 0)
+                .addSequencePage(500, 500)
+                .addSequencePage(500, 1000)
+                .addSequencePage(500, 1500)
+                .build();
+
+        PartialAggregationController partialAggregationController = new PartialAggregationController(100, 0.8);
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(LONG_SUM.bind(ImmutableList.of(0), Optional.empty()),
+                        COUNT.bind(ImmutableList.of(), Optional.empty())),
+                rowPagesBuilder.getHashChannel(),
+                Optional.empty(),
+                100_000,
+                Optional.of(new DataSize(16, MEGABYTE)),
+                false,
+                new DataSize(0, MEGABYTE),
+                spillerFactory,
+                joinCompiler,
+                false,
+                Optional.of(partialAggregationController));
+
+        DriverContext driverContext = createDriverContext();
+        MaterializedResult.Builder expectedBuilder = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT);
+        for (long key = 0; key < 2000; key++) {
+            expectedBuilder.row(key, key, 1L);
+        }
+        MaterializedResult expected = expectedBuilder.build();
+
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> outputPages = toPages(operator, input.iterator());
+            if (hashEnabled) {
+                outputPages = dropChannel(outputPages, ImmutableList.of(1));
+            }
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), outputPages);
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+
+            // all groups of the first page are unique, so the following pages are passed through
+            assertTrue(partialAggregationController.isAggregationDisabled());
+            HashAggregationInfo info = (HashAggregationInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+            assertEquals(info.getPassthroughInputPages(), 3);
+            assertEquals(info.getPassthroughInputPositions(), 1500);
+            assertEquals(info.getAggregationDisabledOperators(), 1);
+        }
+    }
+
+    @Test
+    public void testAdaptivePartialAggregationKeepsAggregating()
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(false, hashChannels, BIGINT);
+        for (int i = 0; i < 4; i++) {
+            rowPagesBuilder.addSequencePage(500, 0);
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        // each page alone only has unique groups, but the ratio is checked after the minimum number of rows
+        PartialAggregationController partialAggregationController = new PartialAggregationController(1000, 0.8);
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(COUNT.bind(ImmutableList.of(), Optional.empty())),
+                Optional.empty(),
+                Optional.empty(),
+                100_000,
+                Optional.of(new DataSize(16, MEGABYTE)),
+                false,
+                new DataSize(0, MEGABYTE),
+                spillerFactory,
+                joinCompiler,
+                false,
+                Optional.of(partialAggregationController));
+
+        DriverContext driverContext = createDriverContext();
+        MaterializedResult.Builder expectedBuilder = resultBuilder(driverContext.getSession(), BIGINT, BIGINT);
+        for (long key = 0; key < 500; key++) {
+            expectedBuilder.row(key, 4L);
+        }
+
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> outputPages = toPages(operator, input.iterator());
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT, BIGINT), outputPages);
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expectedBuilder.build().getMaterializedRows());
+            assertFalse(partialAggregationController.isAggregationDisabled());
+        }
+    }
+
     @Test
     public void testMergeWithMemorySpill()
     {
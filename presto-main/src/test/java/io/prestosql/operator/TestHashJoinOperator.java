@@ -98,6 +98,7 @@ import static io.prestosql.operator.OperatorAssertion.without;
 import static io.prestosql.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
@@ -816,6 +817,50 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
     }
 
+    @Test(dataProvider = "hashJoinTestValues")
+    public void testInnerJoinWithFixedWidthKeys(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build factory
+        List<Type> buildTypes = ImmutableList.of(BIGINT, INTEGER, VARCHAR);
+        RowPagesBuilder buildPages = rowPagesBuilder(buildHashEnabled, Ints.asList(0, 1), buildTypes)
+                .row(1L, -1, "a")
+                .row(1L, 2, "b")
+                .row(-1L, 1, "c")
+                .row(1L, -1, "d")
+                .row(null, 1, "e")
+                .row(Long.MAX_VALUE, Integer.MIN_VALUE, "f");
+        BuildSideSetup buildSideSetup = setupBuildSide(parallelBuild, taskContext, Ints.asList(0, 1), buildPages, Optional.empty(), false, SINGLE_STREAM_SPILLER_FACTORY);
+        JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactory = buildSideSetup.getLookupSourceFactoryManager();
+
+        // probe factory
+        List<Type> probeTypes = ImmutableList.of(BIGINT, INTEGER);
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0, 1), probeTypes);
+        List<Page> probeInput = probePages
+                .row(1L, -1)
+                .row(-1L, 1)
+                .row(null, 1)
+                .row(1L, 1)
+                .row(Long.MAX_VALUE, Integer.MIN_VALUE)
+                .build();
+        OperatorFactory joinOperatorFactory = innerJoinOperatorFactory(lookupSourceFactory, probePages, PARTITIONING_SPILLER_FACTORY);
+
+        // build drivers and operators
+        instantiateBuildDrivers(buildSideSetup, taskContext);
+        buildLookupSource(buildSideSetup);
+
+        // expected
+        MaterializedResult expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probeTypes, buildTypes))
+                .row(1L, -1, 1L, -1, "a")
+                .row(1L, -1, 1L, -1, "d")
+                .row(-1L, 1, -1L, 1, "c")
+                .row(Long.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, "f")
+                .build();
+
+        assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
+    }
+
     @Test(dataProvider = "hashJoinTestValues")
     public void testProbeOuterJoin(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
     {
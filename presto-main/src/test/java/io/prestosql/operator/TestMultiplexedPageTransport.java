@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.StaticBodyGenerator;
+import io.airlift.http.client.testing.TestingHttpClient;
+import io.airlift.http.client.testing.TestingResponse;
+import io.airlift.json.JsonCodec;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.execution.buffer.BufferResult;
+import io.prestosql.operator.HttpPageBufferClient.PagesResponse;
+import io.prestosql.operator.MultiplexedResultsRequest.BufferRequest;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.PrestoMediaTypes.PRESTO_MULTIPLEXED_PAGES;
+import static io.prestosql.operator.TestingTaskBuffer.PAGE;
+import static io.prestosql.testing.TestingPagesSerdeFactory.testingPagesSerde;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestMultiplexedPageTransport
+{
+    private static final PagesSerde PAGES_SERDE = testingPagesSerde();
+    private static final JsonCodec<MultiplexedResultsRequest> REQUEST_CODEC = jsonCodec(MultiplexedResultsRequest.class);
+    private static final String TASK_INSTANCE_ID = "task-instance-id";
+
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testQueuedReadsShareRequest()
+            throws Exception
+    {
+        CountDownLatch firstRequestReleased = new CountDownLatch(1);
+        List<MultiplexedResultsRequest> requests = new CopyOnWriteArrayList<>();
+        TestingHttpClient httpClient = new TestingHttpClient(request -> {
+            MultiplexedResultsRequest multiplexedRequest = REQUEST_CODEC.fromJson(((StaticBodyGenerator) request.getBodyGenerator()).getBody());
+            assertEquals(request.getUri().getPath(), MultiplexedPageTransport.MULTIPLEXED_RESULTS_PATH);
+            requests.add(multiplexedRequest);
+            if (requests.size() == 1) {
+                firstRequestReleased.await(10, SECONDS);
+            }
+
+            return createResponse(multiplexedRequest);
+        }, executor);
+
+        MultiplexedPageTransport transport = new MultiplexedPageTransport(httpClient, new DataSize(1, MEGABYTE), 16, 1, new Duration(1, SECONDS));
+        URI first = URI.create("http://localhost:8080/v1/task/query.0.0/results/0");
+        URI second = URI.create("http://localhost:8080/v1/task/query.1.0/results/0");
+        URI third = URI.create("http://localhost:8080/v1/task/query.2.0/results/3");
+
+        ListenableFuture<PagesResponse> firstRead = transport.getPages(first, 0, new DataSize(1, MEGABYTE), null);
+        // wait for the first request to be in flight, so the following requests are queued
+        while (requests.isEmpty()) {
+            Thread.sleep(10);
+        }
+        ListenableFuture<PagesResponse> secondRead = transport.getPages(second, 0, new DataSize(1, MEGABYTE), null);
+        ListenableFuture<PagesResponse> thirdRead = transport.getPages(third, 1, new DataSize(1, MEGABYTE), TASK_INSTANCE_ID);
+        transport.acknowledge(first, 1, TASK_INSTANCE_ID);
+        assertFalse(firstRead.isDone());
+        firstRequestReleased.countDown();
+
+        PagesResponse firstResponse = firstRead.get(10, SECONDS);
+        assertEquals(firstResponse.getPages().size(), 1);
+        assertEquals(firstResponse.getNextToken(), 1);
+        assertEquals(firstResponse.getTaskInstanceId(), TASK_INSTANCE_ID);
+        assertFalse(firstResponse.isClientComplete());
+
+        PagesResponse secondResponse = secondRead.get(10, SECONDS);
+        assertEquals(secondResponse.getPages().size(), 1);
+        assertEquals(PAGES_SERDE.deserialize(secondResponse.getPages().get(0)).getPositionCount(), PAGE.getPositionCount());
+
+        PagesResponse thirdResponse = thirdRead.get(10, SECONDS);
+        assertTrue(thirdResponse.getPages().isEmpty());
+        assertEquals(thirdResponse.getToken(), 1);
+        assertTrue(thirdResponse.isClientComplete());
+
+        // the queued reads and the acknowledgement are sent together, sharing the response size
+        assertEquals(requests.size(), 2);
+        List<BufferRequest> batched = requests.get(1).getBuffers();
+        assertEquals(batched.size(), 3);
+        assertEquals(batched.get(0).getTaskId().toString(), "query.1.0");
+        assertEquals(batched.get(0).getMaxSize().toBytes(), new DataSize(1, MEGABYTE).toBytes() / 2);
+        assertEquals(batched.get(1).getBufferId().getId(), 3);
+        assertEquals(batched.get(1).getTaskInstanceId(), TASK_INSTANCE_ID);
+        assertTrue(batched.get(2).isAcknowledgeOnly());
+        assertEquals(batched.get(2).getToken(), 1);
+    }
+
+    @Test
+    public void testRequestFailure()
+            throws Exception
+    {
+        TestingHttpClient httpClient = new TestingHttpClient(request -> new TestingResponse(HttpStatus.INTERNAL_SERVER_ERROR, ImmutableListMultimap.of(), new byte[0]), executor);
+        MultiplexedPageTransport transport = new MultiplexedPageTransport(httpClient, new DataSize(1, MEGABYTE), 16, 1, new Duration(1, SECONDS));
+
+        ListenableFuture<PagesResponse> read = transport.getPages(URI.create("http://localhost:8080/v1/task/query.0.0/results/0"), 0, new DataSize(1, MEGABYTE), null);
+        try {
+            read.get(10, SECONDS);
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof PageTransportErrorException, e.getCause().toString());
+            return;
+        }
+        throw new AssertionError("expected read to fail");
+    }
+
+    @Test
+    public void testQueuedReadsStartNewRequest()
+            throws Exception
+    {
+        CountDownLatch firstRequestReleased = new CountDownLatch(1);
+        List<MultiplexedResultsRequest> requests = new CopyOnWriteArrayList<>();
+        TestingHttpClient httpClient = new TestingHttpClient(request -> {
+            MultiplexedResultsRequest multiplexedRequest = REQUEST_CODEC.fromJson(((StaticBodyGenerator) request.getBodyGenerator()).getBody());
+            requests.add(multiplexedRequest);
+            if (requests.size() == 1) {
+                // the buffer of the first read has no pages yet
+                firstRequestReleased.await(10, SECONDS);
+            }
+            return createResponse(multiplexedRequest);
+        }, executor);
+
+        MultiplexedPageTransport transport = new MultiplexedPageTransport(httpClient, new DataSize(1, MEGABYTE), 16, 2, new Duration(1, SECONDS));
+        try {
+            ListenableFuture<PagesResponse> firstRead = transport.getPages(URI.create("http://localhost:8080/v1/task/query.0.0/results/0"), 0, new DataSize(1, MEGABYTE), null);
+            while (requests.isEmpty()) {
+                Thread.sleep(10);
+            }
+
+            // the read of another buffer does not wait for the first request to return
+            ListenableFuture<PagesResponse> secondRead = transport.getPages(URI.create("http://localhost:8080/v1/task/other.0.0/results/0"), 0, new DataSize(1, MEGABYTE), null);
+            assertEquals(secondRead.get(10, SECONDS).getPages().size(), 1);
+            assertFalse(firstRead.isDone());
+            assertEquals(requests.size(), 2);
+            assertEquals(requests.get(1).getBuffers().get(0).getTaskId().toString(), "other.0.0");
+
+            firstRequestReleased.countDown();
+            assertEquals(firstRead.get(10, SECONDS).getPages().size(), 1);
+        }
+        finally {
+            firstRequestReleased.countDown();
+        }
+    }
+
+    @Test
+    public void testFailedRequestOnlyFailsAffectedReads()
+            throws Exception
+    {
+        CountDownLatch firstRequestReleased = new CountDownLatch(1);
+        List<MultiplexedResultsRequest> requests = new CopyOnWriteArrayList<>();
+        TestingHttpClient httpClient = new TestingHttpClient(request -> {
+            MultiplexedResultsRequest multiplexedRequest = REQUEST_CODEC.fromJson(((StaticBodyGenerator) request.getBodyGenerator()).getBody());
+            requests.add(multiplexedRequest);
+            if (requests.size() == 1) {
+                firstRequestReleased.await(10, SECONDS);
+            }
+            // any request with a read of the failing task fails as a whole
+            boolean failing = multiplexedRequest.getBuffers().stream()
+                    .anyMatch(buffer -> buffer.getTaskId().toString().equals("failing.0.0"));
+            if (failing) {
+                return new TestingResponse(HttpStatus.INTERNAL_SERVER_ERROR, ImmutableListMultimap.of(), new byte[0]);
+            }
+            return createResponse(multiplexedRequest);
+        }, executor);
+
+        MultiplexedPageTransport transport = new MultiplexedPageTransport(httpClient, new DataSize(1, MEGABYTE), 16, 1, new Duration(1, SECONDS));
+        ListenableFuture<PagesResponse> firstRead = transport.getPages(URI.create("http://localhost:8080/v1/task/query.0.0/results/0"), 0, new DataSize(1, MEGABYTE), null);
+        while (requests.isEmpty()) {
+            Thread.sleep(10);
+        }
+        // both reads are queued behind the first request, and sent together
+        ListenableFuture<PagesResponse> healthyRead = transport.getPages(URI.create("http://localhost:8080/v1/task/healthy.0.0/results/0"), 0, new DataSize(1, MEGABYTE), null);
+        ListenableFuture<PagesResponse> failingRead = transport.getPages(URI.create("http://localhost:8080/v1/task/failing.0.0/results/0"), 0, new DataSize(1, MEGABYTE), null);
+        firstRequestReleased.countDown();
+
+        assertEquals(firstRead.get(10, SECONDS).getPages().size(), 1);
+        assertEquals(healthyRead.get(10, SECONDS).getPages().size(), 1);
+        try {
+            failingRead.get(10, SECONDS);
+            throw new AssertionError("expected read to fail");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof PageTransportErrorException, e.getCause().toString());
+        }
+
+        // the failed request is followed by one request per read
+        assertEquals(requests.size(), 4);
+        assertEquals(requests.get(1).getBuffers().size(), 2);
+        assertEquals(requests.get(2).getBuffers().size(), 1);
+        assertEquals(requests.get(3).getBuffers().size(), 1);
+    }
+
+    private static TestingResponse createResponse(MultiplexedResultsRequest request)
+    {
+        // each read returns one page, and completes the buffer if it starts after the first page
+        DynamicSliceOutput output = new DynamicSliceOutput(1024);
+        List<BufferRequest> buffers = request.getBuffers();
+        for (int index = 0; index < buffers.size(); index++) {
+            BufferRequest buffer = buffers.get(index);
+            if (buffer.isAcknowledgeOnly()) {
+                continue;
+            }
+            if (buffer.getToken() == 0) {
+                SerializedPage page = PAGES_SERDE.serialize(PAGE);
+                MultiplexedPagesCodec.writeResult(output, index, new BufferResult(TASK_INSTANCE_ID, 0, 1, false, ImmutableList.of(page)));
+            }
+            else {
+                MultiplexedPagesCodec.writeResult(output, index, BufferResult.emptyResults(TASK_INSTANCE_ID, buffer.getToken(), true));
+            }
+        }
+        return new TestingResponse(HttpStatus.OK, ImmutableListMultimap.of(CONTENT_TYPE, PRESTO_MULTIPLEXED_PAGES), output.slice().getBytes());
+    }
+}
@@ -30,7 +30,7 @@ import static org.testng.Assert.assertNull;
 public class TestOperatorStats
 {
     private static final SplitOperatorInfo NON_MERGEABLE_INFO = new SplitOperatorInfo("some_info");
-    private static final PartitionedOutputInfo MERGEABLE_INFO = new PartitionedOutputInfo(1, 2, 1024);
+    private static final PartitionedOutputInfo MERGEABLE_INFO = new PartitionedOutputInfo(1, 2, 2, 512, 1024);
 
     public static final OperatorStats EXPECTED = new OperatorStats(
             0,
@@ -28,10 +28,12 @@ import java.util.List;
 import java.util.Map;
 
 import static io.prestosql.SequencePageBuilder.createSequencePage;
+import static io.prestosql.spi.block.SortOrder.DESC_NULLS_LAST;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestPagesIndex
@@ -81,10 +83,58 @@ public class TestPagesIndex
         expectedMapping.put("nextBlockToCompact", 0);
         expectedMapping.put("positionCount", 7);
         expectedMapping.put("pagesMemorySize", 3852L);
-        expectedMapping.put("estimatedSize", 12396L);
+        expectedMapping.put("estimatedSize", 12404L);
         return expectedMapping;
     }
 
+    @Test
+    public void testIncrementalSnapshot()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+        PagesSerde serde = TestingPagesSerdeFactory.testingPagesSerde();
+
+        PagesIndex pagesIndex = newPagesIndex(types, 30, false);
+        assertFalse(pagesIndex.isIncrementalCaptureSupported());
+        pagesIndex.addPage(somePage(types));
+        Object snapshot = pagesIndex.capture(serde);
+        assertTrue(pagesIndex.isIncrementalCaptureSupported());
+
+        pagesIndex.addPage(somePage(types));
+        pagesIndex.compact();
+        Object incrementalSnapshot1 = pagesIndex.captureIncremental(serde);
+        pagesIndex.addPage(somePage(types));
+        // Sorting positions added since the last capture keeps incremental capture possible
+        pagesIndex.sort(ImmutableList.of(0), ImmutableList.of(DESC_NULLS_LAST), 14, 21);
+        assertTrue(pagesIndex.isIncrementalCaptureSupported());
+        Object incrementalSnapshot2 = pagesIndex.captureIncremental(serde);
+
+        PagesIndex restored = newPagesIndex(types, 30, false);
+        restored.restore(snapshot, serde);
+        restored.restoreIncremental(incrementalSnapshot1, serde);
+        restored.restoreIncremental(incrementalSnapshot2, serde);
+        assertEquals(restored.getPositionCount(), 21);
+        assertEquals(restored.getValueAddresses(), pagesIndex.getValueAddresses());
+        assertEquals(restored.getEstimatedSize(), pagesIndex.getEstimatedSize());
+        for (int position = 0; position < 21; position++) {
+            assertEquals(restored.getLong(0, position), pagesIndex.getLong(0, position));
+            assertEquals(restored.getSlice(1, position), pagesIndex.getSlice(1, position));
+        }
+
+        pagesIndex.sort(ImmutableList.of(0), ImmutableList.of(DESC_NULLS_LAST));
+        assertFalse(pagesIndex.isIncrementalCaptureSupported());
+        snapshot = pagesIndex.capture(serde);
+        pagesIndex.addPage(somePage(types));
+        incrementalSnapshot1 = pagesIndex.captureIncremental(serde);
+        restored = newPagesIndex(types, 30, false);
+        restored.restore(snapshot, serde);
+        restored.restoreIncremental(incrementalSnapshot1, serde);
+        assertEquals(restored.getValueAddresses(), pagesIndex.getValueAddresses());
+        assertEquals(restored.getChannel(0).size(), 4);
+
+        pagesIndex.clear();
+        assertFalse(pagesIndex.isIncrementalCaptureSupported());
+    }
+
     @Test
     public void testEagerCompact()
     {
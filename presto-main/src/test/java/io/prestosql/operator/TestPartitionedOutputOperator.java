@@ -20,6 +20,7 @@ import io.prestosql.execution.StateMachine;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.PartitionedOutputBuffer;
 import io.prestosql.memory.context.SimpleLocalMemoryContext;
+import io.prestosql.operator.PartitionedOutputOperator.PartitionedOutputInfo;
 import io.prestosql.operator.exchange.LocalPartitionGenerator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.plan.PlanNodeId;
@@ -51,6 +52,7 @@ import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertTrue;
 
 public class TestPartitionedOutputOperator
 {
@@ -79,7 +81,33 @@ public class TestPartitionedOutputOperator
         operator.addInput(input.get(1));
         operator.finish();
         snapshot = operator.capture(operator.getOperatorContext().getDriverContext().getSerde());
-        assertEquals(SnapshotTestUtil.toFullSnapshotMapping(snapshot), createExpectedMappingAfterFinish());
+        // every row is sent to a different partition, so every serialized page holds a single row
+        Page singleRowPage = rowPagesBuilder(BIGINT).addSequencePage(1, 1).build().get(0);
+        long serializedPageSize = operator.getOperatorContext().getDriverContext().getSerde().serialize(singleRowPage).getSizeInBytes();
+        assertEquals(SnapshotTestUtil.toFullSnapshotMapping(snapshot), createExpectedMappingAfterFinish(serializedPageSize));
+    }
+
+    @Test
+    public void testCoalescingPages()
+    {
+        // with 64 bytes of memory per partition, pages of only a few rows are sent when coalescing is disabled
+        DataSize maxMemory = new DataSize(PARTITION_COUNT * 64, BYTE);
+        PartitionedOutputOperator operator = createPartitionedOutputOperator(maxMemory, Optional.empty());
+        PartitionedOutputOperator coalescingOperator = createPartitionedOutputOperator(maxMemory, Optional.of(new DataSize(1, GIGABYTE)));
+        for (int i = 0; i < 10; i++) {
+            Page page = rowPagesBuilder(BIGINT).addSequencePage(1000, i * 1000).build().get(0);
+            operator.addInput(page);
+            coalescingOperator.addInput(page);
+        }
+        operator.finish();
+        coalescingOperator.finish();
+
+        PartitionedOutputInfo info = operator.getInfo();
+        PartitionedOutputInfo coalescingInfo = coalescingOperator.getInfo();
+        assertEquals(info.getRowsAdded(), 10000);
+        assertEquals(coalescingInfo.getRowsAdded(), 10000);
+        assertTrue(coalescingInfo.getSerializedPagesAdded() < info.getSerializedPagesAdded());
+        assertTrue(coalescingInfo.getAverageSerializedPageSize() > info.getAverageSerializedPageSize());
     }
 
     private Map<String, Object> createExpectedMappingBeforeFinish()
@@ -93,11 +121,13 @@ public class TestPartitionedOutputOperator
         partitionFunctionMapping.put("pageBuilders", Object[].class);
         partitionFunctionMapping.put("rowsAdded", 0L);
         partitionFunctionMapping.put("pagesAdded", 0L);
+        partitionFunctionMapping.put("serializedPagesAdded", 0L);
+        partitionFunctionMapping.put("serializedBytesAdded", 0L);
         partitionFunctionMapping.put("hasAnyRowBeenReplicated", false);
         return expectedMapping;
     }
 
-    private Map<String, Object> createExpectedMappingAfterFinish()
+    private Map<String, Object> createExpectedMappingAfterFinish(long serializedPageSize)
     {
         Map<String, Object> expectedMapping = new HashMap<>();
         Map<String, Object> partitionFunctionMapping = new HashMap<>();
@@ -108,11 +138,18 @@ public class TestPartitionedOutputOperator
         partitionFunctionMapping.put("pageBuilders", Object[].class);
         partitionFunctionMapping.put("rowsAdded", 6L);
         partitionFunctionMapping.put("pagesAdded", 6L);
+        partitionFunctionMapping.put("serializedPagesAdded", 6L);
+        partitionFunctionMapping.put("serializedBytesAdded", 6 * serializedPageSize);
         partitionFunctionMapping.put("hasAnyRowBeenReplicated", false);
         return expectedMapping;
     }
 
     private PartitionedOutputOperator createPartitionedOutputOperator()
+    {
+        return createPartitionedOutputOperator(new DataSize(1, GIGABYTE), Optional.empty());
+    }
+
+    private PartitionedOutputOperator createPartitionedOutputOperator(DataSize maxMemory, Optional<DataSize> coalescingTargetPageSize)
     {
         PartitionFunction partitionFunction = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), PARTITION_COUNT);
         OutputBuffers buffers = createInitialEmptyOutputBuffers(PARTITIONED);
@@ -129,7 +166,8 @@ public class TestPartitionedOutputOperator
                 false,
                 OptionalInt.empty(),
                 buffer,
-                new DataSize(1, GIGABYTE));
+                maxMemory,
+                coalescingTargetPageSize);
         TaskContext taskContext = createTaskContext();
         return (PartitionedOutputOperator) operatorFactory
                 .createOutputOperator(0, new PlanNodeId("plan-node-0"), TYPES, Function.identity(), taskContext)
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.airlift.tpch.LineItem;
 import io.airlift.tpch.LineItemGenerator;
+import io.airlift.units.DataSize;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.BlockEncodingSerde;
@@ -44,6 +45,7 @@ import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -101,6 +103,12 @@ public class BenchmarkBinaryFileSpiller
         @Param("true")
         private boolean encryptionEnabled;
 
+        @Param({"false", "true"})
+        private boolean memoryMappedReadEnabled;
+
+        @Param({"0", "1073741824"})
+        private long maxOffHeapSpillBytes;
+
         private List<Page> pages;
         private Spiller readSpiller;
 
@@ -118,7 +126,9 @@ public class BenchmarkBinaryFileSpiller
                     ImmutableList.of(SPILL_PATH),
                     1.0,
                     compressionEnabled,
-                    encryptionEnabled);
+                    encryptionEnabled,
+                    memoryMappedReadEnabled,
+                    new DataSize(maxOffHeapSpillBytes, BYTE));
             spillerFactory = new GenericSpillerFactory(singleStreamSpillerFactory);
             pages = createInputPages();
             readSpiller = spillerFactory.create(TYPES, bytes -> {}, newSimpleAggregatedMemoryContext());
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.query;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.testing.TestingTicker;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.metadata.FunctionAndTypeManager;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.function.FunctionHandle;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.SequencePageBuilder.createSequencePage;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static io.prestosql.testing.TestingPagesSerdeFactory.testingPagesSerde;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestQueryResultCache
+{
+    private static final PagesSerde PAGES_SERDE = testingPagesSerde();
+    private static final QueryResultCacheKey KEY = createKey(1);
+
+    @Test
+    public void testCollectAndServe()
+    {
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), new TestingTicker());
+        assertFalse(cache.get(KEY).isPresent());
+
+        QueryId queryId = new QueryId("query1");
+        cache.collectResult(queryId, KEY, ImmutableList.of("a"), ImmutableList.of(BIGINT));
+        QueryResultCache.ResultCollector collector = cache.getResultCollector(queryId).get();
+        Page page = createSequencePage(ImmutableList.of(BIGINT), 100, 0);
+        collector.addPage(PAGES_SERDE.serialize(page));
+        collector.addPage(PAGES_SERDE.serialize(page));
+        assertFalse(cache.get(KEY).isPresent());
+
+        collector.finish();
+        assertFalse(cache.getResultCollector(queryId).isPresent());
+        Optional<CachedQueryResult> result = cache.get(KEY);
+        assertTrue(result.isPresent());
+        assertEquals(result.get().getColumnNames(), ImmutableList.of("a"));
+        assertEquals(result.get().getColumnTypes(), ImmutableList.of(BIGINT));
+        assertEquals(result.get().getPages().size(), 2);
+        for (SerializedPage serializedPage : result.get().getPages()) {
+            assertPageEquals(ImmutableList.of(BIGINT), PAGES_SERDE.deserialize(serializedPage), page);
+        }
+        assertFalse(cache.get(createKey(2)).isPresent());
+
+        assertEquals(cache.getCachedResults(), 1);
+        assertEquals(cache.getCachedBytes(), result.get().getRetainedSizeInBytes());
+        assertEquals(cache.getHits().getTotalCount(), 1);
+        assertEquals(cache.getMisses().getTotalCount(), 3);
+    }
+
+    @Test
+    public void testRejectLargeResult()
+    {
+        QueryResultCache cache = createCache(new DataSize(1, KILOBYTE), new TestingTicker());
+        QueryId queryId = new QueryId("query1");
+        cache.collectResult(queryId, KEY, ImmutableList.of("a"), ImmutableList.of(BIGINT));
+        QueryResultCache.ResultCollector collector = cache.getResultCollector(queryId).get();
+        collector.addPage(PAGES_SERDE.serialize(createSequencePage(ImmutableList.of(BIGINT), 1000, 0)));
+        collector.finish();
+
+        assertFalse(cache.get(KEY).isPresent());
+        assertEquals(cache.getRejected().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testRemoveResultCollector()
+    {
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), new TestingTicker());
+        QueryId queryId = new QueryId("query1");
+        cache.collectResult(queryId, KEY, ImmutableList.of("a"), ImmutableList.of(BIGINT));
+        cache.removeResultCollector(queryId);
+        assertFalse(cache.getResultCollector(queryId).isPresent());
+        assertFalse(cache.get(KEY).isPresent());
+    }
+
+    @Test
+    public void testExpiration()
+    {
+        TestingTicker ticker = new TestingTicker();
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), ticker);
+        QueryId queryId = new QueryId("query1");
+        cache.collectResult(queryId, KEY, ImmutableList.of("a"), ImmutableList.of(BIGINT));
+        cache.getResultCollector(queryId).get().finish();
+        assertTrue(cache.get(KEY).isPresent());
+
+        ticker.increment(59, MINUTES);
+        assertTrue(cache.get(KEY).isPresent());
+        ticker.increment(1, MINUTES);
+        cache.cleanUp();
+        assertFalse(cache.get(KEY).isPresent());
+        assertEquals(cache.getCachedResults(), 0);
+    }
+
+    @Test
+    public void testAttachedResult()
+    {
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), new TestingTicker());
+        QueryId queryId = new QueryId("query1");
+        CachedQueryResult result = new CachedQueryResult(ImmutableList.of("a"), ImmutableList.of(BIGINT), ImmutableList.of());
+        assertFalse(cache.takeAttachedResult(queryId).isPresent());
+
+        cache.attachResult(queryId, result);
+        assertEquals(cache.takeAttachedResult(queryId), Optional.of(result));
+        assertFalse(cache.takeAttachedResult(queryId).isPresent());
+    }
+
+    @Test
+    public void testKeyEquality()
+    {
+        assertEquals(createKey(1), createKey(1));
+        assertEquals(createKey(1).hashCode(), createKey(1).hashCode());
+        assertFalse(createKey(1).equals(createKey(2)));
+        assertFalse(createKey(1).equals(new QueryResultCacheKey(
+                "SELECT *\nFROM\n  t\n",
+                "user",
+                Optional.of("hive"),
+                Optional.of("default"),
+                "",
+                "UTC",
+                ImmutableMap.of("join_distribution_type", "BROADCAST"),
+                ImmutableMap.of(),
+                ImmutableMap.of("hive.default.t", 1L))));
+        assertFalse(createKey(1).equals(new QueryResultCacheKey(
+                "SELECT *\nFROM\n  t\n",
+                "user",
+                Optional.of("hive"),
+                Optional.of("default"),
+                "",
+                "UTC",
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                ImmutableMap.of("hive.default.t", 1L, "hive.default.t/ds=2020-01-01", 2L))));
+        assertFalse(createKey(1).equals(new QueryResultCacheKey(
+                "SELECT *\nFROM\n  t\n",
+                "user",
+                Optional.of("hive"),
+                Optional.of("default"),
+                "",
+                "UTC",
+                ImmutableMap.of(),
+                ImmutableMap.of("hive.default.v", "SELECT * FROM t"),
+                ImmutableMap.of("hive.default.t", 1L))));
+    }
+
+    @Test
+    public void testTimeDependentFunctionsNotCacheable()
+    {
+        FunctionAndTypeManager functionAndTypeManager = createTestMetadataManager().getFunctionAndTypeManager();
+        for (String name : ImmutableList.of("now", "current_timestamp", "current_date", "current_time", "localtime", "localtimestamp")) {
+            FunctionHandle functionHandle = functionAndTypeManager.lookupFunction(name, ImmutableList.of());
+            assertFalse(QueryResultCacheKey.isCacheable(functionAndTypeManager.getFunctionMetadata(functionHandle)), name);
+        }
+        FunctionHandle abs = functionAndTypeManager.lookupFunction("abs", fromTypes(BIGINT));
+        assertTrue(QueryResultCacheKey.isCacheable(functionAndTypeManager.getFunctionMetadata(abs)));
+        FunctionHandle random = functionAndTypeManager.lookupFunction("random", ImmutableList.of());
+        assertFalse(QueryResultCacheKey.isCacheable(functionAndTypeManager.getFunctionMetadata(random)));
+    }
+
+    private static QueryResultCache createCache(DataSize maxEntrySize, TestingTicker ticker)
+    {
+        return new QueryResultCache(true, new DataSize(10, MEGABYTE), maxEntrySize, new Duration(1, HOURS), ticker);
+    }
+
+    private static QueryResultCacheKey createKey(long tableModificationTime)
+    {
+        return new QueryResultCacheKey(
+                "SELECT *\nFROM\n  t\n",
+                "user",
+                Optional.of("hive"),
+                Optional.of("default"),
+                "",
+                "UTC",
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                ImmutableMap.of("hive.default.t", tableModificationTime));
+    }
+}
@@ -25,6 +25,7 @@ import io.prestosql.filesystem.FileSystemClientManager;
 import io.prestosql.metadata.InMemoryNodeManager;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.QueryId;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -68,7 +69,7 @@ public class TestQuerySnapshotManager
         fileSystemClientManager = mock(FileSystemClientManager.class);
         when(fileSystemClientManager.getFileSystemClient(any(Path.class))).thenReturn(new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get(SNAPSHOT_FILE_SYSTEM_DIR)));
 
-        snapshotUtils = new SnapshotUtils(fileSystemClientManager, snapshotConfig, new InMemoryNodeManager());
+        snapshotUtils = new SnapshotUtils(fileSystemClientManager, snapshotConfig, new InMemoryNodeManager(), new TestingBlockEncodingSerde());
         snapshotUtils.rootPath = SNAPSHOT_FILE_SYSTEM_DIR;
         snapshotUtils.initialize();
     }
@@ -15,6 +15,8 @@
 package io.prestosql.snapshot;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.prestosql.execution.TaskId;
 import io.prestosql.operator.DriverContext;
 import io.prestosql.operator.Operator;
@@ -24,12 +26,16 @@ import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.MarkerPage;
 import io.prestosql.spi.snapshot.Restorable;
+import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.testing.assertions.Assert;
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
@@ -39,6 +45,8 @@ import static io.prestosql.testing.TestingTaskContext.createTaskContext;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -194,6 +202,27 @@ public class TestSingleInputSnapshotState
         Assert.assertNull(state.nextMarker());
     }
 
+    @Test
+    public void testUploadBlocked()
+            throws Exception
+    {
+        SettableFuture<?> blocked = SettableFuture.create();
+        when(snapshotManager.getUploadBlockedFuture(snapshotId1)).thenReturn(blocked);
+        List<ListenableFuture<?>> futures = new ArrayList<>();
+        SingleInputSnapshotState state = new SingleInputSnapshotState(
+                restorable,
+                snapshotManager,
+                null,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                futures::add);
+
+        state.processPage(regularPage);
+        Assert.assertTrue(futures.isEmpty());
+        state.processPage(marker1);
+        Assert.assertEquals(futures, ImmutableList.of(blocked));
+    }
+
     @Test
     public void testResumeBacktrack()
             throws Exception
@@ -238,6 +267,82 @@ public class TestSingleInputSnapshotState
         verify(snapshotManager, times(2)).failedToRestore(anyObject(), anyBoolean());
     }
 
+    @Test
+    public void testIncrementalCapture()
+            throws Exception
+    {
+        TestingIncrementalRestorable restorable = new TestingIncrementalRestorable();
+        SingleInputSnapshotState state = new SingleInputSnapshotState(restorable, snapshotManager, null, TestSingleInputSnapshotState::createSnapshotStateId, TestSingleInputSnapshotState::createSnapshotStateId);
+        when(snapshotManager.getMaxIncrementalSnapshots()).thenReturn(1);
+
+        restorable.values.add(1);
+        state.processPage(marker1);
+        restorable.values.add(2);
+        state.processPage(marker2);
+        restorable.values.add(3);
+        state.processPage(MarkerPage.snapshotPage(3));
+
+        ArgumentCaptor<SnapshotStateId> ids = ArgumentCaptor.forClass(SnapshotStateId.class);
+        ArgumentCaptor<Object> states = ArgumentCaptor.forClass(Object.class);
+        verify(snapshotManager, times(3)).storeState(ids.capture(), states.capture());
+        // Snapshot 2 only has the changes since snapshot 1. Snapshot 3 is full, as max number of incremental snapshots is reached.
+        Assert.assertEquals(states.getAllValues().get(0), ImmutableList.of(1));
+        Assert.assertNotEquals(states.getAllValues().get(1), ImmutableList.of(1, 2));
+        Assert.assertEquals(states.getAllValues().get(2), ImmutableList.of(1, 2, 3));
+        Assert.assertEquals(restorable.incrementalCaptures, 1);
+
+        // Resume to snapshot 2 restores snapshot 1, then the changes of snapshot 2
+        restorable.values.add(4);
+        when(snapshotManager.loadState(snapshotId1)).thenReturn(Optional.of(states.getAllValues().get(0)));
+        when(snapshotManager.loadState(snapshotId2)).thenReturn(Optional.of(states.getAllValues().get(1)));
+        state.processPage(resume2);
+        Assert.assertEquals(restorable.values, ImmutableList.of(1, 2));
+        verify(snapshotManager).succeededToRestore(snapshotId2);
+
+        // Restored state already includes max number of incremental snapshots
+        restorable.values.add(5);
+        state.processPage(MarkerPage.snapshotPage(4));
+        Assert.assertEquals(restorable.incrementalCaptures, 1);
+        state.processPage(MarkerPage.snapshotPage(5));
+        Assert.assertEquals(restorable.incrementalCaptures, 2);
+    }
+
+    @Test
+    public void testIncrementalCaptureAfterFailure()
+            throws Exception
+    {
+        TestingIncrementalRestorable restorable = new TestingIncrementalRestorable();
+        SingleInputSnapshotState state = new SingleInputSnapshotState(restorable, snapshotManager, null, TestSingleInputSnapshotState::createSnapshotStateId, TestSingleInputSnapshotState::createSnapshotStateId);
+        when(snapshotManager.getMaxIncrementalSnapshots()).thenReturn(10);
+        doThrow(new IOException()).when(snapshotManager).storeState(eq(snapshotId1), anyObject());
+
+        state.processPage(marker1);
+        verify(snapshotManager).failedToCapture(snapshotId1);
+        // Snapshot 1 was not stored, so snapshot 2 can't be based on it
+        state.processPage(marker2);
+        Assert.assertEquals(restorable.incrementalCaptures, 0);
+        state.processPage(MarkerPage.snapshotPage(3));
+        Assert.assertEquals(restorable.incrementalCaptures, 1);
+    }
+
+    @Test
+    public void testIncrementalRestoreMissingState()
+            throws Exception
+    {
+        TestingIncrementalRestorable restorable = new TestingIncrementalRestorable();
+        SingleInputSnapshotState state = new SingleInputSnapshotState(restorable, snapshotManager, null, TestSingleInputSnapshotState::createSnapshotStateId, TestSingleInputSnapshotState::createSnapshotStateId);
+        when(snapshotManager.getMaxIncrementalSnapshots()).thenReturn(10);
+        state.processPage(marker1);
+        state.processPage(marker2);
+
+        ArgumentCaptor<Object> states = ArgumentCaptor.forClass(Object.class);
+        verify(snapshotManager, times(2)).storeState(anyObject(), states.capture());
+        when(snapshotManager.loadState(snapshotId1)).thenReturn(Optional.empty());
+        when(snapshotManager.loadState(snapshotId2)).thenReturn(Optional.of(states.getAllValues().get(1)));
+        state.processPage(resume2);
+        verify(snapshotManager).failedToRestore(snapshotId2, true);
+    }
+
     private static class TestingRestorable
             implements Restorable
     {
@@ -256,6 +361,52 @@ public class TestSingleInputSnapshotState
         }
     }
 
+    @RestorableConfig(uncapturedFields = {"capturedCount", "incrementalCaptures"})
+    private static class TestingIncrementalRestorable
+            implements IncrementalRestorable
+    {
+        final List<Integer> values = new ArrayList<>();
+        int capturedCount;
+        int incrementalCaptures;
+
+        @Override
+        public Object capture(BlockEncodingSerdeProvider serdeProvider)
+        {
+            capturedCount = values.size();
+            return new ArrayList<>(values);
+        }
+
+        @Override
+        public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
+        {
+            values.clear();
+            values.addAll((List<Integer>) state);
+            capturedCount = values.size();
+        }
+
+        @Override
+        public boolean isIncrementalCaptureSupported()
+        {
+            return true;
+        }
+
+        @Override
+        public Object captureIncremental(BlockEncodingSerdeProvider serdeProvider)
+        {
+            incrementalCaptures++;
+            List<Integer> added = new ArrayList<>(values.subList(capturedCount, values.size()));
+            capturedCount = values.size();
+            return added;
+        }
+
+        @Override
+        public void restoreIncremental(Object state, BlockEncodingSerdeProvider serdeProvider)
+        {
+            values.addAll((List<Integer>) state);
+            capturedCount = values.size();
+        }
+    }
+
     private static class TestingSpillableRestorable
             extends TestingRestorable
             implements Spillable
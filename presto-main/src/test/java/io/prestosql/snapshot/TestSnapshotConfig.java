@@ -16,6 +16,7 @@ package io.prestosql.snapshot;
 
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
@@ -33,7 +34,14 @@ public class TestSnapshotConfig
                 .setSnapshotTimeInterval(new Duration(5, TimeUnit.MINUTES))
                 .setSnapshotSplitCountInterval(1000)
                 .setSnapshotMaxRetries(10)
-                .setSnapshotRetryTimeout(new Duration(10, TimeUnit.MINUTES)));
+                .setSnapshotRetryTimeout(new Duration(10, TimeUnit.MINUTES))
+                .setSnapshotStateFormat(SnapshotConfig.StateFormat.BINARY)
+                .setSnapshotCompressionEnabled(false)
+                .setIncrementalSnapshotEnabled(false)
+                .setMaxIncrementalSnapshots(10)
+                .setAsyncUploadEnabled(true)
+                .setUploadThreads(4)
+                .setMaxPendingUploadSize(new DataSize(256, DataSize.Unit.MEGABYTE)));
     }
 
     @Test
@@ -46,6 +54,13 @@ public class TestSnapshotConfig
                 .put("hetu.internal.snapshot.splitCountInterval", "1000000")
                 .put("hetu.snapshot.maxRetries", "20")
                 .put("hetu.snapshot.retryTimeout", "5m")
+                .put("hetu.snapshot.stateFormat", "JAVA")
+                .put("hetu.snapshot.compressionEnabled", "true")
+                .put("hetu.snapshot.incrementalEnabled", "true")
+                .put("hetu.snapshot.maxIncrementalSnapshots", "5")
+                .put("hetu.snapshot.asyncUploadEnabled", "false")
+                .put("hetu.snapshot.uploadThreads", "8")
+                .put("hetu.snapshot.maxPendingUploadSize", "64MB")
                 .build();
 
         SnapshotConfig expected = new SnapshotConfig()
@@ -54,7 +69,14 @@ public class TestSnapshotConfig
                 .setSnapshotTimeInterval(new Duration(3, TimeUnit.MINUTES))
                 .setSnapshotSplitCountInterval(1000000)
                 .setSnapshotMaxRetries(20)
-                .setSnapshotRetryTimeout(new Duration(5, TimeUnit.MINUTES));
+                .setSnapshotRetryTimeout(new Duration(5, TimeUnit.MINUTES))
+                .setSnapshotStateFormat(SnapshotConfig.StateFormat.JAVA)
+                .setSnapshotCompressionEnabled(true)
+                .setIncrementalSnapshotEnabled(true)
+                .setMaxIncrementalSnapshots(5)
+                .setAsyncUploadEnabled(false)
+                .setUploadThreads(8)
+                .setMaxPendingUploadSize(new DataSize(64, DataSize.Unit.MEGABYTE));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -16,6 +16,7 @@ package io.prestosql.snapshot;
 
 import io.hetu.core.filesystem.HetuLocalFileSystemClient;
 import io.hetu.core.filesystem.LocalConfig;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
 import io.prestosql.testing.assertions.Assert;
 import org.testng.annotations.Test;
 
@@ -35,7 +36,7 @@ public class TestSnapshotFileBasedClient
     public void testSnapshotResult()
             throws Exception
     {
-        SnapshotFileBasedClient client = new SnapshotFileBasedClient(new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get(ROOT_PATH_STR)), Paths.get(ROOT_PATH_STR));
+        SnapshotFileBasedClient client = new SnapshotFileBasedClient(new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get(ROOT_PATH_STR)), Paths.get(ROOT_PATH_STR), new SnapshotStateSerde(SnapshotConfig.StateFormat.BINARY, false, new TestingBlockEncodingSerde()));
         String queryId = "query1";
         LinkedHashMap<Long, SnapshotResult> map = new LinkedHashMap<>();
         map.put(3L, SnapshotResult.SUCCESSFUL);
@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static io.prestosql.block.BlockAssertions.assertBlockEquals;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestSnapshotStateSerde
+{
+    private static final TestingBlockEncodingSerde BLOCK_ENCODING_SERDE = new TestingBlockEncodingSerde();
+
+    @DataProvider
+    public static Object[][] serdes()
+    {
+        return new Object[][] {
+                {new SnapshotStateSerde(SnapshotConfig.StateFormat.JAVA, false, BLOCK_ENCODING_SERDE)},
+                {new SnapshotStateSerde(SnapshotConfig.StateFormat.BINARY, false, BLOCK_ENCODING_SERDE)},
+                {new SnapshotStateSerde(SnapshotConfig.StateFormat.BINARY, true, BLOCK_ENCODING_SERDE)}};
+    }
+
+    @Test(dataProvider = "serdes")
+    public void testRoundTrip(SnapshotStateSerde serde)
+            throws Exception
+    {
+        assertRoundTrip(serde, null);
+        assertRoundTrip(serde, true);
+        assertRoundTrip(serde, (byte) 1);
+        assertRoundTrip(serde, (short) 2);
+        assertRoundTrip(serde, 'c');
+        assertRoundTrip(serde, 3);
+        assertRoundTrip(serde, 4L);
+        assertRoundTrip(serde, 5.5f);
+        assertRoundTrip(serde, 6.5);
+        assertRoundTrip(serde, "state");
+        assertRoundTrip(serde, SnapshotConfig.IntervalType.SPLIT_COUNT);
+        assertRoundTrip(serde, new ArrayList<>(ImmutableList.of(1, "a", 2L)));
+        assertRoundTrip(serde, new LinkedList<>(ImmutableList.of(1, 2)));
+        assertRoundTrip(serde, new LinkedHashMap<>(ImmutableMap.of("a", 1L, "b", 2L)));
+        assertRoundTrip(serde, ImmutableList.of(1, 2, 3));
+        assertRoundTrip(serde, createState());
+    }
+
+    @Test(dataProvider = "serdes")
+    public void testArrays(SnapshotStateSerde serde)
+            throws Exception
+    {
+        assertTrue(Arrays.equals((boolean[]) roundTrip(serde, new boolean[] {true, false}), new boolean[] {true, false}));
+        assertTrue(Arrays.equals((short[]) roundTrip(serde, new short[] {1, 2}), new short[] {1, 2}));
+        assertTrue(Arrays.equals((char[]) roundTrip(serde, new char[] {'a', 'b'}), new char[] {'a', 'b'}));
+        assertTrue(Arrays.equals((int[]) roundTrip(serde, new int[] {1, 2}), new int[] {1, 2}));
+        assertTrue(Arrays.equals((float[]) roundTrip(serde, new float[] {1, 2}), new float[] {1, 2}));
+        assertTrue(Arrays.equals((double[]) roundTrip(serde, new double[] {1, 2}), new double[] {1, 2}));
+        assertTrue(Arrays.deepEquals((Object[]) roundTrip(serde, new long[][] {{1, 2}, null, {}}), new long[][] {{1, 2}, null, {}}));
+        assertTrue(Arrays.deepEquals((Object[]) roundTrip(serde, new Object[] {"a", 1, new byte[] {1}}), new Object[] {"a", 1, new byte[] {1}}));
+    }
+
+    @Test(dataProvider = "serdes")
+    public void testSharedReferences(SnapshotStateSerde serde)
+            throws Exception
+    {
+        long[] values = {1, 2, 3};
+        State shared = new State(1);
+        List<Object> state = new ArrayList<>(ImmutableList.of(values, shared, values, shared));
+
+        List<?> restored = (List<?>) roundTrip(serde, state);
+        assertEquals(restored.size(), 4);
+        assertSame(restored.get(0), restored.get(2));
+        assertSame(restored.get(1), restored.get(3));
+        assertTrue(Arrays.equals((long[]) restored.get(0), values));
+        assertEquals(restored.get(1), shared);
+    }
+
+    @Test(dataProvider = "serdes")
+    public void testCyclicReferences(SnapshotStateSerde serde)
+            throws Exception
+    {
+        State state = new State(1);
+        State nested = new State(2);
+        state.nested = nested;
+        nested.nested = state;
+        List<Object> list = new ArrayList<>();
+        list.add(list);
+        state.custom = new CustomState("custom");
+        nested.custom = state.custom;
+
+        Object[] restored = (Object[]) roundTrip(serde, new Object[] {state, list});
+        State restoredState = (State) restored[0];
+        State restoredNested = (State) restoredState.nested;
+        assertSame(restoredNested.nested, restoredState);
+        assertSame(restoredNested.custom, restoredState.custom);
+        List<?> restoredList = (List<?>) restored[1];
+        assertSame(restoredList.get(0), restoredList);
+    }
+
+    @Test
+    public void testSliceAndBlock()
+            throws Exception
+    {
+        SnapshotStateSerde serde = new SnapshotStateSerde(SnapshotConfig.StateFormat.BINARY, true, BLOCK_ENCODING_SERDE);
+        Slice slice = Slices.utf8Slice("slice");
+        assertEquals(roundTrip(serde, slice), slice);
+
+        Block<?> block = createLongSequenceBlock(0, 100);
+        assertBlockEquals(BIGINT, (Block<?>) roundTrip(serde, block), block);
+    }
+
+    @Test
+    public void testReadJavaFormat()
+            throws Exception
+    {
+        SnapshotStateSerde javaSerde = new SnapshotStateSerde(SnapshotConfig.StateFormat.JAVA, false, BLOCK_ENCODING_SERDE);
+        SnapshotStateSerde binarySerde = new SnapshotStateSerde(SnapshotConfig.StateFormat.BINARY, false, BLOCK_ENCODING_SERDE);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        javaSerde.serialize(createState(), output);
+        assertEquals(binarySerde.deserialize(new ByteArrayInputStream(output.toByteArray())), createState());
+    }
+
+    @Test
+    public void testBinaryFormatSize()
+            throws Exception
+    {
+        State state = createState();
+        state.values = new long[100_000];
+        Arrays.fill(state.values, 7);
+        assertTrue(serializedSize(SnapshotConfig.StateFormat.BINARY, false, state) < serializedSize(SnapshotConfig.StateFormat.JAVA, false, state));
+        assertTrue(serializedSize(SnapshotConfig.StateFormat.BINARY, true, state) < serializedSize(SnapshotConfig.StateFormat.BINARY, false, state));
+    }
+
+    private static int serializedSize(SnapshotConfig.StateFormat format, boolean compressionEnabled, Object state)
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new SnapshotStateSerde(format, compressionEnabled, BLOCK_ENCODING_SERDE).serialize(state, output);
+        return output.size();
+    }
+
+    private static void assertRoundTrip(SnapshotStateSerde serde, Object state)
+            throws Exception
+    {
+        assertEquals(roundTrip(serde, state), state);
+    }
+
+    private static Object roundTrip(SnapshotStateSerde serde, Object state)
+            throws Exception
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        serde.serialize(state, output);
+        return serde.deserialize(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    private static State createState()
+    {
+        State state = new State(10);
+        state.flag = true;
+        state.count = 20;
+        state.values = new long[] {1, 2, 3};
+        state.pages = new byte[][] {{1, 2}, {3}};
+        state.nested = new State(30);
+        state.properties = new HashMap<>(ImmutableMap.of("key", "value"));
+        state.custom = new CustomState("custom");
+        return state;
+    }
+
+    private static class BaseState
+            implements Serializable
+    {
+        private final int id;
+
+        private BaseState()
+        {
+            this(0);
+        }
+
+        private BaseState(int id)
+        {
+            this.id = id;
+        }
+    }
+
+    private static class State
+            extends BaseState
+    {
+        private boolean flag;
+        private long count;
+        private long[] values;
+        private byte[][] pages;
+        private Object nested;
+        private Map<String, String> properties;
+        private CustomState custom;
+        private transient List<Object> cache = new ArrayList<>();
+
+        private State()
+        {
+        }
+
+        private State(int id)
+        {
+            super(id);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            State other = (State) o;
+            return ((BaseState) this).id == ((BaseState) other).id &&
+                    flag == other.flag &&
+                    count == other.count &&
+                    Arrays.equals(values, other.values) &&
+                    Arrays.deepEquals(pages, other.pages) &&
+                    Objects.equals(nested, other.nested) &&
+                    Objects.equals(properties, other.properties) &&
+                    Objects.equals(custom, other.custom);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(flag, count, nested, properties, custom);
+        }
+    }
+
+    private static class CustomState
+            implements Serializable
+    {
+        private transient String value;
+
+        private CustomState(String value)
+        {
+            this.value = value;
+        }
+
+        private void writeObject(java.io.ObjectOutputStream output)
+                throws IOException
+        {
+            output.writeUTF(value);
+        }
+
+        private void readObject(java.io.ObjectInputStream input)
+                throws IOException
+        {
+            value = input.readUTF();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof CustomState && value.equals(((CustomState) o).value);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return value.hashCode();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.execution.TaskId;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestSnapshotStateUploader
+{
+    private static final TaskId TASK_ID = new TaskId("query", 1, 1);
+
+    @Test
+    public void testBackpressure()
+            throws Exception
+    {
+        SnapshotStateUploader uploader = new SnapshotStateUploader(2, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        ListenableFuture<?> first = uploader.upload(new SnapshotStateId(1, TASK_ID, "a"), 60, () -> release.await(10, TimeUnit.SECONDS));
+        assertEquals(uploader.getPendingBytes(), 60);
+        assertTrue(uploader.getBlockedFuture().isDone());
+
+        // Exceeds max pending size, the upload is accepted but callers are blocked until pending states are written
+        ListenableFuture<?> second = uploader.upload(new SnapshotStateId(1, TASK_ID, "b"), 60, () -> release.await(10, TimeUnit.SECONDS));
+        assertEquals(uploader.getPendingBytes(), 120);
+        ListenableFuture<?> blocked = uploader.getBlockedFuture();
+        assertFalse(blocked.isDone());
+        assertSame(uploader.getBlockedFuture(), blocked);
+
+        release.countDown();
+        first.get();
+        second.get();
+        blocked.get(10, TimeUnit.SECONDS);
+        assertEquals(uploader.getPendingBytes(), 0);
+        assertTrue(uploader.getBlockedFuture().isDone());
+    }
+
+    @Test
+    public void testLargeState()
+            throws Exception
+    {
+        // A state larger than the max pending size blocks callers until it's written
+        SnapshotStateUploader uploader = new SnapshotStateUploader(1, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        ListenableFuture<?> future = uploader.upload(new SnapshotStateId(1, TASK_ID, "a"), 100, () -> release.await(10, TimeUnit.SECONDS));
+        ListenableFuture<?> blocked = uploader.getBlockedFuture();
+        assertFalse(blocked.isDone());
+
+        release.countDown();
+        future.get();
+        blocked.get(10, TimeUnit.SECONDS);
+        assertEquals(uploader.getPendingBytes(), 0);
+    }
+
+    @Test
+    public void testShutdown()
+    {
+        SnapshotStateUploader uploader = new SnapshotStateUploader(1, 10);
+        uploader.shutdown();
+        try {
+            uploader.upload(new SnapshotStateId(1, TASK_ID, "a"), 1, () -> null);
+            fail("Expected upload to be rejected");
+        }
+        catch (RejectedExecutionException e) {
+            // Expected
+        }
+        assertEquals(uploader.getPendingBytes(), 0);
+    }
+
+    @Test
+    public void testWaitForUpload()
+            throws Exception
+    {
+        SnapshotStateUploader uploader = new SnapshotStateUploader(1, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        SnapshotStateId stateId = new SnapshotStateId(1, TASK_ID, "a");
+        ListenableFuture<?> future = uploader.upload(stateId, 10, () -> release.await(10, TimeUnit.SECONDS));
+        assertFalse(future.isDone());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(release::countDown);
+            uploader.waitForUpload(stateId);
+            assertTrue(future.isDone());
+            // No pending upload
+            uploader.waitForUpload(new SnapshotStateId(2, TASK_ID, "a"));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
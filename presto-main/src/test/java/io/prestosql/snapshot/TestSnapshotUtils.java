@@ -14,15 +14,20 @@
  */
 package io.prestosql.snapshot;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.execution.TaskId;
 import io.prestosql.filesystem.FileSystemClientManager;
 import io.prestosql.metadata.InMemoryNodeManager;
 import io.prestosql.spi.QueryId;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
 
 import static io.prestosql.SessionTestUtils.TEST_SNAPSHOT_SESSION;
 import static org.mockito.Matchers.any;
@@ -31,10 +36,15 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 @Test(singleThreaded = true)
 public class TestSnapshotUtils
 {
+    FileSystemClientManager fileSystemClientManager;
     HetuFileSystemClient fileSystemClient;
     SnapshotUtils snapshotUtils;
 
@@ -46,11 +56,11 @@ public class TestSnapshotUtils
         SnapshotConfig snapshotConfig = new SnapshotConfig();
 
         // Set up mock file system client manager
-        FileSystemClientManager fileSystemClientManager = mock(FileSystemClientManager.class);
+        fileSystemClientManager = mock(FileSystemClientManager.class);
         fileSystemClient = mock(HetuFileSystemClient.class);
         when(fileSystemClientManager.getFileSystemClient(any(Path.class))).thenReturn(fileSystemClient);
 
-        snapshotUtils = new SnapshotUtils(fileSystemClientManager, snapshotConfig, new InMemoryNodeManager());
+        snapshotUtils = new SnapshotUtils(fileSystemClientManager, snapshotConfig, new InMemoryNodeManager(), new TestingBlockEncodingSerde());
         snapshotUtils.initialize();
     }
 
@@ -85,4 +95,63 @@ public class TestSnapshotUtils
         snapshotUtils.cleanupSnapshots(); // No-op
         verify(fileSystemClient, times(8)).deleteRecursively(anyObject());
     }
+
+    @Test
+    public void testStoreStateAsync()
+            throws Exception
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        when(fileSystemClient.newOutputStream(anyObject())).thenReturn(output);
+
+        QueryId queryId = new QueryId("query");
+        SnapshotStateId stateId = new SnapshotStateId(1, new TaskId(queryId.getId(), 1, 1), "component");
+        ListenableFuture<?> future = snapshotUtils.storeState(stateId, "state");
+        future.get();
+
+        assertTrue(output.size() > 0);
+        assertEquals(snapshotUtils.getWriteStats().getWrittenStates().getTotalCount(), 1);
+        assertEquals(snapshotUtils.getWriteStats().getWrittenBytes().getTotalCount(), output.size());
+        assertEquals(snapshotUtils.getQueryWriteStats(queryId).get().getWrittenBytes().getTotalCount(), output.size());
+        assertFalse(snapshotUtils.getQueryWriteStats(new QueryId("other")).isPresent());
+        assertEquals(snapshotUtils.getPendingUploadBytes(), 0);
+    }
+
+    @Test
+    public void testStoreStateAsyncFailure()
+            throws Exception
+    {
+        when(fileSystemClient.newOutputStream(anyObject())).thenThrow(new IOException());
+
+        QueryId queryId = new QueryId("query");
+        SnapshotStateId stateId = new SnapshotStateId(1, new TaskId(queryId.getId(), 1, 1), "component");
+        ListenableFuture<?> future = snapshotUtils.storeState(stateId, "state");
+        try {
+            future.get();
+            fail("Expected state write to fail");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertEquals(snapshotUtils.getWriteStats().getFailedWrites().getTotalCount(), 1);
+        assertEquals(snapshotUtils.getQueryWriteStats(queryId).get().getFailedWrites().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testStoreStateSync()
+            throws Exception
+    {
+        SnapshotUtils syncSnapshotUtils = new SnapshotUtils(fileSystemClientManager, new SnapshotConfig().setAsyncUploadEnabled(false), new InMemoryNodeManager(), new TestingBlockEncodingSerde());
+        syncSnapshotUtils.initialize();
+        when(fileSystemClient.newOutputStream(anyObject())).thenThrow(new IOException());
+
+        SnapshotStateId stateId = new SnapshotStateId(1, new TaskId("query", 1, 1), "component");
+        try {
+            syncSnapshotUtils.storeState(stateId, "state");
+            fail("Expected state write to fail");
+        }
+        catch (IOException e) {
+            // Expected
+        }
+        assertEquals(syncSnapshotUtils.getWriteStats().getFailedWrites().getTotalCount(), 1);
+    }
 }
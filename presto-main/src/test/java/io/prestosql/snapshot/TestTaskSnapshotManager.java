@@ -15,20 +15,26 @@
 package io.prestosql.snapshot;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.SettableFuture;
 import io.hetu.core.filesystem.HetuLocalFileSystemClient;
 import io.hetu.core.filesystem.LocalConfig;
 import io.prestosql.execution.StageId;
 import io.prestosql.execution.TaskId;
 import io.prestosql.filesystem.FileSystemClientManager;
 import io.prestosql.metadata.InMemoryNodeManager;
+import io.prestosql.operator.DriverContext;
 import io.prestosql.operator.Operator;
+import io.prestosql.operator.OperatorContext;
+import io.prestosql.operator.PipelineContext;
 import io.prestosql.spi.QueryId;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
 import io.prestosql.testing.assertions.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.FileWriter;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -38,6 +44,8 @@ import java.util.Properties;
 
 import static io.prestosql.SessionTestUtils.TEST_SNAPSHOT_SESSION;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -66,7 +74,7 @@ public class TestTaskSnapshotManager
         fileSystemClientManager = mock(FileSystemClientManager.class);
         when(fileSystemClientManager.getFileSystemClient(any(Path.class))).thenReturn(new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get(SNAPSHOT_FILE_SYSTEM_DIR)));
 
-        snapshotUtils = new SnapshotUtils(fileSystemClientManager, snapshotConfig, new InMemoryNodeManager());
+        snapshotUtils = new SnapshotUtils(fileSystemClientManager, snapshotConfig, new InMemoryNodeManager(), new TestingBlockEncodingSerde());
         snapshotUtils.rootPath = SNAPSHOT_FILE_SYSTEM_DIR;
         snapshotUtils.initialize();
     }
@@ -268,4 +276,68 @@ public class TestTaskSnapshotManager
         sm.succeededToCapture(new SnapshotStateId(1, taskId));
         assertEquals(sm.getSnapshotCaptureResult().get(1L), SnapshotResult.SUCCESSFUL);
     }
+
+    @Test
+    public void testCaptureAfterStateWritten()
+            throws Exception
+    {
+        TaskId taskId = new TaskId("query", 1, 1);
+        SnapshotUtils mockSnapshotUtils = mock(SnapshotUtils.class);
+        TaskSnapshotManager sm = new TaskSnapshotManager(taskId, mockSnapshotUtils);
+        sm.setTotalComponents(2);
+
+        SnapshotStateId stateId1 = new SnapshotStateId(1, taskId, "component1");
+        SnapshotStateId stateId2 = new SnapshotStateId(1, taskId, "component2");
+        SettableFuture<Object> write1 = SettableFuture.create();
+        SettableFuture<Object> write2 = SettableFuture.create();
+        doReturn(write1).when(mockSnapshotUtils).storeState(eq(stateId1), any());
+        doReturn(write2).when(mockSnapshotUtils).storeState(eq(stateId2), any());
+
+        sm.storeState(stateId1, "state1");
+        sm.succeededToCapture(stateId1);
+        sm.storeState(stateId2, "state2");
+        sm.succeededToCapture(stateId2);
+        // Result is only reported once states are written
+        assertNull(sm.getSnapshotCaptureResult().get(1L));
+
+        write1.set(null);
+        assertEquals(sm.getSnapshotCaptureResult().get(1L), SnapshotResult.IN_PROGRESS);
+        write2.setException(new IOException());
+        assertEquals(sm.getSnapshotCaptureResult().get(1L), SnapshotResult.FAILED);
+    }
+
+    @Test
+    public void testFinishedComponentWithStateBeingWritten()
+            throws Exception
+    {
+        TaskId taskId = new TaskId("query", 1, 1);
+        SnapshotUtils mockSnapshotUtils = mock(SnapshotUtils.class);
+        TaskSnapshotManager sm = new TaskSnapshotManager(taskId, mockSnapshotUtils);
+        sm.setTotalComponents(2);
+
+        Operator operator = mock(Operator.class);
+        OperatorContext operatorContext = mock(OperatorContext.class);
+        DriverContext driverContext = mock(DriverContext.class);
+        PipelineContext pipelineContext = mock(PipelineContext.class);
+        when(operator.getOperatorContext()).thenReturn(operatorContext);
+        when(operatorContext.getDriverContext()).thenReturn(driverContext);
+        when(operatorContext.getOperatorId()).thenReturn(3);
+        when(driverContext.getTaskId()).thenReturn(taskId);
+        when(driverContext.getPipelineContext()).thenReturn(pipelineContext);
+        when(driverContext.getDriverId()).thenReturn(2);
+        when(pipelineContext.getPipelineId()).thenReturn(1);
+        SnapshotStateId stateId = SnapshotStateId.forOperator(1, operatorContext);
+        SettableFuture<Object> write = SettableFuture.create();
+        doReturn(write).when(mockSnapshotUtils).storeState(eq(stateId), any());
+
+        sm.storeState(stateId, "state");
+        sm.succeededToCapture(stateId);
+        sm.succeededToCapture(new SnapshotStateId(1, taskId, "component"));
+        // The operator finishes before its state is written. Its capture result is reported once the state is written.
+        sm.updateFinishedComponents(ImmutableList.of(operator));
+        assertEquals(sm.getSnapshotCaptureResult().get(1L), SnapshotResult.IN_PROGRESS);
+
+        write.setException(new IOException());
+        assertEquals(sm.getSnapshotCaptureResult().get(1L), SnapshotResult.FAILED);
+    }
 }
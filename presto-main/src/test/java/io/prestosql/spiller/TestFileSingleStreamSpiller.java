@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PageCodecMarker;
 import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
@@ -31,6 +32,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.List;
 
@@ -38,6 +40,8 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -98,17 +102,82 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true);
     }
 
+    @Test
+    public void testSpillMemoryMappedRead()
+            throws Exception
+    {
+        assertSpill(false, false, true);
+    }
+
+    @Test
+    public void testSpillMemoryMappedReadEncryptionWithCompression()
+            throws Exception
+    {
+        assertSpill(true, true, true);
+    }
+
+    @Test
+    public void testSpillOffHeap()
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(true, false, false, new DataSize(1, MEGABYTE));
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        FileSingleStreamSpiller spiller = (FileSingleStreamSpiller) spillerFactory.create(TYPES, bytes -> {}, memoryContext);
+
+        Page page = buildPage();
+        spiller.spill(Iterators.forArray(page, page, page)).get();
+        // all pages fit into the off-heap budget, so nothing has been written to disk
+        assertEquals(listFiles(spillPath.toPath()).size(), 1);
+        assertEquals(Files.size(listFiles(spillPath.toPath()).get(0)), 0);
+        assertTrue(spillerFactory.getOffHeapSpillSpaceTracker().getCurrentBytes() > 0);
+
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), 3);
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+
+        spiller.close();
+        assertEquals(spillerFactory.getOffHeapSpillSpaceTracker().getCurrentBytes(), 0);
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+    }
+
+    @Test
+    public void testSpillOffHeapOverflowsToDisk()
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(false, false, true, new DataSize(500, BYTE));
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        FileSingleStreamSpiller spiller = (FileSingleStreamSpiller) spillerFactory.create(TYPES, bytes -> {}, memoryContext);
+
+        Page page = buildPage();
+        spiller.spill(page).get();
+        assertEquals(Files.size(listFiles(spillPath.toPath()).get(0)), 0);
+        spiller.spill(Iterators.forArray(page, page, page)).get();
+        // the budget is exhausted, so the off-heap page was moved to disk ahead of the following pages
+        assertTrue(Files.size(listFiles(spillPath.toPath()).get(0)) > 0);
+        assertEquals(spillerFactory.getOffHeapSpillSpaceTracker().getCurrentBytes(), 0);
+
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), 4);
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+    }
+
     private void assertSpill(boolean compression, boolean encryption)
             throws Exception
     {
-        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
-                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
-                createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(),
-                new SpillerStats(),
-                ImmutableList.of(spillPath.toPath()),
-                1.0,
-                compression,
-                encryption);
+        assertSpill(compression, encryption, false);
+    }
+
+    private void assertSpill(boolean compression, boolean encryption, boolean memoryMappedRead)
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(compression, encryption, memoryMappedRead, new DataSize(0, BYTE));
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
@@ -150,6 +219,20 @@ public class TestFileSingleStreamSpiller
         assertEquals(memoryContext.getBytes(), 0);
     }
 
+    private FileSingleStreamSpillerFactory createSpillerFactory(boolean compression, boolean encryption, boolean memoryMappedRead, DataSize maxOffHeapSpillSize)
+    {
+        return new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                compression,
+                encryption,
+                memoryMappedRead,
+                maxOffHeapSpillSize);
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
@@ -13,10 +13,13 @@
  */
 package io.prestosql.spiller;
 
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import io.airlift.units.DataSize;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.BlockEncodingSerde;
@@ -29,13 +32,17 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -44,6 +51,8 @@ import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUF
 import static java.nio.file.Files.createTempDirectory;
 import static java.util.Collections.emptyList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestFileSingleStreamSpillerFactory
@@ -106,6 +115,66 @@ public class TestFileSingleStreamSpillerFactory
         assertEquals(listFiles(spillPath2.toPath()).size(), 0);
     }
 
+    @Test
+    public void testParallelWritesPreferIdlePath()
+            throws Exception
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        List<Path> spillPaths = ImmutableList.of(spillPath1.toPath(), spillPath2.toPath());
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor,
+                blockEncodingSerde,
+                spillerStats,
+                spillPaths,
+                1.0,
+                false,
+                false,
+                false,
+                new DataSize(0, BYTE),
+                true,
+                1);
+        closer.register(spillerFactory::destroy);
+
+        // keep the first spill pending, so the next spiller goes to the other path
+        CountDownLatch writeReleased = new CountDownLatch(1);
+        Page page = buildPage();
+        Iterator<Page> blockedPages = new AbstractIterator<Page>()
+        {
+            private boolean returned;
+
+            @Override
+            protected Page computeNext()
+            {
+                if (returned) {
+                    return endOfData();
+                }
+                awaitUninterruptibly(writeReleased);
+                returned = true;
+                return page;
+            }
+        };
+        SingleStreamSpiller firstSpiller = spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+        closer.register(firstSpiller::close);
+        ListenableFuture<?> firstSpill = firstSpiller.spill(blockedPages);
+        Path firstPath = firstSpiller.getFile().getParent();
+        assertEquals(spillerStats.getSpillPathStats(firstPath).getPendingWrites(), 1);
+
+        SingleStreamSpiller secondSpiller = spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+        closer.register(secondSpiller::close);
+        Path secondPath = secondSpiller.getFile().getParent();
+        assertNotEquals(secondPath, firstPath);
+        getUnchecked(secondSpiller.spill(page));
+
+        writeReleased.countDown();
+        getUnchecked(firstSpill);
+        for (Path path : spillPaths) {
+            SpillPathStats pathStats = spillerStats.getSpillPathStats(path);
+            assertEquals(pathStats.getPendingWrites(), 0);
+            assertTrue(pathStats.getWrittenBytes() > 0);
+        }
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
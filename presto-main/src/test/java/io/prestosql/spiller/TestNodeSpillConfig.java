@@ -22,6 +22,7 @@ import java.util.Map;
 
 import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
@@ -34,7 +35,11 @@ public class TestNodeSpillConfig
                 .setMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setSpillCompressionEnabled(false)
-                .setSpillEncryptionEnabled(false));
+                .setSpillEncryptionEnabled(false)
+                .setSpillMemoryMappedReadEnabled(false)
+                .setMaxOffHeapSpillPerNode(new DataSize(0, BYTE))
+                .setSpillParallelWriteEnabled(false)
+                .setSpillerThreadsPerPath(2));
     }
 
     @Test
@@ -45,13 +50,21 @@ public class TestNodeSpillConfig
                 .put("experimental.query-max-spill-per-node", "15 MB")
                 .put("experimental.spill-compression-enabled", "true")
                 .put("experimental.spill-encryption-enabled", "true")
+                .put("experimental.spill-memory-mapped-read-enabled", "true")
+                .put("experimental.max-off-heap-spill-per-node", "1GB")
+                .put("experimental.spill-parallel-write-enabled", "true")
+                .put("experimental.spiller-threads-per-path", "4")
                 .build();
 
         NodeSpillConfig expected = new NodeSpillConfig()
                 .setMaxSpillPerNode(new DataSize(10, MEGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(15, MEGABYTE))
                 .setSpillCompressionEnabled(true)
-                .setSpillEncryptionEnabled(true);
+                .setSpillEncryptionEnabled(true)
+                .setSpillMemoryMappedReadEnabled(true)
+                .setMaxOffHeapSpillPerNode(new DataSize(1, GIGABYTE))
+                .setSpillParallelWriteEnabled(true)
+                .setSpillerThreadsPerPath(4);
 
         assertFullMapping(properties, expected);
     }
@@ -76,6 +76,9 @@ public class TestFeaturesConfig
                 .setOptimizeHashGeneration(true)
                 .setPushTableWriteThroughUnion(true)
                 .setDictionaryAggregation(false)
+                .setAdaptivePartialAggregationEnabled(false)
+                .setAdaptivePartialAggregationMinRows(100_000)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.8)
                 .setRegexLibrary(JONI)
                 .setRe2JDfaStatesLimit(Integer.MAX_VALUE)
                 .setRe2JDfaRetries(5)
@@ -97,6 +100,7 @@ public class TestFeaturesConfig
                 .setDefaultFilterFactorEnabled(false)
                 .setEnableForcedExchangeBelowGroupId(true)
                 .setExchangeCompressionEnabled(false)
+                .setExchangeBufferRecyclingEnabled(false)
                 .setLegacyTimestamp(true)
                 .setEnableIntermediateAggregations(false)
                 .setPushAggregationThroughJoin(true)
@@ -123,6 +127,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxSize(1000000)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(1, MEGABYTE))
                 .setDynamicFilteringBloomFilterFpp(0.1)
+                .setDynamicFilteringBlockedBloomFilter(false)
                 .setQueryPushDown(true)
                 .setPushLimitDown(true)
                 .setPushLimitThroughOuterJoin(true)
@@ -185,6 +190,9 @@ public class TestFeaturesConfig
                 .put("optimizer.unwrap-casts", "false")
                 .put("optimizer.push-table-write-through-union", "false")
                 .put("optimizer.dictionary-aggregation", "true")
+                .put("adaptive-partial-aggregation.enabled", "true")
+                .put("adaptive-partial-aggregation.min-rows", "1000")
+                .put("adaptive-partial-aggregation.unique-rows-ratio-threshold", "0.5")
                 .put("optimizer.push-aggregation-through-join", "false")
                 .put("regex-library", "RE2J")
                 .put("re2j.dfa-states-limit", "42")
@@ -199,6 +207,7 @@ public class TestFeaturesConfig
                 .put("experimental.memory-revoking-threshold", "0.2")
                 .put("experimental.memory-revoking-target", "0.8")
                 .put("exchange.compression-enabled", "true")
+                .put("exchange.buffer-recycling-enabled", "true")
                 .put("deprecated.legacy-timestamp", "false")
                 .put("optimizer.enable-intermediate-aggregations", "true")
                 .put("parse-decimal-literals-as-double", "true")
@@ -230,6 +239,7 @@ public class TestFeaturesConfig
                 .put("dynamic-filtering-data-type", "HASHSET")
                 .put("dynamic-filtering-max-per-driver-size", "64kB")
                 .put("dynamic-filtering-bloom-filter-fpp", "0.001")
+                .put("dynamic-filtering-blocked-bloom-filter", "true")
                 .put("implicit-conversion", "true")
                 .put("optimizer.push-table-through-subquery", "true")
                 .put("optimizer.rewrite-filtering-semi-join-to-inner-join", "true")
@@ -281,6 +291,9 @@ public class TestFeaturesConfig
                 .setPushTableWriteThroughUnion(false)
                 .setPushTableThroughSubquery(true)
                 .setDictionaryAggregation(true)
+                .setAdaptivePartialAggregationEnabled(true)
+                .setAdaptivePartialAggregationMinRows(1000)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.5)
                 .setPushAggregationThroughJoin(false)
                 .setRegexLibrary(RE2J)
                 .setRe2JDfaStatesLimit(42)
@@ -295,6 +308,7 @@ public class TestFeaturesConfig
                 .setMemoryRevokingThreshold(0.2)
                 .setMemoryRevokingTarget(0.8)
                 .setExchangeCompressionEnabled(true)
+                .setExchangeBufferRecyclingEnabled(true)
                 .setLegacyTimestamp(false)
                 .setEnableIntermediateAggregations(true)
                 .setParseDecimalLiteralsAsDouble(true)
@@ -329,6 +343,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxSize(10000)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(64, KILOBYTE))
                 .setDynamicFilteringBloomFilterFpp(0.001)
+                .setDynamicFilteringBlockedBloomFilter(true)
                 .setTransformSelfJoinToGroupby(false)
                 .setReuseTableScanEnabled(true)
                 .setSpillReuseExchange(true)
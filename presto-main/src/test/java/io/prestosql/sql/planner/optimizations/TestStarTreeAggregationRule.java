@@ -760,11 +760,13 @@ public class TestStarTreeAggregationRule
                 .thenReturn(() -> DateTimeUtils.parseTimestampWithoutTimeZone("2020-01-02 12:00:00"));
         Mockito.when(metadata.getTableMetadata(any(Session.class), eq(ordersTableHandle))).thenReturn(ordersTableMetadata);
         Mockito.when(ordersTableMetadata.getQualifiedName()).thenReturn(objectName);
+        Mockito.when(metadata.getPartitionModificationTimes(any(Session.class), any(TableHandle.class))).thenReturn(Optional.empty());
 
         List<CubeMetadata> metadataList = ImmutableList.of(cubeMetadata);
         Mockito.when(cubeMetaStore.getMetadataList(eq("local.sf1.0.orders"))).then(new Returns(metadataList));
         Mockito.when(cubeMetadata.matches(any(CubeStatement.class))).thenReturn(true);
         Mockito.when(cubeMetadata.getLastUpdatedTime()).thenReturn(DateTimeUtils.parseTimestampWithoutTimeZone("2020-01-01 12:00:00"));
+        Mockito.when(cubeMetadata.getSourcePartitionsLastUpdatedTime()).thenReturn(ImmutableMap.of());
 
         StarTreeAggregationRule starTreeAggregationRule = new StarTreeAggregationRule(cubeManager, metadata);
         tester().assertThat(starTreeAggregationRule)
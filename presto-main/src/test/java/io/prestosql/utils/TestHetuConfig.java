@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestHetuConfig
 {
@@ -39,9 +40,15 @@ public class TestHetuConfig
                 .setIndexCacheLoadingThreads(10L)
                 .setIndexCacheLoadingDelay(new Duration(10, TimeUnit.SECONDS))
                 .setIndexCacheSoftReferenceEnabled(true)
+                .setIndexCacheLocalDirectory("")
+                .setIndexCacheLocalMaxDiskUsage(new DataSize(10, GIGABYTE))
                 .setExecutionPlanCacheEnabled(false)
                 .setExecutionPlanCacheTimeout(86400000L)
                 .setExecutionPlanCacheMaxItems(10000L)
+                .setQueryResultCacheEnabled(false)
+                .setQueryResultCacheMaxSize(new DataSize(1, GIGABYTE))
+                .setQueryResultCacheMaxEntrySize(new DataSize(16, MEGABYTE))
+                .setQueryResultCacheTtl(new Duration(1, TimeUnit.HOURS))
                 .setEmbeddedStateStoreEnabled(false)
                 .setMultipleCoordinatorEnabled(false)
                 .setStateFetchInterval(new Duration(100, TimeUnit.MILLISECONDS))
@@ -68,9 +75,15 @@ public class TestHetuConfig
                 .put("hetu.heuristicindex.filter.cache.loading-delay", "1000ms")
                 .put("hetu.heuristicindex.filter.cache.ttl", "20m")
                 .put("hetu.heuristicindex.filter.cache.soft-reference", "false")
+                .put("hetu.heuristicindex.filter.cache.local-directory", "/tmp/index-cache")
+                .put("hetu.heuristicindex.filter.cache.local-max-disk-usage", "5GB")
                 .put("hetu.executionplan.cache.enabled", "true")
                 .put("hetu.executionplan.cache.timeout", "6000")
                 .put("hetu.executionplan.cache.limit", "20000")
+                .put("hetu.query-result-cache.enabled", "true")
+                .put("hetu.query-result-cache.max-size", "2GB")
+                .put("hetu.query-result-cache.max-entry-size", "64MB")
+                .put("hetu.query-result-cache.ttl", "10m")
                 .put("hetu.embedded-state-store.enabled", "true")
                 .put("hetu.multiple-coordinator.enabled", "true")
                 .put("hetu.multiple-coordinator.query-submit-timeout", "20s")
@@ -94,9 +107,15 @@ public class TestHetuConfig
                 .setIndexCacheLoadingThreads(5L)
                 .setIndexCacheLoadingDelay(new Duration(1000, TimeUnit.MILLISECONDS))
                 .setIndexCacheSoftReferenceEnabled(false)
+                .setIndexCacheLocalDirectory("/tmp/index-cache")
+                .setIndexCacheLocalMaxDiskUsage(new DataSize(5, GIGABYTE))
                 .setExecutionPlanCacheEnabled(true)
                 .setExecutionPlanCacheTimeout(6000L)
                 .setExecutionPlanCacheMaxItems(20000L)
+                .setQueryResultCacheEnabled(true)
+                .setQueryResultCacheMaxSize(new DataSize(2, GIGABYTE))
+                .setQueryResultCacheMaxEntrySize(new DataSize(64, MEGABYTE))
+                .setQueryResultCacheTtl(new Duration(10, TimeUnit.MINUTES))
                 .setEmbeddedStateStoreEnabled(true)
                 .setMultipleCoordinatorEnabled(true)
                 .setQuerySubmitTimeout(new Duration(20, TimeUnit.SECONDS))
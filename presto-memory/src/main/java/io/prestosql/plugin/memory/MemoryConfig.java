@@ -14,6 +14,7 @@
 package io.prestosql.plugin.memory;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
 import io.prestosql.spi.function.Mandatory;
 
@@ -23,6 +24,7 @@ public class MemoryConfig
 {
     private int splitsPerNode = Runtime.getRuntime().availableProcessors();
     private DataSize maxDataPerNode = new DataSize(128, DataSize.Unit.MEGABYTE);
+    private boolean columnarStorageEnabled;
 
     @NotNull
     public int getSplitsPerNode()
@@ -53,4 +55,17 @@ public class MemoryConfig
         this.maxDataPerNode = maxDataPerNode;
         return this;
     }
+
+    public boolean isColumnarStorageEnabled()
+    {
+        return columnarStorageEnabled;
+    }
+
+    @Config("memory.columnar-storage-enabled")
+    @ConfigDescription("Store pages with per-column dictionary/run-length encoding and min/max statistics used to skip pages on predicates")
+    public MemoryConfig setColumnarStorageEnabled(boolean columnarStorageEnabled)
+    {
+        this.columnarStorageEnabled = columnarStorageEnabled;
+        return this;
+    }
 }
@@ -34,12 +34,15 @@ import io.prestosql.spi.connector.ConnectorTableHandle;
 import io.prestosql.spi.connector.ConnectorTableMetadata;
 import io.prestosql.spi.connector.ConnectorTableProperties;
 import io.prestosql.spi.connector.ConnectorViewDefinition;
+import io.prestosql.spi.connector.Constraint;
+import io.prestosql.spi.connector.ConstraintApplicationResult;
 import io.prestosql.spi.connector.LimitApplicationResult;
 import io.prestosql.spi.connector.SampleType;
 import io.prestosql.spi.connector.SchemaNotFoundException;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.SchemaTablePrefix;
 import io.prestosql.spi.connector.ViewNotFoundException;
+import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.statistics.ComputedStatistics;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -231,7 +234,10 @@ public class MemoryMetadata
                 columns.build(),
                 new HashMap<>()));
 
-        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(tableIds.values()));
+        return new MemoryOutputTableHandle(
+                tableId,
+                ImmutableSet.copyOf(tableIds.values()),
+                tableMetadata.getColumns().stream().map(ColumnMetadata::getType).collect(toImmutableList()));
     }
 
     private void checkSchemaExists(String schemaName)
@@ -265,7 +271,10 @@ public class MemoryMetadata
     public synchronized MemoryInsertTableHandle beginInsert(ConnectorSession session, ConnectorTableHandle tableHandle)
     {
         MemoryTableHandle memoryTableHandle = (MemoryTableHandle) tableHandle;
-        return new MemoryInsertTableHandle(memoryTableHandle.getId(), ImmutableSet.copyOf(tableIds.values()));
+        return new MemoryInsertTableHandle(
+                memoryTableHandle.getId(),
+                ImmutableSet.copyOf(tableIds.values()),
+                tables.get(memoryTableHandle.getId()).getColumns().stream().map(column -> column.getMetadata().getType()).collect(toImmutableList()));
     }
 
     @Override
@@ -383,4 +392,21 @@ public class MemoryMetadata
 
         return Optional.of(new MemoryTableHandle(table.getId(), table.getLimit(), OptionalDouble.of(table.getSampleRatio().orElse(1) * sampleRatio), table.getPredicate()));
     }
+
+    @Override
+    public Optional<ConstraintApplicationResult<ConnectorTableHandle>> applyFilter(ConnectorSession session, ConnectorTableHandle handle, Constraint constraint)
+    {
+        MemoryTableHandle table = (MemoryTableHandle) handle;
+
+        TupleDomain<ColumnHandle> oldDomain = table.getPredicate();
+        TupleDomain<ColumnHandle> newDomain = oldDomain.intersect(constraint.getSummary());
+        if (oldDomain.equals(newDomain)) {
+            return Optional.empty();
+        }
+
+        // the predicate is only used to skip whole pages, so the engine still has to apply all of it
+        return Optional.of(new ConstraintApplicationResult<>(
+                new MemoryTableHandle(table.getId(), table.getLimit(), table.getSampleRatio(), newDomain),
+                constraint.getSummary()));
+    }
 }
@@ -62,7 +62,7 @@ public class MemoryPageSinkProvider
         checkState(memoryOutputTableHandle.getActiveTableIds().contains(tableId));
 
         pagesStore.cleanUp(memoryOutputTableHandle.getActiveTableIds());
-        pagesStore.initialize(tableId);
+        pagesStore.initialize(tableId, memoryOutputTableHandle.getColumnTypes());
         return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
     }
 
@@ -74,7 +74,7 @@ public class MemoryPageSinkProvider
         checkState(memoryInsertTableHandle.getActiveTableIds().contains(tableId));
 
         pagesStore.cleanUp(memoryInsertTableHandle.getActiveTableIds());
-        pagesStore.initialize(tableId);
+        pagesStore.initialize(tableId, memoryInsertTableHandle.getColumnTypes());
         return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
     }
 
@@ -88,7 +88,8 @@ public final class MemoryPageSourceProvider
                 columnIndexes,
                 expectedRows,
                 memorySplit.getLimit(),
-                sampleRatio);
+                sampleRatio,
+                memoryTable.getPredicate());
         return new FixedPageSource(pages.stream()
                                         .map(page -> applyFilter(page, dynamicFilterSupplier, columns))
                                         .collect(toList()));
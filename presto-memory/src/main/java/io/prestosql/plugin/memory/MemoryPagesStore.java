@@ -17,6 +17,9 @@ import com.google.common.collect.ImmutableList;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.type.Type;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
@@ -24,61 +27,63 @@ import javax.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static io.prestosql.plugin.memory.MemoryErrorCode.MEMORY_LIMIT_EXCEEDED;
 import static io.prestosql.plugin.memory.MemoryErrorCode.MISSING_DATA;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
 public class MemoryPagesStore
 {
     private final long maxBytes;
+    private final boolean columnarStorageEnabled;
 
-    @GuardedBy("this")
-    private long currentBytes;
+    private final AtomicLong currentBytes = new AtomicLong();
 
-    private final Map<Long, TableData> tables = new HashMap<>();
+    // each table is guarded by its own monitor, so that loads and scans of different tables do not contend
+    private final Map<Long, TableData> tables = new ConcurrentHashMap<>();
 
     @Inject
     public MemoryPagesStore(MemoryConfig config)
     {
         this.maxBytes = config.getMaxDataPerNode().toBytes();
+        this.columnarStorageEnabled = config.isColumnarStorageEnabled();
     }
 
-    public synchronized void initialize(long tableId)
+    public void initialize(long tableId, List<Type> columnTypes)
     {
-        if (!tables.containsKey(tableId)) {
-            tables.put(tableId, new TableData());
-        }
+        tables.computeIfAbsent(tableId, id -> new TableData(columnTypes));
     }
 
-    public synchronized void add(Long tableId, Page page)
+    public void add(Long tableId, Page page)
     {
-        if (!contains(tableId)) {
+        TableData tableData = tables.get(tableId);
+        if (tableData == null) {
             throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
         }
 
         page.compact();
+        StoredPage storedPage = columnarStorageEnabled ? StoredPage.columnar(page, tableData.getColumnTypes()) : StoredPage.uncompressed(page);
 
-        long newSize = currentBytes + page.getRetainedSizeInBytes();
-        if (maxBytes < newSize) {
-            throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
+        long pageSize = storedPage.getRetainedSizeInBytes();
+        reserve(pageSize);
+        if (!tableData.add(storedPage)) {
+            currentBytes.addAndGet(-pageSize);
+            throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
         }
-        currentBytes = newSize;
-
-        TableData tableData = tables.get(tableId);
-        tableData.add(page);
     }
 
-    public synchronized List<Page> getPages(
+    public List<Page> getPages(
             Long tableId,
             int partNumber,
             int totalParts,
@@ -87,25 +92,45 @@ public class MemoryPagesStore
             OptionalLong limit,
             OptionalDouble sampleRatio)
     {
-        if (!contains(tableId)) {
+        return getPages(tableId, partNumber, totalParts, columnIndexes, expectedRows, limit, sampleRatio, TupleDomain.all());
+    }
+
+    public List<Page> getPages(
+            Long tableId,
+            int partNumber,
+            int totalParts,
+            List<Integer> columnIndexes,
+            long expectedRows,
+            OptionalLong limit,
+            OptionalDouble sampleRatio,
+            TupleDomain<ColumnHandle> predicate)
+    {
+        TableData tableData = tables.get(tableId);
+        if (tableData == null) {
             throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
         }
-        TableData tableData = tables.get(tableId);
-        if (tableData.getRows() < expectedRows) {
+        List<StoredPage> pages = tableData.getPages();
+        long rows = pages.stream().mapToLong(StoredPage::getPositionCount).sum();
+        if (rows < expectedRows) {
             throw new PrestoException(MISSING_DATA,
-                    format("Expected to find [%s] rows on a worker, but found [%s].", expectedRows, tableData.getRows()));
+                    format("Expected to find [%s] rows on a worker, but found [%s].", expectedRows, rows));
         }
 
         ImmutableList.Builder<Page> partitionedPages = ImmutableList.builder();
 
         boolean done = false;
         long totalRows = 0;
-        for (int i = partNumber; i < tableData.getPages().size() && !done; i += totalParts) {
+        for (int i = partNumber; i < pages.size() && !done; i += totalParts) {
             if (sampleRatio.isPresent() && ThreadLocalRandom.current().nextDouble() >= sampleRatio.getAsDouble()) {
                 continue;
             }
 
-            Page page = tableData.getPages().get(i);
+            StoredPage storedPage = pages.get(i);
+            if (!storedPage.mayMatch(predicate)) {
+                continue;
+            }
+
+            Page page = storedPage.getPage();
             totalRows += page.getPositionCount();
             if (limit.isPresent() && totalRows > limit.getAsLong()) {
                 page = page.getRegion(0, (int) (page.getPositionCount() - (totalRows - limit.getAsLong())));
@@ -117,12 +142,12 @@ public class MemoryPagesStore
         return partitionedPages.build();
     }
 
-    public synchronized boolean contains(Long tableId)
+    public boolean contains(Long tableId)
     {
         return tables.containsKey(tableId);
     }
 
-    public synchronized void cleanUp(Set<Long> activeTableIds)
+    public void cleanUp(Set<Long> activeTableIds)
     {
         // We have to remember that there might be some race conditions when there are two tables created at once.
         // That can lead to a situation when MemoryPagesStore already knows about a newer second table on some worker
@@ -142,10 +167,22 @@ public class MemoryPagesStore
             Map.Entry<Long, TableData> tablePagesEntry = tableDataIterator.next();
             Long tableId = tablePagesEntry.getKey();
             if (tableId < latestTableId && !activeTableIds.contains(tableId)) {
-                for (Page removedPage : tablePagesEntry.getValue().getPages()) {
-                    currentBytes -= removedPage.getRetainedSizeInBytes();
-                }
                 tableDataIterator.remove();
+                currentBytes.addAndGet(-tablePagesEntry.getValue().release());
+            }
+        }
+    }
+
+    private void reserve(long bytes)
+    {
+        while (true) {
+            long current = currentBytes.get();
+            long newSize = current + bytes;
+            if (maxBytes < newSize) {
+                throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
+            }
+            if (currentBytes.compareAndSet(current, newSize)) {
+                return;
             }
         }
     }
@@ -163,23 +200,52 @@ public class MemoryPagesStore
 
     private static final class TableData
     {
-        private final List<Page> pages = new ArrayList<>();
-        private long rows;
+        private final List<Type> columnTypes;
+
+        @GuardedBy("this")
+        private List<StoredPage> pages = new ArrayList<>();
+        @GuardedBy("this")
+        private boolean released;
 
-        public void add(Page page)
+        private TableData(List<Type> columnTypes)
         {
+            this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+        }
+
+        private List<Type> getColumnTypes()
+        {
+            return columnTypes;
+        }
+
+        /**
+         * Returns false if the table has already been released, in which case the page is not added.
+         */
+        private synchronized boolean add(StoredPage page)
+        {
+            if (released) {
+                return false;
+            }
             pages.add(page);
-            rows += page.getPositionCount();
+            return true;
         }
 
-        private List<Page> getPages()
+        private synchronized List<StoredPage> getPages()
         {
-            return pages;
+            return ImmutableList.copyOf(pages);
         }
 
-        private long getRows()
+        /**
+         * Drops all pages and returns the number of bytes they retained.
+         */
+        private synchronized long release()
         {
-            return rows;
+            long retainedBytes = 0;
+            for (StoredPage page : pages) {
+                retainedBytes += page.getRetainedSizeInBytes();
+            }
+            pages = ImmutableList.of();
+            released = true;
+            return retainedBytes;
         }
     }
 }
@@ -87,13 +87,14 @@ public final class MemoryTableHandle
         MemoryTableHandle that = (MemoryTableHandle) o;
         return id == that.id &&
                 limit.equals(that.limit) &&
-                sampleRatio.equals(that.sampleRatio);
+                sampleRatio.equals(that.sampleRatio) &&
+                predicate.equals(that.predicate);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(id, limit, sampleRatio);
+        return Objects.hash(id, limit, sampleRatio, predicate);
     }
 
     @Override
@@ -0,0 +1,211 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.memory;
+
+import io.airlift.slice.Slice;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A page held by {@link MemoryPagesStore}. With columnar storage enabled every column is
+ * run-length or dictionary encoded when that makes it smaller, and carries min/max statistics
+ * so that scans can skip the whole page when it cannot match the pushed down predicate.
+ */
+public final class StoredPage
+{
+    // dictionary encoding is only attempted while the distinct values are at most this fraction of the positions
+    private static final double MAX_DICTIONARY_RATIO = 0.5;
+
+    private final Page page;
+    private final Domain[] domains;
+
+    private StoredPage(Page page, Domain[] domains)
+    {
+        this.page = requireNonNull(page, "page is null");
+        this.domains = requireNonNull(domains, "domains is null");
+    }
+
+    public static StoredPage uncompressed(Page page)
+    {
+        return new StoredPage(page, new Domain[page.getChannelCount()]);
+    }
+
+    public static StoredPage columnar(Page page, List<Type> types)
+    {
+        checkArgument(page.getChannelCount() == types.size(), "page has %s channels, but %s types were provided", page.getChannelCount(), types.size());
+
+        Block[] blocks = new Block[page.getChannelCount()];
+        Domain[] domains = new Domain[page.getChannelCount()];
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            Type type = types.get(channel);
+            Block block = page.getBlock(channel).getLoadedBlock();
+            blocks[channel] = encode(type, block);
+            domains[channel] = computeDomain(type, block).orElse(null);
+        }
+        return new StoredPage(new Page(page.getPositionCount(), blocks), domains);
+    }
+
+    public Page getPage()
+    {
+        return page;
+    }
+
+    public int getPositionCount()
+    {
+        return page.getPositionCount();
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return page.getRetainedSizeInBytes();
+    }
+
+    /**
+     * Returns false only when no row of this page can satisfy {@code predicate}.
+     */
+    public boolean mayMatch(TupleDomain<ColumnHandle> predicate)
+    {
+        if (predicate.isNone()) {
+            return false;
+        }
+        if (!predicate.getDomains().isPresent()) {
+            return true;
+        }
+        for (Map.Entry<ColumnHandle, Domain> entry : predicate.getDomains().get().entrySet()) {
+            int columnIndex = ((MemoryColumnHandle) entry.getKey()).getColumnIndex();
+            Domain domain = domains[columnIndex];
+            if (domain != null && !domain.overlaps(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Block encode(Type type, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        if (positionCount == 0 || !type.isComparable() || block instanceof RunLengthEncodedBlock || block instanceof DictionaryBlock) {
+            return block;
+        }
+
+        int maxDistinctCount = Math.max(1, (int) (positionCount * MAX_DICTIONARY_RATIO));
+        int[] hashTable = new int[Integer.highestOneBit(maxDistinctCount * 2) << 1];
+        int mask = hashTable.length - 1;
+        Arrays.fill(hashTable, -1);
+
+        int[] ids = new int[positionCount];
+        int[] distinctPositions = new int[maxDistinctCount];
+        int distinctCount = 0;
+        int nullId = -1;
+        for (int position = 0; position < positionCount; position++) {
+            int id;
+            if (block.isNull(position)) {
+                if (nullId < 0) {
+                    if (distinctCount == maxDistinctCount) {
+                        return block;
+                    }
+                    nullId = distinctCount;
+                    distinctPositions[distinctCount++] = position;
+                }
+                id = nullId;
+            }
+            else {
+                int bucket = (int) type.hash(block, position) & mask;
+                while (hashTable[bucket] >= 0 && !isSameValue(type, block, distinctPositions[hashTable[bucket]], position)) {
+                    bucket = (bucket + 1) & mask;
+                }
+                if (hashTable[bucket] < 0) {
+                    if (distinctCount == maxDistinctCount) {
+                        return block;
+                    }
+                    hashTable[bucket] = distinctCount;
+                    distinctPositions[distinctCount++] = position;
+                }
+                id = hashTable[bucket];
+            }
+            ids[position] = id;
+        }
+
+        Block encoded;
+        if (distinctCount == 1) {
+            encoded = new RunLengthEncodedBlock(block.copyRegion(distinctPositions[0], 1), positionCount);
+        }
+        else {
+            encoded = new DictionaryBlock(block.copyPositions(distinctPositions, 0, distinctCount), ids);
+        }
+        return encoded.getRetainedSizeInBytes() < block.getRetainedSizeInBytes() ? encoded : block;
+    }
+
+    private static boolean isSameValue(Type type, Block block, int leftPosition, int rightPosition)
+    {
+        return !block.isNull(leftPosition) && type.equalTo(block, leftPosition, block, rightPosition);
+    }
+
+    private static Optional<Domain> computeDomain(Type type, Block block)
+    {
+        Class<?> javaType = type.getJavaType();
+        if (!type.isOrderable() || !(javaType == long.class || javaType == double.class || javaType == boolean.class || javaType == Slice.class)) {
+            return Optional.empty();
+        }
+
+        boolean hasNull = false;
+        int minPosition = -1;
+        int maxPosition = -1;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                hasNull = true;
+                continue;
+            }
+            if (minPosition < 0) {
+                minPosition = position;
+                maxPosition = position;
+                continue;
+            }
+            if (type.compareTo(block, position, block, minPosition) < 0) {
+                minPosition = position;
+            }
+            else if (type.compareTo(block, position, block, maxPosition) > 0) {
+                maxPosition = position;
+            }
+        }
+
+        if (minPosition < 0) {
+            return Optional.of(hasNull ? Domain.onlyNull(type) : Domain.none(type));
+        }
+        Object min = readNativeValue(type, block, minPosition);
+        Object max = readNativeValue(type, block, maxPosition);
+        if (javaType == double.class && (Double.isNaN((double) min) || Double.isNaN((double) max))) {
+            // NaN is not ordered, so the range would not be meaningful
+            return Optional.empty();
+        }
+        return Optional.of(Domain.create(ValueSet.ofRanges(Range.range(type, min, true, max, true)), hasNull));
+    }
+}
@@ -14,20 +14,28 @@
 package io.prestosql.plugin.memory;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorInsertTableHandle;
 import io.prestosql.spi.connector.ConnectorOutputTableHandle;
 import io.prestosql.spi.connector.ConnectorPageSink;
 import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.testing.TestingConnectorSession;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
 
@@ -120,6 +128,52 @@ public class TestMemoryPagesStore
         insertToTable(0L, createOneMegaBytePage(), 0L);
     }
 
+    @Test
+    public void testColumnarStorage()
+    {
+        pagesStore = new MemoryPagesStore(new MemoryConfig()
+                .setMaxDataPerNode(new DataSize(1, DataSize.Unit.MEGABYTE))
+                .setColumnarStorageEnabled(true));
+        pageSinkProvider = new MemoryPageSinkProvider(pagesStore, HostAddress.fromString("localhost:8080"));
+
+        createTable(0L, 0L);
+        insertToTable(0L, createSequencePage(0, 1000), 0L);
+        insertToTable(0L, createRepeatedPage(5000, 1000), 0L);
+
+        List<Page> pages = pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 2000, OptionalLong.empty(), OptionalDouble.empty());
+        assertEquals(pages.size(), 2);
+        assertTrue(pages.get(1).getBlock(0) instanceof RunLengthEncodedBlock);
+        for (int position = 0; position < 1000; position++) {
+            assertEquals(BIGINT.getLong(pages.get(0).getBlock(0), position), position);
+            assertEquals(BIGINT.getLong(pages.get(1).getBlock(0), position), 5000);
+        }
+
+        // only the page whose min/max range covers the value is returned
+        MemoryColumnHandle column = new MemoryColumnHandle(0, BIGINT);
+        TupleDomain<ColumnHandle> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.singleValue(BIGINT, 5000L)));
+        pages = pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 2000, OptionalLong.empty(), OptionalDouble.empty(), predicate);
+        assertEquals(pages.size(), 1);
+        assertEquals(BIGINT.getLong(pages.get(0).getBlock(0), 0), 5000);
+
+        predicate = TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.singleValue(BIGINT, 3000L)));
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 2000, OptionalLong.empty(), OptionalDouble.empty(), predicate), ImmutableList.of());
+    }
+
+    @Test
+    public void testColumnarStorageUsesDictionary()
+    {
+        Page page = new Page(createDictionaryCandidateBlock());
+        StoredPage storedPage = StoredPage.columnar(page, ImmutableList.of(BIGINT));
+        assertTrue(storedPage.getPage().getBlock(0) instanceof DictionaryBlock);
+        assertTrue(storedPage.getRetainedSizeInBytes() < page.getRetainedSizeInBytes());
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            assertEquals(page.getBlock(0).isNull(position), storedPage.getPage().getBlock(0).isNull(position));
+            if (!page.getBlock(0).isNull(position)) {
+                assertEquals(BIGINT.getLong(storedPage.getPage().getBlock(0), position), BIGINT.getLong(page.getBlock(0), position));
+            }
+        }
+    }
+
     private void insertToTable(long tableId, Long... activeTableIds)
     {
         insertToTable(tableId, createPage(), activeTableIds);
@@ -146,12 +200,12 @@ public class TestMemoryPagesStore
 
     private static ConnectorOutputTableHandle createMemoryOutputTableHandle(long tableId, Long... activeTableIds)
     {
-        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(activeTableIds));
+        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(activeTableIds), ImmutableList.of(BIGINT));
     }
 
     private static ConnectorInsertTableHandle createMemoryInsertTableHandle(long tableId, Long[] activeTableIds)
     {
-        return new MemoryInsertTableHandle(tableId, ImmutableSet.copyOf(activeTableIds));
+        return new MemoryInsertTableHandle(tableId, ImmutableSet.copyOf(activeTableIds), ImmutableList.of(BIGINT));
     }
 
     private static Page createPage()
@@ -161,6 +215,38 @@ public class TestMemoryPagesStore
         return new Page(0, blockBuilder.build());
     }
 
+    private static Page createSequencePage(long start, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, start + position);
+        }
+        return new Page(blockBuilder.build());
+    }
+
+    private static Page createRepeatedPage(long value, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, value);
+        }
+        return new Page(blockBuilder.build());
+    }
+
+    private static Block createDictionaryCandidateBlock()
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 1000);
+        for (int position = 0; position < 1000; position++) {
+            if (position % 7 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(blockBuilder, position % 10);
+            }
+        }
+        return blockBuilder.build();
+    }
+
     private static Page createOneMegaBytePage()
     {
         BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(POSITIONS_PER_PAGE);
@@ -14,6 +14,7 @@
 package io.prestosql.orc;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.prestosql.memory.context.AggregatedMemoryContext;
@@ -30,6 +31,7 @@ import io.prestosql.orc.metadata.PostScript.HiveWriterVersion;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
 import io.prestosql.spi.heuristicindex.SplitMetadata;
 import io.prestosql.spi.predicate.Domain;
@@ -43,6 +45,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import static com.google.common.base.Throwables.throwIfUnchecked;
@@ -333,6 +336,64 @@ public class OrcReader
             Map<Integer, Function<Block, Block>> coercer,
             Map<String, List<Domain>> orDomains,
             Set<Integer> missingColumns) throws OrcCorruptionException
+    {
+        return createSelectiveRecordReader(
+                fileColumns,
+                fileReadColumns,
+                readTypes,
+                outputColumns,
+                includedColumns,
+                filters,
+                constantValues,
+                predicate,
+                offset,
+                length,
+                hiveStorageTimeZone,
+                systemMemoryUsage,
+                initialBatchSize,
+                exceptionTransform,
+                indexes,
+                domains,
+                orcCacheStore,
+                orcCacheProperties,
+                writeValidation,
+                disjunctFilters,
+                positions,
+                useDataCache,
+                coercer,
+                ImmutableMap.of(),
+                orDomains,
+                missingColumns,
+                ImmutableMap::of);
+    }
+
+    public OrcSelectiveRecordReader createSelectiveRecordReader(
+            List<OrcColumn> fileColumns,
+            List<OrcColumn> fileReadColumns,
+            List<Type> readTypes,
+            List<Integer> outputColumns,
+            Map<Integer, Type> includedColumns,
+            Map<Integer, TupleDomainFilter> filters,
+            Map<Integer, Object> constantValues,
+            OrcPredicate predicate,
+            long offset,
+            long length,
+            DateTimeZone hiveStorageTimeZone,
+            AggregatedMemoryContext systemMemoryUsage,
+            int initialBatchSize,
+            Function<Exception, RuntimeException> exceptionTransform,
+            Optional<List<IndexMetadata>> indexes,
+            Map<String, Domain> domains,
+            OrcCacheStore orcCacheStore,
+            OrcCacheProperties orcCacheProperties,
+            Optional<OrcWriteValidation> writeValidation,
+            Map<Integer, List<TupleDomainFilter>> disjunctFilters,
+            List<Integer> positions, boolean useDataCache,
+            Map<Integer, Function<Block, Block>> coercer,
+            Map<Integer, Type> coercedColumnTypes,
+            Map<String, List<Domain>> orDomains,
+            Set<Integer> missingColumns,
+            Supplier<Map<Integer, DynamicFilter>> dynamicFilters) throws OrcCorruptionException
     {
         return new OrcSelectiveRecordReader(
                 outputColumns,
@@ -372,8 +433,10 @@ public class OrcReader
                 positions,
                 useDataCache,
                 coercer,
+                coercedColumnTypes,
                 orDomains,
-                missingColumns);
+                missingColumns,
+                dynamicFilters);
     }
 
     public static OrcDataSource wrapWithCacheIfTiny(OrcDataSource dataSource, DataSize maxCacheSize)
@@ -33,6 +33,7 @@ import io.prestosql.orc.reader.SelectiveColumnReaders;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.type.Type;
@@ -49,6 +50,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -76,7 +78,9 @@ public class OrcSelectiveRecordReader
     Set<Integer> colReaderWithoutFilter;
     Map<Integer, List<TupleDomainFilter>> disjuctFilters;
     Map<Integer, Function<Block, Block>> coercers;
+    private final Map<Integer, Type> coercedColumnTypes;
     private final Set<Integer> missingColumns;
+    private final Supplier<Map<Integer, DynamicFilter>> dynamicFilters;
     // flag indicating whether range filter on a constant column is false; no data is read in that case
     private boolean constantFilterIsFalse;
 
@@ -99,7 +103,10 @@ public class OrcSelectiveRecordReader
      * @param disjuctFilters Filters corresponding to OR clause.
      * @param useDataCache Enabled/disable use of data cache.
      * @param coercers Map of coercion function corresponding to column index.
+     * @param coercedColumnTypes Table side type of each coerced column, by column index.
      * @param missingColumns List of all columns which are not file but part of scan.
+     * @param dynamicFilters Supplier of the dynamic filters currently available, by column index. These are
+     *                       applied to the blocks of the output columns before the page is formed.
      * @throws OrcCorruptionException
      */
     public OrcSelectiveRecordReader(
@@ -140,8 +147,10 @@ public class OrcSelectiveRecordReader
             List<Integer> positions,
             boolean useDataCache,
             Map<Integer, Function<Block, Block>> coercers,
+            Map<Integer, Type> coercedColumnTypes,
             Map<String, List<Domain>> orDomains,
-            Set<Integer> missingColumns)
+            Set<Integer> missingColumns,
+            Supplier<Map<Integer, DynamicFilter>> dynamicFilters)
             throws OrcCorruptionException
     {
         super(fileReadColumns,
@@ -186,7 +195,9 @@ public class OrcSelectiveRecordReader
         this.disjuctFilters = disjuctFilters;
         this.constantValues = requireNonNull(constantValues, "constantValues is null");
         this.coercers = requireNonNull(coercers, "coercers is null");
+        this.coercedColumnTypes = requireNonNull(coercedColumnTypes, "coercedColumnTypes is null");
         this.missingColumns = requireNonNull(missingColumns, "missingColumns is null");
+        this.dynamicFilters = requireNonNull(dynamicFilters, "dynamicFilters is null");
 
         for (Map.Entry<Integer, Function<Block, Block>> entry : coercers.entrySet()) {
             checkArgument(!filters.containsKey(entry.getKey()), "Coercions for columns with range filters are not yet supported");
@@ -336,8 +347,8 @@ public class OrcSelectiveRecordReader
             else {
                 Block block = getColumnReaders()[columnIndex].getBlock(positionsToRead, positionCount);
                 updateMaxCombinedBytesPerRow(columnIndex, block);
-                if (coercers.containsKey(i)) {
-                    block = coercers.get(i).apply(block);
+                if (coercers.containsKey(columnIndex)) {
+                    block = coercers.get(columnIndex).apply(block);
                 }
                 blocks[i] = block;
             }
@@ -347,9 +358,50 @@ public class OrcSelectiveRecordReader
 
         validateWritePageChecksum(page);
 
+        page = filterWithDynamicFilters(page);
+
         return page;
     }
 
+    /* Dynamic filters arrive while the scan is running, so they are applied on the final blocks of the output
+     * columns instead of during the column reads. Each filter narrows the selected positions using the block level
+     * filter API, and the page is only copied when some position got filtered.
+     */
+    private Page filterWithDynamicFilters(Page page)
+    {
+        Map<Integer, DynamicFilter> currentDynamicFilters = dynamicFilters.get();
+        if (currentDynamicFilters.isEmpty()) {
+            return page;
+        }
+
+        int[] selectedPositions = null;
+        int selectedCount = page.getPositionCount();
+        for (int i = 0; i < outputColumns.size() && selectedCount > 0; i++) {
+            int columnIndex = outputColumns.get(i);
+            DynamicFilter dynamicFilter = currentDynamicFilters.get(columnIndex);
+            if (dynamicFilter == null || columnIndex < 0 || missingColumns.contains(columnIndex)) {
+                continue;
+            }
+            if (selectedPositions == null) {
+                selectedPositions = new int[selectedCount];
+                for (int position = 0; position < selectedCount; position++) {
+                    selectedPositions[position] = position;
+                }
+            }
+            // coerced blocks hold values of the table type, which is also the type of the dynamic filter values
+            Type type = coercedColumnTypes.getOrDefault(columnIndex, includedColumns.get(columnIndex));
+            selectedCount = dynamicFilter.filter(page.getBlock(i), type, selectedPositions, selectedCount);
+        }
+
+        if (selectedCount == page.getPositionCount()) {
+            return page;
+        }
+        if (selectedCount == 0) {
+            return new Page(0);
+        }
+        return page.getPositions(selectedPositions, 0, selectedCount);
+    }
+
     private int initializePositions(int batchSize)
     {
         // currentPosition to currentBatchSize
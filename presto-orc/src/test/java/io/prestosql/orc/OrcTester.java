@@ -27,6 +27,7 @@ import io.prestosql.orc.metadata.CompressionKind;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.type.CharType;
 import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.Decimals;
@@ -101,6 +102,7 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -528,6 +530,32 @@ public class OrcTester
             int initialBatchSize,
             Map<Integer, TupleDomainFilter> filters)
             throws IOException
+    {
+        return createCustomOrcSelectiveRecordReader(tempFile, predicate, types, initialBatchSize, filters, ImmutableMap::of);
+    }
+
+    static OrcSelectiveRecordReader createCustomOrcSelectiveRecordReader(
+            TempFile tempFile,
+            OrcPredicate predicate,
+            List<Type> types,
+            int initialBatchSize,
+            Map<Integer, TupleDomainFilter> filters,
+            Supplier<Map<Integer, DynamicFilter>> dynamicFilters)
+            throws IOException
+    {
+        return createCustomOrcSelectiveRecordReader(tempFile, predicate, types, initialBatchSize, filters, ImmutableMap.of(), ImmutableMap.of(), dynamicFilters);
+    }
+
+    static OrcSelectiveRecordReader createCustomOrcSelectiveRecordReader(
+            TempFile tempFile,
+            OrcPredicate predicate,
+            List<Type> types,
+            int initialBatchSize,
+            Map<Integer, TupleDomainFilter> filters,
+            Map<Integer, Function<Block, Block>> coercers,
+            Map<Integer, Type> coercedColumnTypes,
+            Supplier<Map<Integer, DynamicFilter>> dynamicFilters)
+            throws IOException
     {
         OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), true, tempFile.getFile().lastModified());
         OrcReader orcReader = new OrcReader(orcDataSource, OrcFileTail.readFrom(orcDataSource, Optional.empty()), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
@@ -562,9 +590,11 @@ public class OrcTester
                 new HashMap<>(),
                 null,
                 false,
+                coercers,
+                coercedColumnTypes,
                 ImmutableMap.of(),
-                ImmutableMap.of(),
-                new HashSet<>());
+                new HashSet<>(),
+                dynamicFilters);
     }
 
     private static List<String> makeColumnNames(int columns)
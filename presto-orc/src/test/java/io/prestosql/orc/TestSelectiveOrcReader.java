@@ -22,6 +22,11 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Range;
 import io.prestosql.orc.TupleDomainFilter.BigintRange;
 import io.prestosql.orc.TupleDomainFilter.BooleanValue;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
 import io.prestosql.spi.type.CharType;
 import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.SqlDate;
@@ -34,10 +39,12 @@ import org.testng.annotations.Test;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
@@ -46,11 +53,15 @@ import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.cycle;
 import static com.google.common.collect.Iterables.limit;
 import static com.google.common.collect.Lists.newArrayList;
+import static io.prestosql.orc.OrcReader.MAX_BATCH_SIZE;
 import static io.prestosql.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static io.prestosql.orc.OrcTester.createCustomOrcSelectiveRecordReader;
 import static io.prestosql.orc.OrcTester.mapType;
 import static io.prestosql.orc.OrcTester.quickSelectiveOrcTester;
+import static io.prestosql.orc.OrcTester.writeOrcColumnPresto;
 import static io.prestosql.orc.TupleDomainFilter.IS_NOT_NULL;
 import static io.prestosql.orc.TupleDomainFilter.IS_NULL;
+import static io.prestosql.orc.metadata.CompressionKind.NONE;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 import static io.prestosql.spi.type.CharType.createCharType;
@@ -337,4 +348,73 @@ public class TestSelectiveOrcReader
                 .boxed()
                 .collect(ImmutableList.toImmutableList());
     }
+
+    @Test
+    public void testDynamicFilter()
+            throws Exception
+    {
+        List<Long> values = ContiguousSet.create(Range.closedOpen(0L, 30_000L), DiscreteDomain.longs()).asList();
+        Set<Long> filterValues = new HashSet<>();
+        for (long value = 0; value < 30_000; value += 7) {
+            filterValues.add(value);
+        }
+        DynamicFilter dynamicFilter = new HashSetDynamicFilter("1", null, filterValues, DynamicFilter.Type.LOCAL);
+
+        try (TempFile tempFile = new TempFile()) {
+            writeOrcColumnPresto(tempFile.getFile(), NONE, BIGINT, values.iterator(), new OrcWriterStats());
+            try (OrcSelectiveRecordReader recordReader = createCustomOrcSelectiveRecordReader(tempFile, OrcPredicate.TRUE, ImmutableList.of(BIGINT), MAX_BATCH_SIZE, ImmutableMap.of(), () -> ImmutableMap.of(0, dynamicFilter))) {
+                List<Long> actual = new ArrayList<>();
+                for (Page page = recordReader.getNextPage(); page != null; page = recordReader.getNextPage()) {
+                    Block block = page.getBlock(0);
+                    for (int position = 0; position < block.getPositionCount(); position++) {
+                        actual.add(BIGINT.getLong(block, position));
+                    }
+                }
+                assertEquals(actual, values.stream().filter(filterValues::contains).collect(toList()));
+            }
+        }
+    }
+
+    @Test
+    public void testDynamicFilterOnCoercedColumn()
+            throws Exception
+    {
+        List<Integer> values = ContiguousSet.create(Range.closedOpen(0, 30_000), DiscreteDomain.integers()).asList();
+        Set<Long> filterValues = new HashSet<>();
+        for (long value = 0; value < 30_000; value += 7) {
+            filterValues.add(value);
+        }
+        DynamicFilter dynamicFilter = new HashSetDynamicFilter("1", null, filterValues, DynamicFilter.Type.LOCAL);
+
+        // the file holds an integer column, the table declares it as bigint
+        Function<Block, Block> coercer = block -> {
+            BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, block.getPositionCount());
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                BIGINT.writeLong(blockBuilder, INTEGER.getLong(block, position));
+            }
+            return blockBuilder.build();
+        };
+
+        try (TempFile tempFile = new TempFile()) {
+            writeOrcColumnPresto(tempFile.getFile(), NONE, INTEGER, values.iterator(), new OrcWriterStats());
+            try (OrcSelectiveRecordReader recordReader = createCustomOrcSelectiveRecordReader(
+                    tempFile,
+                    OrcPredicate.TRUE,
+                    ImmutableList.of(INTEGER),
+                    MAX_BATCH_SIZE,
+                    ImmutableMap.of(),
+                    ImmutableMap.of(0, coercer),
+                    ImmutableMap.of(0, BIGINT),
+                    () -> ImmutableMap.of(0, dynamicFilter))) {
+                List<Long> actual = new ArrayList<>();
+                for (Page page = recordReader.getNextPage(); page != null; page = recordReader.getNextPage()) {
+                    Block block = page.getBlock(0);
+                    for (int position = 0; position < block.getPositionCount(); position++) {
+                        actual.add(BIGINT.getLong(block, position));
+                    }
+                }
+                assertEquals(actual, values.stream().map(Long::valueOf).filter(filterValues::contains).collect(toList()));
+            }
+        }
+    }
 }
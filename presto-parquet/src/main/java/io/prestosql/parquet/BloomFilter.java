@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.slice.XxHash64;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Split block bloom filter of a column chunk as written by parquet-mr 1.12 and later: blocks of eight 32 bit words,
+ * a value is hashed with 64 bit xxHash of its plain encoding and sets one bit in every word of a single block.
+ */
+public class BloomFilter
+{
+    public static final int BYTES_PER_BLOCK = 32;
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+    private final int[] bitset;
+    private final int blockCount;
+
+    public BloomFilter(int[] bitset)
+    {
+        this.bitset = requireNonNull(bitset, "bitset is null");
+        checkArgument(bitset.length > 0 && bitset.length % WORDS_PER_BLOCK == 0, "bitset must consist of whole blocks");
+        this.blockCount = bitset.length / WORDS_PER_BLOCK;
+    }
+
+    /**
+     * Whether a value with the hash might have been added to the filter, false means it was not.
+     */
+    public boolean mightContain(long hash)
+    {
+        int block = (int) (((hash >>> 32) * blockCount) >>> 32);
+        int key = (int) hash;
+        int offset = block * WORDS_PER_BLOCK;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            int mask = 1 << ((key * SALT[i]) >>> 27);
+            if ((bitset[offset + i] & mask) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return sizeOf(bitset);
+    }
+
+    public static long hash(int value)
+    {
+        Slice slice = Slices.allocate(Integer.BYTES);
+        slice.setInt(0, value);
+        return XxHash64.hash(slice);
+    }
+
+    public static long hash(long value)
+    {
+        return XxHash64.hash(value);
+    }
+
+    public static long hash(Slice value)
+    {
+        return XxHash64.hash(value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("blockCount", blockCount)
+                .toString();
+    }
+}
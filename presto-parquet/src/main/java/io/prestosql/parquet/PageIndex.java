@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import org.apache.parquet.format.ColumnIndex;
+import org.apache.parquet.format.OffsetIndex;
+import org.apache.parquet.format.PageLocation;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Page index of a column chunk: the location and the first row of every data page from the offset index,
+ * and optionally the min and max values of every data page from the column index.
+ */
+public class PageIndex
+{
+    private final Optional<ColumnIndex> columnIndex;
+    private final OffsetIndex offsetIndex;
+    private final long rowCount;
+
+    public PageIndex(Optional<ColumnIndex> columnIndex, OffsetIndex offsetIndex, long rowCount)
+    {
+        this.columnIndex = requireNonNull(columnIndex, "columnIndex is null");
+        this.offsetIndex = requireNonNull(offsetIndex, "offsetIndex is null");
+        this.rowCount = rowCount;
+    }
+
+    public boolean hasColumnIndex()
+    {
+        return columnIndex.isPresent();
+    }
+
+    public int getPageCount()
+    {
+        return offsetIndex.getPage_locations().size();
+    }
+
+    public long getOffset(int page)
+    {
+        return getPageLocation(page).getOffset();
+    }
+
+    /**
+     * Size of the page including its header
+     */
+    public int getCompressedPageSize(int page)
+    {
+        return getPageLocation(page).getCompressed_page_size();
+    }
+
+    public long getFirstRowIndex(int page)
+    {
+        return getPageLocation(page).getFirst_row_index();
+    }
+
+    public long getRowCount(int page)
+    {
+        long nextFirstRowIndex = page + 1 < getPageCount() ? getFirstRowIndex(page + 1) : rowCount;
+        return nextFirstRowIndex - getFirstRowIndex(page);
+    }
+
+    public boolean isNullPage(int page)
+    {
+        return getColumnIndex().getNull_pages().get(page);
+    }
+
+    public byte[] getMinValue(int page)
+    {
+        return getBytes(getColumnIndex().getMin_values().get(page));
+    }
+
+    public byte[] getMaxValue(int page)
+    {
+        return getBytes(getColumnIndex().getMax_values().get(page));
+    }
+
+    public OptionalLong getNullCount(int page)
+    {
+        ColumnIndex index = getColumnIndex();
+        if (!index.isSetNull_counts()) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(index.getNull_counts().get(page));
+    }
+
+    private ColumnIndex getColumnIndex()
+    {
+        return columnIndex.orElseThrow(() -> new IllegalStateException("column index is not present"));
+    }
+
+    private PageLocation getPageLocation(int page)
+    {
+        return offsetIndex.getPage_locations().get(page);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("pageCount", getPageCount())
+                .add("hasColumnIndex", hasColumnIndex())
+                .add("rowCount", rowCount)
+                .toString();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public class ParquetBloomFilterCacheKey
+{
+    private final ParquetDataSourceId dataSourceId;
+    private final long lastModifiedTime;
+    private final long offset;
+
+    public ParquetBloomFilterCacheKey(ParquetDataSourceId dataSourceId, long lastModifiedTime, long offset)
+    {
+        this.dataSourceId = requireNonNull(dataSourceId, "dataSourceId is null");
+        this.lastModifiedTime = lastModifiedTime;
+        this.offset = offset;
+    }
+
+    public ParquetDataSourceId getDataSourceId()
+    {
+        return dataSourceId;
+    }
+
+    public long getLastModifiedTime()
+    {
+        return lastModifiedTime;
+    }
+
+    public long getOffset()
+    {
+        return offset;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ParquetBloomFilterCacheKey that = (ParquetBloomFilterCacheKey) o;
+        return lastModifiedTime == that.lastModifiedTime &&
+                offset == that.offset &&
+                dataSourceId.equals(that.dataSourceId);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(dataSourceId, lastModifiedTime, offset);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("dataSourceId", dataSourceId)
+                .add("lastModifiedTime", lastModifiedTime)
+                .add("offset", offset)
+                .toString();
+    }
+}
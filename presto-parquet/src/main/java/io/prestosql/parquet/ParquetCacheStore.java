@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import io.airlift.units.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static java.lang.Math.toIntExact;
+
+public class ParquetCacheStore
+{
+    public static final ParquetCacheStore CACHE_NOTHING = new ParquetCacheStore(null);
+
+    // empty for the bloom filters which are not supported, so they are not read again
+    private final Cache<ParquetBloomFilterCacheKey, Optional<BloomFilter>> bloomFiltersCache;
+
+    private ParquetCacheStore(Cache<ParquetBloomFilterCacheKey, Optional<BloomFilter>> bloomFiltersCache)
+    {
+        this.bloomFiltersCache = bloomFiltersCache;
+    }
+
+    public Cache<ParquetBloomFilterCacheKey, Optional<BloomFilter>> getBloomFiltersCache()
+    {
+        return bloomFiltersCache;
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public static class Builder
+    {
+        private Builder()
+        {
+            //default constructor
+        }
+
+        public ParquetCacheStore newCacheStore(DataSize bloomFiltersMaximumWeight, Duration bloomFiltersTtl)
+        {
+            return new ParquetCacheStore(buildBloomFilterCache(bloomFiltersMaximumWeight, bloomFiltersTtl));
+        }
+
+        private Cache<ParquetBloomFilterCacheKey, Optional<BloomFilter>> buildBloomFilterCache(DataSize maximumWeight, Duration ttl)
+        {
+            return CacheBuilder.newBuilder()
+                    .maximumWeight(maximumWeight.toBytes())
+                    .weigher(
+                            (Weigher<ParquetBloomFilterCacheKey, Optional<BloomFilter>>) (key, bloomFilter) -> toIntExact(bloomFilter.map(BloomFilter::getRetainedSizeInBytes).orElse(0L)))
+                    .expireAfterAccess(ttl)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.Arrays;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Sorted, non-overlapping ranges of rows within a row group, the end of each range is exclusive.
+ */
+public final class RowRanges
+{
+    private final long[] starts;
+    private final long[] ends;
+
+    private RowRanges(long[] starts, long[] ends)
+    {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static RowRanges all(long rowCount)
+    {
+        if (rowCount == 0) {
+            return none();
+        }
+        return new RowRanges(new long[] {0}, new long[] {rowCount});
+    }
+
+    public static RowRanges none()
+    {
+        return new RowRanges(new long[0], new long[0]);
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public int getRangeCount()
+    {
+        return starts.length;
+    }
+
+    public long getRangeStart(int range)
+    {
+        return starts[range];
+    }
+
+    public long getRangeEnd(int range)
+    {
+        return ends[range];
+    }
+
+    public boolean isEmpty()
+    {
+        return starts.length == 0;
+    }
+
+    public long getRowCount()
+    {
+        long rowCount = 0;
+        for (int range = 0; range < starts.length; range++) {
+            rowCount += ends[range] - starts[range];
+        }
+        return rowCount;
+    }
+
+    /**
+     * Whether any of the rows from start (inclusive) to end (exclusive) is in the ranges
+     */
+    public boolean overlaps(long start, long end)
+    {
+        int range = Arrays.binarySearch(ends, start);
+        // the first range ending after start
+        range = range < 0 ? -range - 1 : range + 1;
+        return range < starts.length && starts[range] < end;
+    }
+
+    public RowRanges intersect(RowRanges other)
+    {
+        Builder builder = builder();
+        int range = 0;
+        int otherRange = 0;
+        while (range < starts.length && otherRange < other.starts.length) {
+            long start = max(starts[range], other.starts[otherRange]);
+            long end = min(ends[range], other.ends[otherRange]);
+            if (start < end) {
+                builder.add(start, end);
+            }
+            if (ends[range] < other.ends[otherRange]) {
+                range++;
+            }
+            else {
+                otherRange++;
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        RowRanges other = (RowRanges) obj;
+        return Arrays.equals(starts, other.starts) && Arrays.equals(ends, other.ends);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Arrays.hashCode(starts) + Arrays.hashCode(ends);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder ranges = new StringBuilder();
+        for (int range = 0; range < starts.length; range++) {
+            if (range > 0) {
+                ranges.append(", ");
+            }
+            ranges.append('[').append(starts[range]).append(", ").append(ends[range]).append(')');
+        }
+        return toStringHelper(this)
+                .add("ranges", ranges)
+                .toString();
+    }
+
+    /**
+     * Collects ranges added in ascending order, merging ranges that overlap or are adjacent
+     */
+    public static class Builder
+    {
+        private final LongArrayList starts = new LongArrayList();
+        private final LongArrayList ends = new LongArrayList();
+
+        public Builder add(long start, long end)
+        {
+            checkArgument(start < end, "start %s must be less than end %s", start, end);
+            int last = starts.size() - 1;
+            if (last >= 0) {
+                checkArgument(start >= starts.getLong(last), "ranges must be added in ascending order");
+                if (start <= ends.getLong(last)) {
+                    ends.set(last, max(end, ends.getLong(last)));
+                    return this;
+                }
+            }
+            starts.add(start);
+            ends.add(end);
+            return this;
+        }
+
+        public RowRanges build()
+        {
+            return new RowRanges(starts.toLongArray(), ends.toLongArray());
+        }
+    }
+}
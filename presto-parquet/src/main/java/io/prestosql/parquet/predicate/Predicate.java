@@ -13,8 +13,11 @@
  */
 package io.prestosql.parquet.predicate;
 
+import io.prestosql.parquet.BloomFilter;
+import io.prestosql.parquet.PageIndex;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSourceId;
+import io.prestosql.parquet.RowRanges;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.statistics.Statistics;
 
@@ -55,4 +58,28 @@ public interface Predicate
      * @param dictionaries dictionaries per column
      */
     boolean matches(Map<ColumnDescriptor, DictionaryDescriptor> dictionaries);
+
+    /**
+     * Should the Parquet Reader process a file section with the specified bloom filters.
+     *
+     * @param bloomFilters bloom filters per column
+     */
+    default boolean matchesBloomFilters(Map<ColumnDescriptor, BloomFilter> bloomFilters)
+    {
+        return true;
+    }
+
+    /**
+     * Which rows of a row group the Parquet Reader should process, based on the page level statistics.
+     *
+     * @param numberOfRows the number of rows in the row group
+     * @param pageIndexes page indexes per column, including the column index
+     * @param id Parquet file name
+     * @param failOnCorruptedParquetStatistics whether to fail query when scanning a Parquet file with corrupted statistics
+     */
+    default RowRanges getRowRanges(long numberOfRows, Map<ColumnDescriptor, PageIndex> pageIndexes, ParquetDataSourceId id, boolean failOnCorruptedParquetStatistics)
+            throws ParquetCorruptionException
+    {
+        return RowRanges.all(numberOfRows);
+    }
 }
@@ -14,16 +14,26 @@
 package io.prestosql.parquet.predicate;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.airlift.slice.Slice;
+import io.prestosql.parquet.BloomFilter;
 import io.prestosql.parquet.DictionaryPage;
+import io.prestosql.parquet.PageIndex;
+import io.prestosql.parquet.ParquetBloomFilterCacheKey;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.ParquetEncoding;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.RowRanges;
+import io.prestosql.parquet.reader.MetadataReader;
+import io.prestosql.parquet.reader.PageIndexReference;
+import io.prestosql.parquet.reader.ParquetFooter;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.Type;
 import org.apache.parquet.column.ColumnDescriptor;
@@ -45,12 +55,15 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 import static com.google.common.base.Verify.verify;
 import static io.airlift.slice.Slices.wrappedBuffer;
 import static io.prestosql.parquet.ParquetCompressionUtils.decompress;
 import static io.prestosql.parquet.ParquetTypeUtils.getParquetEncoding;
+import static io.prestosql.parquet.predicate.TupleDomainParquetPredicate.getBloomFilterHashes;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.SmallintType.SMALLINT;
 import static io.prestosql.spi.type.TinyintType.TINYINT;
@@ -98,6 +111,93 @@ public final class PredicateUtils
         return parquetPredicate.matches(dictionaries);
     }
 
+    /**
+     * Rows of a row group that match the predicate based on the column indexes of the predicate columns,
+     * all rows when the file has no column indexes.
+     */
+    public static RowRanges getRowRanges(Predicate parquetPredicate, BlockMetaData block, ParquetDataSource dataSource, ParquetFooter footer, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain, boolean failOnCorruptedParquetStatistics)
+            throws ParquetCorruptionException
+    {
+        Map<ColumnDescriptor, PageIndex> pageIndexes = getPageIndexes(block, dataSource, footer, descriptorsByPath, parquetTupleDomain);
+        if (pageIndexes.isEmpty()) {
+            return RowRanges.all(block.getRowCount());
+        }
+        return parquetPredicate.getRowRanges(block.getRowCount(), pageIndexes, dataSource.getId(), failOnCorruptedParquetStatistics);
+    }
+
+    /**
+     * Whether a row group can contain the values of the point lookups of the predicate based on the bloom filters of
+     * the predicate columns, true when the file has no bloom filters.
+     *
+     * @param bloomFiltersCache cache of the bloom filters, read from the data source when absent
+     * @param lastModifiedTime last modification time of the file, part of the cache key
+     */
+    public static boolean bloomFiltersMatch(Predicate parquetPredicate, BlockMetaData block, ParquetDataSource dataSource, ParquetFooter footer, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain, Optional<Cache<ParquetBloomFilterCacheKey, Optional<BloomFilter>>> bloomFiltersCache, long lastModifiedTime)
+    {
+        Map<ColumnDescriptor, BloomFilter> bloomFilters = getBloomFilters(block, dataSource, footer, descriptorsByPath, parquetTupleDomain, bloomFiltersCache, lastModifiedTime);
+        return parquetPredicate.matchesBloomFilters(bloomFilters);
+    }
+
+    private static Map<ColumnDescriptor, BloomFilter> getBloomFilters(BlockMetaData blockMetadata, ParquetDataSource dataSource, ParquetFooter footer, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain, Optional<Cache<ParquetBloomFilterCacheKey, Optional<BloomFilter>>> bloomFiltersCache, long lastModifiedTime)
+    {
+        if (parquetTupleDomain.isNone()) {
+            return ImmutableMap.of();
+        }
+        Map<ColumnDescriptor, Domain> domains = parquetTupleDomain.getDomains().get();
+        ImmutableMap.Builder<ColumnDescriptor, BloomFilter> bloomFilters = ImmutableMap.builder();
+        for (ColumnChunkMetaData columnMetaData : blockMetadata.getColumns()) {
+            RichColumnDescriptor descriptor = descriptorsByPath.get(Arrays.asList(columnMetaData.getPath().toArray()));
+            if (descriptor == null) {
+                continue;
+            }
+            // only point lookups can be ruled out, do not read the bloom filters for other domains
+            Domain domain = domains.get(descriptor);
+            OptionalLong offset = footer.getBloomFilterOffset(columnMetaData);
+            if (domain == null || !offset.isPresent() || !getBloomFilterHashes(domain, descriptor).isPresent()) {
+                continue;
+            }
+            try {
+                Optional<BloomFilter> bloomFilter;
+                if (bloomFiltersCache.isPresent()) {
+                    ParquetBloomFilterCacheKey cacheKey = new ParquetBloomFilterCacheKey(dataSource.getId(), lastModifiedTime, offset.getAsLong());
+                    bloomFilter = bloomFiltersCache.get().get(cacheKey, () -> MetadataReader.readBloomFilter(dataSource, offset.getAsLong()));
+                }
+                else {
+                    bloomFilter = MetadataReader.readBloomFilter(dataSource, offset.getAsLong());
+                }
+                bloomFilter.ifPresent(filter -> bloomFilters.put(descriptor, filter));
+            }
+            catch (IOException | ExecutionException | UncheckedExecutionException ignored) {
+                // the bloom filter is only an optimization, read the row group
+            }
+        }
+        return bloomFilters.build();
+    }
+
+    private static Map<ColumnDescriptor, PageIndex> getPageIndexes(BlockMetaData blockMetadata, ParquetDataSource dataSource, ParquetFooter footer, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain)
+    {
+        if (parquetTupleDomain.isNone()) {
+            return ImmutableMap.of();
+        }
+        ImmutableMap.Builder<ColumnDescriptor, PageIndex> pageIndexes = ImmutableMap.builder();
+        for (ColumnChunkMetaData columnMetaData : blockMetadata.getColumns()) {
+            RichColumnDescriptor descriptor = descriptorsByPath.get(Arrays.asList(columnMetaData.getPath().toArray()));
+            if (descriptor == null || !isColumnPredicate(descriptor, parquetTupleDomain)) {
+                continue;
+            }
+            Optional<PageIndexReference> reference = footer.getPageIndexReference(columnMetaData);
+            if (reference.isPresent() && reference.get().hasColumnIndex()) {
+                try {
+                    pageIndexes.put(descriptor, MetadataReader.readPageIndex(dataSource, reference.get(), blockMetadata.getRowCount(), true));
+                }
+                catch (IOException ignored) {
+                    // the page index is only an optimization, read all pages of the column
+                }
+            }
+        }
+        return pageIndexes.build();
+    }
+
     private static Map<ColumnDescriptor, Statistics<?>> getStatistics(BlockMetaData blockMetadata, Map<List<String>, RichColumnDescriptor> descriptorsByPath)
     {
         ImmutableMap.Builder<ColumnDescriptor, Statistics<?>> statistics = ImmutableMap.builder();
@@ -18,13 +18,17 @@ import com.google.common.base.VerifyException;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
+import io.prestosql.parquet.BloomFilter;
 import io.prestosql.parquet.DictionaryPage;
+import io.prestosql.parquet.PageIndex;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSourceId;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.RowRanges;
 import io.prestosql.parquet.dictionary.Dictionary;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.SortedRangeSet;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.predicate.ValueSet;
 import io.prestosql.spi.type.Type;
@@ -39,9 +43,11 @@ import org.apache.parquet.column.statistics.Statistics;
 import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.function.Function;
 
 import static io.prestosql.parquet.predicate.PredicateUtils.isStatisticsOverflow;
@@ -53,8 +59,10 @@ import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.RealType.REAL;
 import static io.prestosql.spi.type.SmallintType.SMALLINT;
 import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
 import static io.prestosql.spi.type.Varchars.isVarcharType;
 import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Float.intBitsToFloat;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
@@ -126,6 +134,87 @@ public class TupleDomainParquetPredicate
         return true;
     }
 
+    @Override
+    public boolean matchesBloomFilters(Map<ColumnDescriptor, BloomFilter> bloomFilters)
+    {
+        if (effectivePredicate.isNone()) {
+            return false;
+        }
+        Map<ColumnDescriptor, Domain> effectivePredicateDomains = effectivePredicate.getDomains()
+                .orElseThrow(() -> new IllegalStateException("Effective predicate other than none should have domains"));
+
+        for (RichColumnDescriptor column : columns) {
+            Domain effectivePredicateDomain = effectivePredicateDomains.get(column);
+            BloomFilter bloomFilter = bloomFilters.get(column);
+            if (effectivePredicateDomain == null || bloomFilter == null) {
+                continue;
+            }
+            Optional<long[]> hashes = getBloomFilterHashes(effectivePredicateDomain, column);
+            if (hashes.isPresent() && Arrays.stream(hashes.get()).noneMatch(bloomFilter::mightContain)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public RowRanges getRowRanges(long numberOfRows, Map<ColumnDescriptor, PageIndex> pageIndexes, ParquetDataSourceId id, boolean failOnCorruptedParquetStatistics)
+            throws ParquetCorruptionException
+    {
+        if (effectivePredicate.isNone()) {
+            return RowRanges.none();
+        }
+        Map<ColumnDescriptor, Domain> effectivePredicateDomains = effectivePredicate.getDomains()
+                .orElseThrow(() -> new IllegalStateException("Effective predicate other than none should have domains"));
+
+        RowRanges rowRanges = RowRanges.all(numberOfRows);
+        for (RichColumnDescriptor column : columns) {
+            Domain effectivePredicateDomain = effectivePredicateDomains.get(column);
+            PageIndex pageIndex = pageIndexes.get(column);
+            if (effectivePredicateDomain == null || pageIndex == null || !pageIndex.hasColumnIndex()) {
+                continue;
+            }
+
+            RowRanges.Builder columnRowRanges = RowRanges.builder();
+            for (int page = 0; page < pageIndex.getPageCount(); page++) {
+                long pageRowCount = pageIndex.getRowCount(page);
+                if (pageRowCount == 0) {
+                    continue;
+                }
+                Domain domain = getDomain(effectivePredicateDomain.getType(), pageIndex, page, column, id, failOnCorruptedParquetStatistics);
+                if (!effectivePredicateDomain.intersect(domain).isNone()) {
+                    long firstRowIndex = pageIndex.getFirstRowIndex(page);
+                    columnRowRanges.add(firstRowIndex, firstRowIndex + pageRowCount);
+                }
+            }
+            rowRanges = rowRanges.intersect(columnRowRanges.build());
+            if (rowRanges.isEmpty()) {
+                break;
+            }
+        }
+        return rowRanges;
+    }
+
+    private static Domain getDomain(Type type, PageIndex pageIndex, int page, RichColumnDescriptor column, ParquetDataSourceId id, boolean failOnCorruptedParquetStatistics)
+            throws ParquetCorruptionException
+    {
+        if (pageIndex.isNullPage(page)) {
+            return Domain.onlyNull(type);
+        }
+        long pageRowCount = pageIndex.getRowCount(page);
+        OptionalLong nullCount = pageIndex.getNullCount(page);
+
+        Statistics<?> statistics = Statistics.getStatsBasedOnType(column.getType());
+        statistics.setMinMaxFromBytes(pageIndex.getMinValue(page), pageIndex.getMaxValue(page));
+        statistics.setNumNulls(nullCount.orElse(0));
+        Domain domain = getDomain(type, pageRowCount, statistics, id, column.toString(), failOnCorruptedParquetStatistics);
+        if (!nullCount.isPresent()) {
+            // the page may contain nulls
+            return domain.union(Domain.onlyNull(type));
+        }
+        return domain;
+    }
+
     @VisibleForTesting
     public static Domain getDomain(Type type, long rowCount, Statistics<?> statistics, ParquetDataSourceId id, String column, boolean failOnCorruptedParquetStatistics)
             throws ParquetCorruptionException
@@ -308,6 +397,63 @@ public class TupleDomainParquetPredicate
         return Domain.all(type);
     }
 
+    /**
+     * Hashes of the values of a domain consisting of single values, as they are hashed into the bloom filter of the column.
+     * Empty when the domain allows nulls or ranges, which the bloom filter cannot rule out, or when the values are not
+     * hashed in a way the column type supports.
+     */
+    public static Optional<long[]> getBloomFilterHashes(Domain domain, ColumnDescriptor column)
+    {
+        if (domain.isNullAllowed() || !(domain.getValues() instanceof SortedRangeSet)) {
+            return Optional.empty();
+        }
+        List<Range> ranges = domain.getValues().getRanges().getOrderedRanges();
+        long[] hashes = new long[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            Range range = ranges.get(i);
+            if (!range.isSingleValue()) {
+                return Optional.empty();
+            }
+            OptionalLong hash = getBloomFilterHash(domain.getType(), column.getType(), range.getSingleValue());
+            if (!hash.isPresent()) {
+                return Optional.empty();
+            }
+            hashes[i] = hash.getAsLong();
+        }
+        return Optional.of(hashes);
+    }
+
+    private static OptionalLong getBloomFilterHash(Type type, PrimitiveTypeName primitiveType, Object value)
+    {
+        // values are hashed in their plain encoding
+        if (type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) || type.equals(DATE)) {
+            long longValue = (long) value;
+            if (primitiveType == PrimitiveTypeName.INT64) {
+                return OptionalLong.of(BloomFilter.hash(longValue));
+            }
+            if (primitiveType == PrimitiveTypeName.INT32 && longValue == (int) longValue) {
+                return OptionalLong.of(BloomFilter.hash((int) longValue));
+            }
+        }
+        // floating point zeros and NaNs are equal to values with other bits
+        if (type.equals(REAL) && primitiveType == PrimitiveTypeName.FLOAT) {
+            float floatValue = intBitsToFloat((int) (long) value);
+            if (floatValue != 0 && !Float.isNaN(floatValue)) {
+                return OptionalLong.of(BloomFilter.hash(floatToRawIntBits(floatValue)));
+            }
+        }
+        if (type.equals(DOUBLE) && primitiveType == PrimitiveTypeName.DOUBLE) {
+            double doubleValue = (double) value;
+            if (doubleValue != 0 && !Double.isNaN(doubleValue)) {
+                return OptionalLong.of(BloomFilter.hash(Double.doubleToRawLongBits(doubleValue)));
+            }
+        }
+        if ((isVarcharType(type) || type.equals(VARBINARY)) && primitiveType == PrimitiveTypeName.BINARY) {
+            return OptionalLong.of(BloomFilter.hash((Slice) value));
+        }
+        return OptionalLong.empty();
+    }
+
     private static void failWithCorruptionException(boolean failOnCorruptedParquetStatistics, String column, ParquetDataSourceId id, Statistics<?> statistics)
             throws ParquetCorruptionException
     {
@@ -13,15 +13,24 @@
  */
 package io.prestosql.parquet.reader;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.prestosql.parquet.BloomFilter;
+import io.prestosql.parquet.PageIndex;
+import io.prestosql.parquet.ParquetCorruptionException;
+import io.prestosql.parquet.ParquetDataSource;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnIndex;
 import org.apache.parquet.format.ColumnMetaData;
 import org.apache.parquet.format.ConvertedType;
 import org.apache.parquet.format.Encoding;
 import org.apache.parquet.format.FileMetaData;
 import org.apache.parquet.format.KeyValue;
+import org.apache.parquet.format.OffsetIndex;
 import org.apache.parquet.format.RowGroup;
 import org.apache.parquet.format.SchemaElement;
 import org.apache.parquet.format.Statistics;
@@ -52,17 +61,31 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static io.prestosql.parquet.BloomFilter.BYTES_PER_BLOCK;
 import static io.prestosql.parquet.ParquetValidationUtils.validateParquet;
+import static io.prestosql.parquet.reader.ThriftCompactReader.I32;
+import static io.prestosql.parquet.reader.ThriftCompactReader.I64;
+import static io.prestosql.parquet.reader.ThriftCompactReader.LIST;
+import static io.prestosql.parquet.reader.ThriftCompactReader.STRUCT;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.apache.parquet.format.Util.readColumnIndex;
 import static org.apache.parquet.format.Util.readFileMetaData;
+import static org.apache.parquet.format.Util.readOffsetIndex;
 
 public final class MetadataReader
 {
     private static final int PARQUET_METADATA_LENGTH = 4;
     private static final byte[] MAGIC = "PAR1".getBytes(US_ASCII);
     private static final ParquetMetadataConverter PARQUET_METADATA_CONVERTER = new ParquetMetadataConverter();
+    // the bloom filter header is a few bytes, it is read together with the start of the bitset
+    private static final int BLOOM_FILTER_HEADER_READ_SIZE = 64;
+    private static final int MAX_BLOOM_FILTER_SIZE = 128 * 1024 * 1024;
 
     private MetadataReader() {}
 
@@ -76,7 +99,12 @@ public final class MetadataReader
 
     public static ParquetMetadata readFooter(FSDataInputStream inputStream, Path file, long fileSize)
             throws IOException
+    {
+        return readParquetFooter(inputStream, file, fileSize).getParquetMetadata();
+    }
 
+    public static ParquetFooter readParquetFooter(FSDataInputStream inputStream, Path file, long fileSize)
+            throws IOException
     {
         // Parquet File Layout:
         //
@@ -102,13 +130,15 @@ public final class MetadataReader
                 "Corrupted Parquet file: %s metadata index: %s out of range",
                 file,
                 metadataIndex);
-        InputStream metadataStream = readFully(inputStream, metadataIndex, metadataLength);
-        FileMetaData fileMetaData = readFileMetaData(metadataStream);
+        byte[] metadata = new byte[metadataLength];
+        inputStream.readFully(metadataIndex, metadata);
+        FileMetaData fileMetaData = readFileMetaData(new ByteArrayInputStream(metadata));
         List<SchemaElement> schema = fileMetaData.getSchema();
         validateParquet(!schema.isEmpty(), "Empty Parquet schema in file: %s", file);
 
         MessageType messageType = readParquetSchema(schema);
         List<BlockMetaData> blocks = new ArrayList<>();
+        Map<Long, PageIndexReference> pageIndexReferences = new HashMap<>();
         List<RowGroup> rowGroups = fileMetaData.getRow_groups();
         if (rowGroups != null) {
             for (RowGroup rowGroup : rowGroups) {
@@ -142,6 +172,7 @@ public final class MetadataReader
                             metaData.total_compressed_size,
                             metaData.total_uncompressed_size);
                     blockMetaData.addColumn(column);
+                    readPageIndexReference(columnChunk).ifPresent(reference -> pageIndexReferences.put(column.getStartingPos(), reference));
                 }
                 blockMetaData.setPath(filePath);
                 blocks.add(blockMetaData);
@@ -155,7 +186,200 @@ public final class MetadataReader
                 keyValueMetaData.put(keyValue.key, keyValue.value);
             }
         }
-        return new ParquetMetadata(new org.apache.parquet.hadoop.metadata.FileMetaData(messageType, keyValueMetaData, fileMetaData.getCreated_by()), blocks);
+        ParquetMetadata parquetMetadata = new ParquetMetadata(new org.apache.parquet.hadoop.metadata.FileMetaData(messageType, keyValueMetaData, fileMetaData.getCreated_by()), blocks);
+        return new ParquetFooter(parquetMetadata, pageIndexReferences, readBloomFilterOffsets(metadata));
+    }
+
+    /**
+     * Reads the split block bloom filter of a column chunk, empty when the filter uses an algorithm, hash or compression
+     * which is not supported.
+     *
+     * @param offset the bloom filter offset from the column metadata
+     */
+    public static Optional<BloomFilter> readBloomFilter(ParquetDataSource dataSource, long offset)
+            throws IOException
+    {
+        if (offset < 0 || offset >= dataSource.getSize()) {
+            throw new ParquetCorruptionException("Bloom filter offset %s out of range in %s", offset, dataSource.getId());
+        }
+        byte[] header = new byte[toIntExact(min(BLOOM_FILTER_HEADER_READ_SIZE, dataSource.getSize() - offset))];
+        dataSource.readFully(offset, header);
+
+        // BloomFilterHeader: 1: i32 numBytes, 2: algorithm, 3: hash, 4: compression, the last three are unions
+        ThriftCompactReader reader = new ThriftCompactReader(header);
+        int numBytes = -1;
+        boolean supported = true;
+        int previousFieldId = 0;
+        while (reader.nextField(previousFieldId)) {
+            int fieldId = reader.getFieldId();
+            int fieldType = reader.getFieldType();
+            if (fieldId == 1 && fieldType == I32) {
+                numBytes = reader.readI32();
+            }
+            else if (fieldId >= 2 && fieldId <= 4 && fieldType == STRUCT) {
+                // the only defined members are the split block algorithm, xxHash and no compression, all with id 1
+                supported &= readUnionFieldId(reader) == 1;
+            }
+            else {
+                reader.skip(fieldType);
+            }
+            previousFieldId = fieldId;
+        }
+        if (numBytes <= 0 || numBytes % BYTES_PER_BLOCK != 0 || numBytes > MAX_BLOOM_FILTER_SIZE) {
+            throw new ParquetCorruptionException("Invalid bloom filter size %s at offset %s in %s", numBytes, offset, dataSource.getId());
+        }
+        if (!supported) {
+            return Optional.empty();
+        }
+
+        long bitsetOffset = offset + reader.getPosition();
+        if (bitsetOffset + numBytes > dataSource.getSize()) {
+            throw new ParquetCorruptionException("Bloom filter at offset %s exceeds the size of %s", offset, dataSource.getId());
+        }
+        byte[] bitsetBytes = new byte[numBytes];
+        dataSource.readFully(bitsetOffset, bitsetBytes);
+        Slice bitsetSlice = wrappedBuffer(bitsetBytes);
+        int[] bitset = new int[numBytes / Integer.BYTES];
+        for (int i = 0; i < bitset.length; i++) {
+            bitset[i] = bitsetSlice.getInt(i * Integer.BYTES);
+        }
+        return Optional.of(new BloomFilter(bitset));
+    }
+
+    private static int readUnionFieldId(ThriftCompactReader reader)
+            throws ParquetCorruptionException
+    {
+        if (!reader.nextField(0)) {
+            return 0;
+        }
+        int fieldId = reader.getFieldId();
+        reader.skip(reader.getFieldType());
+        reader.skipStruct();
+        return fieldId;
+    }
+
+    /**
+     * Bloom filter offsets of the column chunks keyed by the starting position of the column chunk, the parquet-format
+     * classes on the classpath predate the bloom filters so the offsets are read from the raw metadata.
+     */
+    @VisibleForTesting
+    static Map<Long, Long> readBloomFilterOffsets(byte[] metadata)
+    {
+        Map<Long, Long> bloomFilterOffsets = new HashMap<>();
+        try {
+            // FileMetaData: 4: list<RowGroup> row_groups
+            ThriftCompactReader reader = new ThriftCompactReader(metadata);
+            int previousFieldId = 0;
+            while (reader.nextField(previousFieldId)) {
+                previousFieldId = reader.getFieldId();
+                if (previousFieldId == 4 && reader.getFieldType() == LIST) {
+                    int rowGroupCount = reader.readListHeader();
+                    for (int i = 0; i < rowGroupCount; i++) {
+                        readRowGroupBloomFilterOffsets(reader, bloomFilterOffsets);
+                    }
+                }
+                else {
+                    reader.skip(reader.getFieldType());
+                }
+            }
+        }
+        catch (ParquetCorruptionException ignored) {
+            // the metadata was read successfully before, the bloom filters are only an optimization
+            return ImmutableMap.of();
+        }
+        return bloomFilterOffsets;
+    }
+
+    private static void readRowGroupBloomFilterOffsets(ThriftCompactReader reader, Map<Long, Long> bloomFilterOffsets)
+            throws ParquetCorruptionException
+    {
+        // RowGroup: 1: list<ColumnChunk> columns, ColumnChunk: 3: ColumnMetaData meta_data
+        int previousFieldId = 0;
+        while (reader.nextField(previousFieldId)) {
+            previousFieldId = reader.getFieldId();
+            if (previousFieldId == 1 && reader.getFieldType() == LIST) {
+                int columnCount = reader.readListHeader();
+                for (int i = 0; i < columnCount; i++) {
+                    int previousColumnFieldId = 0;
+                    while (reader.nextField(previousColumnFieldId)) {
+                        previousColumnFieldId = reader.getFieldId();
+                        if (previousColumnFieldId == 3 && reader.getFieldType() == STRUCT) {
+                            readColumnBloomFilterOffset(reader, bloomFilterOffsets);
+                        }
+                        else {
+                            reader.skip(reader.getFieldType());
+                        }
+                    }
+                }
+            }
+            else {
+                reader.skip(reader.getFieldType());
+            }
+        }
+    }
+
+    private static void readColumnBloomFilterOffset(ThriftCompactReader reader, Map<Long, Long> bloomFilterOffsets)
+            throws ParquetCorruptionException
+    {
+        // ColumnMetaData: 9: i64 data_page_offset, 11: i64 dictionary_page_offset, 14: i64 bloom_filter_offset
+        long dataPageOffset = 0;
+        long dictionaryPageOffset = 0;
+        long bloomFilterOffset = -1;
+        int previousFieldId = 0;
+        while (reader.nextField(previousFieldId)) {
+            previousFieldId = reader.getFieldId();
+            if (reader.getFieldType() != I64) {
+                reader.skip(reader.getFieldType());
+            }
+            else if (previousFieldId == 9) {
+                dataPageOffset = reader.readI64();
+            }
+            else if (previousFieldId == 11) {
+                dictionaryPageOffset = reader.readI64();
+            }
+            else if (previousFieldId == 14) {
+                bloomFilterOffset = reader.readI64();
+            }
+            else {
+                reader.skip(I64);
+            }
+        }
+        if (bloomFilterOffset >= 0) {
+            // same as ColumnChunkMetaData.getStartingPos
+            long startingPosition = dictionaryPageOffset > 0 && dictionaryPageOffset < dataPageOffset ? dictionaryPageOffset : dataPageOffset;
+            bloomFilterOffsets.put(startingPosition, bloomFilterOffset);
+        }
+    }
+
+    /**
+     * Reads the page index of a column chunk, the column index is only read when requested.
+     *
+     * @param rowCount the number of rows in the row group of the column chunk
+     */
+    public static PageIndex readPageIndex(ParquetDataSource dataSource, PageIndexReference reference, long rowCount, boolean readColumnIndex)
+            throws IOException
+    {
+        Optional<ColumnIndex> columnIndex = Optional.empty();
+        if (readColumnIndex && reference.hasColumnIndex()) {
+            columnIndex = Optional.of(readColumnIndex(readFully(dataSource, reference.getColumnIndexOffset(), reference.getColumnIndexLength())));
+        }
+        OffsetIndex offsetIndex = readOffsetIndex(readFully(dataSource, reference.getOffsetIndexOffset(), reference.getOffsetIndexLength()));
+        return new PageIndex(columnIndex, offsetIndex, rowCount);
+    }
+
+    private static Optional<PageIndexReference> readPageIndexReference(ColumnChunk columnChunk)
+    {
+        // page indexes are written by parquet-mr 1.11 and later, the offset index is needed to locate the pages
+        if (!columnChunk.isSetOffset_index_offset() || columnChunk.getOffset_index_length() <= 0) {
+            return Optional.empty();
+        }
+        long columnIndexOffset = -1;
+        int columnIndexLength = 0;
+        if (columnChunk.isSetColumn_index_offset()) {
+            columnIndexOffset = columnChunk.getColumn_index_offset();
+            columnIndexLength = columnChunk.getColumn_index_length();
+        }
+        return Optional.of(new PageIndexReference(columnIndexOffset, columnIndexLength, columnChunk.getOffset_index_offset(), columnChunk.getOffset_index_length()));
     }
 
     private static MessageType readParquetSchema(List<SchemaElement> schema)
@@ -313,4 +537,11 @@ public final class MetadataReader
         from.readFully(position, buffer);
         return new ByteArrayInputStream(buffer);
     }
+
+    private static InputStream readFully(ParquetDataSource dataSource, long position, int length)
+    {
+        byte[] buffer = new byte[length];
+        dataSource.readFully(position, buffer);
+        return new ByteArrayInputStream(buffer);
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Location of the page index of a column chunk, the offset index is required and the column index is optional.
+ */
+public class PageIndexReference
+{
+    private final long columnIndexOffset;
+    private final int columnIndexLength;
+    private final long offsetIndexOffset;
+    private final int offsetIndexLength;
+
+    public PageIndexReference(long columnIndexOffset, int columnIndexLength, long offsetIndexOffset, int offsetIndexLength)
+    {
+        this.columnIndexOffset = columnIndexOffset;
+        this.columnIndexLength = columnIndexLength;
+        this.offsetIndexOffset = offsetIndexOffset;
+        this.offsetIndexLength = offsetIndexLength;
+    }
+
+    public boolean hasColumnIndex()
+    {
+        return columnIndexLength > 0;
+    }
+
+    public long getColumnIndexOffset()
+    {
+        return columnIndexOffset;
+    }
+
+    public int getColumnIndexLength()
+    {
+        return columnIndexLength;
+    }
+
+    public long getOffsetIndexOffset()
+    {
+        return offsetIndexOffset;
+    }
+
+    public int getOffsetIndexLength()
+    {
+        return offsetIndexLength;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("columnIndexOffset", columnIndexOffset)
+                .add("columnIndexLength", columnIndexLength)
+                .add("offsetIndexOffset", offsetIndexOffset)
+                .add("offsetIndexLength", offsetIndexLength)
+                .toString();
+    }
+}
@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static io.prestosql.parquet.ParquetCompressionUtils.decompress;
 import static java.lang.Math.toIntExact;
 
@@ -32,11 +34,28 @@ class PageReader
     private final long valueCount;
     private final List<DataPage> compressedPages;
     private final DictionaryPage compressedDictionaryPage;
+    // first row and row count of each page, when only some pages of the column chunk were read
+    private final long[] firstRowIndexes;
+    private final long[] rowCounts;
+    private int pageCount;
 
     public PageReader(CompressionCodecName codec,
             List<DataPage> compressedPages,
             DictionaryPage compressedDictionaryPage)
     {
+        this(codec, compressedPages, compressedDictionaryPage, null, null);
+    }
+
+    public PageReader(CompressionCodecName codec,
+            List<DataPage> compressedPages,
+            DictionaryPage compressedDictionaryPage,
+            long[] firstRowIndexes,
+            long[] rowCounts)
+    {
+        checkArgument((firstRowIndexes == null) == (rowCounts == null), "firstRowIndexes and rowCounts must be both present or absent");
+        checkArgument(firstRowIndexes == null || (firstRowIndexes.length == compressedPages.size() && rowCounts.length == compressedPages.size()), "row indexes do not match the pages");
+        this.firstRowIndexes = firstRowIndexes;
+        this.rowCounts = rowCounts;
         this.codec = codec;
         this.compressedPages = new LinkedList<>(compressedPages);
         this.compressedDictionaryPage = compressedDictionaryPage;
@@ -52,12 +71,39 @@ class PageReader
         return valueCount;
     }
 
+    /**
+     * Whether the first row of each page is known, which is the case when pages were skipped using the page index
+     */
+    public boolean hasRowIndexes()
+    {
+        return firstRowIndexes != null;
+    }
+
+    /**
+     * First row within the row group of the page last returned by {@link #readPage()}
+     */
+    public long getCurrentPageFirstRowIndex()
+    {
+        checkState(hasRowIndexes() && pageCount > 0, "no row indexes for current page");
+        return firstRowIndexes[pageCount - 1];
+    }
+
+    /**
+     * Number of rows in the page last returned by {@link #readPage()}
+     */
+    public long getCurrentPageRowCount()
+    {
+        checkState(hasRowIndexes() && pageCount > 0, "no row indexes for current page");
+        return rowCounts[pageCount - 1];
+    }
+
     public DataPage readPage()
     {
         if (compressedPages.isEmpty()) {
             return null;
         }
         DataPage compressedPage = compressedPages.remove(0);
+        pageCount++;
         try {
             if (compressedPage instanceof DataPageV1) {
                 DataPageV1 dataPageV1 = (DataPageV1) compressedPage;
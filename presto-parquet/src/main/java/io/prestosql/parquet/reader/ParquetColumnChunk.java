@@ -62,11 +62,27 @@ public class ParquetColumnChunk
 
     public PageReader readAllPages()
             throws IOException
+    {
+        return readPages(-1, null, null);
+    }
+
+    /**
+     * Reads the dictionary page, if any, followed by the given number of data pages, see {@link PageReader#hasRowIndexes()}.
+     * The buffer only holds the pages selected with the page index.
+     */
+    public PageReader readPages(long[] firstRowIndexes, long[] rowCounts)
+            throws IOException
+    {
+        return readPages(firstRowIndexes.length, firstRowIndexes, rowCounts);
+    }
+
+    private PageReader readPages(int dataPageCount, long[] firstRowIndexes, long[] rowCounts)
+            throws IOException
     {
         List<DataPage> pages = new ArrayList<>();
         DictionaryPage dictionaryPage = null;
         long valueCount = 0;
-        while (valueCount < descriptor.getColumnChunkMetaData().getValueCount()) {
+        while (dataPageCount < 0 ? valueCount < descriptor.getColumnChunkMetaData().getValueCount() : pages.size() < dataPageCount) {
             PageHeader pageHeader = readPageHeader();
             int uncompressedPageSize = pageHeader.getUncompressed_page_size();
             int compressedPageSize = pageHeader.getCompressed_page_size();
@@ -88,7 +104,7 @@ public class ParquetColumnChunk
                     break;
             }
         }
-        return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), pages, dictionaryPage);
+        return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), pages, dictionaryPage, firstRowIndexes, rowCounts);
     }
 
     public int getPosition()
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Metadata of a Parquet file together with the page index and bloom filter locations of its column chunks, which
+ * {@link ParquetMetadata} does not carry.
+ */
+public class ParquetFooter
+{
+    private final ParquetMetadata parquetMetadata;
+    // keyed by the starting position of the column chunk, which is unique within the file
+    private final Map<Long, PageIndexReference> pageIndexReferences;
+    private final Map<Long, Long> bloomFilterOffsets;
+
+    public ParquetFooter(ParquetMetadata parquetMetadata, Map<Long, PageIndexReference> pageIndexReferences, Map<Long, Long> bloomFilterOffsets)
+    {
+        this.parquetMetadata = requireNonNull(parquetMetadata, "parquetMetadata is null");
+        this.pageIndexReferences = ImmutableMap.copyOf(requireNonNull(pageIndexReferences, "pageIndexReferences is null"));
+        this.bloomFilterOffsets = ImmutableMap.copyOf(requireNonNull(bloomFilterOffsets, "bloomFilterOffsets is null"));
+    }
+
+    public ParquetMetadata getParquetMetadata()
+    {
+        return parquetMetadata;
+    }
+
+    public Optional<PageIndexReference> getPageIndexReference(ColumnChunkMetaData columnChunk)
+    {
+        return Optional.ofNullable(pageIndexReferences.get(columnChunk.getStartingPos()));
+    }
+
+    public OptionalLong getBloomFilterOffset(ColumnChunkMetaData columnChunk)
+    {
+        Long offset = bloomFilterOffsets.get(columnChunk.getStartingPos());
+        return offset == null ? OptionalLong.empty() : OptionalLong.of(offset);
+    }
+}
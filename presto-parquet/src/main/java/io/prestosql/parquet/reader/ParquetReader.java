@@ -13,15 +13,18 @@
  */
 package io.prestosql.parquet.reader;
 
+import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.parquet.Field;
 import io.prestosql.parquet.GroupField;
+import io.prestosql.parquet.PageIndex;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.PrimitiveField;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.RowRanges;
 import io.prestosql.spi.block.ArrayBlock;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.RowBlock;
@@ -65,6 +68,8 @@ public class ParquetReader
     private static final int BATCH_SIZE_GROWTH_FACTOR = 2;
 
     private final List<BlockMetaData> blocks;
+    private final List<RowRanges> blockRowRanges;
+    private final Optional<ParquetFooter> footer;
     private final List<PrimitiveColumnIO> columns;
     private final ParquetDataSource dataSource;
     private final AggregatedMemoryContext systemMemoryContext;
@@ -73,7 +78,10 @@ public class ParquetReader
     private BlockMetaData currentBlockMetadata;
     private long currentPosition;
     private long currentGroupRowCount;
+    private RowRanges currentRowRanges;
+    private int currentRange;
     private long nextRowInGroup;
+    private long skippedRowsInGroup;
     private int batchSize;
     private int nextBatchSize = INITIAL_BATCH_SIZE;
     private final PrimitiveColumnReader[] columnReaders;
@@ -90,7 +98,25 @@ public class ParquetReader
             AggregatedMemoryContext systemMemoryContext,
             DataSize maxReadBlockSize)
     {
+        this(messageColumnIO, blocks, ImmutableList.of(), Optional.empty(), dataSource, systemMemoryContext, maxReadBlockSize);
+    }
+
+    /**
+     * @param blockRowRanges rows to read from each of the blocks, all rows are read when empty
+     * @param footer page index locations used to read only the pages of the selected rows
+     */
+    public ParquetReader(MessageColumnIO messageColumnIO,
+            List<BlockMetaData> blocks,
+            List<RowRanges> blockRowRanges,
+            Optional<ParquetFooter> footer,
+            ParquetDataSource dataSource,
+            AggregatedMemoryContext systemMemoryContext,
+            DataSize maxReadBlockSize)
+    {
+        checkArgument(blockRowRanges.isEmpty() || blockRowRanges.size() == blocks.size(), "blockRowRanges does not match blocks");
         this.blocks = blocks;
+        this.blockRowRanges = ImmutableList.copyOf(requireNonNull(blockRowRanges, "blockRowRanges is null"));
+        this.footer = requireNonNull(footer, "footer is null");
         this.dataSource = requireNonNull(dataSource, "dataSource is null");
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
         this.currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
@@ -121,12 +147,24 @@ public class ParquetReader
 
         batchSize = toIntExact(min(nextBatchSize, maxBatchSize));
         nextBatchSize = min(batchSize * BATCH_SIZE_GROWTH_FACTOR, MAX_VECTOR_LENGTH);
-        batchSize = toIntExact(min(batchSize, currentGroupRowCount - nextRowInGroup));
+        batchSize = toIntExact(min(batchSize, currentRowRanges.getRangeEnd(currentRange) - nextRowInGroup));
 
+        long skippedRows = skippedRowsInGroup;
         nextRowInGroup += batchSize;
         currentPosition += batchSize;
+        skippedRowsInGroup = 0;
+        if (nextRowInGroup == currentRowRanges.getRangeEnd(currentRange)) {
+            currentRange++;
+            if (currentRange < currentRowRanges.getRangeCount()) {
+                skippedRowsInGroup = currentRowRanges.getRangeStart(currentRange) - nextRowInGroup;
+                nextRowInGroup = currentRowRanges.getRangeStart(currentRange);
+            }
+            else {
+                nextRowInGroup = currentGroupRowCount;
+            }
+        }
         Arrays.stream(columnReaders)
-                .forEach(reader -> reader.prepareNextRead(batchSize));
+                .forEach(reader -> reader.prepareNextRead(batchSize, skippedRows));
         return batchSize;
     }
 
@@ -135,13 +173,19 @@ public class ParquetReader
         currentRowGroupMemoryContext.close();
         currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
 
-        if (currentBlock == blocks.size()) {
-            return false;
+        do {
+            if (currentBlock == blocks.size()) {
+                return false;
+            }
+            currentBlockMetadata = blocks.get(currentBlock);
+            currentRowRanges = blockRowRanges.isEmpty() ? RowRanges.all(currentBlockMetadata.getRowCount()) : blockRowRanges.get(currentBlock);
+            currentBlock = currentBlock + 1;
         }
-        currentBlockMetadata = blocks.get(currentBlock);
-        currentBlock = currentBlock + 1;
+        while (currentRowRanges.isEmpty());
 
-        nextRowInGroup = 0L;
+        currentRange = 0;
+        nextRowInGroup = currentRowRanges.getRangeStart(0);
+        skippedRowsInGroup = nextRowInGroup;
         currentGroupRowCount = currentBlockMetadata.getRowCount();
         initializeColumnReaders();
         return true;
@@ -206,32 +250,122 @@ public class ParquetReader
 
     private ColumnChunk readPrimitive(PrimitiveField field)
             throws IOException
+    {
+        PrimitiveColumnReader columnReader = getColumnReader(field);
+        ColumnChunk columnChunk = columnReader.readPrimitive(field);
+        updateMaxBytesPerCell(field.getId(), columnChunk.getBlock().getSizeInBytes() / batchSize);
+        return columnChunk;
+    }
+
+    private PrimitiveColumnReader getColumnReader(PrimitiveField field)
+            throws IOException
     {
         ColumnDescriptor columnDescriptor = field.getDescriptor();
-        int fieldId = field.getId();
-        PrimitiveColumnReader columnReader = columnReaders[fieldId];
+        PrimitiveColumnReader columnReader = columnReaders[field.getId()];
         if (columnReader.getPageReader() == null) {
             validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
             ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
-            long startingPosition = metadata.getStartingPos();
-            int totalSize = toIntExact(metadata.getTotalSize());
-            byte[] buffer = allocateBlock(totalSize);
-            dataSource.readFully(startingPosition, buffer);
-            ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
-            ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
-            columnReader.setPageReader(columnChunk.readAllPages());
+            Optional<PageIndex> pageIndex = getPageIndex(metadata);
+            if (pageIndex.isPresent()) {
+                columnReader.setPageReader(readSelectedPages(columnDescriptor, metadata, pageIndex.get()));
+            }
+            else {
+                long startingPosition = metadata.getStartingPos();
+                int totalSize = toIntExact(metadata.getTotalSize());
+                byte[] buffer = allocateBlock(totalSize);
+                dataSource.readFully(startingPosition, buffer);
+                ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
+                ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
+                columnReader.setPageReader(columnChunk.readAllPages());
+            }
         }
-        ColumnChunk columnChunk = columnReader.readPrimitive(field);
+        return columnReader;
+    }
 
+    private void updateMaxBytesPerCell(int fieldId, long bytesPerCell)
+    {
         // update max size per primitive column chunk
-        long bytesPerCell = columnChunk.getBlock().getSizeInBytes() / batchSize;
         if (maxBytesPerCell[fieldId] < bytesPerCell) {
             // update batch size
             maxCombinedBytesPerRow = maxCombinedBytesPerRow - maxBytesPerCell[fieldId] + bytesPerCell;
             maxBatchSize = toIntExact(min(maxBatchSize, max(1, maxReadBlockBytes / maxCombinedBytesPerRow)));
             maxBytesPerCell[fieldId] = bytesPerCell;
         }
-        return columnChunk;
+    }
+
+    /**
+     * Page index of the column chunk, when only some rows of the row group are read
+     */
+    private Optional<PageIndex> getPageIndex(ColumnChunkMetaData metadata)
+    {
+        if (!footer.isPresent() || currentRowRanges.getRowCount() == currentGroupRowCount) {
+            return Optional.empty();
+        }
+        Optional<PageIndexReference> reference = footer.get().getPageIndexReference(metadata);
+        if (!reference.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            PageIndex pageIndex = MetadataReader.readPageIndex(dataSource, reference.get(), currentGroupRowCount, false);
+            if (pageIndex.getPageCount() == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(pageIndex);
+        }
+        catch (IOException ignored) {
+            // read all pages of the column chunk and skip the rows while decoding
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads the dictionary page and the data pages which contain any of the rows to read
+     */
+    private PageReader readSelectedPages(ColumnDescriptor columnDescriptor, ColumnChunkMetaData metadata, PageIndex pageIndex)
+            throws IOException
+    {
+        // the dictionary page precedes the first data page
+        long startingPosition = metadata.getStartingPos();
+        int dictionarySize = toIntExact(pageIndex.getOffset(0) - startingPosition);
+        validateParquet(dictionarySize >= 0, "Invalid offset index for column: %s", columnDescriptor);
+
+        IntList selectedPages = new IntArrayList();
+        int totalSize = dictionarySize;
+        for (int page = 0; page < pageIndex.getPageCount(); page++) {
+            long firstRowIndex = pageIndex.getFirstRowIndex(page);
+            if (currentRowRanges.overlaps(firstRowIndex, firstRowIndex + pageIndex.getRowCount(page))) {
+                selectedPages.add(page);
+                totalSize += pageIndex.getCompressedPageSize(page);
+            }
+        }
+
+        byte[] buffer = allocateBlock(totalSize);
+        if (dictionarySize > 0) {
+            dataSource.readFully(startingPosition, buffer, 0, dictionarySize);
+        }
+        long[] firstRowIndexes = new long[selectedPages.size()];
+        long[] rowCounts = new long[selectedPages.size()];
+        int bufferOffset = dictionarySize;
+        int selected = 0;
+        while (selected < selectedPages.size()) {
+            // read adjacent pages at once
+            long readPosition = pageIndex.getOffset(selectedPages.getInt(selected));
+            int readLength = 0;
+            do {
+                int page = selectedPages.getInt(selected);
+                firstRowIndexes[selected] = pageIndex.getFirstRowIndex(page);
+                rowCounts[selected] = pageIndex.getRowCount(page);
+                readLength += pageIndex.getCompressedPageSize(page);
+                selected++;
+            }
+            while (selected < selectedPages.size() && pageIndex.getOffset(selectedPages.getInt(selected)) == readPosition + readLength);
+            dataSource.readFully(readPosition, buffer, bufferOffset, readLength);
+            bufferOffset += readLength;
+        }
+
+        ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
+        ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
+        return columnChunk.readPages(firstRowIndexes, rowCounts);
     }
 
     private byte[] allocateBlock(int length)
@@ -267,6 +401,24 @@ public class ParquetReader
         return readColumnChunk(field).getBlock();
     }
 
+    /**
+     * Reads only the values of the given positions of the current batch, the other values of the batch are
+     * skipped without being materialized. Only supported for primitive fields which are not repeated.
+     *
+     * @param positions positions within the batch in ascending order
+     */
+    public Block readBlock(Field field, int[] positions, int positionCount)
+            throws IOException
+    {
+        checkArgument(field instanceof PrimitiveField, "Reading selected positions is only supported for primitive fields");
+        PrimitiveField primitiveField = (PrimitiveField) field;
+        Block block = getColumnReader(primitiveField).readPrimitive(field, positions, positionCount);
+        if (positionCount > 0) {
+            updateMaxBytesPerCell(field.getId(), block.getSizeInBytes() / positionCount);
+        }
+        return block;
+    }
+
     private ColumnChunk readColumnChunk(Field field)
             throws IOException
     {
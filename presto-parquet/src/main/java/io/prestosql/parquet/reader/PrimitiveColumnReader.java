@@ -24,6 +24,7 @@ import io.prestosql.parquet.ParquetTypeUtils;
 import io.prestosql.parquet.RichColumnDescriptor;
 import io.prestosql.parquet.dictionary.Dictionary;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.Type;
@@ -49,6 +50,8 @@ import static io.prestosql.parquet.ValuesType.DEFINITION_LEVEL;
 import static io.prestosql.parquet.ValuesType.REPETITION_LEVEL;
 import static io.prestosql.parquet.ValuesType.VALUES;
 import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public abstract class PrimitiveColumnReader
@@ -70,6 +73,12 @@ public abstract class PrimitiveColumnReader
     private DataPage page;
     private int remainingValueCountInPage;
     private int readOffset;
+    // row within the row group following the last read batch
+    private long rowIndex;
+    // position of the current page within the row group, known when the page reader has row indexes
+    private long pageFirstRowIndex;
+    private long pageRowCount;
+    private long rowsReadInPage;
 
     protected abstract void readValue(BlockBuilder blockBuilder, Type type);
 
@@ -148,7 +157,15 @@ public abstract class PrimitiveColumnReader
 
     public void prepareNextRead(int batchSize)
     {
-        readOffset = readOffset + nextBatchSize;
+        prepareNextRead(batchSize, 0);
+    }
+
+    /**
+     * @param skippedRows number of rows between the previous batch and this batch which are not read
+     */
+    public void prepareNextRead(int batchSize, long skippedRows)
+    {
+        readOffset = toIntExact(readOffset + nextBatchSize + skippedRows);
         nextBatchSize = batchSize;
     }
 
@@ -161,7 +178,13 @@ public abstract class PrimitiveColumnReader
     {
         IntList definitionLevels = new IntArrayList();
         IntList repetitionLevels = new IntArrayList();
-        seek();
+        long batchRowIndex = rowIndex + readOffset;
+        if (pageReader.hasRowIndexes()) {
+            seekToRow(batchRowIndex);
+        }
+        else {
+            seek();
+        }
         BlockBuilder blockBuilder = field.getType().createBlockBuilder(null, nextBatchSize);
         int valueCount = 0;
         while (valueCount < nextBatchSize) {
@@ -174,11 +197,80 @@ public abstract class PrimitiveColumnReader
         }
         checkArgument(valueCount == nextBatchSize, "valueCount %s not equals to batchSize %s", valueCount, nextBatchSize);
 
+        rowIndex = batchRowIndex + nextBatchSize;
         readOffset = 0;
         nextBatchSize = 0;
         return new ColumnChunk(blockBuilder.build(), definitionLevels.toIntArray(), repetitionLevels.toIntArray());
     }
 
+    /**
+     * Reads the values of the given positions of the batch, the values of the other rows of the batch are skipped
+     * without being materialized. Only supported for columns which are not repeated, where every value is a row.
+     *
+     * @param positions positions within the batch in ascending order
+     */
+    public Block readPrimitive(Field field, int[] positions, int positionCount)
+    {
+        checkArgument(columnDescriptor.getMaxRepetitionLevel() == 0, "Reading selected positions is not supported for repeated column %s", columnDescriptor);
+        long batchRowIndex = rowIndex + readOffset;
+        if (pageReader.hasRowIndexes()) {
+            seekToRow(batchRowIndex);
+        }
+        else {
+            seek();
+        }
+        Type type = field.getType();
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, positionCount);
+        int nextPosition = 0;
+        int index = 0;
+        while (index < positionCount) {
+            int start = positions[index];
+            int end = start + 1;
+            index++;
+            // consecutive positions are read at once
+            while (index < positionCount && positions[index] == end) {
+                end++;
+                index++;
+            }
+            checkArgument(start >= nextPosition && end <= nextBatchSize, "positions must be ascending and within the batch");
+            skipRows(start - nextPosition);
+            readRows(blockBuilder, type, end - start);
+            nextPosition = end;
+        }
+
+        // the rows following the last position are skipped together with the rows before the next read
+        rowIndex = batchRowIndex + nextPosition;
+        readOffset = nextBatchSize - nextPosition;
+        nextBatchSize = 0;
+        return blockBuilder.build();
+    }
+
+    private void readRows(BlockBuilder blockBuilder, Type type, int rowCount)
+    {
+        int valueCount = 0;
+        while (valueCount < rowCount) {
+            if (page == null) {
+                readNextPage();
+            }
+            int valuesToRead = Math.min(remainingValueCountInPage, rowCount - valueCount);
+            processValues(valuesToRead, ignored -> readValue(blockBuilder, type));
+            valueCount += valuesToRead;
+        }
+    }
+
+    private void skipRows(int rowCount)
+    {
+        int valuePosition = 0;
+        while (valuePosition < rowCount) {
+            if (page == null) {
+                readNextPage();
+            }
+            int offset = Math.min(remainingValueCountInPage, rowCount - valuePosition);
+            skipValues(offset);
+            valuePosition = valuePosition + offset;
+        }
+    }
+
     private void readValues(BlockBuilder blockBuilder, int valuesToRead, Type type, IntList definitionLevels, IntList repetitionLevels)
     {
         processValues(valuesToRead, ignored -> {
@@ -202,6 +294,9 @@ public abstract class PrimitiveColumnReader
         int valueCount = 0;
         for (int i = 0; i < valuesToRead; i++) {
             do {
+                if (repetitionLevel == 0) {
+                    rowsReadInPage++;
+                }
                 valueConsumer.accept(null);
                 valueCount++;
                 if (valueCount == remainingValueCountInPage) {
@@ -225,16 +320,33 @@ public abstract class PrimitiveColumnReader
         if (readOffset == 0) {
             return;
         }
-        int valuePosition = 0;
-        while (valuePosition < readOffset) {
-            if (page == null) {
-                readNextPage();
+        skipRows(readOffset);
+    }
+
+    /**
+     * Positions the reader at the given row when the page reader only holds the pages selected with the
+     * page index. Pages ending before the row are dropped without being decompressed or decoded.
+     */
+    private void seekToRow(long targetRowIndex)
+    {
+        checkArgument(currentValueCount <= totalValueCount, "Already read all values in column chunk");
+        while (true) {
+            if (page == null && !readNextPage()) {
+                throw new ParquetDecodingException(format("Row %s is not in the pages read for column %s", targetRowIndex, columnDescriptor));
             }
-            int offset = Math.min(remainingValueCountInPage, readOffset - valuePosition);
-            skipValues(offset);
-            valuePosition = valuePosition + offset;
+            if (targetRowIndex < pageFirstRowIndex + pageRowCount) {
+                break;
+            }
+            page = null;
+            valuesReader = null;
+            definitionLevel = EMPTY_LEVEL_VALUE;
+            repetitionLevel = EMPTY_LEVEL_VALUE;
+        }
+        long rowsToSkip = targetRowIndex - pageFirstRowIndex - rowsReadInPage;
+        checkArgument(rowsToSkip >= 0, "Row %s was already read in column %s", targetRowIndex, columnDescriptor);
+        if (rowsToSkip > 0) {
+            skipValues(toIntExact(rowsToSkip));
         }
-        checkArgument(valuePosition == readOffset, "valuePosition %s must be equal to readOffset %s", valuePosition, readOffset);
     }
 
     private boolean readNextPage()
@@ -245,6 +357,11 @@ public abstract class PrimitiveColumnReader
             // we have read all pages
             return false;
         }
+        rowsReadInPage = 0;
+        if (pageReader.hasRowIndexes()) {
+            pageFirstRowIndex = pageReader.getCurrentPageFirstRowIndex();
+            pageRowCount = pageReader.getCurrentPageRowCount();
+        }
         remainingValueCountInPage = page.getValueCount();
         if (page instanceof DataPageV1) {
             valuesReader = readPageV1((DataPageV1) page);
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import io.prestosql.parquet.ParquetCorruptionException;
+
+/**
+ * Reads Thrift structures in the compact protocol field by field, for the parts of the Parquet metadata which are
+ * newer than the parquet-format classes on the classpath, such as the bloom filter locations and headers.
+ */
+class ThriftCompactReader
+{
+    static final int STOP = 0;
+    static final int BOOLEAN_TRUE = 1;
+    static final int BOOLEAN_FALSE = 2;
+    static final int BYTE = 3;
+    static final int I16 = 4;
+    static final int I32 = 5;
+    static final int I64 = 6;
+    static final int DOUBLE = 7;
+    static final int BINARY = 8;
+    static final int LIST = 9;
+    static final int SET = 10;
+    static final int MAP = 11;
+    static final int STRUCT = 12;
+
+    private final byte[] data;
+    private int position;
+
+    private int fieldId;
+    private int fieldType;
+
+    ThriftCompactReader(byte[] data)
+    {
+        this.data = data;
+    }
+
+    int getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * Reads the header of the next field of the struct, false at the end of the struct.
+     *
+     * @param previousFieldId the id of the previous field of the struct, 0 for the first one
+     */
+    boolean nextField(int previousFieldId)
+            throws ParquetCorruptionException
+    {
+        int header = readByte();
+        fieldType = header & 0x0f;
+        if (fieldType == STOP) {
+            return false;
+        }
+        int delta = (header >>> 4) & 0x0f;
+        fieldId = delta == 0 ? zigzagToInt(readVarint()) : previousFieldId + delta;
+        return true;
+    }
+
+    int getFieldId()
+    {
+        return fieldId;
+    }
+
+    int getFieldType()
+    {
+        return fieldType;
+    }
+
+    int readI32()
+            throws ParquetCorruptionException
+    {
+        return zigzagToInt(readVarint());
+    }
+
+    long readI64()
+            throws ParquetCorruptionException
+    {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads the header of a list or set and returns the number of elements, the element type is available as the field type.
+     */
+    int readListHeader()
+            throws ParquetCorruptionException
+    {
+        int header = readByte();
+        int size = (header >>> 4) & 0x0f;
+        if (size == 15) {
+            size = (int) readVarint();
+        }
+        fieldType = header & 0x0f;
+        return size;
+    }
+
+    void skip(int type)
+            throws ParquetCorruptionException
+    {
+        switch (type) {
+            case BOOLEAN_TRUE:
+            case BOOLEAN_FALSE:
+                // the value of a boolean field is in the field header
+                return;
+            case BYTE:
+                skipBytes(1);
+                return;
+            case I16:
+            case I32:
+            case I64:
+                readVarint();
+                return;
+            case DOUBLE:
+                skipBytes(Double.BYTES);
+                return;
+            case BINARY:
+                skipBytes((int) readVarint());
+                return;
+            case LIST:
+            case SET:
+                int elementCount = readListHeader();
+                int elementType = fieldType;
+                for (int i = 0; i < elementCount; i++) {
+                    skipElement(elementType);
+                }
+                return;
+            case MAP:
+                int entryCount = (int) readVarint();
+                if (entryCount > 0) {
+                    int types = readByte();
+                    for (int i = 0; i < entryCount; i++) {
+                        skipElement((types >>> 4) & 0x0f);
+                        skipElement(types & 0x0f);
+                    }
+                }
+                return;
+            case STRUCT:
+                skipStruct();
+                return;
+            default:
+                throw new ParquetCorruptionException("Unknown Thrift type %s at position %s", type, position);
+        }
+    }
+
+    void skipStruct()
+            throws ParquetCorruptionException
+    {
+        int previousFieldId = 0;
+        while (nextField(previousFieldId)) {
+            previousFieldId = fieldId;
+            skip(fieldType);
+        }
+    }
+
+    private void skipElement(int type)
+            throws ParquetCorruptionException
+    {
+        // booleans are a byte each as elements of collections
+        if (type == BOOLEAN_TRUE || type == BOOLEAN_FALSE) {
+            skipBytes(1);
+        }
+        else {
+            skip(type);
+        }
+    }
+
+    private long readVarint()
+            throws ParquetCorruptionException
+    {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int next = readByte();
+            value |= (long) (next & 0x7f) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new ParquetCorruptionException("Invalid Thrift varint at position %s", position);
+            }
+        }
+    }
+
+    private int readByte()
+            throws ParquetCorruptionException
+    {
+        if (position >= data.length) {
+            throw new ParquetCorruptionException("Unexpected end of Thrift data at position %s", position);
+        }
+        return data[position++] & 0xff;
+    }
+
+    private void skipBytes(int length)
+            throws ParquetCorruptionException
+    {
+        if (length < 0 || length > data.length - position) {
+            throw new ParquetCorruptionException("Unexpected end of Thrift data at position %s", position);
+        }
+        position += length;
+    }
+
+    private static int zigzagToInt(long value)
+    {
+        int n = (int) value;
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
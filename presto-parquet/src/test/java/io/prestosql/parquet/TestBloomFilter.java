@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet;
+
+import org.testng.annotations.Test;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBloomFilter
+{
+    // a filter of four blocks with the int 42, the long 1234567890123 and the string "apple" inserted by the
+    // parquet-mr BlockSplitBloomFilter algorithm, the first two values are in block 3 and "apple" in block 1
+    private static final int[] BITSET = {
+            0x00000000, 0x00000000, 0x00000000, 0x00000000, 0x00000000, 0x00000000, 0x00000000, 0x00000000,
+            0x00000004, 0x20000000, 0x04000000, 0x00010000, 0x00020000, 0x00000080, 0x80000000, 0x00000400,
+            0x00000000, 0x00000000, 0x00000000, 0x00000000, 0x00000000, 0x00000000, 0x00000000, 0x00000000,
+            0x10000001, 0x20001000, 0x88000000, 0x01000010, 0x00008020, 0x00005000, 0x20000000, 0x40000002};
+
+    @Test
+    public void testHash()
+    {
+        // reference values of 64 bit xxHash with seed 0
+        assertEquals(BloomFilter.hash(utf8Slice("")), 0xef46db3751d8e999L);
+        assertEquals(BloomFilter.hash(utf8Slice("a")), 0xd24ec4f1a98c6e5bL);
+        assertEquals(BloomFilter.hash(utf8Slice("abc")), 0x44bc2cf5ad770999L);
+        assertEquals(BloomFilter.hash(utf8Slice("Nobody inspects the spammish repetition")), 0xfbcea83c8a378bf1L);
+
+        // numbers are hashed in their plain encoding, little endian with four bytes for an int and eight for a long
+        assertEquals(BloomFilter.hash(42), 0xd756d7b62fc50bf1L);
+        assertEquals(BloomFilter.hash(42L), 0xb556806fb6d14353L);
+        assertEquals(BloomFilter.hash(-1L), 0x85d136adb773c6c9L);
+    }
+
+    @Test
+    public void testMightContain()
+    {
+        BloomFilter bloomFilter = new BloomFilter(BITSET);
+        assertTrue(bloomFilter.mightContain(BloomFilter.hash(42)));
+        assertTrue(bloomFilter.mightContain(BloomFilter.hash(1234567890123L)));
+        assertTrue(bloomFilter.mightContain(BloomFilter.hash(utf8Slice("apple"))));
+
+        // 43 and 1L are in the empty blocks 0 and 2, "banana" and "cherry" in block 3 with some of their bits not set
+        assertFalse(bloomFilter.mightContain(BloomFilter.hash(43)));
+        assertFalse(bloomFilter.mightContain(BloomFilter.hash(1L)));
+        assertFalse(bloomFilter.mightContain(BloomFilter.hash(utf8Slice("banana"))));
+        assertFalse(bloomFilter.mightContain(BloomFilter.hash(utf8Slice("cherry"))));
+    }
+}
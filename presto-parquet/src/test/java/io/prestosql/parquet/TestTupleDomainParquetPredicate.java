@@ -13,6 +13,7 @@
  */
 package io.prestosql.parquet;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
@@ -31,11 +32,16 @@ import org.apache.parquet.column.statistics.FloatStatistics;
 import org.apache.parquet.column.statistics.IntStatistics;
 import org.apache.parquet.column.statistics.LongStatistics;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.format.BoundaryOrder;
+import org.apache.parquet.format.ColumnIndex;
+import org.apache.parquet.format.OffsetIndex;
+import org.apache.parquet.format.PageLocation;
 import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.PrimitiveType;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Optional;
 
@@ -60,6 +66,7 @@ import static io.prestosql.spi.type.TinyintType.TINYINT;
 import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
 import static io.prestosql.spi.type.VarcharType.createVarcharType;
 import static java.lang.Float.floatToRawIntBits;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.apache.parquet.column.statistics.Statistics.getStatsBasedOnType;
@@ -329,6 +336,55 @@ public class TestTupleDomainParquetPredicate
         assertFalse(parquetPredicate.matches(2, ImmutableMap.of(column, longColumnStats(1024, 0x10000 + 42)), ID, true));
     }
 
+    @Test
+    public void testBigintRowRangesWithColumnIndex()
+            throws ParquetCorruptionException
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, INT64, 0, 1),
+                new PrimitiveType(OPTIONAL, INT64, "Test column"));
+        // pages of 10 rows with values [0, 9], [10, 19], nulls only and [30, 39]
+        ColumnIndex columnIndex = new ColumnIndex(
+                ImmutableList.of(false, false, true, false),
+                ImmutableList.of(longBytes(0), longBytes(10), ByteBuffer.allocate(0), longBytes(30)),
+                ImmutableList.of(longBytes(9), longBytes(19), ByteBuffer.allocate(0), longBytes(39)),
+                BoundaryOrder.ASCENDING);
+        columnIndex.setNull_counts(ImmutableList.of(0L, 0L, 10L, 0L));
+        OffsetIndex offsetIndex = new OffsetIndex(ImmutableList.of(
+                new PageLocation(4, 100, 0),
+                new PageLocation(104, 100, 10),
+                new PageLocation(204, 100, 20),
+                new PageLocation(304, 100, 30)));
+        Map<ColumnDescriptor, PageIndex> pageIndexes = ImmutableMap.of(column, new PageIndex(Optional.of(columnIndex), offsetIndex, 40));
+
+        assertEquals(getRowRanges(column, Domain.create(ValueSet.ofRanges(range(BIGINT, 12L, true, 35L, true)), false), pageIndexes), rowRanges(10, 20, 30, 40));
+        assertEquals(getRowRanges(column, Domain.create(ValueSet.ofRanges(range(BIGINT, 5L, true, 15L, true)), false), pageIndexes), rowRanges(0, 20));
+        assertEquals(getRowRanges(column, Domain.onlyNull(BIGINT), pageIndexes), rowRanges(20, 30));
+        assertEquals(getRowRanges(column, singleValue(BIGINT, 25L), pageIndexes), RowRanges.none());
+        assertEquals(getRowRanges(column, notNull(BIGINT), ImmutableMap.of()), RowRanges.all(40));
+    }
+
+    private static RowRanges getRowRanges(RichColumnDescriptor column, Domain domain, Map<ColumnDescriptor, PageIndex> pageIndexes)
+            throws ParquetCorruptionException
+    {
+        TupleDomainParquetPredicate parquetPredicate = new TupleDomainParquetPredicate(withColumnDomains(ImmutableMap.of(column, domain)), singletonList(column));
+        return parquetPredicate.getRowRanges(40, pageIndexes, ID, true);
+    }
+
+    private static RowRanges rowRanges(long... bounds)
+    {
+        RowRanges.Builder builder = RowRanges.builder();
+        for (int i = 0; i < bounds.length; i += 2) {
+            builder.add(bounds[i], bounds[i + 1]);
+        }
+        return builder.build();
+    }
+
+    private static ByteBuffer longBytes(long value)
+    {
+        return ByteBuffer.allocate(Long.BYTES).order(LITTLE_ENDIAN).putLong(0, value);
+    }
+
     @Test
     public void testVarcharMatchesWithDictionaryDescriptor()
     {
@@ -348,6 +404,73 @@ public class TestTupleDomainParquetPredicate
         return withColumnDomains(predicateColumns);
     }
 
+    @Test
+    public void testBigintMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, INT64, 0, 0),
+                new PrimitiveType(OPTIONAL, INT64, "Test column"));
+        Map<ColumnDescriptor, BloomFilter> bloomFilters = ImmutableMap.of(column, bloomFilter(BloomFilter.hash(42L), BloomFilter.hash(404L)));
+
+        assertTrue(matchesBloomFilters(column, singleValue(BIGINT, 42L), bloomFilters));
+        assertTrue(matchesBloomFilters(column, Domain.create(ValueSet.of(BIGINT, 7L, 404L), false), bloomFilters));
+        assertFalse(matchesBloomFilters(column, singleValue(BIGINT, 43L), bloomFilters));
+        assertFalse(matchesBloomFilters(column, Domain.create(ValueSet.of(BIGINT, 7L, 43L, 405L), false), bloomFilters));
+        // the bloom filter has no nulls and cannot rule out ranges
+        assertTrue(matchesBloomFilters(column, Domain.create(ValueSet.of(BIGINT, 43L), true), bloomFilters));
+        assertTrue(matchesBloomFilters(column, Domain.create(ValueSet.ofRanges(range(BIGINT, 43L, true, 45L, true)), false), bloomFilters));
+        assertTrue(matchesBloomFilters(column, singleValue(BIGINT, 43L), ImmutableMap.of()));
+    }
+
+    @Test
+    public void testIntegerMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, INT32, 0, 0),
+                new PrimitiveType(OPTIONAL, INT32, "Test column"));
+        Map<ColumnDescriptor, BloomFilter> bloomFilters = ImmutableMap.of(column, bloomFilter(BloomFilter.hash(42)));
+
+        assertTrue(matchesBloomFilters(column, singleValue(INTEGER, 42L), bloomFilters));
+        assertFalse(matchesBloomFilters(column, singleValue(INTEGER, 43L), bloomFilters));
+        assertFalse(matchesBloomFilters(column, singleValue(BIGINT, 43L), bloomFilters));
+        // values outside of the int range are not hashed
+        assertTrue(matchesBloomFilters(column, singleValue(BIGINT, 0x1_0000_0000L), bloomFilters));
+    }
+
+    @Test
+    public void testVarcharMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, BINARY, 0, 0),
+                new PrimitiveType(OPTIONAL, BINARY, "Test column"));
+        Map<ColumnDescriptor, BloomFilter> bloomFilters = ImmutableMap.of(column, bloomFilter(BloomFilter.hash(utf8Slice("apple"))));
+
+        assertTrue(matchesBloomFilters(column, singleValue(createUnboundedVarcharType(), utf8Slice("apple")), bloomFilters));
+        assertFalse(matchesBloomFilters(column, singleValue(createUnboundedVarcharType(), utf8Slice("banana")), bloomFilters));
+    }
+
+    private static boolean matchesBloomFilters(RichColumnDescriptor column, Domain domain, Map<ColumnDescriptor, BloomFilter> bloomFilters)
+    {
+        TupleDomainParquetPredicate parquetPredicate = new TupleDomainParquetPredicate(withColumnDomains(ImmutableMap.of(column, domain)), singletonList(column));
+        return parquetPredicate.matchesBloomFilters(bloomFilters);
+    }
+
+    private static BloomFilter bloomFilter(long... hashes)
+    {
+        // a split block bloom filter of 64 blocks, with the bits of the hashes set as parquet-mr does
+        int[] salt = {0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d, 0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+        int blockCount = 64;
+        int[] bitset = new int[blockCount * 8];
+        for (long hash : hashes) {
+            int block = (int) (((hash >>> 32) * blockCount) >>> 32);
+            int key = (int) hash;
+            for (int i = 0; i < 8; i++) {
+                bitset[block * 8 + i] |= 1 << ((key * salt[i]) >>> 27);
+            }
+        }
+        return new BloomFilter(bitset);
+    }
+
     private static FloatStatistics floatColumnStats(float minimum, float maximum)
     {
         FloatStatistics statistics = new FloatStatistics();
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import io.prestosql.parquet.Field;
+import io.prestosql.parquet.reader.PageIndexTestFiles.FileParquetDataSource;
+import io.prestosql.spi.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.createDataSource;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.createParquetReader;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.getFields;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.writeSortedFile;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Reads a narrow time range of a file sorted by time, with and without skipping pages using the page indexes.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkPageIndexPageSkipping
+{
+    private static final int ROWS = 5_000_000;
+
+    @Param({"0.001", "0.01", "0.1", "1"})
+    private double selectivity = 0.01;
+
+    @Param({"true", "false"})
+    private boolean useColumnIndex = true;
+
+    private File temporaryDirectory;
+    private File file;
+    private List<Field> fields;
+
+    @Setup
+    public void setup()
+            throws IOException
+    {
+        temporaryDirectory = createTempDirectory("page-index").toFile();
+        file = new File(temporaryDirectory, "sorted.parquet");
+        writeSortedFile(file, ROWS, 64 * 1024);
+        fields = getFields();
+    }
+
+    @TearDown
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Benchmark
+    public List<Block> readTimeRange()
+            throws IOException
+    {
+        long minTime = ROWS / 2;
+        long maxTime = minTime + (long) (ROWS * selectivity);
+        List<Block> blocks = new ArrayList<>();
+        try (FileParquetDataSource dataSource = createDataSource(file);
+                ParquetReader reader = createParquetReader(file, dataSource, minTime, maxTime, useColumnIndex)) {
+            while (reader.nextBatch() > 0) {
+                for (Field field : fields) {
+                    blocks.add(reader.readBlock(field));
+                }
+            }
+        }
+        return blocks;
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkPageIndexPageSkipping benchmark = new BenchmarkPageIndexPageSkipping();
+        benchmark.setup();
+        try {
+            benchmark.readTimeRange();
+        }
+        finally {
+            benchmark.tearDown();
+        }
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPageIndexPageSkipping.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
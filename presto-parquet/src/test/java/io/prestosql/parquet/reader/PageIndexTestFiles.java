@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.prestosql.parquet.Field;
+import io.prestosql.parquet.ParquetDataSource;
+import io.prestosql.parquet.ParquetDataSourceId;
+import io.prestosql.parquet.PrimitiveField;
+import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.RowRanges;
+import io.prestosql.parquet.predicate.Predicate;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.format.BoundaryOrder;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnIndex;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.DataPageHeader;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.OffsetIndex;
+import org.apache.parquet.format.PageHeader;
+import org.apache.parquet.format.PageLocation;
+import org.apache.parquet.format.PageType;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.format.Statistics;
+import org.apache.parquet.format.Util;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.parquet.ParquetTypeUtils.getColumnIO;
+import static io.prestosql.parquet.ParquetTypeUtils.getDescriptors;
+import static io.prestosql.parquet.predicate.PredicateUtils.buildPredicate;
+import static io.prestosql.parquet.predicate.PredicateUtils.getRowRanges;
+import static io.prestosql.parquet.predicate.PredicateUtils.predicateMatches;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.lang.Math.toIntExact;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.apache.parquet.schema.MessageTypeParser.parseMessageType;
+
+/**
+ * Parquet files sorted by a time column, with page indexes. The bundled Parquet writer does not write
+ * page indexes, they are added to the written file from the statistics in the data page headers.
+ */
+final class PageIndexTestFiles
+{
+    static final MessageType SCHEMA = parseMessageType("message test { required int64 time; optional binary value (UTF8); }");
+
+    private static final byte[] MAGIC = "PAR1".getBytes(US_ASCII);
+
+    private PageIndexTestFiles() {}
+
+    /**
+     * Writes rows with time 0 to rowCount - 1 and value "value_" + time, every tenth value is null
+     */
+    static void writeSortedFile(File file, int rowCount, int pageSize)
+            throws IOException
+    {
+        SimpleGroupFactory groupFactory = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(new Path(file.toURI()))
+                .withType(SCHEMA)
+                .withCompressionCodec(UNCOMPRESSED)
+                .withPageSize(pageSize)
+                .withDictionaryEncoding(false)
+                .build()) {
+            for (long time = 0; time < rowCount; time++) {
+                Group group = groupFactory.newGroup().append("time", time);
+                if (time % 10 != 0) {
+                    group.append("value", "value_" + time);
+                }
+                writer.write(group);
+            }
+        }
+        addPageIndexes(file);
+    }
+
+    private static void addPageIndexes(File file)
+            throws IOException
+    {
+        byte[] data = Files.readAllBytes(file.toPath());
+        int footerLength = ByteBuffer.wrap(data, data.length - MAGIC.length - Integer.BYTES, Integer.BYTES).order(LITTLE_ENDIAN).getInt();
+        int footerStart = data.length - MAGIC.length - Integer.BYTES - footerLength;
+        FileMetaData fileMetaData = Util.readFileMetaData(new ByteArrayInputStream(data, footerStart, footerLength));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(data, 0, footerStart);
+        for (RowGroup rowGroup : fileMetaData.getRow_groups()) {
+            for (ColumnChunk columnChunk : rowGroup.getColumns()) {
+                writePageIndex(data, columnChunk, output);
+            }
+        }
+        ByteArrayOutputStream footer = new ByteArrayOutputStream();
+        Util.writeFileMetaData(fileMetaData, footer);
+        footer.writeTo(output);
+        output.write(ByteBuffer.allocate(Integer.BYTES).order(LITTLE_ENDIAN).putInt(footer.size()).array());
+        output.write(MAGIC);
+        Files.write(file.toPath(), output.toByteArray());
+    }
+
+    private static void writePageIndex(byte[] data, ColumnChunk columnChunk, ByteArrayOutputStream output)
+            throws IOException
+    {
+        ColumnMetaData metaData = columnChunk.getMeta_data();
+        long position = metaData.isSetDictionary_page_offset() ? Math.min(metaData.getDictionary_page_offset(), metaData.getData_page_offset()) : metaData.getData_page_offset();
+        long end = position + metaData.getTotal_compressed_size();
+
+        List<PageLocation> pageLocations = new ArrayList<>();
+        List<Boolean> nullPages = new ArrayList<>();
+        List<ByteBuffer> minValues = new ArrayList<>();
+        List<ByteBuffer> maxValues = new ArrayList<>();
+        List<Long> nullCounts = new ArrayList<>();
+        long firstRowIndex = 0;
+        while (position < end) {
+            ByteArrayInputStream input = new ByteArrayInputStream(data, toIntExact(position), toIntExact(end - position));
+            PageHeader pageHeader = Util.readPageHeader(input);
+            int pageSize = toIntExact(end - position) - input.available() + pageHeader.getCompressed_page_size();
+            if (pageHeader.getType() == PageType.DATA_PAGE) {
+                DataPageHeader dataPageHeader = pageHeader.getData_page_header();
+                Statistics statistics = dataPageHeader.getStatistics();
+                if (statistics == null || !statistics.isSetNull_count()) {
+                    throw new IllegalStateException("Data page has no statistics");
+                }
+                boolean nullPage = statistics.getNull_count() == dataPageHeader.getNum_values();
+                pageLocations.add(new PageLocation(position, pageSize, firstRowIndex));
+                nullPages.add(nullPage);
+                minValues.add(nullPage ? ByteBuffer.allocate(0) : (statistics.isSetMin_value() ? statistics.bufferForMin_value() : statistics.bufferForMin()));
+                maxValues.add(nullPage ? ByteBuffer.allocate(0) : (statistics.isSetMax_value() ? statistics.bufferForMax_value() : statistics.bufferForMax()));
+                nullCounts.add(statistics.getNull_count());
+                // the columns are not repeated, so every value is a row
+                firstRowIndex += dataPageHeader.getNum_values();
+            }
+            position += pageSize;
+        }
+
+        ColumnIndex columnIndex = new ColumnIndex(nullPages, minValues, maxValues, BoundaryOrder.ASCENDING);
+        columnIndex.setNull_counts(nullCounts);
+        int columnIndexOffset = output.size();
+        Util.writeColumnIndex(columnIndex, output);
+        columnChunk.setColumn_index_offset(columnIndexOffset);
+        columnChunk.setColumn_index_length(output.size() - columnIndexOffset);
+
+        int offsetIndexOffset = output.size();
+        Util.writeOffsetIndex(new OffsetIndex(pageLocations), output);
+        columnChunk.setOffset_index_offset(offsetIndexOffset);
+        columnChunk.setOffset_index_length(output.size() - offsetIndexOffset);
+    }
+
+    static FileParquetDataSource createDataSource(File file)
+            throws IOException
+    {
+        return new FileParquetDataSource(file);
+    }
+
+    /**
+     * Creates a reader of the time and value columns of the rows with the time in the given range
+     */
+    static ParquetReader createParquetReader(File file, FileParquetDataSource dataSource, long minTime, long maxTime, boolean useColumnIndex)
+            throws IOException
+    {
+        Path path = new Path(file.toURI());
+        ParquetFooter footer;
+        try (FSDataInputStream inputStream = FileSystem.getLocal(new Configuration()).open(path)) {
+            footer = MetadataReader.readParquetFooter(inputStream, path, file.length());
+        }
+        Map<List<String>, RichColumnDescriptor> descriptorsByPath = getDescriptors(SCHEMA, SCHEMA);
+        TupleDomain<ColumnDescriptor> tupleDomain = TupleDomain.withColumnDomains(ImmutableMap.of(
+                descriptorsByPath.get(ImmutableList.of("time")),
+                Domain.create(ValueSet.ofRanges(Range.range(BIGINT, minTime, true, maxTime, true)), false)));
+        Predicate predicate = buildPredicate(SCHEMA, tupleDomain, descriptorsByPath);
+
+        ImmutableList.Builder<BlockMetaData> blocks = ImmutableList.builder();
+        ImmutableList.Builder<RowRanges> blockRowRanges = ImmutableList.builder();
+        for (BlockMetaData block : footer.getParquetMetadata().getBlocks()) {
+            if (predicateMatches(predicate, block, dataSource, descriptorsByPath, tupleDomain, true)) {
+                blocks.add(block);
+                blockRowRanges.add(useColumnIndex ? getRowRanges(predicate, block, dataSource, footer, descriptorsByPath, tupleDomain, true) : RowRanges.all(block.getRowCount()));
+            }
+        }
+        MessageColumnIO messageColumnIO = getColumnIO(SCHEMA, SCHEMA);
+        return new ParquetReader(
+                messageColumnIO,
+                blocks.build(),
+                blockRowRanges.build(),
+                useColumnIndex ? Optional.of(footer) : Optional.empty(),
+                dataSource,
+                newSimpleAggregatedMemoryContext(),
+                new DataSize(16, MEGABYTE));
+    }
+
+    static List<Field> getFields()
+    {
+        MessageColumnIO messageColumnIO = getColumnIO(SCHEMA, SCHEMA);
+        ImmutableList.Builder<Field> fields = ImmutableList.builder();
+        fields.add(new PrimitiveField(BIGINT, 0, 0, true, getDescriptor(messageColumnIO, 0), 0));
+        fields.add(new PrimitiveField(VARCHAR, 0, 1, false, getDescriptor(messageColumnIO, 1), 1));
+        return fields.build();
+    }
+
+    private static RichColumnDescriptor getDescriptor(MessageColumnIO messageColumnIO, int column)
+    {
+        return new RichColumnDescriptor(messageColumnIO.getLeaves().get(column).getColumnDescriptor(), SCHEMA.getType(column).asPrimitiveType());
+    }
+
+    static class FileParquetDataSource
+            implements ParquetDataSource
+    {
+        private final ParquetDataSourceId id;
+        private final RandomAccessFile input;
+        private final long size;
+        private long readBytes;
+
+        private FileParquetDataSource(File file)
+                throws IOException
+        {
+            this.id = new ParquetDataSourceId(file.getPath());
+            this.input = new RandomAccessFile(file, "r");
+            this.size = file.length();
+        }
+
+        @Override
+        public ParquetDataSourceId getId()
+        {
+            return id;
+        }
+
+        @Override
+        public long getReadBytes()
+        {
+            return readBytes;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getSize()
+        {
+            return size;
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer)
+        {
+            readFully(position, buffer, 0, buffer.length);
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+        {
+            try {
+                input.seek(position);
+                input.readFully(buffer, bufferOffset, bufferLength);
+                readBytes += bufferLength;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.parquet.BloomFilter;
+import io.prestosql.parquet.ParquetCorruptionException;
+import io.prestosql.parquet.ParquetDataSource;
+import io.prestosql.parquet.ParquetDataSourceId;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static io.prestosql.parquet.reader.MetadataReader.readBloomFilter;
+import static io.prestosql.parquet.reader.MetadataReader.readBloomFilterOffsets;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Reads bloom filter locations and headers encoded by hand in the Thrift compact protocol.
+ */
+public class TestBloomFilterMetadata
+{
+    // FileMetaData with two row groups of two column chunks each, three of which have a bloom filter
+    private static final byte[] FILE_METADATA = bytes(
+            0x15, 0x02, // 1: i32 version = 1
+            0x19, 0x1c, // 2: list<SchemaElement> schema, one struct
+            0x48, 0x01, 'm', 0x00, //   4: string name = "m", stop
+            0x16, 0x06, // 3: i64 num_rows = 3
+            0x19, 0x2c, // 4: list<RowGroup> row_groups, two structs
+
+            // row group 0
+            0x19, 0x2c, // 1: list<ColumnChunk> columns, two structs
+            // column chunk 0
+            0x26, 0x08, // 2: i64 file_offset = 4
+            0x1c, // 3: ColumnMetaData meta_data
+            0x15, 0x02, //   1: i32 type = INT32
+            0x19, 0x25, 0x00, 0x06, //   2: list<i32> encodings = [PLAIN, RLE]
+            0x19, 0x18, 0x01, 'a', //   3: list<string> path_in_schema = ["a"]
+            0x15, 0x00, //   4: i32 codec = UNCOMPRESSED
+            0x16, 0x06, //   5: i64 num_values = 3
+            0x16, 0xc8, 0x01, //   6: i64 total_uncompressed_size = 100
+            0x16, 0xc8, 0x01, //   7: i64 total_compressed_size = 100
+            0x26, 0x08, //   9: i64 data_page_offset = 4
+            0x3c, //   12: Statistics statistics
+            0x58, 0x04, 0x03, 0x00, 0x00, 0x00, //     5: binary max_value
+            0x18, 0x04, 0x01, 0x00, 0x00, 0x00, //     6: binary min_value
+            0x00, //     stop
+            0x19, 0x1c, //   13: list<PageEncodingStats> encoding_stats, one struct
+            0x15, 0x00, 0x15, 0x00, 0x15, 0x02, 0x00, //     1: page_type, 2: encoding, 3: count, stop
+            0x16, 0xd0, 0x0f, //   14: i64 bloom_filter_offset = 1000
+            0x00, //   stop
+            0x07, 0xc8, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0xf0, 0x3f, // 100: double, unknown field with the id after the type
+            0x00, // stop
+            // column chunk 1
+            0x26, 0xd0, 0x01, // 2: i64 file_offset = 104
+            0x1c, // 3: ColumnMetaData meta_data
+            0x39, 0x18, 0x01, 'b', //   3: list<string> path_in_schema = ["b"]
+            0x66, 0x90, 0x03, //   9: i64 data_page_offset = 200
+            0x26, 0xd0, 0x01, //   11: i64 dictionary_page_offset = 104
+            0x36, 0xa0, 0x1f, //   14: i64 bloom_filter_offset = 2000
+            0x00, //   stop
+            0x00, // stop
+            0x16, 0x90, 0x03, // 2: i64 total_byte_size = 200
+            0x16, 0x04, // 3: i64 num_rows = 2
+            0x00, // stop
+
+            // row group 1
+            0x19, 0x2c, // 1: list<ColumnChunk> columns, two structs
+            // column chunk 0, without a bloom filter
+            0x3c, // 3: ColumnMetaData meta_data
+            0x96, 0xf0, 0x2e, //   9: i64 data_page_offset = 3000
+            0x00, //   stop
+            0x00, // stop
+            // column chunk 1
+            0x3c, // 3: ColumnMetaData meta_data
+            0x96, 0xb8, 0x30, //   9: i64 data_page_offset = 3100
+            0x56, 0xc0, 0x3e, //   14: i64 bloom_filter_offset = 4000
+            0x11, //   15: bool, unknown field = true
+            0x1b, 0x01, 0x85, 0x01, 'k', 0x0a, //   16: map<string, i32>, unknown field = {"k": 5}
+            0x00, //   stop
+            0x00, // stop
+            0x26, 0x02, // 3: i64 num_rows = 1
+            0x00, // stop
+
+            0x19, 0x1c, // 5: list<KeyValue> key_value_metadata, one struct
+            0x18, 0x01, 'k', 0x18, 0x01, 'v', 0x00, //   1: string key = "k", 2: string value = "v", stop
+            0x18, 0x01, 'x', // 6: string created_by = "x"
+            0x00); // stop
+
+    // a filter of one block with the int 42 inserted by the parquet-mr BlockSplitBloomFilter algorithm
+    private static final byte[] BITSET = bytes(
+            0x00, 0x00, 0x00, 0x10, 0x00, 0x10, 0x00, 0x00, 0x00, 0x00, 0x00, 0x08, 0x10, 0x00, 0x00, 0x00,
+            0x20, 0x00, 0x00, 0x00, 0x00, 0x10, 0x00, 0x00, 0x00, 0x00, 0x00, 0x20, 0x00, 0x00, 0x00, 0x40);
+
+    @Test
+    public void testReadBloomFilterOffsets()
+    {
+        // the offsets are keyed by the starting position of the column chunk, the dictionary page of the second one
+        assertEquals(readBloomFilterOffsets(FILE_METADATA), ImmutableMap.of(4L, 1000L, 104L, 2000L, 3100L, 4000L));
+    }
+
+    @Test
+    public void testReadBloomFilterOffsetsFromCorruptMetadata()
+    {
+        assertEquals(readBloomFilterOffsets(Arrays.copyOf(FILE_METADATA, FILE_METADATA.length - 10)), ImmutableMap.of());
+        assertEquals(readBloomFilterOffsets(bytes(0x1d)), ImmutableMap.of());
+    }
+
+    @Test
+    public void testReadBloomFilter()
+            throws IOException
+    {
+        byte[] header = bytes(
+                0x15, 0x40, // 1: i32 numBytes = 32
+                0x1c, 0x1c, 0x00, 0x00, // 2: BloomFilterAlgorithm algorithm = BLOCK
+                0x1c, 0x1c, 0x00, 0x00, // 3: BloomFilterHash hash = XXHASH
+                0x1c, 0x1c, 0x00, 0x00, // 4: BloomFilterCompression compression = UNCOMPRESSED
+                0x18, 0x02, 0xab, 0xcd, // 5: binary, unknown field
+                0x00); // stop
+        Optional<BloomFilter> bloomFilter = readBloomFilter(dataSource(header, BITSET), 7);
+        assertTrue(bloomFilter.isPresent());
+        assertTrue(bloomFilter.get().mightContain(BloomFilter.hash(42)));
+        assertFalse(bloomFilter.get().mightContain(BloomFilter.hash(43)));
+    }
+
+    @Test
+    public void testReadUnsupportedBloomFilter()
+            throws IOException
+    {
+        byte[] header = bytes(
+                0x15, 0x40, // 1: i32 numBytes = 32
+                0x1c, 0x1c, 0x00, 0x00, // 2: BloomFilterAlgorithm algorithm = BLOCK
+                0x1c, 0x2c, 0x00, 0x00, // 3: BloomFilterHash hash, with an unknown member 2
+                0x1c, 0x1c, 0x00, 0x00, // 4: BloomFilterCompression compression = UNCOMPRESSED
+                0x00); // stop
+        assertFalse(readBloomFilter(dataSource(header, BITSET), 7).isPresent());
+    }
+
+    @Test
+    public void testReadCorruptBloomFilter()
+    {
+        // the size is not a multiple of the block size
+        byte[] header = bytes(0x15, 0x42, 0x00);
+        assertThatThrownBy(() -> readBloomFilter(dataSource(header, BITSET), 7))
+                .isInstanceOf(ParquetCorruptionException.class)
+                .hasMessageContaining("Invalid bloom filter size 33");
+
+        // the bitset is cut off by the end of the file
+        byte[] truncatedHeader = bytes(0x15, 0x80, 0x01, 0x00);
+        assertThatThrownBy(() -> readBloomFilter(dataSource(truncatedHeader, BITSET), 7))
+                .isInstanceOf(ParquetCorruptionException.class)
+                .hasMessageContaining("exceeds the size");
+    }
+
+    /**
+     * Data of seven bytes of something else, the header at offset 7 and the bitset after it.
+     */
+    private static ParquetDataSource dataSource(byte[] header, byte[] bitset)
+    {
+        byte[] data = new byte[7 + header.length + bitset.length];
+        Arrays.fill(data, 0, 7, (byte) 0x5a);
+        System.arraycopy(header, 0, data, 7, header.length);
+        System.arraycopy(bitset, 0, data, 7 + header.length, bitset.length);
+        return new ParquetDataSource()
+        {
+            @Override
+            public ParquetDataSourceId getId()
+            {
+                return new ParquetDataSourceId("test");
+            }
+
+            @Override
+            public long getReadBytes()
+            {
+                return 0;
+            }
+
+            @Override
+            public long getReadTimeNanos()
+            {
+                return 0;
+            }
+
+            @Override
+            public long getSize()
+            {
+                return data.length;
+            }
+
+            @Override
+            public void readFully(long position, byte[] buffer)
+            {
+                readFully(position, buffer, 0, buffer.length);
+            }
+
+            @Override
+            public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            {
+                System.arraycopy(data, (int) position, buffer, bufferOffset, bufferLength);
+            }
+        };
+    }
+
+    private static byte[] bytes(int... values)
+    {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
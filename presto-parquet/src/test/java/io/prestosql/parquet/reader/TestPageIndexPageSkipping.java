@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import io.prestosql.parquet.Field;
+import io.prestosql.parquet.reader.PageIndexTestFiles.FileParquetDataSource;
+import io.prestosql.spi.block.Block;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.createDataSource;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.createParquetReader;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.getFields;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.writeSortedFile;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestPageIndexPageSkipping
+{
+    private static final int ROWS = 100_000;
+
+    private File temporaryDirectory;
+    private File file;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        temporaryDirectory = createTempDirectory("page-index").toFile();
+        file = new File(temporaryDirectory, "sorted.parquet");
+        writeSortedFile(file, ROWS, 1024);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testNarrowRange()
+            throws IOException
+    {
+        assertPageSkipping(50_000, 50_100);
+    }
+
+    @Test
+    public void testRangeAtStartAndEnd()
+            throws IOException
+    {
+        assertPageSkipping(0, 10);
+        assertPageSkipping(ROWS - 10, ROWS + 10);
+    }
+
+    @Test
+    public void testNoMatchingRows()
+            throws IOException
+    {
+        try (FileParquetDataSource dataSource = createDataSource(file);
+                ParquetReader reader = createParquetReader(file, dataSource, ROWS, ROWS + 10, true)) {
+            assertEquals(reader.nextBatch(), -1);
+        }
+    }
+
+    private void assertPageSkipping(long minTime, long maxTime)
+            throws IOException
+    {
+        ReadResult withIndex = read(minTime, maxTime, true);
+        ReadResult withoutIndex = read(minTime, maxTime, false);
+
+        assertEquals(withIndex.matchingRows, Math.min(maxTime, ROWS - 1) - minTime + 1);
+        assertEquals(withIndex.matchingRows, withoutIndex.matchingRows);
+        assertTrue(withIndex.rows < withoutIndex.rows, "pages were not skipped");
+        assertTrue(withIndex.readBytes < withoutIndex.readBytes, "pages were not skipped");
+    }
+
+    private ReadResult read(long minTime, long maxTime, boolean useColumnIndex)
+            throws IOException
+    {
+        List<Field> fields = getFields();
+        long rows = 0;
+        long matchingRows = 0;
+        try (FileParquetDataSource dataSource = createDataSource(file);
+                ParquetReader reader = createParquetReader(file, dataSource, minTime, maxTime, useColumnIndex)) {
+            for (int batchSize = reader.nextBatch(); batchSize > 0; batchSize = reader.nextBatch()) {
+                Block times = reader.readBlock(fields.get(0));
+                Block values = reader.readBlock(fields.get(1));
+                for (int position = 0; position < batchSize; position++) {
+                    long time = BIGINT.getLong(times, position);
+                    // the values of the columns must stay aligned when pages are skipped
+                    if (time % 10 == 0) {
+                        assertTrue(values.isNull(position));
+                    }
+                    else {
+                        assertFalse(values.isNull(position));
+                        assertEquals(VARCHAR.getSlice(values, position).toStringUtf8(), "value_" + time);
+                    }
+                    if (time >= minTime && time <= maxTime) {
+                        matchingRows++;
+                    }
+                }
+                rows += batchSize;
+            }
+            return new ReadResult(rows, matchingRows, dataSource.getReadBytes());
+        }
+    }
+
+    private static class ReadResult
+    {
+        private final long rows;
+        private final long matchingRows;
+        private final long readBytes;
+
+        private ReadResult(long rows, long matchingRows, long readBytes)
+        {
+            this.rows = rows;
+            this.matchingRows = matchingRows;
+            this.readBytes = readBytes;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import io.prestosql.parquet.Field;
+import io.prestosql.parquet.reader.PageIndexTestFiles.FileParquetDataSource;
+import io.prestosql.spi.block.Block;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.createDataSource;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.createParquetReader;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.getFields;
+import static io.prestosql.parquet.reader.PageIndexTestFiles.writeSortedFile;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestReadSelectedPositions
+{
+    private static final int ROWS = 100_000;
+
+    private File temporaryDirectory;
+    private File file;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        temporaryDirectory = createTempDirectory("selected-positions").toFile();
+        file = new File(temporaryDirectory, "sorted.parquet");
+        writeSortedFile(file, ROWS, 1024);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReadSelectedPositions()
+            throws IOException
+    {
+        assertSelectedPositions(0, ROWS, false);
+        assertSelectedPositions(40_000, 60_000, false);
+        assertSelectedPositions(40_000, 60_000, true);
+    }
+
+    private void assertSelectedPositions(long minTime, long maxTime, boolean useColumnIndex)
+            throws IOException
+    {
+        List<Field> fields = getFields();
+        long rows = 0;
+        try (FileParquetDataSource dataSource = createDataSource(file);
+                ParquetReader reader = createParquetReader(file, dataSource, minTime, maxTime, useColumnIndex)) {
+            int batch = 0;
+            for (int batchSize = reader.nextBatch(); batchSize > 0; batchSize = reader.nextBatch()) {
+                batch++;
+                if (batch % 5 == 0) {
+                    // the batch is not read at all
+                    continue;
+                }
+
+                int[] positions = new int[batchSize];
+                int positionCount = 0;
+                for (int position = 0; position < batchSize; position++) {
+                    // single positions and runs of consecutive positions
+                    if (position % 3 != 0 || position % 7 == 0) {
+                        positions[positionCount] = position;
+                        positionCount++;
+                    }
+                }
+                Block times = reader.readBlock(fields.get(0), positions, positionCount);
+                assertEquals(times.getPositionCount(), positionCount);
+
+                // the positions of the other column are narrowed by the values of the first column
+                int[] valuePositions = new int[positionCount];
+                int valuePositionCount = 0;
+                for (int i = 0; i < positionCount; i++) {
+                    if (BIGINT.getLong(times, i) % 2 == 0) {
+                        valuePositions[valuePositionCount] = positions[i];
+                        valuePositionCount++;
+                    }
+                }
+                Block values = reader.readBlock(fields.get(1), valuePositions, valuePositionCount);
+                assertEquals(values.getPositionCount(), valuePositionCount);
+
+                int valueIndex = 0;
+                for (int i = 0; i < positionCount; i++) {
+                    long time = BIGINT.getLong(times, i);
+                    if (i > 0) {
+                        // the file is sorted by time, with one row per value
+                        assertEquals(time - BIGINT.getLong(times, i - 1), positions[i] - positions[i - 1]);
+                    }
+                    if (time % 2 == 0) {
+                        if (time % 10 == 0) {
+                            assertTrue(values.isNull(valueIndex));
+                        }
+                        else {
+                            assertFalse(values.isNull(valueIndex));
+                            assertEquals(VARCHAR.getSlice(values, valueIndex).toStringUtf8(), "value_" + time);
+                        }
+                        valueIndex++;
+                    }
+                }
+                rows += positionCount;
+            }
+        }
+        assertTrue(rows > 0, "no rows were read");
+    }
+}
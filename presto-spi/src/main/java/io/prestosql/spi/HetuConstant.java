@@ -30,6 +30,8 @@ public class HetuConstant
     public static final String FILTER_CACHE_TTL = "hetu.heuristicindex.filter.cache.ttl";
     public static final String FILTER_CACHE_SOFT_REFERENCE = "hetu.heuristicindex.filter.cache.soft-reference";
     public static final String FILTER_CACHE_PRELOAD_INDICES = "hetu.heuristicindex.filter.cache.preload-indices";
+    public static final String FILTER_CACHE_LOCAL_DIRECTORY = "hetu.heuristicindex.filter.cache.local-directory";
+    public static final String FILTER_CACHE_LOCAL_MAX_DISK_USAGE = "hetu.heuristicindex.filter.cache.local-max-disk-usage";
     public static final String INDEXSTORE_URI = "hetu.heuristicindex.indexstore.uri";
     public static final String INDEXSTORE_FILESYSTEM_PROFILE = "hetu.heuristicindex.indexstore.filesystem.profile";
     public static final String DATA_CENTER_CONNECTOR_NAME = "dc";
@@ -323,6 +323,15 @@ public interface ConnectorMetadata
         throw new PrestoException(NOT_SUPPORTED, "The connector does not support getting table modification time");
     }
 
+    /**
+     * Returns the modification time of every partition of a table if possible. Partitions are named
+     * {@code column=value[/column=value...]}, with the values escaped as in Hive partition names.
+     */
+    default Map<String, Long> getPartitionModificationTimes(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        throw new PrestoException(NOT_SUPPORTED, "The connector does not support getting partition modification times");
+    }
+
     /**
      * Get the physical layout for a new table.
      */
@@ -727,6 +727,14 @@ public class ClassLoaderSafeConnectorMetadata
         }
     }
 
+    @Override
+    public Map<String, Long> getPartitionModificationTimes(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.getPartitionModificationTimes(session, tableHandle);
+        }
+    }
+
     /**
      * Hetu can only cache execution plans for supported connectors.
      * This method checks if the property for supporting execution plan caching is enabled for a given connector.
@@ -18,12 +18,17 @@ package io.prestosql.spi.cube;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
 
 public class CubeUpdateMetadata
 {
     private final String cubeName;
     private final long tableLastUpdatedTime;
+    private final Map<String, Long> partitionsLastUpdatedTime;
     private final String dataPredicateString;
     private final boolean overwrite;
 
@@ -31,11 +36,13 @@ public class CubeUpdateMetadata
     public CubeUpdateMetadata(
             @JsonProperty("cubeName") String cubeName,
             @JsonProperty("tableLastUpdatedTime") long tableLastUpdatedTime,
+            @JsonProperty("partitionsLastUpdatedTime") Map<String, Long> partitionsLastUpdatedTime,
             @JsonProperty("dataPredicate") String dataPredicateString,
             @JsonProperty("overwrite") boolean overwrite)
     {
         this.cubeName = requireNonNull(cubeName, "cubeName is null");
         this.tableLastUpdatedTime = tableLastUpdatedTime;
+        this.partitionsLastUpdatedTime = unmodifiableMap(new HashMap<>(requireNonNull(partitionsLastUpdatedTime, "partitionsLastUpdatedTime is null")));
         this.dataPredicateString = dataPredicateString;
         this.overwrite = overwrite;
     }
@@ -52,6 +59,12 @@ public class CubeUpdateMetadata
         return tableLastUpdatedTime;
     }
 
+    @JsonProperty
+    public Map<String, Long> getPartitionsLastUpdatedTime()
+    {
+        return partitionsLastUpdatedTime;
+    }
+
     @JsonProperty
     public String getDataPredicateString()
     {
@@ -70,6 +83,7 @@ public class CubeUpdateMetadata
         return "CubeUpdateMetadata{" +
                 "cubeName='" + cubeName + '\'' +
                 ", tableLastUpdatedTime=" + tableLastUpdatedTime +
+                ", partitionsLastUpdatedTime=" + partitionsLastUpdatedTime +
                 ", dataPredicateString='" + dataPredicateString + '\'' +
                 ", overwrite=" + overwrite +
                 '}';
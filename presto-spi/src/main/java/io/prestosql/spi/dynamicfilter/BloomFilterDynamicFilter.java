@@ -16,6 +16,7 @@ package io.prestosql.spi.dynamicfilter;
 
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.util.BloomFilter;
 
@@ -142,6 +143,17 @@ public class BloomFilterDynamicFilter
         return bloomFilterDeserialized.test(((String) value).getBytes());
     }
 
+    @Override
+    public int filter(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        Class<?> javaType = valueType.getJavaType();
+        if (javaType == long.class || javaType == Slice.class) {
+            // hashes the same way as contains(Long) and contains(Slice)
+            return bloomFilterDeserialized.test(block, valueType, positions, positionCount);
+        }
+        return super.filter(block, valueType, positions, positionCount);
+    }
+
     @Override
     public long getSize()
     {
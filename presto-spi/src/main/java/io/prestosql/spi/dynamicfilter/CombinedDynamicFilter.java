@@ -15,6 +15,7 @@
 package io.prestosql.spi.dynamicfilter;
 
 import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 
 import java.util.List;
@@ -47,6 +48,13 @@ public class CombinedDynamicFilter
         return filter1.contains(value) && filter2.contains(value);
     }
 
+    @Override
+    public int filter(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        int matchCount = filter1.filter(block, valueType, positions, positionCount);
+        return filter2.filter(block, valueType, positions, matchCount);
+    }
+
     @Override
     public long getSize()
     {
@@ -14,10 +14,13 @@
  */
 package io.prestosql.spi.dynamicfilter;
 
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 
 import java.util.Objects;
 
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+
 /**
  * DynamicFilter contains dynamic filter information and
  * one of value set, bloom filter, min/max values for filtering
@@ -83,6 +86,38 @@ public abstract class DynamicFilter
      */
     public abstract boolean contains(Object value);
 
+    /**
+     * Filter the given positions of a block with the current dynamic filter.
+     * Matching positions are compacted to the front of the positions array, in their original order.
+     * Implementations should override this to avoid boxing every value through {@link #contains(Object)}.
+     *
+     * @param block block containing the values to filter
+     * @param valueType type of the values in the block
+     * @param positions positions of the block to test, overwritten with the matching positions
+     * @param positionCount number of valid entries in the positions array
+     * @return number of matching positions
+     */
+    public int filter(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        return filterByContains(block, valueType, positions, positionCount);
+    }
+
+    /**
+     * Filter the given positions by testing every value with {@link #contains(Object)}
+     */
+    protected final int filterByContains(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        int matchCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (contains(readNativeValue(valueType, block, position))) {
+                positions[matchCount] = position;
+                matchCount++;
+            }
+        }
+        return matchCount;
+    }
+
     /**
      * Get the size of the current DynamicFilter
      *
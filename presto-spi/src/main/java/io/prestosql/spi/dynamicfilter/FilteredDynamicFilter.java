@@ -15,6 +15,7 @@
 package io.prestosql.spi.dynamicfilter;
 
 import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 
 import java.util.List;
@@ -49,6 +50,16 @@ public class FilteredDynamicFilter
         return false;
     }
 
+    @Override
+    public int filter(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        if (!filter.isPresent()) {
+            return super.filter(block, valueType, positions, positionCount);
+        }
+        // values are compared with the predicate, the set lookup cannot be specialized
+        return filterByContains(block, valueType, positions, positionCount);
+    }
+
     @Override
     public DynamicFilter clone()
     {
@@ -14,14 +14,20 @@
  */
 package io.prestosql.spi.dynamicfilter;
 
+import io.airlift.slice.Slice;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 
 import java.util.Set;
 
+import static java.lang.Double.doubleToLongBits;
+
 public class HashSetDynamicFilter
         extends DynamicFilter
 {
     protected Set valueSet;
+    // primitive copy of the value set for block filtering, built on first use
+    private volatile PrimitiveValueSet primitiveValueSet;
 
     public HashSetDynamicFilter(String filterId, ColumnHandle columnHandle, Set valueSet, Type type)
     {
@@ -43,6 +49,59 @@ public class HashSetDynamicFilter
         return valueSet.contains(value);
     }
 
+    @Override
+    public int filter(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        Class<?> javaType = valueType.getJavaType();
+        if (javaType == long.class || javaType == double.class) {
+            PrimitiveValueSet values = getPrimitiveValueSet(javaType);
+            if (values == null) {
+                return super.filter(block, valueType, positions, positionCount);
+            }
+            boolean isDouble = javaType == double.class;
+            int matchCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                boolean match;
+                if (block.isNull(position)) {
+                    match = values.containsNull;
+                }
+                else {
+                    long value = isDouble ? doubleToLongBits(valueType.getDouble(block, position)) : valueType.getLong(block, position);
+                    match = values.contains(value);
+                }
+                if (match) {
+                    positions[matchCount] = position;
+                    matchCount++;
+                }
+            }
+            return matchCount;
+        }
+        if (javaType == Slice.class) {
+            int matchCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                Slice value = block.isNull(position) ? null : valueType.getSlice(block, position);
+                if (valueSet.contains(value)) {
+                    positions[matchCount] = position;
+                    matchCount++;
+                }
+            }
+            return matchCount;
+        }
+        return super.filter(block, valueType, positions, positionCount);
+    }
+
+    private PrimitiveValueSet getPrimitiveValueSet(Class<?> javaType)
+    {
+        PrimitiveValueSet values = primitiveValueSet;
+        if (values == null || values.javaType != javaType || values.sourceSize != valueSet.size()) {
+            values = PrimitiveValueSet.create(valueSet, javaType);
+            primitiveValueSet = values;
+        }
+        return values.valid ? values : null;
+    }
+
     @Override
     public long getSize()
     {
@@ -63,4 +122,83 @@ public class HashSetDynamicFilter
     {
         return valueSet.size() == 0;
     }
+
+    /**
+     * Open addressing set of the long (or double bits) values of a dynamic filter
+     */
+    private static final class PrimitiveValueSet
+    {
+        private final Class<?> javaType;
+        private final int sourceSize;
+        private final boolean valid;
+        private final boolean containsNull;
+        private final long[] keys;
+        private final boolean containsZero;
+        private final int mask;
+
+        private PrimitiveValueSet(Class<?> javaType, int sourceSize, boolean valid, boolean containsNull, long[] keys, boolean containsZero)
+        {
+            this.javaType = javaType;
+            this.sourceSize = sourceSize;
+            this.valid = valid;
+            this.containsNull = containsNull;
+            this.keys = keys;
+            this.containsZero = containsZero;
+            this.mask = keys.length - 1;
+        }
+
+        static PrimitiveValueSet create(Set<?> values, Class<?> javaType)
+        {
+            Class<?> boxedType = javaType == long.class ? Long.class : Double.class;
+            int capacity = Integer.highestOneBit(Math.max(values.size(), 1) * 2 - 1) << 1;
+            long[] keys = new long[capacity];
+            int mask = capacity - 1;
+            boolean containsNull = false;
+            boolean containsZero = false;
+            for (Object value : values) {
+                if (value == null) {
+                    containsNull = true;
+                    continue;
+                }
+                if (value.getClass() != boxedType) {
+                    // values do not match the column type, the generic path decides how to compare them
+                    return new PrimitiveValueSet(javaType, values.size(), false, false, new long[1], false);
+                }
+                long key = value instanceof Long ? (Long) value : doubleToLongBits((Double) value);
+                if (key == 0) {
+                    containsZero = true;
+                    continue;
+                }
+                int index = hash(key) & mask;
+                while (keys[index] != 0 && keys[index] != key) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+            return new PrimitiveValueSet(javaType, values.size(), true, containsNull, keys, containsZero);
+        }
+
+        boolean contains(long key)
+        {
+            if (key == 0) {
+                return containsZero;
+            }
+            int index = hash(key) & mask;
+            long current = keys[index];
+            while (current != 0) {
+                if (current == key) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+                current = keys[index];
+            }
+            return false;
+        }
+
+        private static int hash(long key)
+        {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
 }
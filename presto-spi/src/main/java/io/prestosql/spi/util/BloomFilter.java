@@ -18,6 +18,8 @@ import com.google.common.math.DoubleMath;
 import io.airlift.slice.ByteArrays;
 import io.airlift.slice.Slice;
 import io.airlift.slice.UnsafeSlice;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.Type;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.io.DataInputStream;
@@ -52,6 +54,11 @@ import static java.lang.Double.doubleToLongBits;
  * collisions for specific sequence of repeating bytes. Check the following link for more info
  * https://code.google.com/p/smhasher/wiki/MurmurHash2Flaw
  * <p>
+ * A blocked bloom filter (see "Cache-, Hash- and Space-Efficient Bloom Filters" by Putze et.al.)
+ * sets all bits of a value inside a single 512 bit block, so that adding or testing a value touches
+ * one cache line only. This trades a slightly higher false positive probability for a much lower
+ * number of cache misses when a large filter is probed.
+ * <p>
  * This class was forked from {@code org.apache.orc.util.BloomFilter}.
  */
 public class BloomFilter
@@ -62,18 +69,29 @@ public class BloomFilter
     // from 64-bit linear congruential generator
     private static final long NULL_HASHCODE = 2862933555777941757L;
 
+    // one 64 byte cache line
+    private static final int BLOCK_BITS = 512;
+
     private final BitSet bitSet;
     private final int numHashFunctions;
+    private final boolean blocked;
     private int numBits;
 
     public BloomFilter(long expectedEntries, double fpp)
+    {
+        this(expectedEntries, fpp, false);
+    }
+
+    public BloomFilter(long expectedEntries, double fpp, boolean blocked)
     {
         checkArgument(expectedEntries > 0, "expectedEntries should be > 0");
         checkArgument(fpp > 0.0 && fpp < 1.0, "False positive probability should be > 0.0 & < 1.0");
         int nb = optimalNumOfBits(expectedEntries, fpp);
-        // make 'm' multiple of 64
-        this.numBits = nb + (Long.SIZE - (nb % Long.SIZE));
+        // make 'm' multiple of 64, or of the block size for blocked filters
+        int multiple = blocked ? BLOCK_BITS : Long.SIZE;
+        this.numBits = nb + (multiple - (nb % multiple));
         this.numHashFunctions = optimalNumOfHashFunctions(expectedEntries, numBits);
+        this.blocked = blocked;
         this.bitSet = new BitSet(numBits);
     }
 
@@ -84,10 +102,24 @@ public class BloomFilter
      * @param numFuncs the number of functions used
      */
     public BloomFilter(long[] bits, int numFuncs)
+    {
+        this(bits, numFuncs, false);
+    }
+
+    /**
+     * A constructor to support rebuilding the BloomFilter from a serialized representation.
+     *
+     * @param bits the serialized bits
+     * @param numFuncs the number of functions used
+     * @param blocked whether the bits belong to a blocked bloom filter
+     */
+    public BloomFilter(long[] bits, int numFuncs, boolean blocked)
     {
         bitSet = new BitSet(bits);
         this.numBits = (int) bitSet.bitSize();
+        checkArgument(!blocked || numBits % BLOCK_BITS == 0, "blocked bloom filter must consist of whole blocks");
         numHashFunctions = numFuncs;
+        this.blocked = blocked;
     }
 
     static int optimalNumOfHashFunctions(long n, long m)
@@ -135,7 +167,9 @@ public class BloomFilter
             for (int i = 0; i < numBits; i++) {
                 bits[i] = dataInputStream.readLong();
             }
-            return new BloomFilter(bits, numHashFunctions);
+            // blocked filters are written with a negated number of hash functions
+            boolean blocked = numHashFunctions < 0;
+            return new BloomFilter(bits, Math.abs(numHashFunctions), blocked);
         }
         catch (IOException e) {
             throw new IOException("Failed to deserialize BloomFilter, numHashFunctions: "
@@ -166,6 +200,10 @@ public class BloomFilter
             throw new IllegalArgumentException("BloomFilter to merge must have same number of hash functions");
         }
 
+        if (blocked != that.blocked) {
+            throw new IllegalArgumentException("BloomFilter to merge must have same layout");
+        }
+
         bitSet.merge(that.bitSet);
         this.numBits = (int) bitSet.bitSize();
     }
@@ -182,13 +220,14 @@ public class BloomFilter
                 (other.getClass() == getClass()) &&
                 (numBits == ((BloomFilter) other).numBits) &&
                 (numHashFunctions == ((BloomFilter) other).numHashFunctions) &&
+                (blocked == ((BloomFilter) other).blocked) &&
                 bitSet.equals(((BloomFilter) other).bitSet);
     }
 
     @Override
     public int hashCode()
     {
-        return bitSet.hashCode() + numHashFunctions * 5;
+        return bitSet.hashCode() + numHashFunctions * 5 + (blocked ? 1 : 0);
     }
 
     public void add(byte[] val)
@@ -208,6 +247,16 @@ public class BloomFilter
         int hash1 = (int) hash64;
         int hash2 = (int) (hash64 >>> 32);
 
+        if (blocked) {
+            int blockOffset = getBlockOffset(hash64);
+            // an odd step never maps two hash functions to the same bit of the block
+            int step = hash2 | 1;
+            for (int i = 1; i <= numHashFunctions; i++) {
+                bitSet.set(blockOffset + ((hash1 + (i * step)) & (BLOCK_BITS - 1)));
+            }
+            return;
+        }
+
         for (int i = 1; i <= numHashFunctions; i++) {
             int combinedHash = hash1 + (i * hash2);
             // hashcode should be positive, flip all the bits if it's negative
@@ -262,6 +311,17 @@ public class BloomFilter
         int hash1 = (int) hash64;
         int hash2 = (int) (hash64 >>> 32);
 
+        if (blocked) {
+            int blockOffset = getBlockOffset(hash64);
+            int step = hash2 | 1;
+            for (int i = 1; i <= numHashFunctions; i++) {
+                if (!bitSet.get(blockOffset + ((hash1 + (i * step)) & (BLOCK_BITS - 1)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         for (int i = 1; i <= numHashFunctions; i++) {
             int combinedHash = hash1 + (i * hash2);
             // hashcode should be positive, flip all the bits if it's negative
@@ -281,6 +341,56 @@ public class BloomFilter
         return testHash(getLongHash(val));
     }
 
+    /**
+     * Tests the values of a block at the given positions. Positions of values which might be
+     * contained in the filter are moved to the beginning of the positions array.
+     * <p>
+     * Values are read the same way they are added through {@link #add(long)}, {@link #add(double)}
+     * and {@link #add(Slice)}, depending on the java type of the given type. Hashes are computed for
+     * the whole batch before the filter is probed, which keeps the probe loop free of hashing work.
+     *
+     * @param block block holding the values
+     * @param type type of the values in the block
+     * @param positions positions to test, overwritten with the matching positions
+     * @param positionCount number of positions to test
+     * @return number of matching positions
+     */
+    public int test(Block block, Type type, int[] positions, int positionCount)
+    {
+        long[] hashes = new long[positionCount];
+        Class<?> javaType = type.getJavaType();
+        if (javaType == long.class) {
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                hashes[i] = block.isNull(position) ? NULL_HASHCODE : getLongHash(type.getLong(block, position));
+            }
+        }
+        else if (javaType == double.class) {
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                hashes[i] = block.isNull(position) ? NULL_HASHCODE : getLongHash(doubleToLongBits(type.getDouble(block, position)));
+            }
+        }
+        else if (javaType == Slice.class) {
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                hashes[i] = block.isNull(position) ? NULL_HASHCODE : OrcMurmur3.hash64(type.getSlice(block, position));
+            }
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+
+        int matchCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            if (testHash(hashes[i])) {
+                positions[matchCount] = positions[i];
+                matchCount++;
+            }
+        }
+        return matchCount;
+    }
+
     public boolean test(double val)
     {
         return test(doubleToLongBits(val));
@@ -301,6 +411,11 @@ public class BloomFilter
         return numHashFunctions;
     }
 
+    public boolean isBlocked()
+    {
+        return blocked;
+    }
+
     public long[] getBitSet()
     {
         return bitSet.getData();
@@ -352,7 +467,7 @@ public class BloomFilter
     {
         DataOutputStream dataOutputStream = new DataOutputStream(out);
         long[] bits = bitSet.getData();
-        dataOutputStream.writeInt(numHashFunctions);
+        dataOutputStream.writeInt(blocked ? -numHashFunctions : numHashFunctions);
         dataOutputStream.writeInt(bits.length);
         for (int i = 0; i < bits.length; i++) {
             dataOutputStream.writeLong(bits[i]);
@@ -365,9 +480,17 @@ public class BloomFilter
         return toStringHelper(this)
                 .add("m", numBits)
                 .add("k", numHashFunctions)
+                .add("blocked", blocked)
                 .toString();
     }
 
+    private int getBlockOffset(long hash64)
+    {
+        // multiply-shift maps the upper half of the hash onto the blocks without a division
+        long numBlocks = numBits / BLOCK_BITS;
+        return (int) (((hash64 >>> 32) * numBlocks) >>> 32) * BLOCK_BITS;
+    }
+
     /**
      * Bare metal bit set implementation. For performance reasons, this implementation does not check
      * for index bounds nor expand the bit set size if the specified index is greater than the size.
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static io.prestosql.spi.type.TypeUtils.writeNativeValue;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+
+public class TestHashSetDynamicFilter
+{
+    @Test
+    public void testFilterLongBlock()
+    {
+        HashSetDynamicFilter filter = createFilter(ImmutableSet.of(0L, 3L, -7L, Long.MAX_VALUE));
+        Block block = createBlock(BIGINT, 0L, 1L, 3L, null, -7L, Long.MAX_VALUE, 8L);
+
+        assertFilter(filter, BIGINT, block, 0, 2, 4, 5);
+        // only the given positions are tested
+        int[] positions = {1, 2, 6};
+        assertEquals(filter.filter(block, BIGINT, positions, 3), 1);
+        assertEquals(positions[0], 2);
+    }
+
+    @Test
+    public void testFilterIntegerBlock()
+    {
+        HashSetDynamicFilter filter = createFilter(ImmutableSet.of(5L, 6L));
+        assertFilter(filter, INTEGER, createBlock(INTEGER, 5L, 7L, 6L), 0, 2);
+    }
+
+    @Test
+    public void testFilterDoubleBlock()
+    {
+        HashSetDynamicFilter filter = createFilter(ImmutableSet.of(0.0, 1.5, Double.NaN));
+        assertFilter(filter, DOUBLE, createBlock(DOUBLE, 1.5, -0.0, 0.0, Double.NaN, 2.5), 0, 2, 3);
+    }
+
+    @Test
+    public void testFilterSliceBlock()
+    {
+        HashSetDynamicFilter filter = createFilter(ImmutableSet.of(utf8Slice("a"), utf8Slice("c")));
+        assertFilter(filter, VARCHAR, createBlock(VARCHAR, utf8Slice("a"), utf8Slice("b"), null, utf8Slice("c")), 0, 3);
+    }
+
+    @Test
+    public void testFilterNulls()
+    {
+        Set<Object> values = new HashSet<>(Arrays.asList(1L, null));
+        HashSetDynamicFilter filter = createFilter(values);
+        assertFilter(filter, BIGINT, createBlock(BIGINT, null, 2L, 1L), 0, 2);
+    }
+
+    @Test
+    public void testFilterMixedValueTypes()
+    {
+        // values of another type than the block use the generic comparison
+        HashSetDynamicFilter filter = createFilter(ImmutableSet.of(1L, "2"));
+        assertFilter(filter, BIGINT, createBlock(BIGINT, 1L, 2L), 0);
+    }
+
+    @Test
+    public void testFilterUpdatedValueSet()
+    {
+        Set<Object> values = new HashSet<>(Arrays.asList(1L));
+        HashSetDynamicFilter filter = createFilter(values);
+        Block block = createBlock(BIGINT, 1L, 2L);
+        assertFilter(filter, BIGINT, block, 0);
+
+        values.add(2L);
+        assertFilter(filter, BIGINT, block, 0, 1);
+    }
+
+    @Test
+    public void testFilterMatchesContains()
+    {
+        Set<Object> values = new HashSet<>();
+        for (long i = 0; i < 1000; i += 3) {
+            values.add(i);
+        }
+        ColumnHandle column = new ColumnHandle() {};
+        HashSetDynamicFilter hashSetFilter = new HashSetDynamicFilter("1", column, values, DynamicFilter.Type.LOCAL);
+        FilteredDynamicFilter filteredFilter = new FilteredDynamicFilter("1", column, values, DynamicFilter.Type.LOCAL, Optional.of(list -> list.get(0).equals(list.get(1))));
+        BloomFilterDynamicFilter bloomFilter = BloomFilterDynamicFilter.fromHashSetDynamicFilter(hashSetFilter);
+        CombinedDynamicFilter combinedFilter = new CombinedDynamicFilter(column, hashSetFilter, bloomFilter);
+
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 1000);
+        for (long i = 0; i < 1000; i++) {
+            BIGINT.writeLong(blockBuilder, i);
+        }
+        Block block = blockBuilder.build();
+
+        for (DynamicFilter filter : Arrays.asList(hashSetFilter, filteredFilter, bloomFilter, combinedFilter)) {
+            int[] positions = new int[block.getPositionCount()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = i;
+            }
+            int matchCount = filter.filter(block, BIGINT, positions, positions.length);
+
+            int expectedCount = 0;
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                if (filter.contains(readNativeValue(BIGINT, block, position))) {
+                    assertEquals(positions[expectedCount], position);
+                    expectedCount++;
+                }
+            }
+            assertEquals(matchCount, expectedCount);
+        }
+    }
+
+    private static HashSetDynamicFilter createFilter(Set<?> values)
+    {
+        return new HashSetDynamicFilter("1", null, values, DynamicFilter.Type.LOCAL);
+    }
+
+    private static Block createBlock(Type type, Object... values)
+    {
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, values.length);
+        for (Object value : values) {
+            writeNativeValue(type, blockBuilder, value);
+        }
+        return blockBuilder.build();
+    }
+
+    private static void assertFilter(DynamicFilter filter, Type type, Block block, int... expectedPositions)
+    {
+        int[] positions = new int[block.getPositionCount()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        int matchCount = filter.filter(block, type, positions, positions.length);
+        assertEquals(Arrays.copyOf(positions, matchCount), expectedPositions);
+    }
+}
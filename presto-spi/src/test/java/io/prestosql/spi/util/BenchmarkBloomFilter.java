@@ -15,11 +15,16 @@
 package io.prestosql.spi.util;
 
 import com.google.common.hash.Funnels;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.runner.Runner;
@@ -29,8 +34,11 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.VerboseMode;
 
 import java.nio.charset.Charset;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
+import static io.prestosql.spi.type.BigintType.BIGINT;
+
 @State(Scope.Thread)
 @OutputTimeUnit(TimeUnit.SECONDS)
 @Fork(3)
@@ -38,6 +46,8 @@ import java.util.concurrent.TimeUnit;
 @Measurement(iterations = 20, time = 500, timeUnit = TimeUnit.MILLISECONDS)
 public class BenchmarkBloomFilter
 {
+    private static final int PROBE_POSITIONS = 1024;
+
     @Benchmark
     public void buildBloomFilter()
     {
@@ -56,6 +66,78 @@ public class BenchmarkBloomFilter
         }
     }
 
+    @Benchmark
+    @OperationsPerInvocation(PROBE_POSITIONS)
+    public int probeLong(ProbeData data)
+    {
+        BloomFilter bloomFilter = data.getBloomFilter();
+        Block block = data.getProbeBlock();
+        int matchCount = 0;
+        for (int position = 0; position < PROBE_POSITIONS; position++) {
+            if (bloomFilter.test(BIGINT.getLong(block, position))) {
+                matchCount++;
+            }
+        }
+        return matchCount;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBE_POSITIONS)
+    public int probeBlock(ProbeData data)
+    {
+        int[] positions = data.getPositions();
+        for (int position = 0; position < PROBE_POSITIONS; position++) {
+            positions[position] = position;
+        }
+        return data.getBloomFilter().test(data.getProbeBlock(), BIGINT, positions, PROBE_POSITIONS);
+    }
+
+    @State(Scope.Thread)
+    public static class ProbeData
+    {
+        @Param({"false", "true"})
+        private boolean blocked;
+
+        @Param({"1000000", "10000000"})
+        private int entries;
+
+        private BloomFilter bloomFilter;
+        private Block probeBlock;
+        private final int[] positions = new int[PROBE_POSITIONS];
+
+        @Setup
+        public void setup()
+        {
+            bloomFilter = new BloomFilter(entries, 0.1, blocked);
+            for (int i = 0; i < entries; i++) {
+                bloomFilter.add((long) i);
+            }
+
+            // half of the probed values are in the filter
+            Random random = new Random(0);
+            BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, PROBE_POSITIONS);
+            for (int position = 0; position < PROBE_POSITIONS; position++) {
+                BIGINT.writeLong(blockBuilder, random.nextInt(entries * 2));
+            }
+            probeBlock = blockBuilder.build();
+        }
+
+        public BloomFilter getBloomFilter()
+        {
+            return bloomFilter;
+        }
+
+        public Block getProbeBlock()
+        {
+            return probeBlock;
+        }
+
+        public int[] getPositions()
+        {
+            return positions;
+        }
+    }
+
     public static void main(String[] args)
             throws RunnerException
     {
@@ -14,13 +14,23 @@
  */
 package io.prestosql.spi.util;
 
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.Type;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -117,4 +127,102 @@ public class TestBloomFilter
         BloomFilter deserializedBloomFilter1 = BloomFilter.readFrom(new ByteArrayInputStream(out1.toByteArray()));
         assertFalse(deserializedBloomFilter1.isEmpty());
     }
+
+    @Test
+    public void testBlocked()
+            throws IOException
+    {
+        BloomFilter bloomFilter = new BloomFilter(COUNT, 0.1, true);
+        assertTrue(bloomFilter.isBlocked());
+        assertEquals(bloomFilter.getNumBits() % 512, 0);
+        for (String value : values) {
+            bloomFilter.add(value.getBytes());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bloomFilter.writeTo(out);
+        BloomFilter deserializedBloomFilter = BloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue(deserializedBloomFilter.isBlocked());
+        assertEquals(deserializedBloomFilter.getNumHashFunctions(), bloomFilter.getNumHashFunctions());
+
+        for (String value : values) {
+            assertTrue(deserializedBloomFilter.test(value.getBytes()), "Value should exist in deserialized BloomFilter");
+        }
+
+        int falsePositiveCount = 0;
+        for (int i = 0; i < COUNT; i++) {
+            if (deserializedBloomFilter.test(("abc" + i).getBytes())) {
+                falsePositiveCount++;
+            }
+        }
+        // blocking raises the false positive probability slightly above the requested one
+        assertTrue(falsePositiveCount < COUNT * 0.15, "False positive count too high: " + falsePositiveCount);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "BloomFilter to merge must have same layout")
+    public void testMergeDifferentLayout()
+    {
+        BloomFilter blocked = new BloomFilter(COUNT, 0.1, true);
+        blocked.merge(new BloomFilter(new long[blocked.getBitSet().length], blocked.getNumHashFunctions(), false));
+    }
+
+    @Test
+    public void testBatchTest()
+    {
+        for (boolean blocked : new boolean[] {false, true}) {
+            BloomFilter bloomFilter = new BloomFilter(1000, 0.01, blocked);
+            BlockBuilder longBlockBuilder = BIGINT.createBlockBuilder(null, 2000);
+            BlockBuilder doubleBlockBuilder = DOUBLE.createBlockBuilder(null, 2000);
+            BlockBuilder varcharBlockBuilder = VARCHAR.createBlockBuilder(null, 2000);
+            for (int i = 0; i < 2000; i++) {
+                if (i % 2 == 0) {
+                    bloomFilter.add((long) i);
+                    bloomFilter.add((double) i);
+                    bloomFilter.add(utf8Slice("value" + i));
+                }
+                BIGINT.writeLong(longBlockBuilder, i);
+                DOUBLE.writeDouble(doubleBlockBuilder, i);
+                VARCHAR.writeSlice(varcharBlockBuilder, utf8Slice("value" + i));
+            }
+            longBlockBuilder.appendNull();
+
+            assertBatchTest(bloomFilter, longBlockBuilder.build(), BIGINT);
+            assertBatchTest(bloomFilter, doubleBlockBuilder.build(), DOUBLE);
+            assertBatchTest(bloomFilter, varcharBlockBuilder.build(), VARCHAR);
+        }
+    }
+
+    private static void assertBatchTest(BloomFilter bloomFilter, Block block, Type type)
+    {
+        int[] positions = new int[block.getPositionCount()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+
+        int matchCount = bloomFilter.test(block, type, positions, positions.length);
+        Set<Integer> matches = new HashSet<>();
+        for (int i = 0; i < matchCount; i++) {
+            matches.add(positions[i]);
+        }
+
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            boolean expected;
+            if (block.isNull(position)) {
+                expected = bloomFilter.test((byte[]) null);
+            }
+            else if (type.getJavaType() == long.class) {
+                expected = bloomFilter.test(type.getLong(block, position));
+            }
+            else if (type.getJavaType() == double.class) {
+                expected = bloomFilter.test(type.getDouble(block, position));
+            }
+            else {
+                expected = bloomFilter.test(type.getSlice(block, position));
+            }
+            assertEquals(matches.contains(position), expected, "position " + position);
+            if (position % 2 == 0 && !block.isNull(position)) {
+                assertTrue(expected);
+            }
+        }
+    }
 }
@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import io.airlift.units.Duration;
+import io.prestosql.client.ClientSession;
+import io.prestosql.client.QueryResults;
+import io.prestosql.client.StatementClient;
+import io.prestosql.spi.Plugin;
+import io.prestosql.spi.connector.Connector;
+import io.prestosql.spi.connector.ConnectorContext;
+import io.prestosql.spi.connector.ConnectorFactory;
+import io.prestosql.spi.connector.ConnectorHandleResolver;
+import io.prestosql.spi.connector.ConnectorMetadata;
+import io.prestosql.spi.connector.ConnectorPageSinkProvider;
+import io.prestosql.spi.connector.ConnectorSplitManager;
+import io.prestosql.spi.connector.ConnectorTransactionHandle;
+import io.prestosql.spi.transaction.IsolationLevel;
+import io.prestosql.testing.TestingHandleResolver;
+import io.prestosql.testing.TestingMetadata;
+import io.prestosql.testing.TestingPageSinkProvider;
+import io.prestosql.testing.TestingSplitManager;
+import io.prestosql.testing.TestingTransactionHandle;
+import io.prestosql.tests.DistributedQueryRunner;
+import okhttp3.OkHttpClient;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
+import static io.prestosql.client.StatementClientFactory.newStatementClient;
+import static io.prestosql.execution.TestFinalQueryInfo.createQueryRunner;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestDirectResults
+{
+    private DistributedQueryRunner queryRunner;
+    private OkHttpClient httpClient;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        queryRunner = createQueryRunner(TEST_SESSION);
+        queryRunner.installPlugin(new WritablePlugin());
+        queryRunner.createCatalog("test", "test", ImmutableMap.of());
+        httpClient = new OkHttpClient();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        if (queryRunner != null) {
+            queryRunner.close();
+            queryRunner = null;
+        }
+        if (httpClient != null) {
+            httpClient.dispatcher().executorService().shutdown();
+            httpClient.connectionPool().evictAll();
+            httpClient = null;
+        }
+    }
+
+    @Test(timeOut = 240_000)
+    public void testSingleOutputTask()
+    {
+        assertSameResult("SELECT orderkey, custkey, orderstatus, totalprice, orderdate, comment FROM tpch.tiny.orders", ImmutableMap.of(), true);
+    }
+
+    @Test(timeOut = 240_000)
+    public void testMultipleOutputTasks()
+    {
+        assertSameResult("SELECT orderkey, custkey, orderstatus, totalprice, orderdate, comment FROM tpch.tiny.orders", ImmutableMap.of(FORCE_SINGLE_NODE_OUTPUT, "false"), true);
+    }
+
+    @Test(timeOut = 240_000)
+    public void testUnsupportedTypes()
+    {
+        // results with timestamps are read through the coordinator
+        assertSameResult("SELECT orderkey, CAST(orderdate AS timestamp) FROM tpch.tiny.orders", ImmutableMap.of(FORCE_SINGLE_NODE_OUTPUT, "false"), false);
+    }
+
+    @Test(timeOut = 240_000)
+    public void testEmptyResult()
+    {
+        assertSameResult("SELECT orderkey FROM tpch.tiny.orders WHERE orderkey < 0", ImmutableMap.of(FORCE_SINGLE_NODE_OUTPUT, "false"), true);
+    }
+
+    @Test(timeOut = 240_000)
+    public void testInsert()
+    {
+        List<URI> resultSegments = new ArrayList<>();
+        assertEquals(executeUpdate("CREATE TABLE test.default.nation AS SELECT * FROM tpch.tiny.nation", false, resultSegments), Long.valueOf(25));
+
+        // the update count is only known to the coordinator, so writes are not read from the output tasks
+        assertEquals(executeUpdate("INSERT INTO test.default.nation SELECT * FROM tpch.tiny.nation", true, resultSegments), Long.valueOf(25));
+        assertTrue(resultSegments.isEmpty(), "result segments sent for an insert");
+    }
+
+    private void assertSameResult(String sql, Map<String, String> properties, boolean expectResultSegments)
+    {
+        List<URI> resultSegments = new ArrayList<>();
+        Multiset<List<Object>> expected = execute(sql, properties, false, resultSegments);
+        assertTrue(resultSegments.isEmpty(), "result segments sent without the direct results capability");
+
+        Multiset<List<Object>> actual = execute(sql, properties, true, resultSegments);
+        assertEquals(actual, expected);
+        if (expectResultSegments) {
+            assertFalse(resultSegments.isEmpty(), "result was not read from the output tasks");
+        }
+        else {
+            assertTrue(resultSegments.isEmpty(), "result segments sent for unsupported result types");
+        }
+    }
+
+    /**
+     * Runs the query and adds the result segments of every response to resultSegments. A response of a query
+     * read through the coordinator must not have result segments at all.
+     */
+    private Multiset<List<Object>> execute(String sql, Map<String, String> properties, boolean directResults, List<URI> resultSegments)
+    {
+        ImmutableMultiset.Builder<List<Object>> rows = ImmutableMultiset.builder();
+        try (StatementClient client = newStatementClient(httpClient, createClientSession(properties, directResults), sql)) {
+            while (client.isRunning()) {
+                collectResultSegments(client, resultSegments);
+                Iterable<List<Object>> data = client.currentData().getData();
+                if (data != null) {
+                    for (List<Object> row : data) {
+                        rows.add(ImmutableList.copyOf(row));
+                    }
+                }
+                client.advance();
+            }
+            assertNull(client.finalStatusInfo().getError());
+        }
+        return rows.build();
+    }
+
+    /**
+     * Runs the write statement, adding the result segments of every response to resultSegments, and returns its update count.
+     */
+    private Long executeUpdate(String sql, boolean directResults, List<URI> resultSegments)
+    {
+        try (StatementClient client = newStatementClient(httpClient, createClientSession(ImmutableMap.of(), directResults), sql)) {
+            while (client.isRunning()) {
+                collectResultSegments(client, resultSegments);
+                client.advance();
+            }
+            assertNull(client.finalStatusInfo().getError());
+            return client.finalStatusInfo().getUpdateCount();
+        }
+    }
+
+    private static void collectResultSegments(StatementClient client, List<URI> resultSegments)
+    {
+        List<URI> segments = ((QueryResults) client.currentStatusInfo()).getResultSegments();
+        if (segments != null) {
+            resultSegments.addAll(segments);
+        }
+        else if (!resultSegments.isEmpty()) {
+            fail("response without result segments after segments were sent");
+        }
+    }
+
+    private ClientSession createClientSession(Map<String, String> properties, boolean directResults)
+    {
+        return new ClientSession(
+                queryRunner.getCoordinator().getBaseUrl(),
+                "user",
+                "source",
+                Optional.empty(),
+                ImmutableSet.of(),
+                null,
+                null,
+                null,
+                null,
+                ZoneId.of("America/Los_Angeles"),
+                Locale.ENGLISH,
+                ImmutableMap.of(),
+                properties,
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                null,
+                new Duration(2, MINUTES),
+                false,
+                directResults);
+    }
+
+    private static class WritablePlugin
+            implements Plugin
+    {
+        @Override
+        public Iterable<ConnectorFactory> getConnectorFactories()
+        {
+            return ImmutableList.of(new ConnectorFactory()
+            {
+                @Override
+                public String getName()
+                {
+                    return "test";
+                }
+
+                @Override
+                public ConnectorHandleResolver getHandleResolver()
+                {
+                    return new TestingHandleResolver();
+                }
+
+                @Override
+                public Connector create(String catalogName, Map<String, String> config, ConnectorContext context)
+                {
+                    return new WritableConnector();
+                }
+            });
+        }
+    }
+
+    /**
+     * Accepts writes without storing the rows, so the update count is the only result of a write.
+     */
+    private static class WritableConnector
+            implements Connector
+    {
+        private final ConnectorMetadata metadata = new TestingMetadata();
+
+        @Override
+        public ConnectorTransactionHandle beginTransaction(IsolationLevel isolationLevel, boolean readOnly)
+        {
+            return TestingTransactionHandle.create();
+        }
+
+        @Override
+        public ConnectorMetadata getMetadata(ConnectorTransactionHandle transactionHandle)
+        {
+            return metadata;
+        }
+
+        @Override
+        public ConnectorSplitManager getSplitManager()
+        {
+            return new TestingSplitManager(ImmutableList.of());
+        }
+
+        @Override
+        public ConnectorPageSinkProvider getPageSinkProvider()
+        {
+            return new TestingPageSinkProvider();
+        }
+    }
+}